@@ -2,12 +2,21 @@ package qub;
 
 public class BasicGitParameters extends ChildProcessParametersDecorator<BasicGitParameters> implements GitParameters
 {
-    private int gitArgumentCount;
-    private int commandArgumentCount;
+    private final List<String> gitArguments;
+    private final Indexable<String> gitArgumentsView;
+    private final List<String> commandArguments;
+    private final Indexable<String> commandArgumentsView;
+    private Duration timeout;
+    private GitCancellationToken cancellationToken;
 
     private BasicGitParameters(Path executablePath)
     {
         super(executablePath);
+
+        this.gitArguments = List.create();
+        this.gitArgumentsView = new ReadOnlyArguments(this.gitArguments);
+        this.commandArguments = List.create();
+        this.commandArgumentsView = new ReadOnlyArguments(this.commandArguments);
     }
 
     public static BasicGitParameters create(Path executablePath)
@@ -17,26 +26,53 @@ public class BasicGitParameters extends ChildProcessParametersDecorator<BasicGit
         return new BasicGitParameters(executablePath);
     }
 
+    /**
+     * Create a new BasicGitParameters object from arguments that have already been validated,
+     * such as the arguments of a {@link GitParametersTemplate}.
+     * @param executablePath The path to the Git executable.
+     * @param gitArguments The Git arguments that appear before the command.
+     * @param commandArguments The command arguments.
+     * @param extraCommandArguments Command arguments that appear after the other command
+     *                              arguments.
+     * @param otherArguments The arguments that aren't Git arguments or command arguments and
+     *                       that appear after all of the command arguments.
+     * @return The new BasicGitParameters object.
+     */
+    static BasicGitParameters create(Path executablePath, String[] gitArguments, String[] commandArguments, String[] extraCommandArguments, String[] otherArguments)
+    {
+        final BasicGitParameters result = new BasicGitParameters(executablePath);
+        result.gitArguments.addAll(gitArguments);
+        result.commandArguments.addAll(commandArguments);
+        result.commandArguments.addAll(extraCommandArguments);
+        result.addArguments(result.gitArguments);
+        result.addArguments(result.commandArguments);
+        for (final String otherArgument : otherArguments)
+        {
+            result.addArgument(otherArgument);
+        }
+        return result;
+    }
+
     @Override
     public Iterable<String> getGitArguments()
     {
-        return this.getArguments().take(this.gitArgumentCount);
+        return this.gitArgumentsView;
     }
 
     @Override
     public BasicGitParameters insertGitArgument(int gitArgumentIndex, String gitArgument)
     {
-        PreCondition.assertBetween(0, gitArgumentIndex, this.getGitArguments().getCount(), "gitArgumentIndex");
+        PreCondition.assertBetween(0, gitArgumentIndex, this.gitArguments.getCount(), "gitArgumentIndex");
         PreCondition.assertNotNullAndNotEmpty(gitArgument, "gitArgument");
 
-        this.gitArgumentCount++;
+        this.gitArguments.insert(gitArgumentIndex, gitArgument);
         return super.insertArgument(gitArgumentIndex, gitArgument);
     }
 
     @Override
     public BasicGitParameters addGitArgument(String gitArgument)
     {
-        return this.insertGitArgument(this.getGitArguments().getCount(), gitArgument);
+        return this.insertGitArgument(this.gitArguments.getCount(), gitArgument);
     }
 
     @Override
@@ -54,23 +90,23 @@ public class BasicGitParameters extends ChildProcessParametersDecorator<BasicGit
     @Override
     public Iterable<String> getCommandArguments()
     {
-        return this.getArguments().skip(this.gitArgumentCount).take(this.commandArgumentCount);
+        return this.commandArgumentsView;
     }
 
     @Override
     public BasicGitParameters insertCommandArgument(int commandArgumentIndex, String commandArgument)
     {
-        PreCondition.assertBetween(0, commandArgumentIndex, this.getCommandArguments().getCount(), "commandArgumentIndex");
+        PreCondition.assertBetween(0, commandArgumentIndex, this.commandArguments.getCount(), "commandArgumentIndex");
         PreCondition.assertNotNullAndNotEmpty(commandArgument, "commandArgument");
 
-        this.commandArgumentCount++;
-        return super.insertArgument(this.gitArgumentCount + commandArgumentIndex, commandArgument);
+        this.commandArguments.insert(commandArgumentIndex, commandArgument);
+        return super.insertArgument(this.gitArguments.getCount() + commandArgumentIndex, commandArgument);
     }
 
     @Override
     public BasicGitParameters addCommandArgument(String commandArgument)
     {
-        return this.insertCommandArgument(this.getCommandArguments().getCount(), commandArgument);
+        return this.insertCommandArgument(this.commandArguments.getCount(), commandArgument);
     }
 
     @Override
@@ -96,4 +132,118 @@ public class BasicGitParameters extends ChildProcessParametersDecorator<BasicGit
     {
         return (BasicGitParameters)GitParameters.super.redirectErrorTo(errorStream);
     }
+
+    @Override
+    public BasicGitParameters addConfiguration(String name, String value)
+    {
+        return (BasicGitParameters)GitParameters.super.addConfiguration(name, value);
+    }
+
+    @Override
+    public BasicGitParameters addLowSpeedLimit(int bytesPerSecond, int seconds)
+    {
+        return (BasicGitParameters)GitParameters.super.addLowSpeedLimit(bytesPerSecond, seconds);
+    }
+
+    @Override
+    public Duration getTimeout()
+    {
+        return this.timeout;
+    }
+
+    @Override
+    public BasicGitParameters setTimeout(Duration timeout)
+    {
+        PreCondition.assertNotNull(timeout, "timeout");
+        PreCondition.assertTrue(timeout.greaterThan(Duration.zero), "timeout.greaterThan(Duration.zero)");
+
+        this.timeout = timeout;
+
+        return this;
+    }
+
+    @Override
+    public GitCancellationToken getCancellationToken()
+    {
+        return this.cancellationToken;
+    }
+
+    @Override
+    public BasicGitParameters setCancellationToken(GitCancellationToken cancellationToken)
+    {
+        PreCondition.assertNotNull(cancellationToken, "cancellationToken");
+
+        this.cancellationToken = cancellationToken;
+
+        return this;
+    }
+
+    /**
+     * A read-only view of one of the argument segments. The view doesn't copy the segment, so
+     * getting it doesn't cost anything, but it can't be used to change the segment without also
+     * changing the full argument list.
+     */
+    private static class ReadOnlyArguments implements Indexable<String>
+    {
+        private final List<String> arguments;
+
+        ReadOnlyArguments(List<String> arguments)
+        {
+            this.arguments = arguments;
+        }
+
+        @Override
+        public String get(int index)
+        {
+            return this.arguments.get(index);
+        }
+
+        @Override
+        public Iterator<String> iterate()
+        {
+            return this.arguments.iterate();
+        }
+
+        @Override
+        public int getCount()
+        {
+            return this.arguments.getCount();
+        }
+
+        /**
+         * Get whether the provided object is an Iterable with the same arguments in the same
+         * order. Both sides are compared element by element, so a view and a List with the same
+         * arguments are equal to each other no matter which one is asked.
+         * @param rhs The object to compare to this view.
+         * @return Whether the provided object has the same arguments as this view.
+         */
+        @Override
+        public boolean equals(Object rhs)
+        {
+            boolean result = rhs instanceof java.lang.Iterable;
+            if (result)
+            {
+                final java.util.Iterator<String> lhsIterator = this.arguments.iterator();
+                final java.util.Iterator<?> rhsIterator = ((java.lang.Iterable<?>)rhs).iterator();
+                while (result && lhsIterator.hasNext() && rhsIterator.hasNext())
+                {
+                    result = Comparer.equal(lhsIterator.next(), rhsIterator.next());
+                }
+                result = result && !lhsIterator.hasNext() && !rhsIterator.hasNext();
+            }
+            return result;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return this.arguments.hashCode();
+        }
+
+        @Override
+        public String toString()
+        {
+            return this.arguments.toString();
+        }
+    }
 }
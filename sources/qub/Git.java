@@ -5,9 +5,37 @@ package qub;
  */
 public class Git extends ChildProcessRunnerWrapper<Git,GitParameters>
 {
-    private Git(ChildProcessRunner childProcessRunner)
+    /**
+     * The largest number of paths that {@link #runStatus(Folder, Iterable)} passes to "git
+     * status" as pathspecs. More paths than this could make the command line too long, so the
+     * whole working tree is checked instead.
+     */
+    static final int maximumStatusPathspecCount = 100;
+
+    private final ChildProcessRunner childProcessRunner;
+    private final FileSystem fileSystem;
+    private final EnvironmentVariables environmentVariables;
+    private GitVersionCache versionCache;
+    private java.util.concurrent.ThreadFactory threadFactory;
+    private java.util.concurrent.ScheduledThreadPoolExecutor watchdogScheduler;
+    private boolean markWatchedChildProcesses;
+    private final MutableMap<String,GitRefDatabase> refDatabases;
+    private final MutableMap<String,GitObjectDatabase> objectDatabases;
+    private final MutableMap<String,GitCatFileSession> promisorCatFileSessions;
+
+    private Git(ChildProcessRunner childProcessRunner, FileSystem fileSystem, EnvironmentVariables environmentVariables)
     {
         super(childProcessRunner, GitParameters::create, "git");
+
+        this.childProcessRunner = childProcessRunner;
+        this.fileSystem = fileSystem;
+        this.environmentVariables = environmentVariables;
+        this.versionCache = GitVersionCache.getProcessCache();
+        this.threadFactory = Git::createPlatformThread;
+        this.markWatchedChildProcesses = true;
+        this.refDatabases = Map.create();
+        this.objectDatabases = Map.create();
+        this.promisorCatFileSessions = Map.create();
     }
     
     /**
@@ -19,7 +47,7 @@ public class Git extends ChildProcessRunnerWrapper<Git,GitParameters>
     {
         PreCondition.assertNotNull(process, "process");
 
-        return Git.create(process.getChildProcessRunner());
+        return new Git(process.getChildProcessRunner(), process.getFileSystem(), process.getEnvironmentVariables());
     }
 
     /**
@@ -32,23 +60,868 @@ public class Git extends ChildProcessRunnerWrapper<Git,GitParameters>
     {
         PreCondition.assertNotNull(childProcessRunner, "childProcessRunner");
 
-        return new Git(childProcessRunner);
+        return new Git(childProcessRunner, null, null);
+    }
+
+    /**
+     * Get the GitVersionCache that this Git object uses to remember the versions of the Git
+     * executables that it has invoked.
+     * @return The GitVersionCache that this Git object uses.
+     */
+    public GitVersionCache getVersionCache()
+    {
+        return this.versionCache;
+    }
+
+    /**
+     * Set the GitVersionCache that this Git object will use to remember the versions of the Git
+     * executables that it has invoked. By default this is the cache that is shared by all of the
+     * Git objects in this process.
+     * @param versionCache The GitVersionCache that this Git object will use.
+     * @return This object for method chaining.
+     */
+    public Git setVersionCache(GitVersionCache versionCache)
+    {
+        PreCondition.assertNotNull(versionCache, "versionCache");
+
+        this.versionCache = versionCache;
+
+        return this;
+    }
+
+    /**
+     * Get the ThreadFactory that creates the threads that this Git object starts itself: the
+     * thread that checks the deadlines of commands with a timeout or a cancellation token, the
+     * threads that run the long-lived processes of a {@link GitCatFileSession} or a
+     * {@link GitProcessPool}, and the thread of a pool's idle eviction task. This defaults to a
+     * factory that creates daemon platform threads. Other commands run on the calling thread,
+     * and the threads that copy a child process's output streams are created by the
+     * ChildProcessRunner, not by this factory.
+     * @return The ThreadFactory that creates the threads that this Git object starts.
+     */
+    public synchronized java.util.concurrent.ThreadFactory getThreadFactory()
+    {
+        return this.threadFactory;
+    }
+
+    /**
+     * Set the ThreadFactory that creates the threads that this Git object starts itself (see
+     * {@link #getThreadFactory()}). A {@link GitMultiRepositoryRunner} that is created for this
+     * Git object also uses this ThreadFactory by default.
+     * @param threadFactory The ThreadFactory that creates the threads that this Git object
+     *                      starts.
+     * @return This object for method chaining.
+     */
+    public Git setThreadFactory(java.util.concurrent.ThreadFactory threadFactory)
+    {
+        PreCondition.assertNotNull(threadFactory, "threadFactory");
+
+        synchronized (this)
+        {
+            this.threadFactory = threadFactory;
+            if (this.watchdogScheduler != null)
+            {
+                this.watchdogScheduler.shutdown();
+                this.watchdogScheduler = null;
+            }
+        }
+
+        return this;
+    }
+
+    /**
+     * Get whether the commands that this Git object runs with a timeout or a cancellation token
+     * are marked with a unique "-c qub.watchdog=&lt;id&gt;" argument so that their child process
+     * can be found and killed when they are stopped. This defaults to true.
+     * @return Whether watched commands are marked.
+     */
+    public synchronized boolean getMarkWatchedChildProcesses()
+    {
+        return this.markWatchedChildProcesses;
+    }
+
+    /**
+     * Set whether the commands that this Git object runs with a timeout or a cancellation token
+     * are marked so that their child process can be killed when they are stopped. Turn this off
+     * for a ChildProcessRunner that doesn't start operating system processes, such as a fake
+     * runner that matches the exact arguments of the commands that it runs. An unmarked command
+     * is stopped by interrupting the thread that runs it, because a child process that can't be
+     * identified is never killed.
+     * @param markWatchedChildProcesses Whether watched commands are marked.
+     * @return This object for method chaining.
+     */
+    public synchronized Git setMarkWatchedChildProcesses(boolean markWatchedChildProcesses)
+    {
+        this.markWatchedChildProcesses = markWatchedChildProcesses;
+
+        return this;
     }
 
+    /**
+     * Get the scheduler that checks the deadlines of the commands that this Git object runs with
+     * a timeout or a cancellation token.
+     * @return The scheduler that checks the deadlines of this Git object's commands.
+     */
+    private synchronized java.util.concurrent.ScheduledExecutorService getWatchdogScheduler()
+    {
+        if (this.watchdogScheduler == null)
+        {
+            this.watchdogScheduler = GitWatchdog.createScheduler(this.threadFactory);
+        }
+        return this.watchdogScheduler;
+    }
+
+    private static Thread createPlatformThread(Runnable action)
+    {
+        final Thread result = new Thread(action);
+        result.setDaemon(true);
+        return result;
+    }
+
+    /**
+     * Get the version of the Git executable. The executable is resolved through the PATH
+     * environment variable of the process that this Git object was created from (which is the
+     * environment that its child processes get), and the version is cached per resolved
+     * executable file, so only the first call for an executable (or the first call after the
+     * executable's file changes) will invoke "git --version". If the executable's file can't be
+     * resolved (for example because this Git object was created from a ChildProcessRunner), then
+     * the version is only cached for this Git object's ChildProcessRunner.
+     * @return The version of the Git executable.
+     */
     public Result<VersionNumber> version()
     {
         return Result.create(() ->
         {
-            final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
-            this.run((GitParameters parameters) ->
+            final Path executablePath = this.getExecutablePath();
+            File executableFile = null;
+            if (this.fileSystem != null && this.environmentVariables != null)
             {
-                parameters.addArgument("--version");
-                parameters.redirectOutputTo(output);
+                final String pathEnvironmentVariable = this.environmentVariables.get("PATH")
+                    .catchError(NotFoundException.class)
+                    .await();
+                final String pathExtEnvironmentVariable = this.environmentVariables.get("PATHEXT")
+                    .catchError(NotFoundException.class)
+                    .await();
+                executableFile = GitVersionCache.findExecutableFile(this.fileSystem, executablePath, pathEnvironmentVariable, pathExtEnvironmentVariable);
+            }
+
+            return this.versionCache.get(this.childProcessRunner, executablePath, executableFile, () ->
+            {
+                final GitOutputBuffer output = GitOutputBuffer.acquire();
+                try
+                {
+                    this.run((GitParameters parameters) ->
+                    {
+                        parameters.addArgument("--version");
+                        parameters.setOutputStreamHandler((ByteReadStream outputStream) -> output.readFrom(outputStream).await());
+                    }).await();
+
+                    final String versionPrefix = "git version ";
+                    final GitByteSlice outputSlice = output.getSlice().trim();
+                    if (!outputSlice.startsWith(versionPrefix))
+                    {
+                        throw new ParseException("Expected git --version output to start with " + Strings.escapeAndQuote(versionPrefix) + ", but found " + Strings.escapeAndQuote(outputSlice.getText()) + ".");
+                    }
+                    final VersionNumber result = VersionNumber.parse(outputSlice.skip(versionPrefix.length()).getText()).await();
+
+                    PostCondition.assertNotNull(result, "result");
+
+                    return result;
+                }
+                finally
+                {
+                    output.release();
+                }
             }).await();
-            String outputText = output.getText().await();
-            outputText = outputText.trim();
-            outputText = outputText.substring("git version ".length());
-            final VersionNumber result = VersionNumber.parse(outputText).await();
+        });
+    }
+
+    /**
+     * Get whether the version of the Git executable is greater than or equal to the provided
+     * major and minor version numbers.
+     * @param major The minimum major version number.
+     * @param minor The minimum minor version number.
+     * @return Whether the version of the Git executable is at least the provided version.
+     */
+    public Result<Boolean> isVersionAtLeast(int major, int minor)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(major, 0, "major");
+        PreCondition.assertGreaterThanOrEqualTo(minor, 0, "minor");
+
+        return Result.create(() ->
+        {
+            final VersionNumber version = this.version().await();
+            final int versionMajor = version.hasMajor() ? version.getMajor() : 0;
+            final int versionMinor = version.hasMinor() ? version.getMinor() : 0;
+            return versionMajor > major || (versionMajor == major && versionMinor >= minor);
+        });
+    }
+
+    /**
+     * Get whether the Git executable supports the --initial-branch argument to "git init" (see
+     * {@link GitInitParameters#addInitialBranch(String)}). This argument was added in Git 2.28.
+     * @return Whether the Git executable supports the --initial-branch argument.
+     */
+    public Result<Boolean> supportsInitialBranch()
+    {
+        return this.isVersionAtLeast(2, 28);
+    }
+
+    /**
+     * Run the Git command that is described by the provided parameters. If the parameters have a
+     * timeout or a cancellation token, then the command's child process is killed when the
+     * timeout elapses or when the token is cancelled.
+     * @param parameters The parameters of the Git command to run.
+     * @return The exit code of the Git command.
+     */
+    @Override
+    public Result<Integer> run(GitParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        final Duration timeout = parameters.getTimeout();
+        final GitCancellationToken cancellationToken = parameters.getCancellationToken();
+        return timeout == null && cancellationToken == null
+            ? super.run(parameters)
+            : GitWatchdog.run(this.childProcessRunner, this.getWatchdogScheduler(), this.getMarkWatchedChildProcesses(), parameters, timeout, cancellationToken);
+    }
+
+    @Override
+    public <T extends GitParameters> Result<Integer> run(Function1<Path,T> parametersCreator, Action1<T> parametersSetup)
+    {
+        PreCondition.assertNotNull(parametersCreator, "parametersCreator");
+        PreCondition.assertNotNull(parametersSetup, "parametersSetup");
+
+        return Result.create(() ->
+        {
+            final T parameters = parametersCreator.run(this.getExecutablePath());
+            parametersSetup.run(parameters);
+            return this.run(parameters).await();
+        });
+    }
+
+    public Result<Integer> catFile(GitCatFileParameters parameters)
+    {
+        return this.run(parameters);
+    }
+
+    public Result<Integer> catFile(Action1<GitCatFileParameters> parametersSetup)
+    {
+        return this.run(GitCatFileParameters::create, parametersSetup);
+    }
+
+    /**
+     * Create a session that reads objects from the repository in the provided folder through
+     * long-lived "git cat-file --batch" and "git cat-file --batch-check" processes, so that
+     * reading many objects over time only starts each process once. The session's processes are
+     * run by threads that are created by this Git object's ThreadFactory. Dispose of the
+     * session to close its processes.
+     * @param repositoryFolder The folder of the repository to read objects from.
+     * @return The new session.
+     */
+    public GitCatFileSession createCatFileSession(Folder repositoryFolder)
+    {
+        PreCondition.assertNotNull(repositoryFolder, "repositoryFolder");
+
+        return GitCatFileSession.create(this, repositoryFolder);
+    }
+
+    /**
+     * Get the type, size, and contents of each of the provided objects. All of the objects are
+     * read by a single "git cat-file --batch" process, so the cost of starting a process is paid
+     * once instead of once per object. Use {@link #createCatFileSession(Folder)} to keep the
+     * process alive across calls.
+     * @param repositoryFolder The folder of the repository that contains the objects.
+     * @param objectNames The names of the objects to read.
+     * @return The entries for the provided objects, in the same order as the object names.
+     */
+    public Result<Iterable<GitCatFileBatchEntry>> catFileBatch(Folder repositoryFolder, Iterable<String> objectNames)
+    {
+        PreCondition.assertNotNull(repositoryFolder, "repositoryFolder");
+        PreCondition.assertNotNull(objectNames, "objectNames");
+
+        return this.catFileBatch(repositoryFolder, objectNames, true);
+    }
+
+    /**
+     * Get the type and size of each of the provided objects. All of the objects are checked by a
+     * single "git cat-file --batch-check" process, so the cost of starting a process is paid once
+     * instead of once per object. Use {@link #createCatFileSession(Folder)} to keep the process
+     * alive across calls.
+     * @param repositoryFolder The folder of the repository that contains the objects.
+     * @param objectNames The names of the objects to check.
+     * @return The entries for the provided objects, in the same order as the object names.
+     */
+    public Result<Iterable<GitCatFileBatchEntry>> catFileBatchCheck(Folder repositoryFolder, Iterable<String> objectNames)
+    {
+        PreCondition.assertNotNull(repositoryFolder, "repositoryFolder");
+        PreCondition.assertNotNull(objectNames, "objectNames");
+
+        return this.catFileBatch(repositoryFolder, objectNames, false);
+    }
+
+    /**
+     * Get the type, size, and contents of each of the provided objects. Objects that are named
+     * by their full object id are read in this process with a {@link GitObjectDatabase}, so no
+     * Git process is started for them. Any other objects (such as objects named by a revision
+     * expression or objects that the in-process reader can't find or read) are read by a single
+     * "git cat-file --batch" process. In a partial clone, that process also fetches the objects
+     * that the clone's filter omitted from the promisor remote.
+     * @param repositoryFolder The folder of the repository that contains the objects.
+     * @param objectNames The names of the objects to read.
+     * @return The entries for the provided objects, in the same order as the object names.
+     */
+    public Result<Iterable<GitCatFileBatchEntry>> readObjects(Folder repositoryFolder, Iterable<String> objectNames)
+    {
+        PreCondition.assertNotNull(repositoryFolder, "repositoryFolder");
+        PreCondition.assertNotNull(objectNames, "objectNames");
+
+        return Result.create(() ->
+        {
+            final GitObjectDatabase objectDatabase = this.getObjectDatabase(repositoryFolder)
+                .catchError(NotFoundException.class)
+                .await();
+
+            final List<GitCatFileBatchEntry> result = List.create();
+            final List<Integer> fallbackIndexes = List.create();
+            final List<String> fallbackObjectNames = List.create();
+            for (final String objectName : objectNames)
+            {
+                GitCatFileBatchEntry entry = null;
+                if (objectDatabase != null && GitObjectId.isObjectId(objectName))
+                {
+                    // Missing objects are read by the cat-file process below, which fetches all of
+                    // a partial clone's missing objects at once.
+                    entry = GitObjectId.parse(objectName)
+                        .then((GitObjectId objectId) -> objectDatabase.getObjectWithoutFetching(objectId).await())
+                        .then(GitObject::toCatFileBatchEntry)
+                        .catchError(NotFoundException.class)
+                        .catchError(ParseException.class)
+                        .catchError(GitException.class)
+                        .await();
+                }
+                if (entry == null)
+                {
+                    fallbackIndexes.add(result.getCount());
+                    fallbackObjectNames.add(objectName);
+                }
+                result.add(entry);
+            }
+
+            if (fallbackObjectNames.any())
+            {
+                int fallbackIndex = 0;
+                for (final GitCatFileBatchEntry entry : this.catFileBatch(repositoryFolder, fallbackObjectNames).await())
+                {
+                    result.set(fallbackIndexes.get(fallbackIndex++), entry);
+                }
+            }
+
+            PostCondition.assertNotNull(result, "result");
+
+            return result;
+        });
+    }
+
+    /**
+     * Get an iterator over the commits that changed the provided path, newest first, like "git
+     * log --format=%H startCommit -- path". The history is read in this process with a
+     * {@link GitObjectDatabase}, so no Git process is started unless the repository is a
+     * partial clone that hasn't fetched an object that the walk needs yet (see
+     * {@link #getObjectDatabase(Folder)}). If the repository's commit-graph contains changed-path
+     * Bloom filters, then the walk uses them to skip the tree comparisons of commits that didn't
+     * change the path.
+     * @param repositoryFolder The folder of the repository.
+     * @param startCommitId The id of the commit to start walking from.
+     * @param path The path to look for changes to, relative to the root of the repository.
+     * @return The iterator over the commits that changed the path.
+     */
+    public Result<GitPathHistory> getPathHistory(Folder repositoryFolder, GitObjectId startCommitId, String path)
+    {
+        PreCondition.assertNotNull(repositoryFolder, "repositoryFolder");
+        PreCondition.assertNotNull(startCommitId, "startCommitId");
+        PreCondition.assertNotNullAndNotEmpty(path, "path");
+
+        return this.getObjectDatabase(repositoryFolder)
+            .then((GitObjectDatabase objectDatabase) -> GitPathHistory.create(objectDatabase, startCommitId, path).await());
+    }
+
+    /**
+     * Count the objects that can be reached from the provided included objects but not from the
+     * provided excluded objects, like "git rev-list --count --objects included --not excluded".
+     * This is the number of objects that a fetch of the included objects would need to transfer
+     * to a repository that already has the excluded objects. The objects are counted in this
+     * process with the repository's bitmap index, and only the commits that don't have bitmaps
+     * are walked. In a partial clone, the blobs that the clone's filter omitted are counted
+     * without being fetched, but any missing trees that the walk needs are fetched.
+     * @param repositoryFolder The folder of the repository.
+     * @param includedObjectIds The ids of the objects whose reachable objects are counted.
+     * @param excludedObjectIds The ids of the objects whose reachable objects are not counted.
+     * @return The number of objects.
+     */
+    public Result<Integer> countReachableObjects(Folder repositoryFolder, Iterable<GitObjectId> includedObjectIds, Iterable<GitObjectId> excludedObjectIds)
+    {
+        PreCondition.assertNotNull(repositoryFolder, "repositoryFolder");
+        PreCondition.assertNotNull(includedObjectIds, "includedObjectIds");
+        PreCondition.assertNotNull(excludedObjectIds, "excludedObjectIds");
+
+        return Result.create(() ->
+        {
+            final GitObjectDatabase objectDatabase = this.getObjectDatabase(repositoryFolder).await();
+            final GitReachableObjects includedObjects = objectDatabase.getReachableObjects(includedObjectIds).await();
+            final GitReachableObjects excludedObjects = objectDatabase.getReachableObjects(excludedObjectIds).await();
+            return includedObjects.andNot(excludedObjects).getCount();
+        });
+    }
+
+    /**
+     * Get the object database of the repository in the provided folder. This Git object keeps
+     * the object database of each repository that it has opened, so the pack indexes, the
+     * multi-pack-index, and the delta base cache that later calls use are only read and created
+     * once. Each call scans the repository's pack folder so that pack files that were added or
+     * removed since the last call are opened or dropped. If the repository is a partial clone,
+     * then objects that it hasn't fetched from its promisor remote yet are read (and fetched) by
+     * a "git cat-file --batch" process that this Git object keeps alive for the repository until
+     * {@link #closeRepository(Folder)} is called.
+     * @param repositoryFolder The folder of the repository.
+     * @return The object database of the repository, or a {@link NotFoundException} if the
+     * folder isn't a repository.
+     */
+    public Result<GitObjectDatabase> getObjectDatabase(Folder repositoryFolder)
+    {
+        PreCondition.assertNotNull(repositoryFolder, "repositoryFolder");
+
+        return Result.create(() ->
+        {
+            final String key = repositoryFolder.getPath().toString();
+            GitObjectDatabase result;
+            synchronized (this.objectDatabases)
+            {
+                result = this.objectDatabases.get(key)
+                    .catchError(NotFoundException.class)
+                    .await();
+            }
+            if (result != null)
+            {
+                result.refresh().await();
+            }
+            else
+            {
+                result = GitObjectDatabase.open(repositoryFolder).await()
+                    .setPromisorObjectFetcher((GitObjectId objectId) -> this.fetchPromisorObject(repositoryFolder, objectId));
+                synchronized (this.objectDatabases)
+                {
+                    final GitObjectDatabase existingResult = this.objectDatabases.get(key)
+                        .catchError(NotFoundException.class)
+                        .await();
+                    if (existingResult != null)
+                    {
+                        result = existingResult;
+                    }
+                    else
+                    {
+                        this.objectDatabases.set(key, result);
+                    }
+                }
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Read the provided object with the repository's promisor cat-file session (see
+     * {@link #getPromisorCatFileSession(Folder)}), which fetches it from the repository's
+     * promisor remote if the repository is a partial clone that doesn't have it.
+     * @param repositoryFolder The folder of the repository.
+     * @param objectId The id of the object to read.
+     * @return The object, or null if Git couldn't read or fetch it.
+     */
+    private GitObject fetchPromisorObject(Folder repositoryFolder, GitObjectId objectId)
+    {
+        GitObject result = null;
+        final GitCatFileBatchEntry entry = this.getPromisorCatFileSession(repositoryFolder).readObject(objectId.toString()).await();
+        if (!entry.isMissing())
+        {
+            result = GitObject.create(objectId, entry.getObjectType(), GitByteSlice.create(entry.getOutput(), entry.getContentsStartIndex(), (int)entry.getSize()));
+        }
+        return result;
+    }
+
+    /**
+     * Get the cat-file session that reads the objects that the repository in the provided folder
+     * hasn't fetched from its promisor remote yet. This Git object keeps one session for each
+     * repository, so walking a partial clone starts a single "git cat-file --batch" process
+     * instead of one process per missing object. The session is disposed by
+     * {@link #closeRepository(Folder)}.
+     * @param repositoryFolder The folder of the repository.
+     * @return The promisor cat-file session of the repository.
+     */
+    GitCatFileSession getPromisorCatFileSession(Folder repositoryFolder)
+    {
+        PreCondition.assertNotNull(repositoryFolder, "repositoryFolder");
+
+        final String key = repositoryFolder.getPath().toString();
+        synchronized (this.promisorCatFileSessions)
+        {
+            GitCatFileSession result = this.promisorCatFileSessions.get(key)
+                .catchError(NotFoundException.class)
+                .await();
+            if (result == null)
+            {
+                result = this.createCatFileSession(repositoryFolder);
+                this.promisorCatFileSessions.set(key, result);
+            }
+
+            PostCondition.assertNotNull(result, "result");
+
+            return result;
+        }
+    }
+
+    /**
+     * Forget the object database and the ref database that this Git object keeps for the
+     * repository in the provided folder, and dispose of the cat-file session that fetches the
+     * repository's missing partial clone objects. The next call that needs one of them opens it
+     * again.
+     * @param repositoryFolder The folder of the repository.
+     * @return Whether this Git object was keeping anything for the repository.
+     */
+    public Result<Boolean> closeRepository(Folder repositoryFolder)
+    {
+        PreCondition.assertNotNull(repositoryFolder, "repositoryFolder");
+
+        return Result.create(() ->
+        {
+            final String key = repositoryFolder.getPath().toString();
+            final GitObjectDatabase objectDatabase;
+            synchronized (this.objectDatabases)
+            {
+                objectDatabase = this.objectDatabases.remove(key)
+                    .catchError(NotFoundException.class)
+                    .await();
+            }
+            final GitRefDatabase refDatabase;
+            synchronized (this.refDatabases)
+            {
+                refDatabase = this.refDatabases.remove(key)
+                    .catchError(NotFoundException.class)
+                    .await();
+            }
+            final GitCatFileSession promisorCatFileSession;
+            synchronized (this.promisorCatFileSessions)
+            {
+                promisorCatFileSession = this.promisorCatFileSessions.remove(key)
+                    .catchError(NotFoundException.class)
+                    .await();
+            }
+            if (promisorCatFileSession != null)
+            {
+                promisorCatFileSession.dispose().await();
+            }
+            return objectDatabase != null || refDatabase != null || promisorCatFileSession != null;
+        });
+    }
+
+    /**
+     * Get the ref database of the repository in the provided folder. This Git object keeps the
+     * ref database of each repository that it has opened, so the packed-refs file and the loose
+     * ref files that later calls read are only read again when they change.
+     * @param repositoryFolder The folder of the repository.
+     * @return The ref database of the repository.
+     */
+    public Result<GitRefDatabase> getRefDatabase(Folder repositoryFolder)
+    {
+        PreCondition.assertNotNull(repositoryFolder, "repositoryFolder");
+
+        return Result.create(() ->
+        {
+            final String key = repositoryFolder.getPath().toString();
+            GitRefDatabase result;
+            synchronized (this.refDatabases)
+            {
+                result = this.refDatabases.get(key)
+                    .catchError(NotFoundException.class)
+                    .await();
+            }
+            if (result == null)
+            {
+                result = GitRefDatabase.open(repositoryFolder).await();
+                synchronized (this.refDatabases)
+                {
+                    final GitRefDatabase existingResult = this.refDatabases.get(key)
+                        .catchError(NotFoundException.class)
+                        .await();
+                    if (existingResult != null)
+                    {
+                        result = existingResult;
+                    }
+                    else
+                    {
+                        this.refDatabases.set(key, result);
+                    }
+                }
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Resolve the provided ref names to the direct refs that they refer to, like "git rev-parse
+     * --symbolic-full-name name...". The refs are read in this process with the repository's
+     * {@link GitRefDatabase}, so no Git process is started.
+     * @param repositoryFolder The folder of the repository.
+     * @param refNames The full or short names of the refs, such as "HEAD", "main", or
+     *                 "refs/tags/v1.0".
+     * @return The direct refs, in the same order as the provided names.
+     */
+    public Result<Iterable<GitRef>> resolveRefs(Folder repositoryFolder, Iterable<String> refNames)
+    {
+        PreCondition.assertNotNull(repositoryFolder, "repositoryFolder");
+        PreCondition.assertNotNull(refNames, "refNames");
+
+        return Result.create(() ->
+        {
+            final GitRefDatabase refDatabase = this.getRefDatabase(repositoryFolder).await();
+            final List<GitRef> result = List.create();
+            for (final String refName : refNames)
+            {
+                result.add(refDatabase.resolve(refName).await());
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Get the status of the working tree in the provided folder, like "git status
+     * --porcelain=v2 --no-renames". The status is computed in this process with a
+     * {@link GitStatusScanner}, so usually no Git process is started. Git only runs when a
+     * tracked file whose stat data changed may have its contents converted when it is added
+     * (see {@link GitStatusScanner#setGit(Git)}).
+     * @param workingTreeFolder The root folder of the working tree.
+     * @return The status of the working tree.
+     */
+    public Result<GitStatus> status(Folder workingTreeFolder)
+    {
+        PreCondition.assertNotNull(workingTreeFolder, "workingTreeFolder");
+
+        return GitStatusScanner.create(workingTreeFolder)
+            .setGit(this)
+            .scan();
+    }
+
+    /**
+     * Get the changes between the index and the working tree for the provided tracked paths
+     * from "git status --porcelain=v2 --no-renames --untracked-files=no". The command doesn't
+     * take optional locks, so it doesn't refresh the index. If there are more than
+     * {@link #maximumStatusPathspecCount} paths, then the whole working tree is checked instead.
+     * @param workingTreeFolder The root folder of the working tree.
+     * @param paths The paths of the tracked files to check.
+     * @return The entries that Git reported for the provided paths.
+     */
+    Result<Iterable<GitStatusEntry>> runStatus(Folder workingTreeFolder, Iterable<String> paths)
+    {
+        PreCondition.assertNotNull(workingTreeFolder, "workingTreeFolder");
+        PreCondition.assertNotNull(paths, "paths");
+
+        return Result.create(() ->
+        {
+            final java.util.Set<String> pathSet = new java.util.HashSet<>();
+            for (final String path : paths)
+            {
+                pathSet.add(path);
+            }
+
+            final List<GitStatusEntry> result = List.create();
+            if (!pathSet.isEmpty())
+            {
+                final GitOutputBuffer output = GitOutputBuffer.acquire();
+                try
+                {
+                    this.runWithInput(GitParameters::create, (GitParameters parameters) ->
+                    {
+                        parameters.setWorkingFolder(workingTreeFolder);
+                        parameters.addGitArguments("--no-optional-locks", "--literal-pathspecs");
+                        parameters.addCommandArguments("status", "--porcelain=v2", "-z", "--no-renames", "--untracked-files=no");
+                        if (pathSet.size() <= Git.maximumStatusPathspecCount)
+                        {
+                            parameters.addCommandArgument("--");
+                            parameters.addCommandArguments(paths);
+                        }
+                    },
+                    new byte[0],
+                    output,
+                    0);
+                    for (final GitByteSlice record : output.getRecords((byte)0))
+                    {
+                        final GitStatusEntry entry = GitStatusEntry.parse(record.getText()).await();
+                        if (pathSet.contains(entry.getPath()))
+                        {
+                            result.add(entry);
+                        }
+                    }
+                }
+                finally
+                {
+                    output.release();
+                }
+            }
+
+            PostCondition.assertNotNull(result, "result");
+
+            return result;
+        });
+    }
+
+    private Result<Iterable<GitCatFileBatchEntry>> catFileBatch(Folder repositoryFolder, Iterable<String> objectNames, boolean includeContents)
+    {
+        return Result.create(() ->
+        {
+            final GitCatFileSession session = this.createCatFileSession(repositoryFolder);
+            try
+            {
+                final Iterable<GitCatFileBatchEntry> result = includeContents
+                    ? session.readObjects(objectNames).await()
+                    : session.readObjectInfos(objectNames).await();
+
+                PostCondition.assertNotNull(result, "result");
+
+                return result;
+            }
+            finally
+            {
+                session.dispose().await();
+            }
+        });
+    }
+
+    public Result<Integer> checkAttr(GitCheckAttrParameters parameters)
+    {
+        return this.run(parameters);
+    }
+
+    public Result<Integer> checkAttr(Action1<GitCheckAttrParameters> parametersSetup)
+    {
+        return this.run(GitCheckAttrParameters::create, parametersSetup);
+    }
+
+    /**
+     * Get the values of the provided attributes for each of the provided paths. All of the paths
+     * are checked by a single "git check-attr --stdin" process. Use a {@link GitProcessPool} to
+     * keep the process alive for repeated checks.
+     * @param repositoryFolder The folder of the repository that contains the paths.
+     * @param attributes The names of the attributes to get, or an empty Iterable to get all of
+     *                   the attributes that are specified for each path.
+     * @param paths The paths to get the attributes of.
+     * @return The attribute values for each of the provided paths.
+     */
+    public Result<Iterable<GitCheckAttrEntry>> checkAttrBatch(Folder repositoryFolder, Iterable<String> attributes, Iterable<String> paths)
+    {
+        PreCondition.assertNotNull(repositoryFolder, "repositoryFolder");
+        PreCondition.assertNotNull(attributes, "attributes");
+        PreCondition.assertNotNull(paths, "paths");
+
+        return Result.create(() ->
+        {
+            final byte[] input = Git.joinRecords(paths, "path", '\0');
+
+            Iterable<GitCheckAttrEntry> result;
+            if (input.length == 0)
+            {
+                result = Iterable.create();
+            }
+            else
+            {
+                final GitOutputBuffer output = GitOutputBuffer.acquire();
+                try
+                {
+                    this.runWithInput(GitCheckAttrParameters::create, (GitCheckAttrParameters parameters) ->
+                    {
+                        parameters.setWorkingFolder(repositoryFolder);
+                        parameters.addStdin();
+                        parameters.addZ();
+                        if (!attributes.any())
+                        {
+                            parameters.addAll();
+                        }
+                        else
+                        {
+                            for (final String attribute : attributes)
+                            {
+                                parameters.addAttribute(attribute);
+                            }
+                        }
+                    },
+                    input,
+                    output,
+                    0);
+                    result = GitCheckAttrEntry.parse(output).await();
+                }
+                finally
+                {
+                    output.release();
+                }
+            }
+
+            PostCondition.assertNotNull(result, "result");
+
+            return result;
+        });
+    }
+
+    public Result<Integer> checkIgnore(GitCheckIgnoreParameters parameters)
+    {
+        return this.run(parameters);
+    }
+
+    public Result<Integer> checkIgnore(Action1<GitCheckIgnoreParameters> parametersSetup)
+    {
+        return this.run(GitCheckIgnoreParameters::create, parametersSetup);
+    }
+
+    /**
+     * Get which of the provided paths are excluded by the repository's ignore rules. All of the
+     * paths are checked by a single "git check-ignore --stdin" process. Use a
+     * {@link GitProcessPool} to keep the process alive for repeated checks.
+     * @param repositoryFolder The folder of the repository that contains the paths.
+     * @param paths The paths to check.
+     * @return The provided paths that are ignored.
+     */
+    public Result<Iterable<String>> checkIgnoreBatch(Folder repositoryFolder, Iterable<String> paths)
+    {
+        PreCondition.assertNotNull(repositoryFolder, "repositoryFolder");
+        PreCondition.assertNotNull(paths, "paths");
+
+        return Result.create(() ->
+        {
+            final byte[] input = Git.joinRecords(paths, "path", '\0');
+
+            Iterable<String> result;
+            if (input.length == 0)
+            {
+                result = Iterable.create();
+            }
+            else
+            {
+                // check-ignore exits with 1 when none of the provided paths are ignored.
+                final GitOutputBuffer output = GitOutputBuffer.acquire();
+                try
+                {
+                    this.runWithInput(GitCheckIgnoreParameters::create, (GitCheckIgnoreParameters parameters) ->
+                    {
+                        parameters.setWorkingFolder(repositoryFolder);
+                        parameters.addStdin();
+                        parameters.addZ();
+                    },
+                    input,
+                    output,
+                    0, 1);
+                    result = output.getRecords((byte)0).map(GitByteSlice::getText).toList();
+                }
+                finally
+                {
+                    output.release();
+                }
+            }
 
             PostCondition.assertNotNull(result, "result");
 
@@ -66,6 +939,36 @@ public class Git extends ChildProcessRunnerWrapper<Git,GitParameters>
         return this.run(GitCloneParameters::create, parametersSetup);
     }
 
+    /**
+     * Clone the provided local repository into the provided directory with the cheapest safe
+     * {@link GitLocalCloneStrategy} for the two folders' file stores.
+     * @param repository The local repository to clone.
+     * @param directory The directory to clone the repository into.
+     * @param shared Whether the new repository should refer to the source repository's objects
+     *               instead of copying or linking them. See {@link GitLocalCloneStrategy#Shared}.
+     * @param parametersSetup The action that adds any other arguments to the clone parameters.
+     * @return The strategy that the clone used and its exit code.
+     */
+    public Result<GitLocalCloneResult> cloneLocal(Folder repository, Folder directory, boolean shared, Action1<GitCloneParameters> parametersSetup)
+    {
+        PreCondition.assertNotNull(repository, "repository");
+        PreCondition.assertNotNull(directory, "directory");
+        PreCondition.assertNotNull(parametersSetup, "parametersSetup");
+
+        return Result.create(() ->
+        {
+            final GitLocalCloneStrategy strategy = GitLocalCloneStrategy.choose(repository, directory, shared);
+            final int exitCode = this.clone((GitCloneParameters parameters) ->
+            {
+                parametersSetup.run(parameters);
+                parameters.addLocalCloneStrategy(strategy);
+                parameters.addRepository(repository);
+                parameters.addDirectory(directory);
+            }).await();
+            return GitLocalCloneResult.create(strategy, exitCode);
+        });
+    }
+
     public Result<Integer> init(GitInitParameters parameters)
     {
         return this.run(parameters);
@@ -95,4 +998,118 @@ public class Git extends ChildProcessRunnerWrapper<Git,GitParameters>
     {
         return this.run(GitRemoteAddParameters::create, parametersSetup);
     }
+
+    public Result<Integer> updateRef(GitUpdateRefParameters parameters)
+    {
+        return this.run(parameters);
+    }
+
+    public Result<Integer> updateRef(Action1<GitUpdateRefParameters> parametersSetup)
+    {
+        return this.run(GitUpdateRefParameters::create, parametersSetup);
+    }
+
+    /**
+     * Atomically apply the provided "git update-ref --stdin" instructions (such as
+     * "update refs/heads/main &lt;new-oid&gt; &lt;old-oid&gt;" or "delete refs/tags/v1") with a
+     * single process. Either all of the references are updated or none of them are. Use a
+     * {@link GitProcessPool} to keep the process alive for repeated updates.
+     * @param repositoryFolder The folder of the repository that contains the references.
+     * @param instructions The instructions to apply.
+     * @return The result of applying the instructions.
+     */
+    public Result<Void> updateRefBatch(Folder repositoryFolder, Iterable<String> instructions)
+    {
+        PreCondition.assertNotNull(repositoryFolder, "repositoryFolder");
+        PreCondition.assertNotNull(instructions, "instructions");
+
+        return Result.create(() ->
+        {
+            final byte[] input = Git.joinRecords(instructions, "instruction", '\n');
+            if (input.length > 0)
+            {
+                final GitOutputBuffer output = GitOutputBuffer.acquire();
+                try
+                {
+                    this.runWithInput(GitUpdateRefParameters::create, (GitUpdateRefParameters parameters) ->
+                    {
+                        parameters.setWorkingFolder(repositoryFolder);
+                        parameters.addStdin();
+                    },
+                    input,
+                    output,
+                    0);
+                }
+                finally
+                {
+                    output.release();
+                }
+            }
+        });
+    }
+
+    /**
+     * Run a Git command with the provided bytes as its standard input, and capture the bytes that
+     * the command writes to its standard output in the provided buffer.
+     * @param parametersCreator The function that creates the command's parameters.
+     * @param parametersSetup The action that configures the command's parameters.
+     * @param input The bytes to write to the command's standard input.
+     * @param output The buffer that the command's standard output will be captured in.
+     * @param successExitCodes The exit codes that indicate that the command succeeded.
+     * @param <T> The type of the command's parameters.
+     */
+    private <T extends GitParameters> void runWithInput(Function1<Path,T> parametersCreator, Action1<T> parametersSetup, byte[] input, GitOutputBuffer output, int... successExitCodes)
+    {
+        final GitOutputBuffer error = GitOutputBuffer.acquire();
+        try
+        {
+            final Integer exitCode = this.run(parametersCreator, (T parameters) ->
+            {
+                parametersSetup.run(parameters);
+                parameters.setInputStream(InMemoryByteStream.create(input).endOfStream());
+                parameters.setOutputStreamHandler((ByteReadStream outputStream) -> output.readFrom(outputStream).await());
+                parameters.setErrorStreamHandler((ByteReadStream errorStream) -> error.readFrom(errorStream).await());
+            }).await();
+
+            boolean succeeded = false;
+            for (final int successExitCode : successExitCodes)
+            {
+                if (exitCode == successExitCode)
+                {
+                    succeeded = true;
+                    break;
+                }
+            }
+            if (!succeeded)
+            {
+                throw new GitException("git command failed with exit code " + exitCode + ": " + error.getSlice().trim().getText());
+            }
+        }
+        finally
+        {
+            error.release();
+        }
+    }
+
+    /**
+     * Join the provided records into a single byte array, terminating each record with the
+     * provided terminator.
+     * @param records The records to join.
+     * @param recordName The name of a record, used in error messages.
+     * @param terminator The character that terminates each record.
+     * @return The joined records.
+     */
+    static byte[] joinRecords(Iterable<String> records, String recordName, char terminator)
+    {
+        final StringBuilder builder = new StringBuilder();
+        for (final String record : records)
+        {
+            if (Strings.isNullOrEmpty(record) || record.indexOf(terminator) >= 0)
+            {
+                throw new PreConditionFailure(recordName + " (" + Strings.escapeAndQuote(record) + ") must be non-empty and cannot contain the record terminator.");
+            }
+            builder.append(record).append(terminator);
+        }
+        return builder.toString().getBytes(java.nio.charset.StandardCharsets.UTF_8);
+    }
 }
@@ -0,0 +1,460 @@
+package qub;
+
+/**
+ * A long-lived Git process that reads requests from its standard input and writes a response
+ * for each request to its standard output, such as "git cat-file --batch" or "git check-ignore
+ * --stdin". The process is run by a background thread that is created by the Git object's
+ * ThreadFactory. Its standard input is a {@link GitPipe} that requests are written to, and its
+ * standard output is copied into another GitPipe as it arrives so that responses can be read
+ * incrementally while the process keeps running. Disposing of the process closes its standard
+ * input, which makes a batch-mode Git command exit.
+ * <p>
+ * A GitBatchProcess isn't safe for concurrent requests. Callers must make sure that a request's
+ * writes and the reads of its response aren't interleaved with another request's. The process's
+ * state is guarded by a lock instead of its monitor so that a virtual thread that waits for the
+ * process to stop doesn't pin its carrier thread.
+ */
+final class GitBatchProcess implements Disposable
+{
+    /**
+     * The number of milliseconds to wait for a process to exit after its standard input is
+     * closed before the process is killed.
+     */
+    private static final long exitTimeoutMilliseconds = 10000;
+
+    /**
+     * The number of milliseconds to wait for the exit code and the error output of a process
+     * that stopped unexpectedly.
+     */
+    private static final long failureTimeoutMilliseconds = 1000;
+
+    private final java.util.concurrent.locks.ReentrantLock lock;
+    private final java.util.concurrent.locks.Condition stateChanged;
+    private final String commandText;
+    private final GitPipe input;
+    private final GitPipe output;
+    private final GitOutputBuffer error;
+    private final GitCancellationToken cancellationToken;
+    private Thread thread;
+    private byte[] buffer;
+    private int bufferStartIndex;
+    private int bufferEndIndex;
+    private Integer exitCode;
+    private Throwable runError;
+    private boolean finished;
+    private boolean disposed;
+
+    private GitBatchProcess(String commandText)
+    {
+        this.lock = new java.util.concurrent.locks.ReentrantLock();
+        this.stateChanged = this.lock.newCondition();
+        this.commandText = commandText;
+        this.input = GitPipe.create();
+        this.output = GitPipe.create();
+        this.error = GitOutputBuffer.create();
+        this.cancellationToken = GitCancellationToken.create();
+        this.buffer = new byte[8 * 1024];
+    }
+
+    /**
+     * Start the Git command that is described by the provided parameters as a long-lived batch
+     * process. The parameters' input stream, stream handlers, and cancellation token are
+     * replaced.
+     * @param git The Git object that will run the command.
+     * @param parameters The parameters of the command.
+     * @return The started process.
+     */
+    static GitBatchProcess start(Git git, GitParameters parameters)
+    {
+        PreCondition.assertNotNull(git, "git");
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        final StringBuilder commandText = new StringBuilder(parameters.getExecutablePath().toString());
+        for (final String argument : parameters.getArguments())
+        {
+            commandText.append(' ').append(argument);
+        }
+
+        final GitBatchProcess result = new GitBatchProcess(commandText.toString());
+        result.thread = git.getThreadFactory().newThread(() -> result.run(git, parameters));
+        result.thread.start();
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+
+    private void run(Git git, GitParameters parameters)
+    {
+        Integer exitCode = null;
+        Throwable runError = null;
+        try
+        {
+            parameters.setInputStream(this.input);
+            parameters.setOutputStreamHandler(this::copyOutput);
+            parameters.setErrorStreamHandler((ByteReadStream errorStream) ->
+            {
+                final byte[] chunk = new byte[1024];
+                while (true)
+                {
+                    final Integer bytesRead = errorStream.readBytes(chunk, 0, chunk.length)
+                        .catchError(EndOfStreamException.class)
+                        .await();
+                    if (bytesRead == null || bytesRead < 0)
+                    {
+                        break;
+                    }
+                    this.lock.lock();
+                    try
+                    {
+                        this.error.write(chunk, 0, bytesRead);
+                    }
+                    finally
+                    {
+                        this.lock.unlock();
+                    }
+                }
+            });
+            parameters.setCancellationToken(this.cancellationToken);
+            exitCode = git.run(parameters).await();
+        }
+        catch (Throwable e)
+        {
+            runError = e;
+        }
+        finally
+        {
+            this.lock.lock();
+            try
+            {
+                this.exitCode = exitCode;
+                this.runError = runError;
+                this.finished = true;
+                this.stateChanged.signalAll();
+            }
+            finally
+            {
+                this.lock.unlock();
+            }
+            this.output.endOfStream();
+            this.input.dispose();
+        }
+    }
+
+    private void copyOutput(ByteReadStream outputStream)
+    {
+        try
+        {
+            final byte[] chunk = new byte[8 * 1024];
+            while (true)
+            {
+                final Integer bytesRead = outputStream.readBytes(chunk, 0, chunk.length)
+                    .catchError(EndOfStreamException.class)
+                    .await();
+                if (bytesRead == null || bytesRead < 0)
+                {
+                    break;
+                }
+                this.output.write(chunk, 0, bytesRead);
+            }
+        }
+        finally
+        {
+            this.output.endOfStream();
+        }
+    }
+
+    /**
+     * Get the text of the command that this process runs.
+     * @return The text of the command that this process runs.
+     */
+    String getCommandText()
+    {
+        return this.commandText;
+    }
+
+    /**
+     * Get whether this process is still running and accepting requests.
+     * @return Whether this process is still running.
+     */
+    boolean isAlive()
+    {
+        this.lock.lock();
+        try
+        {
+            return !this.finished && !this.disposed;
+        }
+        finally
+        {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Write the provided request bytes to this process's standard input.
+     * @param bytes The request bytes.
+     */
+    void write(byte[] bytes)
+    {
+        PreCondition.assertNotNull(bytes, "bytes");
+
+        if (!this.isAlive())
+        {
+            throw this.createStoppedException();
+        }
+        this.input.write(bytes);
+    }
+
+    /**
+     * Read the next record of this process's output. The record's terminator is read but it
+     * isn't part of the returned text.
+     * @param terminator The byte that terminates the record.
+     * @return The UTF-8 text of the record.
+     */
+    String readRecord(byte terminator)
+    {
+        int terminatorIndex = this.indexOf(terminator, this.bufferStartIndex);
+        while (terminatorIndex < 0)
+        {
+            final int searchStartIndex = this.bufferEndIndex - this.bufferStartIndex;
+            this.fill(1);
+            terminatorIndex = this.indexOf(terminator, this.bufferStartIndex + searchStartIndex);
+        }
+
+        final String result = new String(this.buffer, this.bufferStartIndex, terminatorIndex - this.bufferStartIndex, java.nio.charset.StandardCharsets.UTF_8);
+        this.bufferStartIndex = terminatorIndex + 1;
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+
+    /**
+     * Read the provided number of bytes from this process's output.
+     * @param count The number of bytes to read.
+     * @return The bytes that were read.
+     */
+    byte[] readBytes(int count)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(count, 0, "count");
+
+        final byte[] result = new byte[count];
+        int resultCount = Math.min(count, this.bufferEndIndex - this.bufferStartIndex);
+        System.arraycopy(this.buffer, this.bufferStartIndex, result, 0, resultCount);
+        this.bufferStartIndex += resultCount;
+        while (resultCount < count)
+        {
+            final Integer bytesRead = this.output.readBytes(result, resultCount, count - resultCount)
+                .catchError(EndOfStreamException.class)
+                .await();
+            if (bytesRead == null || bytesRead < 0)
+            {
+                throw this.createStoppedException();
+            }
+            resultCount += bytesRead;
+        }
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+
+    private int indexOf(byte value, int startIndex)
+    {
+        int result = -1;
+        for (int i = startIndex; i < this.bufferEndIndex; ++i)
+        {
+            if (this.buffer[i] == value)
+            {
+                result = i;
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Read at least the provided number of bytes from this process's output into the end of
+     * the buffer, moving or growing the buffer when there isn't enough room.
+     * @param minimumCount The minimum number of bytes to read.
+     */
+    private void fill(int minimumCount)
+    {
+        final int bufferedCount = this.bufferEndIndex - this.bufferStartIndex;
+        if (this.buffer.length - this.bufferEndIndex < minimumCount)
+        {
+            final byte[] newBuffer = bufferedCount + minimumCount <= this.buffer.length
+                ? this.buffer
+                : new byte[Math.max(this.buffer.length * 2, bufferedCount + minimumCount)];
+            System.arraycopy(this.buffer, this.bufferStartIndex, newBuffer, 0, bufferedCount);
+            this.buffer = newBuffer;
+            this.bufferStartIndex = 0;
+            this.bufferEndIndex = bufferedCount;
+        }
+
+        int readCount = 0;
+        while (readCount < minimumCount)
+        {
+            final Integer bytesRead = this.output.readBytes(this.buffer, this.bufferEndIndex, this.buffer.length - this.bufferEndIndex)
+                .catchError(EndOfStreamException.class)
+                .await();
+            if (bytesRead == null || bytesRead < 0)
+            {
+                throw this.createStoppedException();
+            }
+            this.bufferEndIndex += bytesRead;
+            readCount += bytesRead;
+        }
+    }
+
+    /**
+     * Create the exception that describes why this process can't handle requests anymore. If
+     * the process exited on its own, then this waits briefly for its exit code and its error
+     * output so that they can be included in the exception's message.
+     * @return The exception that describes why this process stopped.
+     */
+    private GitException createStoppedException()
+    {
+        final Integer exitCode;
+        final Throwable runError;
+        final boolean disposed;
+        final String errorText;
+        this.lock.lock();
+        try
+        {
+            final long deadline = System.currentTimeMillis() + GitBatchProcess.failureTimeoutMilliseconds;
+            long remainingMilliseconds = GitBatchProcess.failureTimeoutMilliseconds;
+            while (!this.finished && !this.disposed && remainingMilliseconds > 0)
+            {
+                try
+                {
+                    this.stateChanged.await(remainingMilliseconds, java.util.concurrent.TimeUnit.MILLISECONDS);
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                remainingMilliseconds = deadline - System.currentTimeMillis();
+            }
+            exitCode = this.exitCode;
+            runError = this.runError;
+            disposed = this.disposed;
+            errorText = this.error.getSlice().trim().getText();
+        }
+        finally
+        {
+            this.lock.unlock();
+        }
+
+        final StringBuilder message = new StringBuilder(this.commandText);
+        if (disposed)
+        {
+            message.append(" was closed");
+        }
+        else if (exitCode != null)
+        {
+            message.append(" exited with code ").append(exitCode);
+        }
+        else if (runError != null)
+        {
+            message.append(" failed: ").append(runError.getMessage());
+        }
+        else
+        {
+            message.append(" closed its output");
+        }
+        if (!errorText.isEmpty())
+        {
+            message.append(": ").append(errorText);
+        }
+        message.append('.');
+        return runError instanceof GitException && !disposed && exitCode == null
+            ? (GitException)runError
+            : new GitException(message.toString());
+    }
+
+    /**
+     * Close this process's standard input and wait for the process to exit. If the process
+     * doesn't exit in time, then it is killed.
+     * @return Whether this call disposed of the process.
+     */
+    @Override
+    public Result<Boolean> dispose()
+    {
+        return Result.create(() ->
+        {
+            this.lock.lock();
+            try
+            {
+                if (this.disposed)
+                {
+                    return false;
+                }
+                this.disposed = true;
+                this.stateChanged.signalAll();
+            }
+            finally
+            {
+                this.lock.unlock();
+            }
+
+            this.input.endOfStream();
+            if (Thread.currentThread() != this.thread)
+            {
+                GitBatchProcess.join(this.thread, GitBatchProcess.exitTimeoutMilliseconds);
+                if (this.thread.isAlive())
+                {
+                    this.cancellationToken.cancel();
+                    GitBatchProcess.join(this.thread, GitBatchProcess.exitTimeoutMilliseconds);
+                }
+            }
+            this.output.dispose();
+            return true;
+        });
+    }
+
+    private static void join(Thread thread, long timeoutMilliseconds)
+    {
+        try
+        {
+            thread.join(timeoutMilliseconds);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isDisposed()
+    {
+        this.lock.lock();
+        try
+        {
+            return this.disposed;
+        }
+        finally
+        {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Get the exit code of this process.
+     * @return The exit code of this process, or null if the process hasn't exited or was
+     * killed.
+     */
+    Integer getExitCode()
+    {
+        this.lock.lock();
+        try
+        {
+            return this.exitCode;
+        }
+        finally
+        {
+            this.lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,330 @@
+package qub;
+
+/**
+ * A pack bitmap index (".bitmap" file). A bitmap index stores, for some of the commits in a pack
+ * file, the set of objects in the pack that can be reached from the commit. Each set is an
+ * EWAH-compressed bitmap with one bit per object, where the bits are in pack order (the order of
+ * the objects by their offset in the pack file). A commit's bitmap can be stored as the XOR of
+ * its objects with the objects of an earlier commit's bitmap.
+ */
+public class GitBitmapIndex
+{
+    private static final int signature = 0x4249544D;
+    private static final int headerLength = 12;
+
+    /**
+     * The option that marks bitmaps that contain every reachable object, not just the objects
+     * that were added since their XOR base. Git requires this option.
+     */
+    private static final int fullDagOption = 0x1;
+
+    /**
+     * The largest XOR offset that Git writes or accepts.
+     */
+    private static final int maximumXorOffset = 160;
+
+    private final GitPackIndex packIndex;
+    private final int entryCount;
+    private final java.util.BitSet[] typeBitmaps;
+    private final java.util.HashMap<Integer,Integer> entryIndexes;
+    private final int[] xorOffsets;
+    private final GitEwahBitmap[] storedBitmaps;
+    private final java.util.BitSet[] bitmaps;
+    private final int[] packOrder;
+    private final int[] bitPositions;
+
+    private GitBitmapIndex(GitPackIndex packIndex, java.util.BitSet[] typeBitmaps, java.util.HashMap<Integer,Integer> entryIndexes, int[] xorOffsets, GitEwahBitmap[] storedBitmaps)
+    {
+        this.packIndex = packIndex;
+        this.entryCount = storedBitmaps.length;
+        this.typeBitmaps = typeBitmaps;
+        this.entryIndexes = entryIndexes;
+        this.xorOffsets = xorOffsets;
+        this.storedBitmaps = storedBitmaps;
+        this.bitmaps = new java.util.BitSet[storedBitmaps.length];
+
+        final int objectCount = packIndex.getObjectCount();
+        this.packOrder = java.util.stream.IntStream.range(0, objectCount)
+            .boxed()
+            .sorted((Integer lhs, Integer rhs) -> Long.compare(packIndex.getOffset(lhs), packIndex.getOffset(rhs)))
+            .mapToInt((Integer index) -> index)
+            .toArray();
+        this.bitPositions = new int[objectCount];
+        for (int bitPosition = 0; bitPosition < objectCount; ++bitPosition)
+        {
+            this.bitPositions[this.packOrder[bitPosition]] = bitPosition;
+        }
+    }
+
+    /**
+     * Open the bitmap index in the provided file.
+     * @param bitmapFile The ".bitmap" file.
+     * @param packIndex The index of the pack file that the bitmap index describes.
+     * @return The bitmap index.
+     */
+    public static Result<GitBitmapIndex> open(File bitmapFile, GitPackIndex packIndex)
+    {
+        PreCondition.assertNotNull(bitmapFile, "bitmapFile");
+        PreCondition.assertNotNull(packIndex, "packIndex");
+
+        return GitPackData.open(bitmapFile)
+            .then((GitPackData data) -> GitBitmapIndex.parse(data, packIndex).await());
+    }
+
+    /**
+     * Parse the bitmap index in the provided data. Only the type bitmaps and the commit bitmaps
+     * are read. Optional trailing sections, such as the name-hash cache and the lookup table,
+     * are ignored.
+     * @param data The bytes of the ".bitmap" file.
+     * @param packIndex The index of the pack file that the bitmap index describes.
+     * @return The bitmap index.
+     */
+    static Result<GitBitmapIndex> parse(GitPackData data, GitPackIndex packIndex)
+    {
+        PreCondition.assertNotNull(data, "data");
+        PreCondition.assertNotNull(packIndex, "packIndex");
+
+        return Result.create(() ->
+        {
+            final int objectIdLength = packIndex.getObjectIdLength();
+            if (data.getLength() < GitBitmapIndex.headerLength + objectIdLength || data.getInt(0) != GitBitmapIndex.signature)
+            {
+                throw new ParseException("Expected the bitmap index to start with \"BITM\".");
+            }
+            final int version = (data.getByte(4) & 0xFF) << 8 | (data.getByte(5) & 0xFF);
+            if (version != 1)
+            {
+                throw new ParseException("Unsupported bitmap index version: " + version);
+            }
+            final int options = (data.getByte(6) & 0xFF) << 8 | (data.getByte(7) & 0xFF);
+            if ((options & GitBitmapIndex.fullDagOption) == 0)
+            {
+                throw new ParseException("The bitmap index doesn't contain full reachability bitmaps.");
+            }
+            final long entryCount = data.getUnsignedInt(8);
+            final GitObjectId packChecksum = data.getObjectId(GitBitmapIndex.headerLength, objectIdLength);
+            if (!packChecksum.equals(packIndex.getPackChecksum()))
+            {
+                throw new ParseException("The bitmap index is for pack " + packChecksum + ", but its pack index is for pack " + packIndex.getPackChecksum() + ".");
+            }
+
+            long position = GitBitmapIndex.headerLength + objectIdLength;
+            final java.util.BitSet[] typeBitmaps = new java.util.BitSet[4];
+            for (int i = 0; i < typeBitmaps.length; ++i)
+            {
+                final GitEwahBitmap typeBitmap = GitEwahBitmap.read(data, position);
+                typeBitmaps[i] = typeBitmap.toBitSet();
+                position += typeBitmap.getByteCount();
+            }
+
+            final java.util.HashMap<Integer,Integer> entryIndexes = new java.util.HashMap<>();
+            final int[] xorOffsets = new int[(int)entryCount];
+            final GitEwahBitmap[] storedBitmaps = new GitEwahBitmap[(int)entryCount];
+            for (int i = 0; i < entryCount; ++i)
+            {
+                if (position + 6 > data.getLength())
+                {
+                    throw new ParseException("Expected the bitmap index to contain " + entryCount + " bitmaps, but found " + i + ".");
+                }
+                final long objectIndex = data.getUnsignedInt(position);
+                if (objectIndex >= packIndex.getObjectCount())
+                {
+                    throw new ParseException("Bitmap " + i + " refers to object " + objectIndex + ", but the pack only contains " + packIndex.getObjectCount() + " objects.");
+                }
+                final int xorOffset = data.getByte(position + 4) & 0xFF;
+                if (xorOffset > GitBitmapIndex.maximumXorOffset || xorOffset > i)
+                {
+                    throw new ParseException("Bitmap " + i + " has an invalid XOR offset: " + xorOffset);
+                }
+                final GitEwahBitmap storedBitmap = GitEwahBitmap.read(data, position + 6);
+
+                entryIndexes.put((int)objectIndex, i);
+                xorOffsets[i] = xorOffset;
+                storedBitmaps[i] = storedBitmap;
+                position += 6 + storedBitmap.getByteCount();
+            }
+
+            return new GitBitmapIndex(packIndex, typeBitmaps, entryIndexes, xorOffsets, storedBitmaps);
+        });
+    }
+
+    /**
+     * Get the index of the pack file that this bitmap index describes.
+     * @return The index of the pack file that this bitmap index describes.
+     */
+    public GitPackIndex getPackIndex()
+    {
+        return this.packIndex;
+    }
+
+    /**
+     * Get the number of objects in the pack file, which is also the number of bits in each
+     * bitmap.
+     * @return The number of objects in the pack file.
+     */
+    public int getObjectCount()
+    {
+        return this.packOrder.length;
+    }
+
+    /**
+     * Get the number of commits that have bitmaps.
+     * @return The number of commits that have bitmaps.
+     */
+    public int getBitmapCount()
+    {
+        return this.entryCount;
+    }
+
+    /**
+     * Get the bit position (the position in pack order) of the object with the provided id.
+     * @param objectId The id of the object.
+     * @return The bit position of the object, or -1 if the pack file doesn't contain the object.
+     */
+    public int getBitPosition(GitObjectId objectId)
+    {
+        PreCondition.assertNotNull(objectId, "objectId");
+
+        final int index = this.packIndex.indexOf(objectId);
+        return index == -1 ? -1 : this.bitPositions[index];
+    }
+
+    /**
+     * Get the id of the object at the provided bit position.
+     * @param bitPosition The position of the object in pack order.
+     * @return The id of the object.
+     */
+    public GitObjectId getObjectId(int bitPosition)
+    {
+        PreCondition.assertIndexAccess(bitPosition, this.packOrder.length, "bitPosition");
+
+        return this.packIndex.getObjectId(this.packOrder[bitPosition]);
+    }
+
+    /**
+     * Get the bitmap of the pack's objects that have the provided type.
+     * @param objectType The type of the objects.
+     * @return A new bitmap of the pack's objects that have the provided type.
+     */
+    public java.util.BitSet getTypeBitmap(GitObjectType objectType)
+    {
+        PreCondition.assertNotNull(objectType, "objectType");
+
+        // The type bitmaps are stored in the order commits, trees, blobs, tags.
+        final int typeIndex;
+        switch (objectType)
+        {
+            case Commit:
+                typeIndex = 0;
+                break;
+
+            case Tree:
+                typeIndex = 1;
+                break;
+
+            case Blob:
+                typeIndex = 2;
+                break;
+
+            default:
+                typeIndex = 3;
+                break;
+        }
+        return (java.util.BitSet)this.typeBitmaps[typeIndex].clone();
+    }
+
+    /**
+     * Get the type of the object at the provided bit position.
+     * @param bitPosition The position of the object in pack order.
+     * @return The type of the object, or null if none of the type bitmaps contain the object.
+     */
+    public GitObjectType getObjectType(int bitPosition)
+    {
+        PreCondition.assertIndexAccess(bitPosition, this.packOrder.length, "bitPosition");
+
+        GitObjectType result = null;
+        final GitObjectType[] objectTypes = { GitObjectType.Commit, GitObjectType.Tree, GitObjectType.Blob, GitObjectType.Tag };
+        for (int i = 0; i < objectTypes.length && result == null; ++i)
+        {
+            if (this.typeBitmaps[i].get(bitPosition))
+            {
+                result = objectTypes[i];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get whether the commit with the provided id has a bitmap.
+     * @param commitId The id of the commit.
+     * @return Whether the commit has a bitmap.
+     */
+    public boolean containsBitmap(GitObjectId commitId)
+    {
+        PreCondition.assertNotNull(commitId, "commitId");
+
+        final int index = this.packIndex.indexOf(commitId);
+        return index != -1 && this.entryIndexes.containsKey(index);
+    }
+
+    /**
+     * Get the bitmap of the objects that can be reached from the commit with the provided id.
+     * @param commitId The id of the commit.
+     * @return A new bitmap of the objects that can be reached from the commit, in pack order, or
+     * null if the commit doesn't have a bitmap.
+     */
+    public java.util.BitSet getBitmap(GitObjectId commitId)
+    {
+        PreCondition.assertNotNull(commitId, "commitId");
+
+        java.util.BitSet result = null;
+        final int index = this.packIndex.indexOf(commitId);
+        if (index != -1)
+        {
+            final Integer entryIndex = this.entryIndexes.get(index);
+            if (entryIndex != null)
+            {
+                result = (java.util.BitSet)this.getEntryBitmap(entryIndex).clone();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the resolved bitmap of the entry at the provided index. Entries that are stored as the
+     * XOR of an earlier entry are resolved by walking back to an entry that isn't, and the
+     * resolved bitmaps are cached.
+     * @param entryIndex The index of the entry.
+     * @return The resolved bitmap of the entry.
+     */
+    private java.util.BitSet getEntryBitmap(int entryIndex)
+    {
+        synchronized (this.bitmaps)
+        {
+            // Find the nearest entry in the XOR chain that is already resolved or isn't stored as
+            // an XOR, and then resolve the chain forward from there.
+            final List<Integer> chain = List.create();
+            int chainIndex = entryIndex;
+            while (this.bitmaps[chainIndex] == null && this.xorOffsets[chainIndex] != 0)
+            {
+                chain.add(chainIndex);
+                chainIndex -= this.xorOffsets[chainIndex];
+            }
+            if (this.bitmaps[chainIndex] == null)
+            {
+                this.bitmaps[chainIndex] = this.storedBitmaps[chainIndex].toBitSet();
+            }
+
+            java.util.BitSet result = this.bitmaps[chainIndex];
+            for (int i = chain.getCount() - 1; i >= 0; --i)
+            {
+                final int index = chain.get(i);
+                final java.util.BitSet bitmap = this.storedBitmaps[index].toBitSet();
+                bitmap.xor(result);
+                this.bitmaps[index] = bitmap;
+                result = bitmap;
+            }
+            return result;
+        }
+    }
+}
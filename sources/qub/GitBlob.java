@@ -0,0 +1,13 @@
+package qub;
+
+/**
+ * A blob object that was read from a Git repository's object database. A blob's contents are
+ * the contents of a file.
+ */
+public class GitBlob extends GitObject
+{
+    GitBlob(GitObjectId objectId, GitByteSlice contents)
+    {
+        super(objectId, GitObjectType.Blob, contents);
+    }
+}
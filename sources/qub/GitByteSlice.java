@@ -0,0 +1,233 @@
+package qub;
+
+/**
+ * A read-only view of a range of bytes in a byte array, such as a single line or NUL-terminated
+ * record of a Git command's output. Creating a slice doesn't copy the bytes, and the bytes are
+ * only decoded to a String when {@link #getText()} is called.
+ */
+public class GitByteSlice
+{
+    private final byte[] bytes;
+    private final int startIndex;
+    private final int length;
+
+    private GitByteSlice(byte[] bytes, int startIndex, int length)
+    {
+        this.bytes = bytes;
+        this.startIndex = startIndex;
+        this.length = length;
+    }
+
+    /**
+     * Create a new GitByteSlice that views the provided range of the provided bytes.
+     * @param bytes The bytes to view.
+     * @param startIndex The index of the first byte in the slice.
+     * @param length The number of bytes in the slice.
+     * @return The new GitByteSlice.
+     */
+    public static GitByteSlice create(byte[] bytes, int startIndex, int length)
+    {
+        PreCondition.assertNotNull(bytes, "bytes");
+        PreCondition.assertStartIndex(startIndex, bytes.length + 1);
+        PreCondition.assertLength(length, startIndex, bytes.length);
+
+        return new GitByteSlice(bytes, startIndex, length);
+    }
+
+    /**
+     * Get the number of bytes in this slice.
+     * @return The number of bytes in this slice.
+     */
+    public int getLength()
+    {
+        return this.length;
+    }
+
+    /**
+     * Get whether this slice doesn't contain any bytes.
+     * @return Whether this slice doesn't contain any bytes.
+     */
+    public boolean isEmpty()
+    {
+        return this.length == 0;
+    }
+
+    /**
+     * Get the byte at the provided index of this slice.
+     * @param index The index of the byte within this slice.
+     * @return The byte at the provided index.
+     */
+    public byte getByte(int index)
+    {
+        PreCondition.assertBetween(0, index, this.length - 1, "index");
+
+        return this.bytes[this.startIndex + index];
+    }
+
+    /**
+     * Get the array that this slice views.
+     * @return The array that this slice views.
+     */
+    byte[] getByteArray()
+    {
+        return this.bytes;
+    }
+
+    /**
+     * Get the index in {@link #getByteArray()} of the first byte of this slice.
+     * @return The index in {@link #getByteArray()} of the first byte of this slice.
+     */
+    int getStartIndex()
+    {
+        return this.startIndex;
+    }
+
+    /**
+     * Get the index within this slice of the first occurrence of the provided byte.
+     * @param value The byte to look for.
+     * @return The index of the first occurrence of the byte, or -1 if the byte isn't found.
+     */
+    public int indexOf(byte value)
+    {
+        return this.indexOf(value, 0);
+    }
+
+    /**
+     * Get the index within this slice of the first occurrence of the provided byte at or after
+     * the provided start index.
+     * @param value The byte to look for.
+     * @param startIndex The index within this slice to start looking at.
+     * @return The index of the first occurrence of the byte, or -1 if the byte isn't found.
+     */
+    public int indexOf(byte value, int startIndex)
+    {
+        PreCondition.assertBetween(0, startIndex, this.length, "startIndex");
+
+        int result = -1;
+        for (int i = startIndex; i < this.length; ++i)
+        {
+            if (this.bytes[this.startIndex + i] == value)
+            {
+                result = i;
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get whether this slice starts with the provided ASCII text.
+     * @param prefix The ASCII text to compare against the start of this slice.
+     * @return Whether this slice starts with the provided ASCII text.
+     */
+    public boolean startsWith(String prefix)
+    {
+        PreCondition.assertNotNull(prefix, "prefix");
+
+        boolean result = prefix.length() <= this.length;
+        for (int i = 0; result && i < prefix.length(); ++i)
+        {
+            result = this.bytes[this.startIndex + i] == prefix.charAt(i);
+        }
+        return result;
+    }
+
+    /**
+     * Get a slice of this slice that starts at the provided index.
+     * @param startIndex The index within this slice where the new slice starts.
+     * @return The new slice.
+     */
+    public GitByteSlice skip(int startIndex)
+    {
+        PreCondition.assertBetween(0, startIndex, this.length, "startIndex");
+
+        return this.slice(startIndex, this.length - startIndex);
+    }
+
+    /**
+     * Get a slice of this slice.
+     * @param startIndex The index within this slice where the new slice starts.
+     * @param length The number of bytes in the new slice.
+     * @return The new slice.
+     */
+    public GitByteSlice slice(int startIndex, int length)
+    {
+        PreCondition.assertStartIndex(startIndex, this.length + 1);
+        PreCondition.assertLength(length, startIndex, this.length);
+
+        return new GitByteSlice(this.bytes, this.startIndex + startIndex, length);
+    }
+
+    /**
+     * Get a slice of this slice without any leading or trailing ASCII whitespace.
+     * @return A slice of this slice without any leading or trailing ASCII whitespace.
+     */
+    public GitByteSlice trim()
+    {
+        int trimmedStartIndex = this.startIndex;
+        int trimmedEndIndex = this.startIndex + this.length;
+        while (trimmedStartIndex < trimmedEndIndex && GitByteSlice.isWhitespace(this.bytes[trimmedStartIndex]))
+        {
+            ++trimmedStartIndex;
+        }
+        while (trimmedStartIndex < trimmedEndIndex && GitByteSlice.isWhitespace(this.bytes[trimmedEndIndex - 1]))
+        {
+            --trimmedEndIndex;
+        }
+        return trimmedStartIndex == this.startIndex && trimmedEndIndex == this.startIndex + this.length
+            ? this
+            : new GitByteSlice(this.bytes, trimmedStartIndex, trimmedEndIndex - trimmedStartIndex);
+    }
+
+    private static boolean isWhitespace(byte value)
+    {
+        return value == ' ' || value == '\t' || value == '\r' || value == '\n';
+    }
+
+    /**
+     * Get a copy of the bytes in this slice.
+     * @return A copy of the bytes in this slice.
+     */
+    public byte[] getBytes()
+    {
+        return java.util.Arrays.copyOfRange(this.bytes, this.startIndex, this.startIndex + this.length);
+    }
+
+    /**
+     * Decode the bytes in this slice as UTF-8 text.
+     * @return The decoded text.
+     */
+    public String getText()
+    {
+        return new String(this.bytes, this.startIndex, this.length, java.nio.charset.StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String toString()
+    {
+        return this.getText();
+    }
+
+    @Override
+    public boolean equals(Object rhs)
+    {
+        return rhs instanceof GitByteSlice && this.equals((GitByteSlice)rhs);
+    }
+
+    public boolean equals(GitByteSlice rhs)
+    {
+        return rhs != null &&
+            java.util.Arrays.equals(this.bytes, this.startIndex, this.startIndex + this.length, rhs.bytes, rhs.startIndex, rhs.startIndex + rhs.length);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        int result = 1;
+        for (int i = this.startIndex; i < this.startIndex + this.length; ++i)
+        {
+            result = (31 * result) + this.bytes[i];
+        }
+        return result;
+    }
+}
@@ -0,0 +1,120 @@
+package qub;
+
+/**
+ * A token that can be used to cancel the Git commands that it has been given to. Cancelling a
+ * token kills the child processes of the running commands and fails their Results with a
+ * {@link GitCancelledException}. A token can be shared by many commands.
+ */
+public class GitCancellationToken
+{
+    private final List<Action0> cancelledActions;
+    private boolean cancelled;
+
+    private GitCancellationToken()
+    {
+        this.cancelledActions = List.create();
+    }
+
+    /**
+     * Create a new GitCancellationToken that has not been cancelled.
+     * @return The new GitCancellationToken.
+     */
+    public static GitCancellationToken create()
+    {
+        return new GitCancellationToken();
+    }
+
+    /**
+     * Get whether this token has been cancelled.
+     * @return Whether this token has been cancelled.
+     */
+    public boolean isCancelled()
+    {
+        synchronized (this.cancelledActions)
+        {
+            return this.cancelled;
+        }
+    }
+
+    /**
+     * Cancel this token. Cancelling a token that has already been cancelled does nothing.
+     * @return This object for method chaining.
+     */
+    public GitCancellationToken cancel()
+    {
+        List<Action0> actionsToRun = null;
+        synchronized (this.cancelledActions)
+        {
+            if (!this.cancelled)
+            {
+                this.cancelled = true;
+                actionsToRun = List.create(this.cancelledActions);
+                this.cancelledActions.clear();
+            }
+        }
+
+        if (actionsToRun != null)
+        {
+            for (final Action0 action : actionsToRun)
+            {
+                action.run();
+            }
+        }
+
+        return this;
+    }
+
+    /**
+     * Register an action that will be run when this token is cancelled. If this token has
+     * already been cancelled, then the action is run immediately.
+     * @param action The action to run when this token is cancelled.
+     * @return This object for method chaining.
+     */
+    public GitCancellationToken onCancelled(Action0 action)
+    {
+        PreCondition.assertNotNull(action, "action");
+
+        boolean runNow;
+        synchronized (this.cancelledActions)
+        {
+            runNow = this.cancelled;
+            if (!runNow)
+            {
+                this.cancelledActions.add(action);
+            }
+        }
+
+        if (runNow)
+        {
+            action.run();
+        }
+
+        return this;
+    }
+
+    /**
+     * Unregister an action that was registered with {@link #onCancelled(Action0)}.
+     * @param action The action to unregister.
+     * @return Whether the action was registered.
+     */
+    boolean removeOnCancelled(Action0 action)
+    {
+        PreCondition.assertNotNull(action, "action");
+
+        boolean result = false;
+        synchronized (this.cancelledActions)
+        {
+            final int actionCount = this.cancelledActions.getCount();
+            for (int i = 0; i < actionCount; ++i)
+            {
+                if (this.cancelledActions.get(i) == action)
+                {
+                    this.cancelledActions.removeAt(i);
+                    result = true;
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,12 @@
+package qub;
+
+/**
+ * An error that occurs when a Git command is cancelled by its {@link GitCancellationToken}.
+ */
+public class GitCancelledException extends GitException
+{
+    public GitCancelledException(String message)
+    {
+        super(message);
+    }
+}
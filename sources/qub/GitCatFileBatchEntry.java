@@ -0,0 +1,297 @@
+package qub;
+
+/**
+ * A single object's response from "git cat-file --batch" or "git cat-file --batch-check". The
+ * object's contents (when present) are not copied out of the command's output. Instead this entry
+ * refers to the range of the output bytes that hold the contents.
+ */
+public class GitCatFileBatchEntry
+{
+    private final String objectName;
+    private final GitObjectType objectType;
+    private final long size;
+    private final byte[] output;
+    private final int contentsStartIndex;
+
+    private GitCatFileBatchEntry(String objectName, GitObjectType objectType, long size, byte[] output, int contentsStartIndex)
+    {
+        this.objectName = objectName;
+        this.objectType = objectType;
+        this.size = size;
+        this.output = output;
+        this.contentsStartIndex = contentsStartIndex;
+    }
+
+    /**
+     * Create a new GitCatFileBatchEntry for an object that could not be found.
+     * @param objectName The name of the object that could not be found.
+     * @return The new GitCatFileBatchEntry.
+     */
+    public static GitCatFileBatchEntry createMissing(String objectName)
+    {
+        PreCondition.assertNotNullAndNotEmpty(objectName, "objectName");
+
+        return new GitCatFileBatchEntry(objectName, null, -1, null, -1);
+    }
+
+    /**
+     * Create a new GitCatFileBatchEntry for an object whose contents were not requested.
+     * @param objectName The full object id of the object.
+     * @param objectType The type of the object.
+     * @param size The size of the object's contents in bytes.
+     * @return The new GitCatFileBatchEntry.
+     */
+    public static GitCatFileBatchEntry create(String objectName, GitObjectType objectType, long size)
+    {
+        PreCondition.assertNotNullAndNotEmpty(objectName, "objectName");
+        PreCondition.assertNotNull(objectType, "objectType");
+        PreCondition.assertGreaterThanOrEqualTo(size, 0, "size");
+
+        return new GitCatFileBatchEntry(objectName, objectType, size, null, -1);
+    }
+
+    /**
+     * Create a new GitCatFileBatchEntry for an object whose contents are stored in the provided
+     * output bytes.
+     * @param objectName The full object id of the object.
+     * @param objectType The type of the object.
+     * @param size The size of the object's contents in bytes.
+     * @param output The bytes that contain the object's contents.
+     * @param contentsStartIndex The index in output where the object's contents begin.
+     * @return The new GitCatFileBatchEntry.
+     */
+    public static GitCatFileBatchEntry create(String objectName, GitObjectType objectType, long size, byte[] output, int contentsStartIndex)
+    {
+        PreCondition.assertNotNullAndNotEmpty(objectName, "objectName");
+        PreCondition.assertNotNull(objectType, "objectType");
+        PreCondition.assertNotNull(output, "output");
+        PreCondition.assertBetween(0, size, Integer.MAX_VALUE, "size");
+        PreCondition.assertBetween(0, contentsStartIndex, output.length - (int)size, "contentsStartIndex");
+
+        return new GitCatFileBatchEntry(objectName, objectType, size, output, contentsStartIndex);
+    }
+
+    /**
+     * Get the name of the object. For objects that were found this is the full object id. For
+     * missing objects this is the name that was requested.
+     * @return The name of the object.
+     */
+    public String getObjectName()
+    {
+        return this.objectName;
+    }
+
+    /**
+     * Get whether the requested object could not be found.
+     * @return Whether the requested object could not be found.
+     */
+    public boolean isMissing()
+    {
+        return this.objectType == null;
+    }
+
+    /**
+     * Get the type of the object, or null if the object is missing.
+     * @return The type of the object, or null if the object is missing.
+     */
+    public GitObjectType getObjectType()
+    {
+        return this.objectType;
+    }
+
+    /**
+     * Get the size of the object's contents in bytes, or -1 if the object is missing.
+     * @return The size of the object's contents in bytes, or -1 if the object is missing.
+     */
+    public long getSize()
+    {
+        return this.size;
+    }
+
+    /**
+     * Get whether this entry includes the object's contents.
+     * @return Whether this entry includes the object's contents.
+     */
+    public boolean hasContents()
+    {
+        return this.output != null;
+    }
+
+    /**
+     * Get the bytes that contain the object's contents. The contents begin at
+     * {@link #getContentsStartIndex()} and are {@link #getSize()} bytes long.
+     * @return The bytes that contain the object's contents.
+     */
+    public byte[] getOutput()
+    {
+        PreCondition.assertTrue(this.hasContents(), "this.hasContents()");
+
+        return this.output;
+    }
+
+    /**
+     * Get the index in {@link #getOutput()} where the object's contents begin.
+     * @return The index in {@link #getOutput()} where the object's contents begin.
+     */
+    public int getContentsStartIndex()
+    {
+        PreCondition.assertTrue(this.hasContents(), "this.hasContents()");
+
+        return this.contentsStartIndex;
+    }
+
+    /**
+     * Get a copy of the object's contents.
+     * @return A copy of the object's contents.
+     */
+    public byte[] getContents()
+    {
+        PreCondition.assertTrue(this.hasContents(), "this.hasContents()");
+
+        final byte[] result = new byte[(int)this.size];
+        System.arraycopy(this.output, this.contentsStartIndex, result, 0, result.length);
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+
+    @Override
+    public String toString()
+    {
+        return this.isMissing()
+            ? this.objectName + " missing"
+            : this.objectName + " " + this.objectType + " " + this.size;
+    }
+
+    /**
+     * Parse one header line of the output of "git cat-file --batch" or "git cat-file
+     * --batch-check" when the default format is used, without its terminating newline.
+     * @param headerLine The header line to parse.
+     * @return An entry without contents for the object that the header line describes.
+     */
+    static Result<GitCatFileBatchEntry> parseHeaderLine(String headerLine)
+    {
+        PreCondition.assertNotNull(headerLine, "headerLine");
+
+        return Result.create(() ->
+        {
+            final int lastSpaceIndex = headerLine.lastIndexOf(' ');
+            if (lastSpaceIndex < 0)
+            {
+                throw new ParseException("Invalid cat-file header line: " + Strings.escapeAndQuote(headerLine));
+            }
+
+            final GitCatFileBatchEntry result;
+            final String lastField = headerLine.substring(lastSpaceIndex + 1);
+            if (lastField.equals("missing") || lastField.equals("ambiguous"))
+            {
+                result = GitCatFileBatchEntry.createMissing(headerLine.substring(0, lastSpaceIndex));
+            }
+            else
+            {
+                final int firstSpaceIndex = headerLine.indexOf(' ');
+                if (firstSpaceIndex == lastSpaceIndex)
+                {
+                    throw new ParseException("Invalid cat-file header line: " + Strings.escapeAndQuote(headerLine));
+                }
+
+                final String objectName = headerLine.substring(0, firstSpaceIndex);
+                final GitObjectType objectType = GitObjectType.parse(headerLine.substring(firstSpaceIndex + 1, lastSpaceIndex)).await();
+                final long size;
+                try
+                {
+                    size = Long.parseLong(lastField);
+                }
+                catch (NumberFormatException e)
+                {
+                    throw new ParseException("Invalid cat-file object size: " + Strings.escapeAndQuote(lastField));
+                }
+                result = GitCatFileBatchEntry.create(objectName, objectType, size);
+            }
+
+            PostCondition.assertNotNull(result, "result");
+
+            return result;
+        });
+    }
+
+    /**
+     * Parse the output of "git cat-file --batch" or "git cat-file --batch-check" when the default
+     * format is used.
+     * @param output The output bytes of the command.
+     * @param hasContents Whether the output includes each object's contents (--batch) or not
+     *                    (--batch-check).
+     * @return The entries in the output.
+     */
+    public static Result<Iterable<GitCatFileBatchEntry>> parse(byte[] output, boolean hasContents)
+    {
+        PreCondition.assertNotNull(output, "output");
+
+        return GitCatFileBatchEntry.parse(output, output.length, hasContents);
+    }
+
+    /**
+     * Parse the first outputLength bytes of the provided output of "git cat-file --batch" or
+     * "git cat-file --batch-check".
+     * @param output The array that contains the output bytes of the command.
+     * @param outputLength The number of bytes at the start of the array that belong to the output.
+     * @param hasContents Whether the output contains the contents of each object (--batch) or
+     *                    only the header line of each object (--batch-check).
+     * @return The entries in the output.
+     */
+    static Result<Iterable<GitCatFileBatchEntry>> parse(byte[] output, int outputLength, boolean hasContents)
+    {
+        PreCondition.assertNotNull(output, "output");
+        PreCondition.assertBetween(0, outputLength, output.length, "outputLength");
+
+        return Result.create(() ->
+        {
+            final List<GitCatFileBatchEntry> result = List.create();
+
+            int index = 0;
+            while (index < outputLength)
+            {
+                int lineEndIndex = index;
+                while (lineEndIndex < outputLength && output[lineEndIndex] != '\n')
+                {
+                    ++lineEndIndex;
+                }
+                if (lineEndIndex == outputLength)
+                {
+                    throw new ParseException("Missing newline at the end of cat-file header line.");
+                }
+
+                final String headerLine = new String(output, index, lineEndIndex - index, java.nio.charset.StandardCharsets.UTF_8);
+                index = lineEndIndex + 1;
+
+                final GitCatFileBatchEntry header = GitCatFileBatchEntry.parseHeaderLine(headerLine).await();
+                if (header.isMissing() || !hasContents)
+                {
+                    result.add(header);
+                }
+                else
+                {
+                    final String objectName = header.getObjectName();
+                    final GitObjectType objectType = header.getObjectType();
+                    final long size = header.getSize();
+                    if (outputLength - index < size + 1)
+                    {
+                        throw new ParseException("Expected " + size + " bytes of contents for object " + objectName + ".");
+                    }
+                    result.add(GitCatFileBatchEntry.create(objectName, objectType, size, output, index));
+                    index += (int)size;
+                    if (output[index] != '\n')
+                    {
+                        throw new ParseException("Missing newline after the contents of object " + objectName + ".");
+                    }
+                    ++index;
+                }
+            }
+
+            PostCondition.assertNotNull(result, "result");
+
+            return result;
+        });
+    }
+}
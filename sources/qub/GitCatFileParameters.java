@@ -0,0 +1,142 @@
+package qub;
+
+public class GitCatFileParameters extends GitParametersDecorator<GitCatFileParameters>
+{
+    private GitCatFileParameters(Path executablePath)
+    {
+        super(executablePath);
+
+        this.addCommandArgument("cat-file");
+    }
+
+    static GitCatFileParameters create()
+    {
+        return GitCatFileParameters.create("git");
+    }
+
+    static GitCatFileParameters create(String executablePath)
+    {
+        PreCondition.assertNotNullAndNotEmpty(executablePath, "executablePath");
+
+        return GitCatFileParameters.create(Path.parse(executablePath));
+    }
+
+    static GitCatFileParameters create(Path executablePath)
+    {
+        PreCondition.assertNotNull(executablePath, "executablePath");
+
+        return new GitCatFileParameters(executablePath);
+    }
+
+    static GitCatFileParameters create(File executableFile)
+    {
+        PreCondition.assertNotNull(executableFile, "executableFile");
+
+        return GitCatFileParameters.create(executableFile.getPath());
+    }
+
+    /**
+     * Instead of the content, show the object type identified by &lt;object&gt;.
+     * @return This object for method chaining.
+     */
+    public GitCatFileParameters addType()
+    {
+        return this.addCommandArgument("-t");
+    }
+
+    /**
+     * Instead of the content, show the object size identified by &lt;object&gt;.
+     * @return This object for method chaining.
+     */
+    public GitCatFileParameters addSize()
+    {
+        return this.addCommandArgument("-s");
+    }
+
+    /**
+     * Exit with zero status if &lt;object&gt; exists and is a valid object. If &lt;object&gt; is
+     * of an invalid format, exit with non-zero status and emit an error on stderr.
+     * @return This object for method chaining.
+     */
+    public GitCatFileParameters addExists()
+    {
+        return this.addCommandArgument("-e");
+    }
+
+    /**
+     * Pretty-print the contents of &lt;object&gt; based on its type.
+     * @return This object for method chaining.
+     */
+    public GitCatFileParameters addPrettyPrint()
+    {
+        return this.addCommandArgument("-p");
+    }
+
+    /**
+     * Print object information and contents for each object provided on stdin.
+     * @return This object for method chaining.
+     */
+    public GitCatFileParameters addBatch()
+    {
+        return this.addCommandArgument("--batch");
+    }
+
+    /**
+     * Print object information and contents for each object provided on stdin, using the
+     * provided format for each object's header line.
+     * @param format The format of each object's header line.
+     * @return This object for method chaining.
+     */
+    public GitCatFileParameters addBatch(String format)
+    {
+        PreCondition.assertNotNullAndNotEmpty(format, "format");
+
+        return this.addCommandArgument("--batch=" + format);
+    }
+
+    /**
+     * Print object information for each object provided on stdin.
+     * @return This object for method chaining.
+     */
+    public GitCatFileParameters addBatchCheck()
+    {
+        return this.addCommandArgument("--batch-check");
+    }
+
+    /**
+     * Print object information for each object provided on stdin, using the provided format for
+     * each object's line.
+     * @param format The format of each object's line.
+     * @return This object for method chaining.
+     */
+    public GitCatFileParameters addBatchCheck(String format)
+    {
+        PreCondition.assertNotNullAndNotEmpty(format, "format");
+
+        return this.addCommandArgument("--batch-check=" + format);
+    }
+
+    /**
+     * Normally batch output is flushed after each object is output, so that a process can
+     * interactively read and write from cat-file. With this option, the output uses normal stdio
+     * buffering; this is much more efficient when invoking --batch-check or --batch on a large
+     * number of objects.
+     * @return This object for method chaining.
+     */
+    public GitCatFileParameters addBuffer()
+    {
+        return this.addCommandArgument("--buffer");
+    }
+
+    /**
+     * The name of the object to show.
+     * @param object The name of the object to show.
+     * @return This object for method chaining.
+     */
+    public GitCatFileParameters addObject(String object)
+    {
+        PreCondition.assertNotNullAndNotEmpty(object, "object");
+
+        return this.addCommandArgument(object);
+    }
+}
@@ -0,0 +1,283 @@
+package qub;
+
+/**
+ * A long-lived session that reads objects from one repository through "git cat-file --batch"
+ * and "git cat-file --batch-check" processes that stay alive between requests. Requests are
+ * written to a process's standard input and each response is read from its standard output as
+ * a framed header line and contents range, so reading an object costs a round trip over the
+ * process's pipes instead of starting a new process. Each process is only started the first
+ * time that it is needed, and a process that stopped (for example because it crashed) is
+ * started again by the next request.
+ * <p>
+ * A session can be used by many threads, but its requests are handled one at a time. Requests
+ * are serialized with a lock instead of the session's monitor so that a virtual thread that
+ * waits for a response doesn't pin its carrier thread. Dispose of the session to close its
+ * processes.
+ */
+public class GitCatFileSession implements Disposable
+{
+    private final java.util.concurrent.locks.ReentrantLock lock;
+    private final Git git;
+    private final Folder repositoryFolder;
+    private GitBatchProcess batchProcess;
+    private GitBatchProcess batchCheckProcess;
+    private boolean disposed;
+
+    private GitCatFileSession(Git git, Folder repositoryFolder)
+    {
+        this.lock = new java.util.concurrent.locks.ReentrantLock();
+        this.git = git;
+        this.repositoryFolder = repositoryFolder;
+    }
+
+    /**
+     * Create a new GitCatFileSession for the repository in the provided folder. No process is
+     * started until the session's first request.
+     * @param git The Git object that will run the session's processes.
+     * @param repositoryFolder The folder of the repository to read objects from.
+     * @return The new GitCatFileSession.
+     */
+    static GitCatFileSession create(Git git, Folder repositoryFolder)
+    {
+        PreCondition.assertNotNull(git, "git");
+        PreCondition.assertNotNull(repositoryFolder, "repositoryFolder");
+
+        return new GitCatFileSession(git, repositoryFolder);
+    }
+
+    /**
+     * Get the folder of the repository that this session reads objects from.
+     * @return The folder of the repository that this session reads objects from.
+     */
+    public Folder getRepositoryFolder()
+    {
+        return this.repositoryFolder;
+    }
+
+    /**
+     * Get the type, size, and contents of the provided object.
+     * @param objectName The name of the object, such as a full object id or a revision
+     *                   expression like "HEAD:README.md".
+     * @return The entry for the object.
+     */
+    public Result<GitCatFileBatchEntry> readObject(String objectName)
+    {
+        PreCondition.assertNotNullAndNotEmpty(objectName, "objectName");
+
+        return this.readObjects(Iterable.create(objectName))
+            .then((Iterable<GitCatFileBatchEntry> entries) -> entries.first().await());
+    }
+
+    /**
+     * Get the type, size, and contents of each of the provided objects. All of the requests
+     * are written before the first response is read, so the process reads ahead while the
+     * responses are parsed.
+     * @param objectNames The names of the objects to read.
+     * @return The entries for the provided objects, in the same order as the object names.
+     */
+    public Result<Iterable<GitCatFileBatchEntry>> readObjects(Iterable<String> objectNames)
+    {
+        PreCondition.assertNotNull(objectNames, "objectNames");
+
+        return this.read(objectNames, true);
+    }
+
+    /**
+     * Get the type and size of the provided object without reading its contents.
+     * @param objectName The name of the object.
+     * @return The entry for the object.
+     */
+    public Result<GitCatFileBatchEntry> readObjectInfo(String objectName)
+    {
+        PreCondition.assertNotNullAndNotEmpty(objectName, "objectName");
+
+        return this.readObjectInfos(Iterable.create(objectName))
+            .then((Iterable<GitCatFileBatchEntry> entries) -> entries.first().await());
+    }
+
+    /**
+     * Get the type and size of each of the provided objects without reading their contents.
+     * @param objectNames The names of the objects.
+     * @return The entries for the provided objects, in the same order as the object names.
+     */
+    public Result<Iterable<GitCatFileBatchEntry>> readObjectInfos(Iterable<String> objectNames)
+    {
+        PreCondition.assertNotNull(objectNames, "objectNames");
+
+        return this.read(objectNames, false);
+    }
+
+    private Result<Iterable<GitCatFileBatchEntry>> read(Iterable<String> objectNames, boolean includeContents)
+    {
+        return Result.create(() ->
+        {
+            final byte[] input = Git.joinRecords(objectNames, "objectName", '\n');
+
+            final List<GitCatFileBatchEntry> result = List.create();
+            if (input.length > 0)
+            {
+                this.lock.lock();
+                try
+                {
+                    if (this.disposed)
+                    {
+                        throw new GitException("The cat-file session for " + Strings.escapeAndQuote(this.repositoryFolder.getPath().toString()) + " has been disposed.");
+                    }
+
+                    final GitBatchProcess process = this.getProcess(includeContents);
+                    try
+                    {
+                        process.write(input);
+                        for (final String objectName : objectNames)
+                        {
+                            result.add(GitCatFileSession.readEntry(process, includeContents));
+                        }
+                    }
+                    catch (Throwable e)
+                    {
+                        // The process's output may be left in the middle of a response, so it
+                        // can't be used for the next request.
+                        process.dispose().await();
+                        throw e;
+                    }
+                }
+                finally
+                {
+                    this.lock.unlock();
+                }
+            }
+
+            PostCondition.assertNotNull(result, "result");
+
+            return result;
+        });
+    }
+
+    /**
+     * Get the running process for requests with or without contents, starting it if it isn't
+     * running.
+     * @param includeContents Whether to get the "--batch" process or the "--batch-check" process.
+     * @return The running process.
+     */
+    private GitBatchProcess getProcess(boolean includeContents)
+    {
+        GitBatchProcess result = includeContents ? this.batchProcess : this.batchCheckProcess;
+        if (result == null || !result.isAlive())
+        {
+            if (result != null)
+            {
+                result.dispose().await();
+            }
+
+            final GitCatFileParameters parameters = GitCatFileParameters.create(this.git.getExecutablePath());
+            parameters.setWorkingFolder(this.repositoryFolder);
+            if (includeContents)
+            {
+                parameters.addBatch();
+            }
+            else
+            {
+                parameters.addBatchCheck();
+            }
+            result = GitBatchProcess.start(this.git, parameters);
+
+            if (includeContents)
+            {
+                this.batchProcess = result;
+            }
+            else
+            {
+                this.batchCheckProcess = result;
+            }
+        }
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+
+    /**
+     * Read one response from the provided cat-file process.
+     * @param process The process to read the response from.
+     * @param includeContents Whether the response includes the object's contents.
+     * @return The entry for the response.
+     */
+    private static GitCatFileBatchEntry readEntry(GitBatchProcess process, boolean includeContents)
+    {
+        GitCatFileBatchEntry result = GitCatFileBatchEntry.parseHeaderLine(process.readRecord((byte)'\n')).await();
+        if (includeContents && !result.isMissing())
+        {
+            if (result.getSize() > Integer.MAX_VALUE - 1)
+            {
+                throw new GitException("The object " + result.getObjectName() + " is too large to read (" + result.getSize() + " bytes).");
+            }
+
+            final int size = (int)result.getSize();
+            final byte[] contents = process.readBytes(size + 1);
+            if (contents[size] != '\n')
+            {
+                throw new ParseException("Missing newline after the contents of object " + result.getObjectName() + ".");
+            }
+            result = GitCatFileBatchEntry.create(result.getObjectName(), result.getObjectType(), size, contents, 0);
+        }
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+
+    /**
+     * Close this session's processes. Later requests fail.
+     * @return Whether this call disposed of the session.
+     */
+    @Override
+    public Result<Boolean> dispose()
+    {
+        return Result.create(() ->
+        {
+            final GitBatchProcess batchProcess;
+            final GitBatchProcess batchCheckProcess;
+            this.lock.lock();
+            try
+            {
+                if (this.disposed)
+                {
+                    return false;
+                }
+                this.disposed = true;
+                batchProcess = this.batchProcess;
+                batchCheckProcess = this.batchCheckProcess;
+                this.batchProcess = null;
+                this.batchCheckProcess = null;
+            }
+            finally
+            {
+                this.lock.unlock();
+            }
+
+            if (batchProcess != null)
+            {
+                batchProcess.dispose().await();
+            }
+            if (batchCheckProcess != null)
+            {
+                batchCheckProcess.dispose().await();
+            }
+            return true;
+        });
+    }
+
+    @Override
+    public boolean isDisposed()
+    {
+        this.lock.lock();
+        try
+        {
+            return this.disposed;
+        }
+        finally
+        {
+            this.lock.unlock();
+        }
+    }
+}
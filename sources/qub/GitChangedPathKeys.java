@@ -0,0 +1,185 @@
+package qub;
+
+/**
+ * The changed-path Bloom filter keys of a path. A commit-graph's changed-path Bloom filters
+ * contain every path that a commit changed along with each of that path's parent folders, so a
+ * commit can only have changed a path if its filter might contain the key of the path and the
+ * keys of all of its parent folders.
+ */
+final class GitChangedPathKeys
+{
+    private static final int seed0 = 0x293ae76f;
+    private static final int seed1 = 0x7e646e2c;
+
+    private final byte[][] paths;
+    private final java.util.HashMap<Long,int[][]> keys;
+
+    private GitChangedPathKeys(byte[][] paths)
+    {
+        this.paths = paths;
+        this.keys = new java.util.HashMap<>();
+    }
+
+    /**
+     * Create the changed-path keys of the provided path.
+     * @param path The path, relative to the root of the repository, such as "sources/qub".
+     * @return The changed-path keys of the path.
+     */
+    static GitChangedPathKeys create(String path)
+    {
+        PreCondition.assertNotNullAndNotEmpty(path, "path");
+
+        final List<byte[]> paths = List.create();
+        int endIndex = path.length();
+        while (endIndex > 0)
+        {
+            paths.add(path.substring(0, endIndex).getBytes(java.nio.charset.StandardCharsets.UTF_8));
+            endIndex = path.lastIndexOf('/', endIndex - 1);
+        }
+
+        final byte[][] pathsArray = new byte[paths.getCount()][];
+        for (int i = 0; i < pathsArray.length; ++i)
+        {
+            pathsArray[i] = paths.get(i);
+        }
+        return new GitChangedPathKeys(pathsArray);
+    }
+
+    /**
+     * Get the keys of this object's path and its parent folders for Bloom filters with the
+     * provided settings.
+     * @param version The version of the Bloom filters. Version 1 filters hash each path byte as
+     *                a signed value.
+     * @param hashCount The number of hashes in each key.
+     * @return The keys, starting with the key of the full path.
+     */
+    synchronized int[][] getKeys(int version, int hashCount)
+    {
+        final long settings = ((long)version << 32) | hashCount;
+        int[][] result = this.keys.get(settings);
+        if (result == null)
+        {
+            result = new int[this.paths.length][];
+            for (int i = 0; i < this.paths.length; ++i)
+            {
+                result[i] = GitChangedPathKeys.getKey(this.paths[i], hashCount, version == 1);
+            }
+            this.keys.put(settings, result);
+        }
+        return result;
+    }
+
+    /**
+     * Get the Bloom filter key of the provided path. Each hash of the key is the first murmur3
+     * hash of the path plus the hash's index times the second murmur3 hash of the path.
+     * @param path The bytes of the path.
+     * @param hashCount The number of hashes in the key.
+     * @param signedBytes Whether the bytes of the path are hashed as signed values.
+     * @return The key of the path.
+     */
+    static int[] getKey(byte[] path, int hashCount, boolean signedBytes)
+    {
+        PreCondition.assertNotNull(path, "path");
+        PreCondition.assertGreaterThan(hashCount, 0, "hashCount");
+
+        final int hash0 = GitChangedPathKeys.murmur3(path, GitChangedPathKeys.seed0, signedBytes);
+        final int hash1 = GitChangedPathKeys.murmur3(path, GitChangedPathKeys.seed1, signedBytes);
+        final int[] result = new int[hashCount];
+        for (int i = 0; i < hashCount; ++i)
+        {
+            result[i] = hash0 + (i * hash1);
+        }
+        return result;
+    }
+
+    /**
+     * Get the 32-bit murmur3 hash of the provided bytes.
+     * @param bytes The bytes to hash.
+     * @param seed The seed of the hash.
+     * @param signedBytes Whether the bytes are hashed as signed values, which is how version 1
+     *                    Bloom filters were written.
+     * @return The hash of the bytes.
+     */
+    static int murmur3(byte[] bytes, int seed, boolean signedBytes)
+    {
+        PreCondition.assertNotNull(bytes, "bytes");
+
+        final int c1 = 0xcc9e2d51;
+        final int c2 = 0x1b873593;
+
+        int result = seed;
+        final int blockCount = bytes.length / 4;
+        for (int i = 0; i < blockCount; ++i)
+        {
+            final int index = i * 4;
+            int k = GitChangedPathKeys.getByte(bytes, index, signedBytes) |
+                (GitChangedPathKeys.getByte(bytes, index + 1, signedBytes) << 8) |
+                (GitChangedPathKeys.getByte(bytes, index + 2, signedBytes) << 16) |
+                (GitChangedPathKeys.getByte(bytes, index + 3, signedBytes) << 24);
+            k *= c1;
+            k = Integer.rotateLeft(k, 15);
+            k *= c2;
+
+            result ^= k;
+            result = Integer.rotateLeft(result, 13);
+            result = (result * 5) + 0xe6546b64;
+        }
+
+        final int tailIndex = blockCount * 4;
+        final int tailLength = bytes.length - tailIndex;
+        if (tailLength > 0)
+        {
+            int k = 0;
+            if (tailLength == 3)
+            {
+                k ^= GitChangedPathKeys.getByte(bytes, tailIndex + 2, signedBytes) << 16;
+            }
+            if (tailLength >= 2)
+            {
+                k ^= GitChangedPathKeys.getByte(bytes, tailIndex + 1, signedBytes) << 8;
+            }
+            k ^= GitChangedPathKeys.getByte(bytes, tailIndex, signedBytes);
+            k *= c1;
+            k = Integer.rotateLeft(k, 15);
+            k *= c2;
+            result ^= k;
+        }
+
+        result ^= bytes.length;
+        result ^= result >>> 16;
+        result *= 0x85ebca6b;
+        result ^= result >>> 13;
+        result *= 0xc2b2ae35;
+        result ^= result >>> 16;
+        return result;
+    }
+
+    private static int getByte(byte[] bytes, int index, boolean signedBytes)
+    {
+        return signedBytes ? bytes[index] : bytes[index] & 0xFF;
+    }
+
+    /**
+     * Get whether the Bloom filter at the provided position might contain the provided key.
+     * @param data The data that contains the Bloom filter.
+     * @param filterPosition The position of the Bloom filter in the data.
+     * @param filterLength The number of bytes in the Bloom filter, which must be greater than 0.
+     * @param key The key to look for.
+     * @return False if the Bloom filter definitely doesn't contain the key, or true if it might.
+     */
+    static boolean mightContain(GitPackData data, long filterPosition, long filterLength, int[] key)
+    {
+        PreCondition.assertNotNull(data, "data");
+        PreCondition.assertGreaterThan(filterLength, 0, "filterLength");
+        PreCondition.assertNotNull(key, "key");
+
+        boolean result = true;
+        final long bitCount = filterLength * 8;
+        for (int i = 0; i < key.length && result; ++i)
+        {
+            final long bitIndex = Integer.toUnsignedLong(key[i]) % bitCount;
+            result = (data.getByte(filterPosition + (bitIndex / 8)) & (1 << (bitIndex % 8))) != 0;
+        }
+        return result;
+    }
+}
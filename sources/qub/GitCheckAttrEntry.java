@@ -0,0 +1,143 @@
+package qub;
+
+/**
+ * The value of a single attribute for a single path, as reported by "git check-attr".
+ */
+public class GitCheckAttrEntry
+{
+    private static final String unspecifiedValue = "unspecified";
+    private static final String setValue = "set";
+    private static final String unsetValue = "unset";
+
+    private final String path;
+    private final String attribute;
+    private final String value;
+
+    private GitCheckAttrEntry(String path, String attribute, String value)
+    {
+        this.path = path;
+        this.attribute = attribute;
+        this.value = value;
+    }
+
+    /**
+     * Create a new GitCheckAttrEntry.
+     * @param path The path that the attribute applies to.
+     * @param attribute The name of the attribute.
+     * @param value The value of the attribute. This is "unspecified", "set", "unset", or the
+     *              attribute's assigned value.
+     * @return The new GitCheckAttrEntry.
+     */
+    public static GitCheckAttrEntry create(String path, String attribute, String value)
+    {
+        PreCondition.assertNotNullAndNotEmpty(path, "path");
+        PreCondition.assertNotNullAndNotEmpty(attribute, "attribute");
+        PreCondition.assertNotNull(value, "value");
+
+        return new GitCheckAttrEntry(path, attribute, value);
+    }
+
+    /**
+     * Get the path that the attribute applies to.
+     * @return The path that the attribute applies to.
+     */
+    public String getPath()
+    {
+        return this.path;
+    }
+
+    /**
+     * Get the name of the attribute.
+     * @return The name of the attribute.
+     */
+    public String getAttribute()
+    {
+        return this.attribute;
+    }
+
+    /**
+     * Get the value of the attribute. This is "unspecified", "set", "unset", or the attribute's
+     * assigned value.
+     * @return The value of the attribute.
+     */
+    public String getValue()
+    {
+        return this.value;
+    }
+
+    /**
+     * Get whether the attribute is not specified for the path.
+     * @return Whether the attribute is not specified for the path.
+     */
+    public boolean isUnspecified()
+    {
+        return GitCheckAttrEntry.unspecifiedValue.equals(this.value);
+    }
+
+    /**
+     * Get whether the attribute is set for the path.
+     * @return Whether the attribute is set for the path.
+     */
+    public boolean isSet()
+    {
+        return GitCheckAttrEntry.setValue.equals(this.value);
+    }
+
+    /**
+     * Get whether the attribute is unset for the path.
+     * @return Whether the attribute is unset for the path.
+     */
+    public boolean isUnset()
+    {
+        return GitCheckAttrEntry.unsetValue.equals(this.value);
+    }
+
+    @Override
+    public String toString()
+    {
+        return this.path + ": " + this.attribute + ": " + this.value;
+    }
+
+    /**
+     * Parse the output of "git check-attr -z". Each entry in the output is made up of three
+     * NUL-terminated fields: the path, the attribute, and the attribute's value.
+     * @param output The output bytes of the command.
+     * @return The entries in the output.
+     */
+    public static Result<Iterable<GitCheckAttrEntry>> parse(byte[] output)
+    {
+        PreCondition.assertNotNull(output, "output");
+
+        return GitCheckAttrEntry.parse(GitOutputBuffer.wrap(output));
+    }
+
+    /**
+     * Parse the output of "git check-attr -z" that has been captured in the provided buffer. Only
+     * the fields themselves are decoded to Strings.
+     * @param output The buffer that contains the output bytes of the command.
+     * @return The entries in the output.
+     */
+    public static Result<Iterable<GitCheckAttrEntry>> parse(GitOutputBuffer output)
+    {
+        PreCondition.assertNotNull(output, "output");
+
+        return Result.create(() ->
+        {
+            final List<GitCheckAttrEntry> result = List.create();
+
+            final List<GitByteSlice> fields = output.getRecords((byte)0).toList();
+            if (fields.getCount() % 3 != 0)
+            {
+                throw new ParseException("Expected check-attr output to contain a multiple of 3 fields, but found " + fields.getCount() + ".");
+            }
+            for (int i = 0; i < fields.getCount(); i += 3)
+            {
+                result.add(GitCheckAttrEntry.create(fields.get(i).getText(), fields.get(i + 1).getText(), fields.get(i + 2).getText()));
+            }
+
+            PostCondition.assertNotNull(result, "result");
+
+            return result;
+        });
+    }
+}
@@ -0,0 +1,108 @@
+package qub;
+
+public class GitCheckAttrParameters extends GitParametersDecorator<GitCheckAttrParameters>
+{
+    private GitCheckAttrParameters(Path executablePath)
+    {
+        super(executablePath);
+
+        this.addCommandArgument("check-attr");
+    }
+
+    static GitCheckAttrParameters create()
+    {
+        return GitCheckAttrParameters.create("git");
+    }
+
+    static GitCheckAttrParameters create(String executablePath)
+    {
+        PreCondition.assertNotNullAndNotEmpty(executablePath, "executablePath");
+
+        return GitCheckAttrParameters.create(Path.parse(executablePath));
+    }
+
+    static GitCheckAttrParameters create(Path executablePath)
+    {
+        PreCondition.assertNotNull(executablePath, "executablePath");
+
+        return new GitCheckAttrParameters(executablePath);
+    }
+
+    static GitCheckAttrParameters create(File executableFile)
+    {
+        PreCondition.assertNotNull(executableFile, "executableFile");
+
+        return GitCheckAttrParameters.create(executableFile.getPath());
+    }
+
+    /**
+     * List all attributes that are associated with the specified paths. If this option is used,
+     * then unspecified attributes will not be included in the output.
+     * @return This object for method chaining.
+     */
+    public GitCheckAttrParameters addAll()
+    {
+        return this.addCommandArgument("--all");
+    }
+
+    /**
+     * Consider .gitattributes in the index only, ignoring the working tree.
+     * @return This object for method chaining.
+     */
+    public GitCheckAttrParameters addCached()
+    {
+        return this.addCommandArgument("--cached");
+    }
+
+    /**
+     * Read pathnames from the standard input, one per line, instead of from the command-line.
+     * @return This object for method chaining.
+     */
+    public GitCheckAttrParameters addStdin()
+    {
+        return this.addCommandArgument("--stdin");
+    }
+
+    /**
+     * The output format is modified to be machine-parsable. If --stdin is also given, input paths
+     * are separated with a NUL character instead of a linefeed character.
+     * @return This object for method chaining.
+     */
+    public GitCheckAttrParameters addZ()
+    {
+        return this.addCommandArgument("-z");
+    }
+
+    /**
+     * An attribute to report for each path.
+     * @param attribute The name of the attribute to report.
+     * @return This object for method chaining.
+     */
+    public GitCheckAttrParameters addAttribute(String attribute)
+    {
+        PreCondition.assertNotNullAndNotEmpty(attribute, "attribute");
+
+        return this.addCommandArgument(attribute);
+    }
+
+    /**
+     * Interpret all preceding arguments as attributes and all following arguments as path names.
+     * @return This object for method chaining.
+     */
+    public GitCheckAttrParameters addPathSeparator()
+    {
+        return this.addCommandArgument("--");
+    }
+
+    /**
+     * A path to report the attributes of.
+     * @param path The path to report the attributes of.
+     * @return This object for method chaining.
+     */
+    public GitCheckAttrParameters addPath(String path)
+    {
+        PreCondition.assertNotNullAndNotEmpty(path, "path");
+
+        return this.addCommandArgument(path);
+    }
+}
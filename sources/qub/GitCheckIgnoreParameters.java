@@ -0,0 +1,107 @@
+package qub;
+
+public class GitCheckIgnoreParameters extends GitParametersDecorator<GitCheckIgnoreParameters>
+{
+    private GitCheckIgnoreParameters(Path executablePath)
+    {
+        super(executablePath);
+
+        this.addCommandArgument("check-ignore");
+    }
+
+    static GitCheckIgnoreParameters create()
+    {
+        return GitCheckIgnoreParameters.create("git");
+    }
+
+    static GitCheckIgnoreParameters create(String executablePath)
+    {
+        PreCondition.assertNotNullAndNotEmpty(executablePath, "executablePath");
+
+        return GitCheckIgnoreParameters.create(Path.parse(executablePath));
+    }
+
+    static GitCheckIgnoreParameters create(Path executablePath)
+    {
+        PreCondition.assertNotNull(executablePath, "executablePath");
+
+        return new GitCheckIgnoreParameters(executablePath);
+    }
+
+    static GitCheckIgnoreParameters create(File executableFile)
+    {
+        PreCondition.assertNotNull(executableFile, "executableFile");
+
+        return GitCheckIgnoreParameters.create(executableFile.getPath());
+    }
+
+    /**
+     * Don't output anything, just set exit status. This is only valid with a single pathname.
+     * @return This object for method chaining.
+     */
+    public GitCheckIgnoreParameters addQuiet()
+    {
+        return this.addCommandArgument("--quiet");
+    }
+
+    /**
+     * Instead of printing the paths that are excluded, for each path that matches an exclude
+     * pattern, print the exclude pattern together with the path.
+     * @return This object for method chaining.
+     */
+    public GitCheckIgnoreParameters addVerbose()
+    {
+        return this.addCommandArgument("--verbose");
+    }
+
+    /**
+     * Read pathnames from the standard input, one per line, instead of from the command-line.
+     * @return This object for method chaining.
+     */
+    public GitCheckIgnoreParameters addStdin()
+    {
+        return this.addCommandArgument("--stdin");
+    }
+
+    /**
+     * The output format is modified to be machine-parsable. If --stdin is also given, input paths
+     * are separated with a NUL character instead of a linefeed character.
+     * @return This object for method chaining.
+     */
+    public GitCheckIgnoreParameters addZ()
+    {
+        return this.addCommandArgument("-z");
+    }
+
+    /**
+     * Show given paths which don't match any pattern. This only makes sense when --verbose is
+     * enabled, otherwise it would not be possible to distinguish between paths which match a
+     * pattern and those which don't.
+     * @return This object for method chaining.
+     */
+    public GitCheckIgnoreParameters addNonMatching()
+    {
+        return this.addCommandArgument("--non-matching");
+    }
+
+    /**
+     * Don't look in the index when undertaking the checks.
+     * @return This object for method chaining.
+     */
+    public GitCheckIgnoreParameters addNoIndex()
+    {
+        return this.addCommandArgument("--no-index");
+    }
+
+    /**
+     * A path to check against the exclude patterns.
+     * @param path The path to check.
+     * @return This object for method chaining.
+     */
+    public GitCheckIgnoreParameters addPath(String path)
+    {
+        PreCondition.assertNotNullAndNotEmpty(path, "path");
+
+        return this.addCommandArgument(path);
+    }
+}
@@ -0,0 +1,116 @@
+package qub;
+
+/**
+ * The chunk lookup table of a Git chunk-format file, such as a multi-pack-index or a
+ * commit-graph. The table has one 12-byte entry (a 4-byte chunk id and an 8-byte offset) for
+ * each chunk, followed by a terminating entry whose offset marks the end of the last chunk.
+ */
+final class GitChunkTable
+{
+    private static final int entryLength = 12;
+
+    private final String fileDescription;
+    private final java.util.HashMap<Integer,long[]> chunks;
+
+    private GitChunkTable(String fileDescription)
+    {
+        this.fileDescription = fileDescription;
+        this.chunks = new java.util.HashMap<>();
+    }
+
+    /**
+     * Parse the chunk lookup table at the provided position.
+     * @param data The bytes of the file.
+     * @param tablePosition The position of the first entry of the table.
+     * @param chunkCount The number of chunks in the file.
+     * @param dataEnd The position where the chunks must end, which is normally the start of the
+     *                file's trailing checksum.
+     * @param fileDescription The description of the file that is used in error messages, such as
+     *                        "multi-pack-index".
+     * @return The parsed chunk lookup table.
+     */
+    static GitChunkTable parse(GitPackData data, long tablePosition, int chunkCount, long dataEnd, String fileDescription)
+    {
+        PreCondition.assertNotNull(data, "data");
+        PreCondition.assertGreaterThanOrEqualTo(tablePosition, 0, "tablePosition");
+        PreCondition.assertGreaterThanOrEqualTo(chunkCount, 0, "chunkCount");
+        PreCondition.assertNotNullAndNotEmpty(fileDescription, "fileDescription");
+
+        final GitChunkTable result = new GitChunkTable(fileDescription);
+        if (tablePosition + ((chunkCount + 1L) * GitChunkTable.entryLength) > dataEnd)
+        {
+            throw new ParseException("The " + fileDescription + " chunk table is invalid.");
+        }
+        for (int i = 0; i < chunkCount; ++i)
+        {
+            final long entryPosition = tablePosition + ((long)i * GitChunkTable.entryLength);
+            final int chunkId = data.getInt(entryPosition);
+            final long chunkStart = data.getLong(entryPosition + 4);
+            final long chunkEnd = data.getLong(entryPosition + 4 + GitChunkTable.entryLength);
+            if (chunkStart < 0 || chunkEnd < chunkStart || chunkEnd > dataEnd)
+            {
+                throw new ParseException("The " + fileDescription + " chunk table is invalid.");
+            }
+            result.chunks.putIfAbsent(chunkId, new long[] { chunkStart, chunkEnd });
+        }
+        return result;
+    }
+
+    /**
+     * Get whether the file contains the chunk with the provided id.
+     * @param chunkId The id of the chunk.
+     * @return Whether the file contains the chunk.
+     */
+    boolean contains(int chunkId)
+    {
+        return this.chunks.containsKey(chunkId);
+    }
+
+    /**
+     * Get the position of the chunk with the provided id.
+     * @param chunkId The id of the chunk.
+     * @return The position of the chunk, or -1 if the file doesn't contain the chunk.
+     */
+    long getStart(int chunkId)
+    {
+        final long[] chunk = this.chunks.get(chunkId);
+        return chunk == null ? -1 : chunk[0];
+    }
+
+    /**
+     * Get the number of bytes in the chunk with the provided id.
+     * @param chunkId The id of the chunk.
+     * @return The number of bytes in the chunk, or 0 if the file doesn't contain the chunk.
+     */
+    long getLength(int chunkId)
+    {
+        final long[] chunk = this.chunks.get(chunkId);
+        return chunk == null ? 0 : chunk[1] - chunk[0];
+    }
+
+    /**
+     * Get the position of the chunk with the provided id, and fail if the file doesn't contain
+     * the chunk.
+     * @param chunkId The id of the chunk.
+     * @return The position of the chunk.
+     */
+    long getRequiredStart(int chunkId)
+    {
+        final long result = this.getStart(chunkId);
+        if (result == -1)
+        {
+            throw new ParseException("The " + this.fileDescription + " is missing its required " + GitChunkTable.getChunkName(chunkId) + " chunk.");
+        }
+        return result;
+    }
+
+    /**
+     * Get the four character name of the provided chunk id.
+     * @param chunkId The id of the chunk.
+     * @return The four character name of the chunk id.
+     */
+    static String getChunkName(int chunkId)
+    {
+        return new String(new char[] { (char)((chunkId >>> 24) & 0xFF), (char)((chunkId >>> 16) & 0xFF), (char)((chunkId >>> 8) & 0xFF), (char)(chunkId & 0xFF) });
+    }
+}
@@ -0,0 +1,574 @@
+package qub;
+
+/**
+ * A local cache of bare mirror repositories that clones borrow objects from. Each upstream
+ * repository gets one mirror in the cache folder, which is created with "git clone --mirror" the
+ * first time it is needed and refreshed with "git fetch --prune" once it is older than the
+ * cache's refresh interval. Clones made through the cache are given
+ * "--reference-if-able &lt;mirror&gt;", so only the objects that the mirror doesn't have yet are
+ * transferred from the upstream repository.
+ * <p>
+ * Creating or refreshing a mirror holds an exclusive lock on a "&lt;mirror&gt;.lock" file next to
+ * it, so many processes (such as several build agents on one host) can safely share one cache
+ * folder. Clones don't wait for the lock. Git writes fetched packs and refs atomically, so a
+ * clone can read a mirror while it is being refreshed, and a clone of a mirror that another
+ * thread or process is already refreshing doesn't wait for that refresh. A new mirror is cloned into a
+ * "&lt;mirror&gt;.new" folder and only renamed into place once the clone has finished, and the
+ * time that it was created or refreshed is then atomically written to a
+ * "&lt;mirror&gt;.refreshed" file. A mirror is only referenced once that file exists.
+ * <p>
+ * Unless {@link #setDissociate(boolean)} is set, clones keep depending on their mirror's objects
+ * through their "objects/info/alternates" file, so a mirror must not be deleted or pruned while
+ * clones that reference it are still in use. For that reason automatic garbage collection and
+ * maintenance are turned off in every mirror (gc.auto=0 and maintenance.auto=false), so the
+ * objects that "git fetch --prune" makes unreachable stay in the mirror.
+ */
+public class GitCloneCache
+{
+    /**
+     * The default amount of time after which a mirror is refreshed before it is used again.
+     */
+    public static final Duration defaultRefreshInterval = Duration.minutes(15);
+
+    /**
+     * The configuration values that are set in every mirror and passed to every refresh, so that
+     * Git never garbage collects objects that clones may be borrowing from a mirror.
+     */
+    private static final String[][] mirrorConfiguration = new String[][]
+    {
+        { "gc.auto", "0" },
+        { "maintenance.auto", "false" },
+    };
+
+    /**
+     * The lock of each mirror's lock file, which keeps the threads of this process from locking
+     * the same lock file at the same time.
+     */
+    private static final java.util.concurrent.ConcurrentHashMap<String,java.util.concurrent.locks.ReentrantLock> mirrorLocks = new java.util.concurrent.ConcurrentHashMap<>();
+
+    /**
+     * The lock that is held while a cache folder that isn't on the local disk is created.
+     */
+    private static final java.util.concurrent.locks.ReentrantLock cacheFolderLock = new java.util.concurrent.locks.ReentrantLock();
+
+    private final Git git;
+    private final Folder cacheFolder;
+    private final Clock clock;
+    private Duration refreshInterval;
+    private boolean dissociate;
+
+    private GitCloneCache(Git git, Folder cacheFolder, Clock clock)
+    {
+        this.git = git;
+        this.cacheFolder = cacheFolder;
+        this.clock = clock;
+        this.refreshInterval = GitCloneCache.defaultRefreshInterval;
+    }
+
+    /**
+     * Create a new GitCloneCache that keeps its mirrors in the provided folder.
+     * @param git The Git object that will be used to create, refresh, and clone from mirrors.
+     * @param cacheFolder The folder that contains the mirrors.
+     * @param clock The clock that is used to decide whether a mirror needs to be refreshed.
+     * @return The new GitCloneCache.
+     */
+    public static GitCloneCache create(Git git, Folder cacheFolder, Clock clock)
+    {
+        PreCondition.assertNotNull(git, "git");
+        PreCondition.assertNotNull(cacheFolder, "cacheFolder");
+        PreCondition.assertNotNull(clock, "clock");
+
+        return new GitCloneCache(git, cacheFolder, clock);
+    }
+
+    /**
+     * Get the folder that contains the mirrors.
+     * @return The folder that contains the mirrors.
+     */
+    public Folder getCacheFolder()
+    {
+        return this.cacheFolder;
+    }
+
+    /**
+     * Get the amount of time after which a mirror is refreshed before it is used again. This
+     * defaults to {@link #defaultRefreshInterval}.
+     * @return The amount of time after which a mirror is refreshed.
+     */
+    public Duration getRefreshInterval()
+    {
+        return this.refreshInterval;
+    }
+
+    /**
+     * Set the amount of time after which a mirror is refreshed before it is used again. A
+     * refresh interval of zero refreshes a mirror every time that it is used.
+     * @param refreshInterval The amount of time after which a mirror is refreshed.
+     * @return This object for method chaining.
+     */
+    public GitCloneCache setRefreshInterval(Duration refreshInterval)
+    {
+        PreCondition.assertNotNull(refreshInterval, "refreshInterval");
+        PreCondition.assertTrue(refreshInterval.greaterThanOrEqualTo(Duration.zero), "refreshInterval.greaterThanOrEqualTo(Duration.zero)");
+
+        this.refreshInterval = refreshInterval;
+
+        return this;
+    }
+
+    /**
+     * Get whether clones made through this cache are dissociated from their mirror after they
+     * are cloned. This defaults to false.
+     * @return Whether clones are dissociated from their mirror.
+     */
+    public boolean getDissociate()
+    {
+        return this.dissociate;
+    }
+
+    /**
+     * Set whether clones made through this cache are dissociated from their mirror after they
+     * are cloned (see {@link GitCloneParameters#addDissociate()}). A dissociated clone doesn't
+     * depend on the cache, but it has to copy the borrowed objects.
+     * @param dissociate Whether clones are dissociated from their mirror.
+     * @return This object for method chaining.
+     */
+    public GitCloneCache setDissociate(boolean dissociate)
+    {
+        this.dissociate = dissociate;
+
+        return this;
+    }
+
+    /**
+     * Get the name of the mirror folder for the provided upstream repository. The name is the
+     * "humanish" part of the repository followed by a hash of the whole repository string, so
+     * that repositories with the same name on different hosts don't share a mirror.
+     * @param repository The upstream repository.
+     * @return The name of the repository's mirror folder.
+     */
+    public static String getMirrorName(String repository)
+    {
+        PreCondition.assertNotNullAndNotEmpty(repository, "repository");
+
+        String normalizedRepository = repository;
+        while (normalizedRepository.length() > 1 && (normalizedRepository.endsWith("/") || normalizedRepository.endsWith("\\")))
+        {
+            normalizedRepository = normalizedRepository.substring(0, normalizedRepository.length() - 1);
+        }
+
+        String humanishName = normalizedRepository.substring(Math.max(Math.max(normalizedRepository.lastIndexOf('/'), normalizedRepository.lastIndexOf('\\')), normalizedRepository.lastIndexOf(':')) + 1);
+        if (humanishName.endsWith(".git"))
+        {
+            humanishName = humanishName.substring(0, humanishName.length() - ".git".length());
+        }
+        humanishName = humanishName.replaceAll("[^A-Za-z0-9._-]", "_");
+        if (humanishName.isEmpty() || humanishName.startsWith("."))
+        {
+            humanishName = "repository" + humanishName;
+        }
+
+        final StringBuilder result = new StringBuilder(humanishName).append('-');
+        try
+        {
+            final byte[] hash = java.security.MessageDigest.getInstance("SHA-256").digest(normalizedRepository.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+            for (int i = 0; i < 8; ++i)
+            {
+                result.append(Character.forDigit((hash[i] >> 4) & 0xF, 16));
+                result.append(Character.forDigit(hash[i] & 0xF, 16));
+            }
+        }
+        catch (java.security.NoSuchAlgorithmException e)
+        {
+            throw new GitException("Could not create a SHA-256 digest: " + e.getMessage(), e);
+        }
+        result.append(".git");
+
+        PostCondition.assertNotNullAndNotEmpty(result.toString(), "result");
+
+        return result.toString();
+    }
+
+    /**
+     * Get the mirror folder for the provided upstream repository. The folder may not exist yet.
+     * @param repository The upstream repository.
+     * @return The repository's mirror folder.
+     */
+    public Folder getMirrorFolder(String repository)
+    {
+        PreCondition.assertNotNullAndNotEmpty(repository, "repository");
+
+        return this.cacheFolder.getFolder(GitCloneCache.getMirrorName(repository)).await();
+    }
+
+    /**
+     * Get when the mirror of the provided upstream repository was last created or refreshed.
+     * @param repository The upstream repository.
+     * @return When the mirror was last refreshed, or null if the mirror hasn't been completely
+     * created yet.
+     */
+    public Result<DateTime> getLastRefreshed(String repository)
+    {
+        PreCondition.assertNotNullAndNotEmpty(repository, "repository");
+
+        return Result.create(() ->
+        {
+            return this.readRefreshedFile(GitCloneCache.getMirrorName(repository));
+        });
+    }
+
+    /**
+     * Get the mirror of the provided upstream repository, creating it if it doesn't exist yet
+     * and refreshing it if it is older than the refresh interval.
+     * @param repository The upstream repository.
+     * @return The repository's mirror folder.
+     */
+    public Result<Folder> update(String repository)
+    {
+        PreCondition.assertNotNullAndNotEmpty(repository, "repository");
+
+        return Result.create(() ->
+        {
+            return this.update(repository, false, true);
+        });
+    }
+
+    /**
+     * Create the mirror of the provided upstream repository if it doesn't exist yet, or
+     * refresh it if it does, regardless of how recently it was refreshed.
+     * @param repository The upstream repository.
+     * @return The repository's mirror folder.
+     */
+    public Result<Folder> refresh(String repository)
+    {
+        PreCondition.assertNotNullAndNotEmpty(repository, "repository");
+
+        return Result.create(() ->
+        {
+            return this.update(repository, true, true);
+        });
+    }
+
+    /**
+     * Clone the provided upstream repository into the provided folder, borrowing objects from
+     * the repository's mirror. The mirror is created or refreshed first if it needs to be. If
+     * the mirror already exists and another thread or process is refreshing it, then the clone
+     * doesn't wait for the refresh and borrows from the mirror as it is. If creating the mirror
+     * fails, then the clone continues without the mirror, and if refreshing it fails, then the
+     * clone borrows from the mirror as it was.
+     * @param repository The upstream repository to clone.
+     * @param directory The folder to clone into.
+     * @param parametersSetup The action that adds any other options to the clone's parameters.
+     *                        The reference, repository, and directory are added after this
+     *                        action is invoked.
+     * @return The exit code of the "git clone" process.
+     */
+    public Result<Integer> clone(String repository, Folder directory, Action1<GitCloneParameters> parametersSetup)
+    {
+        PreCondition.assertNotNullAndNotEmpty(repository, "repository");
+        PreCondition.assertNotNull(directory, "directory");
+        PreCondition.assertNotNull(parametersSetup, "parametersSetup");
+
+        return Result.create(() ->
+        {
+            final boolean mirrorExists = this.readRefreshedFile(GitCloneCache.getMirrorName(repository)) != null;
+            final Folder mirrorFolder = Result.create(() -> this.update(repository, false, !mirrorExists))
+                .catchError(GitException.class, (GitException error) -> mirrorExists ? this.getMirrorFolder(repository) : null)
+                .await();
+
+            return this.git.clone((GitCloneParameters parameters) ->
+            {
+                parametersSetup.run(parameters);
+                if (mirrorFolder != null)
+                {
+                    parameters.addReferenceIfAble(mirrorFolder);
+                    if (this.dissociate)
+                    {
+                        parameters.addDissociate();
+                    }
+                }
+                parameters.addRepository(repository);
+                parameters.addDirectory(directory);
+            }).await();
+        });
+    }
+
+    /**
+     * Create or refresh the mirror of the provided upstream repository while holding its lock.
+     * @param repository The upstream repository.
+     * @param force Whether to refresh the mirror even if it was refreshed within the refresh
+     *              interval.
+     * @param wait Whether to wait for the mirror's lock if another thread or process holds it.
+     *             If this is false and the lock is held, then the mirror is left as it is.
+     * @return The repository's mirror folder.
+     */
+    private Folder update(String repository, boolean force, boolean wait)
+    {
+        final String mirrorName = GitCloneCache.getMirrorName(repository);
+        final Folder mirrorFolder = this.cacheFolder.getFolder(mirrorName).await();
+        this.withMirrorLock(mirrorName, wait, () ->
+        {
+            // Read the refreshed file after the lock is held, since another process may have
+            // refreshed the mirror while this one waited.
+            final DateTime lastRefreshed = this.readRefreshedFile(mirrorName);
+            final DateTime now = this.clock.getCurrentDateTime();
+            if (lastRefreshed == null)
+            {
+                // Nothing can be using a mirror that doesn't have a refreshed file yet, but a
+                // mirror folder without one (left behind by an interrupted update) can't be
+                // trusted either. It stays in place until the new mirror has been cloned next to
+                // it, and is then swapped out for the new mirror.
+                final Folder newMirrorFolder = this.cacheFolder.getFolder(mirrorName + ".new").await();
+                GitCloneCache.deleteIfExists(newMirrorFolder);
+                final int exitCode = this.git.clone((GitCloneParameters parameters) ->
+                {
+                    parameters.addMirror()
+                        .addQuiet();
+                    for (final String[] configuration : GitCloneCache.mirrorConfiguration)
+                    {
+                        parameters.addCloneConfiguration(configuration[0], configuration[1]);
+                    }
+                    parameters.addRepository(repository)
+                        .addDirectory(newMirrorFolder);
+                }).await();
+                GitCloneCache.assertSuccess(exitCode, "create", repository, mirrorFolder);
+
+                if (mirrorFolder.exists().await())
+                {
+                    final Folder oldMirrorFolder = this.cacheFolder.getFolder(mirrorName + ".old").await();
+                    GitCloneCache.deleteIfExists(oldMirrorFolder);
+                    GitCloneCache.move(mirrorFolder, oldMirrorFolder);
+                    GitCloneCache.move(newMirrorFolder, mirrorFolder);
+                    oldMirrorFolder.delete().await();
+                }
+                else
+                {
+                    GitCloneCache.move(newMirrorFolder, mirrorFolder);
+                }
+                this.writeRefreshedFile(mirrorName, now);
+            }
+            else if (force || now.minus(lastRefreshed).greaterThanOrEqualTo(this.refreshInterval))
+            {
+                // The configuration is passed on the command line as well, since mirrors that
+                // were created before it was set in their configuration file don't have it.
+                final int exitCode = this.git.run(GitParameters::create, (GitParameters parameters) ->
+                {
+                    parameters.setWorkingFolder(mirrorFolder);
+                    for (final String[] configuration : GitCloneCache.mirrorConfiguration)
+                    {
+                        parameters.addConfiguration(configuration[0], configuration[1]);
+                    }
+                    parameters.addCommandArguments("fetch", "--prune", "--quiet", "origin");
+                }).await();
+                GitCloneCache.assertSuccess(exitCode, "refresh", repository, mirrorFolder);
+                this.writeRefreshedFile(mirrorName, now);
+            }
+        });
+
+        PostCondition.assertNotNull(mirrorFolder, "mirrorFolder");
+
+        return mirrorFolder;
+    }
+
+    private static void assertSuccess(int exitCode, String operation, String repository, Folder mirrorFolder)
+    {
+        if (exitCode != 0)
+        {
+            throw new GitException("Could not " + operation + " the mirror of " + Strings.escapeAndQuote(repository) + " at " + Strings.escapeAndQuote(mirrorFolder.getPath().toString()) + ". Git exited with code " + exitCode + ".");
+        }
+    }
+
+    /**
+     * Run the provided action while holding the lock of the mirror with the provided name. The
+     * lock is held by at most one thread of this process and, on a real file system, by at most
+     * one process at a time.
+     * @param mirrorName The name of the mirror to lock.
+     * @param wait Whether to wait for the lock if another thread or process holds it.
+     * @param action The action to run.
+     * @return Whether the lock was acquired and the action was run.
+     */
+    private boolean withMirrorLock(String mirrorName, boolean wait, Action0 action)
+    {
+        final File lockFile = this.cacheFolder.getFile(mirrorName + ".lock").await();
+        final java.util.concurrent.locks.ReentrantLock mirrorLock = GitCloneCache.mirrorLocks.computeIfAbsent(lockFile.getPath().toString(), (String lockFilePath) -> new java.util.concurrent.locks.ReentrantLock());
+        boolean result = false;
+        final boolean locked;
+        if (wait)
+        {
+            mirrorLock.lock();
+            locked = true;
+        }
+        else
+        {
+            locked = mirrorLock.tryLock();
+        }
+        if (locked)
+        {
+            try
+            {
+                final java.nio.file.Path lockFilePath = GitNativeFiles.getPath(lockFile);
+                if (lockFilePath == null)
+                {
+                    GitCloneCache.cacheFolderLock.lock();
+                    try
+                    {
+                        if (!this.cacheFolder.exists().await())
+                        {
+                            this.cacheFolder.create().await();
+                        }
+                    }
+                    finally
+                    {
+                        GitCloneCache.cacheFolderLock.unlock();
+                    }
+                    action.run();
+                    result = true;
+                }
+                else
+                {
+                    try
+                    {
+                        java.nio.file.Files.createDirectories(lockFilePath.getParent());
+                        try (final java.nio.channels.FileChannel channel = java.nio.channels.FileChannel.open(lockFilePath, java.nio.file.StandardOpenOption.CREATE, java.nio.file.StandardOpenOption.WRITE))
+                        {
+                            final java.nio.channels.FileLock lock = wait ? channel.lock() : channel.tryLock();
+                            if (lock != null)
+                            {
+                                try
+                                {
+                                    action.run();
+                                    result = true;
+                                }
+                                finally
+                                {
+                                    lock.release();
+                                }
+                            }
+                        }
+                    }
+                    catch (java.io.IOException e)
+                    {
+                        throw new GitException("Could not lock " + Strings.escapeAndQuote(lockFilePath.toString()) + ": " + e.getMessage(), e);
+                    }
+                }
+            }
+            finally
+            {
+                mirrorLock.unlock();
+            }
+        }
+        return result;
+    }
+
+    private DateTime readRefreshedFile(String mirrorName)
+    {
+        final String contents = this.cacheFolder.getFile(mirrorName + ".refreshed")
+            .then((File refreshedFile) -> refreshedFile.getContentsAsString().await())
+            .catchError(NotFoundException.class)
+            .await();
+
+        DateTime result = null;
+        if (!Strings.isNullOrEmpty(contents))
+        {
+            try
+            {
+                result = DateTime.createFromDurationSinceEpoch(Duration.milliseconds(Long.parseLong(contents.trim())));
+            }
+            catch (NumberFormatException e)
+            {
+                result = null;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Write the provided time to the refreshed file of the mirror with the provided name. The
+     * time is written to a temporary file that then replaces the refreshed file, so a reader
+     * never sees a partially written refreshed file.
+     * @param mirrorName The name of the mirror.
+     * @param refreshed The time that the mirror was created or refreshed.
+     */
+    private void writeRefreshedFile(String mirrorName, DateTime refreshed)
+    {
+        final long milliseconds = (long)refreshed.getDurationSinceEpoch().toMilliseconds().getValue();
+        final File newRefreshedFile = this.cacheFolder.getFile(mirrorName + ".refreshed.new").await();
+        newRefreshedFile.setContentsAsString(Long.toString(milliseconds)).await();
+        GitCloneCache.move(newRefreshedFile, this.cacheFolder.getFile(mirrorName + ".refreshed").await());
+    }
+
+    private static void deleteIfExists(Folder folder)
+    {
+        if (folder.exists().await())
+        {
+            folder.delete().await();
+        }
+    }
+
+    /**
+     * Move the provided folder to the provided destination, which must not exist. On the local
+     * disk the folder is renamed atomically. On any other file system its contents are copied
+     * to the destination and then deleted.
+     * @param source The folder to move.
+     * @param destination The path that the folder is moved to.
+     */
+    private static void move(Folder source, Folder destination)
+    {
+        final java.nio.file.Path sourcePath = GitNativeFiles.getPath(source);
+        final java.nio.file.Path destinationPath = GitNativeFiles.getPath(destination);
+        if (sourcePath != null && destinationPath != null)
+        {
+            GitCloneCache.move(sourcePath, destinationPath);
+        }
+        else
+        {
+            destination.create().await();
+            for (final FileSystemEntry entry : source.getFilesAndFolders().await())
+            {
+                if (entry instanceof Folder)
+                {
+                    GitCloneCache.move((Folder)entry, destination.getFolder(entry.getName()).await());
+                }
+                else
+                {
+                    GitCloneCache.move((File)entry, destination.getFile(entry.getName()).await());
+                }
+            }
+            source.delete().await();
+        }
+    }
+
+    /**
+     * Move the provided file to the provided destination, replacing the destination if it
+     * exists. On the local disk the file is renamed atomically. On any other file system its
+     * contents are copied to the destination and then deleted.
+     * @param source The file to move.
+     * @param destination The path that the file is moved to.
+     */
+    private static void move(File source, File destination)
+    {
+        final java.nio.file.Path sourcePath = GitNativeFiles.getPath(source);
+        final java.nio.file.Path destinationPath = GitNativeFiles.getPath(destination);
+        if (sourcePath != null && destinationPath != null)
+        {
+            GitCloneCache.move(sourcePath, destinationPath);
+        }
+        else
+        {
+            destination.setContents(source.getContents().await()).await();
+            source.delete().await();
+        }
+    }
+
+    private static void move(java.nio.file.Path source, java.nio.file.Path destination)
+    {
+        try
+        {
+            java.nio.file.Files.move(source, destination, java.nio.file.StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (java.io.IOException e)
+        {
+            throw new GitException("Could not move " + Strings.escapeAndQuote(source.toString()) + " to " + Strings.escapeAndQuote(destination.toString()) + ": " + e.getMessage(), e);
+        }
+    }
+}
@@ -65,6 +65,369 @@ public class GitCloneParameters extends GitParametersDecorator<GitCloneParameter
         return this.addCommandArgument("--progress");
     }
 
+    /**
+     * Force progress status to be reported (see {@link #addProgress()}) and send the parsed
+     * progress events to the provided listener. This replaces the command's error stream handler.
+     * @param progressListener The listener that will receive the parsed progress events.
+     * @return This object for method chaining.
+     */
+    public GitCloneParameters setProgressListener(Action1<GitProgressEvent> progressListener)
+    {
+        PreCondition.assertNotNull(progressListener, "progressListener");
+
+        return this.setProgressParser(GitProgressParser.create(progressListener));
+    }
+
+    /**
+     * Force progress status to be reported (see {@link #addProgress()}) and write the command's
+     * standard error stream to the provided parser. This replaces the command's error stream
+     * handler. "--progress" is only added if the command doesn't have it yet, so the progress
+     * parser can be replaced.
+     * @param progressParser The parser that the command's standard error stream will be written
+     *                       to.
+     * @return This object for method chaining.
+     */
+    public GitCloneParameters setProgressParser(GitProgressParser progressParser)
+    {
+        PreCondition.assertNotNull(progressParser, "progressParser");
+
+        if (!this.getCommandArguments().contains("--progress"))
+        {
+            this.addProgress();
+        }
+        return this.setErrorStreamHandler((ByteReadStream errorStream) -> progressParser.readFrom(errorStream).await());
+    }
+
+    /**
+     * Create a partial clone that omits the objects that the provided filter excludes. The
+     * server must support partial clones. Omitted objects are fetched from the remote when they
+     * are needed, which {@link Git#readObjects(Folder, Iterable)} does automatically.
+     * @param filterSpec The object filter, such as "blob:none", "blob:limit=1m", or "tree:0".
+     * @return This object for method chaining.
+     */
+    public GitCloneParameters addFilter(String filterSpec)
+    {
+        PreCondition.assertNotNullAndNotEmpty(filterSpec, "filterSpec");
+
+        return this.addCommandArgument("--filter=" + filterSpec);
+    }
+
+    /**
+     * Create a partial clone that omits all blobs (--filter=blob:none). Commits and trees are
+     * still cloned, so history can be walked without fetching anything else.
+     * @return This object for method chaining.
+     */
+    public GitCloneParameters addBlobNoneFilter()
+    {
+        return this.addFilter("blob:none");
+    }
+
+    /**
+     * Create a partial clone that omits the blobs that are at least the provided number of bytes
+     * (--filter=blob:limit=&lt;byteLimit&gt;).
+     * @param byteLimit The size in bytes at which blobs are omitted.
+     * @return This object for method chaining.
+     */
+    public GitCloneParameters addBlobLimitFilter(long byteLimit)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(byteLimit, 0, "byteLimit");
+
+        return this.addFilter("blob:limit=" + byteLimit);
+    }
+
+    /**
+     * Create a partial clone that omits the blobs and trees that are deeper than the provided
+     * depth from the root tree (--filter=tree:&lt;depth&gt;). A depth of 0 omits all trees and
+     * blobs, which only clones commits.
+     * @param depth The tree depth at which trees and blobs are omitted.
+     * @return This object for method chaining.
+     */
+    public GitCloneParameters addTreeFilter(int depth)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(depth, 0, "depth");
+
+        return this.addFilter("tree:" + depth);
+    }
+
+    /**
+     * After the clone is created, initialize and clone the submodules within it.
+     * @return This object for method chaining.
+     */
+    public GitCloneParameters addRecurseSubmodules()
+    {
+        return this.addCommandArgument("--recurse-submodules");
+    }
+
+    /**
+     * Apply the partial clone filter to the submodules as well. This requires a filter and
+     * {@link #addRecurseSubmodules()}.
+     * @return This object for method chaining.
+     */
+    public GitCloneParameters addAlsoFilterSubmodules()
+    {
+        return this.addCommandArgument("--also-filter-submodules");
+    }
+
+    /**
+     * Create a shallow clone with a history truncated to the provided number of commits. This
+     * implies {@link #addSingleBranch()} unless --no-single-branch is given.
+     * @param depth The number of commits to clone from the tip of each cloned branch.
+     * @return This object for method chaining.
+     */
+    public GitCloneParameters addDepth(int depth)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(depth, 1, "depth");
+
+        return this.addCommandArgument("--depth=" + depth);
+    }
+
+    /**
+     * Create a shallow clone with a history after the provided date.
+     * @param date The date in any format that Git understands, such as "2024-01-31" or
+     *             "2 weeks ago".
+     * @return This object for method chaining.
+     */
+    public GitCloneParameters addShallowSince(String date)
+    {
+        PreCondition.assertNotNullAndNotEmpty(date, "date");
+
+        return this.addCommandArgument("--shallow-since=" + date);
+    }
+
+    /**
+     * Create a shallow clone with a history after the provided date.
+     * @param date The date.
+     * @return This object for method chaining.
+     */
+    public GitCloneParameters addShallowSince(DateTime date)
+    {
+        PreCondition.assertNotNull(date, "date");
+
+        final long secondsSinceEpoch = Math.floorDiv((long)date.getDurationSinceEpoch().toMilliseconds().getValue(), 1000);
+        return this.addShallowSince("@" + secondsSinceEpoch + " +0000");
+    }
+
+    /**
+     * Create a shallow clone with a history that excludes the commits that are reachable from
+     * the provided remote branch or tag. This can be added multiple times.
+     * @param revision The remote branch or tag whose commits will be excluded.
+     * @return This object for method chaining.
+     */
+    public GitCloneParameters addShallowExclude(String revision)
+    {
+        PreCondition.assertNotNullAndNotEmpty(revision, "revision");
+
+        return this.addCommandArgument("--shallow-exclude=" + revision);
+    }
+
+    /**
+     * Clone only the history that leads to the tip of a single branch, either the one that is
+     * specified with {@link #addBranch(String)} or the remote's primary branch.
+     * @return This object for method chaining.
+     */
+    public GitCloneParameters addSingleBranch()
+    {
+        return this.addCommandArgument("--single-branch");
+    }
+
+    /**
+     * Clone the history that leads to the tips of all branches, even for a shallow clone.
+     * @return This object for method chaining.
+     */
+    public GitCloneParameters addNoSingleBranch()
+    {
+        return this.addCommandArgument("--no-single-branch");
+    }
+
+    /**
+     * Point the new repository's HEAD at the provided branch instead of the branch that the
+     * remote's HEAD points at. A tag can also be provided, in which case HEAD is detached at
+     * that commit.
+     * @param branch The name of the branch or tag to check out.
+     * @return This object for method chaining.
+     */
+    public GitCloneParameters addBranch(String branch)
+    {
+        PreCondition.assertNotNullAndNotEmpty(branch, "branch");
+
+        return this.addCommandArgument("--branch=" + branch);
+    }
+
+    /**
+     * Don't clone any tags, and configure the remote so that later fetches don't follow tags
+     * either.
+     * @return This object for method chaining.
+     */
+    public GitCloneParameters addNoTags()
+    {
+        return this.addCommandArgument("--no-tags");
+    }
+
+    /**
+     * Make a bare Git repository. Instead of creating a working tree with the repository's
+     * files in a ".git" folder, the directory itself is the Git folder.
+     * @return This object for method chaining.
+     */
+    public GitCloneParameters addBare()
+    {
+        return this.addCommandArgument("--bare");
+    }
+
+    /**
+     * Set up a mirror of the source repository. This implies {@link #addBare()}, and all of the
+     * source repository's refs are mapped onto the same refs in the new repository, so that a
+     * later "git fetch" updates all of them.
+     * @return This object for method chaining.
+     */
+    public GitCloneParameters addMirror()
+    {
+        return this.addCommandArgument("--mirror");
+    }
+
+    /**
+     * Add a "--config=name=value" clone argument, which writes the provided configuration value
+     * to the new repository's configuration file right after it is initialized, so that it
+     * applies to the clone itself and to every later command that runs in the new repository.
+     * This is unlike {@link #addConfiguration(String,String)}, whose "-c name=value" Git argument
+     * only overrides the configuration value for the clone command itself.
+     * @param name The name of the configuration value, such as "gc.auto".
+     * @param value The configuration value.
+     * @return This object for method chaining.
+     */
+    public GitCloneParameters addCloneConfiguration(String name, String value)
+    {
+        PreCondition.assertNotNullAndNotEmpty(name, "name");
+        PreCondition.assertFalse(name.contains("="), "name.contains(\"=\")");
+        PreCondition.assertNotNull(value, "value");
+
+        return this.addCommandArgument("--config=" + name + "=" + value);
+    }
+
+    /**
+     * Use the objects of the provided local repository so that fewer objects have to be
+     * transferred from the source repository. The new repository refers to the reference
+     * repository through its "objects/info/alternates" file unless {@link #addDissociate()} is
+     * also added. It is an error if the reference repository doesn't exist.
+     * @param referenceRepository The local repository to borrow objects from.
+     * @return This object for method chaining.
+     */
+    public GitCloneParameters addReference(String referenceRepository)
+    {
+        PreCondition.assertNotNullAndNotEmpty(referenceRepository, "referenceRepository");
+
+        return this.addCommandArgument("--reference=" + referenceRepository);
+    }
+
+    /**
+     * Use the objects of the provided local repository so that fewer objects have to be
+     * transferred from the source repository. The new repository refers to the reference
+     * repository through its "objects/info/alternates" file unless {@link #addDissociate()} is
+     * also added. It is an error if the reference repository doesn't exist.
+     * @param referenceRepository The local repository to borrow objects from.
+     * @return This object for method chaining.
+     */
+    public GitCloneParameters addReference(Folder referenceRepository)
+    {
+        PreCondition.assertNotNull(referenceRepository, "referenceRepository");
+
+        return this.addReference(referenceRepository.getPath().toString());
+    }
+
+    /**
+     * Use the objects of the provided local repository if it exists, like
+     * {@link #addReference(String)}. If it doesn't exist, then a warning is written and the
+     * clone continues without it.
+     * @param referenceRepository The local repository to borrow objects from.
+     * @return This object for method chaining.
+     */
+    public GitCloneParameters addReferenceIfAble(String referenceRepository)
+    {
+        PreCondition.assertNotNullAndNotEmpty(referenceRepository, "referenceRepository");
+
+        return this.addCommandArgument("--reference-if-able=" + referenceRepository);
+    }
+
+    /**
+     * Use the objects of the provided local repository if it exists, like
+     * {@link #addReference(Folder)}. If it doesn't exist, then a warning is written and the
+     * clone continues without it.
+     * @param referenceRepository The local repository to borrow objects from.
+     * @return This object for method chaining.
+     */
+    public GitCloneParameters addReferenceIfAble(Folder referenceRepository)
+    {
+        PreCondition.assertNotNull(referenceRepository, "referenceRepository");
+
+        return this.addReferenceIfAble(referenceRepository.getPath().toString());
+    }
+
+    /**
+     * Borrow objects from the reference repositories only while cloning. The borrowed objects
+     * are copied into the new repository afterwards, so it no longer depends on the reference
+     * repositories.
+     * @return This object for method chaining.
+     */
+    public GitCloneParameters addDissociate()
+    {
+        return this.addCommandArgument("--dissociate");
+    }
+
+    /**
+     * When the repository to clone from is on the local machine, copy HEAD and everything under
+     * its objects and refs folders instead of using Git's transport. The files under
+     * ".git/objects" are hardlinked unless {@link #addNoHardlinks()} is also added, and the clone
+     * fails if a link can't be created.
+     * @return This object for method chaining.
+     */
+    public GitCloneParameters addLocal()
+    {
+        return this.addCommandArgument("--local");
+    }
+
+    /**
+     * Use Git's transport even when the repository to clone from is on the local machine.
+     * @return This object for method chaining.
+     */
+    public GitCloneParameters addNoLocal()
+    {
+        return this.addCommandArgument("--no-local");
+    }
+
+    /**
+     * Copy the files under ".git/objects" instead of hardlinking them when cloning a repository
+     * that is on the local machine.
+     * @return This object for method chaining.
+     */
+    public GitCloneParameters addNoHardlinks()
+    {
+        return this.addCommandArgument("--no-hardlinks");
+    }
+
+    /**
+     * When the repository to clone from is on the local machine, don't copy or link its objects.
+     * Instead, the new repository refers to them through its "objects/info/alternates" file. The
+     * new repository is broken if the source repository later deletes objects that it needs.
+     * @return This object for method chaining.
+     */
+    public GitCloneParameters addShared()
+    {
+        return this.addCommandArgument("--shared");
+    }
+
+    /**
+     * Add the arguments that select the provided local clone strategy.
+     * @param strategy The strategy to use to copy the objects of the local repository.
+     * @return This object for method chaining.
+     */
+    public GitCloneParameters addLocalCloneStrategy(GitLocalCloneStrategy strategy)
+    {
+        PreCondition.assertNotNull(strategy, "strategy");
+
+        strategy.addTo(this);
+
+        return this;
+    }
+
     /**
      * The (possibly remote) repository to clone from.
      * @param repository The (possibly remote repository to clone from.
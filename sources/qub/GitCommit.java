@@ -0,0 +1,87 @@
+package qub;
+
+/**
+ * A commit object that was read from a Git repository's object database.
+ */
+public class GitCommit extends GitObject
+{
+    GitCommit(GitObjectId objectId, GitByteSlice contents)
+    {
+        super(objectId, GitObjectType.Commit, contents);
+    }
+
+    /**
+     * Get the id of the tree that this commit snapshots.
+     * @return The id of the tree that this commit snapshots.
+     */
+    public GitObjectId getTreeId()
+    {
+        return this.getObjectIdHeader("tree");
+    }
+
+    /**
+     * Get the ids of this commit's parents.
+     * @return The ids of this commit's parents.
+     */
+    public Iterable<GitObjectId> getParentIds()
+    {
+        return this.getHeaders("parent")
+            .map((GitByteSlice parent) -> GitObjectId.parse(parent.getText()).await())
+            .toList();
+    }
+
+    /**
+     * Get the author line of this commit, such as "A U Thor &lt;author@example.com&gt; 1700000000 +0000".
+     * @return The author line of this commit, or null if the commit doesn't have one.
+     */
+    public String getAuthor()
+    {
+        final GitByteSlice author = this.getHeader("author");
+        return author == null ? null : author.getText();
+    }
+
+    /**
+     * Get the committer line of this commit.
+     * @return The committer line of this commit, or null if the commit doesn't have one.
+     */
+    public String getCommitter()
+    {
+        final GitByteSlice committer = this.getHeader("committer");
+        return committer == null ? null : committer.getText();
+    }
+
+    /**
+     * Get the commit time of this commit, in seconds since the epoch. This is the timestamp at
+     * the end of the committer line.
+     * @return The commit time of this commit, or 0 if the commit doesn't have a committer line
+     * with a timestamp.
+     */
+    public long getCommitTime()
+    {
+        long result = 0;
+        final String committer = this.getCommitter();
+        if (committer != null)
+        {
+            final int emailEnd = committer.lastIndexOf('>');
+            final String[] parts = committer.substring(emailEnd + 1).trim().split(" ");
+            try
+            {
+                result = Long.parseLong(parts[0]);
+            }
+            catch (NumberFormatException e)
+            {
+                result = 0;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the message of this commit.
+     * @return The message of this commit.
+     */
+    public GitByteSlice getMessage()
+    {
+        return this.getMessageSlice();
+    }
+}
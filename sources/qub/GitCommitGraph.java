@@ -0,0 +1,518 @@
+package qub;
+
+/**
+ * A repository's commit-graph. The commit-graph stores the parents, root tree, commit time, and
+ * generation number of commits in a memory-mapped file, so ancestry questions can be answered
+ * without inflating commit objects or starting a Git process. The commit-graph is either a
+ * single "objects/info/commit-graph" file or a chain of layers that is listed in
+ * "objects/info/commit-graphs/commit-graph-chain".
+ * <p>
+ * Commits are identified by their position in the commit-graph. Positions are numbered across
+ * the whole chain, starting with the commits in the base layer.
+ */
+public class GitCommitGraph
+{
+    private final GitCommitGraphLayer[] layers;
+    private final int[] layerStarts;
+    private final int objectIdLength;
+    private final int commitCount;
+    private final boolean hasGenerationData;
+
+    private GitCommitGraph(GitCommitGraphLayer[] layers, int objectIdLength)
+    {
+        this.layers = layers;
+        this.objectIdLength = objectIdLength;
+        this.layerStarts = new int[layers.length];
+
+        int commitCount = 0;
+        boolean hasGenerationData = true;
+        for (int i = 0; i < layers.length; ++i)
+        {
+            this.layerStarts[i] = commitCount;
+            commitCount += layers[i].getCommitCount();
+            hasGenerationData &= layers[i].hasGenerationData();
+        }
+        this.commitCount = commitCount;
+        this.hasGenerationData = hasGenerationData;
+    }
+
+    /**
+     * Open the commit-graph of the provided objects folder.
+     * @param objectsFolder The objects folder of a repository, such as ".git/objects".
+     * @param objectIdLength The number of bytes in the repository's object ids.
+     * @return The commit-graph, or a {@link NotFoundException} if the objects folder doesn't have
+     * a commit-graph.
+     */
+    public static Result<GitCommitGraph> open(Folder objectsFolder, int objectIdLength)
+    {
+        PreCondition.assertNotNull(objectsFolder, "objectsFolder");
+        PreCondition.assertTrue(GitObjectId.isValidLength(objectIdLength), "GitObjectId.isValidLength(objectIdLength)");
+
+        return Result.create(() ->
+        {
+            final List<GitPackData> layerDatas = List.create();
+            final File commitGraphFile = objectsFolder.getFile("info/commit-graph").await();
+            final File chainFile = objectsFolder.getFile("info/commit-graphs/commit-graph-chain").await();
+            if (commitGraphFile.exists().await())
+            {
+                layerDatas.add(GitPackData.open(commitGraphFile).await());
+            }
+            else if (chainFile.exists().await())
+            {
+                final Folder commitGraphsFolder = chainFile.getParentFolder().await();
+                for (final String line : chainFile.getContentsAsString().await().split("\n"))
+                {
+                    final String layerName = line.trim();
+                    if (!layerName.isEmpty())
+                    {
+                        layerDatas.add(GitPackData.open(commitGraphsFolder.getFile("graph-" + layerName + ".graph").await()).await());
+                    }
+                }
+            }
+            else
+            {
+                throw new NotFoundException("Could not find a commit-graph in " + Strings.escapeAndQuote(objectsFolder.getPath().toString()) + ".");
+            }
+            return GitCommitGraph.create(layerDatas, objectIdLength).await();
+        });
+    }
+
+    /**
+     * Create a new GitCommitGraph from the provided layers.
+     * @param layerDatas The bytes of the layers, starting with the base layer.
+     * @param objectIdLength The number of bytes in the repository's object ids.
+     * @return The new GitCommitGraph.
+     */
+    static Result<GitCommitGraph> create(Iterable<GitPackData> layerDatas, int objectIdLength)
+    {
+        PreCondition.assertNotNullAndNotEmpty(layerDatas, "layerDatas");
+        PreCondition.assertTrue(GitObjectId.isValidLength(objectIdLength), "GitObjectId.isValidLength(objectIdLength)");
+
+        return Result.create(() ->
+        {
+            final GitCommitGraphLayer[] layers = new GitCommitGraphLayer[layerDatas.getCount()];
+            int layerIndex = 0;
+            for (final GitPackData layerData : layerDatas)
+            {
+                final GitCommitGraphLayer layer = GitCommitGraphLayer.parse(layerData, objectIdLength);
+                if (layer.getBaseGraphCount() != layerIndex)
+                {
+                    throw new ParseException("Expected commit-graph layer " + layerIndex + " to have " + layerIndex + " base layers, but found " + layer.getBaseGraphCount() + ".");
+                }
+                for (int i = 0; i < layerIndex; ++i)
+                {
+                    if (!layer.getBaseGraphChecksum(i).equals(layers[i].getChecksum()))
+                    {
+                        throw new ParseException("Commit-graph layer " + layerIndex + " is based on " + layer.getBaseGraphChecksum(i) + ", but the chain contains " + layers[i].getChecksum() + ".");
+                    }
+                }
+                layers[layerIndex++] = layer;
+            }
+            return new GitCommitGraph(layers, objectIdLength);
+        });
+    }
+
+    /**
+     * Get the number of bytes in the object ids of this commit-graph.
+     * @return The number of bytes in the object ids of this commit-graph.
+     */
+    public int getObjectIdLength()
+    {
+        return this.objectIdLength;
+    }
+
+    /**
+     * Get the number of layers in this commit-graph.
+     * @return The number of layers in this commit-graph.
+     */
+    public int getLayerCount()
+    {
+        return this.layers.length;
+    }
+
+    /**
+     * Get the number of commits in this commit-graph.
+     * @return The number of commits in this commit-graph.
+     */
+    public int getCommitCount()
+    {
+        return this.commitCount;
+    }
+
+    /**
+     * Get whether every layer of this commit-graph contains corrected commit dates. If they don't,
+     * then {@link #getGeneration(int)} returns topological levels instead.
+     * @return Whether every layer of this commit-graph contains corrected commit dates.
+     */
+    public boolean hasGenerationData()
+    {
+        return this.hasGenerationData;
+    }
+
+    /**
+     * Get whether any layer of this commit-graph contains changed-path Bloom filters.
+     * @return Whether any layer of this commit-graph contains changed-path Bloom filters.
+     */
+    public boolean hasBloomFilters()
+    {
+        boolean result = false;
+        for (final GitCommitGraphLayer layer : this.layers)
+        {
+            if (layer.hasBloomFilters())
+            {
+                result = true;
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the layers of this commit-graph, starting with the base layer.
+     * @return The layers of this commit-graph.
+     */
+    Iterable<GitCommitGraphLayer> getLayers()
+    {
+        return Iterable.create(this.layers);
+    }
+
+    private int getLayerIndex(int position)
+    {
+        PreCondition.assertIndexAccess(position, this.commitCount, "position");
+
+        int result = this.layers.length - 1;
+        while (this.layerStarts[result] > position)
+        {
+            --result;
+        }
+        return result;
+    }
+
+    /**
+     * Get the position of the commit with the provided id.
+     * @param commitId The id of the commit.
+     * @return The position of the commit, or -1 if this commit-graph doesn't contain the commit.
+     */
+    public int indexOf(GitObjectId commitId)
+    {
+        PreCondition.assertNotNull(commitId, "commitId");
+
+        int result = -1;
+        for (int i = this.layers.length - 1; i >= 0 && result == -1; --i)
+        {
+            final int layerPosition = this.layers[i].indexOf(commitId);
+            if (layerPosition != -1)
+            {
+                result = this.layerStarts[i] + layerPosition;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get whether this commit-graph contains the commit with the provided id.
+     * @param commitId The id of the commit.
+     * @return Whether this commit-graph contains the commit.
+     */
+    public boolean containsCommit(GitObjectId commitId)
+    {
+        return this.indexOf(commitId) != -1;
+    }
+
+    /**
+     * Get the id of the commit at the provided position.
+     * @param position The position of the commit.
+     * @return The id of the commit.
+     */
+    public GitObjectId getCommitId(int position)
+    {
+        final int layerIndex = this.getLayerIndex(position);
+        return this.layers[layerIndex].getCommitId(position - this.layerStarts[layerIndex]);
+    }
+
+    /**
+     * Get the id of the root tree of the commit at the provided position.
+     * @param position The position of the commit.
+     * @return The id of the commit's root tree.
+     */
+    public GitObjectId getTreeId(int position)
+    {
+        final int layerIndex = this.getLayerIndex(position);
+        return this.layers[layerIndex].getTreeId(position - this.layerStarts[layerIndex]);
+    }
+
+    /**
+     * Get whether the commit at the provided position might have changed the path of the
+     * provided keys compared to its first parent.
+     * @param position The position of the commit.
+     * @param pathKeys The changed-path keys of the path.
+     * @return False if the commit's changed-path Bloom filter proves that the commit didn't
+     * change the path, or true if the commit might have changed the path or it doesn't have a
+     * Bloom filter.
+     */
+    boolean mightHaveChangedPath(int position, GitChangedPathKeys pathKeys)
+    {
+        final int layerIndex = this.getLayerIndex(position);
+        return this.layers[layerIndex].mightHaveChangedPath(position - this.layerStarts[layerIndex], pathKeys);
+    }
+
+    /**
+     * Get the number of parents of the commit at the provided position.
+     * @param position The position of the commit.
+     * @return The number of parents of the commit.
+     */
+    public int getParentCount(int position)
+    {
+        final int layerIndex = this.getLayerIndex(position);
+        return this.layers[layerIndex].getParentCount(position - this.layerStarts[layerIndex]);
+    }
+
+    /**
+     * Get the position of a parent of the commit at the provided position.
+     * @param position The position of the commit.
+     * @param parentIndex The index of the parent.
+     * @return The position of the parent.
+     */
+    public int getParentPosition(int position, int parentIndex)
+    {
+        final int layerIndex = this.getLayerIndex(position);
+        final int layerPosition = position - this.layerStarts[layerIndex];
+        PreCondition.assertIndexAccess(parentIndex, this.layers[layerIndex].getParentCount(layerPosition), "parentIndex");
+
+        final int result = this.layers[layerIndex].getParentPosition(layerPosition, parentIndex);
+        if (result < 0 || result >= this.layerStarts[layerIndex] + this.layers[layerIndex].getCommitCount())
+        {
+            throw new ParseException("The commit-graph refers to a parent at position " + result + ", but it only contains " + this.commitCount + " commits.");
+        }
+        return result;
+    }
+
+    /**
+     * Get the ids of the parents of the commit at the provided position.
+     * @param position The position of the commit.
+     * @return The ids of the parents of the commit.
+     */
+    public Iterable<GitObjectId> getParentIds(int position)
+    {
+        final List<GitObjectId> result = List.create();
+        final int parentCount = this.getParentCount(position);
+        for (int i = 0; i < parentCount; ++i)
+        {
+            result.add(this.getCommitId(this.getParentPosition(position, i)));
+        }
+        return result;
+    }
+
+    /**
+     * Get the commit time, in seconds since the epoch, of the commit at the provided position.
+     * @param position The position of the commit.
+     * @return The commit time of the commit.
+     */
+    public long getCommitTime(int position)
+    {
+        final int layerIndex = this.getLayerIndex(position);
+        return this.layers[layerIndex].getCommitTime(position - this.layerStarts[layerIndex]);
+    }
+
+    /**
+     * Get the topological level (generation number version 1) of the commit at the provided
+     * position. Root commits have level 1, and 0 means that the level wasn't computed.
+     * @param position The position of the commit.
+     * @return The topological level of the commit.
+     */
+    public int getTopologicalLevel(int position)
+    {
+        final int layerIndex = this.getLayerIndex(position);
+        return this.layers[layerIndex].getTopologicalLevel(position - this.layerStarts[layerIndex]);
+    }
+
+    /**
+     * Get the generation number of the commit at the provided position. A commit's generation
+     * number is always greater than the generation numbers of its parents. This is the corrected
+     * commit date if every layer has generation data, and the topological level otherwise.
+     * @param position The position of the commit.
+     * @return The generation number of the commit, or 0 if it wasn't computed.
+     */
+    public long getGeneration(int position)
+    {
+        final int layerIndex = this.getLayerIndex(position);
+        final int layerPosition = position - this.layerStarts[layerIndex];
+        return this.hasGenerationData
+            ? this.layers[layerIndex].getCorrectedCommitDate(layerPosition)
+            : this.layers[layerIndex].getTopologicalLevel(layerPosition);
+    }
+
+    /**
+     * Get whether the commit at the provided ancestor position can be reached from the commit at
+     * the provided descendant position. A commit is its own ancestor. The walk skips every commit
+     * whose generation number is not greater than the ancestor's generation number, because
+     * those commits can't reach the ancestor. Like Git, a generation number of 0 (not computed)
+     * is treated as infinity: an ancestor without a generation number doesn't skip any commits,
+     * and a commit without a generation number is never skipped.
+     * @param ancestorPosition The position of the possible ancestor.
+     * @param descendantPosition The position of the possible descendant.
+     * @return Whether the ancestor can be reached from the descendant.
+     */
+    public boolean isAncestor(int ancestorPosition, int descendantPosition)
+    {
+        PreCondition.assertIndexAccess(ancestorPosition, this.commitCount, "ancestorPosition");
+        PreCondition.assertIndexAccess(descendantPosition, this.commitCount, "descendantPosition");
+
+        boolean result = ancestorPosition == descendantPosition;
+        if (!result)
+        {
+            final long ancestorGeneration = this.getGeneration(ancestorPosition);
+            if (ancestorGeneration == 0 || this.mayReach(descendantPosition, ancestorGeneration))
+            {
+                final java.util.BitSet visited = new java.util.BitSet(this.commitCount);
+                int[] stack = new int[64];
+                int stackCount = 0;
+                stack[stackCount++] = descendantPosition;
+                visited.set(descendantPosition);
+                while (stackCount > 0 && !result)
+                {
+                    final int position = stack[--stackCount];
+                    final int parentCount = this.getParentCount(position);
+                    for (int i = 0; i < parentCount && !result; ++i)
+                    {
+                        final int parentPosition = this.getParentPosition(position, i);
+                        if (parentPosition == ancestorPosition)
+                        {
+                            result = true;
+                        }
+                        else if (!visited.get(parentPosition) && (ancestorGeneration == 0 || this.mayReach(parentPosition, ancestorGeneration)))
+                        {
+                            visited.set(parentPosition);
+                            if (stackCount == stack.length)
+                            {
+                                stack = java.util.Arrays.copyOf(stack, stack.length * 2);
+                            }
+                            stack[stackCount++] = parentPosition;
+                        }
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get whether the commit at the provided position may reach a commit with the provided
+     * generation number. A commit whose generation number wasn't computed (0) may reach any
+     * commit.
+     * @param position The position of the commit.
+     * @param ancestorGeneration The generation number of the commit to reach.
+     * @return Whether the commit at the provided position may reach the other commit.
+     */
+    private boolean mayReach(int position, long ancestorGeneration)
+    {
+        final long generation = this.getGeneration(position);
+        return generation == 0 || generation > ancestorGeneration;
+    }
+
+    /**
+     * Get whether the provided ancestor commit can be reached from the provided descendant
+     * commit.
+     * @param ancestorId The id of the possible ancestor.
+     * @param descendantId The id of the possible descendant.
+     * @return Whether the ancestor can be reached from the descendant, or a
+     * {@link NotFoundException} if either commit isn't in this commit-graph.
+     */
+    public Result<Boolean> isAncestor(GitObjectId ancestorId, GitObjectId descendantId)
+    {
+        PreCondition.assertNotNull(ancestorId, "ancestorId");
+        PreCondition.assertNotNull(descendantId, "descendantId");
+
+        return Result.create(() ->
+        {
+            final int ancestorPosition = this.getRequiredPosition(ancestorId);
+            final int descendantPosition = this.getRequiredPosition(descendantId);
+            return this.isAncestor(ancestorPosition, descendantPosition);
+        });
+    }
+
+    /**
+     * Get the commits that can be reached from the provided included commit but not from the
+     * provided excluded commit. This is the same set of commits that "git rev-list
+     * excluded..included" returns. The commits are ordered by commit time, newest first.
+     * @param excludedId The id of the commit whose ancestors are excluded.
+     * @param includedId The id of the commit whose ancestors are included.
+     * @return The ids of the commits, or a {@link NotFoundException} if either commit isn't in
+     * this commit-graph.
+     */
+    public Result<Iterable<GitObjectId>> getCommitsBetween(GitObjectId excludedId, GitObjectId includedId)
+    {
+        PreCondition.assertNotNull(excludedId, "excludedId");
+        PreCondition.assertNotNull(includedId, "includedId");
+
+        return Result.create(() ->
+        {
+            final int excludedPosition = this.getRequiredPosition(excludedId);
+            final int includedPosition = this.getRequiredPosition(includedId);
+
+            final java.util.BitSet excluded = this.getReachablePositions(excludedPosition, null);
+            final java.util.BitSet included = this.getReachablePositions(includedPosition, excluded);
+
+            final java.util.ArrayList<Integer> positions = new java.util.ArrayList<>(included.cardinality());
+            for (int position = included.nextSetBit(0); position >= 0; position = included.nextSetBit(position + 1))
+            {
+                positions.add(position);
+            }
+            positions.sort((Integer lhs, Integer rhs) -> Long.compare(this.getCommitTime(rhs), this.getCommitTime(lhs)));
+
+            final List<GitObjectId> result = List.create();
+            for (final int position : positions)
+            {
+                result.add(this.getCommitId(position));
+            }
+            return result;
+        });
+    }
+
+    private int getRequiredPosition(GitObjectId commitId)
+    {
+        final int result = this.indexOf(commitId);
+        if (result == -1)
+        {
+            throw new NotFoundException("Could not find the commit " + commitId + " in the commit-graph.");
+        }
+        return result;
+    }
+
+    /**
+     * Get the positions of the commits that can be reached from the provided position.
+     * @param startPosition The position to start walking from.
+     * @param excluded The positions that will not be walked, or null to walk every commit.
+     * @return The positions of the commits that can be reached.
+     */
+    private java.util.BitSet getReachablePositions(int startPosition, java.util.BitSet excluded)
+    {
+        final java.util.BitSet result = new java.util.BitSet(this.commitCount);
+        if (excluded == null || !excluded.get(startPosition))
+        {
+            int[] stack = new int[64];
+            int stackCount = 0;
+            stack[stackCount++] = startPosition;
+            result.set(startPosition);
+            while (stackCount > 0)
+            {
+                final int position = stack[--stackCount];
+                final int parentCount = this.getParentCount(position);
+                for (int i = 0; i < parentCount; ++i)
+                {
+                    final int parentPosition = this.getParentPosition(position, i);
+                    if (!result.get(parentPosition) && (excluded == null || !excluded.get(parentPosition)))
+                    {
+                        result.set(parentPosition);
+                        if (stackCount == stack.length)
+                        {
+                            stack = java.util.Arrays.copyOf(stack, stack.length * 2);
+                        }
+                        stack[stackCount++] = parentPosition;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,495 @@
+package qub;
+
+/**
+ * One file of a commit-graph. A commit-graph is either a single "objects/info/commit-graph"
+ * file or a chain of layers in "objects/info/commit-graphs". Positions that this class accepts
+ * are positions within this layer, but the parent positions that it returns are positions
+ * within the whole chain.
+ */
+final class GitCommitGraphLayer
+{
+    private static final int signature = 0x43475048;
+    private static final int headerLength = 8;
+    private static final int fanoutLength = 256 * 4;
+
+    static final int objectIdFanoutChunkId = 0x4F494446;
+    static final int objectIdLookupChunkId = 0x4F49444C;
+    static final int commitDataChunkId = 0x43444154;
+    static final int extraEdgesChunkId = 0x45444745;
+    static final int generationDataChunkId = 0x47444132;
+    static final int generationDataOverflowChunkId = 0x47444F32;
+    static final int baseGraphsChunkId = 0x42415345;
+    static final int bloomIndexesChunkId = 0x42494458;
+    static final int bloomDataChunkId = 0x42444154;
+
+    /**
+     * The number of bytes in the header of the BDAT chunk: the version, the number of hashes,
+     * and the number of bits per changed path of the Bloom filters.
+     */
+    private static final int bloomDataHeaderLength = 12;
+
+    /**
+     * The parent position that marks a missing parent.
+     */
+    static final int noParent = 0x70000000;
+
+    private final GitPackData data;
+    private final int objectIdLength;
+    private final GitChunkTable chunkTable;
+    private final int baseGraphCount;
+    private final int commitCount;
+    private final long fanoutPosition;
+    private final long objectIdsPosition;
+    private final long commitDataPosition;
+    private final int commitDataEntryLength;
+    private final long extraEdgesPosition;
+    private final long extraEdgesLength;
+    private final long generationDataPosition;
+    private final long generationDataOverflowPosition;
+    private final long generationDataOverflowLength;
+    private final long bloomIndexesPosition;
+    private final long bloomDataPosition;
+    private final long bloomDataLength;
+    private final GitObjectId checksum;
+
+    private GitCommitGraphLayer(GitPackData data, int objectIdLength, GitChunkTable chunkTable, int baseGraphCount, int commitCount, boolean hasBloomFilters)
+    {
+        this.data = data;
+        this.objectIdLength = objectIdLength;
+        this.chunkTable = chunkTable;
+        this.baseGraphCount = baseGraphCount;
+        this.commitCount = commitCount;
+        this.fanoutPosition = chunkTable.getStart(GitCommitGraphLayer.objectIdFanoutChunkId);
+        this.objectIdsPosition = chunkTable.getStart(GitCommitGraphLayer.objectIdLookupChunkId);
+        this.commitDataPosition = chunkTable.getStart(GitCommitGraphLayer.commitDataChunkId);
+        this.commitDataEntryLength = objectIdLength + 16;
+        this.extraEdgesPosition = chunkTable.getStart(GitCommitGraphLayer.extraEdgesChunkId);
+        this.extraEdgesLength = chunkTable.getLength(GitCommitGraphLayer.extraEdgesChunkId);
+        this.generationDataPosition = chunkTable.getStart(GitCommitGraphLayer.generationDataChunkId);
+        this.generationDataOverflowPosition = chunkTable.getStart(GitCommitGraphLayer.generationDataOverflowChunkId);
+        this.generationDataOverflowLength = chunkTable.getLength(GitCommitGraphLayer.generationDataOverflowChunkId);
+        this.bloomIndexesPosition = hasBloomFilters ? chunkTable.getStart(GitCommitGraphLayer.bloomIndexesChunkId) : -1;
+        this.bloomDataPosition = hasBloomFilters ? chunkTable.getStart(GitCommitGraphLayer.bloomDataChunkId) : -1;
+        this.bloomDataLength = hasBloomFilters ? chunkTable.getLength(GitCommitGraphLayer.bloomDataChunkId) : 0;
+        this.checksum = data.getObjectId(data.getLength() - objectIdLength, objectIdLength);
+    }
+
+    /**
+     * Parse the commit-graph file in the provided data.
+     * @param data The bytes of the commit-graph file.
+     * @param objectIdLength The number of bytes in the repository's object ids.
+     * @return The commit-graph layer.
+     */
+    static GitCommitGraphLayer parse(GitPackData data, int objectIdLength)
+    {
+        PreCondition.assertNotNull(data, "data");
+        PreCondition.assertTrue(GitObjectId.isValidLength(objectIdLength), "GitObjectId.isValidLength(objectIdLength)");
+
+        if (data.getLength() < GitCommitGraphLayer.headerLength + objectIdLength || data.getInt(0) != GitCommitGraphLayer.signature)
+        {
+            throw new ParseException("Expected the commit-graph to start with \"CGPH\".");
+        }
+        final int version = data.getByte(4) & 0xFF;
+        if (version != 1)
+        {
+            throw new ParseException("Unsupported commit-graph version: " + version);
+        }
+        final int objectIdVersion = data.getByte(5) & 0xFF;
+        final int fileObjectIdLength = objectIdVersion == 1 ? GitObjectId.sha1Length : objectIdVersion == 2 ? GitObjectId.sha256Length : -1;
+        if (fileObjectIdLength != objectIdLength)
+        {
+            throw new ParseException("Expected the commit-graph to use " + objectIdLength + " byte object ids, but found object id version " + objectIdVersion + ".");
+        }
+        final int chunkCount = data.getByte(6) & 0xFF;
+        final int baseGraphCount = data.getByte(7) & 0xFF;
+
+        final GitChunkTable chunkTable = GitChunkTable.parse(data, GitCommitGraphLayer.headerLength, chunkCount, data.getLength() - objectIdLength, "commit-graph");
+        final long fanoutPosition = chunkTable.getRequiredStart(GitCommitGraphLayer.objectIdFanoutChunkId);
+        chunkTable.getRequiredStart(GitCommitGraphLayer.objectIdLookupChunkId);
+        chunkTable.getRequiredStart(GitCommitGraphLayer.commitDataChunkId);
+        if (chunkTable.getLength(GitCommitGraphLayer.objectIdFanoutChunkId) != GitCommitGraphLayer.fanoutLength)
+        {
+            throw new ParseException("Expected the commit-graph fanout chunk to contain " + GitCommitGraphLayer.fanoutLength + " bytes, but found " + chunkTable.getLength(GitCommitGraphLayer.objectIdFanoutChunkId) + ".");
+        }
+
+        long commitCount = 0;
+        for (int i = 0; i < 256; ++i)
+        {
+            final long count = data.getUnsignedInt(fanoutPosition + (i * 4L));
+            if (count < commitCount)
+            {
+                throw new ParseException("The fanout table of the commit-graph is not sorted.");
+            }
+            commitCount = count;
+        }
+        if (chunkTable.getLength(GitCommitGraphLayer.objectIdLookupChunkId) != commitCount * objectIdLength ||
+            chunkTable.getLength(GitCommitGraphLayer.commitDataChunkId) != commitCount * (objectIdLength + 16) ||
+            (chunkTable.contains(GitCommitGraphLayer.generationDataChunkId) && chunkTable.getLength(GitCommitGraphLayer.generationDataChunkId) != commitCount * 4) ||
+            (baseGraphCount > 0 && chunkTable.getLength(GitCommitGraphLayer.baseGraphsChunkId) != (long)baseGraphCount * objectIdLength))
+        {
+            throw new ParseException("Expected the commit-graph to contain " + commitCount + " commits, but its chunks have the wrong sizes.");
+        }
+
+        // Like Git, ignore Bloom filters that can't be read instead of failing, because they only
+        // make path-limited walks faster.
+        final long bloomDataPosition = chunkTable.getStart(GitCommitGraphLayer.bloomDataChunkId);
+        final boolean hasBloomFilters = chunkTable.getLength(GitCommitGraphLayer.bloomIndexesChunkId) == commitCount * 4 &&
+            chunkTable.getLength(GitCommitGraphLayer.bloomDataChunkId) >= GitCommitGraphLayer.bloomDataHeaderLength &&
+            (data.getInt(bloomDataPosition) == 1 || data.getInt(bloomDataPosition) == 2) &&
+            data.getInt(bloomDataPosition + 4) > 0;
+
+        return new GitCommitGraphLayer(data, objectIdLength, chunkTable, baseGraphCount, (int)commitCount, hasBloomFilters);
+    }
+
+    /**
+     * Get the bytes of this layer.
+     * @return The bytes of this layer.
+     */
+    GitPackData getData()
+    {
+        return this.data;
+    }
+
+    /**
+     * Get the chunk lookup table of this layer.
+     * @return The chunk lookup table of this layer.
+     */
+    GitChunkTable getChunkTable()
+    {
+        return this.chunkTable;
+    }
+
+    /**
+     * Get the checksum at the end of this layer. The checksum is also the name of the layer in a
+     * commit-graph chain.
+     * @return The checksum of this layer.
+     */
+    GitObjectId getChecksum()
+    {
+        return this.checksum;
+    }
+
+    /**
+     * Get the number of layers that this layer is based on.
+     * @return The number of layers that this layer is based on.
+     */
+    int getBaseGraphCount()
+    {
+        return this.baseGraphCount;
+    }
+
+    /**
+     * Get the checksum of the base layer at the provided index.
+     * @param index The index of the base layer.
+     * @return The checksum of the base layer.
+     */
+    GitObjectId getBaseGraphChecksum(int index)
+    {
+        PreCondition.assertIndexAccess(index, this.baseGraphCount, "index");
+
+        return this.data.getObjectId(this.chunkTable.getStart(GitCommitGraphLayer.baseGraphsChunkId) + ((long)index * this.objectIdLength), this.objectIdLength);
+    }
+
+    /**
+     * Get the number of commits in this layer.
+     * @return The number of commits in this layer.
+     */
+    int getCommitCount()
+    {
+        return this.commitCount;
+    }
+
+    /**
+     * Get whether this layer contains corrected commit dates.
+     * @return Whether this layer contains corrected commit dates.
+     */
+    boolean hasGenerationData()
+    {
+        return this.generationDataPosition != -1;
+    }
+
+    /**
+     * Get whether this layer contains readable changed-path Bloom filters.
+     * @return Whether this layer contains readable changed-path Bloom filters.
+     */
+    boolean hasBloomFilters()
+    {
+        return this.bloomDataPosition != -1;
+    }
+
+    /**
+     * Get the version of this layer's changed-path Bloom filters. This layer must have Bloom
+     * filters.
+     * @return The version of this layer's changed-path Bloom filters.
+     */
+    int getBloomFilterVersion()
+    {
+        PreCondition.assertTrue(this.hasBloomFilters(), "this.hasBloomFilters()");
+
+        return this.data.getInt(this.bloomDataPosition);
+    }
+
+    /**
+     * Get the number of hashes in each key of this layer's changed-path Bloom filters. This
+     * layer must have Bloom filters.
+     * @return The number of hashes in each key of this layer's changed-path Bloom filters.
+     */
+    int getBloomFilterHashCount()
+    {
+        PreCondition.assertTrue(this.hasBloomFilters(), "this.hasBloomFilters()");
+
+        return this.data.getInt(this.bloomDataPosition + 4);
+    }
+
+    /**
+     * Get the number of bits per changed path in this layer's changed-path Bloom filters. This
+     * layer must have Bloom filters.
+     * @return The number of bits per changed path in this layer's changed-path Bloom filters.
+     */
+    int getBloomFilterBitsPerEntry()
+    {
+        PreCondition.assertTrue(this.hasBloomFilters(), "this.hasBloomFilters()");
+
+        return this.data.getInt(this.bloomDataPosition + 8);
+    }
+
+    /**
+     * Get whether the commit at the provided position in this layer might have changed the
+     * path of the provided keys compared to its first parent.
+     * @param index The position of the commit in this layer.
+     * @param pathKeys The changed-path keys of the path.
+     * @return False if the commit's Bloom filter proves that the commit didn't change the path,
+     * or true if the commit might have changed the path or this layer doesn't have a Bloom
+     * filter for the commit.
+     */
+    boolean mightHaveChangedPath(int index, GitChangedPathKeys pathKeys)
+    {
+        PreCondition.assertNotNull(pathKeys, "pathKeys");
+
+        boolean result = true;
+        if (this.hasBloomFilters())
+        {
+            final long filterStart = index == 0 ? 0 : this.data.getUnsignedInt(this.bloomIndexesPosition + ((index - 1) * 4L));
+            final long filterEnd = this.data.getUnsignedInt(this.bloomIndexesPosition + (index * 4L));
+            if (filterEnd < filterStart || filterEnd > this.bloomDataLength - GitCommitGraphLayer.bloomDataHeaderLength)
+            {
+                throw new ParseException("The commit-graph refers to a Bloom filter that it doesn't contain.");
+            }
+
+            // An empty filter means that the filter wasn't computed for the commit.
+            if (filterEnd > filterStart)
+            {
+                final long filterPosition = this.bloomDataPosition + GitCommitGraphLayer.bloomDataHeaderLength + filterStart;
+                for (final int[] key : pathKeys.getKeys(this.getBloomFilterVersion(), this.getBloomFilterHashCount()))
+                {
+                    if (!GitChangedPathKeys.mightContain(this.data, filterPosition, filterEnd - filterStart, key))
+                    {
+                        result = false;
+                        break;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the position in this layer of the commit with the provided id.
+     * @param commitId The id of the commit.
+     * @return The position in this layer of the commit, or -1 if this layer doesn't contain the
+     * commit.
+     */
+    int indexOf(GitObjectId commitId)
+    {
+        int result = -1;
+        if (commitId.getLength() == this.objectIdLength)
+        {
+            final int fanoutIndex = commitId.getFanoutIndex();
+            int low = fanoutIndex == 0 ? 0 : this.data.getInt(this.fanoutPosition + ((fanoutIndex - 1) * 4L));
+            int high = this.data.getInt(this.fanoutPosition + (fanoutIndex * 4L)) - 1;
+            while (low <= high)
+            {
+                final int middle = (low + high) >>> 1;
+                final int comparison = this.data.compareObjectId(commitId, this.objectIdsPosition + ((long)middle * this.objectIdLength));
+                if (comparison == 0)
+                {
+                    result = middle;
+                    break;
+                }
+                else if (comparison < 0)
+                {
+                    high = middle - 1;
+                }
+                else
+                {
+                    low = middle + 1;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the id of the commit at the provided position in this layer.
+     * @param index The position of the commit in this layer.
+     * @return The id of the commit.
+     */
+    GitObjectId getCommitId(int index)
+    {
+        return this.data.getObjectId(this.objectIdsPosition + ((long)index * this.objectIdLength), this.objectIdLength);
+    }
+
+    private long getCommitDataPosition(int index)
+    {
+        return this.commitDataPosition + ((long)index * this.commitDataEntryLength);
+    }
+
+    /**
+     * Get the id of the root tree of the commit at the provided position in this layer.
+     * @param index The position of the commit in this layer.
+     * @return The id of the commit's root tree.
+     */
+    GitObjectId getTreeId(int index)
+    {
+        return this.data.getObjectId(this.getCommitDataPosition(index), this.objectIdLength);
+    }
+
+    /**
+     * Get the number of parents of the commit at the provided position in this layer.
+     * @param index The position of the commit in this layer.
+     * @return The number of parents of the commit.
+     */
+    int getParentCount(int index)
+    {
+        final long position = this.getCommitDataPosition(index) + this.objectIdLength;
+        int result;
+        if (this.data.getInt(position) == GitCommitGraphLayer.noParent)
+        {
+            result = 0;
+        }
+        else
+        {
+            final int secondParent = this.data.getInt(position + 4);
+            if (secondParent == GitCommitGraphLayer.noParent)
+            {
+                result = 1;
+            }
+            else if ((secondParent & 0x80000000) == 0)
+            {
+                result = 2;
+            }
+            else
+            {
+                // The second and later parents of an octopus merge are stored in the extra edges
+                // chunk, and the last one has its most significant bit set.
+                result = 1;
+                long edgePosition = this.getExtraEdgePosition(secondParent & 0x7FFFFFFF);
+                int edge;
+                do
+                {
+                    this.assertExtraEdgePosition(edgePosition);
+                    edge = this.data.getInt(edgePosition);
+                    edgePosition += 4;
+                    ++result;
+                }
+                while ((edge & 0x80000000) == 0);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the chain position of a parent of the commit at the provided position in this layer.
+     * @param index The position of the commit in this layer.
+     * @param parentIndex The index of the parent, which must be less than the commit's parent
+     *                    count.
+     * @return The position of the parent within the whole commit-graph chain.
+     */
+    int getParentPosition(int index, int parentIndex)
+    {
+        final long position = this.getCommitDataPosition(index) + this.objectIdLength;
+        int result;
+        if (parentIndex == 0)
+        {
+            result = this.data.getInt(position);
+        }
+        else
+        {
+            final int secondParent = this.data.getInt(position + 4);
+            if ((secondParent & 0x80000000) == 0)
+            {
+                result = secondParent;
+            }
+            else
+            {
+                final long edgePosition = this.getExtraEdgePosition(secondParent & 0x7FFFFFFF) + ((parentIndex - 1) * 4L);
+                this.assertExtraEdgePosition(edgePosition);
+                result = this.data.getInt(edgePosition) & 0x7FFFFFFF;
+            }
+        }
+        return result;
+    }
+
+    private long getExtraEdgePosition(int edgeIndex)
+    {
+        if (this.extraEdgesPosition == -1)
+        {
+            throw new ParseException("The commit-graph refers to an octopus merge, but it doesn't contain an EDGE chunk.");
+        }
+        return this.extraEdgesPosition + (edgeIndex * 4L);
+    }
+
+    private void assertExtraEdgePosition(long edgePosition)
+    {
+        if (edgePosition + 4 > this.extraEdgesPosition + this.extraEdgesLength)
+        {
+            throw new ParseException("The commit-graph refers to an extra edge that it doesn't contain.");
+        }
+    }
+
+    /**
+     * Get the commit time, in seconds since the epoch, of the commit at the provided position in
+     * this layer.
+     * @param index The position of the commit in this layer.
+     * @return The commit time of the commit.
+     */
+    long getCommitTime(int index)
+    {
+        final long position = this.getCommitDataPosition(index) + this.objectIdLength + 8;
+        return ((this.data.getUnsignedInt(position) & 0x3L) << 32) | this.data.getUnsignedInt(position + 4);
+    }
+
+    /**
+     * Get the topological level (generation number version 1) of the commit at the provided
+     * position in this layer. Root commits have level 1, and 0 means that the level wasn't
+     * computed.
+     * @param index The position of the commit in this layer.
+     * @return The topological level of the commit.
+     */
+    int getTopologicalLevel(int index)
+    {
+        final long position = this.getCommitDataPosition(index) + this.objectIdLength + 8;
+        return (int)(this.data.getUnsignedInt(position) >>> 2);
+    }
+
+    /**
+     * Get the corrected commit date (generation number version 2) of the commit at the provided
+     * position in this layer. This layer must have generation data.
+     * @param index The position of the commit in this layer.
+     * @return The corrected commit date of the commit.
+     */
+    long getCorrectedCommitDate(int index)
+    {
+        long offset = this.data.getUnsignedInt(this.generationDataPosition + (index * 4L));
+        if ((offset & 0x80000000L) != 0)
+        {
+            final long overflowPosition = (offset & 0x7FFFFFFFL) * 8;
+            if (overflowPosition + 8 > this.generationDataOverflowLength)
+            {
+                throw new ParseException("The commit-graph refers to a generation data overflow entry that it doesn't contain.");
+            }
+            offset = this.data.getLong(this.generationDataOverflowPosition + overflowPosition);
+        }
+        return this.getCommitTime(index) + offset;
+    }
+}
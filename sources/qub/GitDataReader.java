@@ -0,0 +1,221 @@
+package qub;
+
+/**
+ * A cursor that reads the fields of a region of {@link GitPackData} in order. Reading past the
+ * end of the region throws a {@link ParseException} that names the region, so the parsers of
+ * variable-length structures (such as the index extensions) don't need to check their bounds
+ * before every field.
+ */
+final class GitDataReader
+{
+    private final GitPackData data;
+    private final long endPosition;
+    private final String description;
+    private long position;
+
+    private GitDataReader(GitPackData data, long position, long endPosition, String description)
+    {
+        this.data = data;
+        this.position = position;
+        this.endPosition = endPosition;
+        this.description = description;
+    }
+
+    /**
+     * Create a new GitDataReader.
+     * @param data The data to read from.
+     * @param position The position of the first byte of the region.
+     * @param endPosition The position after the last byte of the region.
+     * @param description The description of the region that is used in error messages, such as
+     * "index extension \"TREE\"".
+     * @return The new GitDataReader.
+     */
+    static GitDataReader create(GitPackData data, long position, long endPosition, String description)
+    {
+        PreCondition.assertNotNull(data, "data");
+        PreCondition.assertBetween(0, position, endPosition, "position");
+        PreCondition.assertBetween(position, endPosition, data.getLength(), "endPosition");
+        PreCondition.assertNotNullAndNotEmpty(description, "description");
+
+        return new GitDataReader(data, position, endPosition, description);
+    }
+
+    /**
+     * Get the position of the next byte that will be read.
+     * @return The position of the next byte that will be read.
+     */
+    long getPosition()
+    {
+        return this.position;
+    }
+
+    /**
+     * Get the number of bytes that haven't been read yet.
+     * @return The number of bytes that haven't been read yet.
+     */
+    long getRemainingByteCount()
+    {
+        return this.endPosition - this.position;
+    }
+
+    private void assertRemaining(long byteCount)
+    {
+        if (this.getRemainingByteCount() < byteCount)
+        {
+            throw new ParseException("Unexpected end of " + this.description + ".");
+        }
+    }
+
+    /**
+     * Skip the provided number of bytes.
+     * @param byteCount The number of bytes to skip.
+     * @return This object for method chaining.
+     */
+    GitDataReader skip(long byteCount)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(byteCount, 0, "byteCount");
+
+        this.assertRemaining(byteCount);
+        this.position += byteCount;
+        return this;
+    }
+
+    /**
+     * Read an unsigned byte.
+     * @return The byte.
+     */
+    int readUnsignedByte()
+    {
+        this.assertRemaining(1);
+        return this.data.getByte(this.position++) & 0xFF;
+    }
+
+    /**
+     * Read a big-endian unsigned 32-bit integer.
+     * @return The integer.
+     */
+    long readUnsignedInt()
+    {
+        this.assertRemaining(4);
+        final long result = this.data.getUnsignedInt(this.position);
+        this.position += 4;
+        return result;
+    }
+
+    /**
+     * Read a variable-width integer. Each byte holds 7 bits of the value, most significant bits
+     * first, and every byte but the last has its high bit set. Each continuation also adds one
+     * to the value, so every value has exactly one encoding. This is the encoding that Git uses
+     * for offset deltas, index version 4 paths, and the untracked cache.
+     * @return The integer.
+     */
+    long readVarint()
+    {
+        int currentByte = this.readUnsignedByte();
+        long result = currentByte & 0x7F;
+        while ((currentByte & 0x80) != 0)
+        {
+            if ((result >>> 56) != 0)
+            {
+                throw new ParseException("The variable-width integer at " + (this.position - 1) + " in the " + this.description + " is too large.");
+            }
+            currentByte = this.readUnsignedByte();
+            result = ((result + 1) << 7) | (currentByte & 0x7F);
+        }
+        return result;
+    }
+
+    /**
+     * Read the bytes up to the next byte that has the provided value, and then skip that byte.
+     * @param terminator The value of the byte that ends the string.
+     * @return The bytes before the terminator, decoded as UTF-8.
+     */
+    String readString(char terminator)
+    {
+        long terminatorPosition = this.position;
+        while (terminatorPosition < this.endPosition && this.data.getByte(terminatorPosition) != terminator)
+        {
+            ++terminatorPosition;
+        }
+        this.assertRemaining(terminatorPosition - this.position + 1);
+
+        final byte[] bytes = new byte[(int)(terminatorPosition - this.position)];
+        this.data.getBytes(this.position, bytes, 0, bytes.length);
+        this.position = terminatorPosition + 1;
+        return new String(bytes, java.nio.charset.StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Read the provided number of bytes.
+     * @param byteCount The number of bytes to read.
+     * @return The bytes.
+     */
+    byte[] readBytes(int byteCount)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(byteCount, 0, "byteCount");
+
+        this.assertRemaining(byteCount);
+        final byte[] result = new byte[byteCount];
+        this.data.getBytes(this.position, result, 0, byteCount);
+        this.position += byteCount;
+        return result;
+    }
+
+    /**
+     * Read a decimal integer that is written as ASCII text and that ends with the provided
+     * terminator, and then skip the terminator.
+     * @param terminator The value of the byte that ends the integer.
+     * @return The integer.
+     */
+    int readDecimal(char terminator)
+    {
+        final String text = this.readString(terminator);
+        int result;
+        try
+        {
+            result = Integer.parseInt(text);
+        }
+        catch (NumberFormatException e)
+        {
+            throw new ParseException("Expected a decimal integer in the " + this.description + ", but found " + Strings.escapeAndQuote(text) + ".");
+        }
+        return result;
+    }
+
+    /**
+     * Read an object id.
+     * @param objectIdLength The number of bytes in the object id.
+     * @return The object id, or null if every byte of the object id is zero (which Git writes for
+     * a file that doesn't exist).
+     */
+    GitObjectId readObjectId(int objectIdLength)
+    {
+        PreCondition.assertTrue(GitObjectId.isValidLength(objectIdLength), "GitObjectId.isValidLength(objectIdLength)");
+
+        this.assertRemaining(objectIdLength);
+        GitObjectId result = this.data.getObjectId(this.position, objectIdLength);
+        this.position += objectIdLength;
+
+        boolean isNull = true;
+        for (int i = 0; isNull && i < objectIdLength; ++i)
+        {
+            isNull = result.getByte(i) == 0;
+        }
+        if (isNull)
+        {
+            result = null;
+        }
+        return result;
+    }
+
+    /**
+     * Read an EWAH-compressed bitmap.
+     * @return The bitmap.
+     */
+    java.util.BitSet readEwahBitmap()
+    {
+        final GitEwahBitmap bitmap = GitEwahBitmap.read(this.data, this.position);
+        this.skip(bitmap.getByteCount());
+        return bitmap.toBitSet();
+    }
+}
@@ -0,0 +1,344 @@
+package qub;
+
+/**
+ * A size-bounded cache of the objects that deltified pack entries are applied to. Entries are
+ * keyed by the pack file and the offset of the entry within the pack file, and the least
+ * recently used entries are evicted when the cache grows past its byte budget. The cache is
+ * split into independently locked stripes so that concurrent readers don't all wait on a
+ * single lock. The byte budget is shared by all of the stripes, so any object that fits in the
+ * byte budget can be cached. When the cache grows past its byte budget, the least recently used
+ * entries of the stripe that grew are evicted first, and then the least recently used entries
+ * of the other stripes.
+ */
+public final class GitDeltaBaseCache
+{
+    /**
+     * The default number of bytes that a cache can hold. This matches the default value of Git's
+     * core.deltaBaseCacheLimit setting.
+     */
+    public static final long defaultByteBudget = 96L * 1024 * 1024;
+
+    private final long byteBudget;
+    private final Stripe[] stripes;
+    private final java.util.concurrent.atomic.AtomicLong byteCount;
+    private final java.util.concurrent.atomic.LongAdder hitCount;
+    private final java.util.concurrent.atomic.LongAdder missCount;
+    private final java.util.concurrent.atomic.LongAdder evictionCount;
+
+    private GitDeltaBaseCache(long byteBudget, int stripeCount)
+    {
+        this.byteBudget = byteBudget;
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; ++i)
+        {
+            this.stripes[i] = new Stripe();
+        }
+        this.byteCount = new java.util.concurrent.atomic.AtomicLong();
+        this.hitCount = new java.util.concurrent.atomic.LongAdder();
+        this.missCount = new java.util.concurrent.atomic.LongAdder();
+        this.evictionCount = new java.util.concurrent.atomic.LongAdder();
+    }
+
+    /**
+     * Create a new GitDeltaBaseCache with the default byte budget.
+     * @return The new GitDeltaBaseCache.
+     */
+    public static GitDeltaBaseCache create()
+    {
+        return GitDeltaBaseCache.create(GitDeltaBaseCache.defaultByteBudget);
+    }
+
+    /**
+     * Create a new GitDeltaBaseCache with the provided byte budget. The number of stripes is
+     * based on the number of available processors.
+     * @param byteBudget The maximum number of object bytes that the cache can hold.
+     * @return The new GitDeltaBaseCache.
+     */
+    public static GitDeltaBaseCache create(long byteBudget)
+    {
+        final int processorCount = Runtime.getRuntime().availableProcessors();
+        final int stripeCount = Math.min(64, Integer.highestOneBit(Math.max(1, processorCount * 2 - 1)) * 2);
+        return GitDeltaBaseCache.create(byteBudget, stripeCount);
+    }
+
+    /**
+     * Create a new GitDeltaBaseCache with the provided byte budget and number of stripes.
+     * @param byteBudget The maximum number of object bytes that the cache can hold.
+     * @param stripeCount The number of independently locked stripes that the cache is split
+     *                    into.
+     * @return The new GitDeltaBaseCache.
+     */
+    public static GitDeltaBaseCache create(long byteBudget, int stripeCount)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(byteBudget, 0, "byteBudget");
+        PreCondition.assertGreaterThanOrEqualTo(stripeCount, 1, "stripeCount");
+
+        return new GitDeltaBaseCache(byteBudget, stripeCount);
+    }
+
+    /**
+     * Get the maximum number of object bytes that this cache can hold.
+     * @return The maximum number of object bytes that this cache can hold.
+     */
+    public long getByteBudget()
+    {
+        return this.byteBudget;
+    }
+
+    /**
+     * Get the number of independently locked stripes that this cache is split into.
+     * @return The number of stripes in this cache.
+     */
+    public int getStripeCount()
+    {
+        return this.stripes.length;
+    }
+
+    /**
+     * Get the number of lookups that found a cached object.
+     * @return The number of lookups that found a cached object.
+     */
+    public long getHitCount()
+    {
+        return this.hitCount.sum();
+    }
+
+    /**
+     * Get the number of lookups that didn't find a cached object.
+     * @return The number of lookups that didn't find a cached object.
+     */
+    public long getMissCount()
+    {
+        return this.missCount.sum();
+    }
+
+    /**
+     * Get the number of objects that have been evicted to stay within the byte budget.
+     * @return The number of objects that have been evicted.
+     */
+    public long getEvictionCount()
+    {
+        return this.evictionCount.sum();
+    }
+
+    /**
+     * Get the number of objects that are stored in this cache.
+     * @return The number of objects that are stored in this cache.
+     */
+    public int getCount()
+    {
+        int result = 0;
+        for (final Stripe stripe : this.stripes)
+        {
+            synchronized (stripe)
+            {
+                result += stripe.entries.size();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the number of object bytes that are stored in this cache.
+     * @return The number of object bytes that are stored in this cache.
+     */
+    public long getByteCount()
+    {
+        return this.byteCount.get();
+    }
+
+    /**
+     * Remove all of the objects that are stored in this cache. The hit, miss, and eviction
+     * counts are not reset.
+     * @return This object for method chaining.
+     */
+    public GitDeltaBaseCache clear()
+    {
+        for (final Stripe stripe : this.stripes)
+        {
+            synchronized (stripe)
+            {
+                this.byteCount.addAndGet(-stripe.byteCount);
+                stripe.entries.clear();
+                stripe.byteCount = 0;
+            }
+        }
+        return this;
+    }
+
+    private int getStripeIndex(GitPackFile packFile, long offset)
+    {
+        int hash = System.identityHashCode(packFile) * 31 + Long.hashCode(offset);
+        hash ^= (hash >>> 16);
+        return Math.floorMod(hash, this.stripes.length);
+    }
+
+    /**
+     * Get the cached object for the entry at the provided offset in the provided pack file.
+     * @param packFile The pack file that contains the entry.
+     * @param offset The offset of the entry in the pack file.
+     * @return The cached object, or null if the object isn't cached.
+     */
+    GitPackFile.RawObject get(GitPackFile packFile, long offset)
+    {
+        PreCondition.assertNotNull(packFile, "packFile");
+
+        final Stripe stripe = this.stripes[this.getStripeIndex(packFile, offset)];
+        GitPackFile.RawObject result;
+        synchronized (stripe)
+        {
+            result = stripe.entries.get(new Key(packFile, offset));
+        }
+        if (result == null)
+        {
+            this.missCount.increment();
+        }
+        else
+        {
+            this.hitCount.increment();
+        }
+        return result;
+    }
+
+    /**
+     * Cache the object for the entry at the provided offset in the provided pack file. The
+     * object's contents must not be modified after they are cached. Objects that are larger than
+     * the byte budget are not cached.
+     * @param packFile The pack file that contains the entry.
+     * @param offset The offset of the entry in the pack file.
+     * @param rawObject The object to cache.
+     */
+    void put(GitPackFile packFile, long offset, GitPackFile.RawObject rawObject)
+    {
+        PreCondition.assertNotNull(packFile, "packFile");
+        PreCondition.assertNotNull(rawObject, "rawObject");
+
+        final int size = rawObject.contents.length;
+        if (size <= this.byteBudget)
+        {
+            final int stripeIndex = this.getStripeIndex(packFile, offset);
+            final Stripe stripe = this.stripes[stripeIndex];
+            final Key key = new Key(packFile, offset);
+            synchronized (stripe)
+            {
+                final GitPackFile.RawObject previous = stripe.entries.put(key, rawObject);
+                final long byteCountChange = size - (previous == null ? 0 : previous.contents.length);
+                stripe.byteCount += byteCountChange;
+                this.byteCount.addAndGet(byteCountChange);
+            }
+
+            // Start with the stripe that grew, and then move on to the other stripes until the
+            // cache is back within its byte budget. Only one stripe is locked at a time.
+            int evicted = 0;
+            for (int i = 0; i < this.stripes.length && this.byteCount.get() > this.byteBudget; ++i)
+            {
+                evicted += this.evict(this.stripes[(stripeIndex + i) % this.stripes.length], key);
+            }
+            if (evicted > 0)
+            {
+                this.evictionCount.add(evicted);
+            }
+        }
+    }
+
+    /**
+     * Evict the least recently used entries of the provided stripe until the cache is within its
+     * byte budget or the stripe has no more entries to evict.
+     * @param stripe The stripe to evict entries from.
+     * @param keep The key of the entry that was just cached, which is never evicted.
+     * @return The number of entries that were evicted.
+     */
+    private int evict(Stripe stripe, Key keep)
+    {
+        int result = 0;
+        synchronized (stripe)
+        {
+            final java.util.Iterator<java.util.Map.Entry<Key,GitPackFile.RawObject>> iterator = stripe.entries.entrySet().iterator();
+            while (this.byteCount.get() > this.byteBudget && iterator.hasNext())
+            {
+                final java.util.Map.Entry<Key,GitPackFile.RawObject> entry = iterator.next();
+                if (!entry.getKey().equals(keep))
+                {
+                    final int size = entry.getValue().contents.length;
+                    stripe.byteCount -= size;
+                    this.byteCount.addAndGet(-size);
+                    iterator.remove();
+                    ++result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Remove all of the cached objects that belong to the provided pack file.
+     * @param packFile The pack file whose objects will be removed.
+     * @return This object for method chaining.
+     */
+    public GitDeltaBaseCache remove(GitPackFile packFile)
+    {
+        PreCondition.assertNotNull(packFile, "packFile");
+
+        for (final Stripe stripe : this.stripes)
+        {
+            synchronized (stripe)
+            {
+                final java.util.Iterator<java.util.Map.Entry<Key,GitPackFile.RawObject>> iterator = stripe.entries.entrySet().iterator();
+                while (iterator.hasNext())
+                {
+                    final java.util.Map.Entry<Key,GitPackFile.RawObject> entry = iterator.next();
+                    if (entry.getKey().packFile == packFile)
+                    {
+                        final int size = entry.getValue().contents.length;
+                        stripe.byteCount -= size;
+                        this.byteCount.addAndGet(-size);
+                        iterator.remove();
+                    }
+                }
+            }
+        }
+        return this;
+    }
+
+    /**
+     * The identity of a cached pack entry.
+     */
+    private static final class Key
+    {
+        private final GitPackFile packFile;
+        private final long offset;
+
+        Key(GitPackFile packFile, long offset)
+        {
+            this.packFile = packFile;
+            this.offset = offset;
+        }
+
+        @Override
+        public boolean equals(Object rhs)
+        {
+            return rhs instanceof Key && ((Key)rhs).packFile == this.packFile && ((Key)rhs).offset == this.offset;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return System.identityHashCode(this.packFile) * 31 + Long.hashCode(this.offset);
+        }
+    }
+
+    /**
+     * One independently locked part of the cache. The entries are kept in access order so that
+     * the first entry is always the least recently used one.
+     */
+    private static final class Stripe
+    {
+        private final java.util.LinkedHashMap<Key,GitPackFile.RawObject> entries;
+        private long byteCount;
+
+        Stripe()
+        {
+            this.entries = new java.util.LinkedHashMap<>(16, 0.75f, true);
+        }
+    }
+}
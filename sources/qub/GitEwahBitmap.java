@@ -0,0 +1,115 @@
+package qub;
+
+/**
+ * An EWAH-compressed bitmap, as it is stored in a ".bitmap" file. The compressed words are a
+ * sequence of marker words, each followed by its literal words. A marker word describes a run of
+ * words whose bits are all 0 or all 1 (the run bit in bit 0 and the run length in bits 1-32) and
+ * the number of uncompressed literal words that follow it (bits 33-63).
+ */
+final class GitEwahBitmap
+{
+    private static final int headerLength = 8;
+
+    private final long bitCount;
+    private final long byteCount;
+    private final long[] words;
+
+    private GitEwahBitmap(long bitCount, long byteCount, long[] words)
+    {
+        this.bitCount = bitCount;
+        this.byteCount = byteCount;
+        this.words = words;
+    }
+
+    /**
+     * Read the EWAH bitmap that starts at the provided position. The serialized bitmap is the
+     * number of bits, the number of compressed words, the compressed words, and the position of
+     * the last marker word, all big-endian.
+     * @param data The data that contains the bitmap.
+     * @param position The position of the bitmap in the data.
+     * @return The bitmap.
+     */
+    static GitEwahBitmap read(GitPackData data, long position)
+    {
+        PreCondition.assertNotNull(data, "data");
+        PreCondition.assertGreaterThanOrEqualTo(position, 0, "position");
+
+        if (position + GitEwahBitmap.headerLength > data.getLength())
+        {
+            throw new ParseException("Unexpected end of EWAH bitmap at " + position + ".");
+        }
+        final long bitCount = data.getUnsignedInt(position);
+        final long compressedWordCount = data.getUnsignedInt(position + 4);
+        final long wordsPosition = position + GitEwahBitmap.headerLength;
+        final long byteCount = GitEwahBitmap.headerLength + (compressedWordCount * 8) + 4;
+        if (position + byteCount > data.getLength())
+        {
+            throw new ParseException("Unexpected end of EWAH bitmap at " + position + ".");
+        }
+
+        final long[] words = new long[(int)((bitCount + 63) / 64)];
+        int wordIndex = 0;
+        long compressedWordIndex = 0;
+        while (compressedWordIndex < compressedWordCount)
+        {
+            final long marker = data.getLong(wordsPosition + (compressedWordIndex * 8));
+            ++compressedWordIndex;
+
+            final boolean runBit = (marker & 1) != 0;
+            final long runLength = (marker >>> 1) & 0xFFFFFFFFL;
+            final long literalWordCount = marker >>> 33;
+            if (wordIndex + runLength + literalWordCount > words.length || compressedWordIndex + literalWordCount > compressedWordCount)
+            {
+                throw new ParseException("The EWAH bitmap at " + position + " contains more words than its bit count allows.");
+            }
+
+            if (runBit)
+            {
+                java.util.Arrays.fill(words, wordIndex, wordIndex + (int)runLength, -1L);
+            }
+            wordIndex += (int)runLength;
+
+            for (long i = 0; i < literalWordCount; ++i)
+            {
+                words[wordIndex++] = data.getLong(wordsPosition + (compressedWordIndex * 8));
+                ++compressedWordIndex;
+            }
+        }
+
+        // A run of 1 bits can fill the last word past the bit count, so clear those bits.
+        final int lastWordBitCount = (int)(bitCount % 64);
+        if (lastWordBitCount != 0 && words.length > 0)
+        {
+            words[words.length - 1] &= (1L << lastWordBitCount) - 1;
+        }
+
+        return new GitEwahBitmap(bitCount, byteCount, words);
+    }
+
+    /**
+     * Get the number of bits in this bitmap.
+     * @return The number of bits in this bitmap.
+     */
+    long getBitCount()
+    {
+        return this.bitCount;
+    }
+
+    /**
+     * Get the number of bytes that this bitmap uses in its serialized form.
+     * @return The number of bytes that this bitmap uses in its serialized form.
+     */
+    long getByteCount()
+    {
+        return this.byteCount;
+    }
+
+    /**
+     * Get the uncompressed bits of this bitmap.
+     * @return The uncompressed bits of this bitmap.
+     */
+    java.util.BitSet toBitSet()
+    {
+        return java.util.BitSet.valueOf(this.words);
+    }
+}
@@ -0,0 +1,17 @@
+package qub;
+
+/**
+ * An error that occurred while invoking a Git command.
+ */
+public class GitException extends RuntimeException
+{
+    public GitException(String message)
+    {
+        super(message);
+    }
+
+    public GitException(String message, Throwable cause)
+    {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,244 @@
+package qub;
+
+/**
+ * The stat data of a working tree file that Git records in the index. Comparing a file's stat
+ * data with its index entry is how a status check decides whether it has to hash the file again.
+ * The files on the local disk are read with a single lstat-like call through java.nio
+ * without following symbolic links. Other file systems only provide the file's size and last
+ * modified time.
+ */
+final class GitFileStat
+{
+    static final int regularFileMode = 0100644;
+    static final int executableFileMode = 0100755;
+
+    private final int mode;
+    private final long size;
+    private final long mtimeSeconds;
+    private final long mtimeNanoseconds;
+    private final long ctimeSeconds;
+    private final long ctimeNanoseconds;
+    private final long inode;
+    private final boolean hasExecutableBit;
+    private final boolean hasUnixFields;
+
+    private GitFileStat(int mode, long size, long mtimeSeconds, long mtimeNanoseconds, long ctimeSeconds, long ctimeNanoseconds, long inode, boolean hasExecutableBit, boolean hasUnixFields)
+    {
+        this.mode = mode;
+        this.size = size;
+        this.mtimeSeconds = mtimeSeconds;
+        this.mtimeNanoseconds = mtimeNanoseconds;
+        this.ctimeSeconds = ctimeSeconds;
+        this.ctimeNanoseconds = ctimeNanoseconds;
+        this.inode = inode;
+        this.hasExecutableBit = hasExecutableBit;
+        this.hasUnixFields = hasUnixFields;
+    }
+
+    /**
+     * Create a new GitFileStat for a file system that only provides a file's size and last
+     * modified time.
+     * @param size The file's size.
+     * @param mtimeSeconds The seconds part of the file's last modified time, or -1 if it isn't
+     *                     known.
+     * @param mtimeNanoseconds The nanoseconds part of the file's last modified time.
+     * @return The new GitFileStat.
+     */
+    static GitFileStat create(long size, long mtimeSeconds, long mtimeNanoseconds)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(size, 0, "size");
+
+        return new GitFileStat(GitFileStat.regularFileMode, size, mtimeSeconds, mtimeNanoseconds, 0, 0, 0, false, false);
+    }
+
+    /**
+     * Get the stat data of the provided file. Symbolic links are not followed.
+     * @param file The file to get the stat data of.
+     * @return The stat data of the file, or null if the file doesn't exist or is a folder.
+     */
+    static GitFileStat get(File file)
+    {
+        PreCondition.assertNotNull(file, "file");
+
+        GitFileStat result;
+        final java.nio.file.Path path = GitNativeFiles.getPath(file);
+        if (path == null)
+        {
+            final Long size = file.getContentByteCount()
+                .catchError(NotFoundException.class)
+                .await();
+            if (size == null)
+            {
+                result = null;
+            }
+            else
+            {
+                final DateTime lastModified = file.getLastModified()
+                    .catchError(NotFoundException.class)
+                    .await();
+                long mtimeSeconds = -1;
+                long mtimeNanoseconds = 0;
+                if (lastModified != null)
+                {
+                    final long milliseconds = (long)lastModified.getDurationSinceEpoch().toMilliseconds().getValue();
+                    mtimeSeconds = Math.floorDiv(milliseconds, 1000);
+                    mtimeNanoseconds = Math.floorMod(milliseconds, 1000) * 1000000L;
+                }
+                result = GitFileStat.create(size, mtimeSeconds, mtimeNanoseconds);
+            }
+        }
+        else
+        {
+            result = GitFileStat.get(path);
+        }
+        return result;
+    }
+
+    /**
+     * Get the stat data of the file at the provided path. Symbolic links are not followed.
+     * @param path The path of the file.
+     * @return The stat data of the file, or null if the file doesn't exist or is a folder.
+     */
+    static GitFileStat get(java.nio.file.Path path)
+    {
+        PreCondition.assertNotNull(path, "path");
+
+        GitFileStat result = null;
+        try
+        {
+            if (path.getFileSystem().supportedFileAttributeViews().contains("unix"))
+            {
+                final java.util.Map<String,Object> attributes = java.nio.file.Files.readAttributes(path, "unix:mode,size,lastModifiedTime,ctime,ino", java.nio.file.LinkOption.NOFOLLOW_LINKS);
+                final int unixMode = (Integer)attributes.get("mode");
+                final int fileType = unixMode & 0170000;
+                if (fileType == 0100000 || fileType == GitTreeEntry.symbolicLinkMode)
+                {
+                    final java.time.Instant mtime = ((java.nio.file.attribute.FileTime)attributes.get("lastModifiedTime")).toInstant();
+                    final java.time.Instant ctime = ((java.nio.file.attribute.FileTime)attributes.get("ctime")).toInstant();
+                    final int mode = fileType == GitTreeEntry.symbolicLinkMode
+                        ? GitTreeEntry.symbolicLinkMode
+                        : ((unixMode & 0100) != 0 ? GitFileStat.executableFileMode : GitFileStat.regularFileMode);
+                    result = new GitFileStat(mode, (Long)attributes.get("size"), mtime.getEpochSecond(), mtime.getNano(), ctime.getEpochSecond(), ctime.getNano(), (Long)attributes.get("ino"), true, true);
+                }
+            }
+            else
+            {
+                final java.nio.file.attribute.BasicFileAttributes attributes = java.nio.file.Files.readAttributes(path, java.nio.file.attribute.BasicFileAttributes.class, java.nio.file.LinkOption.NOFOLLOW_LINKS);
+                if (attributes.isRegularFile() || attributes.isSymbolicLink())
+                {
+                    final java.time.Instant mtime = attributes.lastModifiedTime().toInstant();
+                    final int mode = attributes.isSymbolicLink() ? GitTreeEntry.symbolicLinkMode : GitFileStat.regularFileMode;
+                    result = new GitFileStat(mode, attributes.size(), mtime.getEpochSecond(), mtime.getNano(), 0, 0, 0, false, false);
+                }
+            }
+        }
+        catch (java.nio.file.NoSuchFileException e)
+        {
+            result = null;
+        }
+        catch (java.io.IOException e)
+        {
+            throw new GitException("Could not read the stat data of " + Strings.escapeAndQuote(path.toString()) + ": " + e.getMessage());
+        }
+        return result;
+    }
+
+    /**
+     * Get the Git mode of the file: 0100644 for a regular file, 0100755 for an executable file,
+     * or 0120000 for a symbolic link.
+     * @return The Git mode of the file.
+     */
+    int getMode()
+    {
+        return this.mode;
+    }
+
+    /**
+     * Get whether the file is a symbolic link.
+     * @return Whether the file is a symbolic link.
+     */
+    boolean isSymbolicLink()
+    {
+        return this.mode == GitTreeEntry.symbolicLinkMode;
+    }
+
+    /**
+     * Get whether the file system reports the file's executable bit.
+     * @return Whether the file system reports the file's executable bit.
+     */
+    boolean hasExecutableBit()
+    {
+        return this.hasExecutableBit;
+    }
+
+    /**
+     * Get the file's size.
+     * @return The file's size.
+     */
+    long getSize()
+    {
+        return this.size;
+    }
+
+    /**
+     * Get the seconds part of the file's last modified time, or -1 if it isn't known.
+     * @return The seconds part of the file's last modified time.
+     */
+    long getMtimeSeconds()
+    {
+        return this.mtimeSeconds;
+    }
+
+    /**
+     * Get the nanoseconds part of the file's last modified time.
+     * @return The nanoseconds part of the file's last modified time.
+     */
+    long getMtimeNanoseconds()
+    {
+        return this.mtimeNanoseconds;
+    }
+
+    /**
+     * Get whether the provided index entry's stat data still describes this file. This follows
+     * Git's defaults: the size, the last modified time, and (when the file system reports them)
+     * the metadata change time and the inode must all match. The nanoseconds are only compared
+     * when both sides have them, since some file systems and some Git builds don't record them.
+     * @param entry The index entry to compare against.
+     * @return Whether the entry's stat data matches this file.
+     */
+    boolean matches(GitIndexEntry entry)
+    {
+        PreCondition.assertNotNull(entry, "entry");
+
+        return this.mtimeSeconds >= 0 &&
+            entry.getSize() == (this.size & 0xFFFFFFFFL) &&
+            entry.getMtimeSeconds() == (this.mtimeSeconds & 0xFFFFFFFFL) &&
+            GitFileStat.nanosecondsMatch(entry.getMtimeNanoseconds(), this.mtimeNanoseconds) &&
+            (!this.hasUnixFields ||
+                (entry.getCtimeSeconds() == (this.ctimeSeconds & 0xFFFFFFFFL) &&
+                 GitFileStat.nanosecondsMatch(entry.getCtimeNanoseconds(), this.ctimeNanoseconds) &&
+                 entry.getInode() == (this.inode & 0xFFFFFFFFL)));
+    }
+
+    private static boolean nanosecondsMatch(long entryNanoseconds, long fileNanoseconds)
+    {
+        return entryNanoseconds == 0 || fileNanoseconds == 0 || entryNanoseconds == fileNanoseconds;
+    }
+
+    /**
+     * Get whether a last modified time is at or after the provided time. An index entry whose
+     * recorded last modified time is at or after the index file's last modified time is "racily
+     * clean": the file may have changed again in the same instant without its stat data
+     * changing, so its contents must be hashed to know whether it changed. When either side
+     * doesn't have nanoseconds, any time within the same second counts.
+     * @param mtimeSeconds The seconds part of the last modified time.
+     * @param mtimeNanoseconds The nanoseconds part of the last modified time.
+     * @param seconds The seconds part of the time to compare against.
+     * @param nanoseconds The nanoseconds part of the time to compare against.
+     * @return Whether the last modified time is at or after the provided time.
+     */
+    static boolean isAtOrAfter(long mtimeSeconds, long mtimeNanoseconds, long seconds, long nanoseconds)
+    {
+        return mtimeSeconds > seconds || (mtimeSeconds == seconds && (mtimeNanoseconds == 0 || nanoseconds == 0 || mtimeNanoseconds >= nanoseconds));
+    }
+}
@@ -0,0 +1,263 @@
+package qub;
+
+/**
+ * The ignore patterns of one ".gitignore" file (or of ".git/info/exclude"), chained to the
+ * patterns of the folders above it. A path is checked against the deepest file's patterns first,
+ * and within one file the last matching pattern wins, which is the precedence that Git uses.
+ */
+final class GitIgnoreRules
+{
+    private final GitIgnoreRules parent;
+    private final String basePath;
+    private final java.util.List<IgnorePattern> patterns;
+
+    private GitIgnoreRules(GitIgnoreRules parent, String basePath, java.util.List<IgnorePattern> patterns)
+    {
+        this.parent = parent;
+        this.basePath = basePath;
+        this.patterns = patterns;
+    }
+
+    /**
+     * Create a new GitIgnoreRules from the contents of an ignore file.
+     * @param parent The rules of the folders above this file's folder, or null if there are none.
+     * @param basePath The path of the ignore file's folder relative to the root of the working
+     *                 tree, ending with '/', or the empty string for the root folder.
+     * @param contents The contents of the ignore file.
+     * @return The new GitIgnoreRules.
+     */
+    static GitIgnoreRules create(GitIgnoreRules parent, String basePath, String contents)
+    {
+        PreCondition.assertNotNull(basePath, "basePath");
+        PreCondition.assertTrue(basePath.isEmpty() || basePath.endsWith("/"), "basePath.isEmpty() || basePath.endsWith(\"/\")");
+        PreCondition.assertNotNull(contents, "contents");
+
+        final java.util.List<IgnorePattern> patterns = new java.util.ArrayList<>();
+        for (final String line : contents.split("\n"))
+        {
+            final IgnorePattern pattern = IgnorePattern.parse(line);
+            if (pattern != null)
+            {
+                patterns.add(pattern);
+            }
+        }
+        return new GitIgnoreRules(parent, basePath, patterns);
+    }
+
+    /**
+     * Get whether the provided path is ignored. This only checks the path itself. A path whose
+     * folder is ignored is also ignored, but callers are expected to not look inside of ignored
+     * folders.
+     * @param path The path relative to the root of the working tree, without a trailing '/'.
+     * @param isFolder Whether the path refers to a folder.
+     * @return Whether the path is ignored.
+     */
+    boolean isIgnored(String path, boolean isFolder)
+    {
+        PreCondition.assertNotNullAndNotEmpty(path, "path");
+
+        Boolean result = null;
+        for (GitIgnoreRules rules = this; rules != null && result == null; rules = rules.parent)
+        {
+            if (path.startsWith(rules.basePath))
+            {
+                final String relativePath = path.substring(rules.basePath.length());
+                for (int i = rules.patterns.size() - 1; i >= 0 && result == null; --i)
+                {
+                    final IgnorePattern pattern = rules.patterns.get(i);
+                    if (pattern.matches(relativePath, isFolder))
+                    {
+                        result = !pattern.negated;
+                    }
+                }
+            }
+        }
+        return result != null && result;
+    }
+
+    /**
+     * Convert the provided glob to a regular expression with Git's wildmatch rules: "*" and "?"
+     * don't match '/', "**" matches across folders when it is a whole path segment, and
+     * "[...]" is a character class.
+     * @param glob The glob to convert.
+     * @return The regular expression.
+     */
+    static String toRegex(String glob)
+    {
+        PreCondition.assertNotNull(glob, "glob");
+
+        final StringBuilder result = new StringBuilder();
+        int i = 0;
+        while (i < glob.length())
+        {
+            final char c = glob.charAt(i);
+            if (c == '*' && glob.startsWith("**", i) && (i == 0 || glob.charAt(i - 1) == '/') && (i + 2 == glob.length() || glob.charAt(i + 2) == '/'))
+            {
+                if (i + 2 == glob.length())
+                {
+                    result.append(".*");
+                    i += 2;
+                }
+                else
+                {
+                    result.append("(?:.*/)?");
+                    i += 3;
+                }
+            }
+            else if (c == '*')
+            {
+                result.append("[^/]*");
+                ++i;
+            }
+            else if (c == '?')
+            {
+                result.append("[^/]");
+                ++i;
+            }
+            else if (c == '[' && GitIgnoreRules.getClassEnd(glob, i) != -1)
+            {
+                final int classEnd = GitIgnoreRules.getClassEnd(glob, i);
+                int classStart = i + 1;
+                result.append('[');
+                if (glob.charAt(classStart) == '!' || glob.charAt(classStart) == '^')
+                {
+                    result.append('^');
+                    ++classStart;
+                }
+                for (int j = classStart; j < classEnd; ++j)
+                {
+                    final char classCharacter = glob.charAt(j);
+                    if (classCharacter == '-' && j != classStart && j + 1 != classEnd)
+                    {
+                        result.append('-');
+                    }
+                    else
+                    {
+                        GitIgnoreRules.appendLiteral(result, classCharacter);
+                    }
+                }
+                result.append(']');
+                i = classEnd + 1;
+            }
+            else if (c == '\\' && i + 1 < glob.length())
+            {
+                GitIgnoreRules.appendLiteral(result, glob.charAt(i + 1));
+                i += 2;
+            }
+            else
+            {
+                GitIgnoreRules.appendLiteral(result, c);
+                ++i;
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * Get the index of the ']' that closes the character class that starts at the provided
+     * index. A ']' right after the opening "[" (or "[!") is part of the class.
+     */
+    private static int getClassEnd(String glob, int classStart)
+    {
+        int i = classStart + 1;
+        if (i < glob.length() && (glob.charAt(i) == '!' || glob.charAt(i) == '^'))
+        {
+            ++i;
+        }
+        if (i < glob.length() && glob.charAt(i) == ']')
+        {
+            ++i;
+        }
+        return glob.indexOf(']', i);
+    }
+
+    private static void appendLiteral(StringBuilder builder, char c)
+    {
+        if (!Character.isLetterOrDigit(c) && c != '/' && c < 0x80)
+        {
+            builder.append('\\');
+        }
+        builder.append(c);
+    }
+
+    /**
+     * One line of an ignore file.
+     */
+    private static class IgnorePattern
+    {
+        private final java.util.regex.Pattern regex;
+        private final boolean negated;
+        private final boolean folderOnly;
+        private final boolean matchesName;
+
+        private IgnorePattern(java.util.regex.Pattern regex, boolean negated, boolean folderOnly, boolean matchesName)
+        {
+            this.regex = regex;
+            this.negated = negated;
+            this.folderOnly = folderOnly;
+            this.matchesName = matchesName;
+        }
+
+        /**
+         * Parse one line of an ignore file.
+         * @param line The line to parse.
+         * @return The pattern, or null if the line is blank or a comment.
+         */
+        static IgnorePattern parse(String line)
+        {
+            String pattern = line.endsWith("\r") ? line.substring(0, line.length() - 1) : line;
+            int end = pattern.length();
+            while (end > 0 && pattern.charAt(end - 1) == ' ' && (end < 2 || pattern.charAt(end - 2) != '\\'))
+            {
+                --end;
+            }
+            pattern = pattern.substring(0, end);
+
+            IgnorePattern result = null;
+            if (!pattern.isEmpty() && !pattern.startsWith("#"))
+            {
+                final boolean negated = pattern.startsWith("!");
+                if (negated)
+                {
+                    pattern = pattern.substring(1);
+                }
+                else if (pattern.startsWith("\\!") || pattern.startsWith("\\#"))
+                {
+                    pattern = pattern.substring(1);
+                }
+
+                final boolean folderOnly = pattern.endsWith("/");
+                if (folderOnly)
+                {
+                    pattern = pattern.substring(0, pattern.length() - 1);
+                }
+
+                final boolean matchesName = pattern.indexOf('/') == -1;
+                if (pattern.startsWith("/"))
+                {
+                    pattern = pattern.substring(1);
+                }
+
+                if (!pattern.isEmpty())
+                {
+                    result = new IgnorePattern(java.util.regex.Pattern.compile(GitIgnoreRules.toRegex(pattern)), negated, folderOnly, matchesName);
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Get whether this pattern matches the provided path.
+         * @param relativePath The path relative to the folder of this pattern's ignore file.
+         * @param isFolder Whether the path refers to a folder.
+         * @return Whether this pattern matches the path.
+         */
+        boolean matches(String relativePath, boolean isFolder)
+        {
+            final String text = this.matchesName
+                ? relativePath.substring(relativePath.lastIndexOf('/') + 1)
+                : relativePath;
+            return (isFolder || !this.folderOnly) && this.regex.matcher(text).matches();
+        }
+    }
+}
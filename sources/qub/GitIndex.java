@@ -0,0 +1,424 @@
+package qub;
+
+/**
+ * A repository's index (the ".git/index" file, also called the dircache) that is read directly
+ * from the mapped file. Opening the index scans its entries once to find where each of them
+ * starts, but it doesn't create an object for each entry. Instead, a {@link GitIndexEntry} is a
+ * view that reads an entry's fields from the mapped bytes, and one view can be moved across all
+ * of the entries. Versions 2, 3, and 4 of the index format are supported, including the
+ * prefix-compressed paths of version 4, along with the "TREE", "UNTR", and "link" extensions.
+ */
+public class GitIndex
+{
+    private static final int headerLength = 12;
+    private static final int entryFieldsLength = 40;
+    private static final int flagsLength = 2;
+    private static final int extendedFlag = 0x4000;
+    private static final int nameLengthMask = 0xFFF;
+
+    private final GitPackData data;
+    private final int version;
+    private final int objectIdLength;
+    private final long[] entryPositions;
+    private final int[] pathLengths;
+    private final int[] keptPathLengths;
+    private final GitIndexCacheTree cacheTree;
+    private final GitIndexUntrackedCache untrackedCache;
+    private final GitIndexLink link;
+    private final boolean sparse;
+
+    private GitIndex(GitPackData data, int version, int objectIdLength, long[] entryPositions, int[] pathLengths, int[] keptPathLengths, GitIndexCacheTree cacheTree, GitIndexUntrackedCache untrackedCache, GitIndexLink link, boolean sparse)
+    {
+        this.data = data;
+        this.version = version;
+        this.objectIdLength = objectIdLength;
+        this.entryPositions = entryPositions;
+        this.pathLengths = pathLengths;
+        this.keptPathLengths = keptPathLengths;
+        this.cacheTree = cacheTree;
+        this.untrackedCache = untrackedCache;
+        this.link = link;
+        this.sparse = sparse;
+    }
+
+    /**
+     * Open the index of the repository at the provided folder.
+     * @param repositoryFolder The repository's working tree folder or its ".git" folder.
+     * @return The repository's index.
+     */
+    public static Result<GitIndex> open(Folder repositoryFolder)
+    {
+        PreCondition.assertNotNull(repositoryFolder, "repositoryFolder");
+
+        return Result.create(() ->
+        {
+            final Folder gitFolder = GitObjectDatabase.getGitFolder(repositoryFolder).await();
+            final Folder commonFolder = GitObjectDatabase.getCommonFolder(gitFolder).await();
+            final File indexFile = gitFolder.getFile("index").await();
+            if (!indexFile.exists().await())
+            {
+                throw new NotFoundException("Could not find an index file in " + Strings.escapeAndQuote(gitFolder.getPath().toString()) + ".");
+            }
+            return GitIndex.open(indexFile, GitObjectDatabase.getObjectIdLength(commonFolder)).await();
+        });
+    }
+
+    /**
+     * Open the provided index file.
+     * @param indexFile The index file.
+     * @param objectIdLength The number of bytes in the repository's object ids.
+     * @return The index.
+     */
+    public static Result<GitIndex> open(File indexFile, int objectIdLength)
+    {
+        PreCondition.assertNotNull(indexFile, "indexFile");
+        PreCondition.assertTrue(GitObjectId.isValidLength(objectIdLength), "GitObjectId.isValidLength(objectIdLength)");
+
+        return GitPackData.open(indexFile)
+            .then((GitPackData data) -> GitIndex.parse(data, objectIdLength).await());
+    }
+
+    /**
+     * Parse the index in the provided data.
+     * @param data The bytes of the index file.
+     * @param objectIdLength The number of bytes in the repository's object ids.
+     * @return The index.
+     */
+    static Result<GitIndex> parse(GitPackData data, int objectIdLength)
+    {
+        PreCondition.assertNotNull(data, "data");
+        PreCondition.assertTrue(GitObjectId.isValidLength(objectIdLength), "GitObjectId.isValidLength(objectIdLength)");
+
+        return Result.create(() ->
+        {
+            if (data.getLength() < GitIndex.headerLength + objectIdLength ||
+                data.getByte(0) != 'D' || data.getByte(1) != 'I' || data.getByte(2) != 'R' || data.getByte(3) != 'C')
+            {
+                throw new ParseException("Expected the index file to start with \"DIRC\".");
+            }
+
+            final long version = data.getUnsignedInt(4);
+            if (version < 2 || 4 < version)
+            {
+                throw new ParseException("Unsupported index version: " + version);
+            }
+
+            final long entryCount = data.getUnsignedInt(8);
+            final long contentEnd = data.getLength() - objectIdLength;
+            final int minimumEntryLength = GitIndex.entryFieldsLength + objectIdLength + GitIndex.flagsLength + 1;
+            if (entryCount > (contentEnd - GitIndex.headerLength) / minimumEntryLength)
+            {
+                throw new ParseException("The index file has " + entryCount + " entries, but it is only " + data.getLength() + " bytes long.");
+            }
+
+            final long[] entryPositions = new long[(int)entryCount];
+            final int[] pathLengths = new int[(int)entryCount];
+            final int[] keptPathLengths = version == 4 ? new int[(int)entryCount] : null;
+            long position = GitIndex.headerLength;
+            for (int i = 0; i < entryCount; ++i)
+            {
+                entryPositions[i] = position;
+                final GitDataReader reader = GitDataReader.create(data, position, contentEnd, "index entry " + i);
+
+                reader.skip(GitIndex.entryFieldsLength + objectIdLength);
+                final int flags = (reader.readUnsignedByte() << 8) | reader.readUnsignedByte();
+                if ((flags & GitIndex.extendedFlag) != 0)
+                {
+                    if (version < 3)
+                    {
+                        throw new ParseException("Index entry " + i + " has extended flags, but version " + version + " indexes can't have extended flags.");
+                    }
+                    reader.skip(2);
+                }
+
+                if (version == 4)
+                {
+                    final long strippedLength = reader.readVarint();
+                    final int previousPathLength = i == 0 ? 0 : pathLengths[i - 1];
+                    if (strippedLength > previousPathLength)
+                    {
+                        throw new ParseException("Index entry " + i + " removes more of the previous path than it has.");
+                    }
+                    keptPathLengths[i] = previousPathLength - (int)strippedLength;
+                    final int suffixLength = GitIndex.getNulTerminatedLength(data, reader.getPosition(), contentEnd, i);
+                    pathLengths[i] = keptPathLengths[i] + suffixLength;
+                    position = reader.getPosition() + suffixLength + 1;
+                }
+                else
+                {
+                    int pathLength = flags & GitIndex.nameLengthMask;
+                    if (pathLength == GitIndex.nameLengthMask)
+                    {
+                        pathLength = GitIndex.getNulTerminatedLength(data, reader.getPosition(), contentEnd, i);
+                    }
+                    pathLengths[i] = pathLength;
+                    position += (reader.getPosition() - position + pathLength + 8) & ~7;
+                    if (position > contentEnd)
+                    {
+                        throw new ParseException("Unexpected end of index entry " + i + ".");
+                    }
+                }
+            }
+
+            GitIndexCacheTree cacheTree = null;
+            GitIndexUntrackedCache untrackedCache = null;
+            GitIndexLink link = null;
+            boolean sparse = false;
+            while (position < contentEnd)
+            {
+                final GitDataReader headerReader = GitDataReader.create(data, position, contentEnd, "index extension header");
+                final String signature = new String(headerReader.readBytes(4), java.nio.charset.StandardCharsets.UTF_8);
+                final long extensionLength = headerReader.readUnsignedInt();
+                final long extensionStart = headerReader.getPosition();
+                if (extensionLength > contentEnd - extensionStart)
+                {
+                    throw new ParseException("Unexpected end of index extension " + Strings.escapeAndQuote(signature) + ".");
+                }
+                final long extensionEnd = extensionStart + extensionLength;
+                final GitDataReader reader = GitDataReader.create(data, extensionStart, extensionEnd, "index extension " + Strings.escapeAndQuote(signature));
+
+                switch (signature)
+                {
+                    case "TREE":
+                        if (extensionLength > 0)
+                        {
+                            cacheTree = GitIndexCacheTree.read(reader, objectIdLength);
+                        }
+                        break;
+
+                    case "UNTR":
+                        untrackedCache = GitIndexUntrackedCache.read(reader, objectIdLength);
+                        break;
+
+                    case "link":
+                        link = GitIndexLink.read(reader, objectIdLength);
+                        break;
+
+                    case "sdir":
+                        sparse = true;
+                        break;
+
+                    default:
+                        if ('A' > signature.charAt(0) || signature.charAt(0) > 'Z')
+                        {
+                            throw new ParseException("Unsupported required index extension: " + Strings.escapeAndQuote(signature));
+                        }
+                        break;
+                }
+
+                position = extensionEnd;
+            }
+
+            return new GitIndex(data, (int)version, objectIdLength, entryPositions, pathLengths, keptPathLengths, cacheTree, untrackedCache, link, sparse);
+        });
+    }
+
+    private static int getNulTerminatedLength(GitPackData data, long startPosition, long endPosition, int entryIndex)
+    {
+        long position = startPosition;
+        while (position < endPosition && data.getByte(position) != 0)
+        {
+            ++position;
+        }
+        if (position == endPosition)
+        {
+            throw new ParseException("Unexpected end of index entry " + entryIndex + ".");
+        }
+        return (int)(position - startPosition);
+    }
+
+    /**
+     * Get the version of the index file format.
+     * @return The version of the index file format.
+     */
+    public int getVersion()
+    {
+        return this.version;
+    }
+
+    /**
+     * Get the number of bytes in the repository's object ids.
+     * @return The number of bytes in the repository's object ids.
+     */
+    public int getObjectIdLength()
+    {
+        return this.objectIdLength;
+    }
+
+    /**
+     * Get the number of entries in the index.
+     * @return The number of entries in the index.
+     */
+    public int getEntryCount()
+    {
+        return this.entryPositions.length;
+    }
+
+    /**
+     * Get a view of the entry at the provided index. The returned view can be moved to other
+     * entries with {@link GitIndexEntry#moveTo(int)}.
+     * @param entryIndex The index of the entry.
+     * @return A view of the entry.
+     */
+    public GitIndexEntry getEntry(int entryIndex)
+    {
+        PreCondition.assertIndexAccess(entryIndex, this.getEntryCount(), "entryIndex");
+
+        return new GitIndexEntry(this, this.data, entryIndex);
+    }
+
+    /**
+     * Run the provided action for each entry in the index, in order. The same view is passed to
+     * each run of the action, so the action shouldn't keep a reference to it.
+     * @param action The action to run for each entry.
+     * @return This object for method chaining.
+     */
+    public GitIndex forEachEntry(Action1<GitIndexEntry> action)
+    {
+        PreCondition.assertNotNull(action, "action");
+
+        if (this.getEntryCount() > 0)
+        {
+            final GitIndexEntry entry = this.getEntry(0);
+            for (int i = 0; i < this.getEntryCount(); ++i)
+            {
+                action.run(entry.moveTo(i));
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Get the index of the first entry with the provided path. A path that has a merge conflict
+     * has an entry for each of its stages.
+     * @param path The '/'-separated path of the entry.
+     * @return The index of the first entry with the path, or -1 if the index doesn't have an
+     * entry with the path.
+     */
+    public int indexOf(String path)
+    {
+        PreCondition.assertNotNullAndNotEmpty(path, "path");
+
+        final byte[] pathBytes = path.getBytes(java.nio.charset.StandardCharsets.UTF_8);
+        int result = -1;
+        if (this.getEntryCount() > 0)
+        {
+            final GitIndexEntry entry = this.getEntry(0);
+            int low = 0;
+            int high = this.getEntryCount();
+            while (low < high)
+            {
+                final int middle = (low + high) >>> 1;
+                if (entry.moveTo(middle).comparePathTo(pathBytes) < 0)
+                {
+                    low = middle + 1;
+                }
+                else
+                {
+                    high = middle;
+                }
+            }
+            if (low < this.getEntryCount() && entry.moveTo(low).comparePathTo(pathBytes) == 0)
+            {
+                result = low;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the index's cache tree from its "TREE" extension.
+     * @return The index's cache tree, or null if the index doesn't have one.
+     */
+    public GitIndexCacheTree getCacheTree()
+    {
+        return this.cacheTree;
+    }
+
+    /**
+     * Get the index's untracked cache from its "UNTR" extension.
+     * @return The index's untracked cache, or null if the index doesn't have one.
+     */
+    public GitIndexUntrackedCache getUntrackedCache()
+    {
+        return this.untrackedCache;
+    }
+
+    /**
+     * Get the index's "link" extension, which is only written for a split index. The entries of
+     * the shared index are not merged into this index's entries.
+     * @return The index's "link" extension, or null if the index doesn't have one.
+     */
+    public GitIndexLink getLink()
+    {
+        return this.link;
+    }
+
+    /**
+     * Get whether the index is a sparse index, which means that some of its entries are folders
+     * (whose paths end with '/') that stand for all of the files outside of the sparse checkout.
+     * @return Whether the index is a sparse index.
+     */
+    public boolean isSparse()
+    {
+        return this.sparse;
+    }
+
+    /**
+     * Get the position of the entry at the provided index in the index file.
+     * @param entryIndex The index of the entry.
+     * @return The position of the entry in the index file.
+     */
+    long getEntryPosition(int entryIndex)
+    {
+        return this.entryPositions[entryIndex];
+    }
+
+    /**
+     * Get the length of the UTF-8 path of the entry at the provided index.
+     * @param entryIndex The index of the entry.
+     * @return The length of the entry's path.
+     */
+    int getPathLength(int entryIndex)
+    {
+        return this.pathLengths[entryIndex];
+    }
+
+    /**
+     * Get the number of bytes at the start of the entry's path that are the same as the previous
+     * entry's path and that aren't stored in the entry. This is always 0 before version 4.
+     * @param entryIndex The index of the entry.
+     * @return The number of bytes that the entry's path shares with the previous entry's path.
+     */
+    int getKeptPathLength(int entryIndex)
+    {
+        return this.keptPathLengths == null ? 0 : this.keptPathLengths[entryIndex];
+    }
+
+    /**
+     * Copy the start of the part of the entry's path that is stored in the entry.
+     * @param entryIndex The index of the entry.
+     * @param output The array to copy the bytes to.
+     * @param startIndex The index in the output array to copy the first byte to.
+     * @param length The number of bytes to copy.
+     */
+    void copyPathSuffix(int entryIndex, byte[] output, int startIndex, int length)
+    {
+        long position = this.entryPositions[entryIndex] + GitIndex.entryFieldsLength + this.objectIdLength;
+        final int flags = ((this.data.getByte(position) & 0xFF) << 8) | (this.data.getByte(position + 1) & 0xFF);
+        position += GitIndex.flagsLength;
+        if ((flags & GitIndex.extendedFlag) != 0)
+        {
+            position += 2;
+        }
+        if (this.keptPathLengths != null)
+        {
+            while ((this.data.getByte(position) & 0x80) != 0)
+            {
+                ++position;
+            }
+            ++position;
+        }
+        this.data.getBytes(position, output, startIndex, length);
+    }
+}
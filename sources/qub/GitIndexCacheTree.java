@@ -0,0 +1,131 @@
+package qub;
+
+/**
+ * A node of the cache tree that is stored in an index's "TREE" extension. Each node records the
+ * tree object that the index entries under one folder would produce, so "git commit" and
+ * "git status" can skip hashing the folders whose entries haven't changed since the tree was
+ * last written. A node whose entries have changed is invalid and has no object id.
+ */
+public class GitIndexCacheTree
+{
+    private final String name;
+    private final int entryCount;
+    private final GitObjectId objectId;
+    private final GitIndexCacheTree[] subtrees;
+
+    private GitIndexCacheTree(String name, int entryCount, GitObjectId objectId, GitIndexCacheTree[] subtrees)
+    {
+        this.name = name;
+        this.entryCount = entryCount;
+        this.objectId = objectId;
+        this.subtrees = subtrees;
+    }
+
+    /**
+     * Read the cache tree node (and its subtrees) at the reader's position.
+     * @param reader The reader of the "TREE" extension.
+     * @param objectIdLength The number of bytes in the repository's object ids.
+     * @return The cache tree node.
+     */
+    static GitIndexCacheTree read(GitDataReader reader, int objectIdLength)
+    {
+        PreCondition.assertNotNull(reader, "reader");
+        PreCondition.assertTrue(GitObjectId.isValidLength(objectIdLength), "GitObjectId.isValidLength(objectIdLength)");
+
+        final String name = reader.readString('\0');
+        final int entryCount = reader.readDecimal(' ');
+        final int subtreeCount = reader.readDecimal('\n');
+        if (entryCount < -1 || subtreeCount < 0 || subtreeCount > reader.getRemainingByteCount())
+        {
+            throw new ParseException("Invalid entry count (" + entryCount + ") or subtree count (" + subtreeCount + ") in the cache tree node " + Strings.escapeAndQuote(name) + ".");
+        }
+        final GitObjectId objectId = entryCount >= 0 ? reader.readObjectId(objectIdLength) : null;
+
+        final GitIndexCacheTree[] subtrees = new GitIndexCacheTree[subtreeCount];
+        for (int i = 0; i < subtreeCount; ++i)
+        {
+            subtrees[i] = GitIndexCacheTree.read(reader, objectIdLength);
+        }
+
+        return new GitIndexCacheTree(name, entryCount, objectId, subtrees);
+    }
+
+    /**
+     * Get the name of this node's folder. The root node's name is empty.
+     * @return The name of this node's folder.
+     */
+    public String getName()
+    {
+        return this.name;
+    }
+
+    /**
+     * Get whether this node's tree object is up to date with the index's entries.
+     * @return Whether this node's tree object is up to date with the index's entries.
+     */
+    public boolean isValid()
+    {
+        return this.entryCount >= 0;
+    }
+
+    /**
+     * Get the number of index entries under this node's folder, or -1 if this node is invalid.
+     * @return The number of index entries under this node's folder.
+     */
+    public int getEntryCount()
+    {
+        return this.entryCount;
+    }
+
+    /**
+     * Get the id of this node's tree object, or null if this node is invalid.
+     * @return The id of this node's tree object.
+     */
+    public GitObjectId getObjectId()
+    {
+        return this.objectId;
+    }
+
+    /**
+     * Get the nodes of the folders directly under this node's folder.
+     * @return The nodes of the folders directly under this node's folder.
+     */
+    public Iterable<GitIndexCacheTree> getSubtrees()
+    {
+        return Iterable.create(this.subtrees);
+    }
+
+    /**
+     * Get the node of the folder at the provided path relative to this node's folder.
+     * @param path The '/'-separated path of the folder.
+     * @return The node of the folder, or null if the cache tree doesn't have a node for it.
+     */
+    public GitIndexCacheTree getSubtree(String path)
+    {
+        PreCondition.assertNotNullAndNotEmpty(path, "path");
+
+        GitIndexCacheTree result = this;
+        for (final String folderName : path.split("/"))
+        {
+            if (result != null && !folderName.isEmpty())
+            {
+                GitIndexCacheTree subtree = null;
+                for (int i = 0; subtree == null && i < result.subtrees.length; ++i)
+                {
+                    if (result.subtrees[i].name.equals(folderName))
+                    {
+                        subtree = result.subtrees[i];
+                    }
+                }
+                result = subtree;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String toString()
+    {
+        return Strings.escapeAndQuote(this.name) + " " + this.entryCount + " " + this.subtrees.length + (this.objectId == null ? "" : " " + this.objectId);
+    }
+}
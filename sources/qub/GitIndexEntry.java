@@ -0,0 +1,393 @@
+package qub;
+
+/**
+ * A view of one entry of a {@link GitIndex}. A GitIndexEntry doesn't copy the entry's fields.
+ * Each getter reads its field from the index's mapped bytes, and {@link #moveTo(int)} points
+ * the same view at another entry, so iterating over an index with millions of entries only
+ * allocates the entries' paths (and only when they are requested).
+ */
+public class GitIndexEntry
+{
+    private static final int ctimeOffset = 0;
+    private static final int mtimeOffset = 8;
+    private static final int deviceOffset = 16;
+    private static final int inodeOffset = 20;
+    private static final int modeOffset = 24;
+    private static final int userIdOffset = 28;
+    private static final int groupIdOffset = 32;
+    private static final int sizeOffset = 36;
+    private static final int objectIdOffset = 40;
+
+    private static final int assumeValidFlag = 0x8000;
+    private static final int extendedFlag = 0x4000;
+    private static final int skipWorktreeFlag = 0x4000;
+    private static final int intentToAddFlag = 0x2000;
+
+    private final GitIndex index;
+    private final GitPackData data;
+    private int entryIndex;
+    private long position;
+    private byte[] path;
+    private int pathLength;
+    private int pathEntryIndex;
+
+    GitIndexEntry(GitIndex index, GitPackData data, int entryIndex)
+    {
+        this.index = index;
+        this.data = data;
+        this.path = new byte[64];
+        this.pathEntryIndex = -1;
+        this.moveTo(entryIndex);
+    }
+
+    /**
+     * Point this view at the entry at the provided index.
+     * @param entryIndex The index of the entry.
+     * @return This object for method chaining.
+     */
+    public GitIndexEntry moveTo(int entryIndex)
+    {
+        PreCondition.assertIndexAccess(entryIndex, this.index.getEntryCount(), "entryIndex");
+
+        this.entryIndex = entryIndex;
+        this.position = this.index.getEntryPosition(entryIndex);
+        return this;
+    }
+
+    /**
+     * Get the index of the entry that this view points at.
+     * @return The index of the entry that this view points at.
+     */
+    public int getIndex()
+    {
+        return this.entryIndex;
+    }
+
+    /**
+     * Get the seconds part of the time that the file's metadata last changed.
+     * @return The seconds part of the time that the file's metadata last changed.
+     */
+    public long getCtimeSeconds()
+    {
+        return this.data.getUnsignedInt(this.position + GitIndexEntry.ctimeOffset);
+    }
+
+    /**
+     * Get the nanoseconds part of the time that the file's metadata last changed.
+     * @return The nanoseconds part of the time that the file's metadata last changed.
+     */
+    public long getCtimeNanoseconds()
+    {
+        return this.data.getUnsignedInt(this.position + GitIndexEntry.ctimeOffset + 4);
+    }
+
+    /**
+     * Get the seconds part of the time that the file's contents last changed.
+     * @return The seconds part of the time that the file's contents last changed.
+     */
+    public long getMtimeSeconds()
+    {
+        return this.data.getUnsignedInt(this.position + GitIndexEntry.mtimeOffset);
+    }
+
+    /**
+     * Get the nanoseconds part of the time that the file's contents last changed.
+     * @return The nanoseconds part of the time that the file's contents last changed.
+     */
+    public long getMtimeNanoseconds()
+    {
+        return this.data.getUnsignedInt(this.position + GitIndexEntry.mtimeOffset + 4);
+    }
+
+    /**
+     * Get the id of the device that contains the file.
+     * @return The id of the device that contains the file.
+     */
+    public long getDevice()
+    {
+        return this.data.getUnsignedInt(this.position + GitIndexEntry.deviceOffset);
+    }
+
+    /**
+     * Get the file's inode number.
+     * @return The file's inode number.
+     */
+    public long getInode()
+    {
+        return this.data.getUnsignedInt(this.position + GitIndexEntry.inodeOffset);
+    }
+
+    /**
+     * Get the entry's mode, such as 0100644 for a file, 0100755 for an executable file, 0120000
+     * for a symbolic link, or 0160000 for a submodule.
+     * @return The entry's mode.
+     */
+    public int getMode()
+    {
+        return this.data.getInt(this.position + GitIndexEntry.modeOffset);
+    }
+
+    /**
+     * Get the id of the user that owns the file.
+     * @return The id of the user that owns the file.
+     */
+    public long getUserId()
+    {
+        return this.data.getUnsignedInt(this.position + GitIndexEntry.userIdOffset);
+    }
+
+    /**
+     * Get the id of the group that owns the file.
+     * @return The id of the group that owns the file.
+     */
+    public long getGroupId()
+    {
+        return this.data.getUnsignedInt(this.position + GitIndexEntry.groupIdOffset);
+    }
+
+    /**
+     * Get the file's size, truncated to 32 bits.
+     * @return The file's size, truncated to 32 bits.
+     */
+    public long getSize()
+    {
+        return this.data.getUnsignedInt(this.position + GitIndexEntry.sizeOffset);
+    }
+
+    /**
+     * Get the id of the entry's blob (or of the submodule's commit).
+     * @return The id of the entry's blob.
+     */
+    public GitObjectId getObjectId()
+    {
+        return this.data.getObjectId(this.position + GitIndexEntry.objectIdOffset, this.index.getObjectIdLength());
+    }
+
+    private int getFlags()
+    {
+        final long flagsPosition = this.position + GitIndexEntry.objectIdOffset + this.index.getObjectIdLength();
+        return ((this.data.getByte(flagsPosition) & 0xFF) << 8) | (this.data.getByte(flagsPosition + 1) & 0xFF);
+    }
+
+    private int getExtendedFlags()
+    {
+        int result = 0;
+        if ((this.getFlags() & GitIndexEntry.extendedFlag) != 0)
+        {
+            final long extendedFlagsPosition = this.position + GitIndexEntry.objectIdOffset + this.index.getObjectIdLength() + 2;
+            result = ((this.data.getByte(extendedFlagsPosition) & 0xFF) << 8) | (this.data.getByte(extendedFlagsPosition + 1) & 0xFF);
+        }
+        return result;
+    }
+
+    /**
+     * Get the entry's merge stage. Stage 0 is a normal entry, and stages 1, 2, and 3 are the
+     * base, ours, and theirs versions of a file that has a merge conflict.
+     * @return The entry's merge stage.
+     */
+    public int getStage()
+    {
+        return (this.getFlags() >>> 12) & 0x3;
+    }
+
+    /**
+     * Get whether the entry's "assume unchanged" bit is set.
+     * @return Whether the entry's "assume unchanged" bit is set.
+     */
+    public boolean isAssumeValid()
+    {
+        return (this.getFlags() & GitIndexEntry.assumeValidFlag) != 0;
+    }
+
+    /**
+     * Get whether the entry's "skip-worktree" bit is set, which sparse checkouts use for the
+     * files that aren't in the working tree.
+     * @return Whether the entry's "skip-worktree" bit is set.
+     */
+    public boolean isSkipWorktree()
+    {
+        return (this.getExtendedFlags() & GitIndexEntry.skipWorktreeFlag) != 0;
+    }
+
+    /**
+     * Get whether the entry was added with "git add --intent-to-add".
+     * @return Whether the entry was added with "git add --intent-to-add".
+     */
+    public boolean isIntentToAdd()
+    {
+        return (this.getExtendedFlags() & GitIndexEntry.intentToAddFlag) != 0;
+    }
+
+    /**
+     * Read the entry's path into this view's path buffer. A version 4 path only stores the part
+     * that differs from the previous entry's path, so when this view already holds the previous
+     * entry's path (as it does when the entries are visited in order) only that part is copied.
+     * Otherwise the shared prefix is gathered from the earlier entries.
+     */
+    private void loadPath()
+    {
+        if (this.pathEntryIndex != this.entryIndex)
+        {
+            final int pathLength = this.index.getPathLength(this.entryIndex);
+            if (this.path.length < pathLength)
+            {
+                this.path = java.util.Arrays.copyOf(this.path, Math.max(pathLength, this.path.length * 2));
+            }
+
+            final int keptLength = this.index.getKeptPathLength(this.entryIndex);
+            this.index.copyPathSuffix(this.entryIndex, this.path, keptLength, pathLength - keptLength);
+            if (keptLength > 0 && this.pathEntryIndex != this.entryIndex - 1)
+            {
+                int neededLength = keptLength;
+                for (int earlierIndex = this.entryIndex - 1; neededLength > 0; --earlierIndex)
+                {
+                    final int earlierKeptLength = this.index.getKeptPathLength(earlierIndex);
+                    if (earlierKeptLength < neededLength)
+                    {
+                        this.index.copyPathSuffix(earlierIndex, this.path, earlierKeptLength, neededLength - earlierKeptLength);
+                        neededLength = earlierKeptLength;
+                    }
+                }
+            }
+
+            this.pathLength = pathLength;
+            this.pathEntryIndex = this.entryIndex;
+        }
+    }
+
+    /**
+     * Get the entry's path, relative to the root of the working tree and separated by '/'.
+     * @return The entry's path.
+     */
+    public String getPath()
+    {
+        this.loadPath();
+        return new String(this.path, 0, this.pathLength, java.nio.charset.StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Get the part of the entry's path between the provided byte indexes. The indexes must not
+     * split a UTF-8 character, which is always true of the indexes of '/' separators.
+     * @param startIndex The index of the first byte of the part.
+     * @param endIndex The index after the last byte of the part.
+     * @return The part of the entry's path.
+     */
+    public String getPath(int startIndex, int endIndex)
+    {
+        PreCondition.assertBetween(0, startIndex, this.getPathLength(), "startIndex");
+        PreCondition.assertBetween(startIndex, endIndex, this.getPathLength(), "endIndex");
+
+        this.loadPath();
+        return new String(this.path, startIndex, endIndex - startIndex, java.nio.charset.StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Get the number of UTF-8 bytes in the entry's path. This doesn't read the path.
+     * @return The number of UTF-8 bytes in the entry's path.
+     */
+    public int getPathLength()
+    {
+        return this.index.getPathLength(this.entryIndex);
+    }
+
+    /**
+     * Get a copy of the first bytes of the entry's UTF-8 path.
+     * @param length The number of bytes to copy.
+     * @return The first bytes of the entry's path.
+     */
+    public byte[] getPathBytes(int length)
+    {
+        PreCondition.assertBetween(0, length, this.getPathLength(), "length");
+
+        this.loadPath();
+        return java.util.Arrays.copyOf(this.path, length);
+    }
+
+    /**
+     * Get the index of the first occurrence of the provided byte in the entry's UTF-8 path at or
+     * after the provided index.
+     * @param value The byte to look for.
+     * @param startIndex The index to start looking at.
+     * @return The index of the byte, or -1 if the byte isn't found.
+     */
+    public int indexOfPathByte(byte value, int startIndex)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(startIndex, 0, "startIndex");
+
+        this.loadPath();
+        int result = -1;
+        for (int i = startIndex; result == -1 && i < this.pathLength; ++i)
+        {
+            if (this.path[i] == value)
+            {
+                result = i;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get whether the entry's UTF-8 path starts with the provided bytes.
+     * @param prefix The UTF-8 bytes to look for.
+     * @return Whether the entry's path starts with the provided bytes.
+     */
+    public boolean pathStartsWith(byte[] prefix)
+    {
+        PreCondition.assertNotNull(prefix, "prefix");
+
+        this.loadPath();
+        return prefix.length <= this.pathLength &&
+            java.util.Arrays.equals(this.path, 0, prefix.length, prefix, 0, prefix.length);
+    }
+
+    /**
+     * Get whether the entry's UTF-8 path ends with the provided bytes.
+     * @param suffix The UTF-8 bytes to look for.
+     * @return Whether the entry's path ends with the provided bytes.
+     */
+    public boolean pathEndsWith(byte[] suffix)
+    {
+        PreCondition.assertNotNull(suffix, "suffix");
+
+        this.loadPath();
+        return suffix.length <= this.pathLength &&
+            java.util.Arrays.equals(this.path, this.pathLength - suffix.length, this.pathLength, suffix, 0, suffix.length);
+    }
+
+    /**
+     * Compare the entry's path with the provided UTF-8 path by their unsigned bytes, which is
+     * the order of the entries in the index.
+     * @param path The UTF-8 bytes of the path to compare against.
+     * @return A negative number if the entry's path comes first, zero if they're equal, or a
+     * positive number if the provided path comes first.
+     */
+    public int comparePathTo(byte[] path)
+    {
+        PreCondition.assertNotNull(path, "path");
+
+        return this.comparePathTo(path, path.length);
+    }
+
+    /**
+     * Compare the entry's path with the first bytes of the provided UTF-8 path by their unsigned
+     * bytes, which is the order of the entries in the index.
+     * @param path The array that holds the UTF-8 bytes of the path to compare against.
+     * @param length The number of bytes at the start of the array that make up the path.
+     * @return A negative number if the entry's path comes first, zero if they're equal, or a
+     * positive number if the provided path comes first.
+     */
+    public int comparePathTo(byte[] path, int length)
+    {
+        PreCondition.assertNotNull(path, "path");
+        PreCondition.assertBetween(0, length, path.length, "length");
+
+        this.loadPath();
+        return java.util.Arrays.compareUnsigned(this.path, 0, this.pathLength, path, 0, length);
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%06o", this.getMode()) + " " + this.getObjectId() + " " + this.getStage() + "\t" + this.getPath();
+    }
+}
@@ -0,0 +1,72 @@
+package qub;
+
+/**
+ * The "link" extension of a split index. A split index only stores the entries that have changed
+ * since its shared index ("sharedindex.&lt;id&gt;") was written. The link extension names the
+ * shared index and marks which of the shared index's entries the split index deletes or
+ * replaces.
+ */
+public class GitIndexLink
+{
+    private final GitObjectId sharedIndexId;
+    private final java.util.BitSet deletedEntries;
+    private final java.util.BitSet replacedEntries;
+
+    private GitIndexLink(GitObjectId sharedIndexId, java.util.BitSet deletedEntries, java.util.BitSet replacedEntries)
+    {
+        this.sharedIndexId = sharedIndexId;
+        this.deletedEntries = deletedEntries;
+        this.replacedEntries = replacedEntries;
+    }
+
+    /**
+     * Read the link extension at the reader's position.
+     * @param reader The reader of the "link" extension.
+     * @param objectIdLength The number of bytes in the repository's object ids.
+     * @return The link extension.
+     */
+    static GitIndexLink read(GitDataReader reader, int objectIdLength)
+    {
+        PreCondition.assertNotNull(reader, "reader");
+        PreCondition.assertTrue(GitObjectId.isValidLength(objectIdLength), "GitObjectId.isValidLength(objectIdLength)");
+
+        final GitObjectId sharedIndexId = reader.readObjectId(objectIdLength);
+        java.util.BitSet deletedEntries = new java.util.BitSet();
+        java.util.BitSet replacedEntries = new java.util.BitSet();
+        if (reader.getRemainingByteCount() > 0)
+        {
+            deletedEntries = reader.readEwahBitmap();
+            replacedEntries = reader.readEwahBitmap();
+        }
+
+        return new GitIndexLink(sharedIndexId, deletedEntries, replacedEntries);
+    }
+
+    /**
+     * Get the id of the shared index, or null if the index isn't split.
+     * @return The id of the shared index.
+     */
+    public GitObjectId getSharedIndexId()
+    {
+        return this.sharedIndexId;
+    }
+
+    /**
+     * Get the indexes of the shared index's entries that this index deletes.
+     * @return The indexes of the shared index's entries that this index deletes.
+     */
+    public java.util.BitSet getDeletedEntries()
+    {
+        return (java.util.BitSet)this.deletedEntries.clone();
+    }
+
+    /**
+     * Get the indexes of the shared index's entries that this index replaces. The replacing
+     * entries are this index's first entries, in the same order as the set bits.
+     * @return The indexes of the shared index's entries that this index replaces.
+     */
+    public java.util.BitSet getReplacedEntries()
+    {
+        return (java.util.BitSet)this.replacedEntries.clone();
+    }
+}
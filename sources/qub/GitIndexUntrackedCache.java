@@ -0,0 +1,160 @@
+package qub;
+
+/**
+ * The untracked cache that is stored in an index's "UNTR" extension. The cache records the
+ * untracked files of each folder along with the state of the exclude files that were used to
+ * list them, so "git status" only needs to read the folders that have changed since.
+ */
+public class GitIndexUntrackedCache
+{
+    private static final int statDataLength = 36;
+
+    private final Iterable<String> identifiers;
+    private final int directoryFlags;
+    private final GitObjectId infoExcludeId;
+    private final GitObjectId excludesFileId;
+    private final String perDirectoryExcludeFileName;
+    private final GitIndexUntrackedDirectory root;
+
+    private GitIndexUntrackedCache(Iterable<String> identifiers, int directoryFlags, GitObjectId infoExcludeId, GitObjectId excludesFileId, String perDirectoryExcludeFileName, GitIndexUntrackedDirectory root)
+    {
+        this.identifiers = identifiers;
+        this.directoryFlags = directoryFlags;
+        this.infoExcludeId = infoExcludeId;
+        this.excludesFileId = excludesFileId;
+        this.perDirectoryExcludeFileName = perDirectoryExcludeFileName;
+        this.root = root;
+    }
+
+    /**
+     * Read the untracked cache at the reader's position.
+     * @param reader The reader of the "UNTR" extension.
+     * @param objectIdLength The number of bytes in the repository's object ids.
+     * @return The untracked cache.
+     */
+    static GitIndexUntrackedCache read(GitDataReader reader, int objectIdLength)
+    {
+        PreCondition.assertNotNull(reader, "reader");
+        PreCondition.assertTrue(GitObjectId.isValidLength(objectIdLength), "GitObjectId.isValidLength(objectIdLength)");
+
+        final long identifiersLength = reader.readVarint();
+        if (identifiersLength > reader.getRemainingByteCount())
+        {
+            throw new ParseException("Unexpected end of the untracked cache.");
+        }
+        final String identifiersText = new String(reader.readBytes((int)identifiersLength), java.nio.charset.StandardCharsets.UTF_8);
+        final java.util.ArrayList<String> identifiers = new java.util.ArrayList<>();
+        for (final String identifier : identifiersText.split("\0"))
+        {
+            if (!identifier.isEmpty())
+            {
+                identifiers.add(identifier);
+            }
+        }
+
+        reader.skip(GitIndexUntrackedCache.statDataLength * 2);
+        final int directoryFlags = (int)reader.readUnsignedInt();
+        final GitObjectId infoExcludeId = reader.readObjectId(objectIdLength);
+        final GitObjectId excludesFileId = reader.readObjectId(objectIdLength);
+        final String perDirectoryExcludeFileName = reader.readString('\0');
+
+        GitIndexUntrackedDirectory root = null;
+        final long directoryCount = reader.readVarint();
+        if (directoryCount > 0)
+        {
+            final java.util.ArrayList<GitIndexUntrackedDirectory> directories = new java.util.ArrayList<>();
+            root = GitIndexUntrackedDirectory.read(reader, directories);
+            if (directories.size() != directoryCount)
+            {
+                throw new ParseException("Expected the untracked cache to contain " + directoryCount + " folders, but found " + directories.size() + ".");
+            }
+
+            final java.util.BitSet valid = reader.readEwahBitmap();
+            final java.util.BitSet checkOnly = reader.readEwahBitmap();
+            final java.util.BitSet objectIdValid = reader.readEwahBitmap();
+            for (final java.util.BitSet bitmap : new java.util.BitSet[] { valid, checkOnly, objectIdValid })
+            {
+                if (bitmap.length() > directories.size())
+                {
+                    throw new ParseException("The untracked cache has a bitmap bit for folder " + (bitmap.length() - 1) + ", but it only has " + directories.size() + " folders.");
+                }
+            }
+
+            for (int i = checkOnly.nextSetBit(0); i >= 0; i = checkOnly.nextSetBit(i + 1))
+            {
+                directories.get(i).setCheckOnly(true);
+            }
+            for (int i = valid.nextSetBit(0); i >= 0; i = valid.nextSetBit(i + 1))
+            {
+                directories.get(i).setValid(true);
+                reader.skip(GitIndexUntrackedCache.statDataLength);
+            }
+            for (int i = objectIdValid.nextSetBit(0); i >= 0; i = objectIdValid.nextSetBit(i + 1))
+            {
+                directories.get(i).setObjectId(reader.readObjectId(objectIdLength));
+            }
+        }
+
+        return new GitIndexUntrackedCache(Iterable.create(identifiers.toArray(new String[0])), directoryFlags, infoExcludeId, excludesFileId, perDirectoryExcludeFileName, root);
+    }
+
+    /**
+     * Get the identifiers of the environments (operating system, working tree location, and so
+     * on) that the cache was written in. Git ignores the cache when the current environment's
+     * identifier isn't in this list.
+     * @return The identifiers of the environments that the cache was written in.
+     */
+    public Iterable<String> getIdentifiers()
+    {
+        return this.identifiers;
+    }
+
+    /**
+     * Get the flags of the "git status" folder listing that the cache was written for.
+     * @return The flags of the "git status" folder listing that the cache was written for.
+     */
+    public int getDirectoryFlags()
+    {
+        return this.directoryFlags;
+    }
+
+    /**
+     * Get the id of the repository's "info/exclude" file when the cache was written, or null if
+     * the file didn't exist.
+     * @return The id of the repository's "info/exclude" file.
+     */
+    public GitObjectId getInfoExcludeId()
+    {
+        return this.infoExcludeId;
+    }
+
+    /**
+     * Get the id of the "core.excludesFile" file when the cache was written, or null if the file
+     * didn't exist.
+     * @return The id of the "core.excludesFile" file.
+     */
+    public GitObjectId getExcludesFileId()
+    {
+        return this.excludesFileId;
+    }
+
+    /**
+     * Get the name of the exclude file that is read in each folder, which is usually
+     * ".gitignore".
+     * @return The name of the exclude file that is read in each folder.
+     */
+    public String getPerDirectoryExcludeFileName()
+    {
+        return this.perDirectoryExcludeFileName;
+    }
+
+    /**
+     * Get the cached root folder of the working tree, or null if the cache doesn't contain any
+     * folders.
+     * @return The cached root folder of the working tree.
+     */
+    public GitIndexUntrackedDirectory getRoot()
+    {
+        return this.root;
+    }
+}
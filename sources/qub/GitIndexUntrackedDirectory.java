@@ -0,0 +1,175 @@
+package qub;
+
+/**
+ * A folder in an index's untracked cache. A valid folder hasn't changed since the untracked files
+ * in it were listed, so "git status" can report its untracked files without reading the folder.
+ */
+public class GitIndexUntrackedDirectory
+{
+    private final String name;
+    private final String[] untrackedNames;
+    private final GitIndexUntrackedDirectory[] subdirectories;
+    private boolean valid;
+    private boolean checkOnly;
+    private GitObjectId objectId;
+
+    private GitIndexUntrackedDirectory(String name, String[] untrackedNames, GitIndexUntrackedDirectory[] subdirectories)
+    {
+        this.name = name;
+        this.untrackedNames = untrackedNames;
+        this.subdirectories = subdirectories;
+    }
+
+    /**
+     * Read the folder (and its subfolders) at the reader's position. The folders are added to the
+     * provided list in the order that they are read, which is the order of the bits in the
+     * untracked cache's bitmaps.
+     * @param reader The reader of the "UNTR" extension.
+     * @param directories The list to add the folders to.
+     * @return The folder.
+     */
+    static GitIndexUntrackedDirectory read(GitDataReader reader, java.util.List<GitIndexUntrackedDirectory> directories)
+    {
+        PreCondition.assertNotNull(reader, "reader");
+        PreCondition.assertNotNull(directories, "directories");
+
+        final long untrackedCount = reader.readVarint();
+        final long subdirectoryCount = reader.readVarint();
+        if (untrackedCount > reader.getRemainingByteCount() || subdirectoryCount > reader.getRemainingByteCount())
+        {
+            throw new ParseException("Unexpected end of the untracked cache.");
+        }
+        final String name = reader.readString('\0');
+
+        final String[] untrackedNames = new String[(int)untrackedCount];
+        for (int i = 0; i < untrackedNames.length; ++i)
+        {
+            untrackedNames[i] = reader.readString('\0');
+        }
+
+        final GitIndexUntrackedDirectory[] subdirectories = new GitIndexUntrackedDirectory[(int)subdirectoryCount];
+        final GitIndexUntrackedDirectory result = new GitIndexUntrackedDirectory(name, untrackedNames, subdirectories);
+        directories.add(result);
+        for (int i = 0; i < subdirectories.length; ++i)
+        {
+            subdirectories[i] = GitIndexUntrackedDirectory.read(reader, directories);
+        }
+
+        return result;
+    }
+
+    /**
+     * Set whether the folder's untracked files are up to date.
+     * @param valid Whether the folder's untracked files are up to date.
+     * @return This object for method chaining.
+     */
+    GitIndexUntrackedDirectory setValid(boolean valid)
+    {
+        this.valid = valid;
+        return this;
+    }
+
+    /**
+     * Set whether the folder was only checked for untracked files instead of having them listed.
+     * @param checkOnly Whether the folder was only checked for untracked files.
+     * @return This object for method chaining.
+     */
+    GitIndexUntrackedDirectory setCheckOnly(boolean checkOnly)
+    {
+        this.checkOnly = checkOnly;
+        return this;
+    }
+
+    /**
+     * Set the id of the folder's per-folder exclude file.
+     * @param objectId The id of the folder's per-folder exclude file.
+     * @return This object for method chaining.
+     */
+    GitIndexUntrackedDirectory setObjectId(GitObjectId objectId)
+    {
+        this.objectId = objectId;
+        return this;
+    }
+
+    /**
+     * Get the name of this folder. The root folder's name is empty.
+     * @return The name of this folder.
+     */
+    public String getName()
+    {
+        return this.name;
+    }
+
+    /**
+     * Get the names of the untracked files and folders directly in this folder. The names of
+     * untracked folders end with '/'.
+     * @return The names of the untracked files and folders directly in this folder.
+     */
+    public Iterable<String> getUntrackedNames()
+    {
+        return Iterable.create(this.untrackedNames);
+    }
+
+    /**
+     * Get the cached folders directly under this folder.
+     * @return The cached folders directly under this folder.
+     */
+    public Iterable<GitIndexUntrackedDirectory> getSubdirectories()
+    {
+        return Iterable.create(this.subdirectories);
+    }
+
+    /**
+     * Get the cached folder with the provided name directly under this folder.
+     * @param name The name of the folder.
+     * @return The folder, or null if this folder doesn't have a cached folder with the name.
+     */
+    public GitIndexUntrackedDirectory getSubdirectory(String name)
+    {
+        PreCondition.assertNotNullAndNotEmpty(name, "name");
+
+        GitIndexUntrackedDirectory result = null;
+        for (int i = 0; result == null && i < this.subdirectories.length; ++i)
+        {
+            if (this.subdirectories[i].name.equals(name))
+            {
+                result = this.subdirectories[i];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get whether this folder's untracked files are up to date.
+     * @return Whether this folder's untracked files are up to date.
+     */
+    public boolean isValid()
+    {
+        return this.valid;
+    }
+
+    /**
+     * Get whether this folder was only checked for untracked files instead of having them listed.
+     * @return Whether this folder was only checked for untracked files.
+     */
+    public boolean isCheckOnly()
+    {
+        return this.checkOnly;
+    }
+
+    /**
+     * Get the id of this folder's per-folder exclude file (such as ".gitignore"), or null if the
+     * id isn't cached.
+     * @return The id of this folder's per-folder exclude file.
+     */
+    public GitObjectId getObjectId()
+    {
+        return this.objectId;
+    }
+
+    @Override
+    public String toString()
+    {
+        return Strings.escapeAndQuote(this.name);
+    }
+}
@@ -0,0 +1,583 @@
+package qub;
+
+/**
+ * A shared pool of {@link java.util.zip.Inflater}s and {@link java.util.zip.Deflater}s for
+ * decompressing and compressing Git objects. Inflaters and Deflaters hold native memory that is
+ * only freed when end() is called or when they are cleaned up by the garbage collector, so
+ * creating a new one for each object wastes native memory and time. Inflaters should be borrowed
+ * with {@link #acquire()} and returned with {@link #release(java.util.zip.Inflater)}, and
+ * Deflaters with {@link #acquireDeflater()} and {@link #releaseDeflater(java.util.zip.Deflater)}.
+ * <p>
+ * The Inflaters and the Deflaters are kept in separate striped pools. Each pool has one small
+ * stack per processor, and a thread borrows from and returns to the stack that its identity
+ * hashes to, so threads rarely wait on the same lock. The striping isn't thread affinity: many
+ * threads can hash to the same stack, a value that one thread returns can be borrowed by any
+ * other thread, and a thread looks at the other stacks when its own stack is empty or full.
+ * Each pool holds at most a fixed number of idle values no matter how many threads (including
+ * virtual threads) use it, and the ones that don't fit are ended. Each pooled Inflater also owns
+ * a reusable direct {@link java.nio.ByteBuffer} that small objects are inflated into with a
+ * single native call, so the number of scratch buffers that are reused is bounded by the pool
+ * too. The scratch buffer of an Inflater that is ended is freed by the garbage collector.
+ */
+public final class GitInflaterPool
+{
+    /**
+     * The capacity of the direct scratch buffer that each pooled Inflater owns. Objects whose
+     * loose object header and contents fit into this many bytes are inflated with a single
+     * native call.
+     */
+    public static final int smallObjectLimit = 16 * 1024;
+
+    /**
+     * The maximum number of idle Inflaters (and, separately, Deflaters) that each stripe of the
+     * pool holds.
+     */
+    private static final int maximumStripePooledCount = 2;
+
+    private static final java.util.concurrent.atomic.LongAdder createdInflaterCount = new java.util.concurrent.atomic.LongAdder();
+    private static final java.util.concurrent.atomic.LongAdder homeStripeReuseCount = new java.util.concurrent.atomic.LongAdder();
+    private static final java.util.concurrent.atomic.LongAdder otherStripeReuseCount = new java.util.concurrent.atomic.LongAdder();
+    private static final java.util.concurrent.atomic.LongAdder endedCount = new java.util.concurrent.atomic.LongAdder();
+    private static final java.util.concurrent.atomic.LongAdder createdDeflaterCount = new java.util.concurrent.atomic.LongAdder();
+    private static final java.util.concurrent.atomic.LongAdder deflaterHomeStripeReuseCount = new java.util.concurrent.atomic.LongAdder();
+    private static final java.util.concurrent.atomic.LongAdder deflaterOtherStripeReuseCount = new java.util.concurrent.atomic.LongAdder();
+    private static final java.util.concurrent.atomic.LongAdder endedDeflaterCount = new java.util.concurrent.atomic.LongAdder();
+    private static final java.util.concurrent.atomic.LongAdder smallObjectCount = new java.util.concurrent.atomic.LongAdder();
+    private static final java.util.concurrent.atomic.LongAdder directBufferAllocationCount = new java.util.concurrent.atomic.LongAdder();
+
+    private static final Stripes<java.util.zip.Inflater> pool = new Stripes<>(GitInflaterPool.homeStripeReuseCount, GitInflaterPool.otherStripeReuseCount);
+    private static final Stripes<java.util.zip.Deflater> deflaterPool = new Stripes<>(GitInflaterPool.deflaterHomeStripeReuseCount, GitInflaterPool.deflaterOtherStripeReuseCount);
+
+    private GitInflaterPool()
+    {
+    }
+
+    /**
+     * Borrow an Inflater from the pool.
+     * @return An Inflater that is ready to decompress new zlib input.
+     */
+    public static java.util.zip.Inflater acquire()
+    {
+        java.util.zip.Inflater result = GitInflaterPool.pool.poll();
+        if (result == null)
+        {
+            result = new PooledInflater();
+            GitInflaterPool.createdInflaterCount.increment();
+        }
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+
+    /**
+     * Reset the provided Inflater and return it to the pool. If the pool is already full, then
+     * the Inflater's native memory is freed instead.
+     * @param inflater The Inflater to return.
+     */
+    public static void release(java.util.zip.Inflater inflater)
+    {
+        PreCondition.assertNotNull(inflater, "inflater");
+
+        inflater.reset();
+        if (!GitInflaterPool.pool.offer(inflater))
+        {
+            inflater.end();
+            GitInflaterPool.endedCount.increment();
+        }
+    }
+
+    /**
+     * Borrow a Deflater from the pool. The Deflater uses zlib's default compression level,
+     * which is also Git's default.
+     * @return A Deflater that is ready to compress new input.
+     */
+    public static java.util.zip.Deflater acquireDeflater()
+    {
+        java.util.zip.Deflater result = GitInflaterPool.deflaterPool.poll();
+        if (result == null)
+        {
+            result = new java.util.zip.Deflater(java.util.zip.Deflater.DEFAULT_COMPRESSION);
+            GitInflaterPool.createdDeflaterCount.increment();
+        }
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+
+    /**
+     * Reset the provided Deflater and return it to the pool. Its compression level and strategy
+     * are restored to their defaults. If the pool is already full, then the Deflater's native
+     * memory is freed instead.
+     * @param deflater The Deflater to return.
+     */
+    public static void releaseDeflater(java.util.zip.Deflater deflater)
+    {
+        PreCondition.assertNotNull(deflater, "deflater");
+
+        deflater.reset();
+        deflater.setLevel(java.util.zip.Deflater.DEFAULT_COMPRESSION);
+        deflater.setStrategy(java.util.zip.Deflater.DEFAULT_STRATEGY);
+        if (!GitInflaterPool.deflaterPool.offer(deflater))
+        {
+            deflater.end();
+            GitInflaterPool.endedDeflaterCount.increment();
+        }
+    }
+
+    /**
+     * Get the number of Inflaters that are waiting in the pool.
+     * @return The number of Inflaters that are waiting in the pool.
+     */
+    static int getPooledCount()
+    {
+        return GitInflaterPool.pool.getCount();
+    }
+
+    /**
+     * Get the maximum number of Inflaters that can wait in the pool.
+     * @return The maximum number of Inflaters that can wait in the pool.
+     */
+    static int getMaximumPooledCount()
+    {
+        return GitInflaterPool.pool.getMaximumCount();
+    }
+
+    /**
+     * Get the number of Deflaters that are waiting in the pool.
+     * @return The number of Deflaters that are waiting in the pool.
+     */
+    static int getPooledDeflaterCount()
+    {
+        return GitInflaterPool.deflaterPool.getCount();
+    }
+
+    /**
+     * Get the maximum number of Deflaters that can wait in the pool.
+     * @return The maximum number of Deflaters that can wait in the pool.
+     */
+    static int getMaximumPooledDeflaterCount()
+    {
+        return GitInflaterPool.deflaterPool.getMaximumCount();
+    }
+
+    /**
+     * Get the number of Inflaters that have been created because none were available to reuse.
+     * @return The number of Inflaters that have been created.
+     */
+    public static long getCreatedInflaterCount()
+    {
+        return GitInflaterPool.createdInflaterCount.sum();
+    }
+
+    /**
+     * Get the number of acquires that reused an Inflater from the stripe of the pool that the
+     * calling thread hashes to.
+     * @return The number of acquires that were served by the calling thread's stripe.
+     */
+    public static long getHomeStripeReuseCount()
+    {
+        return GitInflaterPool.homeStripeReuseCount.sum();
+    }
+
+    /**
+     * Get the number of acquires that reused an Inflater from a stripe of the pool other than
+     * the one that the calling thread hashes to.
+     * @return The number of acquires that were served by another thread's stripe.
+     */
+    public static long getOtherStripeReuseCount()
+    {
+        return GitInflaterPool.otherStripeReuseCount.sum();
+    }
+
+    /**
+     * Get the number of released Inflaters whose native memory was freed because the pool was
+     * full.
+     * @return The number of Inflaters that have been ended.
+     */
+    public static long getEndedCount()
+    {
+        return GitInflaterPool.endedCount.sum();
+    }
+
+    /**
+     * Get the number of Deflaters that have been created because none were available to reuse.
+     * @return The number of Deflaters that have been created.
+     */
+    public static long getCreatedDeflaterCount()
+    {
+        return GitInflaterPool.createdDeflaterCount.sum();
+    }
+
+    /**
+     * Get the number of acquires that reused a Deflater from the stripe of the Deflater pool
+     * that the calling thread hashes to.
+     * @return The number of Deflater acquires that were served by the calling thread's stripe.
+     */
+    public static long getDeflaterHomeStripeReuseCount()
+    {
+        return GitInflaterPool.deflaterHomeStripeReuseCount.sum();
+    }
+
+    /**
+     * Get the number of acquires that reused a Deflater from a stripe of the Deflater pool
+     * other than the one that the calling thread hashes to.
+     * @return The number of Deflater acquires that were served by another thread's stripe.
+     */
+    public static long getDeflaterOtherStripeReuseCount()
+    {
+        return GitInflaterPool.deflaterOtherStripeReuseCount.sum();
+    }
+
+    /**
+     * Get the number of released Deflaters whose native memory was freed because the pool was
+     * full.
+     * @return The number of Deflaters that have been ended.
+     */
+    public static long getEndedDeflaterCount()
+    {
+        return GitInflaterPool.endedDeflaterCount.sum();
+    }
+
+    /**
+     * Get the number of objects that were completely inflated into an Inflater's direct scratch
+     * buffer with a single native call.
+     * @return The number of objects that took the small object fast path.
+     */
+    public static long getSmallObjectCount()
+    {
+        return GitInflaterPool.smallObjectCount.sum();
+    }
+
+    /**
+     * Get the number of direct scratch buffers that have been allocated. Each pooled Inflater
+     * allocates one the first time that it inflates a small object.
+     * @return The number of direct scratch buffers that have been allocated.
+     */
+    public static long getDirectBufferAllocationCount()
+    {
+        return GitInflaterPool.directBufferAllocationCount.sum();
+    }
+
+    /**
+     * Get the direct scratch buffer of the provided Inflater, cleared. Inflaters that weren't
+     * borrowed from this pool don't own a scratch buffer, so they get a new heap buffer instead.
+     * The buffer belongs to the Inflater, so it must not be used after the Inflater is released.
+     * @param inflater The Inflater to get the scratch buffer of.
+     * @return The scratch buffer of the provided Inflater, with a capacity of
+     * {@link #smallObjectLimit} bytes.
+     */
+    static java.nio.ByteBuffer getScratchBuffer(java.util.zip.Inflater inflater)
+    {
+        PreCondition.assertNotNull(inflater, "inflater");
+
+        java.nio.ByteBuffer result;
+        if (inflater instanceof PooledInflater)
+        {
+            final PooledInflater pooledInflater = (PooledInflater)inflater;
+            if (pooledInflater.scratchBuffer == null)
+            {
+                pooledInflater.scratchBuffer = java.nio.ByteBuffer.allocateDirect(GitInflaterPool.smallObjectLimit);
+                GitInflaterPool.directBufferAllocationCount.increment();
+            }
+            result = pooledInflater.scratchBuffer;
+            result.clear();
+        }
+        else
+        {
+            result = java.nio.ByteBuffer.allocate(GitInflaterPool.smallObjectLimit);
+        }
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+
+    /**
+     * Decompress the provided zlib input into the provided output range with the provided
+     * Inflater. The Inflater's input must already have been set.
+     * @param inflater The Inflater to decompress with.
+     * @param output The array to decompress into.
+     * @param startIndex The index in output where the decompressed bytes will start.
+     * @param length The number of decompressed bytes to produce.
+     * @return The number of decompressed bytes that were produced. This is less than length
+     * only if the zlib stream ended first.
+     */
+    static int inflate(java.util.zip.Inflater inflater, byte[] output, int startIndex, int length)
+    {
+        return GitInflaterPool.inflate(inflater, output, startIndex, length, false);
+    }
+
+    /**
+     * Decompress the provided zlib input into the provided output range with the provided
+     * Inflater. The Inflater's input must already have been set.
+     * @param inflater The Inflater to decompress with.
+     * @param output The array to decompress into.
+     * @param startIndex The index in output where the decompressed bytes will start.
+     * @param length The number of decompressed bytes to produce.
+     * @param returnWhenInputNeeded Whether to return when the Inflater runs out of input so that
+     *                              the caller can provide more input. If this is false, then
+     *                              running out of input is an error.
+     * @return The number of decompressed bytes that were produced.
+     */
+    static int inflate(java.util.zip.Inflater inflater, byte[] output, int startIndex, int length, boolean returnWhenInputNeeded)
+    {
+        PreCondition.assertNotNull(inflater, "inflater");
+        PreCondition.assertNotNull(output, "output");
+        PreCondition.assertStartIndex(startIndex, output.length + 1);
+        PreCondition.assertLength(length, startIndex, output.length);
+
+        int result = 0;
+        try
+        {
+            while (result < length && !inflater.finished())
+            {
+                final int inflated = inflater.inflate(output, startIndex + result, length - result);
+                if (inflated == 0 && inflater.needsInput() && returnWhenInputNeeded)
+                {
+                    break;
+                }
+                else if (inflated == 0 && !inflater.finished() && (inflater.needsInput() || inflater.needsDictionary()))
+                {
+                    throw new java.util.zip.DataFormatException("Unexpected end of zlib input.");
+                }
+                result += inflated;
+            }
+        }
+        catch (java.util.zip.DataFormatException e)
+        {
+            throw new GitException("Invalid compressed Git object data: " + e.getMessage(), e);
+        }
+        return result;
+    }
+
+    /**
+     * Decompress the provided zlib input into the remaining space of the provided buffer with
+     * the provided Inflater. The Inflater's input must already have been set, and running out of
+     * input is an error. The buffer's position is advanced past the decompressed bytes.
+     * @param inflater The Inflater to decompress with.
+     * @param output The buffer to decompress into.
+     * @return The number of decompressed bytes that were produced. This is less than the
+     * buffer's remaining space only if the zlib stream ended first.
+     */
+    static int inflate(java.util.zip.Inflater inflater, java.nio.ByteBuffer output)
+    {
+        PreCondition.assertNotNull(inflater, "inflater");
+        PreCondition.assertNotNull(output, "output");
+
+        int result = 0;
+        try
+        {
+            while (output.hasRemaining() && !inflater.finished())
+            {
+                final int inflated = inflater.inflate(output);
+                if (inflated == 0 && !inflater.finished() && (inflater.needsInput() || inflater.needsDictionary()))
+                {
+                    throw new java.util.zip.DataFormatException("Unexpected end of zlib input.");
+                }
+                result += inflated;
+            }
+        }
+        catch (java.util.zip.DataFormatException e)
+        {
+            throw new GitException("Invalid compressed Git object data: " + e.getMessage(), e);
+        }
+        return result;
+    }
+
+    /**
+     * Decompress the start of the provided Inflater's zlib input into the Inflater's direct
+     * scratch buffer with a single pass. If the zlib stream is no longer than
+     * {@link #smallObjectLimit} bytes, then the Inflater is finished afterwards and the buffer
+     * holds the entire decompressed stream. Otherwise the caller continues decompressing from
+     * where the buffer ends.
+     * @param inflater The Inflater to decompress with. Its input must already have been set.
+     * @return The Inflater's direct scratch buffer, flipped so that it contains the
+     * decompressed bytes. The buffer must not be used after the Inflater is released.
+     */
+    static java.nio.ByteBuffer inflateSmall(java.util.zip.Inflater inflater)
+    {
+        PreCondition.assertNotNull(inflater, "inflater");
+
+        final java.nio.ByteBuffer result = GitInflaterPool.getScratchBuffer(inflater);
+        GitInflaterPool.inflate(inflater, result);
+        result.flip();
+        if (inflater.finished())
+        {
+            GitInflaterPool.smallObjectCount.increment();
+        }
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+
+    /**
+     * Compress the provided bytes into a zlib stream with a pooled Deflater. The compressed
+     * bytes are produced into a heap array that is sized to zlib's bound on the compressed
+     * length, so a single pass is enough, and then copied into an array of exactly the right
+     * size.
+     * @param input The bytes to compress.
+     * @param startIndex The index of the first byte to compress.
+     * @param length The number of bytes to compress.
+     * @return The zlib stream.
+     */
+    static byte[] deflate(byte[] input, int startIndex, int length)
+    {
+        PreCondition.assertNotNull(input, "input");
+        PreCondition.assertStartIndex(startIndex, input.length + 1);
+        PreCondition.assertLength(length, startIndex, input.length);
+
+        final java.util.zip.Deflater deflater = GitInflaterPool.acquireDeflater();
+        try
+        {
+            deflater.setInput(input, startIndex, length);
+            deflater.finish();
+
+            // zlib's compressBound() plus the zlib header and trailer.
+            final long bound = (long)length + (length >> 12) + (length >> 14) + (length >> 25) + 13 + 6;
+            byte[] output = new byte[(int)Math.min(Integer.MAX_VALUE - 8, bound)];
+            int outputLength = 0;
+            while (!deflater.finished())
+            {
+                if (outputLength == output.length)
+                {
+                    output = java.util.Arrays.copyOf(output, (int)Math.min(Integer.MAX_VALUE - 8, output.length * 2L));
+                }
+                outputLength += deflater.deflate(output, outputLength, output.length - outputLength);
+            }
+            return java.util.Arrays.copyOf(output, outputLength);
+        }
+        finally
+        {
+            GitInflaterPool.releaseDeflater(deflater);
+        }
+    }
+
+    /**
+     * An Inflater that was created by this pool. It owns the direct scratch buffer that small
+     * objects are inflated into, so the scratch buffer is reused for as long as the Inflater is
+     * pooled. Ending the Inflater doesn't free the buffer: like any direct buffer, its memory is
+     * only freed when the garbage collector reclaims it after the Inflater is dropped.
+     */
+    private static class PooledInflater extends java.util.zip.Inflater
+    {
+        private java.nio.ByteBuffer scratchBuffer;
+    }
+
+    /**
+     * A bounded pool that is split into one small stack per processor. Each thread uses the
+     * stack that its identity hashes to first, and only takes the other stacks' locks when its
+     * own stack is empty (on poll) or full (on offer).
+     * @param <T> The type of values in the pool.
+     */
+    private static class Stripes<T>
+    {
+        private final java.util.List<java.util.ArrayDeque<T>> stripes;
+        private final java.util.concurrent.atomic.LongAdder homeStripeReuseCount;
+        private final java.util.concurrent.atomic.LongAdder otherStripeReuseCount;
+
+        /**
+         * Create a new empty pool.
+         * @param homeStripeReuseCount The counter of polls that are served by the calling
+         *                             thread's stripe.
+         * @param otherStripeReuseCount The counter of polls that are served by another stripe.
+         */
+        Stripes(java.util.concurrent.atomic.LongAdder homeStripeReuseCount, java.util.concurrent.atomic.LongAdder otherStripeReuseCount)
+        {
+            this.homeStripeReuseCount = homeStripeReuseCount;
+            this.otherStripeReuseCount = otherStripeReuseCount;
+
+            int stripeCount = 1;
+            while (stripeCount < Runtime.getRuntime().availableProcessors())
+            {
+                stripeCount *= 2;
+            }
+            this.stripes = new java.util.ArrayList<>(stripeCount);
+            for (int i = 0; i < stripeCount; ++i)
+            {
+                this.stripes.add(new java.util.ArrayDeque<>(GitInflaterPool.maximumStripePooledCount));
+            }
+        }
+
+        private int getHomeStripeIndex()
+        {
+            final int hash = System.identityHashCode(Thread.currentThread());
+            return (hash ^ (hash >>> 16)) & (this.stripes.size() - 1);
+        }
+
+        /**
+         * Take a value from the pool.
+         * @return A value from the pool, or null if the pool is empty.
+         */
+        T poll()
+        {
+            T result = null;
+            final int homeStripeIndex = this.getHomeStripeIndex();
+            for (int i = 0; i < this.stripes.size() && result == null; ++i)
+            {
+                final java.util.ArrayDeque<T> stripe = this.stripes.get((homeStripeIndex + i) & (this.stripes.size() - 1));
+                synchronized (stripe)
+                {
+                    result = stripe.pollLast();
+                }
+                if (result != null)
+                {
+                    (i == 0 ? this.homeStripeReuseCount : this.otherStripeReuseCount).increment();
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Add a value to the pool.
+         * @param value The value to add.
+         * @return Whether the value was added. The value isn't added if the pool is full.
+         */
+        boolean offer(T value)
+        {
+            boolean result = false;
+            final int homeStripeIndex = this.getHomeStripeIndex();
+            for (int i = 0; i < this.stripes.size() && !result; ++i)
+            {
+                final java.util.ArrayDeque<T> stripe = this.stripes.get((homeStripeIndex + i) & (this.stripes.size() - 1));
+                synchronized (stripe)
+                {
+                    if (stripe.size() < GitInflaterPool.maximumStripePooledCount)
+                    {
+                        stripe.addLast(value);
+                        result = true;
+                    }
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Get the number of values in the pool.
+         * @return The number of values in the pool.
+         */
+        int getCount()
+        {
+            int result = 0;
+            for (final java.util.ArrayDeque<T> stripe : this.stripes)
+            {
+                synchronized (stripe)
+                {
+                    result += stripe.size();
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Get the maximum number of values that the pool can hold.
+         * @return The maximum number of values that the pool can hold.
+         */
+        int getMaximumCount()
+        {
+            return this.stripes.size() * GitInflaterPool.maximumStripePooledCount;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package qub;
+
+/**
+ * The result of cloning a repository that is on the local machine with
+ * {@link Git#cloneLocal(Folder, Folder, boolean, Action1)}.
+ */
+public class GitLocalCloneResult
+{
+    private final GitLocalCloneStrategy strategy;
+    private final int exitCode;
+
+    private GitLocalCloneResult(GitLocalCloneStrategy strategy, int exitCode)
+    {
+        this.strategy = strategy;
+        this.exitCode = exitCode;
+    }
+
+    /**
+     * Create a new GitLocalCloneResult.
+     * @param strategy The strategy that the clone used.
+     * @param exitCode The exit code of the clone.
+     * @return The new GitLocalCloneResult.
+     */
+    public static GitLocalCloneResult create(GitLocalCloneStrategy strategy, int exitCode)
+    {
+        PreCondition.assertNotNull(strategy, "strategy");
+
+        return new GitLocalCloneResult(strategy, exitCode);
+    }
+
+    /**
+     * Get the strategy that the clone used.
+     * @return The strategy that the clone used.
+     */
+    public GitLocalCloneStrategy getStrategy()
+    {
+        return this.strategy;
+    }
+
+    /**
+     * Get the exit code of the clone.
+     * @return The exit code of the clone.
+     */
+    public int getExitCode()
+    {
+        return this.exitCode;
+    }
+
+    /**
+     * Get whether the clone finished with a zero exit code.
+     * @return Whether the clone finished with a zero exit code.
+     */
+    public boolean isSuccess()
+    {
+        return this.exitCode == 0;
+    }
+
+    @Override
+    public String toString()
+    {
+        return this.strategy + ": exit code " + this.exitCode;
+    }
+}
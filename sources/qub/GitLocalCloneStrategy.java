@@ -0,0 +1,143 @@
+package qub;
+
+/**
+ * The ways that "git clone" can copy the objects of a repository that is on the local machine.
+ */
+public enum GitLocalCloneStrategy
+{
+    /**
+     * Hardlink the files under the source repository's ".git/objects" folder into the new
+     * repository ("--local"). Git objects are never modified after they are written, so this is
+     * safe, and the cost is one link per file no matter how big the repository is. Git fails the
+     * clone instead of copying if a link can't be created, so this is only chosen when both
+     * repositories are on the same file store.
+     */
+    Hardlinks("--local"),
+
+    /**
+     * Copy the files under the source repository's ".git/objects" folder into the new repository
+     * ("--local --no-hardlinks").
+     */
+    Copy("--local", "--no-hardlinks"),
+
+    /**
+     * Don't copy any objects, and point the new repository at the source repository's objects
+     * through its "objects/info/alternates" file ("--shared"). This is the cheapest strategy,
+     * but the new repository is broken if the source repository deletes objects that it still
+     * needs, so it is only used when it is asked for.
+     */
+    Shared("--shared"),
+
+    /**
+     * Let "git clone" pick how to copy the objects by not passing any strategy arguments. Git
+     * tries to hardlink the files under the source repository's ".git/objects" folder and
+     * copies them if a link can't be created. This is chosen when it can't be determined whether
+     * both repositories are on the same file store.
+     */
+    Default();
+
+    private final String[] arguments;
+
+    GitLocalCloneStrategy(String... arguments)
+    {
+        this.arguments = arguments;
+    }
+
+    /**
+     * Get the "git clone" arguments that select this strategy.
+     * @return The "git clone" arguments that select this strategy.
+     */
+    public Iterable<String> getArguments()
+    {
+        return Iterable.create(this.arguments);
+    }
+
+    /**
+     * Add the arguments that select this strategy to the provided parameters.
+     * @param parameters The parameters to add this strategy's arguments to.
+     */
+    void addTo(GitCloneParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        for (final String argument : this.arguments)
+        {
+            parameters.addCommandArgument(argument);
+        }
+    }
+
+    /**
+     * Get the cheapest safe strategy for cloning the provided local repository into the provided
+     * directory. {@link #Shared} is returned if shared is true. If either folder isn't on the
+     * local disk (such as a folder in an in-memory file system or in a file system that wraps or
+     * virtualizes another one), then the file stores can't be compared, and {@link #Default} is
+     * returned. Otherwise {@link #Hardlinks} is returned if the repository and the directory are
+     * on the same file store, and {@link #Copy} is returned if they aren't or if either file
+     * store can't be read.
+     * @param repository The local repository that will be cloned.
+     * @param directory The directory that the repository will be cloned into. This folder
+     *                  doesn't need to exist yet.
+     * @param shared Whether the new repository should share the source repository's objects.
+     * @return The cheapest safe strategy for the clone.
+     */
+    public static GitLocalCloneStrategy choose(Folder repository, Folder directory, boolean shared)
+    {
+        PreCondition.assertNotNull(repository, "repository");
+        PreCondition.assertNotNull(directory, "directory");
+
+        GitLocalCloneStrategy result;
+        if (shared)
+        {
+            result = GitLocalCloneStrategy.Shared;
+        }
+        else
+        {
+            final java.nio.file.Path repositoryPath = GitNativeFiles.getPath(repository);
+            final java.nio.file.Path directoryPath = GitNativeFiles.getPath(directory);
+            if (repositoryPath == null || directoryPath == null)
+            {
+                result = GitLocalCloneStrategy.Default;
+            }
+            else
+            {
+                final java.nio.file.FileStore repositoryStore = GitLocalCloneStrategy.getFileStore(repositoryPath);
+                final java.nio.file.FileStore directoryStore = GitLocalCloneStrategy.getFileStore(directoryPath);
+                result = repositoryStore != null && repositoryStore.equals(directoryStore)
+                    ? GitLocalCloneStrategy.Hardlinks
+                    : GitLocalCloneStrategy.Copy;
+            }
+        }
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+
+    /**
+     * Get the file store of the provided path, or of its closest existing ancestor if the path
+     * doesn't exist yet.
+     * @param path The path to get the file store of.
+     * @return The file store, or null if it couldn't be determined.
+     */
+    private static java.nio.file.FileStore getFileStore(java.nio.file.Path path)
+    {
+        java.nio.file.FileStore result = null;
+        java.nio.file.Path current = path.toAbsolutePath();
+        while (result == null && current != null)
+        {
+            try
+            {
+                result = java.nio.file.Files.getFileStore(current);
+            }
+            catch (java.nio.file.NoSuchFileException e)
+            {
+                current = current.getParent();
+            }
+            catch (java.io.IOException e)
+            {
+                current = null;
+            }
+        }
+        return result;
+    }
+}
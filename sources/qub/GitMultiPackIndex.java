@@ -0,0 +1,280 @@
+package qub;
+
+/**
+ * A multi-pack-index ("objects/pack/multi-pack-index" file). A multi-pack-index is one sorted
+ * index of the objects in many pack files, so a single fanout lookup and binary search finds an
+ * object no matter how many pack files the repository has. Each object in the index refers to
+ * the pack file that contains it and the offset of the object within that pack file.
+ */
+public class GitMultiPackIndex
+{
+    private static final int signature = 0x4D494458;
+    private static final int headerLength = 12;
+    private static final int fanoutLength = 256 * 4;
+
+    private static final int packNamesChunkId = 0x504E414D;
+    private static final int objectIdFanoutChunkId = 0x4F494446;
+    private static final int objectIdLookupChunkId = 0x4F49444C;
+    private static final int objectOffsetsChunkId = 0x4F4F4646;
+    private static final int largeOffsetsChunkId = 0x4C4F4646;
+
+    private final GitPackData data;
+    private final int objectIdLength;
+    private final List<String> packNames;
+    private final int objectCount;
+    private final long fanoutPosition;
+    private final long objectIdsPosition;
+    private final long offsetsPosition;
+    private final long largeOffsetsPosition;
+    private final long largeOffsetsLength;
+
+    private GitMultiPackIndex(GitPackData data, int objectIdLength, List<String> packNames, int objectCount, long fanoutPosition, long objectIdsPosition, long offsetsPosition, long largeOffsetsPosition, long largeOffsetsLength)
+    {
+        this.data = data;
+        this.objectIdLength = objectIdLength;
+        this.packNames = packNames;
+        this.objectCount = objectCount;
+        this.fanoutPosition = fanoutPosition;
+        this.objectIdsPosition = objectIdsPosition;
+        this.offsetsPosition = offsetsPosition;
+        this.largeOffsetsPosition = largeOffsetsPosition;
+        this.largeOffsetsLength = largeOffsetsLength;
+    }
+
+    /**
+     * Open the multi-pack-index in the provided file.
+     * @param multiPackIndexFile The "multi-pack-index" file.
+     * @param objectIdLength The number of bytes in the repository's object ids.
+     * @return The multi-pack-index.
+     */
+    public static Result<GitMultiPackIndex> open(File multiPackIndexFile, int objectIdLength)
+    {
+        PreCondition.assertNotNull(multiPackIndexFile, "multiPackIndexFile");
+        PreCondition.assertTrue(GitObjectId.isValidLength(objectIdLength), "GitObjectId.isValidLength(objectIdLength)");
+
+        return GitPackData.open(multiPackIndexFile)
+            .then((GitPackData data) -> GitMultiPackIndex.parse(data, objectIdLength).await());
+    }
+
+    /**
+     * Parse the multi-pack-index in the provided data.
+     * @param data The bytes of the "multi-pack-index" file.
+     * @param objectIdLength The number of bytes in the repository's object ids.
+     * @return The multi-pack-index.
+     */
+    static Result<GitMultiPackIndex> parse(GitPackData data, int objectIdLength)
+    {
+        PreCondition.assertNotNull(data, "data");
+        PreCondition.assertTrue(GitObjectId.isValidLength(objectIdLength), "GitObjectId.isValidLength(objectIdLength)");
+
+        return Result.create(() ->
+        {
+            if (data.getLength() < GitMultiPackIndex.headerLength || data.getInt(0) != GitMultiPackIndex.signature)
+            {
+                throw new ParseException("Expected the multi-pack-index to start with \"MIDX\".");
+            }
+            final int version = data.getByte(4) & 0xFF;
+            if (version != 1)
+            {
+                throw new ParseException("Unsupported multi-pack-index version: " + version);
+            }
+            final int objectIdVersion = data.getByte(5) & 0xFF;
+            final int fileObjectIdLength = objectIdVersion == 1 ? GitObjectId.sha1Length : objectIdVersion == 2 ? GitObjectId.sha256Length : -1;
+            if (fileObjectIdLength != objectIdLength)
+            {
+                throw new ParseException("Expected the multi-pack-index to use " + objectIdLength + " byte object ids, but found object id version " + objectIdVersion + ".");
+            }
+            final int chunkCount = data.getByte(6) & 0xFF;
+            final int baseCount = data.getByte(7) & 0xFF;
+            if (baseCount != 0)
+            {
+                throw new ParseException("Incremental multi-pack-index chains are not supported.");
+            }
+            final long packCount = data.getUnsignedInt(8);
+
+            final long dataEnd = data.getLength() - objectIdLength;
+            final GitChunkTable chunkTable = GitChunkTable.parse(data, GitMultiPackIndex.headerLength, chunkCount, dataEnd, "multi-pack-index");
+            final long packNamesPosition = chunkTable.getRequiredStart(GitMultiPackIndex.packNamesChunkId);
+            final long packNamesEnd = packNamesPosition + chunkTable.getLength(GitMultiPackIndex.packNamesChunkId);
+            final long fanoutPosition = chunkTable.getRequiredStart(GitMultiPackIndex.objectIdFanoutChunkId);
+            final long objectIdsPosition = chunkTable.getRequiredStart(GitMultiPackIndex.objectIdLookupChunkId);
+            final long objectIdsLength = chunkTable.getLength(GitMultiPackIndex.objectIdLookupChunkId);
+            final long offsetsPosition = chunkTable.getRequiredStart(GitMultiPackIndex.objectOffsetsChunkId);
+            final long offsetsLength = chunkTable.getLength(GitMultiPackIndex.objectOffsetsChunkId);
+            final long largeOffsetsPosition = chunkTable.getStart(GitMultiPackIndex.largeOffsetsChunkId);
+            final long largeOffsetsLength = chunkTable.getLength(GitMultiPackIndex.largeOffsetsChunkId);
+            if (chunkTable.getLength(GitMultiPackIndex.objectIdFanoutChunkId) != GitMultiPackIndex.fanoutLength)
+            {
+                throw new ParseException("Expected the multi-pack-index fanout chunk to contain " + GitMultiPackIndex.fanoutLength + " bytes, but found " + chunkTable.getLength(GitMultiPackIndex.objectIdFanoutChunkId) + ".");
+            }
+
+            long objectCount = 0;
+            for (int i = 0; i < 256; ++i)
+            {
+                final long count = data.getUnsignedInt(fanoutPosition + (i * 4L));
+                if (count < objectCount)
+                {
+                    throw new ParseException("The fanout table of the multi-pack-index is not sorted.");
+                }
+                objectCount = count;
+            }
+            if (objectIdsLength != objectCount * objectIdLength || offsetsLength != objectCount * 8)
+            {
+                throw new ParseException("Expected the multi-pack-index to contain " + objectCount + " objects, but its chunks have the wrong sizes.");
+            }
+
+            final List<String> packNames = List.create();
+            long position = packNamesPosition;
+            while (packNames.getCount() < packCount)
+            {
+                final long nameStart = position;
+                while (position < packNamesEnd && data.getByte(position) != 0)
+                {
+                    ++position;
+                }
+                if (position >= packNamesEnd)
+                {
+                    throw new ParseException("Expected the multi-pack-index to contain " + packCount + " pack names, but found " + packNames.getCount() + ".");
+                }
+                final byte[] nameBytes = new byte[(int)(position - nameStart)];
+                data.getBytes(nameStart, nameBytes, 0, nameBytes.length);
+                packNames.add(new String(nameBytes, java.nio.charset.StandardCharsets.UTF_8));
+                ++position;
+            }
+
+            return new GitMultiPackIndex(data, objectIdLength, packNames, (int)objectCount, fanoutPosition, objectIdsPosition, offsetsPosition, largeOffsetsPosition, largeOffsetsLength);
+        });
+    }
+
+    /**
+     * Get the names of the pack index files that this multi-pack-index covers. The position of a
+     * name in this list is the pack id that {@link #getPackId(int)} returns.
+     * @return The names of the pack index files that this multi-pack-index covers.
+     */
+    public Iterable<String> getPackNames()
+    {
+        return this.packNames;
+    }
+
+    /**
+     * Get the number of bytes in the object ids of this multi-pack-index.
+     * @return The number of bytes in the object ids of this multi-pack-index.
+     */
+    public int getObjectIdLength()
+    {
+        return this.objectIdLength;
+    }
+
+    /**
+     * Get the number of objects in this multi-pack-index.
+     * @return The number of objects in this multi-pack-index.
+     */
+    public int getObjectCount()
+    {
+        return this.objectCount;
+    }
+
+    /**
+     * Get the id of the object at the provided position in this multi-pack-index. Objects are
+     * sorted by their ids.
+     * @param index The position of the object in this multi-pack-index.
+     * @return The id of the object.
+     */
+    public GitObjectId getObjectId(int index)
+    {
+        PreCondition.assertIndexAccess(index, this.objectCount, "index");
+
+        return this.data.getObjectId(this.objectIdsPosition + ((long)index * this.objectIdLength), this.objectIdLength);
+    }
+
+    /**
+     * Get the id of the pack that contains the object at the provided position in this
+     * multi-pack-index.
+     * @param index The position of the object in this multi-pack-index.
+     * @return The position in {@link #getPackNames()} of the pack that contains the object.
+     */
+    public int getPackId(int index)
+    {
+        PreCondition.assertIndexAccess(index, this.objectCount, "index");
+
+        final long result = this.data.getUnsignedInt(this.offsetsPosition + (index * 8L));
+        if (result >= this.packNames.getCount())
+        {
+            throw new ParseException("The multi-pack-index refers to pack " + result + ", but it only contains " + this.packNames.getCount() + " packs.");
+        }
+        return (int)result;
+    }
+
+    /**
+     * Get the offset of the object at the provided position in this multi-pack-index within the
+     * pack file that contains it.
+     * @param index The position of the object in this multi-pack-index.
+     * @return The offset of the object in its pack file.
+     */
+    public long getOffset(int index)
+    {
+        PreCondition.assertIndexAccess(index, this.objectCount, "index");
+
+        long result = this.data.getUnsignedInt(this.offsetsPosition + (index * 8L) + 4);
+        if ((result & 0x80000000L) != 0 && this.largeOffsetsPosition != -1)
+        {
+            // Offsets that don't fit in 31 bits are stored in the large offset chunk, and the
+            // small offset holds the index of the large offset.
+            final long largeOffsetPosition = (result & 0x7FFFFFFFL) * 8;
+            if (largeOffsetPosition + 8 > this.largeOffsetsLength)
+            {
+                throw new ParseException("The multi-pack-index refers to a large offset that it doesn't contain.");
+            }
+            result = this.data.getLong(this.largeOffsetsPosition + largeOffsetPosition);
+        }
+        return result;
+    }
+
+    /**
+     * Get the position in this multi-pack-index of the object with the provided id.
+     * @param objectId The id of the object.
+     * @return The position in this multi-pack-index of the object, or -1 if this
+     * multi-pack-index doesn't contain the object.
+     */
+    public int indexOf(GitObjectId objectId)
+    {
+        PreCondition.assertNotNull(objectId, "objectId");
+
+        int result = -1;
+        if (objectId.getLength() == this.objectIdLength)
+        {
+            final int fanoutIndex = objectId.getFanoutIndex();
+            int low = fanoutIndex == 0 ? 0 : this.data.getInt(this.fanoutPosition + ((fanoutIndex - 1) * 4L));
+            int high = this.data.getInt(this.fanoutPosition + (fanoutIndex * 4L)) - 1;
+            while (low <= high)
+            {
+                final int middle = (low + high) >>> 1;
+                final int comparison = this.data.compareObjectId(objectId, this.objectIdsPosition + ((long)middle * this.objectIdLength));
+                if (comparison == 0)
+                {
+                    result = middle;
+                    break;
+                }
+                else if (comparison < 0)
+                {
+                    high = middle - 1;
+                }
+                else
+                {
+                    low = middle + 1;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get whether this multi-pack-index contains the object with the provided id.
+     * @param objectId The id of the object.
+     * @return Whether this multi-pack-index contains the object.
+     */
+    public boolean containsObject(GitObjectId objectId)
+    {
+        return this.indexOf(objectId) != -1;
+    }
+}
@@ -0,0 +1,105 @@
+package qub;
+
+/**
+ * The result of running a Git operation against one repository as part of a
+ * {@link GitMultiRepositoryRunner} run.
+ * @param <T> The type that identifies the repository.
+ */
+public class GitMultiRepositoryResult<T>
+{
+    private final T repository;
+    private final String host;
+    private final Integer exitCode;
+    private final Throwable error;
+
+    private GitMultiRepositoryResult(T repository, String host, Integer exitCode, Throwable error)
+    {
+        this.repository = repository;
+        this.host = host;
+        this.exitCode = exitCode;
+        this.error = error;
+    }
+
+    /**
+     * Create a new GitMultiRepositoryResult for an operation that ran to completion.
+     * @param repository The repository that the operation ran against.
+     * @param host The remote host of the repository, or null if the host is not known.
+     * @param exitCode The exit code of the operation.
+     * @param <T> The type that identifies the repository.
+     * @return The new GitMultiRepositoryResult.
+     */
+    public static <T> GitMultiRepositoryResult<T> create(T repository, String host, int exitCode)
+    {
+        PreCondition.assertNotNull(repository, "repository");
+
+        return new GitMultiRepositoryResult<>(repository, host, exitCode, null);
+    }
+
+    /**
+     * Create a new GitMultiRepositoryResult for an operation that failed with an error.
+     * @param repository The repository that the operation ran against.
+     * @param host The remote host of the repository, or null if the host is not known.
+     * @param error The error that the operation failed with.
+     * @param <T> The type that identifies the repository.
+     * @return The new GitMultiRepositoryResult.
+     */
+    public static <T> GitMultiRepositoryResult<T> createError(T repository, String host, Throwable error)
+    {
+        PreCondition.assertNotNull(repository, "repository");
+        PreCondition.assertNotNull(error, "error");
+
+        return new GitMultiRepositoryResult<>(repository, host, null, error);
+    }
+
+    /**
+     * Get the repository that the operation ran against.
+     * @return The repository that the operation ran against.
+     */
+    public T getRepository()
+    {
+        return this.repository;
+    }
+
+    /**
+     * Get the remote host of the repository, or null if the host is not known.
+     * @return The remote host of the repository, or null if the host is not known.
+     */
+    public String getHost()
+    {
+        return this.host;
+    }
+
+    /**
+     * Get the exit code of the operation, or null if the operation failed with an error.
+     * @return The exit code of the operation, or null if the operation failed with an error.
+     */
+    public Integer getExitCode()
+    {
+        return this.exitCode;
+    }
+
+    /**
+     * Get the error that the operation failed with, or null if the operation ran to completion.
+     * @return The error that the operation failed with, or null if the operation ran to
+     * completion.
+     */
+    public Throwable getError()
+    {
+        return this.error;
+    }
+
+    /**
+     * Get whether the operation ran to completion with a zero exit code.
+     * @return Whether the operation ran to completion with a zero exit code.
+     */
+    public boolean isSuccess()
+    {
+        return this.exitCode != null && this.exitCode == 0;
+    }
+
+    @Override
+    public String toString()
+    {
+        return this.repository + ": " + (this.error != null ? this.error.toString() : "exit code " + this.exitCode);
+    }
+}
@@ -0,0 +1,500 @@
+package qub;
+
+/**
+ * An object that runs Git operations against many repositories at the same time. The number of
+ * operations that run at once is limited both overall and per remote host, so that a large sync
+ * cycle scales with the number of available cores without overwhelming any single host.
+ */
+public class GitMultiRepositoryRunner
+{
+    private final Git git;
+    private int maximumParallelism;
+    private int maximumParallelismPerHost;
+    private java.util.concurrent.ThreadFactory threadFactory;
+
+    private GitMultiRepositoryRunner(Git git)
+    {
+        this.git = git;
+        this.maximumParallelism = Runtime.getRuntime().availableProcessors();
+        this.maximumParallelismPerHost = Integer.MAX_VALUE;
+        this.threadFactory = git.getThreadFactory();
+    }
+
+    /**
+     * Create a new GitMultiRepositoryRunner that will use the provided Git object to run
+     * operations.
+     * @param git The Git object that will be used to run operations.
+     * @return The new GitMultiRepositoryRunner.
+     */
+    public static GitMultiRepositoryRunner create(Git git)
+    {
+        PreCondition.assertNotNull(git, "git");
+
+        return new GitMultiRepositoryRunner(git);
+    }
+
+    /**
+     * Get the maximum number of operations that will run at the same time. This defaults to the
+     * number of available processors.
+     * @return The maximum number of operations that will run at the same time.
+     */
+    public int getMaximumParallelism()
+    {
+        return this.maximumParallelism;
+    }
+
+    /**
+     * Set the maximum number of operations that will run at the same time.
+     * @param maximumParallelism The maximum number of operations that will run at the same time.
+     * @return This object for method chaining.
+     */
+    public GitMultiRepositoryRunner setMaximumParallelism(int maximumParallelism)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(maximumParallelism, 1, "maximumParallelism");
+
+        this.maximumParallelism = maximumParallelism;
+
+        return this;
+    }
+
+    /**
+     * Get the maximum number of operations that will run against the same remote host at the
+     * same time. This defaults to no limit beyond {@link #getMaximumParallelism()}.
+     * @return The maximum number of operations that will run against the same remote host at the
+     * same time.
+     */
+    public int getMaximumParallelismPerHost()
+    {
+        return this.maximumParallelismPerHost;
+    }
+
+    /**
+     * Set the maximum number of operations that will run against the same remote host at the
+     * same time. Repositories whose remote host can't be determined are not limited by this
+     * value.
+     * @param maximumParallelismPerHost The maximum number of operations that will run against
+     *                                  the same remote host at the same time.
+     * @return This object for method chaining.
+     */
+    public GitMultiRepositoryRunner setMaximumParallelismPerHost(int maximumParallelismPerHost)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(maximumParallelismPerHost, 1, "maximumParallelismPerHost");
+
+        this.maximumParallelismPerHost = maximumParallelismPerHost;
+
+        return this;
+    }
+
+    /**
+     * Get the ThreadFactory that creates the threads that operations run on. This defaults to the
+     * ThreadFactory of the Git object that this runner was created with.
+     * @return The ThreadFactory that creates the threads that operations run on.
+     */
+    public java.util.concurrent.ThreadFactory getThreadFactory()
+    {
+        return this.threadFactory;
+    }
+
+    /**
+     * Set the ThreadFactory that creates the threads that operations run on.
+     * @param threadFactory The ThreadFactory that creates the threads that operations run on.
+     * @return This object for method chaining.
+     */
+    public GitMultiRepositoryRunner setThreadFactory(java.util.concurrent.ThreadFactory threadFactory)
+    {
+        PreCondition.assertNotNull(threadFactory, "threadFactory");
+
+        this.threadFactory = threadFactory;
+
+        return this;
+    }
+
+    /**
+     * Run operations on virtual threads instead of platform threads. A blocked git invocation
+     * then only holds on to a virtual thread, so the maximum parallelism can be raised far above
+     * the number of platform threads that the operating system can support.
+     * @return This object for method chaining, or an UnsupportedOperationException if the
+     * current Java runtime doesn't support virtual threads.
+     */
+    public Result<GitMultiRepositoryRunner> useVirtualThreads()
+    {
+        return GitVirtualThreads.getThreadFactory()
+            .then((java.util.concurrent.ThreadFactory virtualThreadFactory) -> this.setThreadFactory(virtualThreadFactory));
+    }
+
+    /**
+     * Run "git pull" in each of the provided repository folders. The remote host of each
+     * repository is read from the URL of its "origin" remote.
+     * @param repositoryFolders The repository folders to pull.
+     * @param parametersSetup The action that configures the parameters for each pull. The
+     *                        working folder is already set when this action is invoked.
+     * @param onCompleted The action that will be invoked as each repository's pull completes. The
+     *                    action is never invoked by more than one thread at a time.
+     * @return The results of each repository's pull, in the order that they completed.
+     */
+    public Result<Iterable<GitMultiRepositoryResult<Folder>>> pull(Iterable<Folder> repositoryFolders, Action1<GitPullParameters> parametersSetup, Action1<GitMultiRepositoryResult<Folder>> onCompleted)
+    {
+        PreCondition.assertNotNull(repositoryFolders, "repositoryFolders");
+        PreCondition.assertNotNull(parametersSetup, "parametersSetup");
+        PreCondition.assertNotNull(onCompleted, "onCompleted");
+
+        return this.run(
+            repositoryFolders,
+            GitMultiRepositoryRunner::getRemoteHost,
+            (Folder repositoryFolder) ->
+            {
+                return this.git.pull((GitPullParameters parameters) ->
+                {
+                    parameters.setWorkingFolder(repositoryFolder);
+                    parametersSetup.run(parameters);
+                }).await();
+            },
+            onCompleted);
+    }
+
+    /**
+     * Run "git clone" for each of the provided repositories. Each repository is cloned into the
+     * folder that is named after the "humanish" part of its URL within the provided parent
+     * folder.
+     * @param repositories The URLs or paths of the repositories to clone.
+     * @param parentFolder The folder that the repositories will be cloned into.
+     * @param parametersSetup The action that configures the parameters for each clone. The
+     *                        working folder is already set when this action is invoked, and the
+     *                        repository will be added after this action is invoked.
+     * @param onCompleted The action that will be invoked as each repository's clone completes.
+     *                    The action is never invoked by more than one thread at a time.
+     * @return The results of each repository's clone, in the order that they completed.
+     */
+    public Result<Iterable<GitMultiRepositoryResult<String>>> clone(Iterable<String> repositories, Folder parentFolder, Action1<GitCloneParameters> parametersSetup, Action1<GitMultiRepositoryResult<String>> onCompleted)
+    {
+        PreCondition.assertNotNull(repositories, "repositories");
+        PreCondition.assertNotNull(parentFolder, "parentFolder");
+        PreCondition.assertNotNull(parametersSetup, "parametersSetup");
+        PreCondition.assertNotNull(onCompleted, "onCompleted");
+
+        return this.run(
+            repositories,
+            GitMultiRepositoryRunner::getHost,
+            (String repository) ->
+            {
+                return this.git.clone((GitCloneParameters parameters) ->
+                {
+                    parameters.setWorkingFolder(parentFolder);
+                    parametersSetup.run(parameters);
+                    parameters.addRepository(repository);
+                }).await();
+            },
+            onCompleted);
+    }
+
+    /**
+     * Run the provided operation against each of the provided repositories.
+     * @param repositories The repositories to run the operation against.
+     * @param hostGetter The function that gets the remote host of a repository. The function can
+     *                   return null if the repository's remote host is not known.
+     * @param operation The operation to run against each repository. The operation returns the
+     *                  exit code of the Git command that it ran.
+     * @param onCompleted The action that will be invoked as each repository's operation
+     *                    completes. The action is never invoked by more than one thread at a
+     *                    time.
+     * @param <T> The type that identifies a repository.
+     * @return The results of each repository's operation, in the order that they completed.
+     */
+    public <T> Result<Iterable<GitMultiRepositoryResult<T>>> run(Iterable<T> repositories, Function1<T,String> hostGetter, Function1<T,Integer> operation, Action1<GitMultiRepositoryResult<T>> onCompleted)
+    {
+        PreCondition.assertNotNull(repositories, "repositories");
+        PreCondition.assertNotNull(hostGetter, "hostGetter");
+        PreCondition.assertNotNull(operation, "operation");
+        PreCondition.assertNotNull(onCompleted, "onCompleted");
+
+        return Result.create(() ->
+        {
+            final List<T> pendingRepositories = List.create();
+            final List<String> pendingHosts = List.create();
+            for (final T repository : repositories)
+            {
+                PreCondition.assertNotNull(repository, "repository");
+
+                pendingRepositories.add(repository);
+                pendingHosts.add(hostGetter.run(repository));
+            }
+
+            final List<GitMultiRepositoryResult<T>> result = List.create();
+            final MutableMap<String,Integer> activeHostCounts = Map.create();
+            // Locks are used instead of synchronized blocks so that waiting virtual threads don't
+            // pin their carrier threads.
+            final java.util.concurrent.locks.ReentrantLock schedulerLock = new java.util.concurrent.locks.ReentrantLock();
+            final java.util.concurrent.locks.Condition schedulerChanged = schedulerLock.newCondition();
+            final java.util.concurrent.locks.ReentrantLock onCompletedLock = new java.util.concurrent.locks.ReentrantLock();
+            final List<Throwable> workerErrors = List.create();
+
+            final Action0 worker = () ->
+            {
+                while (true)
+                {
+                    T repository = null;
+                    String host = null;
+                    schedulerLock.lock();
+                    try
+                    {
+                        while (repository == null && pendingRepositories.any() && !workerErrors.any())
+                        {
+                            final int repositoryIndex = this.getNextRepositoryIndex(pendingHosts, activeHostCounts);
+                            if (repositoryIndex < 0)
+                            {
+                                try
+                                {
+                                    schedulerChanged.await();
+                                }
+                                catch (InterruptedException e)
+                                {
+                                    Thread.currentThread().interrupt();
+                                    throw new GitException("Interrupted while waiting for a remote host to become available.", e);
+                                }
+                            }
+                            else
+                            {
+                                repository = pendingRepositories.removeAt(repositoryIndex);
+                                host = pendingHosts.removeAt(repositoryIndex);
+                                if (host != null)
+                                {
+                                    activeHostCounts.set(host, GitMultiRepositoryRunner.getActiveCount(activeHostCounts, host) + 1);
+                                }
+                            }
+                        }
+                    }
+                    finally
+                    {
+                        schedulerLock.unlock();
+                    }
+                    if (repository == null)
+                    {
+                        break;
+                    }
+
+                    GitMultiRepositoryResult<T> repositoryResult;
+                    try
+                    {
+                        repositoryResult = GitMultiRepositoryResult.create(repository, host, operation.run(repository));
+                    }
+                    catch (Throwable error)
+                    {
+                        repositoryResult = GitMultiRepositoryResult.createError(repository, host, error);
+                    }
+
+                    schedulerLock.lock();
+                    try
+                    {
+                        if (host != null)
+                        {
+                            activeHostCounts.set(host, GitMultiRepositoryRunner.getActiveCount(activeHostCounts, host) - 1);
+                        }
+                        result.add(repositoryResult);
+                        schedulerChanged.signalAll();
+                    }
+                    finally
+                    {
+                        schedulerLock.unlock();
+                    }
+
+                    onCompletedLock.lock();
+                    try
+                    {
+                        onCompleted.run(repositoryResult);
+                    }
+                    finally
+                    {
+                        onCompletedLock.unlock();
+                    }
+                }
+            };
+
+            final int workerCount = Math.min(this.maximumParallelism, pendingRepositories.getCount());
+            final List<Thread> workerThreads = List.create();
+            for (int i = 0; i < workerCount; ++i)
+            {
+                final Thread workerThread = this.startThread(() ->
+                {
+                    try
+                    {
+                        worker.run();
+                    }
+                    catch (Throwable error)
+                    {
+                        schedulerLock.lock();
+                        try
+                        {
+                            workerErrors.add(error);
+                            schedulerChanged.signalAll();
+                        }
+                        finally
+                        {
+                            schedulerLock.unlock();
+                        }
+                    }
+                });
+                workerThreads.add(workerThread);
+            }
+
+            for (final Thread workerThread : workerThreads)
+            {
+                try
+                {
+                    workerThread.join();
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                    throw new GitException("Interrupted while waiting for repository operations to complete.", e);
+                }
+            }
+
+            if (workerErrors.any())
+            {
+                throw new GitException("A repository operation worker failed.", workerErrors.first().await());
+            }
+
+            PostCondition.assertNotNull(result, "result");
+
+            return result;
+        });
+    }
+
+    private Thread startThread(Runnable action)
+    {
+        final Thread result = this.threadFactory.newThread(action);
+        if (result == null)
+        {
+            throw new GitException("The thread factory did not create a thread.");
+        }
+        result.start();
+        return result;
+    }
+
+    private int getNextRepositoryIndex(List<String> pendingHosts, Map<String,Integer> activeHostCounts)
+    {
+        int result = -1;
+        final int pendingCount = pendingHosts.getCount();
+        for (int i = 0; i < pendingCount; ++i)
+        {
+            final String host = pendingHosts.get(i);
+            if (host == null || GitMultiRepositoryRunner.getActiveCount(activeHostCounts, host) < this.maximumParallelismPerHost)
+            {
+                result = i;
+                break;
+            }
+        }
+        return result;
+    }
+
+    private static int getActiveCount(Map<String,Integer> activeHostCounts, String host)
+    {
+        final Integer activeCount = activeHostCounts.get(host)
+            .catchError(NotFoundException.class)
+            .await();
+        return activeCount == null ? 0 : activeCount;
+    }
+
+    /**
+     * Get the host portion of the provided repository URL. URLs with a scheme (such as
+     * "https://github.com/owner/repo") and scp-like URLs (such as "git@github.com:owner/repo")
+     * are supported.
+     * @param repository The repository URL.
+     * @return The lower-cased host of the repository, or null if the repository is a local path.
+     */
+    public static String getHost(String repository)
+    {
+        PreCondition.assertNotNullAndNotEmpty(repository, "repository");
+
+        String result = null;
+
+        final int schemeSeparatorIndex = repository.indexOf("://");
+        if (schemeSeparatorIndex > 0)
+        {
+            if (!repository.substring(0, schemeSeparatorIndex).equalsIgnoreCase("file"))
+            {
+                final int authorityStartIndex = schemeSeparatorIndex + "://".length();
+                int authorityEndIndex = repository.indexOf('/', authorityStartIndex);
+                if (authorityEndIndex < 0)
+                {
+                    authorityEndIndex = repository.length();
+                }
+                result = repository.substring(authorityStartIndex, authorityEndIndex);
+                result = result.substring(result.lastIndexOf('@') + 1);
+                final int portSeparatorIndex = result.lastIndexOf(':');
+                if (portSeparatorIndex >= 0)
+                {
+                    result = result.substring(0, portSeparatorIndex);
+                }
+            }
+        }
+        else
+        {
+            final int colonIndex = repository.indexOf(':');
+            final int slashIndex = repository.indexOf('/');
+            // A single character before the colon is a Windows drive letter, not a host.
+            if (colonIndex > 1 && (slashIndex < 0 || colonIndex < slashIndex))
+            {
+                result = repository.substring(0, colonIndex);
+                result = result.substring(result.lastIndexOf('@') + 1);
+            }
+        }
+
+        if (result != null)
+        {
+            result = Strings.isNullOrEmpty(result) ? null : result.toLowerCase();
+        }
+
+        return result;
+    }
+
+    /**
+     * Get the host of the "origin" remote of the provided repository folder. The remote is read
+     * from the configuration in the repository's common Git folder, so the host of a linked
+     * worktree, a submodule (whose ".git" is a file), or a bare repository is found too.
+     * @param repositoryFolder The repository folder.
+     * @return The lower-cased host of the repository's "origin" remote, or null if the host can't
+     * be determined.
+     */
+    public static String getRemoteHost(Folder repositoryFolder)
+    {
+        PreCondition.assertNotNull(repositoryFolder, "repositoryFolder");
+
+        String result = null;
+
+        final String configText = GitObjectDatabase.getGitFolder(repositoryFolder)
+            .then((Folder gitFolder) -> GitObjectDatabase.getCommonFolder(gitFolder).await())
+            .then((Folder commonFolder) -> commonFolder.getFile("config").await().getContentsAsString().await())
+            .catchError(FileNotFoundException.class)
+            .catchError(NotFoundException.class)
+            .catchError(ParseException.class)
+            .await();
+        if (configText != null)
+        {
+            boolean inOriginSection = false;
+            for (String line : configText.split("\n"))
+            {
+                line = line.trim();
+                if (line.startsWith("["))
+                {
+                    inOriginSection = line.replace(" ", "").equals("[remote\"origin\"]");
+                }
+                else if (inOriginSection && line.startsWith("url"))
+                {
+                    final int equalsIndex = line.indexOf('=');
+                    if (equalsIndex > 0 && line.substring(0, equalsIndex).trim().equals("url"))
+                    {
+                        final String url = line.substring(equalsIndex + 1).trim();
+                        if (!url.isEmpty())
+                        {
+                            result = GitMultiRepositoryRunner.getHost(url);
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+
+        return result;
+    }
+}
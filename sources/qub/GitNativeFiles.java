@@ -0,0 +1,45 @@
+package qub;
+
+/**
+ * Access to the java.nio paths of the files and folders that are on the local disk. Some
+ * operations (such as memory-mapping a pack file or finding the file store of a folder) can
+ * only be done with java.nio, but the path of an entry in a qub {@link FileSystem} only names a
+ * file on the local disk when the file system is a {@link JavaFileSystem}. The entries of any
+ * other file system (such as an {@link InMemoryFileSystem}, or a file system that wraps or
+ * virtualizes another one) don't have java.nio paths, and callers must fall back to the qub
+ * file APIs for them.
+ */
+final class GitNativeFiles
+{
+    private GitNativeFiles()
+    {
+    }
+
+    /**
+     * Get whether the entries of the provided file system are files and folders on the local
+     * disk that can be accessed with java.nio.
+     * @param fileSystem The file system to check.
+     * @return Whether the entries of the provided file system are on the local disk.
+     */
+    static boolean isNative(FileSystem fileSystem)
+    {
+        PreCondition.assertNotNull(fileSystem, "fileSystem");
+
+        return fileSystem instanceof JavaFileSystem;
+    }
+
+    /**
+     * Get the java.nio path of the provided file or folder.
+     * @param entry The file or folder to get the java.nio path of.
+     * @return The java.nio path of the provided entry, or null if the entry's file system isn't
+     * the local disk.
+     */
+    static java.nio.file.Path getPath(FileSystemEntry entry)
+    {
+        PreCondition.assertNotNull(entry, "entry");
+
+        return GitNativeFiles.isNative(entry.getFileSystem())
+            ? java.nio.file.Paths.get(entry.getPath().toString())
+            : null;
+    }
+}
@@ -0,0 +1,192 @@
+package qub;
+
+/**
+ * An object that was read from a Git repository's object database. The object's contents are a
+ * view over the bytes that the object was decompressed into, and the typed views
+ * ({@link GitCommit}, {@link GitTree}, {@link GitBlob}, and {@link GitTag}) only parse the parts
+ * of the contents that are asked for.
+ */
+public class GitObject
+{
+    private final GitObjectId objectId;
+    private final GitObjectType objectType;
+    private final GitByteSlice contents;
+
+    GitObject(GitObjectId objectId, GitObjectType objectType, GitByteSlice contents)
+    {
+        PreCondition.assertNotNull(objectId, "objectId");
+        PreCondition.assertNotNull(objectType, "objectType");
+        PreCondition.assertNotNull(contents, "contents");
+
+        this.objectId = objectId;
+        this.objectType = objectType;
+        this.contents = contents;
+    }
+
+    /**
+     * Create a new typed view of an object with the provided id, type, and contents.
+     * @param objectId The id of the object.
+     * @param objectType The type of the object.
+     * @param contents The contents of the object.
+     * @return The new object.
+     */
+    public static GitObject create(GitObjectId objectId, GitObjectType objectType, GitByteSlice contents)
+    {
+        PreCondition.assertNotNull(objectId, "objectId");
+        PreCondition.assertNotNull(objectType, "objectType");
+        PreCondition.assertNotNull(contents, "contents");
+
+        GitObject result;
+        switch (objectType)
+        {
+            case Commit:
+                result = new GitCommit(objectId, contents);
+                break;
+
+            case Tree:
+                result = new GitTree(objectId, contents);
+                break;
+
+            case Tag:
+                result = new GitTag(objectId, contents);
+                break;
+
+            default:
+                result = new GitBlob(objectId, contents);
+                break;
+        }
+        return result;
+    }
+
+    /**
+     * Get the id of this object.
+     * @return The id of this object.
+     */
+    public GitObjectId getObjectId()
+    {
+        return this.objectId;
+    }
+
+    /**
+     * Get the type of this object.
+     * @return The type of this object.
+     */
+    public GitObjectType getObjectType()
+    {
+        return this.objectType;
+    }
+
+    /**
+     * Get the size of this object's contents in bytes.
+     * @return The size of this object's contents in bytes.
+     */
+    public long getSize()
+    {
+        return this.contents.getLength();
+    }
+
+    /**
+     * Get this object's contents. The contents are not copied.
+     * @return This object's contents.
+     */
+    public GitByteSlice getContents()
+    {
+        return this.contents;
+    }
+
+    /**
+     * Get the "git cat-file --batch" entry that has the same data as this object.
+     * @return The "git cat-file --batch" entry that has the same data as this object.
+     */
+    public GitCatFileBatchEntry toCatFileBatchEntry()
+    {
+        return GitCatFileBatchEntry.create(this.objectId.toString(), this.objectType, this.getSize(), this.contents.getByteArray(), this.contents.getStartIndex());
+    }
+
+    /**
+     * Get the value of the first header line of this object's contents that has the provided
+     * name. Commits and tags start with header lines of the form "name value" that are followed
+     * by an empty line and then the message. Header values that continue onto following lines
+     * (lines that start with a space) include those lines.
+     * @param name The name of the header.
+     * @return The value of the header, or null if the header isn't found.
+     */
+    GitByteSlice getHeader(String name)
+    {
+        final Iterable<GitByteSlice> values = this.getHeaders(name);
+        return values.any() ? values.first().await() : null;
+    }
+
+    /**
+     * Get the values of the header lines of this object's contents that have the provided name.
+     * @param name The name of the headers.
+     * @return The values of the headers.
+     */
+    Iterable<GitByteSlice> getHeaders(String name)
+    {
+        PreCondition.assertNotNullAndNotEmpty(name, "name");
+
+        final List<GitByteSlice> result = List.create();
+        int lineStartIndex = 0;
+        while (lineStartIndex < this.contents.getLength() && this.contents.getByte(lineStartIndex) != '\n')
+        {
+            final int lineEndIndex = this.getHeaderEndIndex(lineStartIndex);
+            final GitByteSlice line = this.contents.slice(lineStartIndex, lineEndIndex - lineStartIndex);
+            if (line.getLength() > name.length() && line.startsWith(name) && line.getByte(name.length()) == ' ')
+            {
+                result.add(line.skip(name.length() + 1));
+            }
+            lineStartIndex = Math.min(lineEndIndex + 1, this.contents.getLength());
+        }
+        return result;
+    }
+
+    /**
+     * Get the index of the newline that ends the header that starts at the provided index.
+     * @param headerStartIndex The index of the start of the header.
+     * @return The index of the newline that ends the header, or the length of the contents if
+     * the header isn't terminated.
+     */
+    private int getHeaderEndIndex(int headerStartIndex)
+    {
+        int result = this.contents.indexOf((byte)'\n', headerStartIndex);
+        while (result != -1 && result + 1 < this.contents.getLength() && this.contents.getByte(result + 1) == ' ')
+        {
+            result = this.contents.indexOf((byte)'\n', result + 1);
+        }
+        return result == -1 ? this.contents.getLength() : result;
+    }
+
+    /**
+     * Get the message that follows the header lines of this object's contents.
+     * @return The message that follows the header lines of this object's contents.
+     */
+    GitByteSlice getMessageSlice()
+    {
+        int lineStartIndex = 0;
+        while (lineStartIndex < this.contents.getLength() && this.contents.getByte(lineStartIndex) != '\n')
+        {
+            lineStartIndex = this.getHeaderEndIndex(lineStartIndex) + 1;
+        }
+        return lineStartIndex >= this.contents.getLength()
+            ? this.contents.skip(this.contents.getLength())
+            : this.contents.skip(lineStartIndex + 1);
+    }
+
+    /**
+     * Parse the hexadecimal object id that is the value of the provided header.
+     * @param name The name of the header.
+     * @return The parsed object id, or null if the header isn't found.
+     */
+    GitObjectId getObjectIdHeader(String name)
+    {
+        final GitByteSlice value = this.getHeader(name);
+        return value == null ? null : GitObjectId.parse(value.getText()).await();
+    }
+
+    @Override
+    public String toString()
+    {
+        return this.objectId + " " + this.objectType + " " + this.getSize();
+    }
+}
@@ -0,0 +1,1029 @@
+package qub;
+
+/**
+ * A reader for a Git repository's object database that runs in this process instead of starting
+ * a Git process. Objects are looked up in the object database's pack files
+ * (".git/objects/pack/*.pack"), then in its loose objects folders (".git/objects/xx/yyyy..."),
+ * and then in the object databases that are listed in its "info/alternates" file. The pack
+ * files of an object database and its alternates share one {@link GitDeltaBaseCache}. Objects
+ * that can't be read by this reader can still be read with
+ * {@link Git#catFileBatch(Folder, Iterable)}.
+ */
+public class GitObjectDatabase
+{
+    /**
+     * The maximum depth of alternates that will be followed. This matches Git's own limit.
+     */
+    private static final int maximumAlternateDepth = 5;
+
+    /**
+     * The number of decompressed bytes that are guaranteed to contain a loose object's header.
+     * The longest header is "commit " followed by a 20-digit size and a NUL.
+     */
+    private static final int looseObjectHeaderLength = 32;
+
+    /**
+     * The number of milliseconds that must pass between the last modified time of the pack
+     * folder and a scan of the pack folder for the scan to be trusted. A pack file that is added
+     * within the same last modified time tick as a scan doesn't change the folder's last
+     * modified time, so misses keep scanning the pack folder until the tick has passed.
+     */
+    private static final long racyPackFolderMilliseconds = 2000;
+
+    private final Folder objectsFolder;
+    private final int objectIdLength;
+    private final int alternateDepth;
+    private Iterable<GitObjectDatabase> alternates;
+    private GitCommitGraph commitGraph;
+    private int commitGraphPacksVersion;
+    private GitBitmapIndex bitmapIndex;
+    private int bitmapIndexPacksVersion;
+    private final List<GitPackFile> packs;
+    private final List<String> packIndexNames;
+    private boolean packsScanned;
+    private int packsVersion;
+    private java.nio.file.attribute.FileTime packFolderLastModified;
+    private long packsScanMilliseconds;
+    private boolean hasPromisorPacks;
+    private GitMultiPackIndex multiPackIndex;
+    private GitPackFile[] multiPackIndexPacks;
+    private List<GitPackFile> uncoveredPacks;
+    private final GitDeltaBaseCache deltaBaseCache;
+    private volatile Function1<GitObjectId,GitObject> promisorObjectFetcher;
+
+    private GitObjectDatabase(Folder objectsFolder, int objectIdLength, int alternateDepth, GitDeltaBaseCache deltaBaseCache)
+    {
+        this.objectsFolder = objectsFolder;
+        this.objectIdLength = objectIdLength;
+        this.alternateDepth = alternateDepth;
+        this.deltaBaseCache = deltaBaseCache;
+        this.packs = List.create();
+        this.packIndexNames = List.create();
+        this.uncoveredPacks = List.create();
+        this.commitGraphPacksVersion = -1;
+        this.bitmapIndexPacksVersion = -1;
+    }
+
+    /**
+     * Create a new GitObjectDatabase that reads objects from the provided objects folder.
+     * @param objectsFolder The objects folder of a repository, such as ".git/objects".
+     * @return The new GitObjectDatabase.
+     */
+    public static GitObjectDatabase create(Folder objectsFolder)
+    {
+        PreCondition.assertNotNull(objectsFolder, "objectsFolder");
+
+        return GitObjectDatabase.create(objectsFolder, GitObjectId.sha1Length);
+    }
+
+    /**
+     * Create a new GitObjectDatabase that reads objects from the provided objects folder.
+     * @param objectsFolder The objects folder of a repository, such as ".git/objects".
+     * @param objectIdLength The number of bytes in the repository's object ids.
+     * @return The new GitObjectDatabase.
+     */
+    public static GitObjectDatabase create(Folder objectsFolder, int objectIdLength)
+    {
+        PreCondition.assertNotNull(objectsFolder, "objectsFolder");
+        PreCondition.assertTrue(GitObjectId.isValidLength(objectIdLength), "GitObjectId.isValidLength(objectIdLength)");
+
+        return GitObjectDatabase.create(objectsFolder, objectIdLength, GitDeltaBaseCache.create());
+    }
+
+    /**
+     * Create a new GitObjectDatabase that reads objects from the provided objects folder.
+     * @param objectsFolder The objects folder of a repository, such as ".git/objects".
+     * @param objectIdLength The number of bytes in the repository's object ids.
+     * @param deltaBaseCache The cache that holds the objects that pack file deltas are applied
+     *                       to.
+     * @return The new GitObjectDatabase.
+     */
+    public static GitObjectDatabase create(Folder objectsFolder, int objectIdLength, GitDeltaBaseCache deltaBaseCache)
+    {
+        PreCondition.assertNotNull(objectsFolder, "objectsFolder");
+        PreCondition.assertTrue(GitObjectId.isValidLength(objectIdLength), "GitObjectId.isValidLength(objectIdLength)");
+        PreCondition.assertNotNull(deltaBaseCache, "deltaBaseCache");
+
+        return new GitObjectDatabase(objectsFolder, objectIdLength, 0, deltaBaseCache);
+    }
+
+    /**
+     * Open the object database of the repository in the provided folder. The folder can be the
+     * root of a working tree (that contains a ".git" folder, or a ".git" file that points at the
+     * repository's Git folder), a linked worktree, or a bare repository.
+     * @param repositoryFolder The folder of the repository.
+     * @return The object database of the repository, or a {@link NotFoundException} if the
+     * folder isn't a repository.
+     */
+    public static Result<GitObjectDatabase> open(Folder repositoryFolder)
+    {
+        PreCondition.assertNotNull(repositoryFolder, "repositoryFolder");
+
+        return Result.create(() ->
+        {
+            final Folder gitFolder = GitObjectDatabase.getGitFolder(repositoryFolder).await();
+            final Folder commonFolder = GitObjectDatabase.getCommonFolder(gitFolder).await();
+
+            final Folder objectsFolder = commonFolder.getFolder("objects").await();
+            if (!objectsFolder.exists().await())
+            {
+                throw new NotFoundException("Could not find the objects folder of the Git repository at " + Strings.escapeAndQuote(repositoryFolder.getPath().toString()) + ".");
+            }
+            return GitObjectDatabase.create(objectsFolder, GitObjectDatabase.getObjectIdLength(commonFolder));
+        });
+    }
+
+    /**
+     * Get the number of bytes in the object ids of the repository with the provided Git folder.
+     * Repositories use SHA-1 object ids unless their configuration sets
+     * "extensions.objectFormat" to "sha256".
+     * @param gitFolder The Git folder of the repository.
+     * @return The number of bytes in the repository's object ids.
+     */
+    static int getObjectIdLength(Folder gitFolder)
+    {
+        PreCondition.assertNotNull(gitFolder, "gitFolder");
+
+        final String configuration = gitFolder.getFile("config")
+            .then((File configFile) -> configFile.getContentsAsString().await())
+            .catchError(NotFoundException.class, (NotFoundException error) -> "")
+            .await();
+        int result = GitObjectId.sha1Length;
+        for (final String line : configuration.split("\n"))
+        {
+            final String trimmedLine = line.trim().toLowerCase();
+            if (trimmedLine.startsWith("objectformat") && trimmedLine.replace(" ", "").replace("\t", "").equals("objectformat=sha256"))
+            {
+                result = GitObjectId.sha256Length;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the Git folder (the folder that contains HEAD, refs, and objects) of the repository in
+     * the provided folder.
+     * @param repositoryFolder The folder of the repository.
+     * @return The Git folder of the repository.
+     */
+    static Result<Folder> getGitFolder(Folder repositoryFolder)
+    {
+        PreCondition.assertNotNull(repositoryFolder, "repositoryFolder");
+
+        return Result.create(() ->
+        {
+            Folder result;
+            final Folder dotGitFolder = repositoryFolder.getFolder(".git").await();
+            final File dotGitFile = repositoryFolder.getFile(".git").await();
+            if (dotGitFolder.exists().await())
+            {
+                result = dotGitFolder;
+            }
+            else if (dotGitFile.exists().await())
+            {
+                final String contents = dotGitFile.getContentsAsString().await().trim();
+                final String gitDirPrefix = "gitdir:";
+                if (!contents.startsWith(gitDirPrefix))
+                {
+                    throw new ParseException("Expected " + Strings.escapeAndQuote(dotGitFile.getPath().toString()) + " to start with " + Strings.escapeAndQuote(gitDirPrefix) + ".");
+                }
+                result = GitObjectDatabase.resolveFolder(repositoryFolder, contents.substring(gitDirPrefix.length()).trim());
+            }
+            else if (repositoryFolder.getFolder("objects").await().exists().await() &&
+                repositoryFolder.getFile("HEAD").await().exists().await())
+            {
+                result = repositoryFolder;
+            }
+            else
+            {
+                throw new NotFoundException("Could not find a Git repository at " + Strings.escapeAndQuote(repositoryFolder.getPath().toString()) + ".");
+            }
+
+            PostCondition.assertNotNull(result, "result");
+
+            return result;
+        });
+    }
+
+    /**
+     * Get the common Git folder (the folder that contains the objects, the shared refs, and the
+     * configuration) of the repository with the provided Git folder. A linked worktree's Git
+     * folder names its common folder in its "commondir" file, and every other Git folder is its
+     * own common folder.
+     * @param gitFolder The Git folder of the repository.
+     * @return The common Git folder of the repository.
+     */
+    static Result<Folder> getCommonFolder(Folder gitFolder)
+    {
+        PreCondition.assertNotNull(gitFolder, "gitFolder");
+
+        return Result.create(() ->
+        {
+            Folder result = gitFolder;
+            final File commonDirFile = gitFolder.getFile("commondir").await();
+            if (commonDirFile.exists().await())
+            {
+                result = GitObjectDatabase.resolveFolder(gitFolder, commonDirFile.getContentsAsString().await().trim());
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Get the folder at the provided path. Relative paths are resolved against the provided
+     * base folder.
+     * @param baseFolder The folder that relative paths are relative to.
+     * @param path The path of the folder.
+     * @return The folder at the provided path.
+     */
+    static Folder resolveFolder(Folder baseFolder, String path)
+    {
+        PreCondition.assertNotNull(baseFolder, "baseFolder");
+        PreCondition.assertNotNullAndNotEmpty(path, "path");
+
+        final Path parsedPath = Path.parse(path);
+        final Path resolvedPath = parsedPath.isRooted()
+            ? parsedPath
+            : baseFolder.getPath().concatenateSegment(parsedPath).resolve().await();
+        return baseFolder.getFileSystem().getFolder(resolvedPath).await();
+    }
+
+    /**
+     * Get the objects folder that this database reads from.
+     * @return The objects folder that this database reads from.
+     */
+    public Folder getObjectsFolder()
+    {
+        return this.objectsFolder;
+    }
+
+    /**
+     * Get the number of bytes in the object ids of this database.
+     * @return The number of bytes in the object ids of this database.
+     */
+    public int getObjectIdLength()
+    {
+        return this.objectIdLength;
+    }
+
+    /**
+     * Get the cache that holds the objects that this database's pack file deltas are applied
+     * to.
+     * @return The delta base cache of this database.
+     */
+    public GitDeltaBaseCache getDeltaBaseCache()
+    {
+        return this.deltaBaseCache;
+    }
+
+    /**
+     * Scan the pack folder of this database and of the alternates that it has already read for
+     * pack files that were added or removed since the last scan, such as by a fetch or a
+     * repack. Pack files that were removed are dropped and their objects are removed from the
+     * delta base cache so that their mappings can be released, and the multi-pack-index, the
+     * commit-graph, and the bitmap index are read again if the pack files changed. This lets a
+     * long-lived database (such as the one that {@link Git#getObjectDatabase(Folder)} keeps for
+     * each repository) follow the repository without being opened again.
+     * @return Whether the pack files of this database or its alternates changed.
+     */
+    public Result<Boolean> refresh()
+    {
+        return Result.create(() ->
+        {
+            boolean result;
+            synchronized (this.packs)
+            {
+                final int previousPacksVersion = this.packsVersion;
+                this.scanPacks();
+                result = previousPacksVersion != this.packsVersion;
+            }
+
+            final Iterable<GitObjectDatabase> alternates;
+            synchronized (this.packs)
+            {
+                alternates = this.alternates;
+            }
+            if (alternates != null)
+            {
+                for (final GitObjectDatabase alternate : alternates)
+                {
+                    if (alternate.refresh().await())
+                    {
+                        result = true;
+                    }
+                }
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Get the pack files of this database. The pack folder is scanned the first time this is
+     * called, and it is scanned again for new pack files when an object can't be found and the
+     * pack folder may have changed since it was last scanned.
+     * @return The pack files of this database.
+     */
+    public Result<Iterable<GitPackFile>> getPacks()
+    {
+        return Result.create(() ->
+        {
+            synchronized (this.packs)
+            {
+                if (!this.packsScanned)
+                {
+                    this.scanPacks();
+                }
+                return List.create(this.packs);
+            }
+        });
+    }
+
+    /**
+     * Get whether this database belongs to a partial clone. A partial clone was cloned with an
+     * object filter, so it is missing objects that are fetched from its promisor remote when
+     * they are needed. A database from {@link Git#getObjectDatabase(Folder)} fetches those
+     * objects itself through the repository's promisor cat-file session (see
+     * {@link #setPromisorObjectFetcher(Function1)}). The pack files that a partial clone fetched
+     * from its promisor remote have ".promisor" files next to them.
+     * @return Whether this database belongs to a partial clone.
+     */
+    public Result<Boolean> isPartialClone()
+    {
+        return Result.create(() ->
+        {
+            synchronized (this.packs)
+            {
+                if (!this.packsScanned)
+                {
+                    this.scanPacks();
+                }
+                return this.hasPromisorPacks;
+            }
+        });
+    }
+
+    /**
+     * Get the multi-pack-index of this database ("pack/multi-pack-index"). A multi-pack-index is
+     * only used if every pack file that it covers exists. If it is missing, can't be parsed, or
+     * refers to a pack file that doesn't exist, then objects are found with the pack files' own
+     * indexes instead.
+     * @return The multi-pack-index of this database, or null if this database doesn't have a
+     * usable multi-pack-index.
+     */
+    public Result<GitMultiPackIndex> getMultiPackIndex()
+    {
+        return Result.create(() ->
+        {
+            synchronized (this.packs)
+            {
+                if (!this.packsScanned)
+                {
+                    this.scanPacks();
+                }
+                return this.multiPackIndex;
+            }
+        });
+    }
+
+    /**
+     * Open any pack files in the pack folder that haven't been opened yet, and drop the pack
+     * files whose indexes are no longer in the pack folder. If the pack files change, then the
+     * multi-pack-index is read again.
+     * @return Whether any new pack files were opened.
+     */
+    private boolean scanPacks()
+    {
+        boolean result = false;
+        synchronized (this.packs)
+        {
+            // Read the last modified time before the pack folder is listed so that a pack file
+            // that is added during the listing changes the folder after the recorded time.
+            this.packsScanMilliseconds = System.currentTimeMillis();
+            this.packFolderLastModified = this.getPackFolderLastModified();
+
+            final Iterable<File> packFolderFiles = this.objectsFolder.getFolder("pack")
+                .then((Folder packFolder) -> packFolder.getFiles().await())
+                .catchError(NotFoundException.class, (NotFoundException error) -> Iterable.create())
+                .await();
+            final java.util.Set<String> packFolderIndexNames = new java.util.HashSet<>();
+            boolean hasPromisorPacks = false;
+            for (final File file : packFolderFiles)
+            {
+                final String fileName = file.getName();
+                if (fileName.endsWith(".promisor"))
+                {
+                    hasPromisorPacks = true;
+                }
+                else if (fileName.endsWith(".idx"))
+                {
+                    packFolderIndexNames.add(fileName);
+                    if (!this.packIndexNames.contains(fileName))
+                    {
+                        final GitPackFile pack = GitPackFile.open(file, this.objectIdLength)
+                            .catchError(NotFoundException.class)
+                            .await();
+                        if (pack != null)
+                        {
+                            pack.setExternalBaseResolver((GitObjectId baseObjectId) -> this.getObject(baseObjectId).catchError(NotFoundException.class).await());
+                            pack.setDeltaBaseCache(this.deltaBaseCache);
+                            this.packs.add(pack);
+                            this.packIndexNames.add(fileName);
+                            result = true;
+                        }
+                    }
+                }
+            }
+            this.hasPromisorPacks = hasPromisorPacks;
+
+            // Drop the packs that a repack or a gc removed, along with their cached delta bases,
+            // so that their mappings can be released.
+            boolean removed = false;
+            for (int i = this.packIndexNames.getCount() - 1; i >= 0; --i)
+            {
+                if (!packFolderIndexNames.contains(this.packIndexNames.get(i)))
+                {
+                    this.deltaBaseCache.remove(this.packs.get(i));
+                    this.packIndexNames.removeAt(i);
+                    this.packs.removeAt(i);
+                    removed = true;
+                }
+            }
+
+            if (result || removed || !this.packsScanned)
+            {
+                this.readMultiPackIndex();
+                if (this.packsScanned)
+                {
+                    ++this.packsVersion;
+                }
+            }
+            this.packsScanned = true;
+        }
+        return result;
+    }
+
+    /**
+     * Get the last modified time of the pack folder of this database. A pack folder that doesn't
+     * exist has a last modified time of zero, so creating it counts as a change.
+     * @return The last modified time of the pack folder, or null if it can't be read, such as
+     * when the pack folder isn't on the local disk.
+     */
+    private java.nio.file.attribute.FileTime getPackFolderLastModified()
+    {
+        java.nio.file.attribute.FileTime result = null;
+        final java.nio.file.Path objectsFolderPath = GitNativeFiles.getPath(this.objectsFolder);
+        if (objectsFolderPath != null)
+        {
+            try
+            {
+                result = java.nio.file.Files.getLastModifiedTime(objectsFolderPath.resolve("pack"));
+            }
+            catch (java.nio.file.NoSuchFileException e)
+            {
+                result = java.nio.file.attribute.FileTime.fromMillis(0);
+            }
+            catch (java.io.IOException e)
+            {
+                result = null;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get whether the pack folder of this database may have changed since it was last scanned.
+     * Adding or removing a pack file changes the last modified time of the pack folder, so a
+     * miss only lists the pack folder again when that time changed, when it is too close to the
+     * last scan to be trusted, or when it can't be read.
+     * @return Whether the pack folder may have changed since it was last scanned.
+     */
+    private boolean packFolderMayHaveChanged()
+    {
+        final java.nio.file.attribute.FileTime lastModified = this.getPackFolderLastModified();
+        synchronized (this.packs)
+        {
+            return lastModified == null ||
+                !this.packsScanned ||
+                !lastModified.equals(this.packFolderLastModified) ||
+                this.packsScanMilliseconds - lastModified.toMillis() < GitObjectDatabase.racyPackFolderMilliseconds;
+        }
+    }
+
+    /**
+     * Get the number of times that the pack files of this database have changed since they were
+     * first scanned.
+     * @return The number of times that the pack files of this database have changed.
+     */
+    private int getPacksVersion()
+    {
+        synchronized (this.packs)
+        {
+            if (!this.packsScanned)
+            {
+                this.scanPacks();
+            }
+            return this.packsVersion;
+        }
+    }
+
+    /**
+     * Read the multi-pack-index in the pack folder and match its pack names to the opened pack
+     * files. Packs that the multi-pack-index doesn't cover are remembered so that they can still
+     * be searched with their own indexes.
+     */
+    private void readMultiPackIndex()
+    {
+        GitMultiPackIndex multiPackIndex = this.objectsFolder.getFile("pack/multi-pack-index")
+            .then((File multiPackIndexFile) -> GitMultiPackIndex.open(multiPackIndexFile, this.objectIdLength).await())
+            .catchError(NotFoundException.class)
+            .catchError(ParseException.class)
+            .catchError(GitException.class)
+            .await();
+
+        GitPackFile[] multiPackIndexPacks = null;
+        if (multiPackIndex != null)
+        {
+            multiPackIndexPacks = new GitPackFile[multiPackIndex.getPackNames().getCount()];
+            int packId = 0;
+            for (final String packName : multiPackIndex.getPackNames())
+            {
+                final String packIndexName = GitObjectDatabase.getPackIndexName(packName);
+                int packIndex = 0;
+                while (packIndex < this.packIndexNames.getCount() && !this.packIndexNames.get(packIndex).equals(packIndexName))
+                {
+                    ++packIndex;
+                }
+                if (packIndex == this.packIndexNames.getCount())
+                {
+                    // The multi-pack-index is stale because one of its packs has been removed.
+                    multiPackIndex = null;
+                    multiPackIndexPacks = null;
+                    break;
+                }
+                multiPackIndexPacks[packId++] = this.packs.get(packIndex);
+            }
+        }
+
+        final List<GitPackFile> uncoveredPacks = List.create();
+        for (final GitPackFile pack : this.packs)
+        {
+            if (multiPackIndexPacks == null || !java.util.Arrays.asList(multiPackIndexPacks).contains(pack))
+            {
+                uncoveredPacks.add(pack);
+            }
+        }
+
+        this.multiPackIndex = multiPackIndex;
+        this.multiPackIndexPacks = multiPackIndexPacks;
+        this.uncoveredPacks = uncoveredPacks;
+    }
+
+    /**
+     * Get the name of the pack index file that the provided multi-pack-index pack name refers
+     * to. Pack names are normally the names of pack index files, but they can also be the names
+     * of pack files.
+     * @param packName The pack name from a multi-pack-index.
+     * @return The name of the pack index file.
+     */
+    static String getPackIndexName(String packName)
+    {
+        PreCondition.assertNotNullAndNotEmpty(packName, "packName");
+
+        return packName.endsWith(".pack")
+            ? packName.substring(0, packName.length() - ".pack".length()) + ".idx"
+            : packName;
+    }
+
+    /**
+     * Get the commit-graph of this database ("info/commit-graph" or the chain in
+     * "info/commit-graphs"). The commit-graph is read the first time this is called, and again
+     * after the pack files of this database change.
+     * @return The commit-graph of this database, or null if this database doesn't have a
+     * commit-graph or its commit-graph can't be parsed.
+     */
+    public Result<GitCommitGraph> getCommitGraph()
+    {
+        return Result.create(() ->
+        {
+            synchronized (this)
+            {
+                final int packsVersion = this.getPacksVersion();
+                if (this.commitGraphPacksVersion != packsVersion)
+                {
+                    this.commitGraph = GitCommitGraph.open(this.objectsFolder, this.objectIdLength)
+                        .catchError(NotFoundException.class)
+                        .catchError(ParseException.class)
+                        .catchError(GitException.class)
+                        .await();
+                    this.commitGraphPacksVersion = packsVersion;
+                }
+                return this.commitGraph;
+            }
+        });
+    }
+
+    /**
+     * Get the bitmap index of this database. The bitmap index is the ".bitmap" file of the first
+     * pack file that has one, and it is read the first time this is called, and again after the
+     * pack files of this database change.
+     * @return The bitmap index of this database, or null if none of this database's pack files
+     * have a bitmap index that can be parsed.
+     */
+    public Result<GitBitmapIndex> getBitmapIndex()
+    {
+        return Result.create(() ->
+        {
+            synchronized (this)
+            {
+                final int packsVersion = this.getPacksVersion();
+                if (this.bitmapIndexPacksVersion != packsVersion)
+                {
+                    this.bitmapIndex = null;
+                    for (final GitPackFile pack : this.getPacks().await())
+                    {
+                        final File packFile = pack.getPackFile();
+                        if (packFile != null)
+                        {
+                            this.bitmapIndex = packFile.getParentFolder()
+                                .then((Folder packFolder) -> packFolder.getFile(packFile.getNameWithoutFileExtension() + ".bitmap").await())
+                                .then((File bitmapFile) -> GitBitmapIndex.open(bitmapFile, pack.getIndex()).await())
+                                .catchError(NotFoundException.class)
+                                .catchError(ParseException.class)
+                                .catchError(GitException.class)
+                                .await();
+                            if (this.bitmapIndex != null)
+                            {
+                                break;
+                            }
+                        }
+                    }
+                    this.bitmapIndexPacksVersion = packsVersion;
+                }
+                return this.bitmapIndex;
+            }
+        });
+    }
+
+    /**
+     * Get the objects that can be reached from the provided objects, like "git rev-list
+     * --objects". If this database has a bitmap index, then the bitmaps of the commits that have
+     * them are used instead of walking those commits' histories.
+     * @param objectIds The ids of the objects to start from.
+     * @return The objects that can be reached from the provided objects.
+     */
+    public Result<GitReachableObjects> getReachableObjects(Iterable<GitObjectId> objectIds)
+    {
+        PreCondition.assertNotNull(objectIds, "objectIds");
+
+        return this.getBitmapIndex()
+            .then((GitBitmapIndex bitmapIndex) -> GitReachableObjects.create(this, bitmapIndex, objectIds).await());
+    }
+
+    /**
+     * Get the object databases that are listed in this database's "info/alternates" file.
+     * @return The object databases that are listed in this database's "info/alternates" file.
+     */
+    public Result<Iterable<GitObjectDatabase>> getAlternates()
+    {
+        return Result.create(() ->
+        {
+            Iterable<GitObjectDatabase> result;
+            synchronized (this.packs)
+            {
+                result = this.alternates;
+            }
+            if (result == null)
+            {
+                final List<GitObjectDatabase> alternates = List.create();
+                if (this.alternateDepth < GitObjectDatabase.maximumAlternateDepth)
+                {
+                    final String contents = this.objectsFolder.getFile("info/alternates")
+                        .then((File alternatesFile) -> alternatesFile.getContentsAsString().await())
+                        .catchError(NotFoundException.class, (NotFoundException error) -> "")
+                        .await();
+                    for (final String line : contents.split("\n"))
+                    {
+                        final String alternatePath = line.trim();
+                        if (!alternatePath.isEmpty() && !alternatePath.startsWith("#"))
+                        {
+                            alternates.add(new GitObjectDatabase(GitObjectDatabase.resolveFolder(this.objectsFolder, alternatePath), this.objectIdLength, this.alternateDepth + 1, this.deltaBaseCache));
+                        }
+                    }
+                }
+                synchronized (this.packs)
+                {
+                    // Another thread may have read the alternates file first. Keep its
+                    // databases so that every caller shares the same alternates.
+                    if (this.alternates == null)
+                    {
+                        this.alternates = alternates;
+                    }
+                    result = this.alternates;
+                }
+            }
+
+            PostCondition.assertNotNull(result, "result");
+
+            return result;
+        });
+    }
+
+    /**
+     * Read the object with the provided full hexadecimal object id.
+     * @param objectName The full hexadecimal object id of the object.
+     * @return The object, or a {@link NotFoundException} if this database doesn't contain the
+     * object.
+     */
+    public Result<GitObject> getObject(String objectName)
+    {
+        PreCondition.assertNotNullAndNotEmpty(objectName, "objectName");
+
+        return Result.create(() ->
+        {
+            final GitObjectId objectId = GitObjectId.parse(objectName).await();
+            return this.getObject(objectId).await();
+        });
+    }
+
+    /**
+     * Get the function that reads the objects that this partial clone hasn't fetched from its
+     * promisor remote yet.
+     * @return The function that fetches missing objects, or null if missing objects aren't
+     * fetched.
+     */
+    public Function1<GitObjectId,GitObject> getPromisorObjectFetcher()
+    {
+        return this.promisorObjectFetcher;
+    }
+
+    /**
+     * Set the function that reads the objects that this partial clone hasn't fetched from its
+     * promisor remote yet, such as the trees of a "tree:0" clone or the blobs of a "blob:none"
+     * clone. The function is only called for objects that neither this database nor its
+     * alternates contain, and only if this database belongs to a partial clone.
+     * {@link Git#getObjectDatabase(Folder)} sets a function that reads the objects with the
+     * repository's promisor cat-file session, whose "git cat-file --batch" process fetches them.
+     * @param promisorObjectFetcher The function that fetches missing objects. The function
+     *                              should return null if it can't fetch the object.
+     * @return This object for method chaining.
+     */
+    public GitObjectDatabase setPromisorObjectFetcher(Function1<GitObjectId,GitObject> promisorObjectFetcher)
+    {
+        PreCondition.assertNotNull(promisorObjectFetcher, "promisorObjectFetcher");
+
+        this.promisorObjectFetcher = promisorObjectFetcher;
+
+        return this;
+    }
+
+    /**
+     * Read the object with the provided id. If this database belongs to a partial clone and
+     * doesn't contain the object, then the object is fetched with this database's promisor
+     * object fetcher (if it has one).
+     * @param objectId The id of the object.
+     * @return The object, or a {@link NotFoundException} if this database doesn't contain the
+     * object.
+     */
+    public Result<GitObject> getObject(GitObjectId objectId)
+    {
+        PreCondition.assertNotNull(objectId, "objectId");
+
+        return this.getObject(objectId, true);
+    }
+
+    /**
+     * Read the object with the provided id without fetching it from a promisor remote.
+     * @param objectId The id of the object.
+     * @return The object, or a {@link NotFoundException} if neither this database nor its
+     * alternates contain the object.
+     */
+    Result<GitObject> getObjectWithoutFetching(GitObjectId objectId)
+    {
+        PreCondition.assertNotNull(objectId, "objectId");
+
+        return this.getObject(objectId, false);
+    }
+
+    private Result<GitObject> getObject(GitObjectId objectId, boolean fetchPromisorObjects)
+    {
+        return Result.create(() ->
+        {
+            GitObject result = this.getLocalObject(objectId).await();
+            if (result == null)
+            {
+                for (final GitObjectDatabase alternate : this.getAlternates().await())
+                {
+                    result = alternate.getObject(objectId, false)
+                        .catchError(NotFoundException.class)
+                        .await();
+                    if (result != null)
+                    {
+                        break;
+                    }
+                }
+            }
+
+            final Function1<GitObjectId,GitObject> promisorObjectFetcher = this.promisorObjectFetcher;
+            if (result == null && fetchPromisorObjects && promisorObjectFetcher != null && this.isPartialClone().await())
+            {
+                result = promisorObjectFetcher.run(objectId);
+            }
+
+            if (result == null)
+            {
+                String message = "Could not find the Git object " + objectId + ".";
+                if (this.isPartialClone().await())
+                {
+                    message += " It may be an object that this partial clone hasn't fetched from its promisor remote yet.";
+                }
+                throw new NotFoundException(message);
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Get whether this database (or one of its alternates) contains the object with the
+     * provided id. Objects that a partial clone hasn't fetched from its promisor remote aren't
+     * fetched, so they aren't contained.
+     * @param objectId The id of the object.
+     * @return Whether this database contains the object.
+     */
+    public Result<Boolean> containsObject(GitObjectId objectId)
+    {
+        PreCondition.assertNotNull(objectId, "objectId");
+
+        return this.getObject(objectId, false)
+            .then((GitObject object) -> true)
+            .catchError(NotFoundException.class, (NotFoundException error) -> false);
+    }
+
+    /**
+     * Read the object with the provided id from this database without looking in its
+     * alternates.
+     * @param objectId The id of the object.
+     * @return The object, or null if this database doesn't contain the object.
+     */
+    Result<GitObject> getLocalObject(GitObjectId objectId)
+    {
+        PreCondition.assertNotNull(objectId, "objectId");
+
+        return Result.create(() ->
+        {
+            GitObject result = this.getPackedObject(objectId);
+            if (result == null)
+            {
+                result = this.getLooseObject(objectId).await();
+            }
+            if (result == null && this.packFolderMayHaveChanged() && this.scanPacks())
+            {
+                result = this.getPackedObject(objectId);
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Read the object with the provided id from the pack files of this database. If this
+     * database has a usable multi-pack-index, then it is searched first, and only the pack files
+     * that it doesn't cover are searched with their own indexes.
+     * @param objectId The id of the object.
+     * @return The object, or null if none of the pack files contain the object.
+     */
+    private GitObject getPackedObject(GitObjectId objectId)
+    {
+        final GitMultiPackIndex multiPackIndex;
+        final GitPackFile[] multiPackIndexPacks;
+        final Iterable<GitPackFile> uncoveredPacks;
+        synchronized (this.packs)
+        {
+            if (!this.packsScanned)
+            {
+                this.scanPacks();
+            }
+            multiPackIndex = this.multiPackIndex;
+            multiPackIndexPacks = this.multiPackIndexPacks;
+            uncoveredPacks = this.uncoveredPacks;
+        }
+
+        GitObject result = null;
+        if (multiPackIndex != null)
+        {
+            final int index = multiPackIndex.indexOf(objectId);
+            if (index != -1)
+            {
+                result = multiPackIndexPacks[multiPackIndex.getPackId(index)].getObject(objectId, multiPackIndex.getOffset(index)).await();
+            }
+        }
+        if (result == null)
+        {
+            for (final GitPackFile pack : uncoveredPacks)
+            {
+                result = pack.getObject(objectId).await();
+                if (result != null)
+                {
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Read the loose object with the provided id.
+     * @param objectId The id of the object.
+     * @return The object, or null if this database doesn't have a loose object with the id.
+     */
+    private Result<GitObject> getLooseObject(GitObjectId objectId)
+    {
+        return Result.create(() ->
+        {
+            final String hexObjectId = objectId.toString();
+            final byte[] compressedBytes = this.objectsFolder.getFile(hexObjectId.substring(0, 2) + "/" + hexObjectId.substring(2))
+                .then((File looseObjectFile) -> looseObjectFile.getContents().await())
+                .catchError(NotFoundException.class)
+                .await();
+            return compressedBytes == null
+                ? null
+                : GitObjectDatabase.parseLooseObject(objectId, compressedBytes).await();
+        });
+    }
+
+    /**
+     * Decompress and parse the provided loose object file contents.
+     * @param objectId The id of the object.
+     * @param compressedBytes The zlib-compressed contents of the loose object file.
+     * @return The parsed object.
+     */
+    static Result<GitObject> parseLooseObject(GitObjectId objectId, byte[] compressedBytes)
+    {
+        PreCondition.assertNotNull(objectId, "objectId");
+        PreCondition.assertNotNull(compressedBytes, "compressedBytes");
+
+        return Result.create(() ->
+        {
+            final java.util.zip.Inflater inflater = GitInflaterPool.acquire();
+            try
+            {
+                inflater.setInput(compressedBytes);
+
+                // Small objects are inflated completely by this single pass.
+                final java.nio.ByteBuffer inflated = GitInflaterPool.inflateSmall(inflater);
+                final int headerLength = Math.min(inflated.remaining(), GitObjectDatabase.looseObjectHeaderLength);
+
+                int spaceIndex = -1;
+                int nulIndex = -1;
+                for (int i = 0; i < headerLength && nulIndex == -1; ++i)
+                {
+                    final byte headerByte = inflated.get(i);
+                    if (headerByte == ' ' && spaceIndex == -1)
+                    {
+                        spaceIndex = i;
+                    }
+                    else if (headerByte == 0)
+                    {
+                        nulIndex = i;
+                    }
+                }
+                if (spaceIndex <= 0 || nulIndex <= spaceIndex + 1)
+                {
+                    throw new ParseException("Expected the loose object " + objectId + " to start with a \"<type> <size>\" header.");
+                }
+
+                final byte[] typeBytes = new byte[spaceIndex];
+                inflated.get(typeBytes);
+                final GitObjectType objectType = GitObjectType.parse(new String(typeBytes, java.nio.charset.StandardCharsets.US_ASCII)).await();
+                long size = 0;
+                for (int i = spaceIndex + 1; i < nulIndex; ++i)
+                {
+                    final byte digit = inflated.get(i);
+                    if (digit < '0' || '9' < digit || size > (Integer.MAX_VALUE - 9) / 10)
+                    {
+                        throw new ParseException("Invalid size in the header of the loose object " + objectId + ".");
+                    }
+                    size = (size * 10) + (digit - '0');
+                }
+
+                final byte[] contents = new byte[(int)size];
+                inflated.position(nulIndex + 1);
+                final int contentBytesInScratch = inflated.remaining();
+                if (contentBytesInScratch > contents.length)
+                {
+                    throw new ParseException("The loose object " + objectId + " is larger than the " + size + " bytes in its header.");
+                }
+                inflated.get(contents, 0, contentBytesInScratch);
+                final int contentBytesRead = contentBytesInScratch + GitInflaterPool.inflate(inflater, contents, contentBytesInScratch, contents.length - contentBytesInScratch);
+                if (contentBytesRead != contents.length)
+                {
+                    throw new ParseException("Expected the loose object " + objectId + " to contain " + size + " bytes, but found " + contentBytesRead + ".");
+                }
+
+                return GitObject.create(objectId, objectType, GitByteSlice.create(contents, 0, contents.length));
+            }
+            finally
+            {
+                GitInflaterPool.release(inflater);
+            }
+        });
+    }
+}
@@ -0,0 +1,260 @@
+package qub;
+
+/**
+ * The binary id of an object in a Git repository's object database. Repositories that use SHA-1
+ * have 20-byte object ids and repositories that use SHA-256 have 32-byte object ids.
+ */
+public final class GitObjectId implements Comparable<GitObjectId>
+{
+    /**
+     * The number of bytes in a SHA-1 object id.
+     */
+    public static final int sha1Length = 20;
+
+    /**
+     * The number of bytes in a SHA-256 object id.
+     */
+    public static final int sha256Length = 32;
+
+    private static final char[] hexCharacters = "0123456789abcdef".toCharArray();
+
+    private final byte[] bytes;
+
+    private GitObjectId(byte[] bytes)
+    {
+        this.bytes = bytes;
+    }
+
+    /**
+     * Create a new GitObjectId from a copy of the provided range of bytes.
+     * @param bytes The bytes that contain the object id.
+     * @param startIndex The index of the first byte of the object id.
+     * @param length The number of bytes in the object id.
+     * @return The new GitObjectId.
+     */
+    public static GitObjectId create(byte[] bytes, int startIndex, int length)
+    {
+        PreCondition.assertNotNull(bytes, "bytes");
+        PreCondition.assertTrue(GitObjectId.isValidLength(length), "GitObjectId.isValidLength(length)");
+        PreCondition.assertStartIndex(startIndex, bytes.length - length + 1);
+
+        final byte[] idBytes = new byte[length];
+        System.arraycopy(bytes, startIndex, idBytes, 0, length);
+        return new GitObjectId(idBytes);
+    }
+
+    /**
+     * Create a new GitObjectId from a copy of the provided bytes.
+     * @param bytes The bytes of the object id.
+     * @return The new GitObjectId.
+     */
+    public static GitObjectId create(byte[] bytes)
+    {
+        PreCondition.assertNotNull(bytes, "bytes");
+
+        return GitObjectId.create(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Get whether the provided number of bytes is the length of a SHA-1 or a SHA-256 object id.
+     * @param length The number of bytes.
+     * @return Whether the provided number of bytes is a valid object id length.
+     */
+    public static boolean isValidLength(int length)
+    {
+        return length == GitObjectId.sha1Length || length == GitObjectId.sha256Length;
+    }
+
+    /**
+     * Get whether the provided text is a full hexadecimal object id.
+     * @param text The text to check.
+     * @return Whether the provided text is a full hexadecimal object id.
+     */
+    public static boolean isObjectId(String text)
+    {
+        boolean result = text != null && GitObjectId.isValidLength(text.length() / 2) && text.length() % 2 == 0;
+        for (int i = 0; result && i < text.length(); ++i)
+        {
+            result = GitObjectId.getHexValue(text.charAt(i)) != -1;
+        }
+        return result;
+    }
+
+    private static int getHexValue(char character)
+    {
+        int result;
+        if ('0' <= character && character <= '9')
+        {
+            result = character - '0';
+        }
+        else if ('a' <= character && character <= 'f')
+        {
+            result = character - 'a' + 10;
+        }
+        else if ('A' <= character && character <= 'F')
+        {
+            result = character - 'A' + 10;
+        }
+        else
+        {
+            result = -1;
+        }
+        return result;
+    }
+
+    /**
+     * Parse the provided full hexadecimal object id.
+     * @param text The hexadecimal object id.
+     * @return The parsed object id.
+     */
+    public static Result<GitObjectId> parse(String text)
+    {
+        PreCondition.assertNotNullAndNotEmpty(text, "text");
+
+        return Result.create(() ->
+        {
+            if (!GitObjectId.isObjectId(text))
+            {
+                throw new ParseException("Expected a 40 or 64 character hexadecimal Git object id, but found " + Strings.escapeAndQuote(text) + ".");
+            }
+
+            final byte[] bytes = new byte[text.length() / 2];
+            for (int i = 0; i < bytes.length; ++i)
+            {
+                bytes[i] = (byte)((GitObjectId.getHexValue(text.charAt(i * 2)) << 4) | GitObjectId.getHexValue(text.charAt(i * 2 + 1)));
+            }
+            return new GitObjectId(bytes);
+        });
+    }
+
+    /**
+     * Get the number of bytes in this object id.
+     * @return The number of bytes in this object id.
+     */
+    public int getLength()
+    {
+        return this.bytes.length;
+    }
+
+    /**
+     * Get the byte at the provided index of this object id.
+     * @param index The index of the byte.
+     * @return The byte at the provided index.
+     */
+    public byte getByte(int index)
+    {
+        PreCondition.assertBetween(0, index, this.bytes.length - 1, "index");
+
+        return this.bytes[index];
+    }
+
+    /**
+     * Get the unsigned value of the first byte of this object id. This is the index of the
+     * object id in the fanout tables of pack indexes.
+     * @return The unsigned value of the first byte of this object id.
+     */
+    public int getFanoutIndex()
+    {
+        return this.bytes[0] & 0xFF;
+    }
+
+    /**
+     * Get a copy of the bytes of this object id.
+     * @return A copy of the bytes of this object id.
+     */
+    public byte[] getBytes()
+    {
+        return this.bytes.clone();
+    }
+
+    /**
+     * Compare this object id to the object id stored at the provided index of the provided bytes.
+     * Bytes are compared as unsigned values, which is the order that Git sorts object ids in.
+     * @param bytes The bytes that contain the other object id.
+     * @param startIndex The index of the first byte of the other object id.
+     * @return A negative number if this object id comes first, zero if the object ids are equal,
+     * or a positive number if the other object id comes first.
+     */
+    public int compareTo(byte[] bytes, int startIndex)
+    {
+        PreCondition.assertNotNull(bytes, "bytes");
+        PreCondition.assertStartIndex(startIndex, bytes.length - this.bytes.length + 1);
+
+        int result = 0;
+        for (int i = 0; result == 0 && i < this.bytes.length; ++i)
+        {
+            result = (this.bytes[i] & 0xFF) - (bytes[startIndex + i] & 0xFF);
+        }
+        return result;
+    }
+
+    /**
+     * Compare this object id to the object id stored at the provided index of the provided
+     * buffer. Bytes are compared as unsigned values, which is the order that Git sorts object
+     * ids in.
+     * @param buffer The buffer that contains the other object id.
+     * @param index The index in the buffer of the first byte of the other object id.
+     * @return A negative number if this object id comes first, zero if the object ids are equal,
+     * or a positive number if the other object id comes first.
+     */
+    int compareTo(java.nio.ByteBuffer buffer, int index)
+    {
+        int result = 0;
+        for (int i = 0; result == 0 && i < this.bytes.length; ++i)
+        {
+            result = (this.bytes[i] & 0xFF) - (buffer.get(index + i) & 0xFF);
+        }
+        return result;
+    }
+
+    @Override
+    public int compareTo(GitObjectId rhs)
+    {
+        PreCondition.assertNotNull(rhs, "rhs");
+
+        int result = 0;
+        final int length = Math.min(this.bytes.length, rhs.bytes.length);
+        for (int i = 0; result == 0 && i < length; ++i)
+        {
+            result = (this.bytes[i] & 0xFF) - (rhs.bytes[i] & 0xFF);
+        }
+        if (result == 0)
+        {
+            result = this.bytes.length - rhs.bytes.length;
+        }
+        return result;
+    }
+
+    @Override
+    public String toString()
+    {
+        final char[] characters = new char[this.bytes.length * 2];
+        for (int i = 0; i < this.bytes.length; ++i)
+        {
+            characters[i * 2] = GitObjectId.hexCharacters[(this.bytes[i] >> 4) & 0xF];
+            characters[i * 2 + 1] = GitObjectId.hexCharacters[this.bytes[i] & 0xF];
+        }
+        return new String(characters);
+    }
+
+    @Override
+    public boolean equals(Object rhs)
+    {
+        return rhs instanceof GitObjectId && this.equals((GitObjectId)rhs);
+    }
+
+    public boolean equals(GitObjectId rhs)
+    {
+        return rhs != null && java.util.Arrays.equals(this.bytes, rhs.bytes);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        // Object ids are already uniformly distributed, so the first four bytes are a good hash.
+        return ((this.bytes[0] & 0xFF) << 24) |
+            ((this.bytes[1] & 0xFF) << 16) |
+            ((this.bytes[2] & 0xFF) << 8) |
+            (this.bytes[3] & 0xFF);
+    }
+}
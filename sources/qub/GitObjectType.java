@@ -0,0 +1,89 @@
+package qub;
+
+/**
+ * The types of objects that can be stored in a Git repository's object database.
+ */
+public enum GitObjectType
+{
+    Commit("commit", 1),
+    Tree("tree", 2),
+    Blob("blob", 3),
+    Tag("tag", 4);
+
+    private final String name;
+    private final int packTypeNumber;
+
+    GitObjectType(String name, int packTypeNumber)
+    {
+        this.name = name;
+        this.packTypeNumber = packTypeNumber;
+    }
+
+    /**
+     * Get the name of this object type as it appears in object headers and in the output of
+     * "git cat-file".
+     * @return The name of this object type.
+     */
+    public String getName()
+    {
+        return this.name;
+    }
+
+    /**
+     * Get the number that identifies this object type in the entry headers of pack files.
+     * @return The number that identifies this object type in pack files.
+     */
+    public int getPackTypeNumber()
+    {
+        return this.packTypeNumber;
+    }
+
+    /**
+     * Get the object type that the provided pack type number identifies.
+     * @param packTypeNumber The type number from a pack file entry header.
+     * @return The object type that the provided number identifies, or null if the number doesn't
+     * identify an object type. The delta entry type numbers (6 and 7) don't identify an object
+     * type.
+     */
+    public static GitObjectType fromPackTypeNumber(int packTypeNumber)
+    {
+        GitObjectType result = null;
+        for (final GitObjectType objectType : GitObjectType.values())
+        {
+            if (objectType.packTypeNumber == packTypeNumber)
+            {
+                result = objectType;
+                break;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String toString()
+    {
+        return this.name;
+    }
+
+    /**
+     * Parse the provided object type name.
+     * @param name The name of the object type.
+     * @return The parsed object type.
+     */
+    public static Result<GitObjectType> parse(String name)
+    {
+        PreCondition.assertNotNullAndNotEmpty(name, "name");
+
+        return Result.create(() ->
+        {
+            for (final GitObjectType objectType : GitObjectType.values())
+            {
+                if (objectType.name.equals(name))
+                {
+                    return objectType;
+                }
+            }
+            throw new ParseException("Unrecognized Git object type: " + Strings.escapeAndQuote(name));
+        });
+    }
+}
@@ -0,0 +1,285 @@
+package qub;
+
+/**
+ * A growable byte buffer that captures the output of a Git command. The output is read from the
+ * command's stream directly into the buffer's backing array, and it can then be split into lines
+ * or NUL-terminated records as {@link GitByteSlice}s without copying or decoding the bytes.
+ * Buffers can be borrowed from a small shared pool with {@link #acquire()} and returned with
+ * {@link #release()} so that commands that run often don't allocate a new buffer every time.
+ */
+public class GitOutputBuffer
+{
+    private static final int defaultCapacity = 8 * 1024;
+    private static final int maximumPooledCount = 16;
+    private static final int maximumPooledCapacity = 1024 * 1024;
+    private static final List<GitOutputBuffer> pool = List.create();
+
+    private byte[] bytes;
+    private int count;
+    private boolean pooled;
+
+    private GitOutputBuffer(byte[] bytes, int count)
+    {
+        this.bytes = bytes;
+        this.count = count;
+    }
+
+    /**
+     * Create a new empty GitOutputBuffer that doesn't belong to the shared pool.
+     * @return The new GitOutputBuffer.
+     */
+    public static GitOutputBuffer create()
+    {
+        return new GitOutputBuffer(new byte[GitOutputBuffer.defaultCapacity], 0);
+    }
+
+    /**
+     * Create a new GitOutputBuffer that contains the provided bytes. The bytes are not copied.
+     * @param bytes The bytes that the new GitOutputBuffer will contain.
+     * @return The new GitOutputBuffer.
+     */
+    public static GitOutputBuffer wrap(byte[] bytes)
+    {
+        PreCondition.assertNotNull(bytes, "bytes");
+
+        return new GitOutputBuffer(bytes, bytes.length);
+    }
+
+    /**
+     * Borrow an empty GitOutputBuffer from the shared pool. The buffer should be returned to the
+     * pool with {@link #release()} once its contents are no longer needed.
+     * @return An empty GitOutputBuffer.
+     */
+    public static GitOutputBuffer acquire()
+    {
+        GitOutputBuffer result = null;
+        synchronized (GitOutputBuffer.pool)
+        {
+            if (GitOutputBuffer.pool.any())
+            {
+                result = GitOutputBuffer.pool.removeLast();
+            }
+        }
+        if (result == null)
+        {
+            result = GitOutputBuffer.create();
+        }
+        result.pooled = true;
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+
+    /**
+     * Get the number of buffers that are waiting in the shared pool.
+     * @return The number of buffers that are waiting in the shared pool.
+     */
+    static int getPooledCount()
+    {
+        synchronized (GitOutputBuffer.pool)
+        {
+            return GitOutputBuffer.pool.getCount();
+        }
+    }
+
+    /**
+     * Clear this buffer and return it to the shared pool. Slices that were taken from this buffer
+     * must not be used after it is released. Buffers that didn't come from {@link #acquire()},
+     * and buffers that have grown very large, are not added to the pool.
+     */
+    public void release()
+    {
+        this.clear();
+        if (this.pooled)
+        {
+            this.pooled = false;
+            if (this.bytes.length <= GitOutputBuffer.maximumPooledCapacity)
+            {
+                synchronized (GitOutputBuffer.pool)
+                {
+                    if (GitOutputBuffer.pool.getCount() < GitOutputBuffer.maximumPooledCount)
+                    {
+                        GitOutputBuffer.pool.add(this);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the number of bytes in this buffer.
+     * @return The number of bytes in this buffer.
+     */
+    public int getCount()
+    {
+        return this.count;
+    }
+
+    /**
+     * Remove all of the bytes from this buffer. The buffer's capacity is kept.
+     * @return This object for method chaining.
+     */
+    public GitOutputBuffer clear()
+    {
+        this.count = 0;
+
+        return this;
+    }
+
+    /**
+     * Get the array that backs this buffer. Only the first {@link #getCount()} bytes of the array
+     * belong to the buffer.
+     * @return The array that backs this buffer.
+     */
+    byte[] getByteArray()
+    {
+        return this.bytes;
+    }
+
+    private void ensureCapacity(int capacity)
+    {
+        if (this.bytes.length < capacity)
+        {
+            this.bytes = java.util.Arrays.copyOf(this.bytes, Math.max(capacity, this.bytes.length * 2));
+        }
+    }
+
+    /**
+     * Append the provided bytes to this buffer.
+     * @param bytes The bytes to append.
+     * @return This object for method chaining.
+     */
+    public GitOutputBuffer write(byte[] bytes)
+    {
+        PreCondition.assertNotNull(bytes, "bytes");
+
+        return this.write(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Append the provided bytes to this buffer.
+     * @param bytes The bytes to append.
+     * @param startIndex The index of the first byte to append.
+     * @param length The number of bytes to append.
+     * @return This object for method chaining.
+     */
+    public GitOutputBuffer write(byte[] bytes, int startIndex, int length)
+    {
+        PreCondition.assertNotNull(bytes, "bytes");
+        PreCondition.assertStartIndex(startIndex, bytes.length + 1);
+        PreCondition.assertLength(length, startIndex, bytes.length);
+
+        this.ensureCapacity(this.count + length);
+        System.arraycopy(bytes, startIndex, this.bytes, this.count, length);
+        this.count += length;
+
+        return this;
+    }
+
+    /**
+     * Read all of the bytes in the provided stream directly into this buffer. This can be used as
+     * the output stream handler of a Git command.
+     * @param stream The stream to read.
+     * @return The result of reading the stream.
+     */
+    public Result<Void> readFrom(ByteReadStream stream)
+    {
+        PreCondition.assertNotNull(stream, "stream");
+
+        return Result.create(() ->
+        {
+            while (true)
+            {
+                if (this.count == this.bytes.length)
+                {
+                    this.ensureCapacity(this.count + 1);
+                }
+                final Integer bytesRead = stream.readBytes(this.bytes, this.count, this.bytes.length - this.count)
+                    .catchError(EndOfStreamException.class)
+                    .await();
+                if (bytesRead == null || bytesRead < 0)
+                {
+                    break;
+                }
+                this.count += bytesRead;
+            }
+        });
+    }
+
+    /**
+     * Get a copy of the bytes in this buffer.
+     * @return A copy of the bytes in this buffer.
+     */
+    public byte[] getBytes()
+    {
+        return java.util.Arrays.copyOf(this.bytes, this.count);
+    }
+
+    /**
+     * Get a slice that views all of the bytes in this buffer.
+     * @return A slice that views all of the bytes in this buffer.
+     */
+    public GitByteSlice getSlice()
+    {
+        return GitByteSlice.create(this.bytes, 0, this.count);
+    }
+
+    /**
+     * Decode all of the bytes in this buffer as UTF-8 text.
+     * @return The decoded text.
+     */
+    public String getText()
+    {
+        return new String(this.bytes, 0, this.count, java.nio.charset.StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Get the records in this buffer that are each terminated by the provided terminator. An
+     * unterminated final record is also returned.
+     * @param terminator The byte that terminates each record.
+     * @return The records in this buffer.
+     */
+    public Iterable<GitByteSlice> getRecords(byte terminator)
+    {
+        final List<GitByteSlice> result = List.create();
+        int recordStartIndex = 0;
+        for (int i = 0; i < this.count; ++i)
+        {
+            if (this.bytes[i] == terminator)
+            {
+                result.add(GitByteSlice.create(this.bytes, recordStartIndex, i - recordStartIndex));
+                recordStartIndex = i + 1;
+            }
+        }
+        if (recordStartIndex < this.count)
+        {
+            result.add(GitByteSlice.create(this.bytes, recordStartIndex, this.count - recordStartIndex));
+        }
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+
+    /**
+     * Get the lines in this buffer. Lines are terminated by a newline, and a carriage return that
+     * comes before the newline is not included in the line.
+     * @return The lines in this buffer.
+     */
+    public Iterable<GitByteSlice> getLines()
+    {
+        final List<GitByteSlice> result = List.create();
+        for (final GitByteSlice record : this.getRecords((byte)'\n'))
+        {
+            final int length = record.getLength();
+            result.add(length > 0 && record.getByte(length - 1) == '\r'
+                ? record.slice(0, length - 1)
+                : record);
+        }
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+}
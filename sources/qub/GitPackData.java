@@ -0,0 +1,293 @@
+package qub;
+
+/**
+ * The read-only bytes of a pack file or a pack index. On the local disk the file is
+ * memory-mapped in segments (a single mapping can't be larger than 2 GiB), so reading an object
+ * only touches the pages that hold that object instead of copying the file onto the heap.
+ * Files that live in other file systems (such as an {@link InMemoryFileSystem} or a file
+ * system that wraps another one) are read through the file system into heap buffers instead.
+ */
+final class GitPackData
+{
+    /**
+     * The number of bytes in each mapped segment.
+     */
+    static final int defaultSegmentSize = 1 << 30;
+
+    private final java.nio.ByteBuffer[] segments;
+    private final int segmentSize;
+    private final long length;
+
+    private GitPackData(java.nio.ByteBuffer[] segments, int segmentSize, long length)
+    {
+        this.segments = segments;
+        this.segmentSize = segmentSize;
+        this.length = length;
+    }
+
+    /**
+     * Get the bytes of the provided file.
+     * @param file The file to read.
+     * @return The bytes of the file.
+     */
+    static Result<GitPackData> open(File file)
+    {
+        PreCondition.assertNotNull(file, "file");
+
+        return Result.create(() ->
+        {
+            GitPackData result;
+            final java.nio.file.Path path = GitNativeFiles.getPath(file);
+            if (path != null)
+            {
+                result = GitPackData.map(path, GitPackData.defaultSegmentSize);
+            }
+            else
+            {
+                result = GitPackData.wrap(file.getContents().await(), GitPackData.defaultSegmentSize);
+            }
+
+            PostCondition.assertNotNull(result, "result");
+
+            return result;
+        });
+    }
+
+    /**
+     * Memory-map the file at the provided path.
+     * @param path The path of the file to map.
+     * @param segmentSize The number of bytes in each mapped segment.
+     * @return The mapped bytes of the file.
+     */
+    static GitPackData map(java.nio.file.Path path, int segmentSize)
+    {
+        PreCondition.assertNotNull(path, "path");
+        PreCondition.assertGreaterThanOrEqualTo(segmentSize, 1, "segmentSize");
+
+        try (final java.nio.channels.FileChannel channel = java.nio.channels.FileChannel.open(path, java.nio.file.StandardOpenOption.READ))
+        {
+            final long length = channel.size();
+            final int segmentCount = (int)((length + segmentSize - 1) / segmentSize);
+            final java.nio.ByteBuffer[] segments = new java.nio.ByteBuffer[segmentCount];
+            for (int i = 0; i < segmentCount; ++i)
+            {
+                final long position = (long)i * segmentSize;
+                segments[i] = channel.map(java.nio.channels.FileChannel.MapMode.READ_ONLY, position, Math.min(segmentSize, length - position));
+            }
+            return new GitPackData(segments, segmentSize, length);
+        }
+        catch (java.nio.file.NoSuchFileException e)
+        {
+            throw new FileNotFoundException(path.toString());
+        }
+        catch (java.io.IOException e)
+        {
+            throw new GitException("Could not map " + Strings.escapeAndQuote(path.toString()) + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Wrap the provided bytes. The bytes are not copied.
+     * @param bytes The bytes to wrap.
+     * @param segmentSize The number of bytes in each segment.
+     * @return The wrapped bytes.
+     */
+    static GitPackData wrap(byte[] bytes, int segmentSize)
+    {
+        PreCondition.assertNotNull(bytes, "bytes");
+        PreCondition.assertGreaterThanOrEqualTo(segmentSize, 1, "segmentSize");
+
+        final int segmentCount = (bytes.length + segmentSize - 1) / segmentSize;
+        final java.nio.ByteBuffer[] segments = new java.nio.ByteBuffer[segmentCount];
+        for (int i = 0; i < segmentCount; ++i)
+        {
+            final int position = i * segmentSize;
+            segments[i] = java.nio.ByteBuffer.wrap(bytes, position, Math.min(segmentSize, bytes.length - position)).slice();
+        }
+        return new GitPackData(segments, segmentSize, bytes.length);
+    }
+
+    /**
+     * Get the number of bytes in this data.
+     * @return The number of bytes in this data.
+     */
+    long getLength()
+    {
+        return this.length;
+    }
+
+    private void assertRange(long position, long count)
+    {
+        if (position < 0 || count < 0 || position + count > this.length)
+        {
+            throw new GitException("Expected to read " + count + " bytes at position " + position + ", but the data is only " + this.length + " bytes long.");
+        }
+    }
+
+    /**
+     * Get the byte at the provided position.
+     * @param position The position of the byte.
+     * @return The byte at the provided position.
+     */
+    byte getByte(long position)
+    {
+        this.assertRange(position, 1);
+
+        return this.segments[(int)(position / this.segmentSize)].get((int)(position % this.segmentSize));
+    }
+
+    /**
+     * Get the big-endian unsigned 32-bit integer at the provided position.
+     * @param position The position of the integer.
+     * @return The integer at the provided position.
+     */
+    long getUnsignedInt(long position)
+    {
+        this.assertRange(position, 4);
+
+        long result;
+        final int segmentIndex = (int)(position / this.segmentSize);
+        final int segmentPosition = (int)(position % this.segmentSize);
+        if (segmentPosition + 4 <= this.segments[segmentIndex].limit())
+        {
+            result = this.segments[segmentIndex].getInt(segmentPosition) & 0xFFFFFFFFL;
+        }
+        else
+        {
+            result = 0;
+            for (int i = 0; i < 4; ++i)
+            {
+                result = (result << 8) | (this.getByte(position + i) & 0xFF);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the big-endian 32-bit integer at the provided position.
+     * @param position The position of the integer.
+     * @return The integer at the provided position.
+     */
+    int getInt(long position)
+    {
+        return (int)this.getUnsignedInt(position);
+    }
+
+    /**
+     * Get the big-endian 64-bit integer at the provided position.
+     * @param position The position of the integer.
+     * @return The integer at the provided position.
+     */
+    long getLong(long position)
+    {
+        return (this.getUnsignedInt(position) << 32) | this.getUnsignedInt(position + 4);
+    }
+
+    /**
+     * Copy bytes from the provided position into the provided array.
+     * @param position The position of the first byte to copy.
+     * @param output The array to copy into.
+     * @param startIndex The index in output to copy the first byte to.
+     * @param length The number of bytes to copy.
+     */
+    void getBytes(long position, byte[] output, int startIndex, int length)
+    {
+        PreCondition.assertNotNull(output, "output");
+        PreCondition.assertStartIndex(startIndex, output.length + 1);
+        PreCondition.assertLength(length, startIndex, output.length);
+        this.assertRange(position, length);
+
+        int copied = 0;
+        while (copied < length)
+        {
+            final long currentPosition = position + copied;
+            final java.nio.ByteBuffer segment = this.segments[(int)(currentPosition / this.segmentSize)];
+            final int segmentPosition = (int)(currentPosition % this.segmentSize);
+            final int count = Math.min(length - copied, segment.limit() - segmentPosition);
+            segment.duplicate().position(segmentPosition).get(output, startIndex + copied, count);
+            copied += count;
+        }
+    }
+
+    /**
+     * Get the object id that is stored at the provided position.
+     * @param position The position of the object id.
+     * @param objectIdLength The number of bytes in the object id.
+     * @return The object id.
+     */
+    GitObjectId getObjectId(long position, int objectIdLength)
+    {
+        final byte[] bytes = new byte[objectIdLength];
+        this.getBytes(position, bytes, 0, objectIdLength);
+        return GitObjectId.create(bytes);
+    }
+
+    /**
+     * Compare the provided object id to the object id that is stored at the provided position.
+     * @param objectId The object id to compare.
+     * @param position The position of the stored object id.
+     * @return A negative number if the provided object id comes first, zero if they are equal,
+     * or a positive number if the stored object id comes first.
+     */
+    int compareObjectId(GitObjectId objectId, long position)
+    {
+        this.assertRange(position, objectId.getLength());
+
+        int result;
+        final int segmentIndex = (int)(position / this.segmentSize);
+        final int segmentPosition = (int)(position % this.segmentSize);
+        if (segmentPosition + objectId.getLength() <= this.segments[segmentIndex].limit())
+        {
+            result = objectId.compareTo(this.segments[segmentIndex], segmentPosition);
+        }
+        else
+        {
+            result = objectId.compareTo(this.getObjectId(position, objectId.getLength()));
+        }
+        return result;
+    }
+
+    /**
+     * Decompress the zlib stream that starts at the provided position.
+     * @param position The position of the start of the zlib stream.
+     * @param output The array to decompress into.
+     * @param startIndex The index in output where the decompressed bytes will start.
+     * @param length The number of decompressed bytes to produce.
+     * @return The number of decompressed bytes that were produced. This is less than length
+     * only if the zlib stream ended first.
+     */
+    int inflate(long position, byte[] output, int startIndex, int length)
+    {
+        PreCondition.assertNotNull(output, "output");
+        PreCondition.assertStartIndex(startIndex, output.length + 1);
+        PreCondition.assertLength(length, startIndex, output.length);
+        this.assertRange(position, 0);
+
+        final java.util.zip.Inflater inflater = GitInflaterPool.acquire();
+        try
+        {
+            int result = 0;
+            long inputPosition = position;
+            while (result < length && !inflater.finished())
+            {
+                if (inflater.needsInput())
+                {
+                    if (inputPosition >= this.length)
+                    {
+                        throw new GitException("Invalid compressed Git object data: Unexpected end of zlib input.");
+                    }
+                    final java.nio.ByteBuffer segment = this.segments[(int)(inputPosition / this.segmentSize)];
+                    final int segmentPosition = (int)(inputPosition % this.segmentSize);
+                    inflater.setInput(segment.duplicate().position(segmentPosition));
+                    inputPosition += segment.limit() - segmentPosition;
+                }
+                result += GitInflaterPool.inflate(inflater, output, startIndex + result, length - result, true);
+            }
+            return result;
+        }
+        finally
+        {
+            GitInflaterPool.release(inflater);
+        }
+    }
+}
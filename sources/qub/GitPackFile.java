@@ -0,0 +1,478 @@
+package qub;
+
+/**
+ * A pack file (".pack") and its version 2 index (".idx"). Both files are memory-mapped, and
+ * objects are decompressed straight out of the mapped pack file. Deltified objects
+ * (OFS_DELTA and REF_DELTA entries) are resolved by walking the delta chain down to its base
+ * object and then applying the deltas from the base back up to the requested object. If the
+ * pack file has a {@link GitDeltaBaseCache}, then the objects that deltas are applied to are
+ * cached so that later reads of objects with the same bases don't inflate the bases again.
+ */
+public class GitPackFile
+{
+    private static final int signature = 0x5041434B;
+    private static final int headerLength = 12;
+
+    static final int offsetDeltaTypeNumber = 6;
+    static final int referenceDeltaTypeNumber = 7;
+
+    private final File packFile;
+    private final GitPackIndex index;
+    private final GitPackData data;
+    private Function1<GitObjectId,GitObject> externalBaseResolver;
+    private GitDeltaBaseCache deltaBaseCache;
+
+    private GitPackFile(File packFile, GitPackIndex index, GitPackData data)
+    {
+        this.packFile = packFile;
+        this.index = index;
+        this.data = data;
+    }
+
+    /**
+     * Open the pack file that belongs to the provided pack index file.
+     * @param indexFile The ".idx" file of the pack.
+     * @param objectIdLength The number of bytes in the repository's object ids.
+     * @return The pack file.
+     */
+    public static Result<GitPackFile> open(File indexFile, int objectIdLength)
+    {
+        PreCondition.assertNotNull(indexFile, "indexFile");
+        PreCondition.assertTrue(GitObjectId.isValidLength(objectIdLength), "GitObjectId.isValidLength(objectIdLength)");
+
+        return Result.create(() ->
+        {
+            final GitPackIndex index = GitPackIndex.open(indexFile, objectIdLength).await();
+            final Folder packFolder = indexFile.getParentFolder().await();
+            final File packFile = packFolder.getFile(indexFile.getNameWithoutFileExtension() + ".pack").await();
+            final GitPackData data = GitPackData.open(packFile).await();
+            return GitPackFile.create(packFile, index, data).await();
+        });
+    }
+
+    /**
+     * Create a new GitPackFile from the provided pack data and index.
+     * @param packFile The ".pack" file.
+     * @param index The index of the pack file.
+     * @param data The bytes of the pack file.
+     * @return The new GitPackFile.
+     */
+    static Result<GitPackFile> create(File packFile, GitPackIndex index, GitPackData data)
+    {
+        PreCondition.assertNotNull(index, "index");
+        PreCondition.assertNotNull(data, "data");
+
+        return Result.create(() ->
+        {
+            if (data.getLength() < GitPackFile.headerLength || data.getInt(0) != GitPackFile.signature)
+            {
+                throw new ParseException("Expected the pack file to start with \"PACK\".");
+            }
+            final int version = data.getInt(4);
+            if (version != 2 && version != 3)
+            {
+                throw new ParseException("Unsupported pack file version: " + version);
+            }
+            final long objectCount = data.getUnsignedInt(8);
+            if (objectCount != index.getObjectCount())
+            {
+                throw new ParseException("Expected the pack file to contain " + index.getObjectCount() + " objects like its index, but found " + objectCount + ".");
+            }
+            return new GitPackFile(packFile, index, data);
+        });
+    }
+
+    /**
+     * Get the ".pack" file of this pack.
+     * @return The ".pack" file of this pack.
+     */
+    public File getPackFile()
+    {
+        return this.packFile;
+    }
+
+    /**
+     * Get the index of this pack.
+     * @return The index of this pack.
+     */
+    public GitPackIndex getIndex()
+    {
+        return this.index;
+    }
+
+    /**
+     * Set the function that is used to read the base objects of REF_DELTA entries that are not
+     * stored in this pack.
+     * @param externalBaseResolver The function that reads base objects that are not stored in
+     *                             this pack. The function should return null if it can't find
+     *                             the object.
+     * @return This object for method chaining.
+     */
+    public GitPackFile setExternalBaseResolver(Function1<GitObjectId,GitObject> externalBaseResolver)
+    {
+        PreCondition.assertNotNull(externalBaseResolver, "externalBaseResolver");
+
+        this.externalBaseResolver = externalBaseResolver;
+
+        return this;
+    }
+
+    /**
+     * Get the cache that holds the objects that this pack's deltas are applied to.
+     * @return The delta base cache, or null if this pack doesn't cache delta bases.
+     */
+    public GitDeltaBaseCache getDeltaBaseCache()
+    {
+        return this.deltaBaseCache;
+    }
+
+    /**
+     * Set the cache that holds the objects that this pack's deltas are applied to. A cache can
+     * be shared by many packs.
+     * @param deltaBaseCache The delta base cache, or null to stop caching delta bases.
+     * @return This object for method chaining.
+     */
+    public GitPackFile setDeltaBaseCache(GitDeltaBaseCache deltaBaseCache)
+    {
+        this.deltaBaseCache = deltaBaseCache;
+
+        return this;
+    }
+
+    /**
+     * Get whether this pack contains the object with the provided id.
+     * @param objectId The id of the object.
+     * @return Whether this pack contains the object.
+     */
+    public boolean containsObject(GitObjectId objectId)
+    {
+        PreCondition.assertNotNull(objectId, "objectId");
+
+        return this.index.containsObject(objectId);
+    }
+
+    /**
+     * Read the object with the provided id.
+     * @param objectId The id of the object.
+     * @return The object, or null if this pack doesn't contain the object.
+     */
+    public Result<GitObject> getObject(GitObjectId objectId)
+    {
+        PreCondition.assertNotNull(objectId, "objectId");
+
+        return Result.create(() ->
+        {
+            GitObject result = null;
+            final long offset = this.index.getOffset(objectId);
+            if (offset != -1)
+            {
+                result = this.getObject(objectId, offset).await();
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Read the object with the provided id from the provided offset in this pack. This is used
+     * when the offset is already known, such as from a {@link GitMultiPackIndex}.
+     * @param objectId The id of the object.
+     * @param offset The offset of the object's entry in this pack.
+     * @return The object.
+     */
+    Result<GitObject> getObject(GitObjectId objectId, long offset)
+    {
+        PreCondition.assertNotNull(objectId, "objectId");
+        PreCondition.assertGreaterThanOrEqualTo(offset, GitPackFile.headerLength, "offset");
+
+        return Result.create(() ->
+        {
+            final RawObject rawObject = this.readObject(offset);
+            return GitObject.create(objectId, rawObject.objectType, GitByteSlice.create(rawObject.contents, 0, rawObject.contents.length));
+        });
+    }
+
+    /**
+     * The type and contents of an object that was read from a pack file.
+     */
+    static final class RawObject
+    {
+        final GitObjectType objectType;
+        final byte[] contents;
+
+        RawObject(GitObjectType objectType, byte[] contents)
+        {
+            this.objectType = objectType;
+            this.contents = contents;
+        }
+    }
+
+    /**
+     * The header of an entry in a pack file.
+     */
+    private static final class EntryHeader
+    {
+        int typeNumber;
+        long size;
+        long dataPosition;
+        long baseOffset;
+        GitObjectId baseObjectId;
+    }
+
+    private EntryHeader readEntryHeader(long offset)
+    {
+        final EntryHeader result = new EntryHeader();
+
+        long position = offset;
+        int currentByte = this.data.getByte(position++) & 0xFF;
+        result.typeNumber = (currentByte >> 4) & 0x7;
+        result.size = currentByte & 0xF;
+        int shift = 4;
+        while ((currentByte & 0x80) != 0)
+        {
+            if (shift > 56)
+            {
+                throw new ParseException("The size of the pack entry at offset " + offset + " is too large.");
+            }
+            currentByte = this.data.getByte(position++) & 0xFF;
+            result.size |= (long)(currentByte & 0x7F) << shift;
+            shift += 7;
+        }
+
+        if (result.typeNumber == GitPackFile.offsetDeltaTypeNumber)
+        {
+            currentByte = this.data.getByte(position++) & 0xFF;
+            long distance = currentByte & 0x7F;
+            while ((currentByte & 0x80) != 0)
+            {
+                currentByte = this.data.getByte(position++) & 0xFF;
+                distance = ((distance + 1) << 7) | (currentByte & 0x7F);
+            }
+            result.baseOffset = offset - distance;
+            if (distance <= 0 || result.baseOffset < GitPackFile.headerLength)
+            {
+                throw new ParseException("The OFS_DELTA entry at offset " + offset + " has an invalid base offset.");
+            }
+        }
+        else if (result.typeNumber == GitPackFile.referenceDeltaTypeNumber)
+        {
+            result.baseObjectId = this.data.getObjectId(position, this.index.getObjectIdLength());
+            position += this.index.getObjectIdLength();
+        }
+        else if (GitObjectType.fromPackTypeNumber(result.typeNumber) == null)
+        {
+            throw new ParseException("The pack entry at offset " + offset + " has an invalid type: " + result.typeNumber);
+        }
+
+        result.dataPosition = position;
+
+        return result;
+    }
+
+    private byte[] inflateEntry(long offset, EntryHeader header)
+    {
+        if (header.size > Integer.MAX_VALUE - 8)
+        {
+            throw new GitException("The pack entry at offset " + offset + " is too large to read into memory (" + header.size + " bytes).");
+        }
+
+        final byte[] result = new byte[(int)header.size];
+        final int inflatedCount = this.data.inflate(header.dataPosition, result, 0, result.length);
+        if (inflatedCount != result.length)
+        {
+            throw new ParseException("Expected the pack entry at offset " + offset + " to contain " + result.length + " bytes, but found " + inflatedCount + ".");
+        }
+        return result;
+    }
+
+    /**
+     * Read the object at the provided offset in this pack, resolving its delta chain if it is
+     * deltified.
+     * @param offset The offset of the object's entry.
+     * @return The type and contents of the object.
+     */
+    RawObject readObject(long offset)
+    {
+        final GitDeltaBaseCache deltaBaseCache = this.deltaBaseCache;
+        final java.util.ArrayList<Long> deltaOffsets = new java.util.ArrayList<>();
+        final java.util.ArrayList<EntryHeader> deltaHeaders = new java.util.ArrayList<>();
+
+        RawObject result = null;
+        long currentOffset = offset;
+        while (result == null)
+        {
+            if (deltaBaseCache != null)
+            {
+                result = deltaBaseCache.get(this, currentOffset);
+                if (result != null)
+                {
+                    break;
+                }
+            }
+
+            final EntryHeader header = this.readEntryHeader(currentOffset);
+            if (header.typeNumber == GitPackFile.offsetDeltaTypeNumber)
+            {
+                deltaOffsets.add(currentOffset);
+                deltaHeaders.add(header);
+                currentOffset = header.baseOffset;
+            }
+            else if (header.typeNumber == GitPackFile.referenceDeltaTypeNumber)
+            {
+                deltaOffsets.add(currentOffset);
+                deltaHeaders.add(header);
+                final long baseOffset = this.index.getOffset(header.baseObjectId);
+                if (baseOffset != -1)
+                {
+                    currentOffset = baseOffset;
+                }
+                else
+                {
+                    final GitObject baseObject = this.externalBaseResolver == null ? null : this.externalBaseResolver.run(header.baseObjectId);
+                    if (baseObject == null)
+                    {
+                        throw new NotFoundException("Could not find the Git object " + header.baseObjectId + " that is the base of the REF_DELTA entry at offset " + currentOffset + ".");
+                    }
+                    result = new RawObject(baseObject.getObjectType(), baseObject.getContents().getBytes());
+                }
+            }
+            else
+            {
+                result = new RawObject(GitObjectType.fromPackTypeNumber(header.typeNumber), this.inflateEntry(currentOffset, header));
+                if (deltaBaseCache != null && !deltaHeaders.isEmpty())
+                {
+                    deltaBaseCache.put(this, currentOffset, result);
+                }
+            }
+
+            if (deltaOffsets.size() > 10000)
+            {
+                throw new ParseException("The delta chain of the pack entry at offset " + offset + " is too long.");
+            }
+        }
+
+        for (int i = deltaHeaders.size() - 1; i >= 0; --i)
+        {
+            final long deltaOffset = deltaOffsets.get(i);
+            final byte[] delta = this.inflateEntry(deltaOffset, deltaHeaders.get(i));
+            result = new RawObject(result.objectType, GitPackFile.applyDelta(result.contents, delta, deltaOffset));
+            if (deltaBaseCache != null && i > 0)
+            {
+                // Every object in the chain except the requested one is the base of another delta.
+                deltaBaseCache.put(this, deltaOffset, result);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Apply the provided delta to the provided base object contents.
+     * @param base The contents of the base object.
+     * @param delta The delta instructions.
+     * @param deltaOffset The offset of the delta entry, used in error messages.
+     * @return The contents of the object that the delta produces.
+     */
+    static byte[] applyDelta(byte[] base, byte[] delta, long deltaOffset)
+    {
+        PreCondition.assertNotNull(base, "base");
+        PreCondition.assertNotNull(delta, "delta");
+
+        final int[] position = new int[] { 0 };
+        final long baseSize = GitPackFile.readDeltaSize(delta, position, deltaOffset);
+        final long resultSize = GitPackFile.readDeltaSize(delta, position, deltaOffset);
+        if (baseSize != base.length)
+        {
+            throw new ParseException("Expected the base of the delta at offset " + deltaOffset + " to contain " + baseSize + " bytes, but found " + base.length + ".");
+        }
+        if (resultSize > Integer.MAX_VALUE - 8)
+        {
+            throw new GitException("The object produced by the delta at offset " + deltaOffset + " is too large to read into memory (" + resultSize + " bytes).");
+        }
+
+        final byte[] result = new byte[(int)resultSize];
+        int resultIndex = 0;
+        int deltaIndex = position[0];
+        while (deltaIndex < delta.length)
+        {
+            final int instruction = delta[deltaIndex++] & 0xFF;
+            if ((instruction & 0x80) != 0)
+            {
+                long copyOffset = 0;
+                int copySize = 0;
+                for (int i = 0; i < 4; ++i)
+                {
+                    if ((instruction & (1 << i)) != 0)
+                    {
+                        copyOffset |= (long)(GitPackFile.getDeltaByte(delta, deltaIndex++, deltaOffset) & 0xFF) << (8 * i);
+                    }
+                }
+                for (int i = 0; i < 3; ++i)
+                {
+                    if ((instruction & (0x10 << i)) != 0)
+                    {
+                        copySize |= (GitPackFile.getDeltaByte(delta, deltaIndex++, deltaOffset) & 0xFF) << (8 * i);
+                    }
+                }
+                if (copySize == 0)
+                {
+                    copySize = 0x10000;
+                }
+                if (copyOffset + copySize > base.length || resultIndex + copySize > result.length)
+                {
+                    throw new ParseException("The delta at offset " + deltaOffset + " copies outside of its base or result.");
+                }
+                System.arraycopy(base, (int)copyOffset, result, resultIndex, copySize);
+                resultIndex += copySize;
+            }
+            else if (instruction != 0)
+            {
+                if (deltaIndex + instruction > delta.length || resultIndex + instruction > result.length)
+                {
+                    throw new ParseException("The delta at offset " + deltaOffset + " inserts more bytes than it contains.");
+                }
+                System.arraycopy(delta, deltaIndex, result, resultIndex, instruction);
+                deltaIndex += instruction;
+                resultIndex += instruction;
+            }
+            else
+            {
+                throw new ParseException("The delta at offset " + deltaOffset + " contains the reserved instruction 0.");
+            }
+        }
+
+        if (resultIndex != result.length)
+        {
+            throw new ParseException("Expected the delta at offset " + deltaOffset + " to produce " + result.length + " bytes, but it produced " + resultIndex + ".");
+        }
+
+        return result;
+    }
+
+    private static byte getDeltaByte(byte[] delta, int index, long deltaOffset)
+    {
+        if (index >= delta.length)
+        {
+            throw new ParseException("Unexpected end of the delta at offset " + deltaOffset + ".");
+        }
+        return delta[index];
+    }
+
+    private static long readDeltaSize(byte[] delta, int[] position, long deltaOffset)
+    {
+        long result = 0;
+        int shift = 0;
+        int currentByte;
+        do
+        {
+            if (shift > 56)
+            {
+                throw new ParseException("The delta at offset " + deltaOffset + " has an invalid size.");
+            }
+            currentByte = GitPackFile.getDeltaByte(delta, position[0]++, deltaOffset) & 0xFF;
+            result |= (long)(currentByte & 0x7F) << shift;
+            shift += 7;
+        }
+        while ((currentByte & 0x80) != 0);
+        return result;
+    }
+}
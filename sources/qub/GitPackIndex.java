@@ -0,0 +1,220 @@
+package qub;
+
+/**
+ * A version 2 pack index (".idx" file). The index maps the ids of the objects in a pack file to
+ * the offsets of the objects within the pack file. Lookups use the index's 256-entry fanout
+ * table to find the range of object ids that start with the same byte, and then binary search
+ * that range, so a lookup reads O(log n) object ids from the mapped file.
+ */
+public class GitPackIndex
+{
+    private static final int signature = 0xFF744F63;
+    private static final int headerLength = 8;
+    private static final int fanoutLength = 256 * 4;
+
+    private final GitPackData data;
+    private final int objectIdLength;
+    private final int objectCount;
+    private final long objectIdsPosition;
+    private final long offsetsPosition;
+    private final long largeOffsetsPosition;
+
+    private GitPackIndex(GitPackData data, int objectIdLength, int objectCount)
+    {
+        this.data = data;
+        this.objectIdLength = objectIdLength;
+        this.objectCount = objectCount;
+        this.objectIdsPosition = GitPackIndex.headerLength + GitPackIndex.fanoutLength;
+        final long checksumsPosition = this.objectIdsPosition + ((long)objectCount * objectIdLength);
+        this.offsetsPosition = checksumsPosition + ((long)objectCount * 4);
+        this.largeOffsetsPosition = this.offsetsPosition + ((long)objectCount * 4);
+    }
+
+    /**
+     * Open the pack index in the provided file.
+     * @param indexFile The ".idx" file.
+     * @param objectIdLength The number of bytes in the repository's object ids.
+     * @return The pack index.
+     */
+    public static Result<GitPackIndex> open(File indexFile, int objectIdLength)
+    {
+        PreCondition.assertNotNull(indexFile, "indexFile");
+        PreCondition.assertTrue(GitObjectId.isValidLength(objectIdLength), "GitObjectId.isValidLength(objectIdLength)");
+
+        return GitPackData.open(indexFile)
+            .then((GitPackData data) -> GitPackIndex.parse(data, objectIdLength).await());
+    }
+
+    /**
+     * Parse the pack index in the provided data.
+     * @param data The bytes of the ".idx" file.
+     * @param objectIdLength The number of bytes in the repository's object ids.
+     * @return The pack index.
+     */
+    static Result<GitPackIndex> parse(GitPackData data, int objectIdLength)
+    {
+        PreCondition.assertNotNull(data, "data");
+        PreCondition.assertTrue(GitObjectId.isValidLength(objectIdLength), "GitObjectId.isValidLength(objectIdLength)");
+
+        return Result.create(() ->
+        {
+            final long minimumLength = GitPackIndex.headerLength + GitPackIndex.fanoutLength + (2L * objectIdLength);
+            if (data.getLength() < minimumLength)
+            {
+                throw new ParseException("Expected a pack index to contain at least " + minimumLength + " bytes, but found " + data.getLength() + ".");
+            }
+            if (data.getInt(0) != GitPackIndex.signature)
+            {
+                throw new ParseException("Unsupported pack index format. Only version 2 pack indexes are supported.");
+            }
+            final int version = data.getInt(4);
+            if (version != 2)
+            {
+                throw new ParseException("Unsupported pack index version: " + version);
+            }
+
+            long previousCount = 0;
+            for (int i = 0; i < 256; ++i)
+            {
+                final long count = data.getUnsignedInt(GitPackIndex.headerLength + (i * 4L));
+                if (count < previousCount)
+                {
+                    throw new ParseException("The fanout table of the pack index is not sorted.");
+                }
+                previousCount = count;
+            }
+            if (previousCount > Integer.MAX_VALUE)
+            {
+                throw new ParseException("The pack index contains too many objects: " + previousCount);
+            }
+
+            final GitPackIndex result = new GitPackIndex(data, objectIdLength, (int)previousCount);
+            if (result.largeOffsetsPosition + (2L * objectIdLength) > data.getLength())
+            {
+                throw new ParseException("Expected the pack index to contain " + previousCount + " objects, but it is only " + data.getLength() + " bytes long.");
+            }
+
+            return result;
+        });
+    }
+
+    /**
+     * Get the number of bytes in the object ids of this index.
+     * @return The number of bytes in the object ids of this index.
+     */
+    public int getObjectIdLength()
+    {
+        return this.objectIdLength;
+    }
+
+    /**
+     * Get the number of objects in this index.
+     * @return The number of objects in this index.
+     */
+    public int getObjectCount()
+    {
+        return this.objectCount;
+    }
+
+    /**
+     * Get the checksum of the pack file that this index describes. The checksum is stored at the
+     * end of the index, just before the index's own checksum.
+     * @return The checksum of the pack file that this index describes.
+     */
+    public GitObjectId getPackChecksum()
+    {
+        return this.data.getObjectId(this.data.getLength() - (2L * this.objectIdLength), this.objectIdLength);
+    }
+
+    /**
+     * Get the id of the object at the provided position in this index. Objects are sorted by
+     * their ids.
+     * @param index The position of the object in this index.
+     * @return The id of the object.
+     */
+    public GitObjectId getObjectId(int index)
+    {
+        PreCondition.assertIndexAccess(index, this.objectCount, "index");
+
+        return this.data.getObjectId(this.objectIdsPosition + ((long)index * this.objectIdLength), this.objectIdLength);
+    }
+
+    /**
+     * Get the offset in the pack file of the object at the provided position in this index.
+     * @param index The position of the object in this index.
+     * @return The offset of the object in the pack file.
+     */
+    public long getOffset(int index)
+    {
+        PreCondition.assertIndexAccess(index, this.objectCount, "index");
+
+        long result = this.data.getUnsignedInt(this.offsetsPosition + (index * 4L));
+        if ((result & 0x80000000L) != 0)
+        {
+            // Offsets that don't fit in 31 bits are stored in the large offset table, and the
+            // small offset holds the index of the large offset.
+            result = this.data.getLong(this.largeOffsetsPosition + ((result & 0x7FFFFFFFL) * 8));
+        }
+        return result;
+    }
+
+    /**
+     * Get the position in this index of the object with the provided id.
+     * @param objectId The id of the object.
+     * @return The position in this index of the object, or -1 if this index doesn't contain the
+     * object.
+     */
+    public int indexOf(GitObjectId objectId)
+    {
+        PreCondition.assertNotNull(objectId, "objectId");
+
+        int result = -1;
+        if (objectId.getLength() == this.objectIdLength)
+        {
+            final int fanoutIndex = objectId.getFanoutIndex();
+            int low = fanoutIndex == 0 ? 0 : this.data.getInt(GitPackIndex.headerLength + ((fanoutIndex - 1) * 4L));
+            int high = this.data.getInt(GitPackIndex.headerLength + (fanoutIndex * 4L)) - 1;
+            while (low <= high)
+            {
+                final int middle = (low + high) >>> 1;
+                final int comparison = this.data.compareObjectId(objectId, this.objectIdsPosition + ((long)middle * this.objectIdLength));
+                if (comparison == 0)
+                {
+                    result = middle;
+                    break;
+                }
+                else if (comparison < 0)
+                {
+                    high = middle - 1;
+                }
+                else
+                {
+                    low = middle + 1;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get whether this index contains the object with the provided id.
+     * @param objectId The id of the object.
+     * @return Whether this index contains the object.
+     */
+    public boolean containsObject(GitObjectId objectId)
+    {
+        return this.indexOf(objectId) != -1;
+    }
+
+    /**
+     * Get the offset in the pack file of the object with the provided id.
+     * @param objectId The id of the object.
+     * @return The offset in the pack file of the object, or -1 if this index doesn't contain the
+     * object.
+     */
+    public long getOffset(GitObjectId objectId)
+    {
+        final int index = this.indexOf(objectId);
+        return index == -1 ? -1 : this.getOffset(index);
+    }
+}
@@ -0,0 +1,334 @@
+package qub;
+
+/**
+ * A repository's "packed-refs" file. Each line of the file is an object id and a ref name, and a
+ * line that starts with '^' holds the peeled object id of the ref above it. When the file's
+ * header has the "sorted" trait (which Git has written since 2.19), refs are found with a binary
+ * search directly over the file's bytes, so opening the file only reads it. Otherwise the
+ * positions of the refs are collected and sorted once when the file is parsed.
+ * <p>
+ * Unlike pack files, the file is read onto the heap instead of being memory-mapped. Git replaces
+ * "packed-refs" by renaming a new file over it, and on Windows that rename fails while the file
+ * is mapped (a mapping stays alive until it is garbage collected).
+ */
+final class GitPackedRefs
+{
+    private static final String headerPrefix = "# pack-refs with:";
+
+    private final GitPackData data;
+    private final int objectIdLength;
+    private final long bodyStart;
+    private final long[] sortedRecordPositions;
+
+    private GitPackedRefs(GitPackData data, int objectIdLength, long bodyStart, long[] sortedRecordPositions)
+    {
+        this.data = data;
+        this.objectIdLength = objectIdLength;
+        this.bodyStart = bodyStart;
+        this.sortedRecordPositions = sortedRecordPositions;
+    }
+
+    /**
+     * Open the provided "packed-refs" file.
+     * @param packedRefsFile The "packed-refs" file.
+     * @param objectIdLength The number of bytes in the repository's object ids.
+     * @return The packed refs.
+     */
+    static Result<GitPackedRefs> open(File packedRefsFile, int objectIdLength)
+    {
+        PreCondition.assertNotNull(packedRefsFile, "packedRefsFile");
+        PreCondition.assertTrue(GitObjectId.isValidLength(objectIdLength), "GitObjectId.isValidLength(objectIdLength)");
+
+        return packedRefsFile.getContents()
+            .then((byte[] contents) -> GitPackedRefs.parse(GitPackData.wrap(contents, GitPackData.defaultSegmentSize), objectIdLength).await());
+    }
+
+    /**
+     * Parse the packed refs in the provided data.
+     * @param data The bytes of the "packed-refs" file.
+     * @param objectIdLength The number of bytes in the repository's object ids.
+     * @return The packed refs.
+     */
+    static Result<GitPackedRefs> parse(GitPackData data, int objectIdLength)
+    {
+        PreCondition.assertNotNull(data, "data");
+        PreCondition.assertTrue(GitObjectId.isValidLength(objectIdLength), "GitObjectId.isValidLength(objectIdLength)");
+
+        return Result.create(() ->
+        {
+            long bodyStart = 0;
+            boolean sorted = false;
+            if (data.getLength() > 0 && data.getByte(0) == '#')
+            {
+                bodyStart = GitPackedRefs.getNextLineStart(data, 0);
+                final String header = GitPackedRefs.getString(data, 0, bodyStart).trim();
+                if (header.startsWith(GitPackedRefs.headerPrefix))
+                {
+                    for (final String trait : header.substring(GitPackedRefs.headerPrefix.length()).trim().split(" "))
+                    {
+                        sorted = sorted || trait.equals("sorted");
+                    }
+                }
+            }
+
+            final int hexLength = objectIdLength * 2;
+            long[] sortedRecordPositions = null;
+            if (!sorted)
+            {
+                final java.util.ArrayList<Long> recordPositions = new java.util.ArrayList<>();
+                for (long position = bodyStart; position < data.getLength(); position = GitPackedRefs.getNextLineStart(data, position))
+                {
+                    if (data.getByte(position) != '^')
+                    {
+                        recordPositions.add(position);
+                    }
+                }
+                recordPositions.sort((Long lhs, Long rhs) -> GitPackedRefs.compareNames(data, lhs + hexLength + 1, data, rhs + hexLength + 1));
+                sortedRecordPositions = recordPositions.stream().mapToLong((Long position) -> position).toArray();
+            }
+
+            return new GitPackedRefs(data, objectIdLength, bodyStart, sortedRecordPositions);
+        });
+    }
+
+    private static long getNextLineStart(GitPackData data, long position)
+    {
+        final long length = data.getLength();
+        while (position < length && data.getByte(position) != '\n')
+        {
+            ++position;
+        }
+        return Math.min(position + 1, length);
+    }
+
+    private static long getLineStart(GitPackData data, long minimumPosition, long position)
+    {
+        while (position > minimumPosition && data.getByte(position - 1) != '\n')
+        {
+            --position;
+        }
+        return position;
+    }
+
+    private static long getLineEnd(GitPackData data, long position)
+    {
+        final long length = data.getLength();
+        while (position < length && data.getByte(position) != '\n' && data.getByte(position) != '\r')
+        {
+            ++position;
+        }
+        return position;
+    }
+
+    private static String getString(GitPackData data, long startPosition, long endPosition)
+    {
+        final byte[] bytes = new byte[(int)(endPosition - startPosition)];
+        data.getBytes(startPosition, bytes, 0, bytes.length);
+        return new String(bytes, java.nio.charset.StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Compare the ref name that starts at the provided position with the provided name. Names
+     * are compared by their unsigned bytes, which is the order that Git sorts them in.
+     */
+    private static int compareNames(GitPackData lhsData, long lhsPosition, GitPackData rhsData, long rhsPosition)
+    {
+        int result = 0;
+        while (result == 0)
+        {
+            final int lhsByte = GitPackedRefs.getNameByte(lhsData, lhsPosition++);
+            final int rhsByte = GitPackedRefs.getNameByte(rhsData, rhsPosition++);
+            result = Integer.compare(lhsByte, rhsByte);
+            if (lhsByte == -1)
+            {
+                break;
+            }
+        }
+        return result;
+    }
+
+    private static int getNameByte(GitPackData data, long position)
+    {
+        int result = -1;
+        if (position < data.getLength())
+        {
+            result = data.getByte(position) & 0xFF;
+            if (result == '\n' || result == '\r')
+            {
+                result = -1;
+            }
+        }
+        return result;
+    }
+
+    private int getRecordCount()
+    {
+        return this.sortedRecordPositions.length;
+    }
+
+    private long getNamePosition(long recordPosition)
+    {
+        return recordPosition + (this.objectIdLength * 2) + 1;
+    }
+
+    /**
+     * Get the position of the first ref record whose name isn't less than the provided name. For
+     * a sorted file the record is found with a binary search over the file's bytes, where each
+     * probe backs up to the start of the record that contains it.
+     * @param name The name to search for, followed by a newline.
+     * @return The position of the record, or -1 if every ref name is less than the provided
+     * name.
+     */
+    private long findLowerBound(GitPackData name)
+    {
+        long result;
+        if (this.sortedRecordPositions == null)
+        {
+            long low = this.bodyStart;
+            long high = this.data.getLength();
+            while (low < high)
+            {
+                final long middle = low + ((high - low) / 2);
+                long recordPosition = GitPackedRefs.getLineStart(this.data, low, middle);
+                if (this.data.getByte(recordPosition) == '^')
+                {
+                    recordPosition = GitPackedRefs.getLineStart(this.data, low, recordPosition - 1);
+                }
+
+                if (GitPackedRefs.compareNames(this.data, this.getNamePosition(recordPosition), name, 0) < 0)
+                {
+                    low = this.getNextRecordPosition(recordPosition);
+                }
+                else
+                {
+                    high = recordPosition;
+                }
+            }
+            result = low < this.data.getLength() ? low : -1;
+        }
+        else
+        {
+            int low = 0;
+            int high = this.getRecordCount();
+            while (low < high)
+            {
+                final int middle = (low + high) >>> 1;
+                if (GitPackedRefs.compareNames(this.data, this.getNamePosition(this.sortedRecordPositions[middle]), name, 0) < 0)
+                {
+                    low = middle + 1;
+                }
+                else
+                {
+                    high = middle;
+                }
+            }
+            result = low < this.getRecordCount() ? low : -1;
+        }
+        return result;
+    }
+
+    /**
+     * Get the position of the record after the record at the provided position, skipping the
+     * record's peeled line.
+     */
+    private long getNextRecordPosition(long recordPosition)
+    {
+        long result = GitPackedRefs.getNextLineStart(this.data, recordPosition);
+        if (result < this.data.getLength() && this.data.getByte(result) == '^')
+        {
+            result = GitPackedRefs.getNextLineStart(this.data, result);
+        }
+        return result;
+    }
+
+    private GitRef readRecord(long recordPosition)
+    {
+        final int hexLength = this.objectIdLength * 2;
+        final long namePosition = this.getNamePosition(recordPosition);
+        if (namePosition > this.data.getLength() || this.data.getByte(namePosition - 1) != ' ')
+        {
+            throw new ParseException("Expected a packed ref at byte " + recordPosition + " of the packed-refs file.");
+        }
+        final GitObjectId objectId = GitObjectId.parse(GitPackedRefs.getString(this.data, recordPosition, recordPosition + hexLength)).await();
+        final long nameEnd = GitPackedRefs.getLineEnd(this.data, namePosition);
+        final String name = GitPackedRefs.getString(this.data, namePosition, nameEnd);
+
+        GitObjectId peeledObjectId = null;
+        final long nextLineStart = GitPackedRefs.getNextLineStart(this.data, recordPosition);
+        if (nextLineStart < this.data.getLength() && this.data.getByte(nextLineStart) == '^')
+        {
+            final long peeledEnd = GitPackedRefs.getLineEnd(this.data, nextLineStart + 1);
+            peeledObjectId = GitObjectId.parse(GitPackedRefs.getString(this.data, nextLineStart + 1, peeledEnd)).await();
+        }
+        return GitRef.create(name, objectId, peeledObjectId);
+    }
+
+    private static GitPackData toNameData(String name)
+    {
+        return GitPackData.wrap((name + "\n").getBytes(java.nio.charset.StandardCharsets.UTF_8), GitPackData.defaultSegmentSize);
+    }
+
+    /**
+     * Get the packed ref with the provided name.
+     * @param name The full name of the ref.
+     * @return The packed ref, or null if this file doesn't contain the ref.
+     */
+    GitRef get(String name)
+    {
+        PreCondition.assertNotNullAndNotEmpty(name, "name");
+
+        GitRef result = null;
+        final GitPackData nameData = GitPackedRefs.toNameData(name);
+        final long lowerBound = this.findLowerBound(nameData);
+        if (lowerBound != -1)
+        {
+            final long recordPosition = this.sortedRecordPositions == null ? lowerBound : this.sortedRecordPositions[(int)lowerBound];
+            if (GitPackedRefs.compareNames(this.data, this.getNamePosition(recordPosition), nameData, 0) == 0)
+            {
+                result = this.readRecord(recordPosition);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the packed refs whose names start with the provided prefix, in name order.
+     * @param prefix The prefix of the ref names, such as "refs/tags/".
+     * @return The packed refs whose names start with the provided prefix.
+     */
+    Iterable<GitRef> getRefs(String prefix)
+    {
+        PreCondition.assertNotNull(prefix, "prefix");
+
+        final List<GitRef> result = List.create();
+        final long lowerBound = this.findLowerBound(GitPackedRefs.toNameData(prefix));
+        if (lowerBound != -1)
+        {
+            if (this.sortedRecordPositions == null)
+            {
+                for (long position = lowerBound; position < this.data.getLength(); position = this.getNextRecordPosition(position))
+                {
+                    final GitRef ref = this.readRecord(position);
+                    if (!ref.getName().startsWith(prefix))
+                    {
+                        break;
+                    }
+                    result.add(ref);
+                }
+            }
+            else
+            {
+                for (int i = (int)lowerBound; i < this.getRecordCount(); ++i)
+                {
+                    final GitRef ref = this.readRecord(this.sortedRecordPositions[i]);
+                    if (!ref.getName().startsWith(prefix))
+                    {
+                        break;
+                    }
+                    result.add(ref);
+                }
+            }
+        }
+        return result;
+    }
+}
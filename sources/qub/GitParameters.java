@@ -84,6 +84,39 @@ public interface GitParameters extends ChildProcessParameters
         return this;
     }
 
+    /**
+     * Add a "-c name=value" Git argument that overrides a configuration value for this command.
+     * @param name The name of the configuration value, such as "http.lowSpeedLimit".
+     * @param value The value that the configuration value will have for this command.
+     * @return This object for method chaining.
+     */
+    default GitParameters addConfiguration(String name, String value)
+    {
+        PreCondition.assertNotNullAndNotEmpty(name, "name");
+        PreCondition.assertFalse(name.contains("="), "name.contains(\"=\")");
+        PreCondition.assertNotNull(value, "value");
+
+        return this.addGitArguments("-c", name + "=" + value);
+    }
+
+    /**
+     * Make Git abort an HTTP transfer that stays below the provided number of bytes per second
+     * for the provided number of seconds. This lets Git itself give up on a stalled remote
+     * before the command's timeout is reached.
+     * @param bytesPerSecond The transfer rate that a transfer must stay above.
+     * @param seconds The number of seconds that a transfer can stay below the transfer rate
+     *                before it is aborted.
+     * @return This object for method chaining.
+     */
+    default GitParameters addLowSpeedLimit(int bytesPerSecond, int seconds)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(bytesPerSecond, 1, "bytesPerSecond");
+        PreCondition.assertGreaterThanOrEqualTo(seconds, 1, "seconds");
+
+        return this.addConfiguration("http.lowSpeedLimit", Integer.toString(bytesPerSecond))
+            .addConfiguration("http.lowSpeedTime", Integer.toString(seconds));
+    }
+
     Iterable<String> getCommandArguments();
 
     GitParameters insertCommandArgument(int commandArgumentIndex, String commandArgument);
@@ -129,6 +162,37 @@ public interface GitParameters extends ChildProcessParameters
         return (GitParameters)ChildProcessParameters.super.setWorkingFolder(workingFolder);
     }
 
+    /**
+     * Get the maximum amount of time that the Git command can run for before its child process
+     * is killed and its Result fails with a {@link GitTimeoutException}.
+     * @return The maximum amount of time that the Git command can run for, or null if the
+     * command doesn't have a timeout.
+     */
+    Duration getTimeout();
+
+    /**
+     * Set the maximum amount of time that the Git command can run for before its child process
+     * is killed and its Result fails with a {@link GitTimeoutException}.
+     * @param timeout The maximum amount of time that the Git command can run for.
+     * @return This object for method chaining.
+     */
+    GitParameters setTimeout(Duration timeout);
+
+    /**
+     * Get the token that can cancel the Git command.
+     * @return The token that can cancel the Git command, or null if the command can't be
+     * cancelled.
+     */
+    GitCancellationToken getCancellationToken();
+
+    /**
+     * Set the token that can cancel the Git command. When the token is cancelled, the command's
+     * child process is killed and its Result fails with a {@link GitCancelledException}.
+     * @param cancellationToken The token that can cancel the Git command.
+     * @return This object for method chaining.
+     */
+    GitParameters setCancellationToken(GitCancellationToken cancellationToken);
+
     @Override
     GitParameters setInputStream(ByteReadStream inputStream);
 
@@ -215,4 +215,48 @@ public abstract class GitParametersDecorator<T extends GitParameters> implements
     {
         return (T)GitParameters.super.redirectErrorTo(errorStream);
     }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T addConfiguration(String name, String value)
+    {
+        return (T)GitParameters.super.addConfiguration(name, value);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T addLowSpeedLimit(int bytesPerSecond, int seconds)
+    {
+        return (T)GitParameters.super.addLowSpeedLimit(bytesPerSecond, seconds);
+    }
+
+    @Override
+    public Duration getTimeout()
+    {
+        return this.innerParameters.getTimeout();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T setTimeout(Duration timeout)
+    {
+        this.innerParameters.setTimeout(timeout);
+
+        return (T)this;
+    }
+
+    @Override
+    public GitCancellationToken getCancellationToken()
+    {
+        return this.innerParameters.getCancellationToken();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T setCancellationToken(GitCancellationToken cancellationToken)
+    {
+        this.innerParameters.setCancellationToken(cancellationToken);
+
+        return (T)this;
+    }
 }
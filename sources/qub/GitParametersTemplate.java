@@ -0,0 +1,221 @@
+package qub;
+
+/**
+ * An immutable snapshot of a configured {@link GitParameters} object that can be instantiated
+ * many times. Instantiating a template copies the template's validated arguments into a new
+ * parameters object without re-running the builder methods that produced them, so a command
+ * shape that is run against many repositories only has to be configured once. A template can be
+ * shared between threads.
+ * <p>
+ * A template captures the executable path, all of the arguments, the working folder path, and
+ * the timeout of the parameters that it was created from. Arguments that were added with
+ * {@link ChildProcessParameters#addArgument(String)} instead of as Git arguments or command
+ * arguments are captured too, but they must come after the Git arguments and the command
+ * arguments. Input streams, stream handlers, and cancellation tokens belong to a single
+ * invocation, so they are not captured and must be set on each instantiated parameters object.
+ */
+public final class GitParametersTemplate
+{
+    private static final String[] emptyArguments = new String[0];
+
+    private final Path executablePath;
+    private final String[] gitArguments;
+    private final String[] commandArguments;
+    private final String[] otherArguments;
+    private final Path workingFolderPath;
+    private final Duration timeout;
+
+    private GitParametersTemplate(Path executablePath, String[] gitArguments, String[] commandArguments, String[] otherArguments, Path workingFolderPath, Duration timeout)
+    {
+        this.executablePath = executablePath;
+        this.gitArguments = gitArguments;
+        this.commandArguments = commandArguments;
+        this.otherArguments = otherArguments;
+        this.workingFolderPath = workingFolderPath;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Create a new GitParametersTemplate from the current state of the provided parameters.
+     * Later changes to the provided parameters don't affect the template.
+     * @param parameters The parameters to create a template from. The parameters' arguments
+     *                   must start with their Git arguments followed by their command
+     *                   arguments.
+     * @return The new GitParametersTemplate.
+     */
+    public static GitParametersTemplate create(GitParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        final String[] gitArguments = GitParametersTemplate.toArray(parameters.getGitArguments());
+        final String[] commandArguments = GitParametersTemplate.toArray(parameters.getCommandArguments());
+        final String[] arguments = GitParametersTemplate.toArray(parameters.getArguments());
+        PreCondition.assertTrue(GitParametersTemplate.startsWithSegments(arguments, gitArguments, commandArguments), "GitParametersTemplate.startsWithSegments(arguments, gitArguments, commandArguments)");
+
+        final int segmentsLength = gitArguments.length + commandArguments.length;
+        return new GitParametersTemplate(
+            parameters.getExecutablePath(),
+            gitArguments,
+            commandArguments,
+            java.util.Arrays.copyOfRange(arguments, segmentsLength, arguments.length),
+            parameters.getWorkingFolderPath(),
+            parameters.getTimeout());
+    }
+
+    /**
+     * Get whether the provided arguments start with the provided Git arguments followed by the
+     * provided command arguments.
+     * @param arguments The full list of arguments.
+     * @param gitArguments The Git arguments.
+     * @param commandArguments The command arguments.
+     * @return Whether the arguments start with the Git arguments and the command arguments.
+     */
+    private static boolean startsWithSegments(String[] arguments, String[] gitArguments, String[] commandArguments)
+    {
+        final int segmentsLength = gitArguments.length + commandArguments.length;
+        return segmentsLength <= arguments.length &&
+            java.util.Arrays.equals(arguments, 0, gitArguments.length, gitArguments, 0, gitArguments.length) &&
+            java.util.Arrays.equals(arguments, gitArguments.length, segmentsLength, commandArguments, 0, commandArguments.length);
+    }
+
+    private static String[] toArray(Iterable<String> arguments)
+    {
+        final String[] result = new String[arguments.getCount()];
+        int index = 0;
+        for (final String argument : arguments)
+        {
+            result[index++] = argument;
+        }
+        return result;
+    }
+
+    /**
+     * Get the path to the Git executable that instantiated commands will run.
+     * @return The path to the Git executable that instantiated commands will run.
+     */
+    public Path getExecutablePath()
+    {
+        return this.executablePath;
+    }
+
+    /**
+     * Get the Git arguments that appear before the command in instantiated commands.
+     * @return The Git arguments that appear before the command in instantiated commands.
+     */
+    public Iterable<String> getGitArguments()
+    {
+        return Iterable.create(this.gitArguments);
+    }
+
+    /**
+     * Get the command arguments that every instantiated command starts with.
+     * @return The command arguments that every instantiated command starts with.
+     */
+    public Iterable<String> getCommandArguments()
+    {
+        return Iterable.create(this.commandArguments);
+    }
+
+    /**
+     * Get the arguments that aren't Git arguments or command arguments and that appear after
+     * all of the command arguments in instantiated commands.
+     * @return The arguments that appear after all of the command arguments in instantiated
+     * commands.
+     */
+    public Iterable<String> getOtherArguments()
+    {
+        return Iterable.create(this.otherArguments);
+    }
+
+    /**
+     * Get the working folder path of instantiated commands that don't bind their own working
+     * folder path.
+     * @return The default working folder path of instantiated commands, or null if the
+     * template doesn't have one.
+     */
+    public Path getWorkingFolderPath()
+    {
+        return this.workingFolderPath;
+    }
+
+    /**
+     * Get the timeout of instantiated commands.
+     * @return The timeout of instantiated commands, or null if instantiated commands don't have
+     * a timeout.
+     */
+    public Duration getTimeout()
+    {
+        return this.timeout;
+    }
+
+    /**
+     * Create a new parameters object from this template.
+     * @return The new parameters object.
+     */
+    public GitParameters instantiate()
+    {
+        return this.instantiate(this.workingFolderPath, GitParametersTemplate.emptyArguments);
+    }
+
+    /**
+     * Create a new parameters object from this template with the provided command arguments
+     * added after the template's command arguments. This is how per-invocation values such as a
+     * clone's repository and directory are bound. The template's other arguments still come
+     * after all of the command arguments.
+     * @param commandArguments The command arguments to add after the template's command
+     *                         arguments.
+     * @return The new parameters object.
+     */
+    public GitParameters instantiate(String... commandArguments)
+    {
+        return this.instantiate(this.workingFolderPath, commandArguments);
+    }
+
+    /**
+     * Create a new parameters object from this template that will run in the provided working
+     * folder.
+     * @param workingFolder The folder that the command will run in.
+     * @param commandArguments The command arguments to add after the template's command
+     *                         arguments.
+     * @return The new parameters object.
+     */
+    public GitParameters instantiate(Folder workingFolder, String... commandArguments)
+    {
+        PreCondition.assertNotNull(workingFolder, "workingFolder");
+
+        return this.instantiate(workingFolder.getPath(), commandArguments);
+    }
+
+    /**
+     * Create a new parameters object from this template that will run in the provided working
+     * folder.
+     * @param workingFolderPath The path to the folder that the command will run in, or null to
+     *                          use the template's working folder path.
+     * @param commandArguments The command arguments to add after the template's command
+     *                         arguments.
+     * @return The new parameters object.
+     */
+    public GitParameters instantiate(Path workingFolderPath, String... commandArguments)
+    {
+        PreCondition.assertNotNull(commandArguments, "commandArguments");
+        for (final String commandArgument : commandArguments)
+        {
+            PreCondition.assertNotNullAndNotEmpty(commandArgument, "commandArgument");
+        }
+
+        final BasicGitParameters result = BasicGitParameters.create(this.executablePath, this.gitArguments, this.commandArguments, commandArguments, this.otherArguments);
+        final Path resultWorkingFolderPath = workingFolderPath != null ? workingFolderPath : this.workingFolderPath;
+        if (resultWorkingFolderPath != null)
+        {
+            result.setWorkingFolderPath(resultWorkingFolderPath);
+        }
+        if (this.timeout != null)
+        {
+            result.setTimeout(this.timeout);
+        }
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+}
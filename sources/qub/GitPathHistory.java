@@ -0,0 +1,306 @@
+package qub;
+
+/**
+ * An iterator over the commits that changed a path, newest first, like "git log -- path". The
+ * walk follows Git's default history simplification: a commit is returned when its version of
+ * the path differs from the version in each of its parents, and a merge commit that has the
+ * same version as one of its parents only follows that parent.
+ * <p>
+ * When the repository has a commit-graph, parents and commit times are read from the
+ * commit-graph, and a commit's changed-path Bloom filter is checked before its trees are read.
+ * A commit whose Bloom filter proves that it didn't change the path is skipped without reading
+ * any trees.
+ */
+public class GitPathHistory implements Iterator<GitObjectId>
+{
+    private final GitObjectDatabase objectDatabase;
+    private final GitCommitGraph commitGraph;
+    private final String[] pathSegments;
+    private final GitChangedPathKeys pathKeys;
+    private final java.util.PriorityQueue<CommitInfo> queue;
+    private final java.util.HashMap<GitObjectId,CommitInfo> commits;
+    private boolean started;
+    private GitObjectId current;
+    private long bloomFilterSkipCount;
+    private long treeComparisonCount;
+
+    private GitPathHistory(GitObjectDatabase objectDatabase, GitCommitGraph commitGraph, String path)
+    {
+        this.objectDatabase = objectDatabase;
+        this.commitGraph = commitGraph;
+        this.pathSegments = path.split("/");
+        this.pathKeys = GitChangedPathKeys.create(path);
+        this.queue = new java.util.PriorityQueue<>((CommitInfo lhs, CommitInfo rhs) ->
+        {
+            int result = Long.compare(rhs.commitTime, lhs.commitTime);
+            if (result == 0)
+            {
+                result = lhs.commitId.compareTo(rhs.commitId);
+            }
+            return result;
+        });
+        this.commits = new java.util.HashMap<>();
+    }
+
+    /**
+     * Create a new GitPathHistory that walks back from the provided commit.
+     * @param objectDatabase The object database to read commits and trees from.
+     * @param startCommitId The id of the commit to start walking from.
+     * @param path The path to look for changes to, relative to the root of the repository, such
+     *             as "sources/qub". Leading and trailing slashes are ignored.
+     * @return The new GitPathHistory.
+     */
+    public static Result<GitPathHistory> create(GitObjectDatabase objectDatabase, GitObjectId startCommitId, String path)
+    {
+        PreCondition.assertNotNull(objectDatabase, "objectDatabase");
+        PreCondition.assertNotNull(startCommitId, "startCommitId");
+        PreCondition.assertNotNull(path, "path");
+        final String trimmedPath = GitPathHistory.trimSlashes(path);
+        PreCondition.assertNotNullAndNotEmpty(trimmedPath, "trimmedPath");
+
+        return Result.create(() ->
+        {
+            final GitPathHistory result = new GitPathHistory(objectDatabase, objectDatabase.getCommitGraph().await(), trimmedPath);
+            result.enqueue(startCommitId);
+            return result;
+        });
+    }
+
+    private static String trimSlashes(String path)
+    {
+        int startIndex = 0;
+        int endIndex = path.length();
+        while (startIndex < endIndex && path.charAt(startIndex) == '/')
+        {
+            ++startIndex;
+        }
+        while (startIndex < endIndex && path.charAt(endIndex - 1) == '/')
+        {
+            --endIndex;
+        }
+        return path.substring(startIndex, endIndex);
+    }
+
+    /**
+     * Get whether this walk uses changed-path Bloom filters.
+     * @return Whether this walk uses changed-path Bloom filters.
+     */
+    public boolean usesBloomFilters()
+    {
+        return this.commitGraph != null && this.commitGraph.hasBloomFilters();
+    }
+
+    /**
+     * Get the number of commits whose changed-path Bloom filter proved that they didn't change
+     * the path, so their trees weren't read.
+     * @return The number of commits that were skipped because of their Bloom filters.
+     */
+    public long getBloomFilterSkipCount()
+    {
+        return this.bloomFilterSkipCount;
+    }
+
+    /**
+     * Get the number of times that the path's entry in a commit's tree was compared to the
+     * path's entry in a parent's tree.
+     * @return The number of tree comparisons.
+     */
+    public long getTreeComparisonCount()
+    {
+        return this.treeComparisonCount;
+    }
+
+    @Override
+    public boolean hasStarted()
+    {
+        return this.started;
+    }
+
+    @Override
+    public boolean hasCurrent()
+    {
+        return this.current != null;
+    }
+
+    @Override
+    public GitObjectId getCurrent()
+    {
+        PreCondition.assertTrue(this.hasCurrent(), "this.hasCurrent()");
+
+        return this.current;
+    }
+
+    @Override
+    public boolean next()
+    {
+        this.started = true;
+        this.current = null;
+        while (this.current == null && !this.queue.isEmpty())
+        {
+            final CommitInfo commit = this.queue.poll();
+            if (commit.parentIds.length == 0)
+            {
+                if (this.getPathEntryId(commit) != null)
+                {
+                    this.current = commit.commitId;
+                }
+            }
+            else
+            {
+                CommitInfo sameParent = null;
+                for (int i = 0; i < commit.parentIds.length && sameParent == null; ++i)
+                {
+                    final CommitInfo parent = this.getCommitInfo(commit.parentIds[i]);
+                    if (this.hasSamePath(commit, parent, i))
+                    {
+                        sameParent = parent;
+                    }
+                }
+
+                if (sameParent != null)
+                {
+                    this.enqueue(sameParent);
+                }
+                else
+                {
+                    this.current = commit.commitId;
+                    for (final GitObjectId parentId : commit.parentIds)
+                    {
+                        this.enqueue(parentId);
+                    }
+                }
+            }
+        }
+        return this.current != null;
+    }
+
+    private boolean hasSamePath(CommitInfo commit, CommitInfo parent, int parentIndex)
+    {
+        boolean result;
+        // Changed-path Bloom filters are computed against a commit's first parent.
+        if (parentIndex == 0 && commit.graphPosition != -1 && !this.commitGraph.mightHaveChangedPath(commit.graphPosition, this.pathKeys))
+        {
+            ++this.bloomFilterSkipCount;
+            result = true;
+        }
+        else
+        {
+            ++this.treeComparisonCount;
+            result = java.util.Objects.equals(this.getPathEntryId(commit), this.getPathEntryId(parent));
+        }
+        return result;
+    }
+
+    private void enqueue(GitObjectId commitId)
+    {
+        this.enqueue(this.getCommitInfo(commitId));
+    }
+
+    private void enqueue(CommitInfo commit)
+    {
+        if (!commit.queued)
+        {
+            commit.queued = true;
+            this.queue.add(commit);
+        }
+    }
+
+    private CommitInfo getCommitInfo(GitObjectId commitId)
+    {
+        CommitInfo result = this.commits.get(commitId);
+        if (result == null)
+        {
+            result = this.readCommitInfo(commitId);
+            this.commits.put(commitId, result);
+        }
+        return result;
+    }
+
+    private CommitInfo readCommitInfo(GitObjectId commitId)
+    {
+        CommitInfo result;
+        final int graphPosition = this.commitGraph == null ? -1 : this.commitGraph.indexOf(commitId);
+        if (graphPosition != -1)
+        {
+            final GitObjectId[] parentIds = new GitObjectId[this.commitGraph.getParentCount(graphPosition)];
+            for (int i = 0; i < parentIds.length; ++i)
+            {
+                parentIds[i] = this.commitGraph.getCommitId(this.commitGraph.getParentPosition(graphPosition, i));
+            }
+            result = new CommitInfo(commitId, graphPosition, this.commitGraph.getTreeId(graphPosition), parentIds, this.commitGraph.getCommitTime(graphPosition));
+        }
+        else
+        {
+            final GitObject object = this.objectDatabase.getObject(commitId).await();
+            if (!(object instanceof GitCommit))
+            {
+                throw new ParseException("Expected " + commitId + " to be a commit, but it is a " + object.getObjectType() + ".");
+            }
+            final GitCommit commit = (GitCommit)object;
+            final Iterable<GitObjectId> parentIdsIterable = commit.getParentIds();
+            final GitObjectId[] parentIds = new GitObjectId[parentIdsIterable.getCount()];
+            int parentIndex = 0;
+            for (final GitObjectId parentId : parentIdsIterable)
+            {
+                parentIds[parentIndex++] = parentId;
+            }
+            result = new CommitInfo(commitId, -1, commit.getTreeId(), parentIds, commit.getCommitTime());
+        }
+        return result;
+    }
+
+    /**
+     * Get the id of the object that the path refers to in the provided commit's tree.
+     * @param commit The commit.
+     * @return The id of the object that the path refers to, or null if the commit's tree doesn't
+     * contain the path.
+     */
+    private GitObjectId getPathEntryId(CommitInfo commit)
+    {
+        if (!commit.pathEntryIdRead)
+        {
+            GitObjectId objectId = commit.treeId;
+            for (int i = 0; i < this.pathSegments.length && objectId != null; ++i)
+            {
+                final GitObject object = this.objectDatabase.getObject(objectId).await();
+                GitObjectId entryId = null;
+                if (object instanceof GitTree)
+                {
+                    for (final GitTreeEntry entry : ((GitTree)object).getEntries().await())
+                    {
+                        if (entry.getName().getText().equals(this.pathSegments[i]))
+                        {
+                            entryId = entry.getObjectId();
+                            break;
+                        }
+                    }
+                }
+                objectId = entryId;
+            }
+            commit.pathEntryId = objectId;
+            commit.pathEntryIdRead = true;
+        }
+        return commit.pathEntryId;
+    }
+
+    private static class CommitInfo
+    {
+        private final GitObjectId commitId;
+        private final int graphPosition;
+        private final GitObjectId treeId;
+        private final GitObjectId[] parentIds;
+        private final long commitTime;
+        private GitObjectId pathEntryId;
+        private boolean pathEntryIdRead;
+        private boolean queued;
+
+        CommitInfo(GitObjectId commitId, int graphPosition, GitObjectId treeId, GitObjectId[] parentIds, long commitTime)
+        {
+            this.commitId = commitId;
+            this.graphPosition = graphPosition;
+            this.treeId = treeId;
+            this.parentIds = parentIds;
+            this.commitTime = commitTime;
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package qub;
+
+/**
+ * A thread-safe in-memory pipe of bytes. One thread writes bytes into the pipe and another
+ * thread reads them out through the pipe's {@link ByteReadStream} methods, which block until
+ * bytes have been written or until the writer ends the pipe. Writes never block, so a writer
+ * that produces a burst of requests can't deadlock against a reader that is busy consuming the
+ * responses.
+ * <p>
+ * A GitPipe is used as the standard input of a long-lived Git process (see
+ * {@link GitBatchProcess}): the requests that are written to it are passed to the process as
+ * they arrive, and ending the pipe closes the process's standard input.
+ * <p>
+ * A lock is used instead of the pipe's monitor so that a virtual thread that waits for bytes
+ * doesn't pin its carrier thread.
+ */
+final class GitPipe implements ByteReadStream
+{
+    private final java.util.concurrent.locks.ReentrantLock lock;
+    private final java.util.concurrent.locks.Condition changed;
+    private final java.util.ArrayDeque<byte[]> chunks;
+    private int firstChunkIndex;
+    private long byteCount;
+    private boolean ended;
+    private boolean disposed;
+
+    private GitPipe()
+    {
+        this.lock = new java.util.concurrent.locks.ReentrantLock();
+        this.changed = this.lock.newCondition();
+        this.chunks = new java.util.ArrayDeque<>();
+    }
+
+    /**
+     * Create a new empty GitPipe.
+     * @return The new GitPipe.
+     */
+    static GitPipe create()
+    {
+        return new GitPipe();
+    }
+
+    /**
+     * Write a copy of the provided bytes to the end of this pipe.
+     * @param bytes The bytes to write.
+     * @return This object for method chaining.
+     */
+    GitPipe write(byte[] bytes)
+    {
+        PreCondition.assertNotNull(bytes, "bytes");
+
+        return this.write(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Write a copy of the provided range of bytes to the end of this pipe. Bytes that are
+     * written to a disposed pipe are dropped, because nothing will read them.
+     * @param bytes The array that contains the bytes to write.
+     * @param startIndex The index of the first byte to write.
+     * @param length The number of bytes to write.
+     * @return This object for method chaining.
+     */
+    GitPipe write(byte[] bytes, int startIndex, int length)
+    {
+        PreCondition.assertNotNull(bytes, "bytes");
+        PreCondition.assertBetween(0, startIndex, bytes.length, "startIndex");
+        PreCondition.assertBetween(0, length, bytes.length - startIndex, "length");
+
+        this.lock.lock();
+        try
+        {
+            PreCondition.assertFalse(this.ended && !this.disposed, "this.ended && !this.disposed");
+
+            if (length > 0 && !this.disposed)
+            {
+                this.chunks.addLast(java.util.Arrays.copyOfRange(bytes, startIndex, startIndex + length));
+                this.byteCount += length;
+                this.changed.signalAll();
+            }
+        }
+        finally
+        {
+            this.lock.unlock();
+        }
+
+        return this;
+    }
+
+    /**
+     * Mark the end of this pipe. Readers get the bytes that were already written and then reach
+     * the end of the stream. Ending a pipe that has already ended does nothing.
+     * @return This object for method chaining.
+     */
+    GitPipe endOfStream()
+    {
+        this.lock.lock();
+        try
+        {
+            this.ended = true;
+            this.changed.signalAll();
+        }
+        finally
+        {
+            this.lock.unlock();
+        }
+
+        return this;
+    }
+
+    /**
+     * Get whether the end of this pipe has been marked.
+     * @return Whether the end of this pipe has been marked.
+     */
+    boolean isEnded()
+    {
+        this.lock.lock();
+        try
+        {
+            return this.ended;
+        }
+        finally
+        {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Get the number of bytes that have been written to this pipe but not read yet.
+     * @return The number of bytes that are waiting to be read.
+     */
+    long getByteCount()
+    {
+        this.lock.lock();
+        try
+        {
+            return this.byteCount;
+        }
+        finally
+        {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public Result<Byte> readByte()
+    {
+        return Result.create(() ->
+        {
+            final byte[] buffer = new byte[1];
+            this.readBytes(buffer, 0, 1).await();
+            return buffer[0];
+        });
+    }
+
+    @Override
+    public Result<Integer> readBytes(byte[] outputBytes)
+    {
+        PreCondition.assertNotNull(outputBytes, "outputBytes");
+
+        return this.readBytes(outputBytes, 0, outputBytes.length);
+    }
+
+    /**
+     * Read the bytes that are available in this pipe into the provided range, blocking until at
+     * least one byte is available.
+     * @param outputBytes The array to read the bytes into.
+     * @param startIndex The index in outputBytes to read the first byte into.
+     * @param length The maximum number of bytes to read.
+     * @return The number of bytes that were read, or an {@link EndOfStreamException} if the pipe
+     * ended before any more bytes were written.
+     */
+    @Override
+    public Result<Integer> readBytes(byte[] outputBytes, int startIndex, int length)
+    {
+        PreCondition.assertNotNull(outputBytes, "outputBytes");
+        PreCondition.assertBetween(0, startIndex, outputBytes.length, "startIndex");
+        PreCondition.assertBetween(1, length, outputBytes.length - startIndex, "length");
+
+        return Result.create(() ->
+        {
+            this.lock.lock();
+            try
+            {
+                while (this.byteCount == 0 && !this.ended)
+                {
+                    try
+                    {
+                        this.changed.await();
+                    }
+                    catch (InterruptedException e)
+                    {
+                        Thread.currentThread().interrupt();
+                        throw new GitCancelledException("Interrupted while waiting for bytes to be written to a pipe.");
+                    }
+                }
+                if (this.byteCount == 0)
+                {
+                    throw new EndOfStreamException();
+                }
+
+                int result = 0;
+                while (result < length && !this.chunks.isEmpty())
+                {
+                    final byte[] chunk = this.chunks.peekFirst();
+                    final int copyLength = Math.min(length - result, chunk.length - this.firstChunkIndex);
+                    System.arraycopy(chunk, this.firstChunkIndex, outputBytes, startIndex + result, copyLength);
+                    result += copyLength;
+                    this.firstChunkIndex += copyLength;
+                    if (this.firstChunkIndex == chunk.length)
+                    {
+                        this.chunks.removeFirst();
+                        this.firstChunkIndex = 0;
+                    }
+                }
+                this.byteCount -= result;
+                return result;
+            }
+            finally
+            {
+                this.lock.unlock();
+            }
+        });
+    }
+
+    @Override
+    public Result<byte[]> readAllBytes()
+    {
+        return Result.create(() ->
+        {
+            final GitOutputBuffer output = GitOutputBuffer.create();
+            output.readFrom(this).await();
+            return output.getBytes();
+        });
+    }
+
+    /**
+     * Dispose of this pipe. Any bytes that haven't been read are dropped, and readers that are
+     * waiting for bytes reach the end of the stream.
+     * @return Whether this call disposed of the pipe.
+     */
+    @Override
+    public Result<Boolean> dispose()
+    {
+        this.lock.lock();
+        try
+        {
+            final boolean result = !this.disposed;
+            if (result)
+            {
+                this.disposed = true;
+                this.ended = true;
+                this.chunks.clear();
+                this.firstChunkIndex = 0;
+                this.byteCount = 0;
+                this.changed.signalAll();
+            }
+            return Result.success(result);
+        }
+        finally
+        {
+            this.lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isDisposed()
+    {
+        this.lock.lock();
+        try
+        {
+            return this.disposed;
+        }
+        finally
+        {
+            this.lock.unlock();
+        }
+    }
+}
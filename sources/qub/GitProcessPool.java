@@ -0,0 +1,776 @@
+package qub;
+
+/**
+ * A pool of warm Git helper processes that answer requests through Git's stdin-driven batch
+ * modes: "git check-attr --stdin", "git check-ignore --stdin", "git update-ref --stdin", and
+ * "git cat-file --batch-check" for resolving revisions ("git rev-parse" has no streaming stdin
+ * mode). Each helper is a {@link GitBatchProcess} for one repository and one command line, so
+ * repeated requests only cost a round trip over the helper's pipes instead of a new process.
+ * <p>
+ * A helper handles one request at a time. A request goes to the least-loaded helper for its
+ * repository and command. If that helper is busy and the pool has fewer than
+ * {@link #getMaximumProcessCount()} processes, then a new helper is started. A full pool first
+ * closes its least recently used idle helper, and otherwise queues the request on the
+ * least-loaded helper for the request's command (or waits for any helper to become idle if
+ * there isn't one). Helpers that stop (for example because they crashed) are removed from the
+ * pool and replaced by the next request, and helpers that have been idle for longer than
+ * {@link #getIdleTimeout()} are closed by a background task.
+ * <p>
+ * A pool can be used by many threads. The pool and its helpers are guarded by locks instead of
+ * monitors so that a virtual thread that waits for a helper or for a helper's response doesn't
+ * pin its carrier thread. Dispose of the pool to close all of its processes.
+ */
+public class GitProcessPool implements Disposable
+{
+    /**
+     * The default maximum number of helper processes that a pool keeps running.
+     */
+    public static final int defaultMaximumProcessCount = 8;
+
+    /**
+     * The default amount of time that a helper process can be idle before it is closed.
+     */
+    public static final Duration defaultIdleTimeout = Duration.minutes(1);
+
+    private final java.util.concurrent.locks.ReentrantLock lock;
+    private final java.util.concurrent.locks.Condition helpersChanged;
+    private final Git git;
+    private final Clock clock;
+    private final java.util.List<Helper> helpers;
+    private int maximumProcessCount;
+    private Duration idleTimeout;
+    private java.util.concurrent.ScheduledThreadPoolExecutor scheduler;
+    private java.util.concurrent.ScheduledFuture<?> evictionTask;
+    private boolean disposed;
+
+    private GitProcessPool(Git git, Clock clock)
+    {
+        this.lock = new java.util.concurrent.locks.ReentrantLock();
+        this.helpersChanged = this.lock.newCondition();
+        this.git = git;
+        this.clock = clock;
+        this.helpers = new java.util.ArrayList<>();
+        this.maximumProcessCount = GitProcessPool.defaultMaximumProcessCount;
+        this.idleTimeout = GitProcessPool.defaultIdleTimeout;
+    }
+
+    /**
+     * Create a new empty GitProcessPool. No process is started until the pool's first request.
+     * @param git The Git object that will run the pool's processes.
+     * @param clock The clock that is used to decide whether a helper process has been idle for
+     *              too long.
+     * @return The new GitProcessPool.
+     */
+    public static GitProcessPool create(Git git, Clock clock)
+    {
+        PreCondition.assertNotNull(git, "git");
+        PreCondition.assertNotNull(clock, "clock");
+
+        return new GitProcessPool(git, clock);
+    }
+
+    /**
+     * Get the maximum number of helper processes that this pool keeps running. This defaults to
+     * {@link #defaultMaximumProcessCount}.
+     * @return The maximum number of helper processes that this pool keeps running.
+     */
+    public int getMaximumProcessCount()
+    {
+        this.lock.lock();
+        try
+        {
+            return this.maximumProcessCount;
+        }
+        finally
+        {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Set the maximum number of helper processes that this pool keeps running. Lowering the
+     * maximum doesn't close running processes, but no new process is started until the pool is
+     * below the new maximum.
+     * @param maximumProcessCount The maximum number of helper processes.
+     * @return This object for method chaining.
+     */
+    public GitProcessPool setMaximumProcessCount(int maximumProcessCount)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(maximumProcessCount, 1, "maximumProcessCount");
+
+        this.lock.lock();
+        try
+        {
+            this.maximumProcessCount = maximumProcessCount;
+        }
+        finally
+        {
+            this.lock.unlock();
+        }
+
+        return this;
+    }
+
+    /**
+     * Get the amount of time that a helper process can be idle before it is closed. This
+     * defaults to {@link #defaultIdleTimeout}.
+     * @return The amount of time that a helper process can be idle before it is closed.
+     */
+    public Duration getIdleTimeout()
+    {
+        this.lock.lock();
+        try
+        {
+            return this.idleTimeout;
+        }
+        finally
+        {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Set the amount of time that a helper process can be idle before it is closed.
+     * @param idleTimeout The amount of time that a helper process can be idle.
+     * @return This object for method chaining.
+     */
+    public GitProcessPool setIdleTimeout(Duration idleTimeout)
+    {
+        PreCondition.assertNotNull(idleTimeout, "idleTimeout");
+        PreCondition.assertTrue(idleTimeout.greaterThan(Duration.zero), "idleTimeout.greaterThan(Duration.zero)");
+
+        this.lock.lock();
+        try
+        {
+            this.idleTimeout = idleTimeout;
+            this.cancelEvictionTask();
+            if (!this.helpers.isEmpty())
+            {
+                this.scheduleEvictionTask();
+            }
+        }
+        finally
+        {
+            this.lock.unlock();
+        }
+
+        return this;
+    }
+
+    /**
+     * Get the number of helper processes that are in this pool.
+     * @return The number of helper processes that are in this pool.
+     */
+    public int getProcessCount()
+    {
+        this.lock.lock();
+        try
+        {
+            return this.helpers.size();
+        }
+        finally
+        {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Get the values of the provided attributes for each of the provided paths.
+     * @param repositoryFolder The folder of the repository that contains the paths.
+     * @param attributes The names of the attributes to get. A pooled "git check-attr" process
+     *                   can't be asked for all of a path's attributes, because the number of
+     *                   records in its responses wouldn't be known.
+     * @param paths The paths to get the attributes of.
+     * @return The attribute values for each of the provided paths, in the order of the paths
+     * and then of the attributes.
+     */
+    public Result<Iterable<GitCheckAttrEntry>> checkAttr(Folder repositoryFolder, Iterable<String> attributes, Iterable<String> paths)
+    {
+        PreCondition.assertNotNull(repositoryFolder, "repositoryFolder");
+        PreCondition.assertNotNullAndNotEmpty(attributes, "attributes");
+        PreCondition.assertNotNull(paths, "paths");
+
+        return Result.create(() ->
+        {
+            final byte[] input = Git.joinRecords(paths, "path", '\0');
+            final int recordCount = paths.getCount() * attributes.getCount() * 3;
+
+            Iterable<GitCheckAttrEntry> result;
+            if (input.length == 0)
+            {
+                result = Iterable.create();
+            }
+            else
+            {
+                result = this.send(() ->
+                {
+                    final GitCheckAttrParameters parameters = GitCheckAttrParameters.create(this.git.getExecutablePath());
+                    parameters.setWorkingFolder(repositoryFolder);
+                    parameters.addStdin();
+                    parameters.addZ();
+                    for (final String attribute : attributes)
+                    {
+                        parameters.addAttribute(attribute);
+                    }
+                    return parameters;
+                },
+                true,
+                (GitBatchProcess process) ->
+                {
+                    process.write(input);
+                    final List<GitCheckAttrEntry> entries = List.create();
+                    for (int i = 0; i < recordCount; i += 3)
+                    {
+                        final String path = process.readRecord((byte)0);
+                        final String attribute = process.readRecord((byte)0);
+                        final String value = process.readRecord((byte)0);
+                        entries.add(GitCheckAttrEntry.create(path, attribute, value));
+                    }
+                    return entries;
+                });
+            }
+
+            PostCondition.assertNotNull(result, "result");
+
+            return result;
+        });
+    }
+
+    /**
+     * Get which of the provided paths are excluded by the repository's ignore rules.
+     * @param repositoryFolder The folder of the repository that contains the paths.
+     * @param paths The paths to check.
+     * @return The provided paths that are ignored, in the order of the provided paths.
+     */
+    public Result<Iterable<String>> checkIgnore(Folder repositoryFolder, Iterable<String> paths)
+    {
+        PreCondition.assertNotNull(repositoryFolder, "repositoryFolder");
+        PreCondition.assertNotNull(paths, "paths");
+
+        return Result.create(() ->
+        {
+            final byte[] input = Git.joinRecords(paths, "path", '\0');
+            final int pathCount = paths.getCount();
+
+            Iterable<String> result;
+            if (input.length == 0)
+            {
+                result = Iterable.create();
+            }
+            else
+            {
+                result = this.send(() ->
+                {
+                    // Without --verbose and --non-matching, check-ignore only answers for
+                    // ignored paths, so a reader couldn't tell when a response is complete.
+                    final GitCheckIgnoreParameters parameters = GitCheckIgnoreParameters.create(this.git.getExecutablePath());
+                    parameters.setWorkingFolder(repositoryFolder);
+                    parameters.addStdin();
+                    parameters.addZ();
+                    parameters.addVerbose();
+                    parameters.addNonMatching();
+                    return parameters;
+                },
+                true,
+                (GitBatchProcess process) ->
+                {
+                    process.write(input);
+                    final List<String> ignoredPaths = List.create();
+                    for (int i = 0; i < pathCount; ++i)
+                    {
+                        process.readRecord((byte)0);
+                        process.readRecord((byte)0);
+                        final String pattern = process.readRecord((byte)0);
+                        final String path = process.readRecord((byte)0);
+                        if (!pattern.isEmpty() && !pattern.startsWith("!"))
+                        {
+                            ignoredPaths.add(path);
+                        }
+                    }
+                    return ignoredPaths;
+                });
+            }
+
+            PostCondition.assertNotNull(result, "result");
+
+            return result;
+        });
+    }
+
+    /**
+     * Resolve each of the provided revisions (such as "HEAD", "main~2", or "HEAD:README.md") to
+     * an object id. The revisions are resolved by a pooled "git cat-file
+     * --batch-check=%(objectname)" process, because "git rev-parse" can't read revisions from
+     * its standard input one at a time.
+     * @param repositoryFolder The folder of the repository that contains the revisions.
+     * @param revisions The revisions to resolve.
+     * @return The object ids of the provided revisions, in the same order as the revisions, or
+     * a NotFoundException if a revision doesn't exist or is ambiguous.
+     */
+    public Result<Iterable<String>> revParse(Folder repositoryFolder, Iterable<String> revisions)
+    {
+        PreCondition.assertNotNull(repositoryFolder, "repositoryFolder");
+        PreCondition.assertNotNull(revisions, "revisions");
+
+        return Result.create(() ->
+        {
+            final byte[] input = Git.joinRecords(revisions, "revision", '\n');
+
+            Iterable<String> result;
+            if (input.length == 0)
+            {
+                result = Iterable.create();
+            }
+            else
+            {
+                final List<String> objectIds = this.send(() ->
+                {
+                    final GitCatFileParameters parameters = GitCatFileParameters.create(this.git.getExecutablePath());
+                    parameters.setWorkingFolder(repositoryFolder);
+                    parameters.addBatchCheck("%(objectname)");
+                    return parameters;
+                },
+                true,
+                (GitBatchProcess process) ->
+                {
+                    process.write(input);
+                    final List<String> lines = List.create();
+                    for (final String revision : revisions)
+                    {
+                        lines.add(process.readRecord((byte)'\n'));
+                    }
+                    return lines;
+                });
+
+                int index = 0;
+                for (final String revision : revisions)
+                {
+                    final String line = objectIds.get(index++);
+                    if (line.equals(revision + " missing") || line.equals(revision + " ambiguous"))
+                    {
+                        throw new NotFoundException("The revision " + Strings.escapeAndQuote(revision) + " could not be resolved.");
+                    }
+                }
+                result = objectIds;
+            }
+
+            PostCondition.assertNotNull(result, "result");
+
+            return result;
+        });
+    }
+
+    /**
+     * Atomically apply the provided "git update-ref --stdin" instructions (such as
+     * "update refs/heads/main &lt;new-oid&gt; &lt;old-oid&gt;" or "delete refs/tags/v1") as
+     * one transaction of a pooled update-ref process. Either all of the references are updated
+     * or none of them are. Git closes the process when a transaction fails, so the next request
+     * starts a new one. This requires Git 2.28 or later.
+     * @param repositoryFolder The folder of the repository that contains the references.
+     * @param instructions The instructions to apply.
+     * @return The result of applying the instructions.
+     */
+    public Result<Void> updateRef(Folder repositoryFolder, Iterable<String> instructions)
+    {
+        PreCondition.assertNotNull(repositoryFolder, "repositoryFolder");
+        PreCondition.assertNotNull(instructions, "instructions");
+
+        return Result.create(() ->
+        {
+            final byte[] input = Git.joinRecords(instructions, "instruction", '\n');
+            if (input.length > 0)
+            {
+                final byte[] start = "start\n".getBytes(java.nio.charset.StandardCharsets.UTF_8);
+                final byte[] commit = "commit\n".getBytes(java.nio.charset.StandardCharsets.UTF_8);
+                this.send(() ->
+                {
+                    final GitUpdateRefParameters parameters = GitUpdateRefParameters.create(this.git.getExecutablePath());
+                    parameters.setWorkingFolder(repositoryFolder);
+                    parameters.addStdin();
+                    return parameters;
+                },
+                false,
+                (GitBatchProcess process) ->
+                {
+                    process.write(start);
+                    GitProcessPool.readReply(process, "start: ok");
+                    process.write(input);
+                    process.write(commit);
+                    GitProcessPool.readReply(process, "commit: ok");
+                    return null;
+                });
+            }
+        });
+    }
+
+    private static void readReply(GitBatchProcess process, String expectedReply)
+    {
+        final String reply = process.readRecord((byte)'\n');
+        if (!reply.equals(expectedReply))
+        {
+            throw new GitException("Expected " + Strings.escapeAndQuote(expectedReply) + " from " + process.getCommandText() + ", but found " + Strings.escapeAndQuote(reply) + ".");
+        }
+    }
+
+    /**
+     * Send one request to a helper process for the command that the provided parameters
+     * describe.
+     * @param parametersCreator The function that creates the parameters of the helper's command.
+     *                          The parameters' working folder and arguments identify the helper.
+     * @param retryable Whether the request can safely be sent again when a warm helper stopped
+     *                  while it was handling the request.
+     * @param exchange The function that writes the request to the helper and reads its response.
+     * @param <T> The type of the response.
+     * @return The response.
+     */
+    private <T> T send(Function0<GitParameters> parametersCreator, boolean retryable, Function1<GitBatchProcess,T> exchange)
+    {
+        final String key = GitProcessPool.getKey(parametersCreator.run());
+
+        boolean canRetry = retryable;
+        while (true)
+        {
+            final Helper helper = this.acquire(key, parametersCreator);
+            boolean stopped = false;
+            boolean warm = false;
+            try
+            {
+                helper.lock.lock();
+                try
+                {
+                    warm = helper.completedRequestCount > 0;
+                    if (warm && !helper.process.isAlive())
+                    {
+                        // The warm helper stopped while it was idle or while this request was
+                        // queued, so nothing was written to it yet.
+                        stopped = true;
+                        continue;
+                    }
+                    final T result = exchange.run(helper.process);
+                    ++helper.completedRequestCount;
+                    return result;
+                }
+                finally
+                {
+                    helper.lock.unlock();
+                }
+            }
+            catch (Throwable e)
+            {
+                // The helper's output may be left in the middle of a response, so it can't be
+                // used for the next request. A helper that was started for this request isn't
+                // retried, because a new helper would most likely fail the same way.
+                stopped = true;
+                if (!canRetry || !warm)
+                {
+                    throw e;
+                }
+                canRetry = false;
+            }
+            finally
+            {
+                this.release(helper, stopped);
+            }
+        }
+    }
+
+    /**
+     * Get the key that identifies the helper processes that run the provided parameters.
+     * @param parameters The parameters of a helper's command.
+     * @return The key for the provided parameters.
+     */
+    private static String getKey(GitParameters parameters)
+    {
+        final StringBuilder result = new StringBuilder();
+        final Path workingFolderPath = parameters.getWorkingFolderPath();
+        if (workingFolderPath != null)
+        {
+            result.append(workingFolderPath.toString());
+        }
+        result.append('\0').append(parameters.getExecutablePath().toString());
+        for (final String argument : parameters.getArguments())
+        {
+            result.append('\0').append(argument);
+        }
+        return result.toString();
+    }
+
+    /**
+     * Get the helper that the next request for the provided key should be sent to, starting a
+     * new helper or waiting for one to become idle when necessary.
+     * @param key The key of the request's command.
+     * @param parametersCreator The function that creates the parameters of a new helper.
+     * @return The helper to send the request to. Its request count includes the request.
+     */
+    private Helper acquire(String key, Function0<GitParameters> parametersCreator)
+    {
+        final java.util.List<Helper> stoppedHelpers = new java.util.ArrayList<>();
+        Helper result = null;
+        try
+        {
+            this.lock.lock();
+            try
+            {
+                while (result == null)
+                {
+                    if (this.disposed)
+                    {
+                        throw new GitException("The process pool has been disposed.");
+                    }
+
+                    Helper leastLoaded = null;
+                    Helper leastRecentlyUsedIdle = null;
+                    final java.util.Iterator<Helper> iterator = this.helpers.iterator();
+                    while (iterator.hasNext())
+                    {
+                        final Helper helper = iterator.next();
+                        if (!helper.process.isAlive())
+                        {
+                            iterator.remove();
+                            stoppedHelpers.add(helper);
+                        }
+                        else
+                        {
+                            if (helper.key.equals(key) && (leastLoaded == null || helper.requestCount < leastLoaded.requestCount))
+                            {
+                                leastLoaded = helper;
+                            }
+                            if (helper.requestCount == 0 && (leastRecentlyUsedIdle == null || helper.lastUsed.lessThan(leastRecentlyUsedIdle.lastUsed)))
+                            {
+                                leastRecentlyUsedIdle = helper;
+                            }
+                        }
+                    }
+
+                    if (leastLoaded != null && leastLoaded.requestCount == 0)
+                    {
+                        result = leastLoaded;
+                    }
+                    else if (this.helpers.size() < this.maximumProcessCount || leastRecentlyUsedIdle != null)
+                    {
+                        if (this.helpers.size() >= this.maximumProcessCount)
+                        {
+                            this.helpers.remove(leastRecentlyUsedIdle);
+                            stoppedHelpers.add(leastRecentlyUsedIdle);
+                            if (this.helpers.size() >= this.maximumProcessCount)
+                            {
+                                // The maximum was lowered, so keep closing idle helpers.
+                                continue;
+                            }
+                        }
+                        result = new Helper(key, GitBatchProcess.start(this.git, parametersCreator.run()), this.clock.getCurrentDateTime());
+                        this.helpers.add(result);
+                        if (this.evictionTask == null)
+                        {
+                            this.scheduleEvictionTask();
+                        }
+                    }
+                    else if (leastLoaded != null)
+                    {
+                        result = leastLoaded;
+                    }
+                    else
+                    {
+                        try
+                        {
+                            this.helpersChanged.await();
+                        }
+                        catch (InterruptedException e)
+                        {
+                            Thread.currentThread().interrupt();
+                            throw new GitCancelledException("Interrupted while waiting for a process in the process pool.");
+                        }
+                    }
+                }
+                ++result.requestCount;
+            }
+            finally
+            {
+                this.lock.unlock();
+            }
+        }
+        finally
+        {
+            GitProcessPool.disposeAll(stoppedHelpers);
+        }
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+
+    /**
+     * Mark the end of a request that was sent to the provided helper.
+     * @param helper The helper that the request was sent to.
+     * @param stopped Whether the helper can't be used for any more requests.
+     */
+    private void release(Helper helper, boolean stopped)
+    {
+        final java.util.List<Helper> stoppedHelpers = new java.util.ArrayList<>();
+        this.lock.lock();
+        try
+        {
+            --helper.requestCount;
+            helper.lastUsed = this.clock.getCurrentDateTime();
+            if ((stopped || !helper.process.isAlive()) && this.helpers.remove(helper))
+            {
+                stoppedHelpers.add(helper);
+            }
+            this.helpersChanged.signalAll();
+        }
+        finally
+        {
+            this.lock.unlock();
+        }
+        GitProcessPool.disposeAll(stoppedHelpers);
+    }
+
+    /**
+     * Close the helper processes that have been idle for at least {@link #getIdleTimeout()}, and
+     * remove the helpers that stopped. This is called periodically by a background task while
+     * the pool has processes.
+     * @return The number of helper processes that were removed.
+     */
+    public Result<Integer> evictIdleProcesses()
+    {
+        return Result.create(() ->
+        {
+            final java.util.List<Helper> evictedHelpers = new java.util.ArrayList<>();
+            this.lock.lock();
+            try
+            {
+                final DateTime now = this.clock.getCurrentDateTime();
+                final java.util.Iterator<Helper> iterator = this.helpers.iterator();
+                while (iterator.hasNext())
+                {
+                    final Helper helper = iterator.next();
+                    if (!helper.process.isAlive() ||
+                        (helper.requestCount == 0 && now.minus(helper.lastUsed).greaterThanOrEqualTo(this.idleTimeout)))
+                    {
+                        iterator.remove();
+                        evictedHelpers.add(helper);
+                    }
+                }
+                if (this.helpers.isEmpty())
+                {
+                    this.cancelEvictionTask();
+                }
+                this.helpersChanged.signalAll();
+            }
+            finally
+            {
+                this.lock.unlock();
+            }
+            GitProcessPool.disposeAll(evictedHelpers);
+            return evictedHelpers.size();
+        });
+    }
+
+    /**
+     * Start the background task that periodically closes idle helper processes.
+     */
+    private void scheduleEvictionTask()
+    {
+        if (this.scheduler == null)
+        {
+            this.scheduler = GitWatchdog.createScheduler(this.git.getThreadFactory());
+        }
+        final long periodMilliseconds = Math.max(1, (long)this.idleTimeout.toMilliseconds().getValue());
+        this.evictionTask = this.scheduler.scheduleWithFixedDelay(
+            () -> this.evictIdleProcesses().await(),
+            periodMilliseconds,
+            periodMilliseconds,
+            java.util.concurrent.TimeUnit.MILLISECONDS);
+    }
+
+    private void cancelEvictionTask()
+    {
+        if (this.evictionTask != null)
+        {
+            this.evictionTask.cancel(false);
+            this.evictionTask = null;
+        }
+    }
+
+    private static void disposeAll(java.util.List<Helper> helpers)
+    {
+        for (final Helper helper : helpers)
+        {
+            helper.process.dispose().await();
+        }
+    }
+
+    /**
+     * Close all of this pool's processes. Requests that are still running fail, and later
+     * requests fail.
+     * @return Whether this call disposed of the pool.
+     */
+    @Override
+    public Result<Boolean> dispose()
+    {
+        return Result.create(() ->
+        {
+            final java.util.List<Helper> helpers;
+            this.lock.lock();
+            try
+            {
+                if (this.disposed)
+                {
+                    return false;
+                }
+                this.disposed = true;
+                this.cancelEvictionTask();
+                if (this.scheduler != null)
+                {
+                    this.scheduler.shutdown();
+                    this.scheduler = null;
+                }
+                helpers = new java.util.ArrayList<>(this.helpers);
+                this.helpers.clear();
+                this.helpersChanged.signalAll();
+            }
+            finally
+            {
+                this.lock.unlock();
+            }
+            GitProcessPool.disposeAll(helpers);
+            return true;
+        });
+    }
+
+    @Override
+    public boolean isDisposed()
+    {
+        this.lock.lock();
+        try
+        {
+            return this.disposed;
+        }
+        finally
+        {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * One helper process in the pool. The helper's lock is held while a request is written to
+     * it and its response is read, so requests that are queued on the helper wait for it.
+     */
+    private static final class Helper
+    {
+        private final java.util.concurrent.locks.ReentrantLock lock;
+        private final String key;
+        private final GitBatchProcess process;
+        private int requestCount;
+        private DateTime lastUsed;
+        private int completedRequestCount;
+
+        Helper(String key, GitBatchProcess process, DateTime lastUsed)
+        {
+            this.lock = new java.util.concurrent.locks.ReentrantLock();
+            this.key = key;
+            this.process = process;
+            this.lastUsed = lastUsed;
+        }
+    }
+}
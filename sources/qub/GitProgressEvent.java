@@ -0,0 +1,187 @@
+package qub;
+
+/**
+ * A single progress update that Git reported while running a clone, fetch, or pull.
+ */
+public class GitProgressEvent
+{
+    private final GitProgressPhase phase;
+    private final boolean remote;
+    private final int percentage;
+    private final long current;
+    private final long total;
+    private final long byteCount;
+    private final long bytesPerSecond;
+    private final boolean done;
+
+    private GitProgressEvent(GitProgressPhase phase, boolean remote, int percentage, long current, long total, long byteCount, long bytesPerSecond, boolean done)
+    {
+        this.phase = phase;
+        this.remote = remote;
+        this.percentage = percentage;
+        this.current = current;
+        this.total = total;
+        this.byteCount = byteCount;
+        this.bytesPerSecond = bytesPerSecond;
+        this.done = done;
+    }
+
+    /**
+     * Create a new GitProgressEvent.
+     * @param phase The phase that the progress is for.
+     * @param remote Whether the progress was reported by the remote repository.
+     * @param percentage The percentage of the phase that is complete, or -1 if the phase's total
+     *                   is not known.
+     * @param current The number of items that have been processed in the phase.
+     * @param total The total number of items in the phase, or -1 if the total is not known.
+     * @param byteCount The number of bytes that have been transferred, or -1 if the phase doesn't
+     *                  transfer bytes.
+     * @param bytesPerSecond The current transfer rate, or -1 if the phase doesn't report one.
+     * @param done Whether the phase has completed.
+     * @return The new GitProgressEvent.
+     */
+    public static GitProgressEvent create(GitProgressPhase phase, boolean remote, int percentage, long current, long total, long byteCount, long bytesPerSecond, boolean done)
+    {
+        PreCondition.assertNotNull(phase, "phase");
+        PreCondition.assertBetween(-1, percentage, 100, "percentage");
+        PreCondition.assertGreaterThanOrEqualTo(current, 0, "current");
+        PreCondition.assertGreaterThanOrEqualTo(total, -1, "total");
+        PreCondition.assertGreaterThanOrEqualTo(byteCount, -1, "byteCount");
+        PreCondition.assertGreaterThanOrEqualTo(bytesPerSecond, -1, "bytesPerSecond");
+
+        return new GitProgressEvent(phase, remote, percentage, current, total, byteCount, bytesPerSecond, done);
+    }
+
+    /**
+     * Get the phase that the progress is for.
+     * @return The phase that the progress is for.
+     */
+    public GitProgressPhase getPhase()
+    {
+        return this.phase;
+    }
+
+    /**
+     * Get whether the progress was reported by the remote repository (the line started with
+     * "remote: ").
+     * @return Whether the progress was reported by the remote repository.
+     */
+    public boolean isRemote()
+    {
+        return this.remote;
+    }
+
+    /**
+     * Get the percentage of the phase that is complete.
+     * @return The percentage of the phase that is complete, or -1 if the phase's total is not
+     * known.
+     */
+    public int getPercentage()
+    {
+        return this.percentage;
+    }
+
+    /**
+     * Get the number of items (objects, deltas, or files) that have been processed in the phase.
+     * @return The number of items that have been processed in the phase.
+     */
+    public long getCurrent()
+    {
+        return this.current;
+    }
+
+    /**
+     * Get the total number of items in the phase.
+     * @return The total number of items in the phase, or -1 if the total is not known.
+     */
+    public long getTotal()
+    {
+        return this.total;
+    }
+
+    /**
+     * Get the number of bytes that have been transferred.
+     * @return The number of bytes that have been transferred, or -1 if the phase doesn't
+     * transfer bytes.
+     */
+    public long getByteCount()
+    {
+        return this.byteCount;
+    }
+
+    /**
+     * Get the current transfer rate.
+     * @return The current transfer rate in bytes per second, or -1 if the phase doesn't report
+     * one.
+     */
+    public long getBytesPerSecond()
+    {
+        return this.bytesPerSecond;
+    }
+
+    /**
+     * Get whether the phase has completed.
+     * @return Whether the phase has completed.
+     */
+    public boolean isDone()
+    {
+        return this.done;
+    }
+
+    @Override
+    public String toString()
+    {
+        final StringBuilder builder = new StringBuilder();
+        if (this.remote)
+        {
+            builder.append("remote: ");
+        }
+        builder.append(this.phase.getTitle()).append(": ");
+        if (this.percentage >= 0)
+        {
+            builder.append(this.percentage).append("% (").append(this.current).append('/').append(this.total).append(')');
+        }
+        else
+        {
+            builder.append(this.current);
+        }
+        if (this.byteCount >= 0)
+        {
+            builder.append(", ").append(this.byteCount).append(" bytes");
+        }
+        if (this.bytesPerSecond >= 0)
+        {
+            builder.append(" | ").append(this.bytesPerSecond).append(" bytes/s");
+        }
+        if (this.done)
+        {
+            builder.append(", done.");
+        }
+        return builder.toString();
+    }
+
+    @Override
+    public boolean equals(Object rhs)
+    {
+        return rhs instanceof GitProgressEvent && this.equals((GitProgressEvent)rhs);
+    }
+
+    public boolean equals(GitProgressEvent rhs)
+    {
+        return rhs != null &&
+            this.phase == rhs.phase &&
+            this.remote == rhs.remote &&
+            this.percentage == rhs.percentage &&
+            this.current == rhs.current &&
+            this.total == rhs.total &&
+            this.byteCount == rhs.byteCount &&
+            this.bytesPerSecond == rhs.bytesPerSecond &&
+            this.done == rhs.done;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return java.util.Objects.hash(this.phase, this.remote, this.percentage, this.current, this.total, this.byteCount, this.bytesPerSecond, this.done);
+    }
+}
@@ -0,0 +1,429 @@
+package qub;
+
+/**
+ * An incremental parser that turns the progress lines that Git writes to its standard error
+ * stream (such as "Receiving objects:  23% (284/1234), 1.20 MiB | 2.34 MiB/s") into
+ * {@link GitProgressEvent}s. Bytes can be written to the parser in chunks of any size. Lines are
+ * terminated by either a carriage return (used by Git to redraw a progress line in place) or a
+ * newline. Lines are parsed directly from a reused byte buffer, so the only allocation per
+ * progress line is the event itself.
+ */
+public class GitProgressParser
+{
+    private static final byte[] remotePrefix = "remote: ".getBytes(java.nio.charset.StandardCharsets.US_ASCII);
+
+    private final Action1<GitProgressEvent> progressListener;
+    private Action1<String> messageListener;
+    private byte[] lineBuffer;
+    private int lineLength;
+
+    private GitProgressParser(Action1<GitProgressEvent> progressListener)
+    {
+        this.progressListener = progressListener;
+        this.lineBuffer = new byte[256];
+    }
+
+    /**
+     * Create a new GitProgressParser that will send the progress events that it parses to the
+     * provided listener.
+     * @param progressListener The listener that will receive the parsed progress events.
+     * @return The new GitProgressParser.
+     */
+    public static GitProgressParser create(Action1<GitProgressEvent> progressListener)
+    {
+        PreCondition.assertNotNull(progressListener, "progressListener");
+
+        return new GitProgressParser(progressListener);
+    }
+
+    /**
+     * Get the listener that receives the lines that are not progress lines (such as "Cloning
+     * into 'repo'..." or error messages).
+     * @return The listener that receives the lines that are not progress lines, or null if those
+     * lines are discarded.
+     */
+    public Action1<String> getMessageListener()
+    {
+        return this.messageListener;
+    }
+
+    /**
+     * Set the listener that receives the lines that are not progress lines (such as "Cloning
+     * into 'repo'..." or error messages).
+     * @param messageListener The listener that receives the lines that are not progress lines.
+     * @return This object for method chaining.
+     */
+    public GitProgressParser setMessageListener(Action1<String> messageListener)
+    {
+        PreCondition.assertNotNull(messageListener, "messageListener");
+
+        this.messageListener = messageListener;
+
+        return this;
+    }
+
+    /**
+     * Write the provided bytes to this parser.
+     * @param bytes The bytes to write.
+     * @return This object for method chaining.
+     */
+    public GitProgressParser write(byte[] bytes)
+    {
+        PreCondition.assertNotNull(bytes, "bytes");
+
+        return this.write(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Write the provided bytes to this parser. Each complete line in the bytes is parsed and sent
+     * to the appropriate listener before this method returns.
+     * @param bytes The bytes to write.
+     * @param startIndex The index of the first byte to write.
+     * @param length The number of bytes to write.
+     * @return This object for method chaining.
+     */
+    public GitProgressParser write(byte[] bytes, int startIndex, int length)
+    {
+        PreCondition.assertNotNull(bytes, "bytes");
+        PreCondition.assertStartIndex(startIndex, bytes.length);
+        PreCondition.assertLength(length, startIndex, bytes.length);
+
+        final int endIndex = startIndex + length;
+        for (int i = startIndex; i < endIndex; ++i)
+        {
+            final byte b = bytes[i];
+            if (b == '\r' || b == '\n')
+            {
+                this.endLine();
+            }
+            else
+            {
+                if (this.lineLength == this.lineBuffer.length)
+                {
+                    this.lineBuffer = java.util.Arrays.copyOf(this.lineBuffer, this.lineBuffer.length * 2);
+                }
+                this.lineBuffer[this.lineLength++] = b;
+            }
+        }
+
+        return this;
+    }
+
+    /**
+     * Notify this parser that no more bytes will be written, so any unterminated line that has
+     * been written will be parsed.
+     * @return This object for method chaining.
+     */
+    public GitProgressParser endOfStream()
+    {
+        this.endLine();
+
+        return this;
+    }
+
+    /**
+     * Write all of the bytes in the provided stream to this parser, and then notify this parser
+     * that the stream has ended. This can be used as the error stream handler of a Git command.
+     * @param stream The stream to read.
+     * @return The result of reading the stream.
+     */
+    public Result<Void> readFrom(ByteReadStream stream)
+    {
+        PreCondition.assertNotNull(stream, "stream");
+
+        return Result.create(() ->
+        {
+            final byte[] buffer = new byte[4096];
+            while (true)
+            {
+                final Integer bytesRead = stream.readBytes(buffer)
+                    .catchError(EndOfStreamException.class)
+                    .await();
+                if (bytesRead == null || bytesRead < 0)
+                {
+                    break;
+                }
+                this.write(buffer, 0, bytesRead);
+            }
+            this.endOfStream();
+        });
+    }
+
+    private void endLine()
+    {
+        if (this.lineLength > 0)
+        {
+            final GitProgressEvent event = GitProgressParser.parse(this.lineBuffer, 0, this.lineLength);
+            if (event != null)
+            {
+                this.progressListener.run(event);
+            }
+            else if (this.messageListener != null)
+            {
+                this.messageListener.run(new String(this.lineBuffer, 0, this.lineLength, java.nio.charset.StandardCharsets.UTF_8));
+            }
+            this.lineLength = 0;
+        }
+    }
+
+    /**
+     * Parse the provided progress line.
+     * @param line The line to parse.
+     * @return The parsed progress event, or null if the line is not a progress line.
+     */
+    public static GitProgressEvent parse(String line)
+    {
+        PreCondition.assertNotNull(line, "line");
+
+        final byte[] bytes = line.getBytes(java.nio.charset.StandardCharsets.UTF_8);
+        return GitProgressParser.parse(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Parse the progress line in the provided bytes.
+     * @param bytes The bytes that contain the line.
+     * @param startIndex The index of the first byte of the line.
+     * @param endIndex The index after the last byte of the line.
+     * @return The parsed progress event, or null if the line is not a progress line.
+     */
+    static GitProgressEvent parse(byte[] bytes, int startIndex, int endIndex)
+    {
+        final int end = GitProgressParser.trimEnd(bytes, startIndex, endIndex);
+        int i = startIndex;
+
+        final boolean remote = GitProgressParser.startsWith(bytes, i, end, GitProgressParser.remotePrefix);
+        if (remote)
+        {
+            i += GitProgressParser.remotePrefix.length;
+        }
+
+        int colonIndex = i;
+        while (colonIndex < end && bytes[colonIndex] != ':')
+        {
+            ++colonIndex;
+        }
+        if (colonIndex == end)
+        {
+            return null;
+        }
+        final GitProgressPhase phase = GitProgressPhase.find(bytes, i, colonIndex);
+        if (phase == null)
+        {
+            return null;
+        }
+
+        i = GitProgressParser.skipSpaces(bytes, colonIndex + 1, end);
+        int digitsEnd = GitProgressParser.skipDigits(bytes, i, end);
+        if (digitsEnd == i)
+        {
+            return null;
+        }
+        final long firstNumber = GitProgressParser.parseDigits(bytes, i, digitsEnd);
+        i = digitsEnd;
+
+        int percentage = -1;
+        long current = firstNumber;
+        long total = -1;
+        if (i < end && bytes[i] == '%')
+        {
+            if (firstNumber > 100)
+            {
+                return null;
+            }
+            percentage = (int)firstNumber;
+
+            i = GitProgressParser.skipSpaces(bytes, i + 1, end);
+            if (i == end || bytes[i] != '(')
+            {
+                return null;
+            }
+            ++i;
+            digitsEnd = GitProgressParser.skipDigits(bytes, i, end);
+            if (digitsEnd == i || digitsEnd == end || bytes[digitsEnd] != '/')
+            {
+                return null;
+            }
+            current = GitProgressParser.parseDigits(bytes, i, digitsEnd);
+            i = digitsEnd + 1;
+            digitsEnd = GitProgressParser.skipDigits(bytes, i, end);
+            if (digitsEnd == i || digitsEnd == end || bytes[digitsEnd] != ')')
+            {
+                return null;
+            }
+            total = GitProgressParser.parseDigits(bytes, i, digitsEnd);
+            i = digitsEnd + 1;
+        }
+
+        long byteCount = -1;
+        long bytesPerSecond = -1;
+        boolean done = false;
+        while (i < end)
+        {
+            final byte b = bytes[i];
+            if (b == ',' || b == ' ' || b == '|' || b == '.')
+            {
+                ++i;
+            }
+            else if (GitProgressParser.startsWith(bytes, i, end, "done"))
+            {
+                done = true;
+                i += "done".length();
+            }
+            else
+            {
+                // A size such as "1.20 MiB" or a rate such as "2.34 MiB/s".
+                final int integerEnd = GitProgressParser.skipDigits(bytes, i, end);
+                if (integerEnd == i)
+                {
+                    break;
+                }
+                double value = GitProgressParser.parseDigits(bytes, i, integerEnd);
+                i = integerEnd;
+                if (i < end && bytes[i] == '.')
+                {
+                    final int fractionEnd = GitProgressParser.skipDigits(bytes, i + 1, end);
+                    double divisor = 1;
+                    for (int j = i + 1; j < fractionEnd; ++j)
+                    {
+                        divisor *= 10;
+                    }
+                    value += GitProgressParser.parseDigits(bytes, i + 1, fractionEnd) / divisor;
+                    i = fractionEnd;
+                }
+
+                i = GitProgressParser.skipSpaces(bytes, i, end);
+                int unitEnd = i;
+                while (unitEnd < end && bytes[unitEnd] != ' ' && bytes[unitEnd] != ',')
+                {
+                    ++unitEnd;
+                }
+                boolean isRate = false;
+                int unitNameEnd = unitEnd;
+                if (unitEnd - i >= 2 && bytes[unitEnd - 2] == '/' && bytes[unitEnd - 1] == 's')
+                {
+                    isRate = true;
+                    unitNameEnd -= 2;
+                }
+                final long multiplier = GitProgressParser.getUnitMultiplier(bytes, i, unitNameEnd);
+                if (multiplier > 0)
+                {
+                    final long byteValue = (long)(value * multiplier);
+                    if (isRate)
+                    {
+                        bytesPerSecond = byteValue;
+                    }
+                    else
+                    {
+                        byteCount = byteValue;
+                    }
+                }
+                i = unitEnd;
+            }
+        }
+
+        return GitProgressEvent.create(phase, remote, percentage, current, total, byteCount, bytesPerSecond, done);
+    }
+
+    private static int trimEnd(byte[] bytes, int startIndex, int endIndex)
+    {
+        int result = endIndex;
+        boolean trimmed = true;
+        while (trimmed)
+        {
+            trimmed = false;
+            while (result > startIndex && (bytes[result - 1] == ' ' || bytes[result - 1] == '\t'))
+            {
+                --result;
+                trimmed = true;
+            }
+            // Remote progress lines can end with the "clear to end of line" escape sequence.
+            if (result - startIndex >= 3 && bytes[result - 3] == 0x1B && bytes[result - 2] == '[' && bytes[result - 1] == 'K')
+            {
+                result -= 3;
+                trimmed = true;
+            }
+        }
+        return result;
+    }
+
+    private static boolean startsWith(byte[] bytes, int startIndex, int endIndex, byte[] prefix)
+    {
+        boolean result = endIndex - startIndex >= prefix.length;
+        for (int i = 0; result && i < prefix.length; ++i)
+        {
+            result = bytes[startIndex + i] == prefix[i];
+        }
+        return result;
+    }
+
+    private static boolean startsWith(byte[] bytes, int startIndex, int endIndex, String prefix)
+    {
+        boolean result = endIndex - startIndex >= prefix.length();
+        for (int i = 0; result && i < prefix.length(); ++i)
+        {
+            result = bytes[startIndex + i] == prefix.charAt(i);
+        }
+        return result;
+    }
+
+    private static int skipSpaces(byte[] bytes, int startIndex, int endIndex)
+    {
+        int result = startIndex;
+        while (result < endIndex && bytes[result] == ' ')
+        {
+            ++result;
+        }
+        return result;
+    }
+
+    private static int skipDigits(byte[] bytes, int startIndex, int endIndex)
+    {
+        int result = startIndex;
+        while (result < endIndex && '0' <= bytes[result] && bytes[result] <= '9')
+        {
+            ++result;
+        }
+        return result;
+    }
+
+    private static long parseDigits(byte[] bytes, int startIndex, int endIndex)
+    {
+        long result = 0;
+        for (int i = startIndex; i < endIndex; ++i)
+        {
+            result = (result * 10) + (bytes[i] - '0');
+        }
+        return result;
+    }
+
+    private static long getUnitMultiplier(byte[] bytes, int startIndex, int endIndex)
+    {
+        long result = -1;
+        if (GitProgressParser.equals(bytes, startIndex, endIndex, "bytes") || GitProgressParser.equals(bytes, startIndex, endIndex, "byte"))
+        {
+            result = 1;
+        }
+        else if (GitProgressParser.equals(bytes, startIndex, endIndex, "KiB"))
+        {
+            result = 1024L;
+        }
+        else if (GitProgressParser.equals(bytes, startIndex, endIndex, "MiB"))
+        {
+            result = 1024L * 1024;
+        }
+        else if (GitProgressParser.equals(bytes, startIndex, endIndex, "GiB"))
+        {
+            result = 1024L * 1024 * 1024;
+        }
+        else if (GitProgressParser.equals(bytes, startIndex, endIndex, "TiB"))
+        {
+            result = 1024L * 1024 * 1024 * 1024;
+        }
+        return result;
+    }
+
+    private static boolean equals(byte[] bytes, int startIndex, int endIndex, String text)
+    {
+        return endIndex - startIndex == text.length() && GitProgressParser.startsWith(bytes, startIndex, endIndex, text);
+    }
+}
@@ -0,0 +1,75 @@
+package qub;
+
+/**
+ * The phases of a clone, fetch, or pull that Git reports progress for.
+ */
+public enum GitProgressPhase
+{
+    EnumeratingObjects("Enumerating objects"),
+    CountingObjects("Counting objects"),
+    CompressingObjects("Compressing objects"),
+    ReceivingObjects("Receiving objects"),
+    ResolvingDeltas("Resolving deltas"),
+    CheckingOutFiles("Updating files", "Checking out files");
+
+    private final String title;
+    private final byte[][] titlesBytes;
+
+    GitProgressPhase(String title, String... olderTitles)
+    {
+        this.title = title;
+        this.titlesBytes = new byte[1 + olderTitles.length][];
+        this.titlesBytes[0] = title.getBytes(java.nio.charset.StandardCharsets.US_ASCII);
+        for (int i = 0; i < olderTitles.length; ++i)
+        {
+            this.titlesBytes[i + 1] = olderTitles[i].getBytes(java.nio.charset.StandardCharsets.US_ASCII);
+        }
+    }
+
+    /**
+     * Get the title that Git writes at the start of this phase's progress lines. Older versions
+     * of Git may write a different title for some phases (such as "Checking out files" instead
+     * of "Updating files"), which is also recognized when progress lines are parsed.
+     * @return The title that Git writes at the start of this phase's progress lines.
+     */
+    public String getTitle()
+    {
+        return this.title;
+    }
+
+    @Override
+    public String toString()
+    {
+        return this.title;
+    }
+
+    /**
+     * Get the phase whose title is at the provided index of the provided bytes.
+     * @param bytes The bytes to look in.
+     * @param startIndex The index of the first byte of the title.
+     * @param endIndex The index after the last byte of the title.
+     * @return The phase with the title (or with an older version of the title), or null if no
+     * phase has the title.
+     */
+    static GitProgressPhase find(byte[] bytes, int startIndex, int endIndex)
+    {
+        GitProgressPhase result = null;
+        final int titleLength = endIndex - startIndex;
+        for (final GitProgressPhase phase : GitProgressPhase.values())
+        {
+            for (final byte[] titleBytes : phase.titlesBytes)
+            {
+                if (titleBytes.length == titleLength && java.util.Arrays.equals(titleBytes, 0, titleLength, bytes, startIndex, endIndex))
+                {
+                    result = phase;
+                    break;
+                }
+            }
+            if (result != null)
+            {
+                break;
+            }
+        }
+        return result;
+    }
+}
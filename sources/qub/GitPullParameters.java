@@ -34,4 +34,70 @@ public class GitPullParameters extends GitParametersDecorator<GitPullParameters>
 
         return GitPullParameters.create(executableFile.getPath());
     }
+
+    /**
+     * Progress status is reported on the standard error stream by default when it is attached to a
+     * terminal, unless --quiet is specified. This flag forces progress status even if the standard
+     * error stream is not directed to a terminal.
+     * @return This object for method chaining.
+     */
+    public GitPullParameters addProgress()
+    {
+        return this.addCommandArgument("--progress");
+    }
+
+    /**
+     * Force progress status to be reported (see {@link #addProgress()}) and send the parsed
+     * progress events to the provided listener. This replaces the command's error stream handler.
+     * @param progressListener The listener that will receive the parsed progress events.
+     * @return This object for method chaining.
+     */
+    public GitPullParameters setProgressListener(Action1<GitProgressEvent> progressListener)
+    {
+        PreCondition.assertNotNull(progressListener, "progressListener");
+
+        return this.setProgressParser(GitProgressParser.create(progressListener));
+    }
+
+    /**
+     * Force progress status to be reported (see {@link #addProgress()}) and write the command's
+     * standard error stream to the provided parser. This replaces the command's error stream
+     * handler. "--progress" is only added if the command doesn't have it yet, so the progress
+     * parser can be replaced.
+     * @param progressParser The parser that the command's standard error stream will be written
+     *                       to.
+     * @return This object for method chaining.
+     */
+    public GitPullParameters setProgressParser(GitProgressParser progressParser)
+    {
+        PreCondition.assertNotNull(progressParser, "progressParser");
+
+        if (!this.getCommandArguments().contains("--progress"))
+        {
+            this.addProgress();
+        }
+        return this.setErrorStreamHandler((ByteReadStream errorStream) -> progressParser.readFrom(errorStream).await());
+    }
+
+    /**
+     * Deepen the history of a shallow repository by the provided number of commits from the
+     * current shallow boundary.
+     * @param depth The number of commits to deepen the history by.
+     * @return This object for method chaining.
+     */
+    public GitPullParameters addDeepen(int depth)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(depth, 1, "depth");
+
+        return this.addCommandArgument("--deepen=" + depth);
+    }
+
+    /**
+     * Convert a shallow repository into a complete one by fetching the rest of its history.
+     * @return This object for method chaining.
+     */
+    public GitPullParameters addUnshallow()
+    {
+        return this.addCommandArgument("--unshallow");
+    }
 }
@@ -0,0 +1,242 @@
+package qub;
+
+/**
+ * A set of objects that can be reached from some commits, such as the objects that
+ * "git rev-list --objects" lists. Objects that are in the pack file of a bitmap index are stored
+ * as bits in pack order, so whole reachability bitmaps can be combined with a few word
+ * operations. Other objects (such as loose objects) are stored by their ids.
+ */
+public class GitReachableObjects
+{
+    private final GitBitmapIndex bitmapIndex;
+    private final java.util.BitSet packObjects;
+    private final java.util.HashMap<GitObjectId,GitObjectType> otherObjects;
+    private int bitmapHitCount;
+    private int walkedObjectCount;
+
+    private GitReachableObjects(GitBitmapIndex bitmapIndex)
+    {
+        this.bitmapIndex = bitmapIndex;
+        this.packObjects = new java.util.BitSet(bitmapIndex == null ? 0 : bitmapIndex.getObjectCount());
+        this.otherObjects = new java.util.HashMap<>();
+    }
+
+    /**
+     * Create a new empty GitReachableObjects.
+     * @param bitmapIndex The bitmap index whose pack order is used for the objects in its pack
+     *                    file, or null if every object is stored by its id.
+     * @return The new GitReachableObjects.
+     */
+    public static GitReachableObjects create(GitBitmapIndex bitmapIndex)
+    {
+        return new GitReachableObjects(bitmapIndex);
+    }
+
+    /**
+     * Get the objects that can be reached from the provided objects. The walk stops at every
+     * commit that has a bitmap and adds the commit's bitmap instead of walking its history, so a
+     * commit without a bitmap is only walked back to its nearest bitmapped ancestors.
+     * @param objectDatabase The object database to read commits, trees, and tags from.
+     * @param bitmapIndex The bitmap index to use, or null to walk every object.
+     * @param objectIds The ids of the objects to start walking from.
+     * @return The objects that can be reached from the provided objects.
+     */
+    public static Result<GitReachableObjects> create(GitObjectDatabase objectDatabase, GitBitmapIndex bitmapIndex, Iterable<GitObjectId> objectIds)
+    {
+        PreCondition.assertNotNull(objectDatabase, "objectDatabase");
+        PreCondition.assertNotNull(objectIds, "objectIds");
+
+        return Result.create(() ->
+        {
+            final GitReachableObjects result = new GitReachableObjects(bitmapIndex);
+            final java.util.ArrayDeque<GitObjectId> stack = new java.util.ArrayDeque<>();
+            for (final GitObjectId objectId : objectIds)
+            {
+                stack.push(objectId);
+            }
+
+            while (!stack.isEmpty())
+            {
+                final GitObjectId objectId = stack.pop();
+                if (!result.contains(objectId))
+                {
+                    final java.util.BitSet bitmap = bitmapIndex == null ? null : bitmapIndex.getBitmap(objectId);
+                    if (bitmap != null)
+                    {
+                        result.packObjects.or(bitmap);
+                        ++result.bitmapHitCount;
+                    }
+                    else
+                    {
+                        final GitObject object = objectDatabase.getObject(objectId).await();
+                        result.add(objectId, object.getObjectType());
+                        ++result.walkedObjectCount;
+
+                        if (object instanceof GitCommit)
+                        {
+                            // The parents are pushed last so that they are walked first. A parent
+                            // with a bitmap then marks the tree objects that the commit shares
+                            // with it before the commit's own tree is walked.
+                            final GitCommit commit = (GitCommit)object;
+                            stack.push(commit.getTreeId());
+                            for (final GitObjectId parentId : commit.getParentIds())
+                            {
+                                stack.push(parentId);
+                            }
+                        }
+                        else if (object instanceof GitTree)
+                        {
+                            for (final GitTreeEntry entry : ((GitTree)object).getEntries().await())
+                            {
+                                // Submodule commits aren't part of this repository, and blobs
+                                // don't refer to other objects, so neither is read.
+                                if (entry.isTree())
+                                {
+                                    stack.push(entry.getObjectId());
+                                }
+                                else if (!entry.isSubmodule() && !result.contains(entry.getObjectId()))
+                                {
+                                    result.add(entry.getObjectId(), GitObjectType.Blob);
+                                    ++result.walkedObjectCount;
+                                }
+                            }
+                        }
+                        else if (object instanceof GitTag)
+                        {
+                            stack.push(((GitTag)object).getTargetId());
+                        }
+                    }
+                }
+            }
+
+            return result;
+        });
+    }
+
+    private void add(GitObjectId objectId, GitObjectType objectType)
+    {
+        final int bitPosition = this.bitmapIndex == null ? -1 : this.bitmapIndex.getBitPosition(objectId);
+        if (bitPosition != -1)
+        {
+            this.packObjects.set(bitPosition);
+        }
+        else
+        {
+            this.otherObjects.put(objectId, objectType);
+        }
+    }
+
+    /**
+     * Get the number of commits whose bitmaps were added to this set instead of being walked.
+     * @return The number of commits whose bitmaps were added to this set.
+     */
+    public int getBitmapHitCount()
+    {
+        return this.bitmapHitCount;
+    }
+
+    /**
+     * Get the number of objects that were added to this set by walking commits and trees.
+     * @return The number of objects that were added to this set by walking commits and trees.
+     */
+    public int getWalkedObjectCount()
+    {
+        return this.walkedObjectCount;
+    }
+
+    /**
+     * Get whether this set contains the object with the provided id.
+     * @param objectId The id of the object.
+     * @return Whether this set contains the object.
+     */
+    public boolean contains(GitObjectId objectId)
+    {
+        PreCondition.assertNotNull(objectId, "objectId");
+
+        final int bitPosition = this.bitmapIndex == null ? -1 : this.bitmapIndex.getBitPosition(objectId);
+        return bitPosition != -1 ? this.packObjects.get(bitPosition) : this.otherObjects.containsKey(objectId);
+    }
+
+    /**
+     * Get the number of objects in this set.
+     * @return The number of objects in this set.
+     */
+    public int getCount()
+    {
+        return this.packObjects.cardinality() + this.otherObjects.size();
+    }
+
+    /**
+     * Get the number of objects in this set that have the provided type.
+     * @param objectType The type of the objects to count.
+     * @return The number of objects in this set that have the provided type.
+     */
+    public int getCount(GitObjectType objectType)
+    {
+        PreCondition.assertNotNull(objectType, "objectType");
+
+        int result = 0;
+        if (this.bitmapIndex != null)
+        {
+            final java.util.BitSet typeObjects = this.bitmapIndex.getTypeBitmap(objectType);
+            typeObjects.and(this.packObjects);
+            result += typeObjects.cardinality();
+        }
+        for (final GitObjectType otherObjectType : this.otherObjects.values())
+        {
+            if (otherObjectType == objectType)
+            {
+                ++result;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the ids of the objects in this set.
+     * @return The ids of the objects in this set.
+     */
+    public Iterable<GitObjectId> getObjectIds()
+    {
+        final List<GitObjectId> result = List.create();
+        for (int bitPosition = this.packObjects.nextSetBit(0); bitPosition >= 0; bitPosition = this.packObjects.nextSetBit(bitPosition + 1))
+        {
+            result.add(this.bitmapIndex.getObjectId(bitPosition));
+        }
+        for (final GitObjectId objectId : this.otherObjects.keySet())
+        {
+            result.add(objectId);
+        }
+        return result;
+    }
+
+    /**
+     * Add the objects of the provided set to this set.
+     * @param objects The objects to add. They must use the same bitmap index as this set.
+     * @return This object for method chaining.
+     */
+    public GitReachableObjects or(GitReachableObjects objects)
+    {
+        PreCondition.assertNotNull(objects, "objects");
+        PreCondition.assertTrue(this.bitmapIndex == objects.bitmapIndex, "this.bitmapIndex == objects.bitmapIndex");
+
+        this.packObjects.or(objects.packObjects);
+        this.otherObjects.putAll(objects.otherObjects);
+        return this;
+    }
+
+    /**
+     * Remove the objects of the provided set from this set.
+     * @param objects The objects to remove. They must use the same bitmap index as this set.
+     * @return This object for method chaining.
+     */
+    public GitReachableObjects andNot(GitReachableObjects objects)
+    {
+        PreCondition.assertNotNull(objects, "objects");
+        PreCondition.assertTrue(this.bitmapIndex == objects.bitmapIndex, "this.bitmapIndex == objects.bitmapIndex");
+
+        this.packObjects.andNot(objects.packObjects);
+        this.otherObjects.keySet().removeAll(objects.otherObjects.keySet());
+        return this;
+    }
+}
@@ -0,0 +1,143 @@
+package qub;
+
+/**
+ * A Git reference, such as "HEAD", "refs/heads/main", or "refs/tags/v1.0". A direct ref points
+ * at an object, and a symbolic ref (such as "HEAD" on a branch) points at another ref.
+ */
+public class GitRef
+{
+    private final String name;
+    private final GitObjectId objectId;
+    private final GitObjectId peeledObjectId;
+    private final String targetName;
+
+    private GitRef(String name, GitObjectId objectId, GitObjectId peeledObjectId, String targetName)
+    {
+        this.name = name;
+        this.objectId = objectId;
+        this.peeledObjectId = peeledObjectId;
+        this.targetName = targetName;
+    }
+
+    /**
+     * Create a new direct GitRef.
+     * @param name The full name of the ref.
+     * @param objectId The id of the object that the ref points at.
+     * @return The new GitRef.
+     */
+    public static GitRef create(String name, GitObjectId objectId)
+    {
+        return GitRef.create(name, objectId, null);
+    }
+
+    /**
+     * Create a new direct GitRef.
+     * @param name The full name of the ref.
+     * @param objectId The id of the object that the ref points at.
+     * @param peeledObjectId The id of the object that the ref's annotated tag eventually points
+     *                       at, or null if it isn't known or the ref doesn't point at a tag.
+     * @return The new GitRef.
+     */
+    public static GitRef create(String name, GitObjectId objectId, GitObjectId peeledObjectId)
+    {
+        PreCondition.assertNotNullAndNotEmpty(name, "name");
+        PreCondition.assertNotNull(objectId, "objectId");
+
+        return new GitRef(name, objectId, peeledObjectId, null);
+    }
+
+    /**
+     * Create a new symbolic GitRef.
+     * @param name The full name of the ref.
+     * @param targetName The full name of the ref that this ref points at.
+     * @return The new GitRef.
+     */
+    public static GitRef createSymbolic(String name, String targetName)
+    {
+        PreCondition.assertNotNullAndNotEmpty(name, "name");
+        PreCondition.assertNotNullAndNotEmpty(targetName, "targetName");
+
+        return new GitRef(name, null, null, targetName);
+    }
+
+    /**
+     * Get the full name of this ref.
+     * @return The full name of this ref.
+     */
+    public String getName()
+    {
+        return this.name;
+    }
+
+    /**
+     * Get whether this ref points at another ref instead of at an object.
+     * @return Whether this ref points at another ref.
+     */
+    public boolean isSymbolic()
+    {
+        return this.targetName != null;
+    }
+
+    /**
+     * Get the full name of the ref that this symbolic ref points at.
+     * @return The full name of the ref that this ref points at, or null if this ref is direct.
+     */
+    public String getTargetName()
+    {
+        return this.targetName;
+    }
+
+    /**
+     * Get the id of the object that this direct ref points at.
+     * @return The id of the object that this ref points at, or null if this ref is symbolic.
+     */
+    public GitObjectId getObjectId()
+    {
+        return this.objectId;
+    }
+
+    /**
+     * Get the id of the object that this ref's annotated tag eventually points at. Only the refs
+     * in a "packed-refs" file record this.
+     * @return The id of the object that this ref's tag points at, or null if it isn't known or
+     * this ref doesn't point at a tag.
+     */
+    public GitObjectId getPeeledObjectId()
+    {
+        return this.peeledObjectId;
+    }
+
+    @Override
+    public String toString()
+    {
+        return this.isSymbolic()
+            ? this.name + " -> " + this.targetName
+            : this.name + " " + this.objectId;
+    }
+
+    @Override
+    public boolean equals(Object rhs)
+    {
+        return rhs instanceof GitRef && this.equals((GitRef)rhs);
+    }
+
+    /**
+     * Get whether this ref has the same name and target as the provided ref.
+     * @param rhs The ref to compare against.
+     * @return Whether this ref has the same name and target as the provided ref.
+     */
+    public boolean equals(GitRef rhs)
+    {
+        return rhs != null &&
+            this.name.equals(rhs.name) &&
+            Comparer.equal(this.objectId, rhs.objectId) &&
+            Comparer.equal(this.peeledObjectId, rhs.peeledObjectId) &&
+            Comparer.equal(this.targetName, rhs.targetName);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return this.name.hashCode();
+    }
+}
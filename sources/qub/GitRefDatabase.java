@@ -0,0 +1,484 @@
+package qub;
+
+/**
+ * A reader for a Git repository's refs that runs in this process instead of starting a Git
+ * process. A ref is read from its loose ref file (such as ".git/refs/heads/main") if it has one,
+ * and otherwise from the repository's "packed-refs" file. The parsed packed-refs file and the
+ * contents of every existing loose ref file that has been read are cached, and each cached
+ * file is validated against its size and last modified time before it is used again, so a
+ * GitRefDatabase that is kept for the lifetime of a process only re-reads the files that
+ * changed. Like Git's own index, a cached file whose last modified time was too close to the
+ * time that it was read is "racy" (it could have been changed again without changing its last
+ * modified time), so it is always read again.
+ */
+public class GitRefDatabase
+{
+    /**
+     * The maximum number of symbolic refs that will be followed. This matches Git's own limit.
+     */
+    private static final int maximumSymbolicRefDepth = 5;
+
+    private static final String symbolicRefPrefix = "ref: ";
+
+    /**
+     * The rules that Git uses to expand a short ref name (such as "main" or "v1.0") to a full
+     * ref name, in the order that they are tried.
+     */
+    private static final String[] shortNameFormats = { "%s", "refs/%s", "refs/tags/%s", "refs/heads/%s", "refs/remotes/%s", "refs/remotes/%s/HEAD" };
+
+    private final Folder gitFolder;
+    private final Folder commonFolder;
+    private final int objectIdLength;
+    private final java.util.HashMap<String,CachedFile<GitRef>> looseRefs;
+    private CachedFile<GitPackedRefs> packedRefs;
+
+    private GitRefDatabase(Folder gitFolder, Folder commonFolder, int objectIdLength)
+    {
+        this.gitFolder = gitFolder;
+        this.commonFolder = commonFolder;
+        this.objectIdLength = objectIdLength;
+        this.looseRefs = new java.util.HashMap<>();
+    }
+
+    /**
+     * Create a new GitRefDatabase that reads refs from the provided Git folders.
+     * @param gitFolder The Git folder of the repository, which holds "HEAD" and the other
+     *                  per-worktree refs.
+     * @param commonFolder The common Git folder of the repository, which holds "packed-refs" and
+     *                     the shared refs. This is the same as the gitFolder unless the
+     *                     repository is a linked worktree.
+     * @param objectIdLength The number of bytes in the repository's object ids.
+     * @return The new GitRefDatabase.
+     */
+    public static GitRefDatabase create(Folder gitFolder, Folder commonFolder, int objectIdLength)
+    {
+        PreCondition.assertNotNull(gitFolder, "gitFolder");
+        PreCondition.assertNotNull(commonFolder, "commonFolder");
+        PreCondition.assertTrue(GitObjectId.isValidLength(objectIdLength), "GitObjectId.isValidLength(objectIdLength)");
+
+        return new GitRefDatabase(gitFolder, commonFolder, objectIdLength);
+    }
+
+    /**
+     * Open the ref database of the repository in the provided folder. The folder can be the root
+     * of a working tree, a linked worktree, or a bare repository.
+     * @param repositoryFolder The folder of the repository.
+     * @return The ref database of the repository, or a {@link NotFoundException} if the folder
+     * isn't a repository.
+     */
+    public static Result<GitRefDatabase> open(Folder repositoryFolder)
+    {
+        PreCondition.assertNotNull(repositoryFolder, "repositoryFolder");
+
+        return Result.create(() ->
+        {
+            final Folder gitFolder = GitObjectDatabase.getGitFolder(repositoryFolder).await();
+            final Folder commonFolder = GitObjectDatabase.getCommonFolder(gitFolder).await();
+            return GitRefDatabase.create(gitFolder, commonFolder, GitObjectDatabase.getObjectIdLength(commonFolder));
+        });
+    }
+
+    /**
+     * Get the ref with the provided full name without following it if it is symbolic.
+     * @param refName The full name of the ref, such as "HEAD" or "refs/heads/main".
+     * @return The ref, or a {@link NotFoundException} if the ref doesn't exist.
+     */
+    public Result<GitRef> getRef(String refName)
+    {
+        PreCondition.assertNotNullAndNotEmpty(refName, "refName");
+
+        return Result.create(() ->
+        {
+            GitRef result = GitRefDatabase.isSafeRefName(refName) ? this.getLooseRef(refName) : null;
+            if (result == null)
+            {
+                final GitPackedRefs packedRefs = this.getPackedRefs();
+                if (packedRefs != null)
+                {
+                    result = packedRefs.get(refName);
+                }
+            }
+            if (result == null)
+            {
+                throw new NotFoundException("Could not find the Git ref " + Strings.escapeAndQuote(refName) + ".");
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Resolve the provided ref name to the direct ref that it refers to, like "git rev-parse
+     * --symbolic-full-name". A short name (such as "main", "v1.0", or "origin/main") is expanded
+     * with the same rules that Git uses, and symbolic refs are followed. Like Git, the name is
+     * only looked up as it is if it is a root ref (such as "HEAD" or "FETCH_HEAD") or if it
+     * starts with "refs/", so a branch named "config" or "index" isn't confused with the files of
+     * the same name in the Git folder.
+     * @param refName The full or short name of the ref.
+     * @return The direct ref that the name refers to, or a {@link NotFoundException} if the name
+     * doesn't refer to a ref that points at an object.
+     */
+    public Result<GitRef> resolve(String refName)
+    {
+        PreCondition.assertNotNullAndNotEmpty(refName, "refName");
+
+        return Result.create(() ->
+        {
+            GitRef result = null;
+            final int firstFormatIndex = refName.startsWith("refs/") || GitRefDatabase.isRootRefName(refName) ? 0 : 1;
+            for (int i = firstFormatIndex; i < GitRefDatabase.shortNameFormats.length && result == null; ++i)
+            {
+                final String fullName = String.format(GitRefDatabase.shortNameFormats[i], refName);
+                final GitRef ref = this.getRef(fullName)
+                    .catchError(NotFoundException.class)
+                    .await();
+                if (ref != null)
+                {
+                    result = this.follow(ref);
+                }
+            }
+            if (result == null)
+            {
+                throw new NotFoundException("Could not find the Git ref " + Strings.escapeAndQuote(refName) + ".");
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Resolve the provided ref name to the id of the object that it points at, like "git
+     * rev-parse".
+     * @param refName The full or short name of the ref.
+     * @return The id of the object that the ref points at.
+     */
+    public Result<GitObjectId> resolveObjectId(String refName)
+    {
+        PreCondition.assertNotNullAndNotEmpty(refName, "refName");
+
+        return this.resolve(refName)
+            .then((GitRef ref) -> ref.getObjectId());
+    }
+
+    /**
+     * Follow the provided ref through its symbolic refs to the direct ref that it refers to.
+     * @param ref The ref to follow.
+     * @return The direct ref.
+     */
+    private GitRef follow(GitRef ref)
+    {
+        GitRef result = ref;
+        int depth = 0;
+        while (result.isSymbolic())
+        {
+            if (depth == GitRefDatabase.maximumSymbolicRefDepth)
+            {
+                throw new NotFoundException("Could not resolve the Git ref " + Strings.escapeAndQuote(ref.getName()) + " because it refers to more than " + GitRefDatabase.maximumSymbolicRefDepth + " symbolic refs.");
+            }
+            result = this.getRef(result.getTargetName()).await();
+            ++depth;
+        }
+        return result;
+    }
+
+    /**
+     * Get the refs whose full names start with the provided prefix, in name order. A loose ref
+     * hides the packed ref that has the same name, and symbolic refs aren't followed.
+     * @param prefix The prefix of the ref names, such as "refs/heads/" or "refs/".
+     * @return The refs whose names start with the provided prefix.
+     */
+    public Result<Iterable<GitRef>> getRefs(String prefix)
+    {
+        PreCondition.assertNotNull(prefix, "prefix");
+
+        return Result.create(() ->
+        {
+            final java.util.TreeMap<String,GitRef> refs = new java.util.TreeMap<>();
+            final GitPackedRefs packedRefs = this.getPackedRefs();
+            if (packedRefs != null)
+            {
+                for (final GitRef ref : packedRefs.getRefs(prefix))
+                {
+                    refs.put(ref.getName(), ref);
+                }
+            }
+
+            final List<String> looseRefNames = List.create();
+            this.addLooseRefNames(this.commonFolder.getFolder("refs").await(), "refs/", looseRefNames);
+            for (final String looseRefName : looseRefNames)
+            {
+                if (looseRefName.startsWith(prefix))
+                {
+                    final GitRef ref = this.getLooseRef(looseRefName);
+                    if (ref != null)
+                    {
+                        refs.put(ref.getName(), ref);
+                    }
+                }
+            }
+
+            final List<GitRef> result = List.create();
+            for (final GitRef ref : refs.values())
+            {
+                result.add(ref);
+            }
+            return result;
+        });
+    }
+
+    private void addLooseRefNames(Folder folder, String folderRefName, List<String> refNames)
+    {
+        final Iterable<FileSystemEntry> entries = folder.getFilesAndFolders()
+            .catchError(NotFoundException.class, (NotFoundException error) -> Iterable.create())
+            .await();
+        for (final FileSystemEntry entry : entries)
+        {
+            final String refName = folderRefName + entry.getName();
+            if (entry instanceof Folder)
+            {
+                this.addLooseRefNames((Folder)entry, refName + "/", refNames);
+            }
+            else if (!refName.endsWith(".lock"))
+            {
+                refNames.add(refName);
+            }
+        }
+    }
+
+    /**
+     * Get whether the provided ref is stored in the worktree's own Git folder instead of the
+     * common Git folder. These are the refs that aren't under "refs/" (such as "HEAD") and the
+     * per-worktree refs under "refs/".
+     * @param refName The full name of the ref.
+     * @return Whether the ref is stored in the worktree's own Git folder.
+     */
+    private static boolean isPerWorktreeRef(String refName)
+    {
+        return !refName.startsWith("refs/") ||
+            refName.startsWith("refs/worktree/") ||
+            refName.startsWith("refs/bisect/") ||
+            refName.startsWith("refs/rewritten/");
+    }
+
+    /**
+     * Get whether the provided ref name can be used as a path within a Git folder. This rejects
+     * the names that Git itself rejects because they could refer to a file outside of the Git
+     * folder.
+     * @param refName The full name of the ref.
+     * @return Whether the ref name can be used as a path within a Git folder.
+     */
+    /**
+     * Get whether the provided name has the syntax of a root ref, which is a ref that lives
+     * directly in the Git folder, such as "HEAD", "ORIG_HEAD", or "FETCH_HEAD". Root ref names
+     * only contain upper-case letters, underscores, and dashes.
+     * @param refName The name to check.
+     * @return Whether the provided name has the syntax of a root ref.
+     */
+    private static boolean isRootRefName(String refName)
+    {
+        boolean result = !refName.isEmpty();
+        for (int i = 0; result && i < refName.length(); ++i)
+        {
+            final char c = refName.charAt(i);
+            result = ('A' <= c && c <= 'Z') || c == '_' || c == '-';
+        }
+        return result;
+    }
+
+    private static boolean isSafeRefName(String refName)
+    {
+        boolean result = !refName.startsWith("/") &&
+            !refName.endsWith("/") &&
+            !refName.contains("..") &&
+            !refName.contains("//") &&
+            !refName.contains("\\");
+        for (int i = 0; result && i < refName.length(); ++i)
+        {
+            result = refName.charAt(i) >= ' ' && refName.charAt(i) != ':';
+        }
+        return result;
+    }
+
+    /**
+     * Get the loose ref with the provided name. The ref file's contents are cached, and they are
+     * only read again if the file's size or last modified time changes or if the cached contents
+     * are racy. Missing ref files aren't cached, because most of the names that a short name
+     * expands to don't exist.
+     * @param refName The full name of the ref.
+     * @return The loose ref, or null if there is no loose ref file with the provided name.
+     */
+    private GitRef getLooseRef(String refName)
+    {
+        final Folder folder = GitRefDatabase.isPerWorktreeRef(refName) ? this.gitFolder : this.commonFolder;
+        final File refFile = folder.getFile(refName).await();
+        final FileStamp stamp = FileStamp.get(refFile);
+
+        CachedFile<GitRef> cachedRef;
+        synchronized (this.looseRefs)
+        {
+            cachedRef = this.looseRefs.get(refName);
+        }
+        if (cachedRef == null || !cachedRef.stamp.matches(stamp))
+        {
+            GitRef ref = null;
+            if (stamp.exists())
+            {
+                final String contents = refFile.getContentsAsString()
+                    .catchError(NotFoundException.class)
+                    .await();
+                if (contents != null)
+                {
+                    ref = this.parseLooseRef(refName, contents);
+                }
+            }
+            cachedRef = new CachedFile<>(stamp, ref);
+            synchronized (this.looseRefs)
+            {
+                if (ref == null)
+                {
+                    this.looseRefs.remove(refName);
+                }
+                else
+                {
+                    this.looseRefs.put(refName, cachedRef);
+                }
+            }
+        }
+        return cachedRef.value;
+    }
+
+    /**
+     * Get the number of loose ref files whose contents are cached.
+     * @return The number of loose ref files whose contents are cached.
+     */
+    int getCachedLooseRefCount()
+    {
+        synchronized (this.looseRefs)
+        {
+            return this.looseRefs.size();
+        }
+    }
+
+    private GitRef parseLooseRef(String refName, String contents)
+    {
+        final String trimmedContents = contents.trim();
+        GitRef result;
+        if (trimmedContents.startsWith(GitRefDatabase.symbolicRefPrefix))
+        {
+            result = GitRef.createSymbolic(refName, trimmedContents.substring(GitRefDatabase.symbolicRefPrefix.length()).trim());
+        }
+        else if (trimmedContents.length() == this.objectIdLength * 2 && GitObjectId.isObjectId(trimmedContents))
+        {
+            result = GitRef.create(refName, GitObjectId.parse(trimmedContents).await());
+        }
+        else
+        {
+            throw new ParseException("Expected the Git ref " + Strings.escapeAndQuote(refName) + " to contain an object id or a symbolic ref, but found " + Strings.escapeAndQuote(trimmedContents) + ".");
+        }
+        return result;
+    }
+
+    /**
+     * Get the parsed "packed-refs" file. The file is parsed again only if its size or last
+     * modified time changes or if the parsed file is racy.
+     * @return The packed refs, or null if the repository doesn't have a "packed-refs" file.
+     */
+    private GitPackedRefs getPackedRefs()
+    {
+        final File packedRefsFile = this.commonFolder.getFile("packed-refs").await();
+        final FileStamp stamp = FileStamp.get(packedRefsFile);
+        synchronized (this)
+        {
+            if (this.packedRefs == null || !this.packedRefs.stamp.matches(stamp))
+            {
+                GitPackedRefs packedRefs = null;
+                if (stamp.exists())
+                {
+                    packedRefs = GitPackedRefs.open(packedRefsFile, this.objectIdLength)
+                        .catchError(NotFoundException.class)
+                        .await();
+                }
+                this.packedRefs = new CachedFile<>(stamp, packedRefs);
+            }
+            return this.packedRefs.value;
+        }
+    }
+
+    /**
+     * The size and last modified time of a file when it was read, and the time that it was read.
+     */
+    private static class FileStamp
+    {
+        /**
+         * The number of milliseconds that a file's last modified time must be older than the
+         * time that the file was read for the file's cached contents to be trusted. A file that
+         * is changed again within the same last modified time tick keeps its last modified time
+         * (and a ref file keeps its size), so its cached contents can't be trusted until the
+         * tick has passed. This is two seconds to cover file systems with coarse last modified
+         * times.
+         */
+        private static final long racyMilliseconds = 2000;
+
+        private final Long byteCount;
+        private final DateTime lastModified;
+        private final long readMilliseconds;
+
+        private FileStamp(Long byteCount, DateTime lastModified, long readMilliseconds)
+        {
+            this.byteCount = byteCount;
+            this.lastModified = lastModified;
+            this.readMilliseconds = readMilliseconds;
+        }
+
+        static FileStamp get(File file)
+        {
+            final long readMilliseconds = System.currentTimeMillis();
+            final Long byteCount = file.getContentByteCount()
+                .catchError(NotFoundException.class)
+                .await();
+            final DateTime lastModified = byteCount == null
+                ? null
+                : file.getLastModified()
+                    .catchError(NotFoundException.class)
+                    .await();
+            return new FileStamp(byteCount, lastModified, readMilliseconds);
+        }
+
+        boolean exists()
+        {
+            return this.byteCount != null;
+        }
+
+        /**
+         * Get whether the file could have changed after it was read without changing its last
+         * modified time. An existing file whose last modified time isn't known is always racy.
+         */
+        boolean isRacy()
+        {
+            return this.exists() &&
+                (this.lastModified == null ||
+                 this.readMilliseconds - (long)this.lastModified.getDurationSinceEpoch().toMilliseconds().getValue() < FileStamp.racyMilliseconds);
+        }
+
+        /**
+         * Get whether the contents that were read with this stamp can be used for a file that
+         * now has the provided stamp. Racy contents are never used again.
+         */
+        boolean matches(FileStamp rhs)
+        {
+            return !this.isRacy() &&
+                Comparer.equal(this.byteCount, rhs.byteCount) &&
+                (!this.exists() || this.lastModified.equals(rhs.lastModified));
+        }
+    }
+
+    private static class CachedFile<T>
+    {
+        private final FileStamp stamp;
+        private final T value;
+
+        CachedFile(FileStamp stamp, T value)
+        {
+            this.stamp = stamp;
+            this.value = value;
+        }
+    }
+}
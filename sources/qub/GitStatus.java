@@ -0,0 +1,123 @@
+package qub;
+
+/**
+ * The status of a working tree: the tracked paths that changed between HEAD, the index, and the
+ * working tree, followed by the untracked paths. The entries are in the same order as the
+ * records of "git status --porcelain=v2 --no-renames".
+ */
+public class GitStatus
+{
+    private final Iterable<GitStatusEntry> entries;
+    private final int statCount;
+    private final int hashCount;
+
+    private GitStatus(Iterable<GitStatusEntry> entries, int statCount, int hashCount)
+    {
+        this.entries = entries;
+        this.statCount = statCount;
+        this.hashCount = hashCount;
+    }
+
+    /**
+     * Create a new GitStatus.
+     * @param entries The status entries, in porcelain order.
+     * @param statCount The number of working tree files whose stat data was read.
+     * @param hashCount The number of working tree files that were hashed because their stat data
+     *                  didn't match their index entries.
+     * @return The new GitStatus.
+     */
+    static GitStatus create(Iterable<GitStatusEntry> entries, int statCount, int hashCount)
+    {
+        PreCondition.assertNotNull(entries, "entries");
+        PreCondition.assertGreaterThanOrEqualTo(statCount, 0, "statCount");
+        PreCondition.assertBetween(0, hashCount, statCount, "hashCount");
+
+        return new GitStatus(entries, statCount, hashCount);
+    }
+
+    /**
+     * Get all of the status entries, in porcelain order.
+     * @return All of the status entries.
+     */
+    public Iterable<GitStatusEntry> getEntries()
+    {
+        return this.entries;
+    }
+
+    /**
+     * Get the tracked paths whose index differs from HEAD.
+     * @return The tracked paths whose index differs from HEAD.
+     */
+    public Iterable<GitStatusEntry> getStaged()
+    {
+        return this.entries.where(GitStatusEntry::isStaged).toList();
+    }
+
+    /**
+     * Get the tracked paths whose working tree differs from the index.
+     * @return The tracked paths whose working tree differs from the index.
+     */
+    public Iterable<GitStatusEntry> getUnstaged()
+    {
+        return this.entries.where(GitStatusEntry::isUnstaged).toList();
+    }
+
+    /**
+     * Get the unmerged paths.
+     * @return The unmerged paths.
+     */
+    public Iterable<GitStatusEntry> getUnmerged()
+    {
+        return this.entries.where(GitStatusEntry::isUnmerged).toList();
+    }
+
+    /**
+     * Get the untracked paths. An untracked folder that doesn't contain any tracked files is
+     * reported once, with a path that ends with '/'.
+     * @return The untracked paths.
+     */
+    public Iterable<GitStatusEntry> getUntracked()
+    {
+        return this.entries.where(GitStatusEntry::isUntracked).toList();
+    }
+
+    /**
+     * Get whether the working tree doesn't have any changes or untracked paths.
+     * @return Whether the working tree is clean.
+     */
+    public boolean isClean()
+    {
+        return !this.entries.any();
+    }
+
+    /**
+     * Get the number of working tree files whose stat data was read.
+     * @return The number of working tree files whose stat data was read.
+     */
+    public int getStatCount()
+    {
+        return this.statCount;
+    }
+
+    /**
+     * Get the number of working tree files that were hashed because their stat data didn't match
+     * their index entries (or because they were modified too close to when the index was
+     * written for their stat data to be trusted).
+     * @return The number of working tree files that were hashed.
+     */
+    public int getHashCount()
+    {
+        return this.hashCount;
+    }
+
+    @Override
+    public String toString()
+    {
+        final StringBuilder builder = new StringBuilder();
+        for (final GitStatusEntry entry : this.entries)
+        {
+            builder.append(entry).append('\n');
+        }
+        return builder.toString();
+    }
+}
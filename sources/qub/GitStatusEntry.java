@@ -0,0 +1,313 @@
+package qub;
+
+/**
+ * One path in the status of a working tree. The entry uses the record types and status codes of
+ * "git status --porcelain=v2": a changed tracked path ("1"), an unmerged path ("u"), an untracked
+ * path ("?"), or an ignored path ("!"). Tracked paths have an index status (the change between
+ * HEAD and the index) and a worktree status (the change between the index and the working
+ * tree), where '.' means unchanged.
+ */
+public class GitStatusEntry
+{
+    /**
+     * The record type of a changed tracked path.
+     */
+    public static final char changedType = '1';
+
+    /**
+     * The record type of an unmerged path.
+     */
+    public static final char unmergedType = 'u';
+
+    /**
+     * The record type of an untracked path.
+     */
+    public static final char untrackedType = '?';
+
+    /**
+     * The record type of an ignored path.
+     */
+    public static final char ignoredType = '!';
+
+    /**
+     * The status code of a side that didn't change.
+     */
+    public static final char unchanged = '.';
+
+    private final char type;
+    private final char indexStatus;
+    private final char worktreeStatus;
+    private final String path;
+
+    private GitStatusEntry(char type, char indexStatus, char worktreeStatus, String path)
+    {
+        this.type = type;
+        this.indexStatus = indexStatus;
+        this.worktreeStatus = worktreeStatus;
+        this.path = path;
+    }
+
+    /**
+     * Create a new GitStatusEntry for a changed tracked path.
+     * @param indexStatus The change between HEAD and the index, such as 'A', 'M', 'D', 'T', or
+     *                    '.'.
+     * @param worktreeStatus The change between the index and the working tree, such as 'A', 'M',
+     *                       'D', 'T', or '.'.
+     * @param path The path relative to the root of the working tree.
+     * @return The new GitStatusEntry.
+     */
+    public static GitStatusEntry createChanged(char indexStatus, char worktreeStatus, String path)
+    {
+        PreCondition.assertTrue(indexStatus != GitStatusEntry.unchanged || worktreeStatus != GitStatusEntry.unchanged, "indexStatus != GitStatusEntry.unchanged || worktreeStatus != GitStatusEntry.unchanged");
+        PreCondition.assertNotNullAndNotEmpty(path, "path");
+
+        return new GitStatusEntry(GitStatusEntry.changedType, indexStatus, worktreeStatus, path);
+    }
+
+    /**
+     * Create a new GitStatusEntry for an unmerged path.
+     * @param indexStatus The first letter of the conflict's code, such as the first 'U' of "UU".
+     * @param worktreeStatus The second letter of the conflict's code, such as the 'D' of "UD".
+     * @param path The path relative to the root of the working tree.
+     * @return The new GitStatusEntry.
+     */
+    public static GitStatusEntry createUnmerged(char indexStatus, char worktreeStatus, String path)
+    {
+        PreCondition.assertNotNullAndNotEmpty(path, "path");
+
+        return new GitStatusEntry(GitStatusEntry.unmergedType, indexStatus, worktreeStatus, path);
+    }
+
+    /**
+     * Create a new GitStatusEntry for an untracked path. An untracked folder's path ends with '/'.
+     * @param path The path relative to the root of the working tree.
+     * @return The new GitStatusEntry.
+     */
+    public static GitStatusEntry createUntracked(String path)
+    {
+        PreCondition.assertNotNullAndNotEmpty(path, "path");
+
+        return new GitStatusEntry(GitStatusEntry.untrackedType, GitStatusEntry.unchanged, GitStatusEntry.unchanged, path);
+    }
+
+    /**
+     * Create a new GitStatusEntry for an ignored path. An ignored folder's path ends with '/'.
+     * @param path The path relative to the root of the working tree.
+     * @return The new GitStatusEntry.
+     */
+    public static GitStatusEntry createIgnored(String path)
+    {
+        PreCondition.assertNotNullAndNotEmpty(path, "path");
+
+        return new GitStatusEntry(GitStatusEntry.ignoredType, GitStatusEntry.unchanged, GitStatusEntry.unchanged, path);
+    }
+
+    /**
+     * Get the unmerged status code of a path from the stages that the index has for it: stage 1
+     * is the common ancestor, stage 2 is "ours", and stage 3 is "theirs".
+     * @param hasBase Whether the index has a stage 1 entry for the path.
+     * @param hasOurs Whether the index has a stage 2 entry for the path.
+     * @param hasTheirs Whether the index has a stage 3 entry for the path.
+     * @return The two letter status code, such as "UU" or "DU".
+     */
+    static String getUnmergedCode(boolean hasBase, boolean hasOurs, boolean hasTheirs)
+    {
+        PreCondition.assertTrue(hasBase || hasOurs || hasTheirs, "hasBase || hasOurs || hasTheirs");
+
+        final String[] codes = { null, "DD", "AU", "UD", "UA", "DU", "AA", "UU" };
+        return codes[(hasBase ? 1 : 0) | (hasOurs ? 2 : 0) | (hasTheirs ? 4 : 0)];
+    }
+
+    /**
+     * Parse one record of the output of "git status --porcelain=v2 -z". Only the record type, the
+     * status code, and the path are kept. A rename or copy record ("2") is parsed as a changed
+     * path with its new path, so status that is compared against this should be run with
+     * "--no-renames".
+     * @param record The record to parse.
+     * @return The parsed GitStatusEntry.
+     */
+    public static Result<GitStatusEntry> parse(String record)
+    {
+        PreCondition.assertNotNullAndNotEmpty(record, "record");
+
+        return Result.create(() ->
+        {
+            final char type = record.charAt(0);
+            final int fieldCount;
+            switch (type)
+            {
+                case '1':
+                    fieldCount = 8;
+                    break;
+
+                case '2':
+                    fieldCount = 9;
+                    break;
+
+                case GitStatusEntry.unmergedType:
+                    fieldCount = 10;
+                    break;
+
+                case GitStatusEntry.untrackedType:
+                case GitStatusEntry.ignoredType:
+                    fieldCount = 1;
+                    break;
+
+                default:
+                    throw new ParseException("Unknown git status record type: " + Strings.escapeAndQuote(String.valueOf(type)));
+            }
+
+            final String[] fields = record.split(" ", fieldCount + 1);
+            if (fields.length != fieldCount + 1 || fields[fieldCount].isEmpty() || (fieldCount > 1 && fields[1].length() != 2))
+            {
+                throw new ParseException("Expected a git status record of type " + Strings.escapeAndQuote(String.valueOf(type)) + " to have " + (fieldCount + 1) + " fields: " + Strings.escapeAndQuote(record));
+            }
+
+            String path = fields[fieldCount];
+            if (type == '2')
+            {
+                final int tabIndex = path.indexOf('\t');
+                if (tabIndex != -1)
+                {
+                    path = path.substring(0, tabIndex);
+                }
+            }
+
+            GitStatusEntry result;
+            if (type == GitStatusEntry.untrackedType)
+            {
+                result = GitStatusEntry.createUntracked(path);
+            }
+            else if (type == GitStatusEntry.ignoredType)
+            {
+                result = GitStatusEntry.createIgnored(path);
+            }
+            else if (type == GitStatusEntry.unmergedType)
+            {
+                result = GitStatusEntry.createUnmerged(fields[1].charAt(0), fields[1].charAt(1), path);
+            }
+            else
+            {
+                result = GitStatusEntry.createChanged(fields[1].charAt(0), fields[1].charAt(1), path);
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Get this entry's record type: {@link #changedType}, {@link #unmergedType},
+     * {@link #untrackedType}, or {@link #ignoredType}.
+     * @return This entry's record type.
+     */
+    public char getType()
+    {
+        return this.type;
+    }
+
+    /**
+     * Get the change between HEAD and the index, or '.' if the index matches HEAD.
+     * @return The change between HEAD and the index.
+     */
+    public char getIndexStatus()
+    {
+        return this.indexStatus;
+    }
+
+    /**
+     * Get the change between the index and the working tree, or '.' if the working tree matches
+     * the index.
+     * @return The change between the index and the working tree.
+     */
+    public char getWorktreeStatus()
+    {
+        return this.worktreeStatus;
+    }
+
+    /**
+     * Get the path relative to the root of the working tree.
+     * @return The path relative to the root of the working tree.
+     */
+    public String getPath()
+    {
+        return this.path;
+    }
+
+    /**
+     * Get whether this entry is an unmerged path.
+     * @return Whether this entry is an unmerged path.
+     */
+    public boolean isUnmerged()
+    {
+        return this.type == GitStatusEntry.unmergedType;
+    }
+
+    /**
+     * Get whether this entry is an untracked path.
+     * @return Whether this entry is an untracked path.
+     */
+    public boolean isUntracked()
+    {
+        return this.type == GitStatusEntry.untrackedType;
+    }
+
+    /**
+     * Get whether this entry is an ignored path.
+     * @return Whether this entry is an ignored path.
+     */
+    public boolean isIgnored()
+    {
+        return this.type == GitStatusEntry.ignoredType;
+    }
+
+    /**
+     * Get whether this entry is a tracked path whose index differs from HEAD.
+     * @return Whether this entry has staged changes.
+     */
+    public boolean isStaged()
+    {
+        return this.type == GitStatusEntry.changedType && this.indexStatus != GitStatusEntry.unchanged;
+    }
+
+    /**
+     * Get whether this entry is a tracked path whose working tree differs from the index.
+     * @return Whether this entry has unstaged changes.
+     */
+    public boolean isUnstaged()
+    {
+        return this.type == GitStatusEntry.changedType && this.worktreeStatus != GitStatusEntry.unchanged;
+    }
+
+    @Override
+    public String toString()
+    {
+        return this.type == GitStatusEntry.untrackedType || this.type == GitStatusEntry.ignoredType
+            ? this.type + " " + this.path
+            : this.type + " " + this.indexStatus + this.worktreeStatus + " " + this.path;
+    }
+
+    @Override
+    public boolean equals(Object rhs)
+    {
+        return rhs instanceof GitStatusEntry && this.equals((GitStatusEntry)rhs);
+    }
+
+    /**
+     * Get whether this entry has the same type, status codes, and path as the provided entry.
+     * @param rhs The entry to compare against.
+     * @return Whether this entry is equal to the provided entry.
+     */
+    public boolean equals(GitStatusEntry rhs)
+    {
+        return rhs != null &&
+            this.type == rhs.type &&
+            this.indexStatus == rhs.indexStatus &&
+            this.worktreeStatus == rhs.worktreeStatus &&
+            this.path.equals(rhs.path);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return this.path.hashCode();
+    }
+}
@@ -0,0 +1,1173 @@
+package qub;
+
+/**
+ * Computes the status of a working tree in this process, like "git status --porcelain=v2
+ * --no-renames", without starting a Git process. The index is compared with HEAD on the calling
+ * thread (skipping the folders whose cache tree nodes match HEAD) while the working tree is
+ * compared with the index on a {@link java.util.concurrent.ForkJoinPool}, with one task for each
+ * folder that contains tracked files. A tracked file is only hashed when its stat data doesn't
+ * match its index entry, or when it was modified too close to when the index was written for its
+ * stat data to be trusted.
+ * <p>
+ * A file is hashed from its raw bytes, but Git may convert a file's contents when it is added
+ * (end-of-line conversion from core.autocrlf or the text, eol, and crlf attributes, clean filters
+ * such as Git LFS, the ident attribute, or a working-tree-encoding). When the repository's
+ * configuration or attributes may convert contents, the files that would need to be hashed are
+ * checked by "git status" instead (see {@link #setGit(Git)}). Configuration that comes from
+ * environment variables (such as GIT_CONFIG_GLOBAL) isn't detected.
+ * <p>
+ * Untracked paths are ignored with the patterns of the ".gitignore" files, ".git/info/exclude",
+ * and the user's global ignore file (core.excludesFile, or "$XDG_CONFIG_HOME/git/ignore" when it
+ * isn't set).
+ */
+public class GitStatusScanner
+{
+    private static final int fileTypeMask = 0170000;
+    private static final int regularFileType = 0100000;
+
+    /**
+     * The attributes that make Git convert the contents of the files that they are set on.
+     */
+    private static final java.util.Set<String> convertingAttributes = java.util.Set.of("text", "eol", "crlf", "filter", "ident", "working-tree-encoding");
+
+    private static final byte[] attributesFilePath = ".gitattributes".getBytes(java.nio.charset.StandardCharsets.UTF_8);
+    private static final byte[] nestedAttributesFilePath = "/.gitattributes".getBytes(java.nio.charset.StandardCharsets.UTF_8);
+
+    private final Folder workingTreeFolder;
+    private java.util.concurrent.ForkJoinPool forkJoinPool;
+    private boolean includeUntracked;
+    private Git git;
+    private Folder homeFolder;
+
+    private GitStatusScanner(Folder workingTreeFolder)
+    {
+        this.workingTreeFolder = workingTreeFolder;
+        this.forkJoinPool = java.util.concurrent.ForkJoinPool.commonPool();
+        this.includeUntracked = true;
+    }
+
+    /**
+     * Create a new GitStatusScanner for the working tree in the provided folder.
+     * @param workingTreeFolder The root folder of the working tree.
+     * @return The new GitStatusScanner.
+     */
+    public static GitStatusScanner create(Folder workingTreeFolder)
+    {
+        PreCondition.assertNotNull(workingTreeFolder, "workingTreeFolder");
+
+        return new GitStatusScanner(workingTreeFolder);
+    }
+
+    /**
+     * Get the root folder of the working tree that this scanner checks.
+     * @return The root folder of the working tree.
+     */
+    public Folder getWorkingTreeFolder()
+    {
+        return this.workingTreeFolder;
+    }
+
+    /**
+     * Get the pool that the working tree's folders are checked on.
+     * @return The pool that the working tree's folders are checked on.
+     */
+    public java.util.concurrent.ForkJoinPool getForkJoinPool()
+    {
+        return this.forkJoinPool;
+    }
+
+    /**
+     * Set the pool that the working tree's folders are checked on. The default is the common
+     * pool.
+     * @param forkJoinPool The pool that the working tree's folders are checked on.
+     * @return This object for method chaining.
+     */
+    public GitStatusScanner setForkJoinPool(java.util.concurrent.ForkJoinPool forkJoinPool)
+    {
+        PreCondition.assertNotNull(forkJoinPool, "forkJoinPool");
+
+        this.forkJoinPool = forkJoinPool;
+        return this;
+    }
+
+    /**
+     * Get whether the status includes untracked paths.
+     * @return Whether the status includes untracked paths.
+     */
+    public boolean getIncludeUntracked()
+    {
+        return this.includeUntracked;
+    }
+
+    /**
+     * Set whether the status includes untracked paths, like "--untracked-files=normal" (true, the
+     * default) or "--untracked-files=no" (false). Skipping untracked paths avoids listing the
+     * contents of every folder in the working tree.
+     * @param includeUntracked Whether the status includes untracked paths.
+     * @return This object for method chaining.
+     */
+    public GitStatusScanner setIncludeUntracked(boolean includeUntracked)
+    {
+        this.includeUntracked = includeUntracked;
+        return this;
+    }
+
+    /**
+     * Get the Git object that checks the files whose contents Git may convert when they are
+     * added.
+     * @return The Git object that checks converted files, or null if it hasn't been set.
+     */
+    public Git getGit()
+    {
+        return this.git;
+    }
+
+    /**
+     * Set the Git object that checks the files whose contents Git may convert when they are
+     * added. Those files can't be hashed from their bytes, so any of them whose stat data
+     * changed are checked with one "git status" process after the scan. Without a Git object,
+     * a scan that needs to check such a file fails instead of reporting a status that may be
+     * wrong.
+     * @param git The Git object that checks converted files.
+     * @return This object for method chaining.
+     */
+    public GitStatusScanner setGit(Git git)
+    {
+        PreCondition.assertNotNull(git, "git");
+
+        this.git = git;
+        return this;
+    }
+
+    /**
+     * Get the folder that the user's global Git configuration is read from.
+     * @return The folder that the user's global Git configuration is read from, or null if it
+     * hasn't been set.
+     */
+    public Folder getHomeFolder()
+    {
+        return this.homeFolder;
+    }
+
+    /**
+     * Set the folder that the user's global Git configuration is read from: its ".gitconfig"
+     * file and its ".config/git" folder. When this isn't set and the working tree is on the local
+     * disk, the user's home folder and $XDG_CONFIG_HOME are used. Otherwise, no global
+     * configuration is read.
+     * @param homeFolder The folder that the user's global Git configuration is read from.
+     * @return This object for method chaining.
+     */
+    public GitStatusScanner setHomeFolder(Folder homeFolder)
+    {
+        PreCondition.assertNotNull(homeFolder, "homeFolder");
+
+        this.homeFolder = homeFolder;
+        return this;
+    }
+
+    /**
+     * Compute the status of the working tree.
+     * @return The status of the working tree.
+     */
+    public Result<GitStatus> scan()
+    {
+        return Result.create(() ->
+        {
+            final Folder gitFolder = GitObjectDatabase.getGitFolder(this.workingTreeFolder).await();
+            final Folder commonFolder = GitObjectDatabase.getCommonFolder(gitFolder).await();
+            final int objectIdLength = GitObjectDatabase.getObjectIdLength(commonFolder);
+
+            final File indexFile = gitFolder.getFile("index").await();
+            final GitFileStat indexStat = GitFileStat.get(indexFile);
+            final GitIndex index = indexStat == null
+                ? null
+                : GitIndex.open(indexFile, objectIdLength)
+                    .catchError(NotFoundException.class)
+                    .await();
+            if (index != null && index.getLink() != null)
+            {
+                throw new GitException("The index file " + Strings.escapeAndQuote(indexFile.getPath().toString()) + " is a split index, which isn't supported.");
+            }
+
+            final int entryCount = index == null ? 0 : index.getEntryCount();
+            final Folder homeFolder = this.getGlobalHomeFolder();
+            final Folder configHomeFolder = this.getConfigHomeFolder(homeFolder);
+            final java.util.List<String> configTexts = this.readConfigTexts(gitFolder, commonFolder, homeFolder, configHomeFolder);
+            final boolean mayConvertContents = this.mayConvertContents(configTexts, commonFolder, configHomeFolder, index);
+            final ScanState state = new ScanState(index, objectIdLength, indexStat, this.includeUntracked, mayConvertContents);
+            final GitIgnoreRules excludeRules = this.includeUntracked
+                ? this.readExcludeRules(commonFolder, homeFolder, configHomeFolder, configTexts)
+                : null;
+            final java.util.concurrent.ForkJoinTask<java.util.List<GitStatusEntry>> worktreeTask = this.forkJoinPool.submit(
+                new FolderTask(state, this.workingTreeFolder, "", 0, 0, entryCount, excludeRules));
+
+            final java.util.TreeMap<String,GitStatusEntry> trackedEntries = new java.util.TreeMap<>();
+            final java.util.Map<String,Character> stagedChanges = this.getStagedChanges(index, trackedEntries);
+
+            final java.util.List<GitStatusEntry> worktreeEntries = worktreeTask.join();
+            worktreeEntries.addAll(this.getConvertedEntries(index, state.convertedEntryIndexes));
+
+            final java.util.List<GitStatusEntry> untrackedEntries = new java.util.ArrayList<>();
+            for (final GitStatusEntry worktreeEntry : worktreeEntries)
+            {
+                if (worktreeEntry.isUntracked())
+                {
+                    untrackedEntries.add(worktreeEntry);
+                }
+                else
+                {
+                    final Character indexStatus = stagedChanges.remove(worktreeEntry.getPath());
+                    trackedEntries.put(worktreeEntry.getPath(), GitStatusEntry.createChanged(
+                        indexStatus == null ? GitStatusEntry.unchanged : indexStatus,
+                        worktreeEntry.getWorktreeStatus(),
+                        worktreeEntry.getPath()));
+                }
+            }
+            for (final java.util.Map.Entry<String,Character> stagedChange : stagedChanges.entrySet())
+            {
+                trackedEntries.put(stagedChange.getKey(), GitStatusEntry.createChanged(stagedChange.getValue(), GitStatusEntry.unchanged, stagedChange.getKey()));
+            }
+            untrackedEntries.sort((GitStatusEntry lhs, GitStatusEntry rhs) -> lhs.getPath().compareTo(rhs.getPath()));
+
+            final List<GitStatusEntry> entries = List.create();
+            entries.addAll(trackedEntries.values());
+            entries.addAll(untrackedEntries);
+            return GitStatus.create(entries, state.statCount.get(), state.hashCount.get());
+        });
+    }
+
+    /**
+     * Get the worktree changes of the provided index entries, whose files may be converted when
+     * they are added, from "git status".
+     * @param index The index.
+     * @param entryIndexes The indexes of the entries whose files need to be checked.
+     * @return The changed entries.
+     */
+    private java.util.List<GitStatusEntry> getConvertedEntries(GitIndex index, java.util.Collection<Integer> entryIndexes)
+    {
+        final java.util.List<GitStatusEntry> result = new java.util.ArrayList<>();
+        if (!entryIndexes.isEmpty())
+        {
+            if (this.git == null)
+            {
+                throw new GitException("The working tree " + Strings.escapeAndQuote(this.workingTreeFolder.getPath().toString()) + " has changed files whose contents Git may convert when they are added (with core.autocrlf, attributes, or filters), so they can't be checked without a Git object.");
+            }
+
+            final List<String> convertedPaths = List.create();
+            final GitIndexEntry indexEntry = index.getEntry(0);
+            for (final int entryIndex : new java.util.TreeSet<>(entryIndexes))
+            {
+                convertedPaths.add(indexEntry.moveTo(entryIndex).getPath());
+            }
+            for (final GitStatusEntry entry : this.git.runStatus(this.workingTreeFolder, convertedPaths).await())
+            {
+                if (entry.getWorktreeStatus() != GitStatusEntry.unchanged)
+                {
+                    result.add(GitStatusEntry.createChanged(GitStatusEntry.unchanged, entry.getWorktreeStatus(), entry.getPath()));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the folder that the user's global Git configuration is read from.
+     * @return The home folder, or null if no global configuration should be read.
+     */
+    private Folder getGlobalHomeFolder()
+    {
+        Folder result = this.homeFolder;
+        final FileSystem fileSystem = this.workingTreeFolder.getFileSystem();
+        if (result == null && GitNativeFiles.isNative(fileSystem))
+        {
+            result = fileSystem.getFolder(System.getProperty("user.home")).await();
+        }
+        return result;
+    }
+
+    /**
+     * Get the folder that Git's XDG configuration files ("git/config", "git/attributes", and
+     * "git/ignore") are read from. $XDG_CONFIG_HOME is only used when the home folder wasn't set.
+     * @param homeFolder The folder that the user's global Git configuration is read from.
+     * @return The XDG configuration folder, or null if the home folder is null.
+     */
+    private Folder getConfigHomeFolder(Folder homeFolder)
+    {
+        Folder result = null;
+        if (homeFolder != null)
+        {
+            final String xdgConfigHome = this.homeFolder == null ? System.getenv("XDG_CONFIG_HOME") : null;
+            result = Strings.isNullOrEmpty(xdgConfigHome)
+                ? homeFolder.getFolder(".config").await()
+                : homeFolder.getFileSystem().getFolder(xdgConfigHome).await();
+        }
+        return result;
+    }
+
+    /**
+     * Read the texts of the configuration files that apply to the repository, in the order that
+     * Git reads them (so a later value overrides an earlier one): the system file (only when the
+     * working tree is on the local disk), the XDG file, the user's ".gitconfig" file, the
+     * repository's file, and the worktree's file.
+     * @param gitFolder The repository's Git folder.
+     * @param commonFolder The repository's common Git folder.
+     * @param homeFolder The folder that the user's global Git configuration is read from, or null.
+     * @param configHomeFolder The XDG configuration folder, or null.
+     * @return The texts of the configuration files that exist.
+     */
+    private java.util.List<String> readConfigTexts(Folder gitFolder, Folder commonFolder, Folder homeFolder, Folder configHomeFolder)
+    {
+        final java.util.List<File> configFiles = new java.util.ArrayList<>();
+        final FileSystem fileSystem = this.workingTreeFolder.getFileSystem();
+        if (GitNativeFiles.isNative(fileSystem))
+        {
+            configFiles.add(fileSystem.getFile("/etc/gitconfig").await());
+        }
+        if (homeFolder != null)
+        {
+            configFiles.add(configHomeFolder.getFile("git/config").await());
+            configFiles.add(homeFolder.getFile(".gitconfig").await());
+        }
+        configFiles.add(commonFolder.getFile("config").await());
+        configFiles.add(gitFolder.getFile("config.worktree").await());
+
+        final java.util.List<String> result = new java.util.ArrayList<>();
+        for (final File configFile : configFiles)
+        {
+            final String text = GitStatusScanner.readText(configFile);
+            if (text != null)
+            {
+                result.add(text);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get whether Git may convert the contents of the working tree's files when they are added.
+     * This checks the provided configuration files, the repository's attributes files, and the
+     * user's attributes file. Git for Windows sets core.autocrlf in a system configuration file
+     * whose location depends on where Git is installed, so contents may always be converted on
+     * Windows.
+     * @param configTexts The texts of the configuration files that apply to the repository.
+     * @param commonFolder The repository's common Git folder.
+     * @param configHomeFolder The XDG configuration folder, or null.
+     * @param index The index, or null if the repository doesn't have one.
+     * @return Whether Git may convert the contents of the working tree's files.
+     */
+    private boolean mayConvertContents(java.util.List<String> configTexts, Folder commonFolder, Folder configHomeFolder, GitIndex index)
+    {
+        boolean result = GitNativeFiles.isNative(this.workingTreeFolder.getFileSystem()) && System.getProperty("os.name", "").startsWith("Windows");
+        for (int i = 0; !result && i < configTexts.size(); ++i)
+        {
+            result = GitStatusScanner.configMayConvertContents(configTexts.get(i));
+        }
+        result = result ||
+            GitStatusScanner.attributesMayConvertContents(GitStatusScanner.readText(commonFolder.getFile("info/attributes").await())) ||
+            (configHomeFolder != null && GitStatusScanner.attributesMayConvertContents(GitStatusScanner.readText(configHomeFolder.getFile("git/attributes").await())));
+        final int entryCount = index == null ? 0 : index.getEntryCount();
+        final GitIndexEntry entry = entryCount == 0 ? null : index.getEntry(0);
+        for (int i = 0; !result && i < entryCount; ++i)
+        {
+            entry.moveTo(i);
+            if (entry.comparePathTo(GitStatusScanner.attributesFilePath) == 0 || entry.pathEndsWith(GitStatusScanner.nestedAttributesFilePath))
+            {
+                result = GitStatusScanner.attributesMayConvertContents(GitStatusScanner.readText(this.workingTreeFolder.getFile(entry.getPath()).await()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Read the ignore rules that apply to the whole working tree: the rules of
+     * ".git/info/exclude", chained to the rules of the user's global ignore file. The global
+     * ignore file is core.excludesFile, or "git/ignore" in the XDG configuration folder when
+     * core.excludesFile isn't set.
+     * @param commonFolder The repository's common Git folder.
+     * @param homeFolder The folder that the user's global Git configuration is read from, or null.
+     * @param configHomeFolder The XDG configuration folder, or null.
+     * @param configTexts The texts of the configuration files that apply to the repository.
+     * @return The ignore rules, or null if there are none.
+     */
+    private GitIgnoreRules readExcludeRules(Folder commonFolder, Folder homeFolder, Folder configHomeFolder, java.util.List<String> configTexts)
+    {
+        String excludesFilePath = null;
+        for (final String configText : configTexts)
+        {
+            final String value = GitStatusScanner.getCoreConfigValue(configText, "excludesfile");
+            if (value != null)
+            {
+                excludesFilePath = value;
+            }
+        }
+
+        File excludesFile = null;
+        if (Strings.isNullOrEmpty(excludesFilePath))
+        {
+            if (configHomeFolder != null)
+            {
+                excludesFile = configHomeFolder.getFile("git/ignore").await();
+            }
+        }
+        else if (excludesFilePath.startsWith("~/"))
+        {
+            if (homeFolder != null)
+            {
+                excludesFile = homeFolder.getFile(excludesFilePath.substring(2)).await();
+            }
+        }
+        else
+        {
+            final Path parsedPath = Path.parse(excludesFilePath);
+            final Path resolvedPath = parsedPath.isRooted()
+                ? parsedPath
+                : this.workingTreeFolder.getPath().concatenateSegment(parsedPath).resolve().await();
+            excludesFile = this.workingTreeFolder.getFileSystem().getFile(resolvedPath).await();
+        }
+
+        final GitIgnoreRules globalRules = excludesFile == null
+            ? null
+            : GitStatusScanner.readIgnoreRules(null, "", excludesFile);
+        return GitStatusScanner.readIgnoreRules(globalRules, "", commonFolder.getFile("info/exclude").await());
+    }
+
+    /**
+     * Get whether the provided configuration file text may make Git convert the contents of
+     * files when they are added: core.autocrlf set to true or input, a core.attributesFile, a
+     * filter driver, or an include of another configuration file (which isn't followed).
+     * @param text The text of the configuration file, or null if the file doesn't exist.
+     * @return Whether the configuration may make Git convert the contents of files.
+     */
+    static boolean configMayConvertContents(String text)
+    {
+        boolean result = false;
+        if (text != null)
+        {
+            String sectionName = "";
+            for (final String rawLine : text.split("\n"))
+            {
+                String line = rawLine.trim();
+                if (line.startsWith("["))
+                {
+                    final int endIndex = line.indexOf(']');
+                    final String section = (endIndex == -1 ? line.substring(1) : line.substring(1, endIndex)).trim();
+                    sectionName = section.split("[ .\"]", 2)[0].toLowerCase();
+                    line = endIndex == -1 ? "" : line.substring(endIndex + 1).trim();
+                    result = result || sectionName.equals("filter") || sectionName.equals("include") || sectionName.equals("includeif");
+                }
+
+                if (!result && sectionName.equals("core") && !line.isEmpty() && line.charAt(0) != '#' && line.charAt(0) != ';')
+                {
+                    final int equalsIndex = line.indexOf('=');
+                    final String name = (equalsIndex == -1 ? line : line.substring(0, equalsIndex)).trim().toLowerCase();
+                    String value = equalsIndex == -1 ? "true" : line.substring(equalsIndex + 1).trim();
+                    value = value.split("[#;]", 2)[0].replace("\"", "").trim().toLowerCase();
+                    if (name.equals("autocrlf"))
+                    {
+                        result = !value.equals("false") && !value.equals("no") && !value.equals("off") && !value.equals("0");
+                    }
+                    else if (name.equals("attributesfile"))
+                    {
+                        result = true;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get whether the provided attributes file text sets or gives a value to an attribute that
+     * makes Git convert the contents of files (text, eol, crlf, filter, ident, or
+     * working-tree-encoding). Unset ("-text") and unspecified ("!text") attributes don't convert
+     * contents.
+     * @param text The text of the attributes file, or null if the file doesn't exist.
+     * @return Whether the attributes may make Git convert the contents of files.
+     */
+    static boolean attributesMayConvertContents(String text)
+    {
+        boolean result = false;
+        if (text != null)
+        {
+            for (final String rawLine : text.split("\n"))
+            {
+                final String line = rawLine.trim();
+                if (!result && !line.isEmpty() && !line.startsWith("#"))
+                {
+                    final String[] fields = line.split("\\s+");
+                    for (int i = 1; !result && i < fields.length; ++i)
+                    {
+                        final String attribute = fields[i];
+                        if (!attribute.startsWith("-") && !attribute.startsWith("!"))
+                        {
+                            final int equalsIndex = attribute.indexOf('=');
+                            result = GitStatusScanner.convertingAttributes.contains(equalsIndex == -1 ? attribute : attribute.substring(0, equalsIndex));
+                        }
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the last value of the provided variable in the core section of the provided
+     * configuration file text. Quotes are removed from the value, but escape sequences aren't
+     * interpreted.
+     * @param text The text of the configuration file, or null if the file doesn't exist.
+     * @param name The lowercase name of the variable.
+     * @return The value of the variable, or null if the variable isn't set.
+     */
+    static String getCoreConfigValue(String text, String name)
+    {
+        PreCondition.assertNotNullAndNotEmpty(name, "name");
+
+        String result = null;
+        if (text != null)
+        {
+            String sectionName = "";
+            for (final String rawLine : text.split("\n"))
+            {
+                String line = rawLine.trim();
+                if (line.startsWith("["))
+                {
+                    final int endIndex = line.indexOf(']');
+                    final String section = (endIndex == -1 ? line.substring(1) : line.substring(1, endIndex)).trim();
+                    sectionName = section.toLowerCase();
+                    line = endIndex == -1 ? "" : line.substring(endIndex + 1).trim();
+                }
+
+                if (sectionName.equals("core") && !line.isEmpty() && line.charAt(0) != '#' && line.charAt(0) != ';')
+                {
+                    final int equalsIndex = line.indexOf('=');
+                    if (equalsIndex != -1 && line.substring(0, equalsIndex).trim().toLowerCase().equals(name))
+                    {
+                        String value = line.substring(equalsIndex + 1).trim();
+                        if (value.startsWith("\""))
+                        {
+                            final int endQuoteIndex = value.indexOf('"', 1);
+                            value = endQuoteIndex == -1 ? value.substring(1) : value.substring(1, endQuoteIndex);
+                        }
+                        else
+                        {
+                            value = value.split("[#;]", 2)[0].trim();
+                        }
+                        result = value;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private static String readText(File file)
+    {
+        return file.getContentsAsString()
+            .catchError(NotFoundException.class)
+            .await();
+    }
+
+    /**
+     * Get the changes between HEAD and the index. Unmerged paths are added to the provided
+     * tracked entries instead of being returned.
+     * @param index The index, or null if the repository doesn't have one.
+     * @param trackedEntries The tracked entries that unmerged paths are added to.
+     * @return The index status of each path that changed between HEAD and the index.
+     */
+    private java.util.Map<String,Character> getStagedChanges(GitIndex index, java.util.Map<String,GitStatusEntry> trackedEntries)
+    {
+        final StagedChangesWalk walk = new StagedChangesWalk(index, trackedEntries);
+        final GitObjectId headCommitId = GitRefDatabase.open(this.workingTreeFolder).await()
+            .resolveObjectId("HEAD")
+            .catchError(NotFoundException.class)
+            .await();
+        if (headCommitId != null)
+        {
+            // The Git object's database fetches the trees that a partial clone hasn't fetched yet.
+            final GitObjectDatabase objectDatabase = this.git == null
+                ? GitObjectDatabase.open(this.workingTreeFolder).await()
+                : this.git.getObjectDatabase(this.workingTreeFolder).await();
+            final GitObject headCommit = objectDatabase.getObject(headCommitId).await();
+            if (!(headCommit instanceof GitCommit))
+            {
+                throw new ParseException("Expected " + headCommitId + " to be a commit, but it is a " + headCommit.getObjectType() + ".");
+            }
+            walk.compareTree(objectDatabase, ((GitCommit)headCommit).getTreeId(), index == null ? null : index.getCacheTree());
+        }
+        walk.compareRemainingIndexEntries();
+        return walk.result;
+    }
+
+    /**
+     * Read the ignore file at the provided file.
+     * @param parent The rules of the folders above the ignore file's folder.
+     * @param basePath The path of the ignore file's folder relative to the root of the working
+     *                 tree.
+     * @param ignoreFile The ignore file.
+     * @return The rules of the ignore file, or the parent rules if the ignore file doesn't exist.
+     */
+    private static GitIgnoreRules readIgnoreRules(GitIgnoreRules parent, String basePath, File ignoreFile)
+    {
+        final String contents = ignoreFile.getContentsAsString()
+            .catchError(NotFoundException.class)
+            .await();
+        return contents == null ? parent : GitIgnoreRules.create(parent, basePath, contents);
+    }
+
+    /**
+     * Get the id that the provided file would have if it was added to the index as a blob. A
+     * symbolic link's blob is the path that it points at.
+     * @param file The file to hash.
+     * @param stat The stat data of the file.
+     * @param objectIdLength The number of bytes in the repository's object ids.
+     * @return The blob id of the file, or null if the file was deleted or changed size while it
+     * was being read.
+     */
+    static GitObjectId hashBlob(File file, GitFileStat stat, int objectIdLength)
+    {
+        PreCondition.assertNotNull(file, "file");
+        PreCondition.assertNotNull(stat, "stat");
+        PreCondition.assertTrue(GitObjectId.isValidLength(objectIdLength), "GitObjectId.isValidLength(objectIdLength)");
+
+        final java.security.MessageDigest digest = GitStatusScanner.createDigest(objectIdLength);
+        GitObjectId result = null;
+        final java.nio.file.Path path = GitNativeFiles.getPath(file);
+        if (path == null)
+        {
+            final byte[] contents = file.getContents()
+                .catchError(NotFoundException.class)
+                .await();
+            if (contents != null)
+            {
+                digest.update(("blob " + contents.length + "\0").getBytes(java.nio.charset.StandardCharsets.US_ASCII));
+                digest.update(contents);
+                result = GitObjectId.create(digest.digest());
+            }
+        }
+        else
+        {
+            try
+            {
+                if (stat.isSymbolicLink())
+                {
+                    final byte[] target = java.nio.file.Files.readSymbolicLink(path).toString().getBytes(java.nio.charset.StandardCharsets.UTF_8);
+                    digest.update(("blob " + target.length + "\0").getBytes(java.nio.charset.StandardCharsets.US_ASCII));
+                    digest.update(target);
+                    result = GitObjectId.create(digest.digest());
+                }
+                else
+                {
+                    try (final java.nio.channels.FileChannel channel = java.nio.channels.FileChannel.open(path, java.nio.file.StandardOpenOption.READ))
+                    {
+                        digest.update(("blob " + stat.getSize() + "\0").getBytes(java.nio.charset.StandardCharsets.US_ASCII));
+                        final java.nio.ByteBuffer buffer = java.nio.ByteBuffer.allocate(64 * 1024);
+                        long readCount = 0;
+                        int bufferReadCount;
+                        while ((bufferReadCount = channel.read(buffer)) != -1)
+                        {
+                            buffer.flip();
+                            digest.update(buffer);
+                            buffer.clear();
+                            readCount += bufferReadCount;
+                        }
+                        if (readCount == stat.getSize())
+                        {
+                            result = GitObjectId.create(digest.digest());
+                        }
+                    }
+                }
+            }
+            catch (java.nio.file.NoSuchFileException e)
+            {
+                result = null;
+            }
+            catch (java.io.IOException e)
+            {
+                throw new GitException("Could not hash " + Strings.escapeAndQuote(path.toString()) + ": " + e.getMessage(), e);
+            }
+        }
+        return result;
+    }
+
+    private static java.security.MessageDigest createDigest(int objectIdLength)
+    {
+        try
+        {
+            return java.security.MessageDigest.getInstance(objectIdLength == GitObjectId.sha256Length ? "SHA-256" : "SHA-1");
+        }
+        catch (java.security.NoSuchAlgorithmException e)
+        {
+            throw new GitException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Compares HEAD's tree with the index. Git sorts the entries of a tree as if the names of its
+     * subtrees ended with '/', so walking HEAD's tree depth-first visits its files in the same
+     * order as the index's entries. The two are compared like two sorted lists, and a path is only
+     * turned into a String when it is reported.
+     */
+    private static class StagedChangesWalk
+    {
+        private static final byte[] folderSeparator = { '/' };
+
+        private final GitIndexEntry entry;
+        private final int entryCount;
+        private final java.util.Map<String,GitStatusEntry> trackedEntries;
+        private final java.util.TreeMap<String,Character> result;
+        private int entryIndex;
+        private byte[] path;
+        private int pathLength;
+
+        StagedChangesWalk(GitIndex index, java.util.Map<String,GitStatusEntry> trackedEntries)
+        {
+            this.entryCount = index == null ? 0 : index.getEntryCount();
+            this.entry = this.entryCount == 0 ? null : index.getEntry(0);
+            this.trackedEntries = trackedEntries;
+            this.result = new java.util.TreeMap<>();
+            this.path = new byte[256];
+        }
+
+        /**
+         * Compare the provided tree, whose path is in the path buffer, with the index entries
+         * under it. A tree whose cache tree node has the same tree id isn't read, since none of
+         * the index entries under it can differ from HEAD.
+         */
+        void compareTree(GitObjectDatabase objectDatabase, GitObjectId treeId, GitIndexCacheTree cacheTree)
+        {
+            if (cacheTree != null && cacheTree.isValid() && treeId.equals(cacheTree.getObjectId()))
+            {
+                this.compareIndexEntriesBefore();
+                final byte[] prefix = java.util.Arrays.copyOf(this.path, this.pathLength);
+                while (this.entryIndex < this.entryCount && this.entry.moveTo(this.entryIndex).pathStartsWith(prefix))
+                {
+                    ++this.entryIndex;
+                }
+            }
+            else
+            {
+                final GitObject tree = objectDatabase.getObject(treeId).await();
+                if (!(tree instanceof GitTree))
+                {
+                    throw new ParseException("Expected " + treeId + " to be a tree, but it is a " + tree.getObjectType() + ".");
+                }
+                for (final GitTreeEntry treeEntry : ((GitTree)tree).getEntries().await())
+                {
+                    final int parentPathLength = this.pathLength;
+                    final GitByteSlice name = treeEntry.getName();
+                    this.appendToPath(name.getByteArray(), name.getStartIndex(), name.getLength());
+                    if (treeEntry.isTree())
+                    {
+                        this.appendToPath(StagedChangesWalk.folderSeparator, 0, 1);
+                        this.compareIndexEntriesBefore();
+                        if (this.isAtPath() && (this.entry.getMode() & GitStatusScanner.fileTypeMask) == GitTreeEntry.treeMode)
+                        {
+                            // A sparse index entry stands for a whole folder that isn't checked
+                            // out.
+                            ++this.entryIndex;
+                        }
+                        else
+                        {
+                            final GitIndexCacheTree subtree = cacheTree == null ? null : cacheTree.getSubtree(name.getText());
+                            this.compareTree(objectDatabase, treeEntry.getObjectId(), subtree);
+                        }
+                    }
+                    else
+                    {
+                        this.compareIndexEntriesBefore();
+                        if (this.isAtPath())
+                        {
+                            this.compareIndexEntry(treeEntry);
+                        }
+                        else
+                        {
+                            this.result.put(new String(this.path, 0, this.pathLength, java.nio.charset.StandardCharsets.UTF_8), 'D');
+                        }
+                    }
+                    this.pathLength = parentPathLength;
+                }
+            }
+        }
+
+        /**
+         * Compare the index entries that come after the last file in HEAD.
+         */
+        void compareRemainingIndexEntries()
+        {
+            while (this.entryIndex < this.entryCount)
+            {
+                this.entry.moveTo(this.entryIndex);
+                this.compareIndexEntry(null);
+            }
+        }
+
+        /**
+         * Compare the index entries whose paths come before the path in the path buffer. HEAD
+         * doesn't have any of them.
+         */
+        private void compareIndexEntriesBefore()
+        {
+            while (this.entryIndex < this.entryCount && this.entry.moveTo(this.entryIndex).comparePathTo(this.path, this.pathLength) < 0)
+            {
+                this.compareIndexEntry(null);
+            }
+        }
+
+        /**
+         * Get whether the next index entry has the path in the path buffer. The entry view is
+         * left at the next index entry.
+         */
+        private boolean isAtPath()
+        {
+            return this.entryIndex < this.entryCount && this.entry.moveTo(this.entryIndex).comparePathTo(this.path, this.pathLength) == 0;
+        }
+
+        /**
+         * Compare the index entry that the entry view is at (and the other stages of its path if
+         * it is unmerged) with the provided HEAD file, and move past them.
+         * @param headFile The file in HEAD with the entry's path, or null if HEAD doesn't have
+         *                 one.
+         */
+        private void compareIndexEntry(GitTreeEntry headFile)
+        {
+            final int entryMode = this.entry.getMode();
+            if (this.entry.getStage() != 0)
+            {
+                final String unmergedPath = this.entry.getPath();
+                final byte[] unmergedPathBytes = this.entry.getPathBytes(this.entry.getPathLength());
+                boolean hasBase = false;
+                boolean hasOurs = false;
+                boolean hasTheirs = false;
+                while (this.entryIndex < this.entryCount && this.entry.moveTo(this.entryIndex).comparePathTo(unmergedPathBytes) == 0)
+                {
+                    final int stage = this.entry.getStage();
+                    hasBase |= stage == 1;
+                    hasOurs |= stage == 2;
+                    hasTheirs |= stage == 3;
+                    ++this.entryIndex;
+                }
+                final String code = GitStatusEntry.getUnmergedCode(hasBase, hasOurs, hasTheirs);
+                this.trackedEntries.put(unmergedPath, GitStatusEntry.createUnmerged(code.charAt(0), code.charAt(1), unmergedPath));
+            }
+            else if ((entryMode & GitStatusScanner.fileTypeMask) == GitTreeEntry.treeMode)
+            {
+                // A sparse index entry for a folder that HEAD doesn't have.
+                ++this.entryIndex;
+            }
+            else
+            {
+                char indexStatus = GitStatusEntry.unchanged;
+                if (this.entry.isIntentToAdd())
+                {
+                    indexStatus = headFile == null ? GitStatusEntry.unchanged : 'D';
+                }
+                else if (headFile == null)
+                {
+                    indexStatus = 'A';
+                }
+                else if ((headFile.getMode() & GitStatusScanner.fileTypeMask) != (entryMode & GitStatusScanner.fileTypeMask))
+                {
+                    indexStatus = 'T';
+                }
+                else if (headFile.getMode() != entryMode || !headFile.getObjectId().equals(this.entry.getObjectId()))
+                {
+                    indexStatus = 'M';
+                }
+
+                if (indexStatus != GitStatusEntry.unchanged)
+                {
+                    this.result.put(this.entry.getPath(), indexStatus);
+                }
+                ++this.entryIndex;
+            }
+        }
+
+        private void appendToPath(byte[] bytes, int startIndex, int length)
+        {
+            if (this.path.length < this.pathLength + length)
+            {
+                this.path = java.util.Arrays.copyOf(this.path, Math.max(this.pathLength + length, this.path.length * 2));
+            }
+            System.arraycopy(bytes, startIndex, this.path, this.pathLength, length);
+            this.pathLength += length;
+        }
+    }
+
+    /**
+     * The values that every folder task of one scan shares.
+     */
+    private static class ScanState
+    {
+        private final GitIndex index;
+        private final int objectIdLength;
+        private final long indexMtimeSeconds;
+        private final long indexMtimeNanoseconds;
+        private final boolean includeUntracked;
+        private final boolean mayConvertContents;
+        private final java.util.concurrent.atomic.AtomicInteger statCount;
+        private final java.util.concurrent.atomic.AtomicInteger hashCount;
+        private final java.util.concurrent.ConcurrentLinkedQueue<Integer> convertedEntryIndexes;
+
+        ScanState(GitIndex index, int objectIdLength, GitFileStat indexStat, boolean includeUntracked, boolean mayConvertContents)
+        {
+            this.index = index;
+            this.objectIdLength = objectIdLength;
+            this.indexMtimeSeconds = indexStat == null ? -1 : indexStat.getMtimeSeconds();
+            this.indexMtimeNanoseconds = indexStat == null ? 0 : indexStat.getMtimeNanoseconds();
+            this.includeUntracked = includeUntracked;
+            this.mayConvertContents = mayConvertContents;
+            this.convertedEntryIndexes = new java.util.concurrent.ConcurrentLinkedQueue<>();
+            this.statCount = new java.util.concurrent.atomic.AtomicInteger();
+            this.hashCount = new java.util.concurrent.atomic.AtomicInteger();
+        }
+    }
+
+    /**
+     * Compares the files of one folder with their index entries, lists the folder's untracked
+     * files, and forks a task for each subfolder that contains tracked files. The index entries
+     * under a folder are always contiguous, since the index is sorted by path. The entries are
+     * read through a {@link GitIndexEntry} view, so only the names of the folder's children and
+     * the paths that are reported are turned into Strings.
+     */
+    private static class FolderTask extends java.util.concurrent.RecursiveTask<java.util.List<GitStatusEntry>>
+    {
+        private final ScanState state;
+        private final Folder folder;
+        private final String prefix;
+        private final int prefixLength;
+        private final int startIndex;
+        private final int endIndex;
+        private final GitIgnoreRules parentIgnoreRules;
+
+        /**
+         * Create a new FolderTask.
+         * @param state The values that every folder task of the scan shares.
+         * @param folder The folder to check.
+         * @param prefix The path of the folder relative to the root of the working tree, ending
+         *               with '/', or the empty string for the root folder.
+         * @param prefixLength The number of UTF-8 bytes in the prefix.
+         * @param startIndex The index of the first index entry under the folder.
+         * @param endIndex The index after the last index entry under the folder.
+         * @param parentIgnoreRules The ignore rules of the folders above this folder.
+         */
+        FolderTask(ScanState state, Folder folder, String prefix, int prefixLength, int startIndex, int endIndex, GitIgnoreRules parentIgnoreRules)
+        {
+            this.state = state;
+            this.folder = folder;
+            this.prefix = prefix;
+            this.prefixLength = prefixLength;
+            this.startIndex = startIndex;
+            this.endIndex = endIndex;
+            this.parentIgnoreRules = parentIgnoreRules;
+        }
+
+        @Override
+        protected java.util.List<GitStatusEntry> compute()
+        {
+            final GitIgnoreRules ignoreRules = this.state.includeUntracked
+                ? GitStatusScanner.readIgnoreRules(this.parentIgnoreRules, this.prefix, this.folder.getFile(".gitignore").await())
+                : null;
+
+            final java.util.Set<String> trackedNames = new java.util.HashSet<>();
+            final java.util.List<Integer> fileEntryIndexes = new java.util.ArrayList<>();
+            final java.util.List<FolderTask> subtasks = new java.util.ArrayList<>();
+            final GitIndexEntry entry = this.startIndex == this.endIndex ? null : this.state.index.getEntry(this.startIndex);
+            int i = this.startIndex;
+            while (i < this.endIndex)
+            {
+                final int slashIndex = entry.moveTo(i).indexOfPathByte((byte)'/', this.prefixLength);
+                if (slashIndex == -1 || slashIndex == entry.getPathLength() - 1)
+                {
+                    fileEntryIndexes.add(i);
+                    ++i;
+                }
+                else
+                {
+                    final String name = entry.getPath(this.prefixLength, slashIndex);
+                    final byte[] subfolderPrefix = entry.getPathBytes(slashIndex + 1);
+                    int subfolderEndIndex = i + 1;
+                    while (subfolderEndIndex < this.endIndex && entry.moveTo(subfolderEndIndex).pathStartsWith(subfolderPrefix))
+                    {
+                        ++subfolderEndIndex;
+                    }
+                    trackedNames.add(name);
+                    subtasks.add(new FolderTask(this.state, this.folder.getFolder(name).await(), this.prefix + name + "/", slashIndex + 1, i, subfolderEndIndex, ignoreRules));
+                    i = subfolderEndIndex;
+                }
+            }
+            for (final FolderTask subtask : subtasks)
+            {
+                subtask.fork();
+            }
+
+            final java.util.List<GitStatusEntry> result = new java.util.ArrayList<>();
+            for (final int entryIndex : fileEntryIndexes)
+            {
+                // A sparse index entry's path ends with '/'.
+                final int slashIndex = entry.moveTo(entryIndex).indexOfPathByte((byte)'/', this.prefixLength);
+                final String name = entry.getPath(this.prefixLength, slashIndex == -1 ? entry.getPathLength() : slashIndex);
+                trackedNames.add(name);
+                final char worktreeStatus = this.getWorktreeStatus(entry, name);
+                if (worktreeStatus != GitStatusEntry.unchanged)
+                {
+                    result.add(GitStatusEntry.createChanged(GitStatusEntry.unchanged, worktreeStatus, this.prefix + name));
+                }
+            }
+
+            if (this.state.includeUntracked)
+            {
+                this.addUntrackedEntries(trackedNames, ignoreRules, result);
+            }
+
+            for (final FolderTask subtask : subtasks)
+            {
+                result.addAll(subtask.join());
+            }
+            return result;
+        }
+
+        /**
+         * Get the change between the provided index entry and its working tree file.
+         * @param entry The index entry of a file in this task's folder.
+         * @param name The name of the entry's file.
+         * @return The worktree status code of the entry, or '.' if the file didn't change.
+         */
+        private char getWorktreeStatus(GitIndexEntry entry, String name)
+        {
+            final int entryType = entry.getMode() & GitStatusScanner.fileTypeMask;
+            char result = GitStatusEntry.unchanged;
+            // Unmerged paths are reported from the index, and the other skipped entries aren't
+            // expected to match the working tree.
+            if (entry.getStage() == 0 && !entry.isSkipWorktree() && !entry.isAssumeValid() && entryType != GitTreeEntry.treeMode)
+            {
+                if (entryType == GitTreeEntry.submoduleMode)
+                {
+                    if (!this.folder.getFolder(name).await().exists().await())
+                    {
+                        result = 'D';
+                    }
+                }
+                else
+                {
+                    final File file = this.folder.getFile(name).await();
+                    final GitFileStat stat = GitFileStat.get(file);
+                    this.state.statCount.incrementAndGet();
+                    if (stat == null)
+                    {
+                        result = 'D';
+                    }
+                    else if (entry.isIntentToAdd())
+                    {
+                        result = 'A';
+                    }
+                    else if (stat.isSymbolicLink() != (entryType == GitTreeEntry.symbolicLinkMode))
+                    {
+                        result = 'T';
+                    }
+                    else if (entryType == GitStatusScanner.regularFileType && stat.hasExecutableBit() && stat.getMode() != entry.getMode())
+                    {
+                        result = 'M';
+                    }
+                    else if (!stat.matches(entry) || GitFileStat.isAtOrAfter(entry.getMtimeSeconds(), entry.getMtimeNanoseconds(), this.state.indexMtimeSeconds, this.state.indexMtimeNanoseconds))
+                    {
+                        // A size change proves that the contents changed, unless the index entry's
+                        // size was zeroed because Git itself found the entry racily clean.
+                        if (entry.getSize() != 0 && entry.getSize() != (stat.getSize() & 0xFFFFFFFFL))
+                        {
+                            result = 'M';
+                        }
+                        else if (this.state.mayConvertContents && entryType == GitStatusScanner.regularFileType)
+                        {
+                            // The file's blob id can't be computed from its bytes, so Git checks
+                            // it after the scan.
+                            this.state.convertedEntryIndexes.add(entry.getIndex());
+                        }
+                        else
+                        {
+                            this.state.hashCount.incrementAndGet();
+                            final GitObjectId objectId = GitStatusScanner.hashBlob(file, stat, this.state.objectIdLength);
+                            if (!entry.getObjectId().equals(objectId))
+                            {
+                                result = 'M';
+                            }
+                        }
+                    }
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Add the untracked files and folders that are directly in this task's folder.
+         * @param trackedNames The names of the files and folders in this task's folder that
+         *                     have index entries.
+         * @param ignoreRules The ignore rules of this task's folder.
+         * @param result The list to add the untracked entries to.
+         */
+        private void addUntrackedEntries(java.util.Set<String> trackedNames, GitIgnoreRules ignoreRules, java.util.List<GitStatusEntry> result)
+        {
+            final Iterable<FileSystemEntry> children = this.folder.getFilesAndFolders()
+                .catchError(NotFoundException.class, (NotFoundException error) -> Iterable.create())
+                .await();
+            for (final FileSystemEntry child : children)
+            {
+                final String name = child.getName();
+                final String path = this.prefix + name;
+                final boolean isFolder = FolderTask.isFolder(child);
+                if (!name.equals(".git") && !trackedNames.contains(name) && (ignoreRules == null || !ignoreRules.isIgnored(path, isFolder)))
+                {
+                    if (!isFolder)
+                    {
+                        result.add(GitStatusEntry.createUntracked(path));
+                    }
+                    else if (FolderTask.containsUntrackedFiles((Folder)child, path + "/", ignoreRules))
+                    {
+                        result.add(GitStatusEntry.createUntracked(path + "/"));
+                    }
+                }
+            }
+        }
+
+        /**
+         * Get whether the provided untracked folder contains a file that isn't ignored or a
+         * nested repository. An untracked folder that only contains ignored files (or nothing)
+         * isn't reported.
+         */
+        private static boolean containsUntrackedFiles(Folder folder, String prefix, GitIgnoreRules parentIgnoreRules)
+        {
+            final GitIgnoreRules ignoreRules = GitStatusScanner.readIgnoreRules(parentIgnoreRules, prefix, folder.getFile(".gitignore").await());
+            final Iterable<FileSystemEntry> children = folder.getFilesAndFolders()
+                .catchError(NotFoundException.class, (NotFoundException error) -> Iterable.create())
+                .await();
+            boolean result = false;
+            for (final FileSystemEntry child : children)
+            {
+                if (!result)
+                {
+                    final boolean isFolder = FolderTask.isFolder(child);
+                    final String path = prefix + child.getName();
+                    if (child.getName().equals(".git"))
+                    {
+                        result = true;
+                    }
+                    else if (ignoreRules == null || !ignoreRules.isIgnored(path, isFolder))
+                    {
+                        result = !isFolder || FolderTask.containsUntrackedFiles((Folder)child, path + "/", ignoreRules);
+                    }
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Get whether the provided untracked entry should be listed as a folder. Git doesn't
+         * follow symbolic links, so a symbolic link to a folder is an untracked file (and a link
+         * to a folder above it isn't listed forever).
+         */
+        private static boolean isFolder(FileSystemEntry entry)
+        {
+            final java.nio.file.Path path = entry instanceof Folder ? GitNativeFiles.getPath(entry) : null;
+            return entry instanceof Folder && (path == null || !java.nio.file.Files.isSymbolicLink(path));
+        }
+    }
+}
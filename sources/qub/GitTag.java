@@ -0,0 +1,60 @@
+package qub;
+
+/**
+ * An annotated tag object that was read from a Git repository's object database.
+ */
+public class GitTag extends GitObject
+{
+    GitTag(GitObjectId objectId, GitByteSlice contents)
+    {
+        super(objectId, GitObjectType.Tag, contents);
+    }
+
+    /**
+     * Get the id of the object that this tag points at.
+     * @return The id of the object that this tag points at.
+     */
+    public GitObjectId getTargetId()
+    {
+        return this.getObjectIdHeader("object");
+    }
+
+    /**
+     * Get the type of the object that this tag points at.
+     * @return The type of the object that this tag points at, or null if the tag doesn't say.
+     */
+    public GitObjectType getTargetType()
+    {
+        final GitByteSlice type = this.getHeader("type");
+        return type == null ? null : GitObjectType.parse(type.getText()).await();
+    }
+
+    /**
+     * Get the name of this tag.
+     * @return The name of this tag, or null if the tag doesn't have one.
+     */
+    public String getTagName()
+    {
+        final GitByteSlice tagName = this.getHeader("tag");
+        return tagName == null ? null : tagName.getText();
+    }
+
+    /**
+     * Get the tagger line of this tag.
+     * @return The tagger line of this tag, or null if the tag doesn't have one.
+     */
+    public String getTagger()
+    {
+        final GitByteSlice tagger = this.getHeader("tagger");
+        return tagger == null ? null : tagger.getText();
+    }
+
+    /**
+     * Get the message of this tag.
+     * @return The message of this tag.
+     */
+    public GitByteSlice getMessage()
+    {
+        return this.getMessageSlice();
+    }
+}
@@ -0,0 +1,12 @@
+package qub;
+
+/**
+ * An error that occurs when a Git command doesn't finish before its timeout.
+ */
+public class GitTimeoutException extends GitException
+{
+    public GitTimeoutException(String message)
+    {
+        super(message);
+    }
+}
@@ -0,0 +1,60 @@
+package qub;
+
+/**
+ * A tree object that was read from a Git repository's object database. A tree lists the files,
+ * folders, and submodules of one folder of a commit's snapshot.
+ */
+public class GitTree extends GitObject
+{
+    GitTree(GitObjectId objectId, GitByteSlice contents)
+    {
+        super(objectId, GitObjectType.Tree, contents);
+    }
+
+    /**
+     * Parse the entries of this tree. Each entry's name is a view over this tree's contents.
+     * @return The entries of this tree.
+     */
+    public Result<Iterable<GitTreeEntry>> getEntries()
+    {
+        return Result.create(() ->
+        {
+            final GitByteSlice contents = this.getContents();
+            final int objectIdLength = this.getObjectId().getLength();
+            final List<GitTreeEntry> result = List.create();
+
+            int index = 0;
+            while (index < contents.getLength())
+            {
+                int mode = 0;
+                while (index < contents.getLength() && contents.getByte(index) != ' ')
+                {
+                    final byte digit = contents.getByte(index);
+                    if (digit < '0' || '7' < digit)
+                    {
+                        throw new ParseException("Expected an octal tree entry mode in tree " + this.getObjectId() + ", but found " + Strings.escapeAndQuote((char)digit) + ".");
+                    }
+                    mode = (mode * 8) + (digit - '0');
+                    ++index;
+                }
+
+                final int nameStartIndex = index + 1;
+                final int nameEndIndex = nameStartIndex > contents.getLength() ? -1 : contents.indexOf((byte)0, nameStartIndex);
+                if (nameEndIndex == -1 || nameEndIndex + 1 + objectIdLength > contents.getLength())
+                {
+                    throw new ParseException("Unexpected end of tree " + this.getObjectId() + ".");
+                }
+
+                final GitByteSlice name = contents.slice(nameStartIndex, nameEndIndex - nameStartIndex);
+                final GitObjectId objectId = GitObjectId.create(contents.getByteArray(), contents.getStartIndex() + nameEndIndex + 1, objectIdLength);
+                result.add(GitTreeEntry.create(mode, name, objectId));
+
+                index = nameEndIndex + 1 + objectIdLength;
+            }
+
+            PostCondition.assertNotNull(result, "result");
+
+            return result;
+        });
+    }
+}
@@ -0,0 +1,146 @@
+package qub;
+
+/**
+ * A single entry of a {@link GitTree}.
+ */
+public class GitTreeEntry
+{
+    /**
+     * The mode of an entry that is a folder.
+     */
+    public static final int treeMode = 0040000;
+
+    /**
+     * The mode of an entry that is a submodule.
+     */
+    public static final int submoduleMode = 0160000;
+
+    /**
+     * The mode of an entry that is a symbolic link.
+     */
+    public static final int symbolicLinkMode = 0120000;
+
+    private final int mode;
+    private final GitByteSlice name;
+    private final GitObjectId objectId;
+
+    private GitTreeEntry(int mode, GitByteSlice name, GitObjectId objectId)
+    {
+        this.mode = mode;
+        this.name = name;
+        this.objectId = objectId;
+    }
+
+    /**
+     * Create a new GitTreeEntry.
+     * @param mode The mode of the entry, such as 0100644 for a regular file.
+     * @param name The name of the entry.
+     * @param objectId The id of the object that the entry refers to.
+     * @return The new GitTreeEntry.
+     */
+    public static GitTreeEntry create(int mode, GitByteSlice name, GitObjectId objectId)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(mode, 0, "mode");
+        PreCondition.assertNotNull(name, "name");
+        PreCondition.assertFalse(name.isEmpty(), "name.isEmpty()");
+        PreCondition.assertNotNull(objectId, "objectId");
+
+        return new GitTreeEntry(mode, name, objectId);
+    }
+
+    /**
+     * Get the mode of this entry, such as 0100644 for a regular file.
+     * @return The mode of this entry.
+     */
+    public int getMode()
+    {
+        return this.mode;
+    }
+
+    /**
+     * Get the name of this entry.
+     * @return The name of this entry.
+     */
+    public GitByteSlice getName()
+    {
+        return this.name;
+    }
+
+    /**
+     * Get the id of the object that this entry refers to.
+     * @return The id of the object that this entry refers to.
+     */
+    public GitObjectId getObjectId()
+    {
+        return this.objectId;
+    }
+
+    /**
+     * Get the type of the object that this entry refers to. Submodule entries refer to commits
+     * in another repository.
+     * @return The type of the object that this entry refers to.
+     */
+    public GitObjectType getObjectType()
+    {
+        GitObjectType result;
+        switch (this.mode & 0170000)
+        {
+            case GitTreeEntry.treeMode:
+                result = GitObjectType.Tree;
+                break;
+
+            case GitTreeEntry.submoduleMode:
+                result = GitObjectType.Commit;
+                break;
+
+            default:
+                result = GitObjectType.Blob;
+                break;
+        }
+        return result;
+    }
+
+    /**
+     * Get whether this entry is a folder.
+     * @return Whether this entry is a folder.
+     */
+    public boolean isTree()
+    {
+        return (this.mode & 0170000) == GitTreeEntry.treeMode;
+    }
+
+    /**
+     * Get whether this entry is a submodule.
+     * @return Whether this entry is a submodule.
+     */
+    public boolean isSubmodule()
+    {
+        return (this.mode & 0170000) == GitTreeEntry.submoduleMode;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%06o", this.mode) + " " + this.getObjectType() + " " + this.objectId + "\t" + this.name;
+    }
+
+    @Override
+    public boolean equals(Object rhs)
+    {
+        return rhs instanceof GitTreeEntry && this.equals((GitTreeEntry)rhs);
+    }
+
+    public boolean equals(GitTreeEntry rhs)
+    {
+        return rhs != null &&
+            this.mode == rhs.mode &&
+            this.name.equals(rhs.name) &&
+            this.objectId.equals(rhs.objectId);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return this.objectId.hashCode();
+    }
+}
@@ -0,0 +1,124 @@
+package qub;
+
+public class GitUpdateRefParameters extends GitParametersDecorator<GitUpdateRefParameters>
+{
+    private GitUpdateRefParameters(Path executablePath)
+    {
+        super(executablePath);
+
+        this.addCommandArgument("update-ref");
+    }
+
+    static GitUpdateRefParameters create()
+    {
+        return GitUpdateRefParameters.create("git");
+    }
+
+    static GitUpdateRefParameters create(String executablePath)
+    {
+        PreCondition.assertNotNullAndNotEmpty(executablePath, "executablePath");
+
+        return GitUpdateRefParameters.create(Path.parse(executablePath));
+    }
+
+    static GitUpdateRefParameters create(Path executablePath)
+    {
+        PreCondition.assertNotNull(executablePath, "executablePath");
+
+        return new GitUpdateRefParameters(executablePath);
+    }
+
+    static GitUpdateRefParameters create(File executableFile)
+    {
+        PreCondition.assertNotNull(executableFile, "executableFile");
+
+        return GitUpdateRefParameters.create(executableFile.getPath());
+    }
+
+    /**
+     * Use the provided message as the reason for the update in the reflog.
+     * @param message The reason for the update.
+     * @return This object for method chaining.
+     */
+    public GitUpdateRefParameters addMessage(String message)
+    {
+        PreCondition.assertNotNullAndNotEmpty(message, "message");
+
+        return this.addCommandArguments("-m", message);
+    }
+
+    /**
+     * Delete the named reference instead of updating it.
+     * @return This object for method chaining.
+     */
+    public GitUpdateRefParameters addDelete()
+    {
+        return this.addCommandArgument("-d");
+    }
+
+    /**
+     * Overwrite the reference itself instead of the result of following a symbolic reference.
+     * @return This object for method chaining.
+     */
+    public GitUpdateRefParameters addNoDeref()
+    {
+        return this.addCommandArgument("--no-deref");
+    }
+
+    /**
+     * Read instructions from standard input. All of the modifications are performed atomically:
+     * either all of the references are updated or none of them are.
+     * @return This object for method chaining.
+     */
+    public GitUpdateRefParameters addStdin()
+    {
+        return this.addCommandArgument("--stdin");
+    }
+
+    /**
+     * With --stdin, read instructions that are terminated by NUL characters instead of linefeed
+     * characters.
+     * @return This object for method chaining.
+     */
+    public GitUpdateRefParameters addZ()
+    {
+        return this.addCommandArgument("-z");
+    }
+
+    /**
+     * The reference to update.
+     * @param reference The reference to update.
+     * @return This object for method chaining.
+     */
+    public GitUpdateRefParameters addReference(String reference)
+    {
+        PreCondition.assertNotNullAndNotEmpty(reference, "reference");
+
+        return this.addCommandArgument(reference);
+    }
+
+    /**
+     * The new value of the reference.
+     * @param newValue The new value of the reference.
+     * @return This object for method chaining.
+     */
+    public GitUpdateRefParameters addNewValue(String newValue)
+    {
+        PreCondition.assertNotNullAndNotEmpty(newValue, "newValue");
+
+        return this.addCommandArgument(newValue);
+    }
+
+    /**
+     * The value that the reference must have before the update. If the reference has a
+     * different value, then the update is not performed.
+     * @param oldValue The value that the reference must have before the update.
+     * @return This object for method chaining.
+     */
+    public GitUpdateRefParameters addOldValue(String oldValue)
+    {
+        PreCondition.assertNotNullAndNotEmpty(oldValue, "oldValue");
+
+        return this.addCommandArgument(oldValue);
+    }
+}
@@ -0,0 +1,283 @@
+package qub;
+
+/**
+ * A thread-safe cache of the versions reported by Git executables. Entries are keyed by the
+ * resolved path of the executable. When the executable's file is available, its size and last
+ * modified time are also recorded so that an upgraded executable is detected without invoking it
+ * again. When the executable's file isn't available, the path alone can't tell different
+ * executables apart, so {@link #get(ChildProcessRunner,Path,File,Function0)} keeps those
+ * versions separately for each ChildProcessRunner.
+ */
+public class GitVersionCache
+{
+    private static final GitVersionCache processCache = GitVersionCache.create();
+
+    private final java.util.concurrent.ConcurrentHashMap<String,GitVersionCacheSlot> slots;
+    private final java.util.Map<ChildProcessRunner,java.util.concurrent.ConcurrentHashMap<String,GitVersionCacheSlot>> runnerSlots;
+
+    private GitVersionCache()
+    {
+        this.slots = new java.util.concurrent.ConcurrentHashMap<>();
+        this.runnerSlots = java.util.Collections.synchronizedMap(new java.util.WeakHashMap<>());
+    }
+
+    /**
+     * Create a new empty GitVersionCache.
+     * @return The new GitVersionCache.
+     */
+    public static GitVersionCache create()
+    {
+        return new GitVersionCache();
+    }
+
+    /**
+     * Get the GitVersionCache that is shared by all of the Git objects in this process.
+     * @return The GitVersionCache that is shared by all of the Git objects in this process.
+     */
+    public static GitVersionCache getProcessCache()
+    {
+        return GitVersionCache.processCache;
+    }
+
+    /**
+     * Find the file of the executable at the provided path. A rooted path is used as is. A path
+     * that isn't rooted is looked up in each of the folders of the provided PATH environment
+     * variable value, and with each of the extensions of the provided PATHEXT environment
+     * variable value.
+     * @param fileSystem The file system to look for the executable in.
+     * @param executablePath The path of the executable.
+     * @param pathEnvironmentVariable The value of the PATH environment variable, or null if it
+     *                                isn't set.
+     * @param pathExtEnvironmentVariable The value of the PATHEXT environment variable, or null if
+     *                                   it isn't set.
+     * @return The executable's file, or null if it couldn't be found.
+     */
+    public static File findExecutableFile(FileSystem fileSystem, Path executablePath, String pathEnvironmentVariable, String pathExtEnvironmentVariable)
+    {
+        PreCondition.assertNotNull(fileSystem, "fileSystem");
+        PreCondition.assertNotNull(executablePath, "executablePath");
+
+        File result = null;
+        if (executablePath.isRooted())
+        {
+            final File executableFile = fileSystem.getFile(executablePath).await();
+            if (executableFile.exists().await())
+            {
+                result = executableFile;
+            }
+        }
+        else if (!Strings.isNullOrEmpty(pathEnvironmentVariable))
+        {
+            final java.util.List<String> extensions = new java.util.ArrayList<>();
+            extensions.add("");
+            if (!Strings.isNullOrEmpty(pathExtEnvironmentVariable))
+            {
+                for (final String extension : pathExtEnvironmentVariable.split(java.util.regex.Pattern.quote(java.io.File.pathSeparator)))
+                {
+                    if (!extension.isEmpty())
+                    {
+                        extensions.add(extension.toLowerCase());
+                    }
+                }
+            }
+
+            for (final String folderPathString : pathEnvironmentVariable.split(java.util.regex.Pattern.quote(java.io.File.pathSeparator)))
+            {
+                if (!folderPathString.isEmpty())
+                {
+                    final Path folderPath = Path.parse(folderPathString);
+                    if (folderPath.isRooted())
+                    {
+                        for (final String extension : extensions)
+                        {
+                            final File executableFile = fileSystem.getFile(folderPath.concatenateSegment(executablePath.toString() + extension)).await();
+                            if (executableFile.exists().await())
+                            {
+                                result = executableFile;
+                                break;
+                            }
+                        }
+                        if (result != null)
+                        {
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the number of versions that are stored in this cache.
+     * @return The number of versions that are stored in this cache.
+     */
+    public int getCount()
+    {
+        int result = GitVersionCache.getCount(this.slots);
+        synchronized (this.runnerSlots)
+        {
+            for (final java.util.concurrent.ConcurrentHashMap<String,GitVersionCacheSlot> slots : this.runnerSlots.values())
+            {
+                result += GitVersionCache.getCount(slots);
+            }
+        }
+        return result;
+    }
+
+    private static int getCount(java.util.concurrent.ConcurrentHashMap<String,GitVersionCacheSlot> slots)
+    {
+        int result = 0;
+        for (final GitVersionCacheSlot slot : slots.values())
+        {
+            if (slot.entry != null)
+            {
+                ++result;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Remove all of the versions that are stored in this cache.
+     * @return This object for method chaining.
+     */
+    public GitVersionCache clear()
+    {
+        this.slots.clear();
+        this.runnerSlots.clear();
+        return this;
+    }
+
+    /**
+     * Get the cached version of the Git executable at the provided path. If no version is cached,
+     * or if the executable file has changed since the version was cached, then the provided
+     * versionCreator will be invoked and its result will be cached. Concurrent calls for the same
+     * executable wait for a single invocation of the versionCreator.
+     * @param executablePath The path to the Git executable. This should be the resolved path of
+     *                       the executable's file when it is known.
+     * @param executableFile The Git executable's file, or null if the executable's file couldn't
+     *                       be found.
+     * @param versionCreator The function that will invoke the executable to get its version.
+     * @return The version of the Git executable.
+     */
+    public Result<VersionNumber> get(Path executablePath, File executableFile, Function0<VersionNumber> versionCreator)
+    {
+        PreCondition.assertNotNull(executablePath, "executablePath");
+        PreCondition.assertNotNull(versionCreator, "versionCreator");
+
+        return Result.create(() ->
+        {
+            return this.get(this.slots, executablePath, executableFile, versionCreator);
+        });
+    }
+
+    /**
+     * Get the cached version of the Git executable at the provided path that is run by the
+     * provided ChildProcessRunner. This is the same as
+     * {@link #get(Path,File,Function0)}, except that when the executable's file couldn't be
+     * found, the version is only shared with other calls for the same ChildProcessRunner. An
+     * unresolved path such as "git" can name a different executable for each runner (or none at
+     * all, for a fake runner), so it isn't a safe key on its own.
+     * @param childProcessRunner The ChildProcessRunner that runs the Git executable.
+     * @param executablePath The path to the Git executable. This should be the resolved path of
+     *                       the executable's file when it is known.
+     * @param executableFile The Git executable's file, or null if the executable's file couldn't
+     *                       be found.
+     * @param versionCreator The function that will invoke the executable to get its version.
+     * @return The version of the Git executable.
+     */
+    public Result<VersionNumber> get(ChildProcessRunner childProcessRunner, Path executablePath, File executableFile, Function0<VersionNumber> versionCreator)
+    {
+        PreCondition.assertNotNull(childProcessRunner, "childProcessRunner");
+        PreCondition.assertNotNull(executablePath, "executablePath");
+        PreCondition.assertNotNull(versionCreator, "versionCreator");
+
+        return Result.create(() ->
+        {
+            java.util.concurrent.ConcurrentHashMap<String,GitVersionCacheSlot> slots;
+            if (executableFile != null)
+            {
+                slots = this.slots;
+            }
+            else
+            {
+                synchronized (this.runnerSlots)
+                {
+                    slots = this.runnerSlots.computeIfAbsent(childProcessRunner, (ChildProcessRunner runner) -> new java.util.concurrent.ConcurrentHashMap<>());
+                }
+            }
+            return this.get(slots, executablePath, executableFile, versionCreator);
+        });
+    }
+
+    private VersionNumber get(java.util.concurrent.ConcurrentHashMap<String,GitVersionCacheSlot> slots, Path executablePath, File executableFile, Function0<VersionNumber> versionCreator)
+    {
+        final String key = executableFile != null
+            ? executableFile.getPath().toString()
+            : executablePath.toString();
+
+        Long executableByteCount = null;
+        DateTime executableLastModified = null;
+        if (executableFile != null)
+        {
+            executableByteCount = executableFile.getContentByteCount().await();
+            executableLastModified = executableFile.getLastModified().await();
+        }
+
+        final GitVersionCacheSlot slot = slots.computeIfAbsent(key, (String slotKey) -> new GitVersionCacheSlot());
+        final VersionNumber result;
+        slot.lock.lock();
+        try
+        {
+            if (slot.entry == null || !slot.entry.matches(executableByteCount, executableLastModified))
+            {
+                final VersionNumber version = versionCreator.run();
+                PostCondition.assertNotNull(version, "version");
+
+                slot.entry = new GitVersionCacheEntry(version, executableByteCount, executableLastModified);
+            }
+            result = slot.entry.version;
+        }
+        finally
+        {
+            slot.lock.unlock();
+        }
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+
+    /**
+     * The cached version of one executable. The slot's lock is held while the executable is
+     * invoked so that concurrent first calls only invoke it once. A lock is used instead of the
+     * slot's monitor so that virtual threads that wait for the invocation don't pin their
+     * carrier threads.
+     */
+    private static class GitVersionCacheSlot
+    {
+        private final java.util.concurrent.locks.ReentrantLock lock = new java.util.concurrent.locks.ReentrantLock();
+        private volatile GitVersionCacheEntry entry;
+    }
+
+    private static class GitVersionCacheEntry
+    {
+        private final VersionNumber version;
+        private final Long executableByteCount;
+        private final DateTime executableLastModified;
+
+        GitVersionCacheEntry(VersionNumber version, Long executableByteCount, DateTime executableLastModified)
+        {
+            this.version = version;
+            this.executableByteCount = executableByteCount;
+            this.executableLastModified = executableLastModified;
+        }
+
+        boolean matches(Long executableByteCount, DateTime executableLastModified)
+        {
+            return Comparer.equal(this.executableByteCount, executableByteCount) &&
+                Comparer.equal(this.executableLastModified, executableLastModified);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package qub;
+
+/**
+ * Access to the virtual threads of the current Java runtime. Virtual threads are looked up at
+ * runtime so that this library can still be used on Java runtimes that don't support them.
+ */
+public final class GitVirtualThreads
+{
+    private static volatile java.util.concurrent.ThreadFactory threadFactory;
+
+    private GitVirtualThreads()
+    {
+    }
+
+    /**
+     * Get whether the current Java runtime supports virtual threads.
+     * @return Whether the current Java runtime supports virtual threads.
+     */
+    public static boolean isSupported()
+    {
+        return GitVirtualThreads.getThreadFactory()
+            .then((java.util.concurrent.ThreadFactory threadFactory) -> true)
+            .catchError(UnsupportedOperationException.class, (UnsupportedOperationException error) -> false)
+            .await();
+    }
+
+    /**
+     * Get a ThreadFactory that creates virtual threads.
+     * @return A ThreadFactory that creates virtual threads, or an UnsupportedOperationException
+     * if the current Java runtime doesn't support virtual threads.
+     */
+    public static Result<java.util.concurrent.ThreadFactory> getThreadFactory()
+    {
+        return Result.create(() ->
+        {
+            java.util.concurrent.ThreadFactory result = GitVirtualThreads.threadFactory;
+            if (result == null)
+            {
+                try
+                {
+                    final Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+                    result = (java.util.concurrent.ThreadFactory)Class.forName("java.lang.Thread$Builder")
+                        .getMethod("factory")
+                        .invoke(builder);
+                }
+                catch (ReflectiveOperationException e)
+                {
+                    throw new UnsupportedOperationException("Virtual threads are not supported by this Java runtime (" + System.getProperty("java.version") + ").", e);
+                }
+                GitVirtualThreads.threadFactory = result;
+            }
+
+            PostCondition.assertNotNull(result, "result");
+
+            return result;
+        });
+    }
+}
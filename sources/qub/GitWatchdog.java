@@ -0,0 +1,349 @@
+package qub;
+
+/**
+ * Runs Git commands that have a timeout or a cancellation token. The command runs on the calling
+ * thread, and the command's deadline is checked by a scheduler that is shared by all of the
+ * commands of a Git object. When the command doesn't finish in time or is cancelled, its child
+ * process tree is killed, which closes the child's output streams so that the calling thread and
+ * the threads that drain the command's output streams are released.
+ * <p>
+ * Each command is started with a unique "-c qub.watchdog=&lt;id&gt;" Git argument so that its
+ * child process can be found unambiguously even when many identical commands run at the same
+ * time in different working folders. A child process that can't be identified by its marker
+ * (because the command wasn't marked or because the operating system doesn't report process
+ * arguments) is never killed. The thread that runs the command is interrupted instead.
+ */
+final class GitWatchdog
+{
+    /**
+     * The name of the configuration value that marks the child processes that are started by
+     * the watchdog.
+     */
+    static final String markerConfigurationName = "qub.watchdog";
+
+    /**
+     * The number of milliseconds between attempts to kill a command's child process after the
+     * command was stopped, for as long as the command hasn't finished.
+     */
+    private static final long killRetryMilliseconds = 100;
+
+    /**
+     * The maximum number of times that the kill of a stopped command's child process is retried.
+     */
+    private static final int maximumKillRetryCount = 50;
+
+    private GitWatchdog()
+    {
+    }
+
+    /**
+     * Create the scheduler that checks the deadlines of the commands of one Git object. The
+     * scheduler's thread is only kept alive while there are deadlines to check.
+     * @param threadFactory The ThreadFactory that creates the scheduler's thread.
+     * @return The new scheduler.
+     */
+    static java.util.concurrent.ScheduledThreadPoolExecutor createScheduler(java.util.concurrent.ThreadFactory threadFactory)
+    {
+        PreCondition.assertNotNull(threadFactory, "threadFactory");
+
+        final java.util.concurrent.ScheduledThreadPoolExecutor result = new java.util.concurrent.ScheduledThreadPoolExecutor(1, threadFactory);
+        result.setKeepAliveTime(10, java.util.concurrent.TimeUnit.SECONDS);
+        result.allowCoreThreadTimeOut(true);
+        result.setRemoveOnCancelPolicy(true);
+        return result;
+    }
+
+    /**
+     * Run the provided parameters with the provided ChildProcessRunner.
+     * @param childProcessRunner The ChildProcessRunner that will run the command.
+     * @param scheduler The scheduler that checks the command's deadline and kills its child
+     *                  process.
+     * @param markChildProcess Whether the command is marked so that its child process can be
+     *                         found and killed.
+     * @param parameters The parameters of the command to run.
+     * @param timeout The maximum amount of time that the command can run for, or null if the
+     *                command doesn't have a timeout.
+     * @param cancellationToken The token that can cancel the command, or null if the command
+     *                          can't be cancelled.
+     * @return The exit code of the command.
+     */
+    static Result<Integer> run(ChildProcessRunner childProcessRunner, java.util.concurrent.ScheduledExecutorService scheduler, boolean markChildProcess, GitParameters parameters, Duration timeout, GitCancellationToken cancellationToken)
+    {
+        PreCondition.assertNotNull(childProcessRunner, "childProcessRunner");
+        PreCondition.assertNotNull(scheduler, "scheduler");
+        PreCondition.assertNotNull(parameters, "parameters");
+        PreCondition.assertTrue(timeout != null || cancellationToken != null, "timeout != null || cancellationToken != null");
+
+        return Result.create(() ->
+        {
+            if (cancellationToken != null && cancellationToken.isCancelled())
+            {
+                throw GitWatchdog.createCancelledException(parameters);
+            }
+
+            final long timeoutMilliseconds = timeout == null ? 0 : (long)Math.ceil(timeout.toMilliseconds().getValue());
+            final String marker = markChildProcess
+                ? GitWatchdog.markerConfigurationName + "=" + java.util.UUID.randomUUID()
+                : null;
+            final WatchedCommand command = new WatchedCommand(scheduler, marker);
+
+            java.util.concurrent.ScheduledFuture<?> deadline = null;
+            if (timeout != null)
+            {
+                deadline = scheduler.schedule(() -> command.stop(StopReason.TimedOut), timeoutMilliseconds, java.util.concurrent.TimeUnit.MILLISECONDS);
+            }
+            final Action0 cancelledAction = () -> command.stop(StopReason.Cancelled);
+            if (cancellationToken != null)
+            {
+                cancellationToken.onCancelled(cancelledAction);
+            }
+
+            Integer exitCode = null;
+            Throwable error = null;
+            try
+            {
+                exitCode = childProcessRunner.run(markChildProcess ? GitWatchdog.addMarker(parameters, marker) : parameters).await();
+            }
+            catch (Throwable e)
+            {
+                error = e;
+            }
+            finally
+            {
+                if (deadline != null)
+                {
+                    deadline.cancel(false);
+                }
+                if (cancellationToken != null)
+                {
+                    cancellationToken.removeOnCancelled(cancelledAction);
+                }
+            }
+
+            StopReason stopReason = command.finish();
+            if (stopReason == null && Thread.currentThread().isInterrupted())
+            {
+                command.killChildProcess();
+                stopReason = StopReason.Cancelled;
+            }
+
+            if (stopReason == StopReason.TimedOut)
+            {
+                throw new GitTimeoutException("git command did not finish within " + timeoutMilliseconds + " milliseconds: " + GitWatchdog.getCommandText(parameters));
+            }
+            else if (stopReason == StopReason.Cancelled)
+            {
+                throw GitWatchdog.createCancelledException(parameters);
+            }
+            else if (error instanceof RuntimeException)
+            {
+                throw (RuntimeException)error;
+            }
+            else if (error instanceof Error)
+            {
+                throw (Error)error;
+            }
+            else if (error != null)
+            {
+                throw new GitException(error.getMessage(), error);
+            }
+
+            return exitCode;
+        });
+    }
+
+    /**
+     * Create a copy of the provided parameters that starts with the provided marker
+     * configuration value.
+     * @param parameters The parameters to copy.
+     * @param marker The "name=value" marker configuration value.
+     * @return The copy of the parameters.
+     */
+    static GitParameters addMarker(GitParameters parameters, String marker)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+        PreCondition.assertNotNullAndNotEmpty(marker, "marker");
+
+        final BasicGitParameters result = BasicGitParameters.create(parameters.getExecutablePath());
+        result.addArguments("-c", marker);
+        result.addArguments(parameters.getArguments());
+        if (parameters.getWorkingFolderPath() != null)
+        {
+            result.setWorkingFolderPath(parameters.getWorkingFolderPath());
+        }
+        if (parameters.getInputStream() != null)
+        {
+            result.setInputStream(parameters.getInputStream());
+        }
+        if (parameters.getOutputStreamHandler() != null)
+        {
+            result.setOutputStreamHandler(parameters.getOutputStreamHandler());
+        }
+        if (parameters.getErrorStreamHandler() != null)
+        {
+            result.setErrorStreamHandler(parameters.getErrorStreamHandler());
+        }
+        return result;
+    }
+
+    private static GitCancelledException createCancelledException(GitParameters parameters)
+    {
+        return new GitCancelledException("git command was cancelled: " + GitWatchdog.getCommandText(parameters));
+    }
+
+    private static String getCommandText(GitParameters parameters)
+    {
+        final StringBuilder builder = new StringBuilder(parameters.getExecutablePath().toString());
+        for (final String argument : parameters.getArguments())
+        {
+            builder.append(' ').append(argument);
+        }
+        return builder.toString();
+    }
+
+    private enum StopReason
+    {
+        TimedOut,
+        Cancelled,
+    }
+
+    /**
+     * The state of one command that is run by the watchdog.
+     */
+    private static class WatchedCommand
+    {
+        private final java.util.concurrent.ScheduledExecutorService scheduler;
+        private final String marker;
+        private final Thread runThread;
+        private boolean finished;
+        private boolean interruptedRunThread;
+        private boolean runThreadWasInterrupted;
+        private int killRetryCount;
+        private StopReason stopReason;
+
+        WatchedCommand(java.util.concurrent.ScheduledExecutorService scheduler, String marker)
+        {
+            this.scheduler = scheduler;
+            this.marker = marker;
+            this.runThread = Thread.currentThread();
+        }
+
+        /**
+         * Stop the command for the provided reason. The command's child process tree is killed,
+         * and the kill is retried a limited number of times until the command finishes in case
+         * the child process hadn't started yet. If the child process can't be found, then the
+         * thread that runs the command is interrupted instead.
+         * @param stopReason The reason that the command is stopped.
+         */
+        synchronized void stop(StopReason stopReason)
+        {
+            if (!this.finished && this.stopReason == null)
+            {
+                this.stopReason = stopReason;
+                if (!this.killChildProcess())
+                {
+                    this.runThreadWasInterrupted = this.runThread.isInterrupted();
+                    this.interruptedRunThread = true;
+                    this.runThread.interrupt();
+                }
+                this.scheduleKillRetry();
+            }
+        }
+
+        private void scheduleKillRetry()
+        {
+            if (this.marker != null && this.killRetryCount < GitWatchdog.maximumKillRetryCount)
+            {
+                ++this.killRetryCount;
+                try
+                {
+                    this.scheduler.schedule(this::retryKill, GitWatchdog.killRetryMilliseconds, java.util.concurrent.TimeUnit.MILLISECONDS);
+                }
+                catch (java.util.concurrent.RejectedExecutionException ignored)
+                {
+                }
+            }
+        }
+
+        private synchronized void retryKill()
+        {
+            if (!this.finished)
+            {
+                this.killChildProcess();
+                this.scheduleKillRetry();
+            }
+        }
+
+        /**
+         * Mark the command as finished. If the watchdog interrupted the thread that ran the
+         * command, then that interrupt is cleared, but an interrupt that the thread already had
+         * before the watchdog interrupted it is kept.
+         * @return The reason that the command was stopped, or null if it wasn't stopped.
+         */
+        synchronized StopReason finish()
+        {
+            this.finished = true;
+            if (this.interruptedRunThread)
+            {
+                Thread.interrupted();
+                if (this.runThreadWasInterrupted)
+                {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return this.stopReason;
+        }
+
+        /**
+         * Kill the command's child process and all of its descendants. The child process is the
+         * child of this process whose arguments contain the command's marker. A child process
+         * whose arguments aren't reported by the operating system is never killed, because it
+         * could belong to another command.
+         * @return Whether a child process was killed.
+         */
+        boolean killChildProcess()
+        {
+            boolean result = false;
+            if (this.marker != null)
+            {
+                final java.util.List<ProcessHandle> markedChildren = new java.util.ArrayList<>();
+                ProcessHandle.current().children().forEach((ProcessHandle child) ->
+                {
+                    final ProcessHandle.Info info = child.info();
+                    final java.util.Optional<String[]> arguments = info.arguments();
+                    final java.util.Optional<String> commandLine = info.commandLine();
+                    if (arguments.isPresent()
+                        ? java.util.Arrays.asList(arguments.get()).contains(this.marker)
+                        : commandLine.map((String text) -> text.contains(this.marker)).orElse(false))
+                    {
+                        markedChildren.add(child);
+                    }
+                });
+
+                for (final ProcessHandle child : markedChildren)
+                {
+                    GitWatchdog.killProcessTree(child);
+                    result = true;
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Forcibly kill the provided process and all of its descendants. The descendants are
+     * collected before the process is killed, because they are re-parented once their parent
+     * exits.
+     * @param process The process to kill.
+     */
+    private static void killProcessTree(ProcessHandle process)
+    {
+        final java.util.List<ProcessHandle> descendants = new java.util.ArrayList<>();
+        process.descendants().forEach(descendants::add);
+        process.destroyForcibly();
+        for (final ProcessHandle descendant : descendants)
+        {
+            descendant.destroyForcibly();
+        }
+    }
+}
@@ -237,6 +237,88 @@ public interface BasicGitParametersTests
                     test.assertEqual(Iterable.create(), parameters.getGitArguments());
                     test.assertEqual(Iterable.create("hello"), parameters.getCommandArguments());
                 });
+
+                runner.test("with many pathspec arguments", (Test test) ->
+                {
+                    final int pathspecCount = 50000;
+                    final List<String> pathspecs = List.create();
+                    for (int i = 0; i < pathspecCount; ++i)
+                    {
+                        pathspecs.add("folder/file" + i + ".txt");
+                    }
+
+                    final BasicGitParameters parameters = BasicGitParameters.create(Path.parse("git"))
+                        .addCommandArgument("add")
+                        .addCommandArgument("--");
+                    final Iterable<String> commandArguments = parameters.getCommandArguments();
+                    for (final String pathspec : pathspecs)
+                    {
+                        parameters.addCommandArgument(pathspec);
+
+                        // Getting the command arguments must not copy them.
+                        test.assertSame(commandArguments, parameters.getCommandArguments());
+                    }
+                    parameters.addGitArgument("--no-pager");
+
+                    test.assertEqual(1, parameters.getGitArguments().getCount());
+                    test.assertEqual(pathspecCount + 2, parameters.getCommandArguments().getCount());
+                    test.assertEqual(pathspecCount + 3, parameters.getArguments().getCount());
+                    test.assertEqual("--no-pager", parameters.getArguments().first());
+                    test.assertEqual("add", parameters.getCommandArguments().first());
+                    test.assertEqual(pathspecs.last(), parameters.getCommandArguments().last());
+                    test.assertEqual(pathspecCount + 2, commandArguments.getCount());
+                });
+            });
+
+            runner.testGroup("getGitArguments()", () ->
+            {
+                runner.test("returns a read-only view", (Test test) ->
+                {
+                    final BasicGitParameters parameters = BasicGitParameters.create(Path.parse("git"))
+                        .addGitArgument("--no-pager");
+                    final Iterable<String> gitArguments = parameters.getGitArguments();
+                    test.assertFalse(gitArguments instanceof List);
+                    test.assertEqual(Iterable.create("--no-pager"), gitArguments);
+
+                    parameters.addGitArgument("-C");
+                    test.assertEqual(Iterable.create("--no-pager", "-C"), gitArguments);
+                });
+            });
+
+            runner.testGroup("getCommandArguments()", () ->
+            {
+                runner.test("returns a read-only view", (Test test) ->
+                {
+                    final BasicGitParameters parameters = BasicGitParameters.create(Path.parse("git"))
+                        .addCommandArgument("status");
+                    final Iterable<String> commandArguments = parameters.getCommandArguments();
+                    test.assertFalse(commandArguments instanceof List);
+                    test.assertEqual(Iterable.create("status"), commandArguments);
+
+                    parameters.addCommandArgument("--short");
+                    test.assertEqual(Iterable.create("status", "--short"), commandArguments);
+                });
+
+                runner.test("equals() is symmetric", (Test test) ->
+                {
+                    final BasicGitParameters parameters = BasicGitParameters.create(Path.parse("git"))
+                        .addCommandArguments("status", "--short");
+                    final Iterable<String> commandArguments = parameters.getCommandArguments();
+                    final List<String> list = List.create("status", "--short");
+                    test.assertTrue(commandArguments.equals(list));
+                    test.assertTrue(list.equals(commandArguments));
+
+                    final Iterable<String> otherCommandArguments = BasicGitParameters.create(Path.parse("git"))
+                        .addCommandArguments("status", "--short")
+                        .getCommandArguments();
+                    test.assertTrue(commandArguments.equals(otherCommandArguments));
+                    test.assertTrue(otherCommandArguments.equals(commandArguments));
+
+                    final List<String> shorterList = List.create("status");
+                    test.assertFalse(commandArguments.equals(shorterList));
+                    test.assertFalse(shorterList.equals(commandArguments));
+                    test.assertFalse(commandArguments.equals("status --short"));
+                });
             });
 
             runner.testGroup("setOutputStreamHandler(Action1<ByteReadStream>)", () ->
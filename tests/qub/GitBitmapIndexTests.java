@@ -0,0 +1,338 @@
+package qub;
+
+public interface GitBitmapIndexTests
+{
+    /**
+     * Builds the bytes of a version 1 bitmap index for the objects of a pack file.
+     */
+    class BitmapBuilder
+    {
+        private final GitPackFileTests.PackBuilder pack;
+        private final java.util.HashMap<GitObjectId,GitObjectType> objectTypes;
+        private final java.util.List<GitObjectId> commitIds;
+        private final java.util.List<java.util.BitSet> bitmaps;
+        private final java.util.List<Integer> xorOffsets;
+        private int version;
+        private int options;
+        private byte[] packChecksum;
+
+        public BitmapBuilder()
+        {
+            this.pack = new GitPackFileTests.PackBuilder();
+            this.objectTypes = new java.util.HashMap<>();
+            this.commitIds = new java.util.ArrayList<>();
+            this.bitmaps = new java.util.ArrayList<>();
+            this.xorOffsets = new java.util.ArrayList<>();
+            this.version = 1;
+            this.options = 1;
+        }
+
+        public GitObjectId addObject(GitObjectType objectType, byte[] contents)
+        {
+            final GitObjectId result = this.pack.addObject(objectType, contents);
+            this.objectTypes.put(result, objectType);
+            return result;
+        }
+
+        public GitObjectId addObject(GitObjectType objectType, String contents)
+        {
+            return this.addObject(objectType, contents.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+        }
+
+        /**
+         * Add a bitmap for the provided commit.
+         * @param commitId The commit that the bitmap is for.
+         * @param xorOffset How many bitmaps back the bitmap that this bitmap is XOR'd with is, or
+         *                  0 if this bitmap is stored as is.
+         * @param reachableIds The objects that can be reached from the commit.
+         * @return This object for method chaining.
+         */
+        public BitmapBuilder addBitmap(GitObjectId commitId, int xorOffset, GitObjectId... reachableIds)
+        {
+            final java.util.List<GitObjectId> packOrder = this.getPackOrder();
+            final java.util.BitSet bitmap = new java.util.BitSet();
+            for (final GitObjectId reachableId : reachableIds)
+            {
+                bitmap.set(packOrder.indexOf(reachableId));
+            }
+            this.commitIds.add(commitId);
+            this.bitmaps.add(bitmap);
+            this.xorOffsets.add(xorOffset);
+            return this;
+        }
+
+        public BitmapBuilder setVersion(int version)
+        {
+            this.version = version;
+            return this;
+        }
+
+        public BitmapBuilder setOptions(int options)
+        {
+            this.options = options;
+            return this;
+        }
+
+        public BitmapBuilder setPackChecksum(byte[] packChecksum)
+        {
+            this.packChecksum = packChecksum;
+            return this;
+        }
+
+        /**
+         * Get the ids of the pack's objects in the order that they were added to the pack.
+         * @return The ids of the pack's objects in pack order.
+         */
+        public java.util.List<GitObjectId> getPackOrder()
+        {
+            final java.util.List<GitObjectId> result = new java.util.ArrayList<>(this.pack.getOffsets().keySet());
+            result.sort((GitObjectId lhs, GitObjectId rhs) -> Long.compare(this.pack.getOffsets().get(lhs), this.pack.getOffsets().get(rhs)));
+            return result;
+        }
+
+        private java.util.BitSet getTypeBitmap(GitObjectType objectType)
+        {
+            final java.util.List<GitObjectId> packOrder = this.getPackOrder();
+            final java.util.BitSet result = new java.util.BitSet();
+            for (int i = 0; i < packOrder.size(); ++i)
+            {
+                if (this.objectTypes.get(packOrder.get(i)) == objectType)
+                {
+                    result.set(i);
+                }
+            }
+            return result;
+        }
+
+        public byte[] getBytes()
+        {
+            final int objectCount = this.pack.getObjectCount();
+            final java.io.ByteArrayOutputStream result = new java.io.ByteArrayOutputStream();
+            result.write('B');
+            result.write('I');
+            result.write('T');
+            result.write('M');
+            result.write(this.version >>> 8);
+            result.write(this.version);
+            result.write(this.options >>> 8);
+            result.write(this.options);
+            result.writeBytes(java.nio.ByteBuffer.allocate(4).putInt(this.bitmaps.size()).array());
+            if (this.packChecksum != null)
+            {
+                result.writeBytes(this.packChecksum);
+            }
+            else
+            {
+                final byte[] packBytes = this.pack.getPackBytes();
+                result.write(packBytes, packBytes.length - 20, 20);
+            }
+
+            for (final GitObjectType objectType : new GitObjectType[] { GitObjectType.Commit, GitObjectType.Tree, GitObjectType.Blob, GitObjectType.Tag })
+            {
+                result.writeBytes(GitEwahBitmapTests.encode(this.getTypeBitmap(objectType), objectCount));
+            }
+
+            final java.util.List<GitObjectId> sortedIds = new java.util.ArrayList<>(this.pack.getOffsets().keySet());
+            for (int i = 0; i < this.bitmaps.size(); ++i)
+            {
+                final int xorOffset = this.xorOffsets.get(i);
+                final java.util.BitSet storedBitmap = (java.util.BitSet)this.bitmaps.get(i).clone();
+                if (xorOffset != 0 && xorOffset <= i)
+                {
+                    storedBitmap.xor(this.bitmaps.get(i - xorOffset));
+                }
+                result.writeBytes(java.nio.ByteBuffer.allocate(4).putInt(sortedIds.indexOf(this.commitIds.get(i))).array());
+                result.write(xorOffset);
+                result.write(0);
+                result.writeBytes(GitEwahBitmapTests.encode(storedBitmap, objectCount));
+            }
+
+            result.writeBytes(new byte[20]);
+            return result.toByteArray();
+        }
+
+        public GitPackIndex getPackIndex()
+        {
+            return GitPackIndexTests.parse(this.pack.getIndexBytes());
+        }
+
+        public GitBitmapIndex parse()
+        {
+            return GitBitmapIndex.parse(GitPackData.wrap(this.getBytes(), GitPackData.defaultSegmentSize), this.getPackIndex()).await();
+        }
+
+        public void writeTo(Folder objectsFolder, String packName)
+        {
+            this.pack.writeTo(objectsFolder, packName);
+            objectsFolder.createFile("pack/" + packName + ".bitmap").await().setContents(this.getBytes()).await();
+        }
+    }
+
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(GitBitmapIndex.class, () ->
+        {
+            runner.testGroup("parse(GitPackData,GitPackIndex)", () ->
+            {
+                final Action3<String,BitmapBuilder,Throwable> parseErrorTest = (String testName, BitmapBuilder builder, Throwable expected) ->
+                {
+                    runner.test(testName, (Test test) ->
+                    {
+                        test.assertThrows(builder::parse, expected);
+                    });
+                };
+
+                final Function0<BitmapBuilder> createBuilder = () ->
+                {
+                    final BitmapBuilder result = new BitmapBuilder();
+                    final GitObjectId blobId = result.addObject(GitObjectType.Blob, "hello");
+                    result.addObject(GitObjectType.Commit, "commit " + blobId);
+                    return result;
+                };
+
+                runner.test("with null data", (Test test) ->
+                {
+                    test.assertThrows(() -> GitBitmapIndex.parse(null, createBuilder.run().getPackIndex()),
+                        new PreConditionFailure("data cannot be null."));
+                });
+
+                runner.test("with null packIndex", (Test test) ->
+                {
+                    test.assertThrows(() -> GitBitmapIndex.parse(GitPackData.wrap(createBuilder.run().getBytes(), 1024), null),
+                        new PreConditionFailure("packIndex cannot be null."));
+                });
+
+                runner.test("with wrong signature", (Test test) ->
+                {
+                    final BitmapBuilder builder = createBuilder.run();
+                    final byte[] bytes = builder.getBytes();
+                    bytes[0] = 'X';
+                    test.assertThrows(() -> GitBitmapIndex.parse(GitPackData.wrap(bytes, 1024), builder.getPackIndex()).await(),
+                        new ParseException("Expected the bitmap index to start with \"BITM\"."));
+                });
+
+                parseErrorTest.run("with unsupported version",
+                    createBuilder.run().setVersion(2),
+                    new ParseException("Unsupported bitmap index version: 2"));
+
+                parseErrorTest.run("without full DAG option",
+                    createBuilder.run().setOptions(4),
+                    new ParseException("The bitmap index doesn't contain full reachability bitmaps."));
+
+                final byte[] otherChecksum = new byte[20];
+                java.util.Arrays.fill(otherChecksum, (byte)0xAB);
+                final BitmapBuilder otherPackBuilder = createBuilder.run().setPackChecksum(otherChecksum);
+                parseErrorTest.run("with checksum of another pack",
+                    otherPackBuilder,
+                    new ParseException("The bitmap index is for pack " + GitObjectId.create(otherChecksum) + ", but its pack index is for pack " + otherPackBuilder.getPackIndex().getPackChecksum() + "."));
+
+                final BitmapBuilder badXorBuilder = createBuilder.run();
+                badXorBuilder.addBitmap(badXorBuilder.getPackOrder().get(1), 1, badXorBuilder.getPackOrder().get(1));
+                parseErrorTest.run("with XOR offset before the first bitmap",
+                    badXorBuilder,
+                    new ParseException("Bitmap 0 has an invalid XOR offset: 1"));
+
+                runner.test("with truncated bitmaps", (Test test) ->
+                {
+                    final BitmapBuilder builder = createBuilder.run();
+                    builder.addBitmap(builder.getPackOrder().get(1), 0, builder.getPackOrder().get(0), builder.getPackOrder().get(1));
+                    final byte[] bytes = builder.getBytes();
+                    final int entryLength = 6 + 8 + 8 + 8 + 4;
+                    final byte[] truncatedBytes = java.util.Arrays.copyOf(bytes, bytes.length - 20 - entryLength);
+                    test.assertThrows(() -> GitBitmapIndex.parse(GitPackData.wrap(truncatedBytes, 1024), builder.getPackIndex()).await(),
+                        new ParseException("Expected the bitmap index to contain 1 bitmaps, but found 0."));
+                });
+
+                runner.test("with no bitmaps", (Test test) ->
+                {
+                    final GitBitmapIndex bitmapIndex = createBuilder.run().parse();
+                    test.assertEqual(2, bitmapIndex.getObjectCount());
+                    test.assertEqual(0, bitmapIndex.getBitmapCount());
+                });
+            });
+
+            runner.testGroup("with history", () ->
+            {
+                final BitmapBuilder builder = new BitmapBuilder();
+                final GitObjectId blob1 = builder.addObject(GitObjectType.Blob, "1");
+                final GitObjectId tree1 = builder.addObject(GitObjectType.Tree, "tree 1");
+                final GitObjectId commit1 = builder.addObject(GitObjectType.Commit, "commit 1");
+                final GitObjectId blob2 = builder.addObject(GitObjectType.Blob, "2");
+                final GitObjectId tree2 = builder.addObject(GitObjectType.Tree, "tree 2");
+                final GitObjectId commit2 = builder.addObject(GitObjectType.Commit, "commit 2");
+                final GitObjectId commit3 = builder.addObject(GitObjectType.Commit, "commit 3");
+                final GitObjectId tag = builder.addObject(GitObjectType.Tag, "tag");
+                builder.addBitmap(commit1, 0, blob1, tree1, commit1);
+                builder.addBitmap(commit2, 1, blob1, tree1, commit1, blob2, tree2, commit2);
+                builder.addBitmap(commit3, 1, blob1, tree1, commit1, blob2, tree2, commit2, commit3);
+                final GitBitmapIndex bitmapIndex = builder.parse();
+
+                runner.test("getObjectCount()", (Test test) ->
+                {
+                    test.assertEqual(8, bitmapIndex.getObjectCount());
+                    test.assertEqual(3, bitmapIndex.getBitmapCount());
+                });
+
+                runner.test("getBitPosition(GitObjectId)", (Test test) ->
+                {
+                    test.assertEqual(0, bitmapIndex.getBitPosition(blob1));
+                    test.assertEqual(2, bitmapIndex.getBitPosition(commit1));
+                    test.assertEqual(7, bitmapIndex.getBitPosition(tag));
+                    test.assertEqual(-1, bitmapIndex.getBitPosition(GitObjectDatabaseTests.getObjectId(GitObjectType.Blob, new byte[] { 'x' })));
+                });
+
+                runner.test("getObjectId(int)", (Test test) ->
+                {
+                    test.assertEqual(blob1, bitmapIndex.getObjectId(0));
+                    test.assertEqual(tree2, bitmapIndex.getObjectId(4));
+                    test.assertEqual(tag, bitmapIndex.getObjectId(7));
+                });
+
+                runner.test("getTypeBitmap(GitObjectType)", (Test test) ->
+                {
+                    test.assertEqual(GitEwahBitmapTests.createBitSet(2, 5, 6), bitmapIndex.getTypeBitmap(GitObjectType.Commit));
+                    test.assertEqual(GitEwahBitmapTests.createBitSet(1, 4), bitmapIndex.getTypeBitmap(GitObjectType.Tree));
+                    test.assertEqual(GitEwahBitmapTests.createBitSet(0, 3), bitmapIndex.getTypeBitmap(GitObjectType.Blob));
+                    test.assertEqual(GitEwahBitmapTests.createBitSet(7), bitmapIndex.getTypeBitmap(GitObjectType.Tag));
+
+                    bitmapIndex.getTypeBitmap(GitObjectType.Tag).clear();
+                    test.assertEqual(GitEwahBitmapTests.createBitSet(7), bitmapIndex.getTypeBitmap(GitObjectType.Tag));
+                });
+
+                runner.test("getObjectType(int)", (Test test) ->
+                {
+                    test.assertEqual(GitObjectType.Blob, bitmapIndex.getObjectType(0));
+                    test.assertEqual(GitObjectType.Tree, bitmapIndex.getObjectType(1));
+                    test.assertEqual(GitObjectType.Commit, bitmapIndex.getObjectType(6));
+                    test.assertEqual(GitObjectType.Tag, bitmapIndex.getObjectType(7));
+                });
+
+                runner.test("containsBitmap(GitObjectId)", (Test test) ->
+                {
+                    test.assertTrue(bitmapIndex.containsBitmap(commit1));
+                    test.assertTrue(bitmapIndex.containsBitmap(commit3));
+                    test.assertFalse(bitmapIndex.containsBitmap(tree1));
+                    test.assertFalse(bitmapIndex.containsBitmap(GitObjectDatabaseTests.getObjectId(GitObjectType.Commit, new byte[] { 'x' })));
+                });
+
+                runner.test("getBitmap(GitObjectId)", (Test test) ->
+                {
+                    test.assertNull(bitmapIndex.getBitmap(tag));
+                    test.assertEqual(GitEwahBitmapTests.createBitSet(0, 1, 2), bitmapIndex.getBitmap(commit1));
+                    test.assertEqual(GitEwahBitmapTests.createBitSet(0, 1, 2, 3, 4, 5), bitmapIndex.getBitmap(commit2));
+                    test.assertEqual(GitEwahBitmapTests.createBitSet(0, 1, 2, 3, 4, 5, 6), bitmapIndex.getBitmap(commit3));
+
+                    bitmapIndex.getBitmap(commit2).clear();
+                    test.assertEqual(GitEwahBitmapTests.createBitSet(0, 1, 2, 3, 4, 5), bitmapIndex.getBitmap(commit2));
+                });
+
+                runner.test("getBitmap(GitObjectId) with XOR chain resolved from its end", (Test test) ->
+                {
+                    final GitBitmapIndex freshBitmapIndex = builder.parse();
+                    test.assertEqual(GitEwahBitmapTests.createBitSet(0, 1, 2, 3, 4, 5, 6), freshBitmapIndex.getBitmap(commit3));
+                    test.assertEqual(GitEwahBitmapTests.createBitSet(0, 1, 2), freshBitmapIndex.getBitmap(commit1));
+                });
+            });
+        });
+    }
+}
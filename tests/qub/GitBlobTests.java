@@ -0,0 +1,19 @@
+package qub;
+
+public interface GitBlobTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(GitBlob.class, () ->
+        {
+            runner.test("getContents()", (Test test) ->
+            {
+                final GitObjectId objectId = GitObjectDatabaseTests.getObjectId(GitObjectType.Blob, "hello\n".getBytes(java.nio.charset.StandardCharsets.UTF_8));
+                final GitBlob blob = (GitBlob)GitObject.create(objectId, GitObjectType.Blob, GitObjectDatabaseTests.toSlice("hello\n"));
+                test.assertEqual("ce013625030ba8dba906f756967f9e9ca394464a", blob.getObjectId().toString());
+                test.assertEqual(GitObjectType.Blob, blob.getObjectType());
+                test.assertEqual("hello\n", blob.getContents().getText());
+            });
+        });
+    }
+}
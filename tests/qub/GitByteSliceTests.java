@@ -0,0 +1,141 @@
+package qub;
+
+public interface GitByteSliceTests
+{
+    static GitByteSlice createSlice(String text)
+    {
+        final byte[] bytes = ("[" + text + "]").getBytes(java.nio.charset.StandardCharsets.UTF_8);
+        return GitByteSlice.create(bytes, 1, bytes.length - 2);
+    }
+
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(GitByteSlice.class, () ->
+        {
+            runner.testGroup("create(byte[],int,int)", () ->
+            {
+                runner.test("with null bytes", (Test test) ->
+                {
+                    test.assertThrows(() -> GitByteSlice.create(null, 0, 0),
+                        new PreConditionFailure("bytes cannot be null."));
+                });
+
+                runner.test("with empty bytes", (Test test) ->
+                {
+                    final GitByteSlice slice = GitByteSlice.create(new byte[0], 0, 0);
+                    test.assertEqual(0, slice.getLength());
+                    test.assertTrue(slice.isEmpty());
+                    test.assertEqual("", slice.getText());
+                });
+
+                runner.test("with range of bytes", (Test test) ->
+                {
+                    final byte[] bytes = new byte[] { 1, 2, 3, 4, 5 };
+                    final GitByteSlice slice = GitByteSlice.create(bytes, 1, 3);
+                    test.assertEqual(3, slice.getLength());
+                    test.assertFalse(slice.isEmpty());
+                    test.assertEqual((byte)2, slice.getByte(0));
+                    test.assertEqual((byte)4, slice.getByte(2));
+                    test.assertEqual(new byte[] { 2, 3, 4 }, slice.getBytes());
+                });
+            });
+
+            runner.testGroup("indexOf(byte)", () ->
+            {
+                final Action3<String,Character,Integer> indexOfTest = (String text, Character value, Integer expected) ->
+                {
+                    runner.test("with " + English.andList(Strings.escapeAndQuote(text), Strings.escapeAndQuote(value.toString())), (Test test) ->
+                    {
+                        test.assertEqual(expected, GitByteSliceTests.createSlice(text).indexOf((byte)value.charValue()));
+                    });
+                };
+
+                indexOfTest.run("", 'a', -1);
+                indexOfTest.run("abc", 'a', 0);
+                indexOfTest.run("abc", 'c', 2);
+                indexOfTest.run("abc", ']', -1);
+            });
+
+            runner.testGroup("startsWith(String)", () ->
+            {
+                final Action3<String,String,Boolean> startsWithTest = (String text, String prefix, Boolean expected) ->
+                {
+                    runner.test("with " + English.andList(Strings.escapeAndQuote(text), Strings.escapeAndQuote(prefix)), (Test test) ->
+                    {
+                        test.assertEqual(expected, GitByteSliceTests.createSlice(text).startsWith(prefix));
+                    });
+                };
+
+                startsWithTest.run("", "", true);
+                startsWithTest.run("", "a", false);
+                startsWithTest.run("git version 2.37.1", "git version ", true);
+                startsWithTest.run("git", "git version ", false);
+                startsWithTest.run("abc", "abd", false);
+            });
+
+            runner.testGroup("trim()", () ->
+            {
+                final Action2<String,String> trimTest = (String text, String expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(text), (Test test) ->
+                    {
+                        test.assertEqual(expected, GitByteSliceTests.createSlice(text).trim().getText());
+                    });
+                };
+
+                trimTest.run("", "");
+                trimTest.run("   ", "");
+                trimTest.run("abc", "abc");
+                trimTest.run(" \t abc \r\n", "abc");
+                trimTest.run("a b", "a b");
+            });
+
+            runner.testGroup("skip(int)", () ->
+            {
+                runner.test("with negative", (Test test) ->
+                {
+                    final GitByteSlice slice = GitByteSliceTests.createSlice("abc");
+                    test.assertThrows(() -> slice.skip(-1),
+                        new PreConditionFailure("startIndex (-1) must be between 0 and 3."));
+                });
+
+                runner.test("with 0", (Test test) ->
+                {
+                    test.assertEqual("abc", GitByteSliceTests.createSlice("abc").skip(0).getText());
+                });
+
+                runner.test("with 2", (Test test) ->
+                {
+                    test.assertEqual("c", GitByteSliceTests.createSlice("abc").skip(2).getText());
+                });
+
+                runner.test("with length", (Test test) ->
+                {
+                    test.assertEqual("", GitByteSliceTests.createSlice("abc").skip(3).getText());
+                });
+            });
+
+            runner.test("slice(int,int)", (Test test) ->
+            {
+                final GitByteSlice slice = GitByteSliceTests.createSlice("hello world");
+                test.assertEqual("lo w", slice.slice(3, 4).getText());
+                test.assertEqual("", slice.slice(11, 0).getText());
+            });
+
+            runner.test("equals(Object)", (Test test) ->
+            {
+                final GitByteSlice slice = GitByteSliceTests.createSlice("abc");
+                test.assertTrue(slice.equals((Object)GitByteSliceTests.createSlice("abc")));
+                test.assertEqual(slice.hashCode(), GitByteSliceTests.createSlice("abc").hashCode());
+                test.assertFalse(slice.equals((Object)GitByteSliceTests.createSlice("abd")));
+                test.assertFalse(slice.equals((Object)"abc"));
+                test.assertFalse(slice.equals((Object)null));
+            });
+
+            runner.test("toString()", (Test test) ->
+            {
+                test.assertEqual("caf\u00e9", GitByteSliceTests.createSlice("caf\u00e9").toString());
+            });
+        });
+    }
+}
@@ -0,0 +1,93 @@
+package qub;
+
+public interface GitCancellationTokenTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(GitCancellationToken.class, () ->
+        {
+            runner.test("create()", (Test test) ->
+            {
+                final GitCancellationToken token = GitCancellationToken.create();
+                test.assertNotNull(token);
+                test.assertFalse(token.isCancelled());
+            });
+
+            runner.testGroup("cancel()", () ->
+            {
+                runner.test("with no actions", (Test test) ->
+                {
+                    final GitCancellationToken token = GitCancellationToken.create();
+                    final GitCancellationToken cancelResult = token.cancel();
+                    test.assertSame(token, cancelResult);
+                    test.assertTrue(token.isCancelled());
+                });
+
+                runner.test("with actions", (Test test) ->
+                {
+                    final GitCancellationToken token = GitCancellationToken.create();
+                    final IntegerValue runCount = IntegerValue.create(0);
+                    token.onCancelled(runCount::increment);
+                    token.onCancelled(runCount::increment);
+                    test.assertEqual(0, runCount.get());
+
+                    token.cancel();
+                    test.assertTrue(token.isCancelled());
+                    test.assertEqual(2, runCount.get());
+
+                    token.cancel();
+                    test.assertTrue(token.isCancelled());
+                    test.assertEqual(2, runCount.get());
+                });
+            });
+
+            runner.testGroup("onCancelled(Action0)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final GitCancellationToken token = GitCancellationToken.create();
+                    test.assertThrows(() -> token.onCancelled(null),
+                        new PreConditionFailure("action cannot be null."));
+                });
+
+                runner.test("when already cancelled", (Test test) ->
+                {
+                    final GitCancellationToken token = GitCancellationToken.create().cancel();
+                    final IntegerValue runCount = IntegerValue.create(0);
+                    final GitCancellationToken onCancelledResult = token.onCancelled(runCount::increment);
+                    test.assertSame(token, onCancelledResult);
+                    test.assertEqual(1, runCount.get());
+                });
+            });
+
+            runner.testGroup("removeOnCancelled(Action0)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final GitCancellationToken token = GitCancellationToken.create();
+                    test.assertThrows(() -> token.removeOnCancelled(null),
+                        new PreConditionFailure("action cannot be null."));
+                });
+
+                runner.test("with action that was not registered", (Test test) ->
+                {
+                    final GitCancellationToken token = GitCancellationToken.create();
+                    test.assertFalse(token.removeOnCancelled(() -> {}));
+                });
+
+                runner.test("with action that was registered", (Test test) ->
+                {
+                    final GitCancellationToken token = GitCancellationToken.create();
+                    final IntegerValue runCount = IntegerValue.create(0);
+                    final Action0 action = runCount::increment;
+                    token.onCancelled(action);
+                    test.assertTrue(token.removeOnCancelled(action));
+                    test.assertFalse(token.removeOnCancelled(action));
+
+                    token.cancel();
+                    test.assertEqual(0, runCount.get());
+                });
+            });
+        });
+    }
+}
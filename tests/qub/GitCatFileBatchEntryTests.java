@@ -0,0 +1,127 @@
+package qub;
+
+public interface GitCatFileBatchEntryTests
+{
+    static byte[] toBytes(String text)
+    {
+        return text.getBytes(java.nio.charset.StandardCharsets.UTF_8);
+    }
+
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(GitCatFileBatchEntry.class, () ->
+        {
+            runner.testGroup("createMissing(String)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> GitCatFileBatchEntry.createMissing(null),
+                        new PreConditionFailure("objectName cannot be null."));
+                });
+
+                runner.test("with non-empty", (Test test) ->
+                {
+                    final GitCatFileBatchEntry entry = GitCatFileBatchEntry.createMissing("HEAD~5");
+                    test.assertEqual("HEAD~5", entry.getObjectName());
+                    test.assertTrue(entry.isMissing());
+                    test.assertNull(entry.getObjectType());
+                    test.assertEqual(-1L, entry.getSize());
+                    test.assertFalse(entry.hasContents());
+                    test.assertEqual("HEAD~5 missing", entry.toString());
+                });
+            });
+
+            runner.testGroup("create(String,GitObjectType,long)", () ->
+            {
+                runner.test("with negative size", (Test test) ->
+                {
+                    test.assertThrows(() -> GitCatFileBatchEntry.create("abc", GitObjectType.Blob, -1),
+                        new PreConditionFailure("size (-1) must be greater than or equal to 0."));
+                });
+
+                runner.test("with valid arguments", (Test test) ->
+                {
+                    final GitCatFileBatchEntry entry = GitCatFileBatchEntry.create("abc", GitObjectType.Blob, 10);
+                    test.assertEqual("abc", entry.getObjectName());
+                    test.assertFalse(entry.isMissing());
+                    test.assertEqual(GitObjectType.Blob, entry.getObjectType());
+                    test.assertEqual(10L, entry.getSize());
+                    test.assertFalse(entry.hasContents());
+                    test.assertEqual("abc blob 10", entry.toString());
+                });
+            });
+
+            runner.testGroup("parse(byte[],boolean)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> GitCatFileBatchEntry.parse(null, true),
+                        new PreConditionFailure("output cannot be null."));
+                });
+
+                runner.test("with empty output", (Test test) ->
+                {
+                    test.assertEqual(Iterable.create(), GitCatFileBatchEntry.parse(new byte[0], true).await());
+                });
+
+                runner.test("with --batch-check output", (Test test) ->
+                {
+                    final byte[] output = GitCatFileBatchEntryTests.toBytes(
+                        "8ab686eafeb1f44702738c8b0f24f2567c36da6d commit 243\n" +
+                        "HEAD~100 missing\n" +
+                        "4b825dc642cb6eb9a060e54bf8d69288fbee4904 tree 0\n");
+                    final List<GitCatFileBatchEntry> entries = GitCatFileBatchEntry.parse(output, false).await().toList();
+                    test.assertEqual(3, entries.getCount());
+                    test.assertEqual("8ab686eafeb1f44702738c8b0f24f2567c36da6d commit 243", entries.get(0).toString());
+                    test.assertEqual("HEAD~100 missing", entries.get(1).toString());
+                    test.assertEqual("4b825dc642cb6eb9a060e54bf8d69288fbee4904 tree 0", entries.get(2).toString());
+                    test.assertFalse(entries.get(0).hasContents());
+                });
+
+                runner.test("with --batch output", (Test test) ->
+                {
+                    final byte[] output = GitCatFileBatchEntryTests.toBytes(
+                        "ce013625030ba8dba906f756967f9e9ca394464a blob 6\n" +
+                        "hello\n" +
+                        "\n" +
+                        "nope missing\n" +
+                        "e69de29bb2d1d6434b8b29ae775ad8c2e48c5391 blob 0\n" +
+                        "\n");
+                    final List<GitCatFileBatchEntry> entries = GitCatFileBatchEntry.parse(output, true).await().toList();
+                    test.assertEqual(3, entries.getCount());
+
+                    final GitCatFileBatchEntry hello = entries.get(0);
+                    test.assertEqual("ce013625030ba8dba906f756967f9e9ca394464a", hello.getObjectName());
+                    test.assertEqual(GitObjectType.Blob, hello.getObjectType());
+                    test.assertEqual(6L, hello.getSize());
+                    test.assertTrue(hello.hasContents());
+                    test.assertSame(output, hello.getOutput());
+                    test.assertEqual(48, hello.getContentsStartIndex());
+                    test.assertEqual(GitCatFileBatchEntryTests.toBytes("hello\n"), hello.getContents());
+
+                    test.assertTrue(entries.get(1).isMissing());
+
+                    final GitCatFileBatchEntry empty = entries.get(2);
+                    test.assertEqual(0L, empty.getSize());
+                    test.assertEqual(new byte[0], empty.getContents());
+                });
+
+                runner.test("with truncated contents", (Test test) ->
+                {
+                    final byte[] output = GitCatFileBatchEntryTests.toBytes(
+                        "ce013625030ba8dba906f756967f9e9ca394464a blob 6\n" +
+                        "hel");
+                    test.assertThrows(() -> GitCatFileBatchEntry.parse(output, true).await(),
+                        new ParseException("Expected 6 bytes of contents for object ce013625030ba8dba906f756967f9e9ca394464a."));
+                });
+
+                runner.test("with missing header newline", (Test test) ->
+                {
+                    final byte[] output = GitCatFileBatchEntryTests.toBytes("nope missing");
+                    test.assertThrows(() -> GitCatFileBatchEntry.parse(output, true).await(),
+                        new ParseException("Missing newline at the end of cat-file header line."));
+                });
+            });
+        });
+    }
+}
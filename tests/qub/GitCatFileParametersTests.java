@@ -0,0 +1,204 @@
+package qub;
+
+public interface GitCatFileParametersTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(GitCatFileParameters.class, () ->
+        {
+            GitParametersDecoratorTests.test(runner, GitCatFileParameters::create);
+
+            runner.test("create()", (Test test) ->
+            {
+                final GitCatFileParameters parameters = GitCatFileParameters.create();
+                test.assertNotNull(parameters);
+                test.assertEqual(Path.parse("git"), parameters.getExecutablePath());
+                test.assertEqual(Iterable.create("cat-file"), parameters.getArguments());
+                test.assertEqual(Iterable.create(), parameters.getGitArguments());
+                test.assertEqual(Iterable.create("cat-file"), parameters.getCommandArguments());
+                test.assertNull(parameters.getWorkingFolderPath());
+                test.assertNull(parameters.getInputStream());
+                test.assertNull(parameters.getOutputStreamHandler());
+                test.assertNull(parameters.getErrorStreamHandler());
+            });
+
+            runner.testGroup("create(String)", () ->
+            {
+                final Action2<String,Throwable> createErrorTest = (String executablePath, Throwable expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(executablePath), (Test test) ->
+                    {
+                        test.assertThrows(() -> GitCatFileParameters.create(executablePath),
+                            expected);
+                    });
+                };
+
+                createErrorTest.run(null, new PreConditionFailure("executablePath cannot be null."));
+                createErrorTest.run("", new PreConditionFailure("executablePath cannot be empty."));
+
+                final Action1<String> createTest = (String executablePath) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(executablePath), (Test test) ->
+                    {
+                        final GitCatFileParameters parameters = GitCatFileParameters.create(executablePath);
+                        test.assertNotNull(parameters);
+                        test.assertEqual(Path.parse(executablePath), parameters.getExecutablePath());
+                        test.assertEqual(Iterable.create("cat-file"), parameters.getArguments());
+                        test.assertEqual(Iterable.create(), parameters.getGitArguments());
+                        test.assertEqual(Iterable.create("cat-file"), parameters.getCommandArguments());
+                    });
+                };
+
+                createTest.run("git");
+                createTest.run("/rooted/git.exe");
+            });
+
+            runner.testGroup("create(Path)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> GitCatFileParameters.create((Path)null),
+                        new PreConditionFailure("executablePath cannot be null."));
+                });
+
+                runner.test("with non-null", (Test test) ->
+                {
+                    final GitCatFileParameters parameters = GitCatFileParameters.create(Path.parse("/rooted/git"));
+                    test.assertEqual(Path.parse("/rooted/git"), parameters.getExecutablePath());
+                    test.assertEqual(Iterable.create("cat-file"), parameters.getArguments());
+                });
+            });
+
+            runner.testGroup("create(File)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> GitCatFileParameters.create((File)null),
+                        new PreConditionFailure("executableFile cannot be null."));
+                });
+
+                runner.test("with non-null", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    final File file = fileSystem.getFile("/executable").await();
+                    final GitCatFileParameters parameters = GitCatFileParameters.create(file);
+                    test.assertEqual(file.getPath(), parameters.getExecutablePath());
+                    test.assertEqual(Iterable.create("cat-file"), parameters.getArguments());
+                });
+            });
+
+            final Action2<String,Function1<GitCatFileParameters,GitCatFileParameters>> addFlagTest = (String expectedArgument, Function1<GitCatFileParameters,GitCatFileParameters> addFlag) ->
+            {
+                runner.test("with " + Strings.escapeAndQuote(expectedArgument), (Test test) ->
+                {
+                    final GitCatFileParameters parameters = GitCatFileParameters.create();
+                    final GitCatFileParameters addFlagResult = addFlag.run(parameters);
+                    test.assertSame(parameters, addFlagResult);
+                    test.assertEqual(Iterable.create("cat-file", expectedArgument), parameters.getArguments());
+                    test.assertEqual(Iterable.create(), parameters.getGitArguments());
+                    test.assertEqual(Iterable.create("cat-file", expectedArgument), parameters.getCommandArguments());
+                });
+            };
+
+            addFlagTest.run("-t", GitCatFileParameters::addType);
+            addFlagTest.run("-s", GitCatFileParameters::addSize);
+            addFlagTest.run("-e", GitCatFileParameters::addExists);
+            addFlagTest.run("-p", GitCatFileParameters::addPrettyPrint);
+            addFlagTest.run("--batch", GitCatFileParameters::addBatch);
+            addFlagTest.run("--batch-check", GitCatFileParameters::addBatchCheck);
+            addFlagTest.run("--buffer", GitCatFileParameters::addBuffer);
+
+            runner.test("addBatch() and addBuffer()", (Test test) ->
+            {
+                final GitCatFileParameters parameters = GitCatFileParameters.create()
+                    .addBatch()
+                    .addBuffer();
+                test.assertEqual(Iterable.create("cat-file", "--batch", "--buffer"), parameters.getArguments());
+                test.assertEqual(Iterable.create("cat-file", "--batch", "--buffer"), parameters.getCommandArguments());
+            });
+
+            runner.testGroup("addBatch(String)", () ->
+            {
+                final Action2<String,Throwable> addBatchErrorTest = (String format, Throwable expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(format), (Test test) ->
+                    {
+                        final GitCatFileParameters parameters = GitCatFileParameters.create();
+                        test.assertThrows(() -> parameters.addBatch(format),
+                            expected);
+                        test.assertEqual(Iterable.create("cat-file"), parameters.getArguments());
+                    });
+                };
+
+                addBatchErrorTest.run(null, new PreConditionFailure("format cannot be null."));
+                addBatchErrorTest.run("", new PreConditionFailure("format cannot be empty."));
+
+                runner.test("with \"%(objectname) %(objecttype)\"", (Test test) ->
+                {
+                    final GitCatFileParameters parameters = GitCatFileParameters.create();
+                    final GitCatFileParameters addBatchResult = parameters.addBatch("%(objectname) %(objecttype)");
+                    test.assertSame(parameters, addBatchResult);
+                    test.assertEqual(Iterable.create("cat-file", "--batch=%(objectname) %(objecttype)"), parameters.getArguments());
+                });
+            });
+
+            runner.testGroup("addBatchCheck(String)", () ->
+            {
+                final Action2<String,Throwable> addBatchCheckErrorTest = (String format, Throwable expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(format), (Test test) ->
+                    {
+                        final GitCatFileParameters parameters = GitCatFileParameters.create();
+                        test.assertThrows(() -> parameters.addBatchCheck(format),
+                            expected);
+                        test.assertEqual(Iterable.create("cat-file"), parameters.getArguments());
+                    });
+                };
+
+                addBatchCheckErrorTest.run(null, new PreConditionFailure("format cannot be null."));
+                addBatchCheckErrorTest.run("", new PreConditionFailure("format cannot be empty."));
+
+                runner.test("with \"%(objectname)\"", (Test test) ->
+                {
+                    final GitCatFileParameters parameters = GitCatFileParameters.create();
+                    final GitCatFileParameters addBatchCheckResult = parameters.addBatchCheck("%(objectname)");
+                    test.assertSame(parameters, addBatchCheckResult);
+                    test.assertEqual(Iterable.create("cat-file", "--batch-check=%(objectname)"), parameters.getArguments());
+                });
+            });
+
+            runner.testGroup("addObject(String)", () ->
+            {
+                final Action2<String,Throwable> addObjectErrorTest = (String object, Throwable expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(object), (Test test) ->
+                    {
+                        final GitCatFileParameters parameters = GitCatFileParameters.create();
+                        test.assertThrows(() -> parameters.addObject(object),
+                            expected);
+                        test.assertEqual(Iterable.create("cat-file"), parameters.getArguments());
+                    });
+                };
+
+                addObjectErrorTest.run(null, new PreConditionFailure("object cannot be null."));
+                addObjectErrorTest.run("", new PreConditionFailure("object cannot be empty."));
+
+                final Action1<String> addObjectTest = (String object) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(object), (Test test) ->
+                    {
+                        final GitCatFileParameters parameters = GitCatFileParameters.create();
+                        final GitCatFileParameters addObjectResult = parameters.addObject(object);
+                        test.assertSame(parameters, addObjectResult);
+                        test.assertEqual(Iterable.create("cat-file", object), parameters.getArguments());
+                        test.assertEqual(Iterable.create("cat-file", object), parameters.getCommandArguments());
+                    });
+                };
+
+                addObjectTest.run("HEAD");
+                addObjectTest.run("HEAD^{tree}");
+                addObjectTest.run("8ab686eafeb1f44702738c8b0f24f2567c36da6d");
+            });
+        });
+    }
+}
@@ -0,0 +1,79 @@
+package qub;
+
+public interface GitChangedPathKeysTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(GitChangedPathKeys.class, () ->
+        {
+            runner.testGroup("murmur3(byte[],int,boolean)", () ->
+            {
+                final Action3<String,Integer,Integer> murmur3Test = (String text, Integer seed, Integer expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(text) + " and seed " + seed, (Test test) ->
+                    {
+                        test.assertEqual(expected, GitChangedPathKeys.murmur3(GitPackFileTests.toBytes(text), seed, false));
+                    });
+                };
+
+                murmur3Test.run("", 0, 0x00000000);
+                murmur3Test.run("Hello world!", 0, 0x627b0c2c);
+                murmur3Test.run("The quick brown fox jumps over the lazy dog", 0, 0x2e4ff723);
+
+                runner.test("with bytes that have their high bit set", (Test test) ->
+                {
+                    final byte[] bytes = new byte[] { (byte)0xE9, 'a', (byte)0xFF };
+                    test.assertEqual(
+                        GitChangedPathKeys.murmur3(new byte[] { 'a', 'b', 'c' }, 0, true),
+                        GitChangedPathKeys.murmur3(new byte[] { 'a', 'b', 'c' }, 0, false));
+                    test.assertTrue(GitChangedPathKeys.murmur3(bytes, 0, true) != GitChangedPathKeys.murmur3(bytes, 0, false));
+                });
+            });
+
+            runner.test("getKey(byte[],int,boolean)", (Test test) ->
+            {
+                final byte[] path = GitPackFileTests.toBytes("sources/qub");
+                final int[] key = GitChangedPathKeys.getKey(path, 7, false);
+                test.assertEqual(7, key.length);
+                final int hash0 = GitChangedPathKeys.murmur3(path, 0x293ae76f, false);
+                final int hash1 = GitChangedPathKeys.murmur3(path, 0x7e646e2c, false);
+                for (int i = 0; i < key.length; ++i)
+                {
+                    test.assertEqual(hash0 + (i * hash1), key[i]);
+                }
+            });
+
+            runner.testGroup("create(String)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> GitChangedPathKeys.create(null),
+                        new PreConditionFailure("path cannot be null."));
+                });
+
+                runner.test("with nested path", (Test test) ->
+                {
+                    final GitChangedPathKeys pathKeys = GitChangedPathKeys.create("sources/qub/Git.java");
+                    final int[][] keys = pathKeys.getKeys(2, 7);
+                    test.assertEqual(3, keys.length);
+                    test.assertTrue(java.util.Arrays.equals(GitChangedPathKeys.getKey(GitPackFileTests.toBytes("sources/qub/Git.java"), 7, false), keys[0]));
+                    test.assertTrue(java.util.Arrays.equals(GitChangedPathKeys.getKey(GitPackFileTests.toBytes("sources/qub"), 7, false), keys[1]));
+                    test.assertTrue(java.util.Arrays.equals(GitChangedPathKeys.getKey(GitPackFileTests.toBytes("sources"), 7, false), keys[2]));
+                    test.assertSame(keys, pathKeys.getKeys(2, 7));
+                    test.assertTrue(java.util.Arrays.equals(GitChangedPathKeys.getKey(GitPackFileTests.toBytes("sources"), 5, true), pathKeys.getKeys(1, 5)[2]));
+                });
+            });
+
+            runner.test("mightContain(GitPackData,long,long,int[])", (Test test) ->
+            {
+                final int[] key = GitChangedPathKeys.getKey(GitPackFileTests.toBytes("README.md"), 7, false);
+                final byte[] filter = GitCommitGraphTests.CommitGraphBuilder.createBloomFilter(new String[] { "README.md" }, 2);
+                final byte[] bytes = new byte[filter.length + 3];
+                System.arraycopy(filter, 0, bytes, 3, filter.length);
+                final GitPackData data = GitPackData.wrap(bytes, 1024);
+                test.assertTrue(GitChangedPathKeys.mightContain(data, 3, filter.length, key));
+                test.assertFalse(GitChangedPathKeys.mightContain(GitPackData.wrap(new byte[filter.length], 1024), 0, filter.length, key));
+            });
+        });
+    }
+}
@@ -0,0 +1,104 @@
+package qub;
+
+public interface GitCheckAttrEntryTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(GitCheckAttrEntry.class, () ->
+        {
+            runner.testGroup("create(String,String,String)", () ->
+            {
+                final Action2<Function0<GitCheckAttrEntry>,Throwable> createErrorTest = (Function0<GitCheckAttrEntry> creator, Throwable expected) ->
+                {
+                    runner.test("with " + expected.getMessage(), (Test test) ->
+                    {
+                        test.assertThrows(creator::run, expected);
+                    });
+                };
+
+                createErrorTest.run(() -> GitCheckAttrEntry.create(null, "text", "set"), new PreConditionFailure("path cannot be null."));
+                createErrorTest.run(() -> GitCheckAttrEntry.create("", "text", "set"), new PreConditionFailure("path cannot be empty."));
+                createErrorTest.run(() -> GitCheckAttrEntry.create("a.txt", null, "set"), new PreConditionFailure("attribute cannot be null."));
+                createErrorTest.run(() -> GitCheckAttrEntry.create("a.txt", "", "set"), new PreConditionFailure("attribute cannot be empty."));
+                createErrorTest.run(() -> GitCheckAttrEntry.create("a.txt", "text", null), new PreConditionFailure("value cannot be null."));
+
+                final Action1<String> createTest = (String value) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(value), (Test test) ->
+                    {
+                        final GitCheckAttrEntry entry = GitCheckAttrEntry.create("a.txt", "text", value);
+                        test.assertEqual("a.txt", entry.getPath());
+                        test.assertEqual("text", entry.getAttribute());
+                        test.assertEqual(value, entry.getValue());
+                        test.assertEqual(value.equals("unspecified"), entry.isUnspecified());
+                        test.assertEqual(value.equals("set"), entry.isSet());
+                        test.assertEqual(value.equals("unset"), entry.isUnset());
+                        test.assertEqual("a.txt: text: " + value, entry.toString());
+                    });
+                };
+
+                createTest.run("unspecified");
+                createTest.run("set");
+                createTest.run("unset");
+                createTest.run("lf");
+            });
+
+            runner.testGroup("parse(byte[])", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> GitCheckAttrEntry.parse((byte[])null),
+                        new PreConditionFailure("output cannot be null."));
+                });
+
+                runner.test("with empty", (Test test) ->
+                {
+                    test.assertEqual(Iterable.create(), GitCheckAttrEntry.parse(new byte[0]).await());
+                });
+
+                runner.test("with two entries", (Test test) ->
+                {
+                    final byte[] output = "a.txt\0text\0set\0b.bin\0eol\0unspecified\0".getBytes(java.nio.charset.StandardCharsets.UTF_8);
+                    final List<GitCheckAttrEntry> entries = GitCheckAttrEntry.parse(output).await().toList();
+                    test.assertEqual(2, entries.getCount());
+                    test.assertEqual("a.txt: text: set", entries.get(0).toString());
+                    test.assertEqual("b.bin: eol: unspecified", entries.get(1).toString());
+                });
+
+                runner.test("with incomplete entry", (Test test) ->
+                {
+                    final byte[] output = "a.txt\0text\0".getBytes(java.nio.charset.StandardCharsets.UTF_8);
+                    test.assertThrows(() -> GitCheckAttrEntry.parse(output).await(),
+                        new ParseException("Expected check-attr output to contain a multiple of 3 fields, but found 2."));
+                });
+            });
+
+            runner.testGroup("parse(GitOutputBuffer)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> GitCheckAttrEntry.parse((GitOutputBuffer)null),
+                        new PreConditionFailure("output cannot be null."));
+                });
+
+                runner.test("with entries", (Test test) ->
+                {
+                    final GitOutputBuffer output = GitOutputBuffer.create()
+                        .write("a.txt\0text\0set\0b.bin\0text\0unset\0".getBytes(java.nio.charset.StandardCharsets.UTF_8));
+                    final Iterable<GitCheckAttrEntry> entries = GitCheckAttrEntry.parse(output).await();
+                    test.assertEqual(
+                        Iterable.create("a.txt: text: set", "b.bin: text: unset"),
+                        entries.map(GitCheckAttrEntry::toString));
+                });
+
+                runner.test("with incomplete entry", (Test test) ->
+                {
+                    final GitOutputBuffer output = GitOutputBuffer.create()
+                        .write("a.txt\0text\0".getBytes(java.nio.charset.StandardCharsets.UTF_8));
+                    test.assertThrows(() -> GitCheckAttrEntry.parse(output).await(),
+                        new ParseException("Expected check-attr output to contain a multiple of 3 fields, but found 2."));
+                });
+            });
+        });
+    }
+}
@@ -0,0 +1,174 @@
+package qub;
+
+public interface GitCheckAttrParametersTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(GitCheckAttrParameters.class, () ->
+        {
+            GitParametersDecoratorTests.test(runner, GitCheckAttrParameters::create);
+
+            runner.test("create()", (Test test) ->
+            {
+                final GitCheckAttrParameters parameters = GitCheckAttrParameters.create();
+                test.assertNotNull(parameters);
+                test.assertEqual(Path.parse("git"), parameters.getExecutablePath());
+                test.assertEqual(Iterable.create("check-attr"), parameters.getArguments());
+                test.assertEqual(Iterable.create(), parameters.getGitArguments());
+                test.assertEqual(Iterable.create("check-attr"), parameters.getCommandArguments());
+                test.assertNull(parameters.getWorkingFolderPath());
+                test.assertNull(parameters.getInputStream());
+                test.assertNull(parameters.getOutputStreamHandler());
+                test.assertNull(parameters.getErrorStreamHandler());
+            });
+
+            runner.testGroup("create(String)", () ->
+            {
+                final Action2<String,Throwable> createErrorTest = (String executablePath, Throwable expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(executablePath), (Test test) ->
+                    {
+                        test.assertThrows(() -> GitCheckAttrParameters.create(executablePath),
+                            expected);
+                    });
+                };
+
+                createErrorTest.run(null, new PreConditionFailure("executablePath cannot be null."));
+                createErrorTest.run("", new PreConditionFailure("executablePath cannot be empty."));
+
+                final Action1<String> createTest = (String executablePath) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(executablePath), (Test test) ->
+                    {
+                        final GitCheckAttrParameters parameters = GitCheckAttrParameters.create(executablePath);
+                        test.assertNotNull(parameters);
+                        test.assertEqual(Path.parse(executablePath), parameters.getExecutablePath());
+                        test.assertEqual(Iterable.create("check-attr"), parameters.getArguments());
+                        test.assertEqual(Iterable.create(), parameters.getGitArguments());
+                        test.assertEqual(Iterable.create("check-attr"), parameters.getCommandArguments());
+                    });
+                };
+
+                createTest.run("git");
+                createTest.run("/rooted/git.exe");
+            });
+
+            runner.testGroup("create(Path)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> GitCheckAttrParameters.create((Path)null),
+                        new PreConditionFailure("executablePath cannot be null."));
+                });
+
+                runner.test("with non-null", (Test test) ->
+                {
+                    final GitCheckAttrParameters parameters = GitCheckAttrParameters.create(Path.parse("/rooted/git"));
+                    test.assertEqual(Path.parse("/rooted/git"), parameters.getExecutablePath());
+                    test.assertEqual(Iterable.create("check-attr"), parameters.getArguments());
+                });
+            });
+
+            runner.testGroup("create(File)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> GitCheckAttrParameters.create((File)null),
+                        new PreConditionFailure("executableFile cannot be null."));
+                });
+
+                runner.test("with non-null", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    final File file = fileSystem.getFile("/executable").await();
+                    final GitCheckAttrParameters parameters = GitCheckAttrParameters.create(file);
+                    test.assertEqual(file.getPath(), parameters.getExecutablePath());
+                    test.assertEqual(Iterable.create("check-attr"), parameters.getArguments());
+                });
+            });
+
+            final Action2<String,Function1<GitCheckAttrParameters,GitCheckAttrParameters>> addFlagTest = (String expectedArgument, Function1<GitCheckAttrParameters,GitCheckAttrParameters> addFlag) ->
+            {
+                runner.test("with " + Strings.escapeAndQuote(expectedArgument), (Test test) ->
+                {
+                    final GitCheckAttrParameters parameters = GitCheckAttrParameters.create();
+                    final GitCheckAttrParameters addFlagResult = addFlag.run(parameters);
+                    test.assertSame(parameters, addFlagResult);
+                    test.assertEqual(Iterable.create("check-attr", expectedArgument), parameters.getArguments());
+                    test.assertEqual(Iterable.create(), parameters.getGitArguments());
+                    test.assertEqual(Iterable.create("check-attr", expectedArgument), parameters.getCommandArguments());
+                });
+            };
+
+            addFlagTest.run("--all", GitCheckAttrParameters::addAll);
+            addFlagTest.run("--cached", GitCheckAttrParameters::addCached);
+            addFlagTest.run("--stdin", GitCheckAttrParameters::addStdin);
+            addFlagTest.run("-z", GitCheckAttrParameters::addZ);
+            addFlagTest.run("--", GitCheckAttrParameters::addPathSeparator);
+
+            runner.testGroup("addAttribute(String)", () ->
+            {
+                final Action2<String,Throwable> addAttributeErrorTest = (String attribute, Throwable expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(attribute), (Test test) ->
+                    {
+                        final GitCheckAttrParameters parameters = GitCheckAttrParameters.create();
+                        test.assertThrows(() -> parameters.addAttribute(attribute),
+                            expected);
+                        test.assertEqual(Iterable.create("check-attr"), parameters.getArguments());
+                    });
+                };
+
+                addAttributeErrorTest.run(null, new PreConditionFailure("attribute cannot be null."));
+                addAttributeErrorTest.run("", new PreConditionFailure("attribute cannot be empty."));
+
+                final Action1<String> addAttributeTest = (String attribute) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(attribute), (Test test) ->
+                    {
+                        final GitCheckAttrParameters parameters = GitCheckAttrParameters.create();
+                        final GitCheckAttrParameters addAttributeResult = parameters.addAttribute(attribute);
+                        test.assertSame(parameters, addAttributeResult);
+                        test.assertEqual(Iterable.create("check-attr", attribute), parameters.getArguments());
+                        test.assertEqual(Iterable.create("check-attr", attribute), parameters.getCommandArguments());
+                    });
+                };
+
+                addAttributeTest.run("text");
+                addAttributeTest.run("eol");
+            });
+
+            runner.testGroup("addPath(String)", () ->
+            {
+                final Action2<String,Throwable> addPathErrorTest = (String path, Throwable expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(path), (Test test) ->
+                    {
+                        final GitCheckAttrParameters parameters = GitCheckAttrParameters.create();
+                        test.assertThrows(() -> parameters.addPath(path),
+                            expected);
+                        test.assertEqual(Iterable.create("check-attr"), parameters.getArguments());
+                    });
+                };
+
+                addPathErrorTest.run(null, new PreConditionFailure("path cannot be null."));
+                addPathErrorTest.run("", new PreConditionFailure("path cannot be empty."));
+
+                final Action1<String> addPathTest = (String path) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(path), (Test test) ->
+                    {
+                        final GitCheckAttrParameters parameters = GitCheckAttrParameters.create();
+                        final GitCheckAttrParameters addPathResult = parameters.addPath(path);
+                        test.assertSame(parameters, addPathResult);
+                        test.assertEqual(Iterable.create("check-attr", path), parameters.getArguments());
+                        test.assertEqual(Iterable.create("check-attr", path), parameters.getCommandArguments());
+                    });
+                };
+
+                addPathTest.run("file.txt");
+                addPathTest.run("folder/file.txt");
+            });
+        });
+    }
+}
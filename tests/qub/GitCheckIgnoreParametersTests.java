@@ -0,0 +1,143 @@
+package qub;
+
+public interface GitCheckIgnoreParametersTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(GitCheckIgnoreParameters.class, () ->
+        {
+            GitParametersDecoratorTests.test(runner, GitCheckIgnoreParameters::create);
+
+            runner.test("create()", (Test test) ->
+            {
+                final GitCheckIgnoreParameters parameters = GitCheckIgnoreParameters.create();
+                test.assertNotNull(parameters);
+                test.assertEqual(Path.parse("git"), parameters.getExecutablePath());
+                test.assertEqual(Iterable.create("check-ignore"), parameters.getArguments());
+                test.assertEqual(Iterable.create(), parameters.getGitArguments());
+                test.assertEqual(Iterable.create("check-ignore"), parameters.getCommandArguments());
+                test.assertNull(parameters.getWorkingFolderPath());
+                test.assertNull(parameters.getInputStream());
+                test.assertNull(parameters.getOutputStreamHandler());
+                test.assertNull(parameters.getErrorStreamHandler());
+            });
+
+            runner.testGroup("create(String)", () ->
+            {
+                final Action2<String,Throwable> createErrorTest = (String executablePath, Throwable expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(executablePath), (Test test) ->
+                    {
+                        test.assertThrows(() -> GitCheckIgnoreParameters.create(executablePath),
+                            expected);
+                    });
+                };
+
+                createErrorTest.run(null, new PreConditionFailure("executablePath cannot be null."));
+                createErrorTest.run("", new PreConditionFailure("executablePath cannot be empty."));
+
+                final Action1<String> createTest = (String executablePath) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(executablePath), (Test test) ->
+                    {
+                        final GitCheckIgnoreParameters parameters = GitCheckIgnoreParameters.create(executablePath);
+                        test.assertNotNull(parameters);
+                        test.assertEqual(Path.parse(executablePath), parameters.getExecutablePath());
+                        test.assertEqual(Iterable.create("check-ignore"), parameters.getArguments());
+                        test.assertEqual(Iterable.create(), parameters.getGitArguments());
+                        test.assertEqual(Iterable.create("check-ignore"), parameters.getCommandArguments());
+                    });
+                };
+
+                createTest.run("git");
+                createTest.run("/rooted/git.exe");
+            });
+
+            runner.testGroup("create(Path)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> GitCheckIgnoreParameters.create((Path)null),
+                        new PreConditionFailure("executablePath cannot be null."));
+                });
+
+                runner.test("with non-null", (Test test) ->
+                {
+                    final GitCheckIgnoreParameters parameters = GitCheckIgnoreParameters.create(Path.parse("/rooted/git"));
+                    test.assertEqual(Path.parse("/rooted/git"), parameters.getExecutablePath());
+                    test.assertEqual(Iterable.create("check-ignore"), parameters.getArguments());
+                });
+            });
+
+            runner.testGroup("create(File)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> GitCheckIgnoreParameters.create((File)null),
+                        new PreConditionFailure("executableFile cannot be null."));
+                });
+
+                runner.test("with non-null", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    final File file = fileSystem.getFile("/executable").await();
+                    final GitCheckIgnoreParameters parameters = GitCheckIgnoreParameters.create(file);
+                    test.assertEqual(file.getPath(), parameters.getExecutablePath());
+                    test.assertEqual(Iterable.create("check-ignore"), parameters.getArguments());
+                });
+            });
+
+            final Action2<String,Function1<GitCheckIgnoreParameters,GitCheckIgnoreParameters>> addFlagTest = (String expectedArgument, Function1<GitCheckIgnoreParameters,GitCheckIgnoreParameters> addFlag) ->
+            {
+                runner.test("with " + Strings.escapeAndQuote(expectedArgument), (Test test) ->
+                {
+                    final GitCheckIgnoreParameters parameters = GitCheckIgnoreParameters.create();
+                    final GitCheckIgnoreParameters addFlagResult = addFlag.run(parameters);
+                    test.assertSame(parameters, addFlagResult);
+                    test.assertEqual(Iterable.create("check-ignore", expectedArgument), parameters.getArguments());
+                    test.assertEqual(Iterable.create(), parameters.getGitArguments());
+                    test.assertEqual(Iterable.create("check-ignore", expectedArgument), parameters.getCommandArguments());
+                });
+            };
+
+            addFlagTest.run("--quiet", GitCheckIgnoreParameters::addQuiet);
+            addFlagTest.run("--verbose", GitCheckIgnoreParameters::addVerbose);
+            addFlagTest.run("--stdin", GitCheckIgnoreParameters::addStdin);
+            addFlagTest.run("-z", GitCheckIgnoreParameters::addZ);
+            addFlagTest.run("--non-matching", GitCheckIgnoreParameters::addNonMatching);
+            addFlagTest.run("--no-index", GitCheckIgnoreParameters::addNoIndex);
+
+            runner.testGroup("addPath(String)", () ->
+            {
+                final Action2<String,Throwable> addPathErrorTest = (String path, Throwable expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(path), (Test test) ->
+                    {
+                        final GitCheckIgnoreParameters parameters = GitCheckIgnoreParameters.create();
+                        test.assertThrows(() -> parameters.addPath(path),
+                            expected);
+                        test.assertEqual(Iterable.create("check-ignore"), parameters.getArguments());
+                    });
+                };
+
+                addPathErrorTest.run(null, new PreConditionFailure("path cannot be null."));
+                addPathErrorTest.run("", new PreConditionFailure("path cannot be empty."));
+
+                final Action1<String> addPathTest = (String path) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(path), (Test test) ->
+                    {
+                        final GitCheckIgnoreParameters parameters = GitCheckIgnoreParameters.create();
+                        final GitCheckIgnoreParameters addPathResult = parameters.addPath(path);
+                        test.assertSame(parameters, addPathResult);
+                        test.assertEqual(Iterable.create("check-ignore", path), parameters.getArguments());
+                        test.assertEqual(Iterable.create("check-ignore", path), parameters.getCommandArguments());
+                    });
+                };
+
+                addPathTest.run("file.txt");
+                addPathTest.run("folder/file.txt");
+            });
+        });
+    }
+}
@@ -0,0 +1,102 @@
+package qub;
+
+public interface GitChunkTableTests
+{
+    /**
+     * Create the bytes of a chunk-format file.
+     * @param header The header of the file, which must include the chunk count.
+     * @param chunkIds The ids of the chunks.
+     * @param chunks The contents of the chunks.
+     * @return The bytes of the file, followed by a SHA-1 checksum.
+     */
+    static byte[] createChunkFile(byte[] header, java.util.List<Integer> chunkIds, java.util.List<byte[]> chunks)
+    {
+        final java.io.ByteArrayOutputStream result = new java.io.ByteArrayOutputStream();
+        result.write(header, 0, header.length);
+
+        final java.nio.ByteBuffer table = java.nio.ByteBuffer.allocate((chunks.size() + 1) * 12);
+        long chunkOffset = header.length + table.capacity();
+        for (int i = 0; i < chunks.size(); ++i)
+        {
+            table.putInt(chunkIds.get(i));
+            table.putLong(chunkOffset);
+            chunkOffset += chunks.get(i).length;
+        }
+        table.putInt(0);
+        table.putLong(chunkOffset);
+        result.write(table.array(), 0, table.capacity());
+
+        for (final byte[] chunk : chunks)
+        {
+            result.write(chunk, 0, chunk.length);
+        }
+
+        final byte[] checksum = GitPackFileTests.sha1(result.toByteArray());
+        result.write(checksum, 0, checksum.length);
+        return result.toByteArray();
+    }
+
+    static GitPackData createChunkFileData(int... chunkIdsAndLengths)
+    {
+        final java.util.List<Integer> chunkIds = new java.util.ArrayList<>();
+        final java.util.List<byte[]> chunks = new java.util.ArrayList<>();
+        for (int i = 0; i < chunkIdsAndLengths.length; i += 2)
+        {
+            chunkIds.add(chunkIdsAndLengths[i]);
+            chunks.add(new byte[chunkIdsAndLengths[i + 1]]);
+        }
+        return GitPackData.wrap(GitChunkTableTests.createChunkFile(new byte[4], chunkIds, chunks), 1024);
+    }
+
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(GitChunkTable.class, () ->
+        {
+            runner.testGroup("parse(GitPackData,long,int,long,String)", () ->
+            {
+                runner.test("with null data", (Test test) ->
+                {
+                    test.assertThrows(() -> GitChunkTable.parse(null, 0, 0, 0, "test file"),
+                        new PreConditionFailure("data cannot be null."));
+                });
+
+                runner.test("with table past the end of the data", (Test test) ->
+                {
+                    final GitPackData data = GitChunkTableTests.createChunkFileData(0x41424344, 8);
+                    test.assertThrows(() -> GitChunkTable.parse(data, 4, 3, data.getLength() - 20, "test file"),
+                        new ParseException("The test file chunk table is invalid."));
+                });
+
+                runner.test("with chunk past the end of the data", (Test test) ->
+                {
+                    final GitPackData data = GitChunkTableTests.createChunkFileData(0x41424344, 8);
+                    test.assertThrows(() -> GitChunkTable.parse(data, 4, 1, data.getLength() - 21, "test file"),
+                        new ParseException("The test file chunk table is invalid."));
+                });
+
+                runner.test("with chunks", (Test test) ->
+                {
+                    final GitPackData data = GitChunkTableTests.createChunkFileData(0x41424344, 8, 0x45464748, 12);
+                    final GitChunkTable chunkTable = GitChunkTable.parse(data, 4, 2, data.getLength() - 20, "test file");
+                    test.assertTrue(chunkTable.contains(0x41424344));
+                    test.assertEqual(4L + 36, chunkTable.getStart(0x41424344));
+                    test.assertEqual(8L, chunkTable.getLength(0x41424344));
+                    test.assertEqual(4L + 36 + 8, chunkTable.getRequiredStart(0x45464748));
+                    test.assertEqual(12L, chunkTable.getLength(0x45464748));
+
+                    test.assertFalse(chunkTable.contains(0x494A4B4C));
+                    test.assertEqual(-1L, chunkTable.getStart(0x494A4B4C));
+                    test.assertEqual(0L, chunkTable.getLength(0x494A4B4C));
+                    test.assertThrows(() -> chunkTable.getRequiredStart(0x494A4B4C),
+                        new ParseException("The test file is missing its required IJKL chunk."));
+                });
+            });
+
+            runner.test("getChunkName(int)", (Test test) ->
+            {
+                test.assertEqual("OIDF", GitChunkTable.getChunkName(0x4F494446));
+                test.assertEqual("CDAT", GitChunkTable.getChunkName(0x43444154));
+            });
+        });
+    }
+}
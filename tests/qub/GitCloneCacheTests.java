@@ -0,0 +1,429 @@
+package qub;
+
+public interface GitCloneCacheTests
+{
+    String repository = "https://github.com/owner/repo";
+
+    static FakeDesktopProcess createProcess(TestResources resources)
+    {
+        final FakeDesktopProcess result = resources.createFakeDesktopProcess();
+        result.getFileSystem().createRoot("/").await();
+        return result;
+    }
+
+    static GitCloneCache createCache(FakeDesktopProcess process, ManualClock clock)
+    {
+        final Folder cacheFolder = process.getFileSystem().getFolder("/cache/").await();
+        return GitCloneCache.create(Git.create(process), cacheFolder, clock);
+    }
+
+    static FakeChildProcessRun createMirrorRun(GitCloneCache cache, int exitCode)
+    {
+        final Folder newMirrorFolder = GitCloneCacheTests.getNewMirrorFolder(cache);
+        return FakeChildProcessRun.create("git", "clone", "--mirror", "--quiet", "--config=gc.auto=0", "--config=maintenance.auto=false", GitCloneCacheTests.repository, newMirrorFolder.toString())
+            .setAction((FakeDesktopProcess childProcess) ->
+            {
+                if (exitCode == 0)
+                {
+                    newMirrorFolder.createFile("HEAD").await().setContentsAsString("ref: refs/heads/main\n").await();
+                    newMirrorFolder.createFile("objects/pack/pack-1234.pack").await();
+                }
+                childProcess.setExitCode(exitCode);
+            });
+    }
+
+    static FakeChildProcessRun createFetchRun(GitCloneCache cache, int exitCode)
+    {
+        return FakeChildProcessRun.create("git", "-c", "gc.auto=0", "-c", "maintenance.auto=false", "fetch", "--prune", "--quiet", "origin")
+            .setWorkingFolder(cache.getMirrorFolder(GitCloneCacheTests.repository).getPath())
+            .setAction((FakeDesktopProcess childProcess) ->
+            {
+                childProcess.setExitCode(exitCode);
+            });
+    }
+
+    static Folder getNewMirrorFolder(GitCloneCache cache)
+    {
+        return cache.getCacheFolder().getFolder(GitCloneCache.getMirrorName(GitCloneCacheTests.repository) + ".new").await();
+    }
+
+    static Folder getOldMirrorFolder(GitCloneCache cache)
+    {
+        return cache.getCacheFolder().getFolder(GitCloneCache.getMirrorName(GitCloneCacheTests.repository) + ".old").await();
+    }
+
+    static File getNewRefreshedFile(GitCloneCache cache)
+    {
+        return cache.getCacheFolder().getFile(GitCloneCache.getMirrorName(GitCloneCacheTests.repository) + ".refreshed.new").await();
+    }
+
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(GitCloneCache.class, () ->
+        {
+            runner.testGroup("create(Git,Folder,Clock)", () ->
+            {
+                runner.test("with null git",
+                    (TestResources resources) -> Tuple.create(GitCloneCacheTests.createProcess(resources)),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final Folder cacheFolder = process.getFileSystem().getFolder("/cache/").await();
+                    test.assertThrows(() -> GitCloneCache.create(null, cacheFolder, ManualClock.create(DateTime.create(2026, 1, 1))),
+                        new PreConditionFailure("git cannot be null."));
+                });
+
+                runner.test("with null cacheFolder",
+                    (TestResources resources) -> Tuple.create(GitCloneCacheTests.createProcess(resources)),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    test.assertThrows(() -> GitCloneCache.create(Git.create(process), null, ManualClock.create(DateTime.create(2026, 1, 1))),
+                        new PreConditionFailure("cacheFolder cannot be null."));
+                });
+
+                runner.test("with null clock",
+                    (TestResources resources) -> Tuple.create(GitCloneCacheTests.createProcess(resources)),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final Folder cacheFolder = process.getFileSystem().getFolder("/cache/").await();
+                    test.assertThrows(() -> GitCloneCache.create(Git.create(process), cacheFolder, null),
+                        new PreConditionFailure("clock cannot be null."));
+                });
+
+                runner.test("with valid arguments",
+                    (TestResources resources) -> Tuple.create(GitCloneCacheTests.createProcess(resources)),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final GitCloneCache cache = GitCloneCacheTests.createCache(process, ManualClock.create(DateTime.create(2026, 1, 1)));
+                    test.assertEqual(process.getFileSystem().getFolder("/cache/").await(), cache.getCacheFolder());
+                    test.assertEqual(GitCloneCache.defaultRefreshInterval, cache.getRefreshInterval());
+                    test.assertFalse(cache.getDissociate());
+                });
+            });
+
+            runner.testGroup("setRefreshInterval(Duration)", () ->
+            {
+                runner.test("with null",
+                    (TestResources resources) -> Tuple.create(GitCloneCacheTests.createProcess(resources)),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final GitCloneCache cache = GitCloneCacheTests.createCache(process, ManualClock.create(DateTime.create(2026, 1, 1)));
+                    test.assertThrows(() -> cache.setRefreshInterval(null),
+                        new PreConditionFailure("refreshInterval cannot be null."));
+                    test.assertEqual(GitCloneCache.defaultRefreshInterval, cache.getRefreshInterval());
+                });
+
+                runner.test("with negative",
+                    (TestResources resources) -> Tuple.create(GitCloneCacheTests.createProcess(resources)),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final GitCloneCache cache = GitCloneCacheTests.createCache(process, ManualClock.create(DateTime.create(2026, 1, 1)));
+                    test.assertThrows(() -> cache.setRefreshInterval(Duration.seconds(-1)),
+                        new PreConditionFailure("refreshInterval.greaterThanOrEqualTo(Duration.zero) cannot be false."));
+                });
+
+                runner.test("with positive",
+                    (TestResources resources) -> Tuple.create(GitCloneCacheTests.createProcess(resources)),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final GitCloneCache cache = GitCloneCacheTests.createCache(process, ManualClock.create(DateTime.create(2026, 1, 1)));
+                    final GitCloneCache setRefreshIntervalResult = cache.setRefreshInterval(Duration.hours(1));
+                    test.assertSame(cache, setRefreshIntervalResult);
+                    test.assertEqual(Duration.hours(1), cache.getRefreshInterval());
+                });
+            });
+
+            runner.test("setDissociate(boolean)",
+                (TestResources resources) -> Tuple.create(GitCloneCacheTests.createProcess(resources)),
+                (Test test, FakeDesktopProcess process) ->
+            {
+                final GitCloneCache cache = GitCloneCacheTests.createCache(process, ManualClock.create(DateTime.create(2026, 1, 1)));
+                final GitCloneCache setDissociateResult = cache.setDissociate(true);
+                test.assertSame(cache, setDissociateResult);
+                test.assertTrue(cache.getDissociate());
+            });
+
+            runner.testGroup("getMirrorName(String)", () ->
+            {
+                final Action2<String,Throwable> getMirrorNameErrorTest = (String repository, Throwable expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(repository), (Test test) ->
+                    {
+                        test.assertThrows(() -> GitCloneCache.getMirrorName(repository),
+                            expected);
+                    });
+                };
+
+                getMirrorNameErrorTest.run(null, new PreConditionFailure("repository cannot be null."));
+                getMirrorNameErrorTest.run("", new PreConditionFailure("repository cannot be empty."));
+
+                final Action2<String,String> getMirrorNameTest = (String repository, String expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(repository), (Test test) ->
+                    {
+                        test.assertEqual(expected, GitCloneCache.getMirrorName(repository));
+                    });
+                };
+
+                getMirrorNameTest.run("https://github.com/owner/repo", "repo-d7606d02f5e08d7c.git");
+                getMirrorNameTest.run("https://github.com/owner/repo/", "repo-d7606d02f5e08d7c.git");
+                getMirrorNameTest.run("https://github.com/owner/repo.git", "repo-bc40893b43beea63.git");
+                getMirrorNameTest.run("git@github.com:owner/repo", "repo-263ca9d6f12c42b4.git");
+                getMirrorNameTest.run("C:\\repos\\my repo", "my_repo-24b552bfddeacbac.git");
+                getMirrorNameTest.run("/", "repository-8a5edab282632443.git");
+            });
+
+            runner.testGroup("update(String)", () ->
+            {
+                runner.test("with null repository",
+                    (TestResources resources) -> Tuple.create(GitCloneCacheTests.createProcess(resources)),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final GitCloneCache cache = GitCloneCacheTests.createCache(process, ManualClock.create(DateTime.create(2026, 1, 1)));
+                    test.assertThrows(() -> cache.update(null),
+                        new PreConditionFailure("repository cannot be null."));
+                });
+
+                runner.test("with new, fresh, and stale mirror",
+                    (TestResources resources) -> Tuple.create(GitCloneCacheTests.createProcess(resources)),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final ManualClock clock = ManualClock.create(DateTime.create(2026, 1, 1));
+                    final GitCloneCache cache = GitCloneCacheTests.createCache(process, clock);
+                    process.getChildProcessRunner()
+                        .add(GitCloneCacheTests.createMirrorRun(cache, 0))
+                        .add(GitCloneCacheTests.createFetchRun(cache, 0));
+                    test.assertNull(cache.getLastRefreshed(GitCloneCacheTests.repository).await());
+
+                    final Folder mirrorFolder = cache.update(GitCloneCacheTests.repository).await();
+                    test.assertEqual(cache.getMirrorFolder(GitCloneCacheTests.repository), mirrorFolder);
+                    test.assertTrue(mirrorFolder.getFile("HEAD").await().exists().await());
+                    test.assertTrue(mirrorFolder.getFile("objects/pack/pack-1234.pack").await().exists().await());
+                    test.assertFalse(GitCloneCacheTests.getNewMirrorFolder(cache).exists().await());
+                    test.assertFalse(GitCloneCacheTests.getNewRefreshedFile(cache).exists().await());
+                    test.assertEqual(DateTime.create(2026, 1, 1), cache.getLastRefreshed(GitCloneCacheTests.repository).await());
+
+                    clock.advance(Duration.minutes(5));
+                    test.assertEqual(mirrorFolder, cache.update(GitCloneCacheTests.repository).await());
+                    test.assertEqual(DateTime.create(2026, 1, 1), cache.getLastRefreshed(GitCloneCacheTests.repository).await());
+
+                    clock.advance(Duration.minutes(10));
+                    test.assertEqual(mirrorFolder, cache.update(GitCloneCacheTests.repository).await());
+                    test.assertEqual(DateTime.create(2026, 1, 1, 0, 15, 0), cache.getLastRefreshed(GitCloneCacheTests.repository).await());
+                    test.assertFalse(GitCloneCacheTests.getNewRefreshedFile(cache).exists().await());
+                });
+
+                runner.test("with failed mirror clone",
+                    (TestResources resources) -> Tuple.create(GitCloneCacheTests.createProcess(resources)),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final GitCloneCache cache = GitCloneCacheTests.createCache(process, ManualClock.create(DateTime.create(2026, 1, 1)));
+                    process.getChildProcessRunner()
+                        .add(GitCloneCacheTests.createMirrorRun(cache, 128));
+                    final Folder mirrorFolder = cache.getMirrorFolder(GitCloneCacheTests.repository);
+                    test.assertThrows(() -> cache.update(GitCloneCacheTests.repository).await(),
+                        new GitException("Could not create the mirror of " + Strings.escapeAndQuote(GitCloneCacheTests.repository) + " at " + Strings.escapeAndQuote(mirrorFolder.getPath().toString()) + ". Git exited with code 128."));
+                    test.assertNull(cache.getLastRefreshed(GitCloneCacheTests.repository).await());
+                });
+
+                runner.test("with interrupted mirror clone",
+                    (TestResources resources) -> Tuple.create(GitCloneCacheTests.createProcess(resources)),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final GitCloneCache cache = GitCloneCacheTests.createCache(process, ManualClock.create(DateTime.create(2026, 1, 1)));
+                    process.getChildProcessRunner()
+                        .add(GitCloneCacheTests.createMirrorRun(cache, 0));
+                    final Folder mirrorFolder = cache.getMirrorFolder(GitCloneCacheTests.repository);
+                    mirrorFolder.createFile("objects/pack/tmp_pack_1234").await();
+
+                    test.assertEqual(mirrorFolder, cache.update(GitCloneCacheTests.repository).await());
+                    test.assertFalse(mirrorFolder.getFile("objects/pack/tmp_pack_1234").await().exists().await());
+                    test.assertTrue(mirrorFolder.getFile("HEAD").await().exists().await());
+                    test.assertFalse(GitCloneCacheTests.getNewMirrorFolder(cache).exists().await());
+                    test.assertFalse(GitCloneCacheTests.getOldMirrorFolder(cache).exists().await());
+                });
+
+                runner.test("with failed clone over interrupted mirror",
+                    (TestResources resources) -> Tuple.create(GitCloneCacheTests.createProcess(resources)),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final GitCloneCache cache = GitCloneCacheTests.createCache(process, ManualClock.create(DateTime.create(2026, 1, 1)));
+                    process.getChildProcessRunner()
+                        .add(GitCloneCacheTests.createMirrorRun(cache, 128));
+                    final Folder mirrorFolder = cache.getMirrorFolder(GitCloneCacheTests.repository);
+                    mirrorFolder.createFile("HEAD").await();
+
+                    test.assertThrows(() -> cache.update(GitCloneCacheTests.repository).await(),
+                        new GitException("Could not create the mirror of " + Strings.escapeAndQuote(GitCloneCacheTests.repository) + " at " + Strings.escapeAndQuote(mirrorFolder.getPath().toString()) + ". Git exited with code 128."));
+                    test.assertTrue(mirrorFolder.getFile("HEAD").await().exists().await());
+                    test.assertNull(cache.getLastRefreshed(GitCloneCacheTests.repository).await());
+                });
+
+                runner.test("with leftover new mirror",
+                    (TestResources resources) -> Tuple.create(GitCloneCacheTests.createProcess(resources)),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final GitCloneCache cache = GitCloneCacheTests.createCache(process, ManualClock.create(DateTime.create(2026, 1, 1)));
+                    process.getChildProcessRunner()
+                        .add(GitCloneCacheTests.createMirrorRun(cache, 0));
+                    GitCloneCacheTests.getNewMirrorFolder(cache).createFile("objects/pack/tmp_pack_1234").await();
+
+                    final Folder mirrorFolder = cache.update(GitCloneCacheTests.repository).await();
+                    test.assertFalse(mirrorFolder.getFile("objects/pack/tmp_pack_1234").await().exists().await());
+                    test.assertTrue(mirrorFolder.getFile("HEAD").await().exists().await());
+                    test.assertFalse(GitCloneCacheTests.getNewMirrorFolder(cache).exists().await());
+                });
+            });
+
+            runner.testGroup("refresh(String)", () ->
+            {
+                runner.test("with fresh mirror",
+                    (TestResources resources) -> Tuple.create(GitCloneCacheTests.createProcess(resources)),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final ManualClock clock = ManualClock.create(DateTime.create(2026, 1, 1));
+                    final GitCloneCache cache = GitCloneCacheTests.createCache(process, clock);
+                    process.getChildProcessRunner()
+                        .add(GitCloneCacheTests.createMirrorRun(cache, 0))
+                        .add(GitCloneCacheTests.createFetchRun(cache, 0));
+                    cache.update(GitCloneCacheTests.repository).await();
+
+                    clock.advance(Duration.seconds(1));
+                    cache.refresh(GitCloneCacheTests.repository).await();
+                    test.assertEqual(DateTime.create(2026, 1, 1, 0, 0, 1), cache.getLastRefreshed(GitCloneCacheTests.repository).await());
+                });
+
+                runner.test("with failed fetch",
+                    (TestResources resources) -> Tuple.create(GitCloneCacheTests.createProcess(resources)),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final ManualClock clock = ManualClock.create(DateTime.create(2026, 1, 1));
+                    final GitCloneCache cache = GitCloneCacheTests.createCache(process, clock);
+                    process.getChildProcessRunner()
+                        .add(GitCloneCacheTests.createMirrorRun(cache, 0))
+                        .add(GitCloneCacheTests.createFetchRun(cache, 1));
+                    final Folder mirrorFolder = cache.update(GitCloneCacheTests.repository).await();
+
+                    clock.advance(Duration.seconds(1));
+                    test.assertThrows(() -> cache.refresh(GitCloneCacheTests.repository).await(),
+                        new GitException("Could not refresh the mirror of " + Strings.escapeAndQuote(GitCloneCacheTests.repository) + " at " + Strings.escapeAndQuote(mirrorFolder.getPath().toString()) + ". Git exited with code 1."));
+                    test.assertEqual(DateTime.create(2026, 1, 1), cache.getLastRefreshed(GitCloneCacheTests.repository).await());
+                });
+            });
+
+            runner.testGroup("clone(String,Folder,Action1<GitCloneParameters>)", () ->
+            {
+                runner.test("with null repository",
+                    (TestResources resources) -> Tuple.create(GitCloneCacheTests.createProcess(resources)),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final GitCloneCache cache = GitCloneCacheTests.createCache(process, ManualClock.create(DateTime.create(2026, 1, 1)));
+                    final Folder directory = process.getFileSystem().getFolder("/work/repo/").await();
+                    test.assertThrows(() -> cache.clone(null, directory, (GitCloneParameters parameters) -> {}),
+                        new PreConditionFailure("repository cannot be null."));
+                });
+
+                runner.test("with null directory",
+                    (TestResources resources) -> Tuple.create(GitCloneCacheTests.createProcess(resources)),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final GitCloneCache cache = GitCloneCacheTests.createCache(process, ManualClock.create(DateTime.create(2026, 1, 1)));
+                    test.assertThrows(() -> cache.clone(GitCloneCacheTests.repository, null, (GitCloneParameters parameters) -> {}),
+                        new PreConditionFailure("directory cannot be null."));
+                });
+
+                runner.test("with null parametersSetup",
+                    (TestResources resources) -> Tuple.create(GitCloneCacheTests.createProcess(resources)),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final GitCloneCache cache = GitCloneCacheTests.createCache(process, ManualClock.create(DateTime.create(2026, 1, 1)));
+                    final Folder directory = process.getFileSystem().getFolder("/work/repo/").await();
+                    test.assertThrows(() -> cache.clone(GitCloneCacheTests.repository, directory, null),
+                        new PreConditionFailure("parametersSetup cannot be null."));
+                });
+
+                runner.test("with mirror",
+                    (TestResources resources) -> Tuple.create(GitCloneCacheTests.createProcess(resources)),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final GitCloneCache cache = GitCloneCacheTests.createCache(process, ManualClock.create(DateTime.create(2026, 1, 1)))
+                        .setDissociate(true);
+                    final Folder mirrorFolder = cache.getMirrorFolder(GitCloneCacheTests.repository);
+                    final Folder directory = process.getFileSystem().getFolder("/work/repo/").await();
+                    process.getChildProcessRunner()
+                        .add(GitCloneCacheTests.createMirrorRun(cache, 0))
+                        .add(FakeChildProcessRun.create("git", "clone", "--depth=1", "--reference-if-able=" + mirrorFolder.getPath().toString(), "--dissociate", GitCloneCacheTests.repository, directory.toString()));
+
+                    test.assertEqual(0, cache.clone(GitCloneCacheTests.repository, directory, (GitCloneParameters parameters) -> parameters.addDepth(1)).await());
+                    test.assertNotNull(cache.getLastRefreshed(GitCloneCacheTests.repository).await());
+                });
+
+                runner.test("with failed refresh of existing mirror",
+                    (TestResources resources) -> Tuple.create(GitCloneCacheTests.createProcess(resources)),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final ManualClock clock = ManualClock.create(DateTime.create(2026, 1, 1));
+                    final GitCloneCache cache = GitCloneCacheTests.createCache(process, clock);
+                    final Folder mirrorFolder = cache.getMirrorFolder(GitCloneCacheTests.repository);
+                    final Folder directory = process.getFileSystem().getFolder("/work/repo/").await();
+                    process.getChildProcessRunner()
+                        .add(GitCloneCacheTests.createMirrorRun(cache, 0))
+                        .add(GitCloneCacheTests.createFetchRun(cache, 1))
+                        .add(FakeChildProcessRun.create("git", "clone", "--reference-if-able=" + mirrorFolder.getPath().toString(), GitCloneCacheTests.repository, directory.toString()));
+                    cache.update(GitCloneCacheTests.repository).await();
+
+                    clock.advance(Duration.minutes(15));
+                    test.assertEqual(0, cache.clone(GitCloneCacheTests.repository, directory, (GitCloneParameters parameters) -> {}).await());
+                    test.assertEqual(DateTime.create(2026, 1, 1), cache.getLastRefreshed(GitCloneCacheTests.repository).await());
+                });
+
+                runner.test("with refresh in progress",
+                    (TestResources resources) -> Tuple.create(GitCloneCacheTests.createProcess(resources)),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final ManualClock clock = ManualClock.create(DateTime.create(2026, 1, 1));
+                    final GitCloneCache cache = GitCloneCacheTests.createCache(process, clock);
+                    final Folder mirrorFolder = cache.getMirrorFolder(GitCloneCacheTests.repository);
+                    final Folder directory = process.getFileSystem().getFolder("/work/repo/").await();
+                    process.getChildProcessRunner()
+                        .add(GitCloneCacheTests.createMirrorRun(cache, 0))
+                        .add(GitCloneCacheTests.createFetchRun(cache, 0).setAction((FakeDesktopProcess childProcess) ->
+                        {
+                            // Another thread clones while this refresh holds the mirror's lock. The
+                            // clone must not wait for the refresh.
+                            final java.util.concurrent.CompletableFuture<Integer> cloneExitCode = java.util.concurrent.CompletableFuture.supplyAsync(() ->
+                                cache.clone(GitCloneCacheTests.repository, directory, (GitCloneParameters parameters) -> {}).await());
+                            try
+                            {
+                                test.assertEqual(0, cloneExitCode.get(30, java.util.concurrent.TimeUnit.SECONDS));
+                            }
+                            catch (java.util.concurrent.ExecutionException | InterruptedException | java.util.concurrent.TimeoutException e)
+                            {
+                                test.fail(e.toString());
+                            }
+                            childProcess.setExitCode(0);
+                        }))
+                        .add(FakeChildProcessRun.create("git", "clone", "--reference-if-able=" + mirrorFolder.getPath().toString(), GitCloneCacheTests.repository, directory.toString()));
+                    cache.update(GitCloneCacheTests.repository).await();
+
+                    clock.advance(Duration.minutes(15));
+                    cache.refresh(GitCloneCacheTests.repository).await();
+                    test.assertEqual(DateTime.create(2026, 1, 1, 0, 15, 0), cache.getLastRefreshed(GitCloneCacheTests.repository).await());
+                });
+
+                runner.test("with failed mirror clone",
+                    (TestResources resources) -> Tuple.create(GitCloneCacheTests.createProcess(resources)),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final GitCloneCache cache = GitCloneCacheTests.createCache(process, ManualClock.create(DateTime.create(2026, 1, 1)));
+                    final Folder directory = process.getFileSystem().getFolder("/work/repo/").await();
+                    process.getChildProcessRunner()
+                        .add(GitCloneCacheTests.createMirrorRun(cache, 128))
+                        .add(FakeChildProcessRun.create("git", "clone", GitCloneCacheTests.repository, directory.toString()));
+
+                    test.assertEqual(0, cache.clone(GitCloneCacheTests.repository, directory, (GitCloneParameters parameters) -> {}).await());
+                    test.assertNull(cache.getLastRefreshed(GitCloneCacheTests.repository).await());
+                });
+            });
+        });
+    }
+}
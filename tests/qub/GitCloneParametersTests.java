@@ -150,6 +150,576 @@ public interface GitCloneParametersTests
                 test.assertEqual(Iterable.create("clone", "--progress"), parameters.getCommandArguments());
             });
 
+            runner.testGroup("setProgressListener(Action1<GitProgressEvent>)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final GitCloneParameters parameters = GitCloneParameters.create();
+                    test.assertThrows(() -> parameters.setProgressListener(null),
+                        new PreConditionFailure("progressListener cannot be null."));
+                    test.assertEqual(Iterable.create("clone"), parameters.getArguments());
+                    test.assertNull(parameters.getErrorStreamHandler());
+                });
+
+                runner.test("with non-null", (Test test) ->
+                {
+                    final GitCloneParameters parameters = GitCloneParameters.create();
+                    final List<GitProgressEvent> events = List.create();
+                    final GitCloneParameters setProgressListenerResult = parameters.setProgressListener(events::add);
+                    test.assertSame(parameters, setProgressListenerResult);
+                    test.assertEqual(Iterable.create("clone", "--progress"), parameters.getArguments());
+                    test.assertEqual(Iterable.create("clone", "--progress"), parameters.getCommandArguments());
+
+                    final Action1<ByteReadStream> errorStreamHandler = parameters.getErrorStreamHandler();
+                    test.assertNotNull(errorStreamHandler);
+                    errorStreamHandler.run(InMemoryByteStream.create("Resolving deltas: 100% (2/2), done.\n".getBytes(java.nio.charset.StandardCharsets.UTF_8)).endOfStream());
+                    test.assertEqual(
+                        Iterable.create(GitProgressEvent.create(GitProgressPhase.ResolvingDeltas, false, 100, 2, 2, -1, -1, true)),
+                        events);
+                });
+            });
+
+            runner.testGroup("setProgressParser(GitProgressParser)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final GitCloneParameters parameters = GitCloneParameters.create();
+                    test.assertThrows(() -> parameters.setProgressParser(null),
+                        new PreConditionFailure("progressParser cannot be null."));
+                    test.assertEqual(Iterable.create("clone"), parameters.getArguments());
+                    test.assertNull(parameters.getErrorStreamHandler());
+                });
+
+                runner.test("with non-null", (Test test) ->
+                {
+                    final GitCloneParameters parameters = GitCloneParameters.create();
+                    final List<String> messages = List.create();
+                    final GitProgressParser progressParser = GitProgressParser.create((GitProgressEvent event) -> {})
+                        .setMessageListener(messages::add);
+                    final GitCloneParameters setProgressParserResult = parameters.setProgressParser(progressParser);
+                    test.assertSame(parameters, setProgressParserResult);
+                    test.assertEqual(Iterable.create("clone", "--progress"), parameters.getArguments());
+
+                    parameters.getErrorStreamHandler().run(InMemoryByteStream.create("fatal: repository not found".getBytes(java.nio.charset.StandardCharsets.UTF_8)).endOfStream());
+                    test.assertEqual(Iterable.create("fatal: repository not found"), messages);
+                });
+
+                runner.test("when called more than once", (Test test) ->
+                {
+                    final GitCloneParameters parameters = GitCloneParameters.create();
+                    final List<String> messages = List.create();
+                    parameters.setProgressListener((GitProgressEvent event) -> {});
+                    parameters.setProgressParser(GitProgressParser.create((GitProgressEvent event) -> {})
+                        .setMessageListener(messages::add));
+                    test.assertEqual(Iterable.create("clone", "--progress"), parameters.getArguments());
+
+                    parameters.getErrorStreamHandler().run(InMemoryByteStream.create("fatal: repository not found".getBytes(java.nio.charset.StandardCharsets.UTF_8)).endOfStream());
+                    test.assertEqual(Iterable.create("fatal: repository not found"), messages);
+                });
+
+                runner.test("after addProgress()", (Test test) ->
+                {
+                    final GitCloneParameters parameters = GitCloneParameters.create().addProgress();
+                    parameters.setProgressParser(GitProgressParser.create((GitProgressEvent event) -> {}));
+                    test.assertEqual(Iterable.create("clone", "--progress"), parameters.getArguments());
+                });
+            });
+
+            runner.testGroup("addFilter(String)", () ->
+            {
+                final Action2<String,Throwable> addFilterErrorTest = (String filterSpec, Throwable expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(filterSpec), (Test test) ->
+                    {
+                        final GitCloneParameters parameters = GitCloneParameters.create();
+                        test.assertThrows(() -> parameters.addFilter(filterSpec),
+                            expected);
+                        test.assertEqual(Iterable.create("clone"), parameters.getArguments());
+                    });
+                };
+
+                addFilterErrorTest.run(null, new PreConditionFailure("filterSpec cannot be null."));
+                addFilterErrorTest.run("", new PreConditionFailure("filterSpec cannot be empty."));
+
+                final Action1<String> addFilterTest = (String filterSpec) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(filterSpec), (Test test) ->
+                    {
+                        final GitCloneParameters parameters = GitCloneParameters.create();
+                        final GitCloneParameters addFilterResult = parameters.addFilter(filterSpec);
+                        test.assertSame(parameters, addFilterResult);
+                        test.assertEqual(Iterable.create("clone", "--filter=" + filterSpec), parameters.getArguments());
+                        test.assertEqual(Iterable.create(), parameters.getGitArguments());
+                        test.assertEqual(Iterable.create("clone", "--filter=" + filterSpec), parameters.getCommandArguments());
+                    });
+                };
+
+                addFilterTest.run("blob:none");
+                addFilterTest.run("combine:blob:none+tree:3");
+            });
+
+            runner.test("addBlobNoneFilter()", (Test test) ->
+            {
+                final GitCloneParameters parameters = GitCloneParameters.create();
+                final GitCloneParameters addBlobNoneFilterResult = parameters.addBlobNoneFilter();
+                test.assertSame(parameters, addBlobNoneFilterResult);
+                test.assertEqual(Iterable.create("clone", "--filter=blob:none"), parameters.getArguments());
+            });
+
+            runner.testGroup("addBlobLimitFilter(long)", () ->
+            {
+                runner.test("with negative", (Test test) ->
+                {
+                    final GitCloneParameters parameters = GitCloneParameters.create();
+                    test.assertThrows(() -> parameters.addBlobLimitFilter(-1),
+                        new PreConditionFailure("byteLimit (-1) must be greater than or equal to 0."));
+                    test.assertEqual(Iterable.create("clone"), parameters.getArguments());
+                });
+
+                final Action1<Long> addBlobLimitFilterTest = (Long byteLimit) ->
+                {
+                    runner.test("with " + byteLimit, (Test test) ->
+                    {
+                        final GitCloneParameters parameters = GitCloneParameters.create();
+                        final GitCloneParameters addBlobLimitFilterResult = parameters.addBlobLimitFilter(byteLimit);
+                        test.assertSame(parameters, addBlobLimitFilterResult);
+                        test.assertEqual(Iterable.create("clone", "--filter=blob:limit=" + byteLimit), parameters.getArguments());
+                    });
+                };
+
+                addBlobLimitFilterTest.run(0L);
+                addBlobLimitFilterTest.run(1048576L);
+            });
+
+            runner.testGroup("addTreeFilter(int)", () ->
+            {
+                runner.test("with negative", (Test test) ->
+                {
+                    final GitCloneParameters parameters = GitCloneParameters.create();
+                    test.assertThrows(() -> parameters.addTreeFilter(-1),
+                        new PreConditionFailure("depth (-1) must be greater than or equal to 0."));
+                    test.assertEqual(Iterable.create("clone"), parameters.getArguments());
+                });
+
+                final Action1<Integer> addTreeFilterTest = (Integer depth) ->
+                {
+                    runner.test("with " + depth, (Test test) ->
+                    {
+                        final GitCloneParameters parameters = GitCloneParameters.create();
+                        final GitCloneParameters addTreeFilterResult = parameters.addTreeFilter(depth);
+                        test.assertSame(parameters, addTreeFilterResult);
+                        test.assertEqual(Iterable.create("clone", "--filter=tree:" + depth), parameters.getArguments());
+                    });
+                };
+
+                addTreeFilterTest.run(0);
+                addTreeFilterTest.run(2);
+            });
+
+            runner.test("addRecurseSubmodules()", (Test test) ->
+            {
+                final GitCloneParameters parameters = GitCloneParameters.create();
+                final GitCloneParameters addRecurseSubmodulesResult = parameters.addRecurseSubmodules();
+                test.assertSame(parameters, addRecurseSubmodulesResult);
+                test.assertEqual(Iterable.create("clone", "--recurse-submodules"), parameters.getArguments());
+            });
+
+            runner.test("addAlsoFilterSubmodules()", (Test test) ->
+            {
+                final GitCloneParameters parameters = GitCloneParameters.create()
+                    .addBlobNoneFilter()
+                    .addRecurseSubmodules();
+                final GitCloneParameters addAlsoFilterSubmodulesResult = parameters.addAlsoFilterSubmodules();
+                test.assertSame(parameters, addAlsoFilterSubmodulesResult);
+                test.assertEqual(Iterable.create("clone", "--filter=blob:none", "--recurse-submodules", "--also-filter-submodules"), parameters.getArguments());
+            });
+
+            runner.testGroup("addDepth(int)", () ->
+            {
+                final Action2<Integer,Throwable> addDepthErrorTest = (Integer depth, Throwable expected) ->
+                {
+                    runner.test("with " + depth, (Test test) ->
+                    {
+                        final GitCloneParameters parameters = GitCloneParameters.create();
+                        test.assertThrows(() -> parameters.addDepth(depth),
+                            expected);
+                        test.assertEqual(Iterable.create("clone"), parameters.getArguments());
+                    });
+                };
+
+                addDepthErrorTest.run(-1, new PreConditionFailure("depth (-1) must be greater than or equal to 1."));
+                addDepthErrorTest.run(0, new PreConditionFailure("depth (0) must be greater than or equal to 1."));
+
+                final Action1<Integer> addDepthTest = (Integer depth) ->
+                {
+                    runner.test("with " + depth, (Test test) ->
+                    {
+                        final GitCloneParameters parameters = GitCloneParameters.create();
+                        final GitCloneParameters addDepthResult = parameters.addDepth(depth);
+                        test.assertSame(parameters, addDepthResult);
+                        test.assertEqual(Iterable.create("clone", "--depth=" + depth), parameters.getArguments());
+                        test.assertEqual(Iterable.create(), parameters.getGitArguments());
+                        test.assertEqual(Iterable.create("clone", "--depth=" + depth), parameters.getCommandArguments());
+                    });
+                };
+
+                addDepthTest.run(1);
+                addDepthTest.run(50);
+            });
+
+            runner.testGroup("addShallowSince(String)", () ->
+            {
+                final Action2<String,Throwable> addShallowSinceErrorTest = (String date, Throwable expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(date), (Test test) ->
+                    {
+                        final GitCloneParameters parameters = GitCloneParameters.create();
+                        test.assertThrows(() -> parameters.addShallowSince(date),
+                            expected);
+                        test.assertEqual(Iterable.create("clone"), parameters.getArguments());
+                    });
+                };
+
+                addShallowSinceErrorTest.run(null, new PreConditionFailure("date cannot be null."));
+                addShallowSinceErrorTest.run("", new PreConditionFailure("date cannot be empty."));
+
+                final Action1<String> addShallowSinceTest = (String date) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(date), (Test test) ->
+                    {
+                        final GitCloneParameters parameters = GitCloneParameters.create();
+                        final GitCloneParameters addShallowSinceResult = parameters.addShallowSince(date);
+                        test.assertSame(parameters, addShallowSinceResult);
+                        test.assertEqual(Iterable.create("clone", "--shallow-since=" + date), parameters.getArguments());
+                    });
+                };
+
+                addShallowSinceTest.run("2024-01-31");
+                addShallowSinceTest.run("2 weeks ago");
+            });
+
+            runner.testGroup("addShallowSince(DateTime)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final GitCloneParameters parameters = GitCloneParameters.create();
+                    test.assertThrows(() -> parameters.addShallowSince((DateTime)null),
+                        new PreConditionFailure("date cannot be null."));
+                    test.assertEqual(Iterable.create("clone"), parameters.getArguments());
+                });
+
+                runner.test("with non-null", (Test test) ->
+                {
+                    final GitCloneParameters parameters = GitCloneParameters.create();
+                    final GitCloneParameters addShallowSinceResult = parameters.addShallowSince(DateTime.create(2026, 1, 1));
+                    test.assertSame(parameters, addShallowSinceResult);
+                    test.assertEqual(Iterable.create("clone", "--shallow-since=@1767225600 +0000"), parameters.getArguments());
+                });
+            });
+
+            runner.testGroup("addShallowExclude(String)", () ->
+            {
+                final Action2<String,Throwable> addShallowExcludeErrorTest = (String revision, Throwable expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(revision), (Test test) ->
+                    {
+                        final GitCloneParameters parameters = GitCloneParameters.create();
+                        test.assertThrows(() -> parameters.addShallowExclude(revision),
+                            expected);
+                        test.assertEqual(Iterable.create("clone"), parameters.getArguments());
+                    });
+                };
+
+                addShallowExcludeErrorTest.run(null, new PreConditionFailure("revision cannot be null."));
+                addShallowExcludeErrorTest.run("", new PreConditionFailure("revision cannot be empty."));
+
+                runner.test("with multiple revisions", (Test test) ->
+                {
+                    final GitCloneParameters parameters = GitCloneParameters.create();
+                    final GitCloneParameters addShallowExcludeResult = parameters.addShallowExclude("v1.0");
+                    test.assertSame(parameters, addShallowExcludeResult);
+                    parameters.addShallowExclude("release/2");
+                    test.assertEqual(Iterable.create("clone", "--shallow-exclude=v1.0", "--shallow-exclude=release/2"), parameters.getArguments());
+                });
+            });
+
+            runner.test("addSingleBranch()", (Test test) ->
+            {
+                final GitCloneParameters parameters = GitCloneParameters.create();
+                final GitCloneParameters addSingleBranchResult = parameters.addSingleBranch();
+                test.assertSame(parameters, addSingleBranchResult);
+                test.assertEqual(Iterable.create("clone", "--single-branch"), parameters.getArguments());
+            });
+
+            runner.test("addNoSingleBranch()", (Test test) ->
+            {
+                final GitCloneParameters parameters = GitCloneParameters.create();
+                final GitCloneParameters addNoSingleBranchResult = parameters.addNoSingleBranch();
+                test.assertSame(parameters, addNoSingleBranchResult);
+                test.assertEqual(Iterable.create("clone", "--no-single-branch"), parameters.getArguments());
+            });
+
+            runner.testGroup("addBranch(String)", () ->
+            {
+                final Action2<String,Throwable> addBranchErrorTest = (String branch, Throwable expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(branch), (Test test) ->
+                    {
+                        final GitCloneParameters parameters = GitCloneParameters.create();
+                        test.assertThrows(() -> parameters.addBranch(branch),
+                            expected);
+                        test.assertEqual(Iterable.create("clone"), parameters.getArguments());
+                    });
+                };
+
+                addBranchErrorTest.run(null, new PreConditionFailure("branch cannot be null."));
+                addBranchErrorTest.run("", new PreConditionFailure("branch cannot be empty."));
+
+                runner.test("with \"main\"", (Test test) ->
+                {
+                    final GitCloneParameters parameters = GitCloneParameters.create();
+                    final GitCloneParameters addBranchResult = parameters.addBranch("main");
+                    test.assertSame(parameters, addBranchResult);
+                    test.assertEqual(Iterable.create("clone", "--branch=main"), parameters.getArguments());
+                });
+            });
+
+            runner.test("addNoTags()", (Test test) ->
+            {
+                final GitCloneParameters parameters = GitCloneParameters.create();
+                final GitCloneParameters addNoTagsResult = parameters.addNoTags();
+                test.assertSame(parameters, addNoTagsResult);
+                test.assertEqual(Iterable.create("clone", "--no-tags"), parameters.getArguments());
+            });
+
+            runner.test("shallow single branch clone", (Test test) ->
+            {
+                final GitCloneParameters parameters = GitCloneParameters.create()
+                    .addDepth(1)
+                    .addSingleBranch()
+                    .addBranch("main")
+                    .addNoTags()
+                    .addRepository("https://github.com/owner/repo");
+                test.assertEqual(
+                    Iterable.create("clone", "--depth=1", "--single-branch", "--branch=main", "--no-tags", "https://github.com/owner/repo"),
+                    parameters.getArguments());
+            });
+
+            runner.test("addBare()", (Test test) ->
+            {
+                final GitCloneParameters parameters = GitCloneParameters.create();
+                final GitCloneParameters addBareResult = parameters.addBare();
+                test.assertSame(parameters, addBareResult);
+                test.assertEqual(Iterable.create("clone", "--bare"), parameters.getArguments());
+            });
+
+            runner.test("addMirror()", (Test test) ->
+            {
+                final GitCloneParameters parameters = GitCloneParameters.create();
+                final GitCloneParameters addMirrorResult = parameters.addMirror();
+                test.assertSame(parameters, addMirrorResult);
+                test.assertEqual(Iterable.create("clone", "--mirror"), parameters.getArguments());
+            });
+
+            runner.testGroup("addCloneConfiguration(String,String)", () ->
+            {
+                final Action3<String,String,Throwable> addCloneConfigurationErrorTest = (String name, String value, Throwable expected) ->
+                {
+                    runner.test("with " + English.andList(Strings.escapeAndQuote(name), Strings.escapeAndQuote(value)), (Test test) ->
+                    {
+                        final GitCloneParameters parameters = GitCloneParameters.create();
+                        test.assertThrows(() -> parameters.addCloneConfiguration(name, value),
+                            expected);
+                        test.assertEqual(Iterable.create("clone"), parameters.getArguments());
+                    });
+                };
+
+                addCloneConfigurationErrorTest.run(null, "0", new PreConditionFailure("name cannot be null."));
+                addCloneConfigurationErrorTest.run("", "0", new PreConditionFailure("name cannot be empty."));
+                addCloneConfigurationErrorTest.run("gc.auto=0", "0", new PreConditionFailure("name.contains(\"=\") cannot be true."));
+                addCloneConfigurationErrorTest.run("gc.auto", null, new PreConditionFailure("value cannot be null."));
+
+                final Action2<String,String> addCloneConfigurationTest = (String name, String value) ->
+                {
+                    runner.test("with " + English.andList(Strings.escapeAndQuote(name), Strings.escapeAndQuote(value)), (Test test) ->
+                    {
+                        final GitCloneParameters parameters = GitCloneParameters.create();
+                        final GitCloneParameters addCloneConfigurationResult = parameters.addCloneConfiguration(name, value);
+                        test.assertSame(parameters, addCloneConfigurationResult);
+                        test.assertEqual(Iterable.create("clone", "--config=" + name + "=" + value), parameters.getArguments());
+                    });
+                };
+
+                addCloneConfigurationTest.run("gc.auto", "0");
+                addCloneConfigurationTest.run("maintenance.auto", "false");
+                addCloneConfigurationTest.run("core.comment", "");
+
+                runner.test("with addConfiguration(String,String)", (Test test) ->
+                {
+                    final GitCloneParameters parameters = GitCloneParameters.create()
+                        .addConfiguration("http.lowSpeedLimit", "1000")
+                        .addCloneConfiguration("gc.auto", "0");
+                    test.assertEqual(Iterable.create("-c", "http.lowSpeedLimit=1000", "clone", "--config=gc.auto=0"), parameters.getArguments());
+                });
+            });
+
+            runner.testGroup("addReference(String)", () ->
+            {
+                final Action2<String,Throwable> addReferenceErrorTest = (String referenceRepository, Throwable expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(referenceRepository), (Test test) ->
+                    {
+                        final GitCloneParameters parameters = GitCloneParameters.create();
+                        test.assertThrows(() -> parameters.addReference(referenceRepository),
+                            expected);
+                        test.assertEqual(Iterable.create("clone"), parameters.getArguments());
+                    });
+                };
+
+                addReferenceErrorTest.run(null, new PreConditionFailure("referenceRepository cannot be null."));
+                addReferenceErrorTest.run("", new PreConditionFailure("referenceRepository cannot be empty."));
+
+                runner.test("with \"/cache/repo.git\"", (Test test) ->
+                {
+                    final GitCloneParameters parameters = GitCloneParameters.create();
+                    final GitCloneParameters addReferenceResult = parameters.addReference("/cache/repo.git");
+                    test.assertSame(parameters, addReferenceResult);
+                    test.assertEqual(Iterable.create("clone", "--reference=/cache/repo.git"), parameters.getArguments());
+                });
+            });
+
+            runner.testGroup("addReference(Folder)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final GitCloneParameters parameters = GitCloneParameters.create();
+                    test.assertThrows(() -> parameters.addReference((Folder)null),
+                        new PreConditionFailure("referenceRepository cannot be null."));
+                    test.assertEqual(Iterable.create("clone"), parameters.getArguments());
+                });
+
+                runner.test("with non-null", (Test test) ->
+                {
+                    final GitCloneParameters parameters = GitCloneParameters.create();
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    final Folder folder = fileSystem.getFolder("/cache/repo.git/").await();
+                    final GitCloneParameters addReferenceResult = parameters.addReference(folder);
+                    test.assertSame(parameters, addReferenceResult);
+                    test.assertEqual(Iterable.create("clone", "--reference=" + folder.getPath().toString()), parameters.getArguments());
+                });
+            });
+
+            runner.testGroup("addReferenceIfAble(String)", () ->
+            {
+                final Action2<String,Throwable> addReferenceIfAbleErrorTest = (String referenceRepository, Throwable expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(referenceRepository), (Test test) ->
+                    {
+                        final GitCloneParameters parameters = GitCloneParameters.create();
+                        test.assertThrows(() -> parameters.addReferenceIfAble(referenceRepository),
+                            expected);
+                        test.assertEqual(Iterable.create("clone"), parameters.getArguments());
+                    });
+                };
+
+                addReferenceIfAbleErrorTest.run(null, new PreConditionFailure("referenceRepository cannot be null."));
+                addReferenceIfAbleErrorTest.run("", new PreConditionFailure("referenceRepository cannot be empty."));
+
+                runner.test("with \"/cache/repo.git\"", (Test test) ->
+                {
+                    final GitCloneParameters parameters = GitCloneParameters.create();
+                    final GitCloneParameters addReferenceIfAbleResult = parameters.addReferenceIfAble("/cache/repo.git");
+                    test.assertSame(parameters, addReferenceIfAbleResult);
+                    test.assertEqual(Iterable.create("clone", "--reference-if-able=/cache/repo.git"), parameters.getArguments());
+                });
+            });
+
+            runner.testGroup("addReferenceIfAble(Folder)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final GitCloneParameters parameters = GitCloneParameters.create();
+                    test.assertThrows(() -> parameters.addReferenceIfAble((Folder)null),
+                        new PreConditionFailure("referenceRepository cannot be null."));
+                    test.assertEqual(Iterable.create("clone"), parameters.getArguments());
+                });
+
+                runner.test("with non-null", (Test test) ->
+                {
+                    final GitCloneParameters parameters = GitCloneParameters.create();
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    final Folder folder = fileSystem.getFolder("/cache/repo.git/").await();
+                    final GitCloneParameters addReferenceIfAbleResult = parameters.addReferenceIfAble(folder);
+                    test.assertSame(parameters, addReferenceIfAbleResult);
+                    test.assertEqual(Iterable.create("clone", "--reference-if-able=" + folder.getPath().toString()), parameters.getArguments());
+                });
+            });
+
+            runner.test("addDissociate()", (Test test) ->
+            {
+                final GitCloneParameters parameters = GitCloneParameters.create();
+                final GitCloneParameters addDissociateResult = parameters.addDissociate();
+                test.assertSame(parameters, addDissociateResult);
+                test.assertEqual(Iterable.create("clone", "--dissociate"), parameters.getArguments());
+            });
+
+            runner.test("addLocal()", (Test test) ->
+            {
+                final GitCloneParameters parameters = GitCloneParameters.create();
+                final GitCloneParameters addLocalResult = parameters.addLocal();
+                test.assertSame(parameters, addLocalResult);
+                test.assertEqual(Iterable.create("clone", "--local"), parameters.getArguments());
+            });
+
+            runner.test("addNoLocal()", (Test test) ->
+            {
+                final GitCloneParameters parameters = GitCloneParameters.create();
+                final GitCloneParameters addNoLocalResult = parameters.addNoLocal();
+                test.assertSame(parameters, addNoLocalResult);
+                test.assertEqual(Iterable.create("clone", "--no-local"), parameters.getArguments());
+            });
+
+            runner.test("addNoHardlinks()", (Test test) ->
+            {
+                final GitCloneParameters parameters = GitCloneParameters.create();
+                final GitCloneParameters addNoHardlinksResult = parameters.addNoHardlinks();
+                test.assertSame(parameters, addNoHardlinksResult);
+                test.assertEqual(Iterable.create("clone", "--no-hardlinks"), parameters.getArguments());
+            });
+
+            runner.test("addShared()", (Test test) ->
+            {
+                final GitCloneParameters parameters = GitCloneParameters.create();
+                final GitCloneParameters addSharedResult = parameters.addShared();
+                test.assertSame(parameters, addSharedResult);
+                test.assertEqual(Iterable.create("clone", "--shared"), parameters.getArguments());
+            });
+
+            runner.testGroup("addLocalCloneStrategy(GitLocalCloneStrategy)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final GitCloneParameters parameters = GitCloneParameters.create();
+                    test.assertThrows(() -> parameters.addLocalCloneStrategy(null),
+                        new PreConditionFailure("strategy cannot be null."));
+                    test.assertEqual(Iterable.create("clone"), parameters.getArguments());
+                });
+
+                final Action2<GitLocalCloneStrategy,Iterable<String>> addLocalCloneStrategyTest = (GitLocalCloneStrategy strategy, Iterable<String> expected) ->
+                {
+                    runner.test("with " + strategy, (Test test) ->
+                    {
+                        final GitCloneParameters parameters = GitCloneParameters.create();
+                        final GitCloneParameters addLocalCloneStrategyResult = parameters.addLocalCloneStrategy(strategy);
+                        test.assertSame(parameters, addLocalCloneStrategyResult);
+                        test.assertEqual(expected, parameters.getArguments());
+                    });
+                };
+
+                addLocalCloneStrategyTest.run(GitLocalCloneStrategy.Hardlinks, Iterable.create("clone", "--local"));
+                addLocalCloneStrategyTest.run(GitLocalCloneStrategy.Copy, Iterable.create("clone", "--local", "--no-hardlinks"));
+                addLocalCloneStrategyTest.run(GitLocalCloneStrategy.Shared, Iterable.create("clone", "--shared"));
+            });
             runner.testGroup("addRepository(String)", () ->
             {
                 final Action2<String,Throwable> addRepositoryErrorTest = (String repository, Throwable expected) ->
@@ -0,0 +1,58 @@
+package qub;
+
+public interface GitCommitGraphLayerTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(GitCommitGraphLayer.class, () ->
+        {
+            runner.testGroup("parse(GitPackData,int)", () ->
+            {
+                final Action3<String,byte[],Throwable> parseErrorTest = (String testName, byte[] bytes, Throwable expected) ->
+                {
+                    runner.test(testName, (Test test) ->
+                    {
+                        test.assertThrows(() -> GitCommitGraphLayer.parse(GitPackData.wrap(bytes, 1024), GitObjectId.sha1Length),
+                            expected);
+                    });
+                };
+
+                final byte[] validBytes = GitCommitGraphLayerTests.createLayerBytes();
+
+                parseErrorTest.run("with truncated header", new byte[] { 'C', 'G', 'P', 'H' },
+                    new ParseException("Expected the commit-graph to start with \"CGPH\"."));
+                parseErrorTest.run("with wrong signature", GitCommitGraphLayerTests.setByte(validBytes, 0, 'X'),
+                    new ParseException("Expected the commit-graph to start with \"CGPH\"."));
+                parseErrorTest.run("with unsupported version", GitCommitGraphLayerTests.setByte(validBytes, 4, 2),
+                    new ParseException("Unsupported commit-graph version: 2"));
+                parseErrorTest.run("with wrong object id version", GitCommitGraphLayerTests.setByte(validBytes, 5, 2),
+                    new ParseException("Expected the commit-graph to use 20 byte object ids, but found object id version 2."));
+                parseErrorTest.run("with too many chunks", GitCommitGraphLayerTests.setByte(validBytes, 6, 40),
+                    new ParseException("The commit-graph chunk table is invalid."));
+
+                runner.test("with valid layer", (Test test) ->
+                {
+                    final GitCommitGraphLayer layer = GitCommitGraphLayer.parse(GitPackData.wrap(validBytes, 1024), GitObjectId.sha1Length);
+                    test.assertEqual(1, layer.getCommitCount());
+                    test.assertEqual(0, layer.getBaseGraphCount());
+                    test.assertTrue(layer.hasGenerationData());
+                    test.assertEqual(GitObjectId.create(validBytes, validBytes.length - 20, 20), layer.getChecksum());
+                });
+            });
+        });
+    }
+
+    static byte[] createLayerBytes()
+    {
+        final GitCommitGraphTests.CommitGraphBuilder builder = new GitCommitGraphTests.CommitGraphBuilder();
+        builder.addCommit("root", 1000);
+        return builder.build().get(0);
+    }
+
+    static byte[] setByte(byte[] bytes, int index, int value)
+    {
+        final byte[] result = bytes.clone();
+        result[index] = (byte)value;
+        return result;
+    }
+}
@@ -0,0 +1,615 @@
+package qub;
+
+public interface GitCommitGraphTests
+{
+    /**
+     * Builds the bytes of commit-graph files for tests.
+     */
+    class CommitGraphBuilder
+    {
+        public static class Commit
+        {
+            public final GitObjectId id;
+            public final GitObjectId treeId;
+            public final GitObjectId[] parentIds;
+            public final long commitTime;
+            public final int level;
+            public final long correctedCommitDate;
+
+            Commit(GitObjectId id, GitObjectId treeId, GitObjectId[] parentIds, long commitTime, int level, long correctedCommitDate)
+            {
+                this.id = id;
+                this.treeId = treeId;
+                this.parentIds = parentIds;
+                this.commitTime = commitTime;
+                this.level = level;
+                this.correctedCommitDate = correctedCommitDate;
+            }
+        }
+
+        private final java.util.ArrayList<java.util.TreeMap<GitObjectId,Commit>> layers;
+        private final java.util.HashMap<GitObjectId,Commit> commits;
+        private final java.util.HashMap<GitObjectId,String[]> changedPaths;
+        private boolean generationData;
+        private int bloomFilterVersion;
+        private final java.util.HashSet<Integer> zeroLevelLayers;
+
+        public CommitGraphBuilder()
+        {
+            this.layers = new java.util.ArrayList<>();
+            this.layers.add(new java.util.TreeMap<>());
+            this.commits = new java.util.HashMap<>();
+            this.changedPaths = new java.util.HashMap<>();
+            this.generationData = true;
+            this.bloomFilterVersion = 2;
+            this.zeroLevelLayers = new java.util.HashSet<>();
+        }
+
+        /**
+         * Write topological level 0 (not computed) for the commits of the provided layer, like a
+         * layer that was written without generation numbers.
+         * @param layerIndex The index of the layer.
+         * @return This object for method chaining.
+         */
+        public CommitGraphBuilder setZeroLevels(int layerIndex)
+        {
+            this.zeroLevelLayers.add(layerIndex);
+            return this;
+        }
+
+        /**
+         * Set whether the GDA2 and GDO2 chunks are written.
+         * @param generationData Whether the generation data chunks are written.
+         * @return This object for method chaining.
+         */
+        public CommitGraphBuilder setGenerationData(boolean generationData)
+        {
+            this.generationData = generationData;
+            return this;
+        }
+
+        /**
+         * Set the version of the changed-path Bloom filters that are written.
+         * @param bloomFilterVersion The version of the changed-path Bloom filters.
+         * @return This object for method chaining.
+         */
+        public CommitGraphBuilder setBloomFilterVersion(int bloomFilterVersion)
+        {
+            this.bloomFilterVersion = bloomFilterVersion;
+            return this;
+        }
+
+        /**
+         * Set the paths that the provided commit changed compared to its first parent. If any
+         * commit has changed paths, then every layer gets BIDX and BDAT chunks, and the commits
+         * without changed paths get empty (not computed) Bloom filters.
+         * @param commitId The id of the commit.
+         * @param paths The paths that the commit changed.
+         * @return This object for method chaining.
+         */
+        public CommitGraphBuilder setChangedPaths(GitObjectId commitId, String... paths)
+        {
+            this.changedPaths.put(commitId, paths);
+            return this;
+        }
+
+        /**
+         * Start a new layer. Commits that are added after this go into the new layer.
+         * @return This object for method chaining.
+         */
+        public CommitGraphBuilder addLayer()
+        {
+            this.layers.add(new java.util.TreeMap<>());
+            return this;
+        }
+
+        public static GitObjectId getCommitId(String name)
+        {
+            return GitObjectDatabaseTests.getObjectId(GitObjectType.Commit, GitPackFileTests.toBytes(name));
+        }
+
+        public static GitObjectId getTreeId(String name)
+        {
+            return GitObjectDatabaseTests.getObjectId(GitObjectType.Tree, GitPackFileTests.toBytes(name));
+        }
+
+        public GitObjectId addCommit(String name, long commitTime, GitObjectId... parentIds)
+        {
+            return this.addCommit(CommitGraphBuilder.getCommitId(name), CommitGraphBuilder.getTreeId(name), commitTime, parentIds);
+        }
+
+        public GitObjectId addCommit(GitObjectId id, GitObjectId treeId, long commitTime, GitObjectId... parentIds)
+        {
+            int level = 1;
+            long correctedCommitDate = commitTime;
+            for (final GitObjectId parentId : parentIds)
+            {
+                final Commit parent = this.commits.get(parentId);
+                level = Math.max(level, parent.level + 1);
+                correctedCommitDate = Math.max(correctedCommitDate, parent.correctedCommitDate + 1);
+            }
+            final Commit commit = new Commit(id, treeId, parentIds, commitTime, level, correctedCommitDate);
+            this.commits.put(id, commit);
+            this.layers.get(this.layers.size() - 1).put(id, commit);
+            return id;
+        }
+
+        public Commit getCommit(GitObjectId id)
+        {
+            return this.commits.get(id);
+        }
+
+        public int getPosition(GitObjectId id)
+        {
+            int result = 0;
+            for (final java.util.TreeMap<GitObjectId,Commit> layer : this.layers)
+            {
+                if (layer.containsKey(id))
+                {
+                    result += layer.headMap(id).size();
+                    break;
+                }
+                result += layer.size();
+            }
+            return result;
+        }
+
+        /**
+         * Get the commits in the provided layer, sorted by id.
+         * @param layerIndex The index of the layer.
+         * @return The commits in the layer.
+         */
+        public java.util.TreeMap<GitObjectId,Commit> getLayer(int layerIndex)
+        {
+            return this.layers.get(layerIndex);
+        }
+
+        /**
+         * Create the changed-path Bloom filter of the provided paths with 7 hashes and 10 bits
+         * per path, like Git does.
+         * @param paths The changed paths.
+         * @param version The version of the Bloom filter.
+         * @return The bytes of the Bloom filter.
+         */
+        public static byte[] createBloomFilter(String[] paths, int version)
+        {
+            final java.util.TreeSet<String> keys = new java.util.TreeSet<>();
+            for (final String path : paths)
+            {
+                int endIndex = path.length();
+                while (endIndex > 0)
+                {
+                    keys.add(path.substring(0, endIndex));
+                    endIndex = path.lastIndexOf('/', endIndex - 1);
+                }
+            }
+
+            final byte[] result = new byte[Math.max(1, ((keys.size() * 10) + 7) / 8)];
+            for (final String key : keys)
+            {
+                for (final int hash : GitChangedPathKeys.getKey(GitPackFileTests.toBytes(key), 7, version == 1))
+                {
+                    final long bitIndex = Integer.toUnsignedLong(hash) % (result.length * 8L);
+                    result[(int)(bitIndex / 8)] |= (byte)(1 << (bitIndex % 8));
+                }
+            }
+            return result;
+        }
+
+        private void addBloomFilterChunks(java.util.TreeMap<GitObjectId,Commit> layer, java.util.List<Integer> chunkIds, java.util.List<byte[]> chunks)
+        {
+            final java.nio.ByteBuffer bloomIndexes = java.nio.ByteBuffer.allocate(layer.size() * 4);
+            final java.io.ByteArrayOutputStream bloomData = new java.io.ByteArrayOutputStream();
+            final byte[] header = java.nio.ByteBuffer.allocate(12).putInt(this.bloomFilterVersion).putInt(7).putInt(10).array();
+            bloomData.write(header, 0, header.length);
+            for (final GitObjectId commitId : layer.keySet())
+            {
+                final String[] paths = this.changedPaths.get(commitId);
+                if (paths != null)
+                {
+                    final byte[] filter = CommitGraphBuilder.createBloomFilter(paths, this.bloomFilterVersion);
+                    bloomData.write(filter, 0, filter.length);
+                }
+                bloomIndexes.putInt(bloomData.size() - header.length);
+            }
+            chunkIds.add(GitCommitGraphLayer.bloomIndexesChunkId);
+            chunks.add(bloomIndexes.array());
+            chunkIds.add(GitCommitGraphLayer.bloomDataChunkId);
+            chunks.add(bloomData.toByteArray());
+        }
+
+        public java.util.List<byte[]> build()
+        {
+            final java.util.List<byte[]> result = new java.util.ArrayList<>();
+            for (int layerIndex = 0; layerIndex < this.layers.size(); ++layerIndex)
+            {
+                final java.util.TreeMap<GitObjectId,Commit> layer = this.layers.get(layerIndex);
+
+                final java.nio.ByteBuffer fanout = java.nio.ByteBuffer.allocate(256 * 4);
+                final int[] counts = new int[256];
+                for (final GitObjectId id : layer.keySet())
+                {
+                    for (int i = id.getFanoutIndex(); i < 256; ++i)
+                    {
+                        ++counts[i];
+                    }
+                }
+                for (final int count : counts)
+                {
+                    fanout.putInt(count);
+                }
+
+                final java.nio.ByteBuffer objectIds = java.nio.ByteBuffer.allocate(layer.size() * 20);
+                final java.nio.ByteBuffer commitData = java.nio.ByteBuffer.allocate(layer.size() * 36);
+                final java.io.ByteArrayOutputStream extraEdges = new java.io.ByteArrayOutputStream();
+                final java.nio.ByteBuffer generationData = java.nio.ByteBuffer.allocate(layer.size() * 4);
+                final java.io.ByteArrayOutputStream generationDataOverflow = new java.io.ByteArrayOutputStream();
+                for (final Commit commit : layer.values())
+                {
+                    objectIds.put(commit.id.getBytes());
+                    commitData.put(commit.treeId.getBytes());
+                    commitData.putInt(commit.parentIds.length >= 1 ? this.getPosition(commit.parentIds[0]) : GitCommitGraphLayer.noParent);
+                    if (commit.parentIds.length <= 2)
+                    {
+                        commitData.putInt(commit.parentIds.length == 2 ? this.getPosition(commit.parentIds[1]) : GitCommitGraphLayer.noParent);
+                    }
+                    else
+                    {
+                        commitData.putInt(0x80000000 | (extraEdges.size() / 4));
+                        for (int i = 1; i < commit.parentIds.length; ++i)
+                        {
+                            final int edge = this.getPosition(commit.parentIds[i]) | (i == commit.parentIds.length - 1 ? 0x80000000 : 0);
+                            final byte[] edgeBytes = java.nio.ByteBuffer.allocate(4).putInt(edge).array();
+                            extraEdges.write(edgeBytes, 0, edgeBytes.length);
+                        }
+                    }
+                    final int level = this.zeroLevelLayers.contains(layerIndex) ? 0 : commit.level;
+                    commitData.putInt((level << 2) | (int)((commit.commitTime >>> 32) & 0x3));
+                    commitData.putInt((int)commit.commitTime);
+
+                    final long offset = commit.correctedCommitDate - commit.commitTime;
+                    if (offset > 0x7FFFFFFFL)
+                    {
+                        generationData.putInt(0x80000000 | (generationDataOverflow.size() / 8));
+                        final byte[] overflowBytes = java.nio.ByteBuffer.allocate(8).putLong(offset).array();
+                        generationDataOverflow.write(overflowBytes, 0, overflowBytes.length);
+                    }
+                    else
+                    {
+                        generationData.putInt((int)offset);
+                    }
+                }
+
+                final java.util.List<Integer> chunkIds = new java.util.ArrayList<>();
+                final java.util.List<byte[]> chunks = new java.util.ArrayList<>();
+                chunkIds.add(0x4F494446);
+                chunks.add(fanout.array());
+                chunkIds.add(0x4F49444C);
+                chunks.add(objectIds.array());
+                chunkIds.add(0x43444154);
+                chunks.add(commitData.array());
+                if (extraEdges.size() > 0)
+                {
+                    chunkIds.add(0x45444745);
+                    chunks.add(extraEdges.toByteArray());
+                }
+                if (this.generationData)
+                {
+                    chunkIds.add(0x47444132);
+                    chunks.add(generationData.array());
+                    if (generationDataOverflow.size() > 0)
+                    {
+                        chunkIds.add(0x47444F32);
+                        chunks.add(generationDataOverflow.toByteArray());
+                    }
+                }
+                if (layerIndex > 0)
+                {
+                    final java.io.ByteArrayOutputStream baseGraphs = new java.io.ByteArrayOutputStream();
+                    for (int i = 0; i < layerIndex; ++i)
+                    {
+                        final byte[] previousLayer = result.get(i);
+                        baseGraphs.write(previousLayer, previousLayer.length - 20, 20);
+                    }
+                    chunkIds.add(0x42415345);
+                    chunks.add(baseGraphs.toByteArray());
+                }
+                if (!this.changedPaths.isEmpty())
+                {
+                    this.addBloomFilterChunks(layer, chunkIds, chunks);
+                }
+
+                final byte[] header = new byte[] { 'C', 'G', 'P', 'H', 1, 1, (byte)chunks.size(), (byte)layerIndex };
+                result.add(GitChunkTableTests.createChunkFile(header, chunkIds, chunks));
+            }
+            return result;
+        }
+
+        public GitCommitGraph buildGraph()
+        {
+            final List<GitPackData> layerDatas = List.create();
+            for (final byte[] layerBytes : this.build())
+            {
+                layerDatas.add(GitPackData.wrap(layerBytes, GitPackData.defaultSegmentSize));
+            }
+            return GitCommitGraph.create(layerDatas, GitObjectId.sha1Length).await();
+        }
+
+        /**
+         * Write the commit-graph into the provided objects folder. A single layer is written to
+         * "info/commit-graph", and more than one layer is written as a chain.
+         * @param objectsFolder The objects folder to write to.
+         */
+        public void writeTo(Folder objectsFolder)
+        {
+            final java.util.List<byte[]> layerBytes = this.build();
+            if (layerBytes.size() == 1)
+            {
+                objectsFolder.createFile("info/commit-graph").await().setContents(layerBytes.get(0)).await();
+            }
+            else
+            {
+                final StringBuilder chain = new StringBuilder();
+                for (final byte[] bytes : layerBytes)
+                {
+                    final String checksum = GitObjectId.create(bytes, bytes.length - 20, 20).toString();
+                    objectsFolder.createFile("info/commit-graphs/graph-" + checksum + ".graph").await().setContents(bytes).await();
+                    chain.append(checksum).append('\n');
+                }
+                objectsFolder.createFile("info/commit-graphs/commit-graph-chain").await().setContentsAsString(chain.toString()).await();
+            }
+        }
+    }
+
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(GitCommitGraph.class, () ->
+        {
+            runner.testGroup("open(Folder,int)", () ->
+            {
+                runner.test("with null objects folder", (Test test) ->
+                {
+                    test.assertThrows(() -> GitCommitGraph.open(null, 20),
+                        new PreConditionFailure("objectsFolder cannot be null."));
+                });
+
+                runner.test("with no commit-graph", (Test test) ->
+                {
+                    final Folder objectsFolder = GitObjectDatabaseTests.createRepositoryFolder().getFolder(".git/objects").await();
+                    test.assertThrows(() -> GitCommitGraph.open(objectsFolder, 20).await(),
+                        new NotFoundException("Could not find a commit-graph in \"/repo/.git/objects\"."));
+                });
+
+                runner.test("with single file", (Test test) ->
+                {
+                    final Folder objectsFolder = GitObjectDatabaseTests.createRepositoryFolder().getFolder(".git/objects").await();
+                    final CommitGraphBuilder builder = new CommitGraphBuilder();
+                    final GitObjectId root = builder.addCommit("root", 1000);
+                    builder.addCommit("child", 2000, root);
+                    builder.writeTo(objectsFolder);
+
+                    final GitCommitGraph commitGraph = GitCommitGraph.open(objectsFolder, 20).await();
+                    test.assertEqual(1, commitGraph.getLayerCount());
+                    test.assertEqual(2, commitGraph.getCommitCount());
+                    test.assertTrue(commitGraph.containsCommit(root));
+                });
+
+                runner.test("with chain", (Test test) ->
+                {
+                    final Folder objectsFolder = GitObjectDatabaseTests.createRepositoryFolder().getFolder(".git/objects").await();
+                    final CommitGraphBuilder builder = new CommitGraphBuilder();
+                    final GitObjectId root = builder.addCommit("root", 1000);
+                    builder.addLayer();
+                    final GitObjectId child = builder.addCommit("child", 2000, root);
+                    builder.addLayer();
+                    final GitObjectId grandchild = builder.addCommit("grandchild", 3000, child);
+                    builder.writeTo(objectsFolder);
+
+                    final GitCommitGraph commitGraph = GitCommitGraph.open(objectsFolder, 20).await();
+                    test.assertEqual(3, commitGraph.getLayerCount());
+                    test.assertEqual(3, commitGraph.getCommitCount());
+                    test.assertEqual(2, commitGraph.indexOf(grandchild));
+                    test.assertEqual(Iterable.create(child), commitGraph.getParentIds(2));
+                    test.assertTrue(commitGraph.isAncestor(root, grandchild).await());
+                });
+            });
+
+            runner.testGroup("create(Iterable<GitPackData>,int)", () ->
+            {
+                runner.test("with layer that has the wrong base count", (Test test) ->
+                {
+                    final CommitGraphBuilder builder = new CommitGraphBuilder();
+                    builder.addCommit("root", 1000);
+                    final byte[] layer = builder.build().get(0);
+                    test.assertThrows(() -> GitCommitGraph.create(Iterable.create(GitPackData.wrap(layer, 1024), GitPackData.wrap(layer, 1024)), 20).await(),
+                        new ParseException("Expected commit-graph layer 1 to have 1 base layers, but found 0."));
+                });
+
+                runner.test("with layer that is based on a different layer", (Test test) ->
+                {
+                    final CommitGraphBuilder builder = new CommitGraphBuilder();
+                    builder.addCommit("root", 1000);
+                    builder.addLayer();
+                    builder.addCommit("other", 2000);
+                    final java.util.List<byte[]> layers = builder.build();
+
+                    final CommitGraphBuilder otherBuilder = new CommitGraphBuilder();
+                    otherBuilder.addCommit("other root", 1000);
+                    final byte[] otherBase = otherBuilder.build().get(0);
+
+                    final GitObjectId expectedBase = GitObjectId.create(layers.get(0), layers.get(0).length - 20, 20);
+                    final GitObjectId actualBase = GitObjectId.create(otherBase, otherBase.length - 20, 20);
+                    test.assertThrows(() -> GitCommitGraph.create(Iterable.create(GitPackData.wrap(otherBase, 1024), GitPackData.wrap(layers.get(1), 1024)), 20).await(),
+                        new ParseException("Commit-graph layer 1 is based on " + expectedBase + ", but the chain contains " + actualBase + "."));
+                });
+            });
+
+            runner.test("commit data", (Test test) ->
+            {
+                final CommitGraphBuilder builder = new CommitGraphBuilder();
+                final GitObjectId root = builder.addCommit("root", 1000);
+                final GitObjectId left = builder.addCommit("left", 2000, root);
+                final GitObjectId middle = builder.addCommit("middle", 2100, root);
+                final GitObjectId right = builder.addCommit("right", 2200, root);
+                final GitObjectId merge = builder.addCommit("merge", 3000, left, right);
+                final GitObjectId octopus = builder.addCommit("octopus", 4000, merge, left, middle, right);
+                final GitObjectId future = builder.addCommit("future", 0x300000000L, octopus);
+                final GitObjectId skewed = builder.addCommit("skewed", 1, future);
+                final GitCommitGraph commitGraph = builder.buildGraph();
+
+                test.assertEqual(8, commitGraph.getCommitCount());
+                test.assertTrue(commitGraph.hasGenerationData());
+                test.assertEqual(-1, commitGraph.indexOf(CommitGraphBuilder.getCommitId("missing")));
+                test.assertFalse(commitGraph.containsCommit(CommitGraphBuilder.getCommitId("missing")));
+                for (final GitObjectId commitId : Iterable.create(root, left, middle, right, merge, octopus, future, skewed))
+                {
+                    final CommitGraphBuilder.Commit commit = builder.getCommit(commitId);
+                    final int position = commitGraph.indexOf(commitId);
+                    test.assertEqual(builder.getPosition(commitId), position);
+                    test.assertEqual(commitId, commitGraph.getCommitId(position));
+                    test.assertEqual(commit.treeId, commitGraph.getTreeId(position));
+                    test.assertEqual(Iterable.create(commit.parentIds), commitGraph.getParentIds(position));
+                    test.assertEqual(commit.commitTime, commitGraph.getCommitTime(position));
+                    test.assertEqual(commit.level, commitGraph.getTopologicalLevel(position));
+                    test.assertEqual(commit.correctedCommitDate, commitGraph.getGeneration(position));
+                }
+                test.assertEqual(4, commitGraph.getParentCount(commitGraph.indexOf(octopus)));
+                test.assertEqual(0x300000001L, commitGraph.getGeneration(commitGraph.indexOf(skewed)));
+            });
+
+            runner.test("without generation data", (Test test) ->
+            {
+                final CommitGraphBuilder builder = new CommitGraphBuilder().setGenerationData(false);
+                final GitObjectId root = builder.addCommit("root", 1000);
+                final GitObjectId child = builder.addCommit("child", 500, root);
+                final GitCommitGraph commitGraph = builder.buildGraph();
+                test.assertFalse(commitGraph.hasGenerationData());
+                test.assertEqual(1L, commitGraph.getGeneration(commitGraph.indexOf(root)));
+                test.assertEqual(2L, commitGraph.getGeneration(commitGraph.indexOf(child)));
+                test.assertTrue(commitGraph.isAncestor(root, child).await());
+                test.assertFalse(commitGraph.isAncestor(child, root).await());
+            });
+
+            runner.testGroup("mightHaveChangedPath(int,GitChangedPathKeys)", () ->
+            {
+                runner.test("without Bloom filters", (Test test) ->
+                {
+                    final CommitGraphBuilder builder = new CommitGraphBuilder();
+                    final GitObjectId root = builder.addCommit("root", 1000);
+                    final GitCommitGraph commitGraph = builder.buildGraph();
+                    test.assertFalse(commitGraph.hasBloomFilters());
+                    test.assertTrue(commitGraph.mightHaveChangedPath(commitGraph.indexOf(root), GitChangedPathKeys.create("sources")));
+                });
+
+                final Action1<Integer> bloomFilterTests = (Integer version) ->
+                {
+                    runner.test("with version " + version + " Bloom filters", (Test test) ->
+                    {
+                        final CommitGraphBuilder builder = new CommitGraphBuilder().setBloomFilterVersion(version);
+                        final GitObjectId root = builder.addCommit("root", 1000);
+                        final GitObjectId child = builder.addCommit("child", 2000, root);
+                        builder.addLayer();
+                        final GitObjectId notComputed = builder.addCommit("not computed", 3000, child);
+                        final GitObjectId noChanges = builder.addCommit("no changes", 4000, notComputed);
+                        builder.setChangedPaths(root, "README.md", "sources/qub/Git.java");
+                        builder.setChangedPaths(child, "tests/qub/GitTests.java", "sources/qub/caf\u00e9.txt");
+                        builder.setChangedPaths(noChanges);
+                        final GitCommitGraph commitGraph = builder.buildGraph();
+                        test.assertTrue(commitGraph.hasBloomFilters());
+
+                        final int rootPosition = commitGraph.indexOf(root);
+                        test.assertTrue(commitGraph.mightHaveChangedPath(rootPosition, GitChangedPathKeys.create("README.md")));
+                        test.assertTrue(commitGraph.mightHaveChangedPath(rootPosition, GitChangedPathKeys.create("sources")));
+                        test.assertTrue(commitGraph.mightHaveChangedPath(rootPosition, GitChangedPathKeys.create("sources/qub")));
+                        test.assertTrue(commitGraph.mightHaveChangedPath(rootPosition, GitChangedPathKeys.create("sources/qub/Git.java")));
+                        test.assertFalse(commitGraph.mightHaveChangedPath(rootPosition, GitChangedPathKeys.create("tests")));
+
+                        final int childPosition = commitGraph.indexOf(child);
+                        test.assertTrue(commitGraph.mightHaveChangedPath(childPosition, GitChangedPathKeys.create("tests/qub")));
+                        test.assertTrue(commitGraph.mightHaveChangedPath(childPosition, GitChangedPathKeys.create("sources/qub/caf\u00e9.txt")));
+                        test.assertFalse(commitGraph.mightHaveChangedPath(childPosition, GitChangedPathKeys.create("README.md")));
+
+                        test.assertTrue(commitGraph.mightHaveChangedPath(commitGraph.indexOf(notComputed), GitChangedPathKeys.create("README.md")));
+                        test.assertFalse(commitGraph.mightHaveChangedPath(commitGraph.indexOf(noChanges), GitChangedPathKeys.create("README.md")));
+                    });
+                };
+
+                bloomFilterTests.run(1);
+                bloomFilterTests.run(2);
+            });
+
+            runner.testGroup("isAncestor(GitObjectId,GitObjectId)", () ->
+            {
+                final CommitGraphBuilder builder = new CommitGraphBuilder();
+                final GitObjectId root = builder.addCommit("root", 1000);
+                final GitObjectId a1 = builder.addCommit("a1", 2000, root);
+                final GitObjectId a2 = builder.addCommit("a2", 3000, a1);
+                final GitObjectId b1 = builder.addCommit("b1", 2500, root);
+                final GitObjectId merge = builder.addCommit("merge", 4000, a2, b1);
+                final GitObjectId unrelated = builder.addCommit("unrelated", 1500);
+                builder.addLayer();
+                final GitObjectId tip = builder.addCommit("tip", 5000, merge);
+
+                final Action3<GitObjectId,GitObjectId,Boolean> isAncestorTest = (GitObjectId ancestor, GitObjectId descendant, Boolean expected) ->
+                {
+                    runner.test("with " + ancestor + " and " + descendant, (Test test) ->
+                    {
+                        final GitCommitGraph commitGraph = builder.buildGraph();
+                        test.assertEqual(expected, commitGraph.isAncestor(ancestor, descendant).await());
+                    });
+                };
+
+                isAncestorTest.run(root, root, true);
+                isAncestorTest.run(root, a1, true);
+                isAncestorTest.run(a1, root, false);
+                isAncestorTest.run(b1, a2, false);
+                isAncestorTest.run(b1, merge, true);
+                isAncestorTest.run(a1, tip, true);
+                isAncestorTest.run(unrelated, tip, false);
+                isAncestorTest.run(tip, unrelated, false);
+
+                runner.test("with zero-level top layer", (Test test) ->
+                {
+                    final CommitGraphBuilder zeroLevelBuilder = new CommitGraphBuilder().setGenerationData(false);
+                    final GitObjectId zeroLevelRoot = zeroLevelBuilder.addCommit("root", 1000);
+                    final GitObjectId zeroLevelA1 = zeroLevelBuilder.addCommit("a1", 2000, zeroLevelRoot);
+                    final GitObjectId zeroLevelUnrelated = zeroLevelBuilder.addCommit("unrelated", 1500);
+                    zeroLevelBuilder.addLayer().setZeroLevels(1);
+                    final GitObjectId t1 = zeroLevelBuilder.addCommit("t1", 3000, zeroLevelA1);
+                    final GitObjectId t2 = zeroLevelBuilder.addCommit("t2", 4000, t1);
+                    final GitCommitGraph commitGraph = zeroLevelBuilder.buildGraph();
+                    test.assertEqual(0L, commitGraph.getGeneration(commitGraph.indexOf(t2)));
+
+                    test.assertTrue(commitGraph.isAncestor(zeroLevelA1, t2).await());
+                    test.assertTrue(commitGraph.isAncestor(zeroLevelRoot, t1).await());
+                    test.assertTrue(commitGraph.isAncestor(t1, t2).await());
+                    test.assertFalse(commitGraph.isAncestor(t2, t1).await());
+                    test.assertFalse(commitGraph.isAncestor(zeroLevelUnrelated, t2).await());
+                });
+
+                runner.test("with missing commit", (Test test) ->
+                {
+                    final GitCommitGraph commitGraph = builder.buildGraph();
+                    final GitObjectId missing = CommitGraphBuilder.getCommitId("missing");
+                    test.assertThrows(() -> commitGraph.isAncestor(missing, tip).await(),
+                        new NotFoundException("Could not find the commit " + missing + " in the commit-graph."));
+                });
+            });
+
+            runner.test("getCommitsBetween(GitObjectId,GitObjectId)", (Test test) ->
+            {
+                final CommitGraphBuilder builder = new CommitGraphBuilder();
+                final GitObjectId root = builder.addCommit("root", 1000);
+                final GitObjectId a1 = builder.addCommit("a1", 2000, root);
+                final GitObjectId a2 = builder.addCommit("a2", 3000, a1);
+                final GitObjectId b1 = builder.addCommit("b1", 2500, root);
+                final GitObjectId merge = builder.addCommit("merge", 4000, a2, b1);
+                final GitCommitGraph commitGraph = builder.buildGraph();
+
+                test.assertEqual(Iterable.create(merge, a2, b1), commitGraph.getCommitsBetween(a1, merge).await());
+                test.assertEqual(Iterable.create(), commitGraph.getCommitsBetween(merge, a1).await());
+                test.assertEqual(Iterable.create(merge, b1), commitGraph.getCommitsBetween(a2, merge).await());
+            });
+        });
+    }
+}
@@ -0,0 +1,62 @@
+package qub;
+
+public interface GitCommitTests
+{
+    static GitCommit createCommit(String contents)
+    {
+        final GitObjectId objectId = GitObjectDatabaseTests.getObjectId(GitObjectType.Commit, contents.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+        return (GitCommit)GitObject.create(objectId, GitObjectType.Commit, GitObjectDatabaseTests.toSlice(contents));
+    }
+
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(GitCommit.class, () ->
+        {
+            runner.test("with root commit", (Test test) ->
+            {
+                final GitCommit commit = GitCommitTests.createCommit(
+                    "tree 4b825dc642cb6eb9a060e54bf8d69288fbee4904\n" +
+                    "author A U Thor <author@example.com> 1700000000 +0000\n" +
+                    "committer C O Mitter <committer@example.com> 1700000001 +0000\n" +
+                    "\n" +
+                    "Initial commit\n");
+                test.assertEqual(GitObjectId.parse("4b825dc642cb6eb9a060e54bf8d69288fbee4904").await(), commit.getTreeId());
+                test.assertEqual(Iterable.create(), commit.getParentIds());
+                test.assertEqual("A U Thor <author@example.com> 1700000000 +0000", commit.getAuthor());
+                test.assertEqual("C O Mitter <committer@example.com> 1700000001 +0000", commit.getCommitter());
+                test.assertEqual(1700000001L, commit.getCommitTime());
+                test.assertEqual("Initial commit\n", commit.getMessage().getText());
+            });
+
+            runner.test("with merge commit and signature", (Test test) ->
+            {
+                final GitCommit commit = GitCommitTests.createCommit(
+                    "tree 4b825dc642cb6eb9a060e54bf8d69288fbee4904\n" +
+                    "parent e69de29bb2d1d6434b8b29ae775ad8c2e48c5391\n" +
+                    "parent ce013625030ba8dba906f756967f9e9ca394464a\n" +
+                    "author A U Thor <author@example.com> 1700000000 +0000\n" +
+                    "committer C O Mitter <committer@example.com> 1700000001 +0000\n" +
+                    "gpgsig -----BEGIN PGP SIGNATURE-----\n" +
+                    " \n" +
+                    " parent 0000000000000000000000000000000000000000\n" +
+                    " -----END PGP SIGNATURE-----\n" +
+                    "\n" +
+                    "Merge branch 'topic'\n" +
+                    "\n" +
+                    "parent in the message\n");
+                test.assertEqual(
+                    Iterable.create("e69de29bb2d1d6434b8b29ae775ad8c2e48c5391", "ce013625030ba8dba906f756967f9e9ca394464a"),
+                    commit.getParentIds().map(GitObjectId::toString));
+                test.assertEqual("Merge branch 'topic'\n\nparent in the message\n", commit.getMessage().getText());
+            });
+
+            runner.test("with no message", (Test test) ->
+            {
+                final GitCommit commit = GitCommitTests.createCommit("tree 4b825dc642cb6eb9a060e54bf8d69288fbee4904\n");
+                test.assertNull(commit.getAuthor());
+                test.assertEqual(0L, commit.getCommitTime());
+                test.assertEqual("", commit.getMessage().getText());
+            });
+        });
+    }
+}
@@ -0,0 +1,134 @@
+package qub;
+
+public interface GitDataReaderTests
+{
+    static GitDataReader create(byte[] bytes)
+    {
+        return GitDataReader.create(GitPackData.wrap(bytes, 16), 0, bytes.length, "test data");
+    }
+
+    static GitDataReader create(String text)
+    {
+        return GitDataReaderTests.create(text.getBytes(java.nio.charset.StandardCharsets.ISO_8859_1));
+    }
+
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(GitDataReader.class, () ->
+        {
+            runner.testGroup("create(GitPackData,long,long,String)", () ->
+            {
+                runner.test("with null data", (Test test) ->
+                {
+                    test.assertThrows(() -> GitDataReader.create(null, 0, 0, "test data"),
+                        new PreConditionFailure("data cannot be null."));
+                });
+
+                runner.test("with empty description", (Test test) ->
+                {
+                    test.assertThrows(() -> GitDataReader.create(GitPackData.wrap(new byte[1], 16), 0, 1, ""),
+                        new PreConditionFailure("description cannot be empty."));
+                });
+
+                runner.test("with region", (Test test) ->
+                {
+                    final GitDataReader reader = GitDataReader.create(GitPackData.wrap(new byte[] { 1, 2, 3, 4 }, 16), 1, 3, "test data");
+                    test.assertEqual(1, reader.getPosition());
+                    test.assertEqual(2, reader.getRemainingByteCount());
+                    test.assertEqual(2, reader.readUnsignedByte());
+                    test.assertEqual(3, reader.readUnsignedByte());
+                    test.assertThrows(() -> reader.readUnsignedByte(),
+                        new ParseException("Unexpected end of test data."));
+                });
+            });
+
+            runner.test("skip(long)", (Test test) ->
+            {
+                final GitDataReader reader = GitDataReaderTests.create(new byte[] { 1, 2, 3 });
+                test.assertSame(reader, reader.skip(2));
+                test.assertEqual(2, reader.getPosition());
+                test.assertThrows(() -> reader.skip(2),
+                    new ParseException("Unexpected end of test data."));
+                test.assertEqual(2, reader.getPosition());
+            });
+
+            runner.test("readUnsignedInt()", (Test test) ->
+            {
+                final GitDataReader reader = GitDataReaderTests.create(new byte[] { (byte)0xFF, 0, 0, 1, 2 });
+                test.assertEqual(0xFF000001L, reader.readUnsignedInt());
+                test.assertThrows(() -> reader.readUnsignedInt(),
+                    new ParseException("Unexpected end of test data."));
+            });
+
+            runner.testGroup("readVarint()", () ->
+            {
+                for (final long value : new long[] { 0, 1, 127, 128, 255, 16511, 16512, 1L << 35, Long.MAX_VALUE >>> 8 })
+                {
+                    runner.test("with " + value, (Test test) ->
+                    {
+                        final GitDataReader reader = GitDataReaderTests.create(GitIndexTests.IndexBuilder.encodeVarint(value));
+                        test.assertEqual(value, reader.readVarint());
+                        test.assertEqual(0, reader.getRemainingByteCount());
+                    });
+                }
+
+                runner.test("with missing continuation", (Test test) ->
+                {
+                    final GitDataReader reader = GitDataReaderTests.create(new byte[] { (byte)0x80 });
+                    test.assertThrows(() -> reader.readVarint(),
+                        new ParseException("Unexpected end of test data."));
+                });
+
+                runner.test("with too many continuations", (Test test) ->
+                {
+                    final byte[] bytes = new byte[12];
+                    java.util.Arrays.fill(bytes, (byte)0xFF);
+                    final GitDataReader reader = GitDataReaderTests.create(bytes);
+                    test.assertThrows(() -> reader.readVarint(),
+                        new ParseException("The variable-width integer at 7 in the test data is too large."));
+                });
+            });
+
+            runner.test("readString(char)", (Test test) ->
+            {
+                final GitDataReader reader = GitDataReaderTests.create("abc\0\0d\u00E9");
+                test.assertEqual("abc", reader.readString('\0'));
+                test.assertEqual("", reader.readString('\0'));
+                test.assertThrows(() -> reader.readString('\0'),
+                    new ParseException("Unexpected end of test data."));
+                test.assertEqual(5, reader.getPosition());
+            });
+
+            runner.test("readDecimal(char)", (Test test) ->
+            {
+                final GitDataReader reader = GitDataReaderTests.create("-1 25\nx ");
+                test.assertEqual(-1, reader.readDecimal(' '));
+                test.assertEqual(25, reader.readDecimal('\n'));
+                test.assertThrows(() -> reader.readDecimal(' '),
+                    new ParseException("Expected a decimal integer in the test data, but found \"x\"."));
+            });
+
+            runner.test("readObjectId(int)", (Test test) ->
+            {
+                final GitObjectId objectId = GitIndexTests.getObjectId("contents");
+                final byte[] bytes = new byte[GitObjectId.sha1Length * 2];
+                System.arraycopy(objectId.getBytes(), 0, bytes, GitObjectId.sha1Length, GitObjectId.sha1Length);
+                final GitDataReader reader = GitDataReaderTests.create(bytes);
+                test.assertNull(reader.readObjectId(GitObjectId.sha1Length));
+                test.assertEqual(objectId, reader.readObjectId(GitObjectId.sha1Length));
+                test.assertThrows(() -> reader.readObjectId(GitObjectId.sha1Length),
+                    new ParseException("Unexpected end of test data."));
+            });
+
+            runner.test("readEwahBitmap()", (Test test) ->
+            {
+                final java.util.BitSet bits = GitEwahBitmapTests.createBitSet(0, 5, 100);
+                final byte[] bitmapBytes = GitEwahBitmapTests.encode(bits, 101);
+                final byte[] bytes = java.util.Arrays.copyOf(bitmapBytes, bitmapBytes.length + 1);
+                final GitDataReader reader = GitDataReaderTests.create(bytes);
+                test.assertEqual(bits, reader.readEwahBitmap());
+                test.assertEqual(1, reader.getRemainingByteCount());
+            });
+        });
+    }
+}
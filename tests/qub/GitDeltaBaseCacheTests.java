@@ -0,0 +1,214 @@
+package qub;
+
+public interface GitDeltaBaseCacheTests
+{
+    static GitPackFile.RawObject createRawObject(int size)
+    {
+        return new GitPackFile.RawObject(GitObjectType.Blob, new byte[size]);
+    }
+
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(GitDeltaBaseCache.class, () ->
+        {
+            runner.test("create()", (Test test) ->
+            {
+                final GitDeltaBaseCache cache = GitDeltaBaseCache.create();
+                test.assertEqual(GitDeltaBaseCache.defaultByteBudget, cache.getByteBudget());
+                test.assertGreaterThan(cache.getStripeCount(), 0);
+                test.assertEqual(0, cache.getCount());
+                test.assertEqual(0L, cache.getByteCount());
+                test.assertEqual(0L, cache.getHitCount());
+                test.assertEqual(0L, cache.getMissCount());
+                test.assertEqual(0L, cache.getEvictionCount());
+            });
+
+            runner.testGroup("create(long,int)", () ->
+            {
+                runner.test("with negative byte budget", (Test test) ->
+                {
+                    test.assertThrows(() -> GitDeltaBaseCache.create(-1, 1),
+                        new PreConditionFailure("byteBudget (-1) must be greater than or equal to 0."));
+                });
+
+                runner.test("with zero stripes", (Test test) ->
+                {
+                    test.assertThrows(() -> GitDeltaBaseCache.create(100, 0),
+                        new PreConditionFailure("stripeCount (0) must be greater than or equal to 1."));
+                });
+
+                runner.test("with valid arguments", (Test test) ->
+                {
+                    final GitDeltaBaseCache cache = GitDeltaBaseCache.create(100, 4);
+                    test.assertEqual(100L, cache.getByteBudget());
+                    test.assertEqual(4, cache.getStripeCount());
+                });
+            });
+
+            runner.testGroup("get(GitPackFile,long)", () ->
+            {
+                runner.test("with null pack file", (Test test) ->
+                {
+                    final GitDeltaBaseCache cache = GitDeltaBaseCache.create(100, 1);
+                    test.assertThrows(() -> cache.get(null, 12),
+                        new PreConditionFailure("packFile cannot be null."));
+                });
+
+                runner.test("with missing and cached entries", (Test test) ->
+                {
+                    final GitDeltaBaseCache cache = GitDeltaBaseCache.create(100, 1);
+                    final GitPackFile pack = new GitPackFileTests.PackBuilder().build();
+                    test.assertNull(cache.get(pack, 12));
+                    test.assertEqual(1L, cache.getMissCount());
+
+                    final GitPackFile.RawObject rawObject = GitDeltaBaseCacheTests.createRawObject(10);
+                    cache.put(pack, 12, rawObject);
+                    test.assertSame(rawObject, cache.get(pack, 12));
+                    test.assertNull(cache.get(pack, 13));
+                    test.assertNull(cache.get(new GitPackFileTests.PackBuilder().build(), 12));
+                    test.assertEqual(1L, cache.getHitCount());
+                    test.assertEqual(3L, cache.getMissCount());
+                    test.assertEqual(1, cache.getCount());
+                    test.assertEqual(10L, cache.getByteCount());
+                });
+            });
+
+            runner.testGroup("put(GitPackFile,long,RawObject)", () ->
+            {
+                runner.test("with entry larger than the byte budget", (Test test) ->
+                {
+                    final GitDeltaBaseCache cache = GitDeltaBaseCache.create(100, 2);
+                    final GitPackFile pack = new GitPackFileTests.PackBuilder().build();
+                    cache.put(pack, 12, GitDeltaBaseCacheTests.createRawObject(101));
+                    test.assertEqual(0, cache.getCount());
+                    test.assertNull(cache.get(pack, 12));
+                });
+
+                runner.test("with entry larger than an equal share of the byte budget", (Test test) ->
+                {
+                    final GitDeltaBaseCache cache = GitDeltaBaseCache.create(100, 4);
+                    final GitPackFile pack = new GitPackFileTests.PackBuilder().build();
+                    final GitPackFile.RawObject rawObject = GitDeltaBaseCacheTests.createRawObject(100);
+                    cache.put(pack, 12, rawObject);
+                    test.assertEqual(1, cache.getCount());
+                    test.assertEqual(100L, cache.getByteCount());
+                    test.assertSame(rawObject, cache.get(pack, 12));
+                });
+
+                runner.test("evicts entries from other stripes", (Test test) ->
+                {
+                    final GitDeltaBaseCache cache = GitDeltaBaseCache.create(100, 8);
+                    final GitPackFile pack = new GitPackFileTests.PackBuilder().build();
+                    for (int i = 0; i < 20; ++i)
+                    {
+                        cache.put(pack, i, GitDeltaBaseCacheTests.createRawObject(10));
+                        test.assertTrue(cache.getByteCount() <= 100L);
+                    }
+                    test.assertEqual(10, cache.getCount());
+                    test.assertEqual(10L, cache.getEvictionCount());
+
+                    final GitPackFile.RawObject rawObject = GitDeltaBaseCacheTests.createRawObject(95);
+                    cache.put(pack, 100, rawObject);
+                    test.assertEqual(1, cache.getCount());
+                    test.assertEqual(95L, cache.getByteCount());
+                    test.assertEqual(20L, cache.getEvictionCount());
+                    test.assertSame(rawObject, cache.get(pack, 100));
+                });
+
+                runner.test("with same key twice", (Test test) ->
+                {
+                    final GitDeltaBaseCache cache = GitDeltaBaseCache.create(100, 1);
+                    final GitPackFile pack = new GitPackFileTests.PackBuilder().build();
+                    cache.put(pack, 12, GitDeltaBaseCacheTests.createRawObject(30));
+                    cache.put(pack, 12, GitDeltaBaseCacheTests.createRawObject(20));
+                    test.assertEqual(1, cache.getCount());
+                    test.assertEqual(20L, cache.getByteCount());
+                });
+
+                runner.test("evicts least recently used entries", (Test test) ->
+                {
+                    final GitDeltaBaseCache cache = GitDeltaBaseCache.create(100, 1);
+                    final GitPackFile pack = new GitPackFileTests.PackBuilder().build();
+                    cache.put(pack, 1, GitDeltaBaseCacheTests.createRawObject(40));
+                    cache.put(pack, 2, GitDeltaBaseCacheTests.createRawObject(40));
+                    test.assertNotNull(cache.get(pack, 1));
+
+                    cache.put(pack, 3, GitDeltaBaseCacheTests.createRawObject(40));
+                    test.assertEqual(2, cache.getCount());
+                    test.assertEqual(80L, cache.getByteCount());
+                    test.assertEqual(1L, cache.getEvictionCount());
+                    test.assertNotNull(cache.get(pack, 1));
+                    test.assertNull(cache.get(pack, 2));
+                    test.assertNotNull(cache.get(pack, 3));
+                });
+            });
+
+            runner.test("remove(GitPackFile)", (Test test) ->
+            {
+                final GitDeltaBaseCache cache = GitDeltaBaseCache.create(1000, 4);
+                final GitPackFile pack1 = new GitPackFileTests.PackBuilder().build();
+                final GitPackFile pack2 = new GitPackFileTests.PackBuilder().build();
+                for (int i = 0; i < 10; ++i)
+                {
+                    cache.put(pack1, i, GitDeltaBaseCacheTests.createRawObject(5));
+                    cache.put(pack2, i, GitDeltaBaseCacheTests.createRawObject(5));
+                }
+                test.assertSame(cache, cache.remove(pack1));
+                test.assertEqual(10, cache.getCount());
+                test.assertEqual(50L, cache.getByteCount());
+                test.assertNull(cache.get(pack1, 3));
+                test.assertNotNull(cache.get(pack2, 3));
+            });
+
+            runner.test("clear()", (Test test) ->
+            {
+                final GitDeltaBaseCache cache = GitDeltaBaseCache.create(1000, 4);
+                final GitPackFile pack = new GitPackFileTests.PackBuilder().build();
+                cache.put(pack, 1, GitDeltaBaseCacheTests.createRawObject(5));
+                test.assertNotNull(cache.get(pack, 1));
+                test.assertSame(cache, cache.clear());
+                test.assertEqual(0, cache.getCount());
+                test.assertEqual(0L, cache.getByteCount());
+                test.assertEqual(1L, cache.getHitCount());
+            });
+
+            runner.test("with concurrent readers", (Test test) ->
+            {
+                final GitDeltaBaseCache cache = GitDeltaBaseCache.create(10000, 8);
+                final GitPackFile pack = new GitPackFileTests.PackBuilder().build();
+                final java.util.concurrent.ExecutorService executor = java.util.concurrent.Executors.newFixedThreadPool(8);
+                try
+                {
+                    final java.util.ArrayList<java.util.concurrent.Future<?>> futures = new java.util.ArrayList<>();
+                    for (int thread = 0; thread < 8; ++thread)
+                    {
+                        futures.add(executor.submit(() ->
+                        {
+                            for (int i = 0; i < 1000; ++i)
+                            {
+                                if (cache.get(pack, i % 100) == null)
+                                {
+                                    cache.put(pack, i % 100, GitDeltaBaseCacheTests.createRawObject(10));
+                                }
+                            }
+                        }));
+                    }
+                    for (final java.util.concurrent.Future<?> future : futures)
+                    {
+                        future.get();
+                    }
+                }
+                catch (InterruptedException | java.util.concurrent.ExecutionException e)
+                {
+                    test.fail(e.getMessage());
+                }
+                finally
+                {
+                    executor.shutdown();
+                }
+                test.assertEqual(8000L, cache.getHitCount() + cache.getMissCount());
+                test.assertLessThan(cache.getByteCount(), 10001L);
+            });
+        });
+    }
+}
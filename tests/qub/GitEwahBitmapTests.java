@@ -0,0 +1,132 @@
+package qub;
+
+public interface GitEwahBitmapTests
+{
+    /**
+     * Encode the provided bits as an EWAH bitmap.
+     * @param bits The bits to encode.
+     * @param bitCount The number of bits in the bitmap.
+     * @return The serialized EWAH bitmap.
+     */
+    static byte[] encode(java.util.BitSet bits, int bitCount)
+    {
+        final long[] words = java.util.Arrays.copyOf(bits.toLongArray(), (bitCount + 63) / 64);
+        final java.util.List<Long> compressedWords = new java.util.ArrayList<>();
+        int lastMarkerIndex = 0;
+        int wordIndex = 0;
+        while (wordIndex < words.length)
+        {
+            long runBit = 0;
+            long runLength = 0;
+            if (words[wordIndex] == 0 || words[wordIndex] == -1L)
+            {
+                final long runWord = words[wordIndex];
+                runBit = runWord == 0 ? 0 : 1;
+                while (wordIndex < words.length && words[wordIndex] == runWord)
+                {
+                    ++runLength;
+                    ++wordIndex;
+                }
+            }
+
+            final int literalStartIndex = wordIndex;
+            while (wordIndex < words.length && words[wordIndex] != 0 && words[wordIndex] != -1L)
+            {
+                ++wordIndex;
+            }
+            final long literalCount = wordIndex - literalStartIndex;
+
+            lastMarkerIndex = compressedWords.size();
+            compressedWords.add(runBit | (runLength << 1) | (literalCount << 33));
+            for (int i = literalStartIndex; i < wordIndex; ++i)
+            {
+                compressedWords.add(words[i]);
+            }
+        }
+
+        final java.nio.ByteBuffer result = java.nio.ByteBuffer.allocate(8 + (compressedWords.size() * 8) + 4);
+        result.putInt(bitCount);
+        result.putInt(compressedWords.size());
+        for (final long compressedWord : compressedWords)
+        {
+            result.putLong(compressedWord);
+        }
+        result.putInt(lastMarkerIndex);
+        return result.array();
+    }
+
+    static java.util.BitSet createBitSet(int... bitPositions)
+    {
+        final java.util.BitSet result = new java.util.BitSet();
+        for (final int bitPosition : bitPositions)
+        {
+            result.set(bitPosition);
+        }
+        return result;
+    }
+
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(GitEwahBitmap.class, () ->
+        {
+            runner.testGroup("read(GitPackData,long)", () ->
+            {
+                runner.test("with null data", (Test test) ->
+                {
+                    test.assertThrows(() -> GitEwahBitmap.read(null, 0),
+                        new PreConditionFailure("data cannot be null."));
+                });
+
+                runner.test("with truncated header", (Test test) ->
+                {
+                    test.assertThrows(() -> GitEwahBitmap.read(GitPackData.wrap(new byte[6], 1024), 0),
+                        new ParseException("Unexpected end of EWAH bitmap at 0."));
+                });
+
+                runner.test("with truncated words", (Test test) ->
+                {
+                    final byte[] bytes = GitEwahBitmapTests.encode(GitEwahBitmapTests.createBitSet(1, 100), 128);
+                    test.assertThrows(() -> GitEwahBitmap.read(GitPackData.wrap(java.util.Arrays.copyOf(bytes, bytes.length - 1), 1024), 0),
+                        new ParseException("Unexpected end of EWAH bitmap at 0."));
+                });
+
+                runner.test("with more words than the bit count allows", (Test test) ->
+                {
+                    final byte[] bytes = java.nio.ByteBuffer.allocate(20).putInt(64).putInt(1).putLong(2L << 1).putInt(0).array();
+                    test.assertThrows(() -> GitEwahBitmap.read(GitPackData.wrap(bytes, 1024), 0),
+                        new ParseException("The EWAH bitmap at 0 contains more words than its bit count allows."));
+                });
+
+                runner.test("with empty bitmap", (Test test) ->
+                {
+                    final GitEwahBitmap bitmap = GitEwahBitmap.read(GitPackData.wrap(GitEwahBitmapTests.encode(new java.util.BitSet(), 0), 1024), 0);
+                    test.assertEqual(0L, bitmap.getBitCount());
+                    test.assertEqual(12L, bitmap.getByteCount());
+                    test.assertTrue(bitmap.toBitSet().isEmpty());
+                });
+
+                runner.test("with run of ones past the bit count", (Test test) ->
+                {
+                    final byte[] bytes = java.nio.ByteBuffer.allocate(20).putInt(70).putInt(1).putLong(1L | (2L << 1)).putInt(0).array();
+                    final java.util.BitSet bits = GitEwahBitmap.read(GitPackData.wrap(bytes, 1024), 0).toBitSet();
+                    test.assertEqual(70, bits.cardinality());
+                    test.assertEqual(70, bits.length());
+                });
+
+                runner.test("with runs and literals at an offset", (Test test) ->
+                {
+                    final java.util.BitSet expected = GitEwahBitmapTests.createBitSet(3, 64, 65, 1000);
+                    expected.set(200, 400);
+                    final byte[] encoded = GitEwahBitmapTests.encode(expected, 1030);
+                    final byte[] bytes = new byte[encoded.length + 5];
+                    System.arraycopy(encoded, 0, bytes, 5, encoded.length);
+
+                    final GitEwahBitmap bitmap = GitEwahBitmap.read(GitPackData.wrap(bytes, 16), 5);
+                    test.assertEqual(1030L, bitmap.getBitCount());
+                    test.assertEqual((long)encoded.length, bitmap.getByteCount());
+                    test.assertEqual(expected, bitmap.toBitSet());
+                });
+            });
+        });
+    }
+}
@@ -0,0 +1,130 @@
+package qub;
+
+public interface GitFileStatTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(GitFileStat.class, () ->
+        {
+            runner.testGroup("create(long,long,long)", () ->
+            {
+                runner.test("with negative size", (Test test) ->
+                {
+                    test.assertThrows(() -> GitFileStat.create(-1, 0, 0),
+                        new PreConditionFailure("size (-1) must be greater than or equal to 0."));
+                });
+
+                runner.test("with valid arguments", (Test test) ->
+                {
+                    final GitFileStat stat = GitFileStat.create(10, 20, 30);
+                    test.assertEqual(GitFileStat.regularFileMode, stat.getMode());
+                    test.assertFalse(stat.isSymbolicLink());
+                    test.assertFalse(stat.hasExecutableBit());
+                    test.assertEqual(10, stat.getSize());
+                    test.assertEqual(20, stat.getMtimeSeconds());
+                    test.assertEqual(30, stat.getMtimeNanoseconds());
+                });
+            });
+
+            runner.testGroup("get(File)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> GitFileStat.get((File)null),
+                        new PreConditionFailure("file cannot be null."));
+                });
+
+                runner.test("with file that doesn't exist", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(ManualClock.create(DateTime.create(2026, 1, 1)));
+                    fileSystem.createRoot("/").await();
+                    test.assertNull(GitFileStat.get(fileSystem.getFile("/a.txt").await()));
+                });
+
+                runner.test("with file that exists", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(ManualClock.create(DateTime.create(2026, 1, 1, 0, 0, 5)));
+                    fileSystem.createRoot("/").await();
+                    final File file = fileSystem.getFile("/a.txt").await();
+                    file.setContentsAsString("hello").await();
+
+                    final GitFileStat stat = GitFileStat.get(file);
+                    test.assertEqual(5, stat.getSize());
+                    test.assertEqual(1767225605, stat.getMtimeSeconds());
+                    test.assertEqual(0, stat.getMtimeNanoseconds());
+                    test.assertFalse(stat.hasExecutableBit());
+                });
+            });
+
+            runner.testGroup("matches(GitIndexEntry)", () ->
+            {
+                final Function2<Long,Long,GitIndexEntry> createEntry = (Long size, Long mtimeSeconds) ->
+                {
+                    return new GitIndexTests.IndexBuilder(2)
+                        .addEntry("a.txt", GitIndexTests.getObjectId("a"), GitFileStat.regularFileMode, size, mtimeSeconds)
+                        .parse()
+                        .getEntry(0);
+                };
+
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> GitFileStat.create(1, 2, 0).matches(null),
+                        new PreConditionFailure("entry cannot be null."));
+                });
+
+                runner.test("with matching size and last modified time", (Test test) ->
+                {
+                    test.assertTrue(GitFileStat.create(5, 100, 0).matches(createEntry.run(5L, 100L)));
+                });
+
+                runner.test("with nanoseconds that the entry doesn't have", (Test test) ->
+                {
+                    test.assertTrue(GitFileStat.create(5, 100, 500).matches(createEntry.run(5L, 100L)));
+                });
+
+                runner.test("with different size", (Test test) ->
+                {
+                    test.assertFalse(GitFileStat.create(6, 100, 0).matches(createEntry.run(5L, 100L)));
+                });
+
+                runner.test("with different last modified time", (Test test) ->
+                {
+                    test.assertFalse(GitFileStat.create(5, 101, 0).matches(createEntry.run(5L, 100L)));
+                });
+
+                runner.test("with unknown last modified time", (Test test) ->
+                {
+                    test.assertFalse(GitFileStat.create(5, -1, 0).matches(createEntry.run(5L, 0xFFFFFFFFL)));
+                });
+
+                runner.test("with size that doesn't fit in 32 bits", (Test test) ->
+                {
+                    test.assertTrue(GitFileStat.create(0x100000005L, 100, 0).matches(createEntry.run(5L, 100L)));
+                });
+            });
+
+            runner.testGroup("isAtOrAfter(long,long,long,long)", () ->
+            {
+                runner.test("with whole seconds", (Test test) ->
+                {
+                    test.assertFalse(GitFileStat.isAtOrAfter(9, 0, 10, 0));
+                    test.assertTrue(GitFileStat.isAtOrAfter(10, 0, 10, 0));
+                    test.assertTrue(GitFileStat.isAtOrAfter(11, 0, 10, 500));
+                });
+
+                runner.test("with nanoseconds", (Test test) ->
+                {
+                    test.assertFalse(GitFileStat.isAtOrAfter(10, 400, 10, 500));
+                    test.assertTrue(GitFileStat.isAtOrAfter(10, 500, 10, 500));
+                    test.assertTrue(GitFileStat.isAtOrAfter(10, 600, 10, 500));
+                });
+
+                runner.test("with nanoseconds on only one side", (Test test) ->
+                {
+                    test.assertTrue(GitFileStat.isAtOrAfter(10, 400, 10, 0));
+                    test.assertTrue(GitFileStat.isAtOrAfter(10, 0, 10, 500));
+                });
+            });
+        });
+    }
+}
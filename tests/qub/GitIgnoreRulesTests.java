@@ -0,0 +1,145 @@
+package qub;
+
+public interface GitIgnoreRulesTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(GitIgnoreRules.class, () ->
+        {
+            runner.testGroup("create(GitIgnoreRules,String,String)", () ->
+            {
+                runner.test("with null basePath", (Test test) ->
+                {
+                    test.assertThrows(() -> GitIgnoreRules.create(null, null, ""),
+                        new PreConditionFailure("basePath cannot be null."));
+                });
+
+                runner.test("with basePath that doesn't end with '/'", (Test test) ->
+                {
+                    test.assertThrows(() -> GitIgnoreRules.create(null, "src", ""),
+                        new PreConditionFailure("basePath.isEmpty() || basePath.endsWith(\"/\") cannot be false."));
+                });
+
+                runner.test("with null contents", (Test test) ->
+                {
+                    test.assertThrows(() -> GitIgnoreRules.create(null, "", null),
+                        new PreConditionFailure("contents cannot be null."));
+                });
+
+                runner.test("with only comments and blank lines", (Test test) ->
+                {
+                    final GitIgnoreRules rules = GitIgnoreRules.create(null, "", "# *.log\n\n   \n");
+                    test.assertFalse(rules.isIgnored("a.log", false));
+                    test.assertFalse(rules.isIgnored("# *.log", false));
+                });
+            });
+
+            runner.testGroup("toRegex(String)", () ->
+            {
+                final Action2<String,String> toRegexTest = (String glob, String expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(glob), (Test test) ->
+                    {
+                        test.assertEqual(expected, GitIgnoreRules.toRegex(glob));
+                    });
+                };
+
+                toRegexTest.run("", "");
+                toRegexTest.run("abc", "abc");
+                toRegexTest.run("a.txt", "a\\.txt");
+                toRegexTest.run("*.log", "[^/]*\\.log");
+                toRegexTest.run("a?c", "a[^/]c");
+                toRegexTest.run("**/build", "(?:.*/)?build");
+                toRegexTest.run("logs/**", "logs/.*");
+                toRegexTest.run("a/**/b", "a/(?:.*/)?b");
+                toRegexTest.run("a**b", "a[^/]*[^/]*b");
+                toRegexTest.run("[abc]", "[abc]");
+                toRegexTest.run("[!a-z]", "[^a-z]");
+                toRegexTest.run("[]a]", "[\\]a]");
+                toRegexTest.run("[abc", "\\[abc");
+                toRegexTest.run("\\*", "\\*");
+            });
+
+            runner.testGroup("isIgnored(String,boolean)", () ->
+            {
+                runner.test("with null path", (Test test) ->
+                {
+                    final GitIgnoreRules rules = GitIgnoreRules.create(null, "", "*.log");
+                    test.assertThrows(() -> rules.isIgnored(null, false),
+                        new PreConditionFailure("path cannot be null."));
+                });
+
+                runner.test("with empty path", (Test test) ->
+                {
+                    final GitIgnoreRules rules = GitIgnoreRules.create(null, "", "*.log");
+                    test.assertThrows(() -> rules.isIgnored("", false),
+                        new PreConditionFailure("path cannot be empty."));
+                });
+
+                runner.test("with pattern without a '/'", (Test test) ->
+                {
+                    final GitIgnoreRules rules = GitIgnoreRules.create(null, "", "*.log\r\n");
+                    test.assertTrue(rules.isIgnored("a.log", false));
+                    test.assertTrue(rules.isIgnored("src/deep/a.log", false));
+                    test.assertTrue(rules.isIgnored("a.log", true));
+                    test.assertFalse(rules.isIgnored("a.log.txt", false));
+                });
+
+                runner.test("with anchored pattern", (Test test) ->
+                {
+                    final GitIgnoreRules rules = GitIgnoreRules.create(null, "", "/out\nsrc/*.tmp");
+                    test.assertTrue(rules.isIgnored("out", true));
+                    test.assertFalse(rules.isIgnored("src/out", true));
+                    test.assertTrue(rules.isIgnored("src/a.tmp", false));
+                    test.assertFalse(rules.isIgnored("src/deep/a.tmp", false));
+                    test.assertFalse(rules.isIgnored("a.tmp", false));
+                });
+
+                runner.test("with folder-only pattern", (Test test) ->
+                {
+                    final GitIgnoreRules rules = GitIgnoreRules.create(null, "", "build/");
+                    test.assertTrue(rules.isIgnored("build", true));
+                    test.assertTrue(rules.isIgnored("src/build", true));
+                    test.assertFalse(rules.isIgnored("build", false));
+                });
+
+                runner.test("with negated pattern", (Test test) ->
+                {
+                    final GitIgnoreRules rules = GitIgnoreRules.create(null, "", "*.log\n!important.log\n");
+                    test.assertTrue(rules.isIgnored("a.log", false));
+                    test.assertFalse(rules.isIgnored("important.log", false));
+                });
+
+                runner.test("with later pattern that ignores again", (Test test) ->
+                {
+                    final GitIgnoreRules rules = GitIgnoreRules.create(null, "", "!important.log\n*.log\n");
+                    test.assertTrue(rules.isIgnored("important.log", false));
+                });
+
+                runner.test("with escaped characters", (Test test) ->
+                {
+                    final GitIgnoreRules rules = GitIgnoreRules.create(null, "", "\\!bang\n\\#hash\ntrailing\\ \nspaces   ");
+                    test.assertTrue(rules.isIgnored("!bang", false));
+                    test.assertTrue(rules.isIgnored("#hash", false));
+                    test.assertTrue(rules.isIgnored("trailing ", false));
+                    test.assertFalse(rules.isIgnored("trailing", false));
+                    test.assertTrue(rules.isIgnored("spaces", false));
+                });
+
+                runner.test("with nested rules", (Test test) ->
+                {
+                    final GitIgnoreRules rootRules = GitIgnoreRules.create(null, "", "*.txt\n");
+                    final GitIgnoreRules srcRules = GitIgnoreRules.create(rootRules, "src/", "!notes.txt\n/local\n");
+                    test.assertTrue(srcRules.isIgnored("a.txt", false));
+                    test.assertTrue(srcRules.isIgnored("src/a.txt", false));
+                    test.assertFalse(srcRules.isIgnored("src/notes.txt", false));
+                    test.assertFalse(srcRules.isIgnored("src/deep/notes.txt", false));
+                    test.assertTrue(srcRules.isIgnored("notes.txt", false));
+                    test.assertTrue(srcRules.isIgnored("src/local", true));
+                    test.assertFalse(srcRules.isIgnored("local", true));
+                    test.assertFalse(srcRules.isIgnored("src/deep/local", true));
+                });
+            });
+        });
+    }
+}
@@ -0,0 +1,98 @@
+package qub;
+
+public interface GitIndexCacheTreeTests
+{
+    /**
+     * Get the bytes of a cache tree node.
+     * @param name The node's name.
+     * @param entryCount The node's entry count, or -1 if the node is invalid.
+     * @param subtreeCount The node's subtree count.
+     * @param objectId The node's tree id, or null if the node is invalid.
+     * @return The bytes of the cache tree node.
+     */
+    static byte[] createNode(String name, int entryCount, int subtreeCount, GitObjectId objectId)
+    {
+        final java.io.ByteArrayOutputStream result = new java.io.ByteArrayOutputStream();
+        result.writeBytes((name + "\0" + entryCount + " " + subtreeCount + "\n").getBytes(java.nio.charset.StandardCharsets.UTF_8));
+        if (objectId != null)
+        {
+            result.writeBytes(objectId.getBytes());
+        }
+        return result.toByteArray();
+    }
+
+    static GitIndexCacheTree read(byte[]... nodes)
+    {
+        final java.io.ByteArrayOutputStream bytes = new java.io.ByteArrayOutputStream();
+        for (final byte[] node : nodes)
+        {
+            bytes.writeBytes(node);
+        }
+        final GitDataReader reader = GitDataReaderTests.create(bytes.toByteArray());
+        return GitIndexCacheTree.read(reader, GitObjectId.sha1Length);
+    }
+
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(GitIndexCacheTree.class, () ->
+        {
+            final GitObjectId rootId = GitIndexTests.getObjectId("root");
+            final GitObjectId sourcesId = GitIndexTests.getObjectId("sources");
+            final GitObjectId testsId = GitIndexTests.getObjectId("tests");
+
+            runner.testGroup("read(GitDataReader,int)", () ->
+            {
+                runner.test("with null reader", (Test test) ->
+                {
+                    test.assertThrows(() -> GitIndexCacheTree.read(null, GitObjectId.sha1Length),
+                        new PreConditionFailure("reader cannot be null."));
+                });
+
+                runner.test("with missing object id", (Test test) ->
+                {
+                    test.assertThrows(() -> GitIndexCacheTreeTests.read(GitIndexCacheTreeTests.createNode("", 1, 0, null)),
+                        new ParseException("Unexpected end of test data."));
+                });
+
+                runner.test("with missing subtree", (Test test) ->
+                {
+                    test.assertThrows(() -> GitIndexCacheTreeTests.read(GitIndexCacheTreeTests.createNode("", -1, 1, null)),
+                        new ParseException("Invalid entry count (-1) or subtree count (1) in the cache tree node \"\"."));
+                });
+
+                runner.test("with invalid entry count", (Test test) ->
+                {
+                    test.assertThrows(() -> GitIndexCacheTreeTests.read("\0abc 0\n".getBytes(java.nio.charset.StandardCharsets.US_ASCII)),
+                        new ParseException("Expected a decimal integer in the test data, but found \"abc\"."));
+                });
+
+                runner.test("with nested nodes", (Test test) ->
+                {
+                    final GitIndexCacheTree root = GitIndexCacheTreeTests.read(
+                        GitIndexCacheTreeTests.createNode("", 5, 2, rootId),
+                        GitIndexCacheTreeTests.createNode("sources", -1, 1, null),
+                        GitIndexCacheTreeTests.createNode("qub", 3, 0, sourcesId),
+                        GitIndexCacheTreeTests.createNode("tests", 1, 0, testsId));
+                    test.assertEqual("", root.getName());
+                    test.assertTrue(root.isValid());
+                    test.assertEqual(5, root.getEntryCount());
+                    test.assertEqual(rootId, root.getObjectId());
+                    test.assertEqual(2, root.getSubtrees().getCount());
+
+                    final GitIndexCacheTree sources = root.getSubtree("sources");
+                    test.assertEqual("sources", sources.getName());
+                    test.assertFalse(sources.isValid());
+                    test.assertEqual(-1, sources.getEntryCount());
+                    test.assertNull(sources.getObjectId());
+
+                    final GitIndexCacheTree qub = root.getSubtree("sources/qub");
+                    test.assertSame(qub, sources.getSubtree("qub"));
+                    test.assertEqual(sourcesId, qub.getObjectId());
+                    test.assertEqual(testsId, root.getSubtree("tests/").getObjectId());
+                    test.assertNull(root.getSubtree("docs"));
+                    test.assertNull(root.getSubtree("sources/qub/missing"));
+                });
+            });
+        });
+    }
+}
@@ -0,0 +1,125 @@
+package qub;
+
+public interface GitIndexEntryTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(GitIndexEntry.class, () ->
+        {
+            final GitObjectId readmeId = GitIndexTests.getObjectId("readme");
+            final GitObjectId sourceId = GitIndexTests.getObjectId("source");
+            final GitObjectId theirsId = GitIndexTests.getObjectId("theirs");
+            final Function0<GitIndex> createIndex = () -> new GitIndexTests.IndexBuilder(4)
+                .addEntry("README.md", readmeId, 0x8000, 0)
+                .addEntry("sources/Main.java", sourceId, 0, 0x4000)
+                .addEntry("sources/Main.java", theirsId, 0x3000, 0x2000)
+                .addEntry("sources/Other.java", sourceId)
+                .parse();
+
+            runner.test("getters", (Test test) ->
+            {
+                final GitIndexEntry entry = createIndex.run().getEntry(1);
+                test.assertEqual(1, entry.getIndex());
+                test.assertEqual(2, entry.getCtimeSeconds());
+                test.assertEqual(3, entry.getCtimeNanoseconds());
+                test.assertEqual(4, entry.getMtimeSeconds());
+                test.assertEqual(5, entry.getMtimeNanoseconds());
+                test.assertEqual(6, entry.getDevice());
+                test.assertEqual(7, entry.getInode());
+                test.assertEqual(0100644, entry.getMode());
+                test.assertEqual(8, entry.getUserId());
+                test.assertEqual(9, entry.getGroupId());
+                test.assertEqual(0xFFFFFFFEL, entry.getSize());
+                test.assertEqual(sourceId, entry.getObjectId());
+                test.assertEqual(0, entry.getStage());
+                test.assertFalse(entry.isAssumeValid());
+                test.assertTrue(entry.isSkipWorktree());
+                test.assertFalse(entry.isIntentToAdd());
+                test.assertEqual("sources/Main.java", entry.getPath());
+            });
+
+            runner.test("flags", (Test test) ->
+            {
+                final GitIndex index = createIndex.run();
+                final GitIndexEntry readme = index.getEntry(0);
+                test.assertTrue(readme.isAssumeValid());
+                test.assertFalse(readme.isSkipWorktree());
+                test.assertEqual(0, readme.getStage());
+
+                final GitIndexEntry theirs = index.getEntry(2);
+                test.assertFalse(theirs.isAssumeValid());
+                test.assertFalse(theirs.isSkipWorktree());
+                test.assertTrue(theirs.isIntentToAdd());
+                test.assertEqual(3, theirs.getStage());
+            });
+
+            runner.testGroup("moveTo(int)", () ->
+            {
+                runner.test("with negative index", (Test test) ->
+                {
+                    final GitIndexEntry entry = createIndex.run().getEntry(0);
+                    test.assertThrows(() -> entry.moveTo(-1),
+                        new PreConditionFailure("entryIndex (-1) must be between 0 and 3."));
+                });
+
+                runner.test("with index past the end", (Test test) ->
+                {
+                    final GitIndexEntry entry = createIndex.run().getEntry(0);
+                    test.assertThrows(() -> entry.moveTo(4),
+                        new PreConditionFailure("entryIndex (4) must be between 0 and 3."));
+                });
+
+                runner.test("forward and backward", (Test test) ->
+                {
+                    final GitIndexEntry entry = createIndex.run().getEntry(3);
+                    test.assertEqual("sources/Other.java", entry.getPath());
+                    test.assertSame(entry, entry.moveTo(0));
+                    test.assertEqual("README.md", entry.getPath());
+                    test.assertEqual(readmeId, entry.getObjectId());
+                    test.assertEqual("sources/Main.java", entry.moveTo(1).getPath());
+                    test.assertEqual("sources/Main.java", entry.moveTo(2).getPath());
+                    test.assertEqual(theirsId, entry.getObjectId());
+                    test.assertEqual("sources/Other.java", entry.moveTo(3).getPath());
+                    test.assertEqual("sources/Main.java", entry.moveTo(1).getPath());
+                });
+            });
+
+            runner.test("comparePathTo(byte[])", (Test test) ->
+            {
+                final GitIndexEntry entry = createIndex.run().getEntry(1);
+                test.assertEqual(0, entry.comparePathTo("sources/Main.java".getBytes(java.nio.charset.StandardCharsets.UTF_8)));
+                test.assertTrue(entry.comparePathTo("sources/Main.javb".getBytes(java.nio.charset.StandardCharsets.UTF_8)) < 0);
+                test.assertTrue(entry.comparePathTo("sources/Main".getBytes(java.nio.charset.StandardCharsets.UTF_8)) > 0);
+                test.assertTrue(entry.comparePathTo("sources/\u00E9".getBytes(java.nio.charset.StandardCharsets.UTF_8)) < 0);
+            });
+
+            runner.test("comparePathTo(byte[],int)", (Test test) ->
+            {
+                final GitIndexEntry entry = createIndex.run().getEntry(1);
+                final byte[] buffer = "sources/Main.java/more".getBytes(java.nio.charset.StandardCharsets.UTF_8);
+                test.assertEqual(0, entry.comparePathTo(buffer, 17));
+                test.assertTrue(entry.comparePathTo(buffer, 12) > 0);
+                test.assertTrue(entry.comparePathTo(buffer, buffer.length) < 0);
+                test.assertThrows(() -> entry.comparePathTo(buffer, buffer.length + 1),
+                    new PreConditionFailure("length (23) must be between 0 and 22."));
+            });
+
+            runner.test("path views", (Test test) ->
+            {
+                final GitIndexEntry entry = createIndex.run().getEntry(3);
+                test.assertEqual(18, entry.getPathLength());
+                test.assertEqual(7, entry.indexOfPathByte((byte)'/', 0));
+                test.assertEqual(-1, entry.indexOfPathByte((byte)'/', 8));
+                test.assertEqual("sources", entry.getPath(0, 7));
+                test.assertEqual("Other.java", entry.getPath(8, 18));
+                test.assertEqual("sources/", new String(entry.getPathBytes(8), java.nio.charset.StandardCharsets.UTF_8));
+                test.assertTrue(entry.pathStartsWith("sources/".getBytes(java.nio.charset.StandardCharsets.UTF_8)));
+                test.assertFalse(entry.pathStartsWith("sources/Other.java/".getBytes(java.nio.charset.StandardCharsets.UTF_8)));
+                test.assertTrue(entry.pathEndsWith("/Other.java".getBytes(java.nio.charset.StandardCharsets.UTF_8)));
+                test.assertFalse(entry.pathEndsWith("Main.java".getBytes(java.nio.charset.StandardCharsets.UTF_8)));
+                test.assertEqual("README.md", entry.moveTo(0).getPath(0, entry.getPathLength()));
+                test.assertEqual(-1, entry.indexOfPathByte((byte)'/', 0));
+            });
+        });
+    }
+}
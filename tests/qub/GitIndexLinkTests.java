@@ -0,0 +1,61 @@
+package qub;
+
+public interface GitIndexLinkTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(GitIndexLink.class, () ->
+        {
+            final GitObjectId sharedIndexId = GitIndexTests.getObjectId("shared index");
+
+            runner.testGroup("read(GitDataReader,int)", () ->
+            {
+                runner.test("with null reader", (Test test) ->
+                {
+                    test.assertThrows(() -> GitIndexLink.read(null, GitObjectId.sha1Length),
+                        new PreConditionFailure("reader cannot be null."));
+                });
+
+                runner.test("with only a shared index id", (Test test) ->
+                {
+                    final GitIndexLink link = GitIndexLink.read(GitDataReaderTests.create(sharedIndexId.getBytes()), GitObjectId.sha1Length);
+                    test.assertEqual(sharedIndexId, link.getSharedIndexId());
+                    test.assertEqual(new java.util.BitSet(), link.getDeletedEntries());
+                    test.assertEqual(new java.util.BitSet(), link.getReplacedEntries());
+                });
+
+                runner.test("with null shared index id", (Test test) ->
+                {
+                    final GitIndexLink link = GitIndexLink.read(GitDataReaderTests.create(new byte[GitObjectId.sha1Length]), GitObjectId.sha1Length);
+                    test.assertNull(link.getSharedIndexId());
+                });
+
+                runner.test("with bitmaps", (Test test) ->
+                {
+                    final java.util.BitSet deleted = GitEwahBitmapTests.createBitSet(1, 70);
+                    final java.util.BitSet replaced = GitEwahBitmapTests.createBitSet(0, 2);
+                    final java.io.ByteArrayOutputStream bytes = new java.io.ByteArrayOutputStream();
+                    bytes.writeBytes(sharedIndexId.getBytes());
+                    bytes.writeBytes(GitEwahBitmapTests.encode(deleted, 71));
+                    bytes.writeBytes(GitEwahBitmapTests.encode(replaced, 71));
+                    final GitIndexLink link = GitIndexLink.read(GitDataReaderTests.create(bytes.toByteArray()), GitObjectId.sha1Length);
+                    test.assertEqual(sharedIndexId, link.getSharedIndexId());
+                    test.assertEqual(deleted, link.getDeletedEntries());
+                    test.assertEqual(replaced, link.getReplacedEntries());
+
+                    link.getDeletedEntries().clear();
+                    test.assertEqual(deleted, link.getDeletedEntries());
+                });
+
+                runner.test("with missing replace bitmap", (Test test) ->
+                {
+                    final java.io.ByteArrayOutputStream bytes = new java.io.ByteArrayOutputStream();
+                    bytes.writeBytes(sharedIndexId.getBytes());
+                    bytes.writeBytes(GitEwahBitmapTests.encode(GitEwahBitmapTests.createBitSet(1), 2));
+                    test.assertThrows(() -> GitIndexLink.read(GitDataReaderTests.create(bytes.toByteArray()), GitObjectId.sha1Length),
+                        new ParseException("Unexpected end of EWAH bitmap at 48."));
+                });
+            });
+        });
+    }
+}
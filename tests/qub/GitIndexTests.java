@@ -0,0 +1,427 @@
+package qub;
+
+public interface GitIndexTests
+{
+    /**
+     * Builds the bytes of an index file. Unless they are provided, each entry's stat fields are
+     * derived from the entry's index so that the tests can tell the entries apart.
+     */
+    class IndexBuilder
+    {
+        private final int version;
+        private final int objectIdLength;
+        private final java.util.List<String> paths;
+        private final java.util.List<GitObjectId> objectIds;
+        private final java.util.List<Integer> flags;
+        private final java.util.List<Integer> extendedFlags;
+        private final java.util.List<long[]> stats;
+        private final java.io.ByteArrayOutputStream extensions;
+
+        public IndexBuilder(int version)
+        {
+            this(version, GitObjectId.sha1Length);
+        }
+
+        public IndexBuilder(int version, int objectIdLength)
+        {
+            this.version = version;
+            this.objectIdLength = objectIdLength;
+            this.paths = new java.util.ArrayList<>();
+            this.objectIds = new java.util.ArrayList<>();
+            this.flags = new java.util.ArrayList<>();
+            this.extendedFlags = new java.util.ArrayList<>();
+            this.stats = new java.util.ArrayList<>();
+            this.extensions = new java.io.ByteArrayOutputStream();
+        }
+
+        public IndexBuilder addEntry(String path, GitObjectId objectId)
+        {
+            return this.addEntry(path, objectId, 0, 0);
+        }
+
+        /**
+         * Add an entry. Entries must be added in index order.
+         * @param path The entry's path.
+         * @param objectId The entry's blob id.
+         * @param flags The entry's flags other than the name length (such as the stage).
+         * @param extendedFlags The entry's extended flags, or 0 if the entry doesn't have any.
+         * @return This object for method chaining.
+         */
+        public IndexBuilder addEntry(String path, GitObjectId objectId, int flags, int extendedFlags)
+        {
+            this.paths.add(path);
+            this.objectIds.add(objectId);
+            this.flags.add(flags | (extendedFlags != 0 ? 0x4000 : 0));
+            this.extendedFlags.add(extendedFlags);
+            this.stats.add(null);
+            return this;
+        }
+
+        /**
+         * Add a stage 0 entry whose mode, size, and last modified time are provided instead of
+         * being derived from the entry's index.
+         * @param path The entry's path.
+         * @param objectId The entry's blob id.
+         * @param mode The entry's mode.
+         * @param size The entry's size.
+         * @param mtimeSeconds The seconds part of the entry's last modified time.
+         * @return This object for method chaining.
+         */
+        public IndexBuilder addEntry(String path, GitObjectId objectId, int mode, long size, long mtimeSeconds)
+        {
+            this.addEntry(path, objectId);
+            this.stats.set(this.stats.size() - 1, new long[] { mode, size, mtimeSeconds });
+            return this;
+        }
+
+        public IndexBuilder addExtension(String signature, byte[] contents)
+        {
+            this.extensions.writeBytes(signature.getBytes(java.nio.charset.StandardCharsets.US_ASCII));
+            this.extensions.writeBytes(java.nio.ByteBuffer.allocate(4).putInt(contents.length).array());
+            this.extensions.writeBytes(contents);
+            return this;
+        }
+
+        public byte[] getBytes()
+        {
+            final java.io.ByteArrayOutputStream result = new java.io.ByteArrayOutputStream();
+            result.writeBytes("DIRC".getBytes(java.nio.charset.StandardCharsets.US_ASCII));
+            result.writeBytes(java.nio.ByteBuffer.allocate(8).putInt(this.version).putInt(this.paths.size()).array());
+
+            byte[] previousPath = new byte[0];
+            for (int i = 0; i < this.paths.size(); ++i)
+            {
+                final int entryStart = result.size();
+                final java.nio.ByteBuffer fields = java.nio.ByteBuffer.allocate(40);
+                final long[] stat = this.stats.get(i);
+                if (stat == null)
+                {
+                    fields.putInt(i + 1).putInt(i + 2).putInt(i + 3).putInt(i + 4);
+                    fields.putInt(i + 5).putInt(i + 6).putInt(0100644).putInt(i + 7).putInt(i + 8).putInt(-1 - i);
+                }
+                else
+                {
+                    fields.putInt(i + 1).putInt(i + 2).putInt((int)stat[2]).putInt(0);
+                    fields.putInt(i + 5).putInt(i + 6).putInt((int)stat[0]).putInt(i + 7).putInt(i + 8).putInt((int)stat[1]);
+                }
+                result.writeBytes(fields.array());
+                result.writeBytes(this.objectIds.get(i).getBytes());
+
+                final byte[] path = this.paths.get(i).getBytes(java.nio.charset.StandardCharsets.UTF_8);
+                final int flags = this.flags.get(i) | Math.min(path.length, 0xFFF);
+                result.write(flags >>> 8);
+                result.write(flags);
+                if (this.extendedFlags.get(i) != 0)
+                {
+                    result.write(this.extendedFlags.get(i) >>> 8);
+                    result.write(this.extendedFlags.get(i));
+                }
+
+                if (this.version == 4)
+                {
+                    int commonLength = 0;
+                    while (commonLength < path.length && commonLength < previousPath.length && path[commonLength] == previousPath[commonLength])
+                    {
+                        ++commonLength;
+                    }
+                    result.writeBytes(IndexBuilder.encodeVarint(previousPath.length - commonLength));
+                    result.write(path, commonLength, path.length - commonLength);
+                    result.write(0);
+                }
+                else
+                {
+                    result.writeBytes(path);
+                    do
+                    {
+                        result.write(0);
+                    }
+                    while ((result.size() - entryStart) % 8 != 0);
+                }
+                previousPath = path;
+            }
+
+            result.writeBytes(this.extensions.toByteArray());
+            result.writeBytes(new byte[this.objectIdLength]);
+            return result.toByteArray();
+        }
+
+        public GitIndex parse()
+        {
+            return GitIndex.parse(GitPackData.wrap(this.getBytes(), 16), this.objectIdLength).await();
+        }
+
+        /**
+         * Encode the provided value as one of Git's variable-width integers.
+         * @param value The value to encode.
+         * @return The encoded bytes.
+         */
+        public static byte[] encodeVarint(long value)
+        {
+            final byte[] bytes = new byte[10];
+            int position = bytes.length - 1;
+            bytes[position] = (byte)(value & 0x7F);
+            while ((value >>>= 7) != 0)
+            {
+                --value;
+                bytes[--position] = (byte)(0x80 | (value & 0x7F));
+            }
+            return java.util.Arrays.copyOfRange(bytes, position, bytes.length);
+        }
+    }
+
+    static GitObjectId getObjectId(String contents)
+    {
+        return GitObjectDatabaseTests.getObjectId(GitObjectType.Blob, contents.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+    }
+
+    static GitIndex parse(String contents)
+    {
+        return GitIndex.parse(GitPackData.wrap(contents.getBytes(java.nio.charset.StandardCharsets.ISO_8859_1), 16), GitObjectId.sha1Length).await();
+    }
+
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(GitIndex.class, () ->
+        {
+            final String[] paths = new String[]
+            {
+                ".gitignore",
+                "README.md",
+                "sources/qub/Git.java",
+                "sources/qub/GitIndex.java",
+                "sources/qub/GitIndexEntry.java",
+                "tests/qub/GitIndexTests.java",
+                "tests/qub/GitTests.java",
+                "z/" + "x".repeat(5000),
+            };
+
+            runner.testGroup("parse(GitPackData,int)", () ->
+            {
+                runner.test("with null data", (Test test) ->
+                {
+                    test.assertThrows(() -> GitIndex.parse(null, GitObjectId.sha1Length),
+                        new PreConditionFailure("data cannot be null."));
+                });
+
+                runner.test("with invalid object id length", (Test test) ->
+                {
+                    test.assertThrows(() -> GitIndex.parse(GitPackData.wrap(new byte[0], 16), 21),
+                        new PreConditionFailure("GitObjectId.isValidLength(objectIdLength) cannot be false."));
+                });
+
+                runner.test("with empty data", (Test test) ->
+                {
+                    test.assertThrows(() -> GitIndexTests.parse(""),
+                        new ParseException("Expected the index file to start with \"DIRC\"."));
+                });
+
+                runner.test("with wrong signature", (Test test) ->
+                {
+                    test.assertThrows(() -> GitIndexTests.parse("DIRX\0\0\0\2\0\0\0\0" + "\0".repeat(20)),
+                        new ParseException("Expected the index file to start with \"DIRC\"."));
+                });
+
+                runner.test("with unsupported version", (Test test) ->
+                {
+                    test.assertThrows(() -> GitIndexTests.parse("DIRC\0\0\0\5\0\0\0\0" + "\0".repeat(20)),
+                        new ParseException("Unsupported index version: 5"));
+                });
+
+                runner.test("with more entries than fit in the file", (Test test) ->
+                {
+                    test.assertThrows(() -> GitIndexTests.parse("DIRC\0\0\0\2\0\0\0\1" + "\0".repeat(20)),
+                        new ParseException("The index file has 1 entries, but it is only 32 bytes long."));
+                });
+
+                runner.test("with no entries", (Test test) ->
+                {
+                    final GitIndex index = new IndexBuilder(2).parse();
+                    test.assertEqual(2, index.getVersion());
+                    test.assertEqual(GitObjectId.sha1Length, index.getObjectIdLength());
+                    test.assertEqual(0, index.getEntryCount());
+                    test.assertEqual(-1, index.indexOf("README.md"));
+                    test.assertNull(index.getCacheTree());
+                    test.assertNull(index.getUntrackedCache());
+                    test.assertNull(index.getLink());
+                    test.assertFalse(index.isSparse());
+                });
+
+                runner.test("with truncated entry", (Test test) ->
+                {
+                    final byte[] bytes = new IndexBuilder(2).addEntry("README.md", GitIndexTests.getObjectId("a")).getBytes();
+                    final byte[] truncatedBytes = java.util.Arrays.copyOf(bytes, bytes.length - 8);
+                    test.assertThrows(() -> GitIndex.parse(GitPackData.wrap(truncatedBytes, 16), GitObjectId.sha1Length).await(),
+                        new ParseException("Unexpected end of index entry 0."));
+                });
+
+                runner.test("with extended flags in a version 2 index", (Test test) ->
+                {
+                    final IndexBuilder builder = new IndexBuilder(2).addEntry("README.md", GitIndexTests.getObjectId("a"), 0, 0x4000);
+                    test.assertThrows(() -> builder.parse(),
+                        new ParseException("Index entry 0 has extended flags, but version 2 indexes can't have extended flags."));
+                });
+
+                runner.test("with version 4 entry that removes too much of the previous path", (Test test) ->
+                {
+                    final byte[] bytes = new IndexBuilder(4).addEntry("a", GitIndexTests.getObjectId("a")).getBytes();
+                    bytes[12 + 40 + 20 + 2] = 2;
+                    test.assertThrows(() -> GitIndex.parse(GitPackData.wrap(bytes, 16), GitObjectId.sha1Length).await(),
+                        new ParseException("Index entry 0 removes more of the previous path than it has."));
+                });
+
+                runner.test("with unknown optional extension", (Test test) ->
+                {
+                    final GitIndex index = new IndexBuilder(2)
+                        .addEntry("README.md", GitIndexTests.getObjectId("a"))
+                        .addExtension("REUC", new byte[] { 1, 2, 3 })
+                        .addExtension("EOIE", new byte[12])
+                        .parse();
+                    test.assertEqual(1, index.getEntryCount());
+                    test.assertEqual("README.md", index.getEntry(0).getPath());
+                });
+
+                runner.test("with unknown required extension", (Test test) ->
+                {
+                    final IndexBuilder builder = new IndexBuilder(2).addExtension("abcd", new byte[0]);
+                    test.assertThrows(() -> builder.parse(),
+                        new ParseException("Unsupported required index extension: \"abcd\""));
+                });
+
+                runner.test("with truncated extension", (Test test) ->
+                {
+                    final byte[] bytes = new IndexBuilder(2).addExtension("TREE", new byte[4]).getBytes();
+                    bytes[12 + 7] = 5;
+                    test.assertThrows(() -> GitIndex.parse(GitPackData.wrap(bytes, 16), GitObjectId.sha1Length).await(),
+                        new ParseException("Unexpected end of index extension \"TREE\"."));
+                });
+
+                runner.test("with sparse index extension", (Test test) ->
+                {
+                    final GitIndex index = new IndexBuilder(3).addExtension("sdir", new byte[0]).parse();
+                    test.assertTrue(index.isSparse());
+                });
+
+                runner.test("with TREE extension", (Test test) ->
+                {
+                    final GitObjectId treeId = GitIndexTests.getObjectId("tree");
+                    final java.io.ByteArrayOutputStream tree = new java.io.ByteArrayOutputStream();
+                    tree.writeBytes("\0001 0\n".getBytes(java.nio.charset.StandardCharsets.US_ASCII));
+                    tree.writeBytes(treeId.getBytes());
+                    final GitIndex index = new IndexBuilder(2)
+                        .addEntry("README.md", GitIndexTests.getObjectId("a"))
+                        .addExtension("TREE", tree.toByteArray())
+                        .parse();
+                    final GitIndexCacheTree cacheTree = index.getCacheTree();
+                    test.assertNotNull(cacheTree);
+                    test.assertEqual("", cacheTree.getName());
+                    test.assertEqual(1, cacheTree.getEntryCount());
+                    test.assertEqual(treeId, cacheTree.getObjectId());
+                });
+
+                runner.test("with link extension", (Test test) ->
+                {
+                    final GitObjectId sharedIndexId = GitIndexTests.getObjectId("shared");
+                    final GitIndex index = new IndexBuilder(2)
+                        .addExtension("link", sharedIndexId.getBytes())
+                        .parse();
+                    test.assertEqual(sharedIndexId, index.getLink().getSharedIndexId());
+                });
+
+                for (final int version : new int[] { 2, 3, 4 })
+                {
+                    runner.test("with version " + version + " entries", (Test test) ->
+                    {
+                        final IndexBuilder builder = new IndexBuilder(version);
+                        for (final String path : paths)
+                        {
+                            builder.addEntry(path, GitIndexTests.getObjectId(path));
+                        }
+                        final GitIndex index = builder.parse();
+                        test.assertEqual(version, index.getVersion());
+                        test.assertEqual(paths.length, index.getEntryCount());
+
+                        final java.util.List<String> sequentialPaths = new java.util.ArrayList<>();
+                        index.forEachEntry((GitIndexEntry entry) ->
+                        {
+                            sequentialPaths.add(entry.getPath());
+                            test.assertEqual(GitIndexTests.getObjectId(entry.getPath()), entry.getObjectId());
+                        });
+                        test.assertEqual(java.util.Arrays.asList(paths), sequentialPaths);
+
+                        for (int i = paths.length - 1; i >= 0; --i)
+                        {
+                            test.assertEqual(paths[i], index.getEntry(i).getPath());
+                            test.assertEqual(i, index.indexOf(paths[i]));
+                        }
+                        test.assertEqual(-1, index.indexOf("sources"));
+                        test.assertEqual(-1, index.indexOf("sources/qub/GitIndexEntry.javaa"));
+                        test.assertEqual(-1, index.indexOf("zzz"));
+                    });
+                }
+
+                runner.test("with sha256 object ids", (Test test) ->
+                {
+                    final GitObjectId objectId = GitObjectId.create(new byte[GitObjectId.sha256Length]);
+                    final GitIndex index = new IndexBuilder(3, GitObjectId.sha256Length)
+                        .addEntry("README.md", objectId, 0, 0x2000)
+                        .addEntry("sources/Main.java", objectId)
+                        .parse();
+                    test.assertEqual(GitObjectId.sha256Length, index.getObjectIdLength());
+                    test.assertEqual("README.md", index.getEntry(0).getPath());
+                    test.assertTrue(index.getEntry(0).isIntentToAdd());
+                    test.assertEqual("sources/Main.java", index.getEntry(1).getPath());
+                    test.assertEqual(objectId, index.getEntry(1).getObjectId());
+                });
+            });
+
+            runner.testGroup("indexOf(String)", () ->
+            {
+                runner.test("with conflicted path", (Test test) ->
+                {
+                    final GitIndex index = new IndexBuilder(2)
+                        .addEntry("a.txt", GitIndexTests.getObjectId("a"))
+                        .addEntry("b.txt", GitIndexTests.getObjectId("base"), 0x1000, 0)
+                        .addEntry("b.txt", GitIndexTests.getObjectId("ours"), 0x2000, 0)
+                        .addEntry("b.txt", GitIndexTests.getObjectId("theirs"), 0x3000, 0)
+                        .addEntry("c.txt", GitIndexTests.getObjectId("c"))
+                        .parse();
+                    test.assertEqual(1, index.indexOf("b.txt"));
+                    test.assertEqual(1, index.getEntry(1).getStage());
+                    test.assertEqual(3, index.getEntry(3).getStage());
+                    test.assertEqual(4, index.indexOf("c.txt"));
+                });
+
+                runner.test("with null path", (Test test) ->
+                {
+                    final GitIndex index = new IndexBuilder(2).parse();
+                    test.assertThrows(() -> index.indexOf(null),
+                        new PreConditionFailure("path cannot be null."));
+                });
+            });
+
+            runner.testGroup("open(Folder)", () ->
+            {
+                runner.test("with no index file", (Test test) ->
+                {
+                    final Folder repositoryFolder = GitObjectDatabaseTests.createRepositoryFolder();
+                    test.assertThrows(() -> GitIndex.open(repositoryFolder).await(),
+                        new NotFoundException("Could not find an index file in \"/repo/.git\"."));
+                });
+
+                runner.test("with index file", (Test test) ->
+                {
+                    final Folder repositoryFolder = GitObjectDatabaseTests.createRepositoryFolder();
+                    final byte[] bytes = new IndexBuilder(4)
+                        .addEntry("README.md", GitIndexTests.getObjectId("readme"))
+                        .getBytes();
+                    repositoryFolder.createFile(".git/index").await().setContents(bytes).await();
+
+                    final GitIndex index = GitIndex.open(repositoryFolder).await();
+                    test.assertEqual(4, index.getVersion());
+                    test.assertEqual(1, index.getEntryCount());
+                    test.assertEqual("README.md", index.getEntry(0).getPath());
+                });
+            });
+        });
+    }
+}
@@ -0,0 +1,164 @@
+package qub;
+
+public interface GitIndexUntrackedCacheTests
+{
+    GitObjectId infoExcludeId = GitIndexTests.getObjectId("info/exclude");
+
+    /**
+     * Get the bytes of one folder of an untracked cache.
+     * @param name The folder's name.
+     * @param subdirectoryCount The number of cached folders directly under the folder.
+     * @param untrackedNames The names of the untracked files and folders in the folder.
+     * @return The bytes of the folder.
+     */
+    static byte[] createDirectory(String name, int subdirectoryCount, String... untrackedNames)
+    {
+        final java.io.ByteArrayOutputStream result = new java.io.ByteArrayOutputStream();
+        result.writeBytes(GitIndexTests.IndexBuilder.encodeVarint(untrackedNames.length));
+        result.writeBytes(GitIndexTests.IndexBuilder.encodeVarint(subdirectoryCount));
+        result.writeBytes((name + "\0").getBytes(java.nio.charset.StandardCharsets.UTF_8));
+        for (final String untrackedName : untrackedNames)
+        {
+            result.writeBytes((untrackedName + "\0").getBytes(java.nio.charset.StandardCharsets.UTF_8));
+        }
+        return result.toByteArray();
+    }
+
+    /**
+     * Get the bytes of an untracked cache whose identifier is "test", whose folder flags are 6,
+     * and whose per-folder exclude file is ".gitignore".
+     * @param directories The bytes of the cache's folders, in pre-order.
+     * @param valid The folders whose untracked files are up to date.
+     * @param checkOnly The folders that were only checked for untracked files.
+     * @param objectIdValid The folders whose exclude file ids are cached.
+     * @param directoryIds The exclude file ids of the folders in objectIdValid.
+     * @return The bytes of the untracked cache.
+     */
+    static byte[] create(byte[][] directories, java.util.BitSet valid, java.util.BitSet checkOnly, java.util.BitSet objectIdValid, GitObjectId... directoryIds)
+    {
+        final java.io.ByteArrayOutputStream result = new java.io.ByteArrayOutputStream();
+        result.writeBytes(GitIndexTests.IndexBuilder.encodeVarint(5));
+        result.writeBytes("test\0".getBytes(java.nio.charset.StandardCharsets.UTF_8));
+        result.writeBytes(new byte[36 * 2]);
+        result.writeBytes(java.nio.ByteBuffer.allocate(4).putInt(6).array());
+        result.writeBytes(GitIndexUntrackedCacheTests.infoExcludeId.getBytes());
+        result.writeBytes(new byte[GitObjectId.sha1Length]);
+        result.writeBytes(".gitignore\0".getBytes(java.nio.charset.StandardCharsets.UTF_8));
+        result.writeBytes(GitIndexTests.IndexBuilder.encodeVarint(directories.length));
+        if (directories.length > 0)
+        {
+            for (final byte[] directory : directories)
+            {
+                result.writeBytes(directory);
+            }
+            result.writeBytes(GitEwahBitmapTests.encode(valid, Math.max(valid.length(), directories.length)));
+            result.writeBytes(GitEwahBitmapTests.encode(checkOnly, Math.max(checkOnly.length(), directories.length)));
+            result.writeBytes(GitEwahBitmapTests.encode(objectIdValid, Math.max(objectIdValid.length(), directories.length)));
+            result.writeBytes(new byte[36 * valid.cardinality()]);
+            for (final GitObjectId directoryId : directoryIds)
+            {
+                result.writeBytes(directoryId.getBytes());
+            }
+        }
+        result.write(0);
+        return result.toByteArray();
+    }
+
+    static GitIndexUntrackedCache read(byte[] bytes)
+    {
+        return GitIndexUntrackedCache.read(GitDataReaderTests.create(bytes), GitObjectId.sha1Length);
+    }
+
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(GitIndexUntrackedCache.class, () ->
+        {
+            runner.testGroup("read(GitDataReader,int)", () ->
+            {
+                runner.test("with null reader", (Test test) ->
+                {
+                    test.assertThrows(() -> GitIndexUntrackedCache.read(null, GitObjectId.sha1Length),
+                        new PreConditionFailure("reader cannot be null."));
+                });
+
+                runner.test("with no folders", (Test test) ->
+                {
+                    final GitIndexUntrackedCache cache = GitIndexUntrackedCacheTests.read(
+                        GitIndexUntrackedCacheTests.create(new byte[0][], null, null, null));
+                    test.assertEqual(Iterable.create("test"), cache.getIdentifiers());
+                    test.assertEqual(6, cache.getDirectoryFlags());
+                    test.assertEqual(GitIndexUntrackedCacheTests.infoExcludeId, cache.getInfoExcludeId());
+                    test.assertNull(cache.getExcludesFileId());
+                    test.assertEqual(".gitignore", cache.getPerDirectoryExcludeFileName());
+                    test.assertNull(cache.getRoot());
+                });
+
+                runner.test("with truncated header", (Test test) ->
+                {
+                    final byte[] bytes = GitIndexUntrackedCacheTests.create(new byte[0][], null, null, null);
+                    test.assertThrows(() -> GitIndexUntrackedCacheTests.read(java.util.Arrays.copyOf(bytes, 50)),
+                        new ParseException("Unexpected end of test data."));
+                });
+
+                runner.test("with wrong folder count", (Test test) ->
+                {
+                    final byte[][] directories = new byte[][]
+                    {
+                        GitIndexUntrackedCacheTests.createDirectory("", 0),
+                        GitIndexUntrackedCacheTests.createDirectory("docs", 0),
+                    };
+                    final java.util.BitSet none = new java.util.BitSet();
+                    test.assertThrows(() -> GitIndexUntrackedCacheTests.read(GitIndexUntrackedCacheTests.create(directories, none, none, none)),
+                        new ParseException("Expected the untracked cache to contain 2 folders, but found 1."));
+                });
+
+                runner.test("with folders", (Test test) ->
+                {
+                    final GitObjectId rootExcludeId = GitIndexTests.getObjectId("*.class");
+                    final GitObjectId docsExcludeId = GitIndexTests.getObjectId("*.pdf");
+                    final byte[][] directories = new byte[][]
+                    {
+                        GitIndexUntrackedCacheTests.createDirectory("", 2, "build/", "notes.txt"),
+                        GitIndexUntrackedCacheTests.createDirectory("build", 0, "a.class"),
+                        GitIndexUntrackedCacheTests.createDirectory("docs", 1),
+                        GitIndexUntrackedCacheTests.createDirectory("drafts", 0, "draft.md"),
+                    };
+                    final GitIndexUntrackedCache cache = GitIndexUntrackedCacheTests.read(GitIndexUntrackedCacheTests.create(
+                        directories,
+                        GitEwahBitmapTests.createBitSet(0, 2, 3),
+                        GitEwahBitmapTests.createBitSet(1),
+                        GitEwahBitmapTests.createBitSet(0, 2),
+                        rootExcludeId,
+                        docsExcludeId));
+
+                    final GitIndexUntrackedDirectory root = cache.getRoot();
+                    test.assertEqual("", root.getName());
+                    test.assertEqual(Iterable.create("build/", "notes.txt"), root.getUntrackedNames());
+                    test.assertEqual(2, root.getSubdirectories().getCount());
+                    test.assertTrue(root.isValid());
+                    test.assertFalse(root.isCheckOnly());
+                    test.assertEqual(rootExcludeId, root.getObjectId());
+
+                    final GitIndexUntrackedDirectory build = root.getSubdirectory("build");
+                    test.assertFalse(build.isValid());
+                    test.assertTrue(build.isCheckOnly());
+                    test.assertNull(build.getObjectId());
+
+                    final GitIndexUntrackedDirectory docs = root.getSubdirectory("docs");
+                    test.assertTrue(docs.isValid());
+                    test.assertEqual(docsExcludeId, docs.getObjectId());
+                    test.assertEqual(Iterable.create("draft.md"), docs.getSubdirectory("drafts").getUntrackedNames());
+                });
+
+                runner.test("with bitmap bit past the last folder", (Test test) ->
+                {
+                    final byte[][] directories = new byte[][] { GitIndexUntrackedCacheTests.createDirectory("", 0) };
+                    final java.util.BitSet none = new java.util.BitSet();
+                    final byte[] bytes = GitIndexUntrackedCacheTests.create(directories, none, GitEwahBitmapTests.createBitSet(3), none);
+                    test.assertThrows(() -> GitIndexUntrackedCacheTests.read(bytes),
+                        new ParseException("The untracked cache has a bitmap bit for folder 3, but it only has 1 folders."));
+                });
+            });
+        });
+    }
+}
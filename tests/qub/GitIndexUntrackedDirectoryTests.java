@@ -0,0 +1,63 @@
+package qub;
+
+public interface GitIndexUntrackedDirectoryTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(GitIndexUntrackedDirectory.class, () ->
+        {
+            runner.testGroup("read(GitDataReader,java.util.List<GitIndexUntrackedDirectory>)", () ->
+            {
+                runner.test("with null reader", (Test test) ->
+                {
+                    test.assertThrows(() -> GitIndexUntrackedDirectory.read(null, new java.util.ArrayList<>()),
+                        new PreConditionFailure("reader cannot be null."));
+                });
+
+                runner.test("with null directories", (Test test) ->
+                {
+                    final GitDataReader reader = GitDataReaderTests.create(GitIndexUntrackedCacheTests.createDirectory("", 0));
+                    test.assertThrows(() -> GitIndexUntrackedDirectory.read(reader, null),
+                        new PreConditionFailure("directories cannot be null."));
+                });
+
+                runner.test("with too many untracked names", (Test test) ->
+                {
+                    final GitDataReader reader = GitDataReaderTests.create(new byte[] { 100, 0, 0 });
+                    test.assertThrows(() -> GitIndexUntrackedDirectory.read(reader, new java.util.ArrayList<>()),
+                        new ParseException("Unexpected end of the untracked cache."));
+                });
+
+                runner.test("with nested folders", (Test test) ->
+                {
+                    final java.io.ByteArrayOutputStream bytes = new java.io.ByteArrayOutputStream();
+                    bytes.writeBytes(GitIndexUntrackedCacheTests.createDirectory("", 2, "a.txt"));
+                    bytes.writeBytes(GitIndexUntrackedCacheTests.createDirectory("docs", 0, "b.txt", "c/"));
+                    bytes.writeBytes(GitIndexUntrackedCacheTests.createDirectory("sources", 0));
+                    final java.util.List<GitIndexUntrackedDirectory> directories = new java.util.ArrayList<>();
+                    final GitIndexUntrackedDirectory root = GitIndexUntrackedDirectory.read(GitDataReaderTests.create(bytes.toByteArray()), directories);
+
+                    test.assertEqual(3, directories.size());
+                    test.assertSame(root, directories.get(0));
+                    test.assertEqual(Iterable.create("a.txt"), root.getUntrackedNames());
+                    test.assertSame(directories.get(1), root.getSubdirectory("docs"));
+                    test.assertSame(directories.get(2), root.getSubdirectory("sources"));
+                    test.assertEqual(Iterable.create("b.txt", "c/"), root.getSubdirectory("docs").getUntrackedNames());
+                    test.assertNull(root.getSubdirectory("tests"));
+                    test.assertFalse(root.isValid());
+                    test.assertFalse(root.isCheckOnly());
+                    test.assertNull(root.getObjectId());
+                });
+            });
+
+            runner.test("getSubdirectory(String) with empty name", (Test test) ->
+            {
+                final GitIndexUntrackedDirectory root = GitIndexUntrackedDirectory.read(
+                    GitDataReaderTests.create(GitIndexUntrackedCacheTests.createDirectory("", 0)),
+                    new java.util.ArrayList<>());
+                test.assertThrows(() -> root.getSubdirectory(""),
+                    new PreConditionFailure("name cannot be empty."));
+            });
+        });
+    }
+}
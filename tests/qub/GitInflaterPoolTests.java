@@ -0,0 +1,385 @@
+package qub;
+
+public interface GitInflaterPoolTests
+{
+    static byte[] deflate(byte[] bytes)
+    {
+        final java.util.zip.Deflater deflater = new java.util.zip.Deflater();
+        try
+        {
+            deflater.setInput(bytes);
+            deflater.finish();
+            final java.io.ByteArrayOutputStream output = new java.io.ByteArrayOutputStream();
+            final byte[] buffer = new byte[1024];
+            while (!deflater.finished())
+            {
+                output.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return output.toByteArray();
+        }
+        finally
+        {
+            deflater.end();
+        }
+    }
+
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(GitInflaterPool.class, () ->
+        {
+            runner.test("acquire() and release()", (Test test) ->
+            {
+                final java.util.zip.Inflater inflater = GitInflaterPool.acquire();
+                test.assertNotNull(inflater);
+
+                final int pooledCount = GitInflaterPool.getPooledCount();
+                GitInflaterPool.release(inflater);
+                test.assertTrue(GitInflaterPool.getPooledCount() <= pooledCount + 1);
+
+                final java.util.zip.Inflater inflater2 = GitInflaterPool.acquire();
+                test.assertFalse(inflater2.finished());
+                test.assertEqual(0L, inflater2.getBytesRead());
+                GitInflaterPool.release(inflater2);
+            });
+
+            runner.test("acquire() after release() on the same thread", (Test test) ->
+            {
+                final java.util.zip.Inflater inflater = GitInflaterPool.acquire();
+                GitInflaterPool.release(inflater);
+
+                final long homeStripeReuseCount = GitInflaterPool.getHomeStripeReuseCount();
+                final long createdInflaterCount = GitInflaterPool.getCreatedInflaterCount();
+                final java.util.zip.Inflater inflater2 = GitInflaterPool.acquire();
+                try
+                {
+                    test.assertSame(inflater, inflater2);
+                    test.assertEqual(homeStripeReuseCount + 1, GitInflaterPool.getHomeStripeReuseCount());
+                    test.assertEqual(createdInflaterCount, GitInflaterPool.getCreatedInflaterCount());
+                }
+                finally
+                {
+                    GitInflaterPool.release(inflater2);
+                }
+            });
+
+            runner.test("acquire() while another Inflater is borrowed", (Test test) ->
+            {
+                final java.util.zip.Inflater inflater = GitInflaterPool.acquire();
+                final java.util.zip.Inflater inflater2 = GitInflaterPool.acquire();
+                test.assertFalse(inflater == inflater2);
+
+                final int pooledCount = GitInflaterPool.getPooledCount();
+                GitInflaterPool.release(inflater);
+                GitInflaterPool.release(inflater2);
+                test.assertTrue(GitInflaterPool.getPooledCount() <= pooledCount + 2);
+            });
+
+            runner.test("release(Inflater) when the pool is full", (Test test) ->
+            {
+                final int inflaterCount = GitInflaterPool.getMaximumPooledCount() + 3;
+                final List<java.util.zip.Inflater> inflaters = List.create();
+                for (int i = 0; i < inflaterCount; ++i)
+                {
+                    inflaters.add(GitInflaterPool.acquire());
+                }
+
+                final long endedCount = GitInflaterPool.getEndedCount();
+                for (final java.util.zip.Inflater inflater : inflaters)
+                {
+                    GitInflaterPool.release(inflater);
+                }
+                test.assertEqual(GitInflaterPool.getMaximumPooledCount(), GitInflaterPool.getPooledCount());
+                test.assertTrue(GitInflaterPool.getEndedCount() >= endedCount + 3);
+            });
+
+            runner.test("acquire() and release() on many threads", (Test test) ->
+            {
+                final java.util.List<Thread> threads = new java.util.ArrayList<>();
+                for (int i = 0; i < 64; ++i)
+                {
+                    final Thread thread = new Thread(() -> GitInflaterPool.release(GitInflaterPool.acquire()));
+                    threads.add(thread);
+                    thread.start();
+                }
+                for (final Thread thread : threads)
+                {
+                    try
+                    {
+                        thread.join();
+                    }
+                    catch (InterruptedException e)
+                    {
+                        test.fail(e.getMessage());
+                    }
+                }
+                test.assertTrue(GitInflaterPool.getPooledCount() <= GitInflaterPool.getMaximumPooledCount());
+            });
+
+            runner.test("release(Inflater) with null", (Test test) ->
+            {
+                test.assertThrows(() -> GitInflaterPool.release(null),
+                    new PreConditionFailure("inflater cannot be null."));
+            });
+
+            runner.test("acquireDeflater() and releaseDeflater()", (Test test) ->
+            {
+                final java.util.zip.Deflater deflater = GitInflaterPool.acquireDeflater();
+                test.assertNotNull(deflater);
+                deflater.setLevel(java.util.zip.Deflater.BEST_SPEED);
+                GitInflaterPool.releaseDeflater(deflater);
+
+                final long homeStripeReuseCount = GitInflaterPool.getDeflaterHomeStripeReuseCount();
+                final long createdDeflaterCount = GitInflaterPool.getCreatedDeflaterCount();
+                final java.util.zip.Deflater deflater2 = GitInflaterPool.acquireDeflater();
+                try
+                {
+                    test.assertSame(deflater, deflater2);
+                    test.assertFalse(deflater2.finished());
+                    test.assertEqual(0L, deflater2.getBytesRead());
+                    test.assertEqual(homeStripeReuseCount + 1, GitInflaterPool.getDeflaterHomeStripeReuseCount());
+                    test.assertEqual(createdDeflaterCount, GitInflaterPool.getCreatedDeflaterCount());
+                }
+                finally
+                {
+                    GitInflaterPool.releaseDeflater(deflater2);
+                }
+            });
+
+            runner.test("releaseDeflater(Deflater) when the pool is full", (Test test) ->
+            {
+                final int deflaterCount = GitInflaterPool.getMaximumPooledDeflaterCount() + 3;
+                final List<java.util.zip.Deflater> deflaters = List.create();
+                for (int i = 0; i < deflaterCount; ++i)
+                {
+                    deflaters.add(GitInflaterPool.acquireDeflater());
+                }
+
+                final long endedCount = GitInflaterPool.getEndedCount();
+                final long endedDeflaterCount = GitInflaterPool.getEndedDeflaterCount();
+                for (final java.util.zip.Deflater deflater : deflaters)
+                {
+                    GitInflaterPool.releaseDeflater(deflater);
+                }
+                test.assertEqual(GitInflaterPool.getMaximumPooledDeflaterCount(), GitInflaterPool.getPooledDeflaterCount());
+                test.assertTrue(GitInflaterPool.getEndedDeflaterCount() >= endedDeflaterCount + 3);
+                test.assertEqual(endedCount, GitInflaterPool.getEndedCount());
+            });
+
+            runner.test("releaseDeflater(Deflater) with null", (Test test) ->
+            {
+                test.assertThrows(() -> GitInflaterPool.releaseDeflater(null),
+                    new PreConditionFailure("deflater cannot be null."));
+            });
+
+            runner.testGroup("getScratchBuffer(Inflater)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> GitInflaterPool.getScratchBuffer(null),
+                        new PreConditionFailure("inflater cannot be null."));
+                });
+
+                runner.test("with pooled Inflater", (Test test) ->
+                {
+                    final java.util.zip.Inflater inflater = GitInflaterPool.acquire();
+                    try
+                    {
+                        final java.nio.ByteBuffer buffer = GitInflaterPool.getScratchBuffer(inflater);
+                        test.assertTrue(buffer.isDirect());
+                        test.assertEqual(GitInflaterPool.smallObjectLimit, buffer.capacity());
+                        buffer.put((byte)1);
+
+                        final long allocationCount = GitInflaterPool.getDirectBufferAllocationCount();
+                        final java.nio.ByteBuffer buffer2 = GitInflaterPool.getScratchBuffer(inflater);
+                        test.assertSame(buffer, buffer2);
+                        test.assertEqual(0, buffer2.position());
+                        test.assertEqual(buffer2.capacity(), buffer2.limit());
+                        test.assertEqual(allocationCount, GitInflaterPool.getDirectBufferAllocationCount());
+                    }
+                    finally
+                    {
+                        GitInflaterPool.release(inflater);
+                    }
+                });
+
+                runner.test("with Inflater that isn't pooled", (Test test) ->
+                {
+                    final java.util.zip.Inflater inflater = new java.util.zip.Inflater();
+                    try
+                    {
+                        final long allocationCount = GitInflaterPool.getDirectBufferAllocationCount();
+                        final java.nio.ByteBuffer buffer = GitInflaterPool.getScratchBuffer(inflater);
+                        test.assertFalse(buffer.isDirect());
+                        test.assertEqual(GitInflaterPool.smallObjectLimit, buffer.capacity());
+                        test.assertEqual(allocationCount, GitInflaterPool.getDirectBufferAllocationCount());
+                    }
+                    finally
+                    {
+                        inflater.end();
+                    }
+                });
+            });
+
+            runner.testGroup("deflate(byte[],int,int)", () ->
+            {
+                runner.test("with null input", (Test test) ->
+                {
+                    test.assertThrows(() -> GitInflaterPool.deflate(null, 0, 0),
+                        new PreConditionFailure("input cannot be null."));
+                });
+
+                final Action1<Integer> deflateTest = (Integer length) ->
+                {
+                    runner.test("with " + length + " bytes", (Test test) ->
+                    {
+                        final byte[] input = new byte[length + 2];
+                        final java.util.Random random = new java.util.Random(length);
+                        random.nextBytes(input);
+
+                        final long allocationCount = GitInflaterPool.getDirectBufferAllocationCount();
+                        final byte[] compressed = GitInflaterPool.deflate(input, 1, length);
+                        test.assertEqual(allocationCount, GitInflaterPool.getDirectBufferAllocationCount());
+                        final java.util.zip.Inflater inflater = GitInflaterPool.acquire();
+                        try
+                        {
+                            inflater.setInput(compressed);
+                            final byte[] output = new byte[length + 1];
+                            test.assertEqual(length, GitInflaterPool.inflate(inflater, output, 0, output.length));
+                            test.assertTrue(inflater.finished());
+                            test.assertEqual(java.util.Arrays.copyOfRange(input, 1, length + 1), java.util.Arrays.copyOf(output, length));
+                        }
+                        finally
+                        {
+                            GitInflaterPool.release(inflater);
+                        }
+                    });
+                };
+
+                deflateTest.run(0);
+                deflateTest.run(100);
+                deflateTest.run(100000);
+            });
+
+            runner.testGroup("inflateSmall(Inflater)", () ->
+            {
+                runner.test("with object that fits in the scratch buffer", (Test test) ->
+                {
+                    final byte[] expected = "blob 11\0hello world".getBytes(java.nio.charset.StandardCharsets.UTF_8);
+                    final long smallObjectCount = GitInflaterPool.getSmallObjectCount();
+                    final java.util.zip.Inflater inflater = GitInflaterPool.acquire();
+                    try
+                    {
+                        inflater.setInput(GitInflaterPoolTests.deflate(expected));
+                        final java.nio.ByteBuffer buffer = GitInflaterPool.inflateSmall(inflater);
+                        test.assertTrue(inflater.finished());
+                        final byte[] actual = new byte[buffer.remaining()];
+                        buffer.get(actual);
+                        test.assertEqual(expected, actual);
+                        test.assertEqual(smallObjectCount + 1, GitInflaterPool.getSmallObjectCount());
+                    }
+                    finally
+                    {
+                        GitInflaterPool.release(inflater);
+                    }
+                });
+
+                runner.test("with object that doesn't fit in the scratch buffer", (Test test) ->
+                {
+                    final byte[] expected = new byte[GitInflaterPool.smallObjectLimit + 10];
+                    final long smallObjectCount = GitInflaterPool.getSmallObjectCount();
+                    final java.util.zip.Inflater inflater = GitInflaterPool.acquire();
+                    try
+                    {
+                        inflater.setInput(GitInflaterPoolTests.deflate(expected));
+                        final java.nio.ByteBuffer buffer = GitInflaterPool.inflateSmall(inflater);
+                        test.assertFalse(inflater.finished());
+                        test.assertEqual(GitInflaterPool.smallObjectLimit, buffer.remaining());
+                        test.assertEqual(10, GitInflaterPool.inflate(inflater, new byte[20], 0, 20));
+                        test.assertEqual(smallObjectCount, GitInflaterPool.getSmallObjectCount());
+                    }
+                    finally
+                    {
+                        GitInflaterPool.release(inflater);
+                    }
+                });
+            });
+
+            runner.testGroup("inflate(Inflater,byte[],int,int)", () ->
+            {
+                runner.test("with complete input", (Test test) ->
+                {
+                    final byte[] expected = "hello hello hello hello".getBytes(java.nio.charset.StandardCharsets.UTF_8);
+                    final java.util.zip.Inflater inflater = GitInflaterPool.acquire();
+                    try
+                    {
+                        inflater.setInput(GitInflaterPoolTests.deflate(expected));
+                        final byte[] output = new byte[expected.length + 10];
+                        test.assertEqual(5, GitInflaterPool.inflate(inflater, output, 0, 5));
+                        test.assertEqual(expected.length - 5, GitInflaterPool.inflate(inflater, output, 5, output.length - 5));
+                        test.assertEqual(expected, java.util.Arrays.copyOf(output, expected.length));
+                    }
+                    finally
+                    {
+                        GitInflaterPool.release(inflater);
+                    }
+                });
+
+                runner.test("with truncated input", (Test test) ->
+                {
+                    final byte[] compressed = GitInflaterPoolTests.deflate(new byte[1000]);
+                    final java.util.zip.Inflater inflater = GitInflaterPool.acquire();
+                    try
+                    {
+                        inflater.setInput(compressed, 0, compressed.length / 2);
+                        test.assertThrows(() -> GitInflaterPool.inflate(inflater, new byte[1000], 0, 1000),
+                            new GitException("Invalid compressed Git object data: Unexpected end of zlib input."));
+                    }
+                    finally
+                    {
+                        GitInflaterPool.release(inflater);
+                    }
+                });
+            });
+
+            runner.testGroup("inflate(Inflater,ByteBuffer)", () ->
+            {
+                runner.test("with complete input", (Test test) ->
+                {
+                    final byte[] expected = "hello hello hello hello".getBytes(java.nio.charset.StandardCharsets.UTF_8);
+                    final java.util.zip.Inflater inflater = GitInflaterPool.acquire();
+                    try
+                    {
+                        inflater.setInput(GitInflaterPoolTests.deflate(expected));
+                        final java.nio.ByteBuffer output = java.nio.ByteBuffer.allocateDirect(expected.length + 10);
+                        test.assertEqual(expected.length, GitInflaterPool.inflate(inflater, output));
+                        test.assertEqual(expected.length, output.position());
+                        output.flip();
+                        final byte[] actual = new byte[output.remaining()];
+                        output.get(actual);
+                        test.assertEqual(expected, actual);
+                    }
+                    finally
+                    {
+                        GitInflaterPool.release(inflater);
+                    }
+                });
+
+                runner.test("with truncated input", (Test test) ->
+                {
+                    final byte[] compressed = GitInflaterPoolTests.deflate(new byte[1000]);
+                    final java.util.zip.Inflater inflater = GitInflaterPool.acquire();
+                    try
+                    {
+                        inflater.setInput(compressed, 0, compressed.length / 2);
+                        test.assertThrows(() -> GitInflaterPool.inflate(inflater, java.nio.ByteBuffer.allocateDirect(1000)),
+                            new GitException("Invalid compressed Git object data: Unexpected end of zlib input."));
+                    }
+                    finally
+                    {
+                        GitInflaterPool.release(inflater);
+                    }
+                });
+            });
+        });
+    }
+}
@@ -0,0 +1,37 @@
+package qub;
+
+public interface GitLocalCloneResultTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(GitLocalCloneResult.class, () ->
+        {
+            runner.testGroup("create(GitLocalCloneStrategy,int)", () ->
+            {
+                runner.test("with null strategy", (Test test) ->
+                {
+                    test.assertThrows(() -> GitLocalCloneResult.create(null, 0),
+                        new PreConditionFailure("strategy cannot be null."));
+                });
+
+                runner.test("with success", (Test test) ->
+                {
+                    final GitLocalCloneResult result = GitLocalCloneResult.create(GitLocalCloneStrategy.Hardlinks, 0);
+                    test.assertEqual(GitLocalCloneStrategy.Hardlinks, result.getStrategy());
+                    test.assertEqual(0, result.getExitCode());
+                    test.assertTrue(result.isSuccess());
+                    test.assertEqual("Hardlinks: exit code 0", result.toString());
+                });
+
+                runner.test("with failure", (Test test) ->
+                {
+                    final GitLocalCloneResult result = GitLocalCloneResult.create(GitLocalCloneStrategy.Copy, 128);
+                    test.assertEqual(GitLocalCloneStrategy.Copy, result.getStrategy());
+                    test.assertEqual(128, result.getExitCode());
+                    test.assertFalse(result.isSuccess());
+                    test.assertEqual("Copy: exit code 128", result.toString());
+                });
+            });
+        });
+    }
+}
@@ -0,0 +1,77 @@
+package qub;
+
+public interface GitLocalCloneStrategyTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(GitLocalCloneStrategy.class, () ->
+        {
+            runner.test("getArguments()", (Test test) ->
+            {
+                test.assertEqual(Iterable.create("--local"), GitLocalCloneStrategy.Hardlinks.getArguments());
+                test.assertEqual(Iterable.create("--local", "--no-hardlinks"), GitLocalCloneStrategy.Copy.getArguments());
+                test.assertEqual(Iterable.create("--shared"), GitLocalCloneStrategy.Shared.getArguments());
+                test.assertEqual(Iterable.create(), GitLocalCloneStrategy.Default.getArguments());
+            });
+
+            runner.testGroup("choose(Folder,Folder,boolean)", () ->
+            {
+                runner.test("with null repository", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    final Folder directory = fileSystem.getFolder("/clone/").await();
+                    test.assertThrows(() -> GitLocalCloneStrategy.choose(null, directory, false),
+                        new PreConditionFailure("repository cannot be null."));
+                });
+
+                runner.test("with null directory", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    final Folder repository = fileSystem.getFolder("/source/").await();
+                    test.assertThrows(() -> GitLocalCloneStrategy.choose(repository, null, false),
+                        new PreConditionFailure("directory cannot be null."));
+                });
+
+                runner.test("with same in-memory file system", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    final Folder repository = fileSystem.getFolder("/source/").await();
+                    final Folder directory = fileSystem.getFolder("/clone/").await();
+                    test.assertEqual(GitLocalCloneStrategy.Default, GitLocalCloneStrategy.choose(repository, directory, false));
+                });
+
+                runner.test("with different in-memory file systems", (Test test) ->
+                {
+                    final Folder repository = InMemoryFileSystem.create().getFolder("/source/").await();
+                    final Folder directory = InMemoryFileSystem.create().getFolder("/clone/").await();
+                    test.assertEqual(GitLocalCloneStrategy.Default, GitLocalCloneStrategy.choose(repository, directory, false));
+                });
+
+                runner.test("with in-memory directory and folder on the local disk",
+                    (TestResources resources) -> Tuple.create(resources.getTemporaryFolder()),
+                    (Test test, Folder tempFolder) ->
+                {
+                    final Folder repository = tempFolder.createFolder("source").await();
+                    final Folder directory = InMemoryFileSystem.create().getFolder("/clone/").await();
+                    test.assertEqual(GitLocalCloneStrategy.Default, GitLocalCloneStrategy.choose(repository, directory, false));
+                });
+
+                runner.test("with same folder on the local disk",
+                    (TestResources resources) -> Tuple.create(resources.getTemporaryFolder()),
+                    (Test test, Folder tempFolder) ->
+                {
+                    final Folder repository = tempFolder.createFolder("source").await();
+                    final Folder directory = tempFolder.getFolder("clone").await();
+                    test.assertEqual(GitLocalCloneStrategy.Hardlinks, GitLocalCloneStrategy.choose(repository, directory, false));
+                });
+
+                runner.test("with shared", (Test test) ->
+                {
+                    final Folder repository = InMemoryFileSystem.create().getFolder("/source/").await();
+                    final Folder directory = InMemoryFileSystem.create().getFolder("/clone/").await();
+                    test.assertEqual(GitLocalCloneStrategy.Shared, GitLocalCloneStrategy.choose(repository, directory, true));
+                });
+            });
+        });
+    }
+}
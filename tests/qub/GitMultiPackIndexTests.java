@@ -0,0 +1,240 @@
+package qub;
+
+public interface GitMultiPackIndexTests
+{
+    /**
+     * Create the bytes of a multi-pack-index that covers the provided packs.
+     * @param packNames The names of the pack index files of the packs.
+     * @param packs The packs. If an object is in more than one pack, then the first pack wins.
+     * @param largeOffsets Whether to store every offset in the large offset chunk.
+     * @return The bytes of the multi-pack-index.
+     */
+    static byte[] createMultiPackIndex(String[] packNames, GitPackFileTests.PackBuilder[] packs, boolean largeOffsets)
+    {
+        final java.util.TreeMap<GitObjectId,long[]> objects = new java.util.TreeMap<>();
+        for (int packId = 0; packId < packs.length; ++packId)
+        {
+            for (final java.util.Map.Entry<GitObjectId,Long> entry : packs[packId].getOffsets().entrySet())
+            {
+                objects.putIfAbsent(entry.getKey(), new long[] { packId, entry.getValue() });
+            }
+        }
+
+        final java.io.ByteArrayOutputStream packNamesChunk = new java.io.ByteArrayOutputStream();
+        for (final String packName : packNames)
+        {
+            final byte[] packNameBytes = GitPackFileTests.toBytes(packName);
+            packNamesChunk.write(packNameBytes, 0, packNameBytes.length);
+            packNamesChunk.write(0);
+        }
+        while (packNamesChunk.size() % 4 != 0)
+        {
+            packNamesChunk.write(0);
+        }
+
+        final java.nio.ByteBuffer fanoutChunk = java.nio.ByteBuffer.allocate(256 * 4);
+        final int[] fanout = new int[256];
+        for (final GitObjectId objectId : objects.keySet())
+        {
+            for (int i = objectId.getFanoutIndex(); i < 256; ++i)
+            {
+                ++fanout[i];
+            }
+        }
+        for (final int count : fanout)
+        {
+            fanoutChunk.putInt(count);
+        }
+
+        final java.nio.ByteBuffer objectIdsChunk = java.nio.ByteBuffer.allocate(objects.size() * 20);
+        final java.nio.ByteBuffer offsetsChunk = java.nio.ByteBuffer.allocate(objects.size() * 8);
+        final java.nio.ByteBuffer largeOffsetsChunk = java.nio.ByteBuffer.allocate(objects.size() * 8);
+        int largeOffsetIndex = 0;
+        for (final java.util.Map.Entry<GitObjectId,long[]> entry : objects.entrySet())
+        {
+            objectIdsChunk.put(entry.getKey().getBytes());
+            offsetsChunk.putInt((int)entry.getValue()[0]);
+            if (largeOffsets)
+            {
+                offsetsChunk.putInt(0x80000000 | largeOffsetIndex++);
+                largeOffsetsChunk.putLong(entry.getValue()[1]);
+            }
+            else
+            {
+                offsetsChunk.putInt((int)entry.getValue()[1]);
+            }
+        }
+
+        final java.util.ArrayList<Integer> chunkIds = new java.util.ArrayList<>();
+        final java.util.ArrayList<byte[]> chunks = new java.util.ArrayList<>();
+        chunkIds.add(0x504E414D);
+        chunks.add(packNamesChunk.toByteArray());
+        chunkIds.add(0x4F494446);
+        chunks.add(fanoutChunk.array());
+        chunkIds.add(0x4F49444C);
+        chunks.add(objectIdsChunk.array());
+        chunkIds.add(0x4F4F4646);
+        chunks.add(offsetsChunk.array());
+        if (largeOffsets)
+        {
+            chunkIds.add(0x4C4F4646);
+            chunks.add(largeOffsetsChunk.array());
+        }
+
+        int length = 12 + ((chunks.size() + 1) * 12) + 20;
+        for (final byte[] chunk : chunks)
+        {
+            length += chunk.length;
+        }
+        final java.nio.ByteBuffer result = java.nio.ByteBuffer.allocate(length);
+        result.putInt(0x4D494458);
+        result.put((byte)1);
+        result.put((byte)1);
+        result.put((byte)chunks.size());
+        result.put((byte)0);
+        result.putInt(packNames.length);
+
+        long chunkOffset = 12 + ((chunks.size() + 1) * 12);
+        for (int i = 0; i < chunks.size(); ++i)
+        {
+            result.putInt(chunkIds.get(i));
+            result.putLong(chunkOffset);
+            chunkOffset += chunks.get(i).length;
+        }
+        result.putInt(0);
+        result.putLong(chunkOffset);
+        for (final byte[] chunk : chunks)
+        {
+            result.put(chunk);
+        }
+        return result.array();
+    }
+
+    static GitMultiPackIndex parse(byte[] bytes)
+    {
+        return GitMultiPackIndex.parse(GitPackData.wrap(bytes, GitPackData.defaultSegmentSize), GitObjectId.sha1Length).await();
+    }
+
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(GitMultiPackIndex.class, () ->
+        {
+            runner.testGroup("parse(GitPackData,int)", () ->
+            {
+                runner.test("with null data", (Test test) ->
+                {
+                    test.assertThrows(() -> GitMultiPackIndex.parse(null, 20),
+                        new PreConditionFailure("data cannot be null."));
+                });
+
+                runner.test("with bad signature", (Test test) ->
+                {
+                    test.assertThrows(() -> GitMultiPackIndexTests.parse(new byte[100]),
+                        new ParseException("Expected the multi-pack-index to start with \"MIDX\"."));
+                });
+
+                runner.test("with unsupported version", (Test test) ->
+                {
+                    final byte[] bytes = GitMultiPackIndexTests.createMultiPackIndex(new String[0], new GitPackFileTests.PackBuilder[0], false);
+                    bytes[4] = 2;
+                    test.assertThrows(() -> GitMultiPackIndexTests.parse(bytes),
+                        new ParseException("Unsupported multi-pack-index version: 2"));
+                });
+
+                runner.test("with SHA-256 object ids in a SHA-1 repository", (Test test) ->
+                {
+                    final byte[] bytes = GitMultiPackIndexTests.createMultiPackIndex(new String[0], new GitPackFileTests.PackBuilder[0], false);
+                    bytes[5] = 2;
+                    test.assertThrows(() -> GitMultiPackIndexTests.parse(bytes),
+                        new ParseException("Expected the multi-pack-index to use 20 byte object ids, but found object id version 2."));
+                });
+
+                runner.test("with incremental chain", (Test test) ->
+                {
+                    final byte[] bytes = GitMultiPackIndexTests.createMultiPackIndex(new String[0], new GitPackFileTests.PackBuilder[0], false);
+                    bytes[7] = 1;
+                    test.assertThrows(() -> GitMultiPackIndexTests.parse(bytes),
+                        new ParseException("Incremental multi-pack-index chains are not supported."));
+                });
+
+                runner.test("with missing chunk", (Test test) ->
+                {
+                    final byte[] bytes = GitMultiPackIndexTests.createMultiPackIndex(new String[0], new GitPackFileTests.PackBuilder[0], false);
+                    // Rename the OOFF chunk.
+                    bytes[12 + (3 * 12)] = 'X';
+                    test.assertThrows(() -> GitMultiPackIndexTests.parse(bytes),
+                        new ParseException("The multi-pack-index is missing its required OOFF chunk."));
+                });
+
+                runner.test("with too few pack names", (Test test) ->
+                {
+                    final byte[] bytes = GitMultiPackIndexTests.createMultiPackIndex(new String[0], new GitPackFileTests.PackBuilder[0], false);
+                    bytes[11] = 1;
+                    test.assertThrows(() -> GitMultiPackIndexTests.parse(bytes),
+                        new ParseException("Expected the multi-pack-index to contain 1 pack names, but found 0."));
+                });
+
+                runner.test("with no packs", (Test test) ->
+                {
+                    final GitMultiPackIndex multiPackIndex = GitMultiPackIndexTests.parse(GitMultiPackIndexTests.createMultiPackIndex(new String[0], new GitPackFileTests.PackBuilder[0], false));
+                    test.assertEqual(20, multiPackIndex.getObjectIdLength());
+                    test.assertEqual(0, multiPackIndex.getObjectCount());
+                    test.assertEqual(Iterable.create(), multiPackIndex.getPackNames());
+                });
+            });
+
+            runner.testGroup("indexOf(GitObjectId)", () ->
+            {
+                final Action1<Boolean> indexOfTest = (Boolean largeOffsets) ->
+                {
+                    runner.test("with " + (largeOffsets ? "large" : "small") + " offsets", (Test test) ->
+                    {
+                        final GitPackFileTests.PackBuilder pack1 = new GitPackFileTests.PackBuilder();
+                        final GitPackFileTests.PackBuilder pack2 = new GitPackFileTests.PackBuilder();
+                        final List<GitObjectId> pack1ObjectIds = List.create();
+                        final List<GitObjectId> pack2ObjectIds = List.create();
+                        for (int i = 0; i < 300; ++i)
+                        {
+                            pack1ObjectIds.add(pack1.addObject(GitObjectType.Blob, "pack 1 blob " + i));
+                            pack2ObjectIds.add(pack2.addObject(GitObjectType.Blob, "pack 2 blob " + i));
+                        }
+                        final GitMultiPackIndex multiPackIndex = GitMultiPackIndexTests.parse(GitMultiPackIndexTests.createMultiPackIndex(
+                            new String[] { "pack-1.idx", "pack-2.idx" },
+                            new GitPackFileTests.PackBuilder[] { pack1, pack2 },
+                            largeOffsets));
+                        test.assertEqual(Iterable.create("pack-1.idx", "pack-2.idx"), multiPackIndex.getPackNames());
+                        test.assertEqual(600, multiPackIndex.getObjectCount());
+
+                        for (final GitObjectId objectId : pack1ObjectIds)
+                        {
+                            final int index = multiPackIndex.indexOf(objectId);
+                            test.assertEqual(objectId, multiPackIndex.getObjectId(index));
+                            test.assertEqual(0, multiPackIndex.getPackId(index));
+                            test.assertEqual(pack1.getOffsets().get(objectId), multiPackIndex.getOffset(index));
+                        }
+                        for (final GitObjectId objectId : pack2ObjectIds)
+                        {
+                            final int index = multiPackIndex.indexOf(objectId);
+                            test.assertEqual(1, multiPackIndex.getPackId(index));
+                            test.assertEqual(pack2.getOffsets().get(objectId), multiPackIndex.getOffset(index));
+                        }
+
+                        final GitObjectId missingObjectId = GitObjectDatabaseTests.getObjectId(GitObjectType.Blob, GitPackFileTests.toBytes("missing"));
+                        test.assertEqual(-1, multiPackIndex.indexOf(missingObjectId));
+                        test.assertFalse(multiPackIndex.containsObject(missingObjectId));
+                    });
+                };
+
+                indexOfTest.run(false);
+                indexOfTest.run(true);
+
+                runner.test("with null", (Test test) ->
+                {
+                    final GitMultiPackIndex multiPackIndex = GitMultiPackIndexTests.parse(GitMultiPackIndexTests.createMultiPackIndex(new String[0], new GitPackFileTests.PackBuilder[0], false));
+                    test.assertThrows(() -> multiPackIndex.indexOf(null),
+                        new PreConditionFailure("objectId cannot be null."));
+                });
+            });
+        });
+    }
+}
@@ -0,0 +1,68 @@
+package qub;
+
+public interface GitMultiRepositoryResultTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(GitMultiRepositoryResult.class, () ->
+        {
+            runner.testGroup("create(T,String,int)", () ->
+            {
+                runner.test("with null repository", (Test test) ->
+                {
+                    test.assertThrows(() -> GitMultiRepositoryResult.create(null, "github.com", 0),
+                        new PreConditionFailure("repository cannot be null."));
+                });
+
+                runner.test("with null host", (Test test) ->
+                {
+                    final GitMultiRepositoryResult<String> result = GitMultiRepositoryResult.create("/repo", null, 0);
+                    test.assertEqual("/repo", result.getRepository());
+                    test.assertNull(result.getHost());
+                    test.assertEqual(0, result.getExitCode());
+                    test.assertNull(result.getError());
+                    test.assertTrue(result.isSuccess());
+                    test.assertEqual("/repo: exit code 0", result.toString());
+                });
+
+                runner.test("with non-zero exit code", (Test test) ->
+                {
+                    final GitMultiRepositoryResult<String> result = GitMultiRepositoryResult.create("https://github.com/a/b", "github.com", 128);
+                    test.assertEqual("https://github.com/a/b", result.getRepository());
+                    test.assertEqual("github.com", result.getHost());
+                    test.assertEqual(128, result.getExitCode());
+                    test.assertNull(result.getError());
+                    test.assertFalse(result.isSuccess());
+                    test.assertEqual("https://github.com/a/b: exit code 128", result.toString());
+                });
+            });
+
+            runner.testGroup("createError(T,String,Throwable)", () ->
+            {
+                runner.test("with null repository", (Test test) ->
+                {
+                    test.assertThrows(() -> GitMultiRepositoryResult.createError(null, "github.com", new GitException("oops")),
+                        new PreConditionFailure("repository cannot be null."));
+                });
+
+                runner.test("with null error", (Test test) ->
+                {
+                    test.assertThrows(() -> GitMultiRepositoryResult.createError("/repo", "github.com", null),
+                        new PreConditionFailure("error cannot be null."));
+                });
+
+                runner.test("with non-null error", (Test test) ->
+                {
+                    final GitException error = new GitException("oops");
+                    final GitMultiRepositoryResult<String> result = GitMultiRepositoryResult.createError("/repo", "github.com", error);
+                    test.assertEqual("/repo", result.getRepository());
+                    test.assertEqual("github.com", result.getHost());
+                    test.assertNull(result.getExitCode());
+                    test.assertSame(error, result.getError());
+                    test.assertFalse(result.isSuccess());
+                    test.assertEqual("/repo: " + error.toString(), result.toString());
+                });
+            });
+        });
+    }
+}
@@ -0,0 +1,458 @@
+package qub;
+
+public interface GitMultiRepositoryRunnerTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(GitMultiRepositoryRunner.class, () ->
+        {
+            runner.testGroup("create(Git)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> GitMultiRepositoryRunner.create(null),
+                        new PreConditionFailure("git cannot be null."));
+                });
+
+                runner.test("with non-null",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final GitMultiRepositoryRunner multiRunner = GitMultiRepositoryRunner.create(Git.create(process));
+                    test.assertNotNull(multiRunner);
+                    test.assertEqual(Runtime.getRuntime().availableProcessors(), multiRunner.getMaximumParallelism());
+                    test.assertEqual(Integer.MAX_VALUE, multiRunner.getMaximumParallelismPerHost());
+                });
+            });
+
+            runner.testGroup("setMaximumParallelism(int)", () ->
+            {
+                runner.test("with 0",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final GitMultiRepositoryRunner multiRunner = GitMultiRepositoryRunner.create(Git.create(process));
+                    test.assertThrows(() -> multiRunner.setMaximumParallelism(0),
+                        new PreConditionFailure("maximumParallelism (0) must be greater than or equal to 1."));
+                });
+
+                runner.test("with 3",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final GitMultiRepositoryRunner multiRunner = GitMultiRepositoryRunner.create(Git.create(process));
+                    final GitMultiRepositoryRunner setResult = multiRunner.setMaximumParallelism(3);
+                    test.assertSame(multiRunner, setResult);
+                    test.assertEqual(3, multiRunner.getMaximumParallelism());
+                });
+            });
+
+            runner.testGroup("setMaximumParallelismPerHost(int)", () ->
+            {
+                runner.test("with 0",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final GitMultiRepositoryRunner multiRunner = GitMultiRepositoryRunner.create(Git.create(process));
+                    test.assertThrows(() -> multiRunner.setMaximumParallelismPerHost(0),
+                        new PreConditionFailure("maximumParallelismPerHost (0) must be greater than or equal to 1."));
+                });
+
+                runner.test("with 2",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final GitMultiRepositoryRunner multiRunner = GitMultiRepositoryRunner.create(Git.create(process));
+                    final GitMultiRepositoryRunner setResult = multiRunner.setMaximumParallelismPerHost(2);
+                    test.assertSame(multiRunner, setResult);
+                    test.assertEqual(2, multiRunner.getMaximumParallelismPerHost());
+                });
+            });
+
+            runner.testGroup("setThreadFactory(ThreadFactory)", () ->
+            {
+                runner.test("with null",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final GitMultiRepositoryRunner multiRunner = GitMultiRepositoryRunner.create(Git.create(process));
+                    final java.util.concurrent.ThreadFactory threadFactory = multiRunner.getThreadFactory();
+                    test.assertNotNull(threadFactory);
+                    test.assertThrows(() -> multiRunner.setThreadFactory(null),
+                        new PreConditionFailure("threadFactory cannot be null."));
+                    test.assertSame(threadFactory, multiRunner.getThreadFactory());
+                });
+
+                runner.test("with non-null",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final IntegerValue createdThreadCount = IntegerValue.create(0);
+                    final java.util.concurrent.ThreadFactory threadFactory = (Runnable action) ->
+                    {
+                        synchronized (createdThreadCount)
+                        {
+                            createdThreadCount.increment();
+                        }
+                        return new Thread(action);
+                    };
+                    final GitMultiRepositoryRunner multiRunner = GitMultiRepositoryRunner.create(Git.create(process))
+                        .setMaximumParallelism(2);
+                    final GitMultiRepositoryRunner setResult = multiRunner.setThreadFactory(threadFactory);
+                    test.assertSame(multiRunner, setResult);
+                    test.assertSame(threadFactory, multiRunner.getThreadFactory());
+
+                    final Iterable<GitMultiRepositoryResult<String>> results = multiRunner.run(
+                        Iterable.create("a", "b", "c"),
+                        (String repository) -> null,
+                        (String repository) -> 0,
+                        (GitMultiRepositoryResult<String> result) -> {})
+                        .await();
+                    test.assertEqual(3, results.getCount());
+                    test.assertEqual(2, createdThreadCount.get());
+                });
+            });
+
+            runner.test("useVirtualThreads()",
+                (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                (Test test, FakeDesktopProcess process) ->
+            {
+                final GitMultiRepositoryRunner multiRunner = GitMultiRepositoryRunner.create(Git.create(process));
+                if (!GitVirtualThreads.isSupported())
+                {
+                    final java.util.concurrent.ThreadFactory threadFactory = multiRunner.getThreadFactory();
+                    test.assertThrows(() -> multiRunner.useVirtualThreads().await(),
+                        new UnsupportedOperationException("Virtual threads are not supported by this Java runtime (" + System.getProperty("java.version") + ")."));
+                    test.assertSame(threadFactory, multiRunner.getThreadFactory());
+                }
+                else
+                {
+                    final GitMultiRepositoryRunner useResult = multiRunner.useVirtualThreads().await();
+                    test.assertSame(multiRunner, useResult);
+                    test.assertSame(GitVirtualThreads.getThreadFactory().await(), multiRunner.getThreadFactory());
+
+                    multiRunner.setMaximumParallelism(1000);
+                    final List<String> repositories = List.create();
+                    for (int i = 0; i < 1000; ++i)
+                    {
+                        repositories.add("repository" + i);
+                    }
+                    final Iterable<GitMultiRepositoryResult<String>> results = multiRunner.run(
+                        repositories,
+                        (String repository) -> null,
+                        (String repository) ->
+                        {
+                            try
+                            {
+                                Thread.sleep(10);
+                            }
+                            catch (InterruptedException e)
+                            {
+                                throw new RuntimeException(e);
+                            }
+                            return 0;
+                        },
+                        (GitMultiRepositoryResult<String> result) -> {})
+                        .await();
+                    test.assertEqual(1000, results.getCount());
+                }
+            });
+
+            runner.testGroup("run(Iterable<T>,Function1<T,String>,Function1<T,Integer>,Action1<GitMultiRepositoryResult<T>>)", () ->
+            {
+                final Function1<Integer,Function1<String,Integer>> createSleepingOperation = (Integer sleepMilliseconds) ->
+                {
+                    return (String repository) ->
+                    {
+                        try
+                        {
+                            Thread.sleep(sleepMilliseconds);
+                        }
+                        catch (InterruptedException e)
+                        {
+                            throw new RuntimeException(e);
+                        }
+                        return 0;
+                    };
+                };
+
+                runner.test("with null repositories",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final GitMultiRepositoryRunner multiRunner = GitMultiRepositoryRunner.create(Git.create(process));
+                    test.assertThrows(() -> multiRunner.run((Iterable<String>)null, (String repository) -> null, (String repository) -> 0, (GitMultiRepositoryResult<String> result) -> {}),
+                        new PreConditionFailure("repositories cannot be null."));
+                });
+
+                runner.test("with null hostGetter",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final GitMultiRepositoryRunner multiRunner = GitMultiRepositoryRunner.create(Git.create(process));
+                    test.assertThrows(() -> multiRunner.run(Iterable.create("a"), null, (String repository) -> 0, (GitMultiRepositoryResult<String> result) -> {}),
+                        new PreConditionFailure("hostGetter cannot be null."));
+                });
+
+                runner.test("with null operation",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final GitMultiRepositoryRunner multiRunner = GitMultiRepositoryRunner.create(Git.create(process));
+                    test.assertThrows(() -> multiRunner.run(Iterable.create("a"), (String repository) -> null, null, (GitMultiRepositoryResult<String> result) -> {}),
+                        new PreConditionFailure("operation cannot be null."));
+                });
+
+                runner.test("with null onCompleted",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final GitMultiRepositoryRunner multiRunner = GitMultiRepositoryRunner.create(Git.create(process));
+                    test.assertThrows(() -> multiRunner.run(Iterable.create("a"), (String repository) -> null, (String repository) -> 0, null),
+                        new PreConditionFailure("onCompleted cannot be null."));
+                });
+
+                runner.test("with no repositories",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final GitMultiRepositoryRunner multiRunner = GitMultiRepositoryRunner.create(Git.create(process));
+                    final IntegerValue completedCount = IntegerValue.create(0);
+                    final Iterable<GitMultiRepositoryResult<String>> results = multiRunner.run(
+                        Iterable.create(),
+                        (String repository) -> null,
+                        (String repository) -> 0,
+                        (GitMultiRepositoryResult<String> result) -> completedCount.increment())
+                        .await();
+                    test.assertEqual(0, results.getCount());
+                    test.assertEqual(0, completedCount.get());
+                });
+
+                runner.test("with operation that throws",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final GitMultiRepositoryRunner multiRunner = GitMultiRepositoryRunner.create(Git.create(process));
+                    final Iterable<GitMultiRepositoryResult<String>> results = multiRunner.run(
+                        Iterable.create("good", "bad"),
+                        (String repository) -> null,
+                        (String repository) ->
+                        {
+                            if (repository.equals("bad"))
+                            {
+                                throw new GitException("bad repository");
+                            }
+                            return 0;
+                        },
+                        (GitMultiRepositoryResult<String> result) -> {})
+                        .await();
+                    test.assertEqual(2, results.getCount());
+                    for (final GitMultiRepositoryResult<String> result : results)
+                    {
+                        if (result.getRepository().equals("good"))
+                        {
+                            test.assertTrue(result.isSuccess());
+                            test.assertNull(result.getError());
+                        }
+                        else
+                        {
+                            test.assertFalse(result.isSuccess());
+                            test.assertEqual(new GitException("bad repository"), result.getError());
+                        }
+                    }
+                });
+
+                runner.test("with maximumParallelism limit",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final GitMultiRepositoryRunner multiRunner = GitMultiRepositoryRunner.create(Git.create(process))
+                        .setMaximumParallelism(3);
+                    final IntegerValue activeCount = IntegerValue.create(0);
+                    final IntegerValue maximumActiveCount = IntegerValue.create(0);
+                    final Function1<String,Integer> sleepingOperation = createSleepingOperation.run(20);
+                    final List<String> completedRepositories = List.create();
+                    final Iterable<GitMultiRepositoryResult<String>> results = multiRunner.run(
+                        Iterable.create("a", "b", "c", "d", "e", "f", "g", "h", "i", "j"),
+                        (String repository) -> null,
+                        (String repository) ->
+                        {
+                            synchronized (activeCount)
+                            {
+                                activeCount.increment();
+                                maximumActiveCount.set(Math.max(maximumActiveCount.get(), activeCount.get()));
+                            }
+                            final int exitCode = sleepingOperation.run(repository);
+                            synchronized (activeCount)
+                            {
+                                activeCount.decrement();
+                            }
+                            return exitCode;
+                        },
+                        (GitMultiRepositoryResult<String> result) -> completedRepositories.add(result.getRepository()))
+                        .await();
+                    test.assertEqual(10, results.getCount());
+                    test.assertEqual(10, completedRepositories.getCount());
+                    test.assertEqual(completedRepositories, results.map(GitMultiRepositoryResult::getRepository).toList());
+                    test.assertLessThan(maximumActiveCount.get(), 4);
+                    test.assertGreaterThan(maximumActiveCount.get(), 0);
+                });
+
+                runner.test("with maximumParallelismPerHost limit",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final GitMultiRepositoryRunner multiRunner = GitMultiRepositoryRunner.create(Git.create(process))
+                        .setMaximumParallelism(8)
+                        .setMaximumParallelismPerHost(2);
+                    final MutableMap<String,Integer> activeHostCounts = Map.create();
+                    final MutableMap<String,Integer> maximumActiveHostCounts = Map.create();
+                    final Function1<String,Integer> sleepingOperation = createSleepingOperation.run(20);
+                    final Function1<String,String> hostGetter = (String repository) -> repository.substring(0, repository.indexOf('/'));
+                    final Iterable<GitMultiRepositoryResult<String>> results = multiRunner.run(
+                        Iterable.create(
+                            "github.com/a", "github.com/b", "github.com/c", "github.com/d", "github.com/e",
+                            "gitlab.com/a", "gitlab.com/b", "gitlab.com/c"),
+                        hostGetter,
+                        (String repository) ->
+                        {
+                            final String host = hostGetter.run(repository);
+                            synchronized (activeHostCounts)
+                            {
+                                final int activeCount = activeHostCounts.get(host).catchError(NotFoundException.class).await() == null
+                                    ? 1
+                                    : activeHostCounts.get(host).await() + 1;
+                                activeHostCounts.set(host, activeCount);
+                                final Integer maximumActiveCount = maximumActiveHostCounts.get(host).catchError(NotFoundException.class).await();
+                                maximumActiveHostCounts.set(host, maximumActiveCount == null ? activeCount : Math.max(maximumActiveCount, activeCount));
+                            }
+                            final int exitCode = sleepingOperation.run(repository);
+                            synchronized (activeHostCounts)
+                            {
+                                activeHostCounts.set(host, activeHostCounts.get(host).await() - 1);
+                            }
+                            return exitCode;
+                        },
+                        (GitMultiRepositoryResult<String> result) -> {})
+                        .await();
+                    test.assertEqual(8, results.getCount());
+                    for (final GitMultiRepositoryResult<String> result : results)
+                    {
+                        test.assertTrue(result.isSuccess());
+                        test.assertEqual(hostGetter.run(result.getRepository()), result.getHost());
+                    }
+                    test.assertLessThan(maximumActiveHostCounts.get("github.com").await(), 3);
+                    test.assertLessThan(maximumActiveHostCounts.get("gitlab.com").await(), 3);
+                });
+            });
+
+            runner.testGroup("getHost(String)", () ->
+            {
+                final Action2<String,Throwable> getHostErrorTest = (String repository, Throwable expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(repository), (Test test) ->
+                    {
+                        test.assertThrows(() -> GitMultiRepositoryRunner.getHost(repository),
+                            expected);
+                    });
+                };
+
+                getHostErrorTest.run(null, new PreConditionFailure("repository cannot be null."));
+                getHostErrorTest.run("", new PreConditionFailure("repository cannot be empty."));
+
+                final Action2<String,String> getHostTest = (String repository, String expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(repository), (Test test) ->
+                    {
+                        test.assertEqual(expected, GitMultiRepositoryRunner.getHost(repository));
+                    });
+                };
+
+                getHostTest.run("https://github.com/github/choosealicense.com", "github.com");
+                getHostTest.run("https://GitHub.com/github/choosealicense.com.git", "github.com");
+                getHostTest.run("https://user@github.com/a/b", "github.com");
+                getHostTest.run("ssh://git@github.com:22/a/b.git", "github.com");
+                getHostTest.run("git://example.com", "example.com");
+                getHostTest.run("git@github.com:a/b.git", "github.com");
+                getHostTest.run("example.com:a/b", "example.com");
+                getHostTest.run("file:///repos/a", null);
+                getHostTest.run("/repos/a", null);
+                getHostTest.run("../a", null);
+                getHostTest.run("C:/repos/a", null);
+                getHostTest.run("./a:b", null);
+            });
+
+            runner.testGroup("getRemoteHost(Folder)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> GitMultiRepositoryRunner.getRemoteHost(null),
+                        new PreConditionFailure("repositoryFolder cannot be null."));
+                });
+
+                runner.test("with no config file", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final Folder repositoryFolder = fileSystem.createFolder("/repo/").await();
+                    test.assertNull(GitMultiRepositoryRunner.getRemoteHost(repositoryFolder));
+                });
+
+                final Action2<String,String> getRemoteHostTest = (String configText, String expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(configText), (Test test) ->
+                    {
+                        final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                        fileSystem.createRoot("/").await();
+                        final Folder repositoryFolder = fileSystem.createFolder("/repo/").await();
+                        repositoryFolder.createFile(".git/config").await()
+                            .setContentsAsString(configText).await();
+                        test.assertEqual(expected, GitMultiRepositoryRunner.getRemoteHost(repositoryFolder));
+                    });
+                };
+
+                getRemoteHostTest.run("", null);
+                getRemoteHostTest.run("[core]\n\tbare = false\n", null);
+                getRemoteHostTest.run("[remote \"upstream\"]\n\turl = https://gitlab.com/a/b\n", null);
+                getRemoteHostTest.run("[remote \"origin\"]\n\turl = https://github.com/a/b\n", "github.com");
+                getRemoteHostTest.run("[remote \"origin\"]\r\n\turl = git@github.com:a/b.git\r\n\tfetch = +refs/heads/*:refs/remotes/origin/*\r\n", "github.com");
+                getRemoteHostTest.run("[remote \"upstream\"]\n\turl = https://gitlab.com/a/b\n[remote \"origin\"]\n\turl = /local/repo\n", null);
+
+                runner.test("with bare repository", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final Folder repositoryFolder = fileSystem.createFolder("/repo.git/").await();
+                    repositoryFolder.createFolder("objects").await();
+                    repositoryFolder.createFile("HEAD").await().setContentsAsString("ref: refs/heads/main\n").await();
+                    repositoryFolder.createFile("config").await()
+                        .setContentsAsString("[remote \"origin\"]\n\turl = https://github.com/a/b\n").await();
+                    test.assertEqual("github.com", GitMultiRepositoryRunner.getRemoteHost(repositoryFolder));
+                });
+
+                runner.test("with submodule", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    fileSystem.createFile("/super/.git/modules/sub/config").await()
+                        .setContentsAsString("[remote \"origin\"]\n\turl = git@gitlab.com:a/sub.git\n").await();
+                    final Folder repositoryFolder = fileSystem.createFolder("/super/sub/").await();
+                    repositoryFolder.createFile(".git").await().setContentsAsString("gitdir: ../.git/modules/sub\n").await();
+                    test.assertEqual("gitlab.com", GitMultiRepositoryRunner.getRemoteHost(repositoryFolder));
+                });
+
+                runner.test("with linked worktree", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    fileSystem.createFile("/main/.git/config").await()
+                        .setContentsAsString("[remote \"origin\"]\n\turl = https://github.com/a/b\n").await();
+                    fileSystem.createFile("/main/.git/worktrees/feature/commondir").await().setContentsAsString("../..\n").await();
+                    final Folder repositoryFolder = fileSystem.createFolder("/feature/").await();
+                    repositoryFolder.createFile(".git").await().setContentsAsString("gitdir: /main/.git/worktrees/feature\n").await();
+                    test.assertEqual("github.com", GitMultiRepositoryRunner.getRemoteHost(repositoryFolder));
+                });
+            });
+        });
+    }
+}
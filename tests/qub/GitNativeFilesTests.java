@@ -0,0 +1,49 @@
+package qub;
+
+public interface GitNativeFilesTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(GitNativeFiles.class, () ->
+        {
+            runner.testGroup("isNative(FileSystem)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> GitNativeFiles.isNative(null),
+                        new PreConditionFailure("fileSystem cannot be null."));
+                });
+
+                runner.test("with InMemoryFileSystem", (Test test) ->
+                {
+                    test.assertFalse(GitNativeFiles.isNative(InMemoryFileSystem.create()));
+                });
+            });
+
+            runner.testGroup("getPath(FileSystemEntry)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> GitNativeFiles.getPath(null),
+                        new PreConditionFailure("entry cannot be null."));
+                });
+
+                runner.test("with InMemoryFileSystem file", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final File file = fileSystem.getFile("/data").await();
+                    test.assertNull(GitNativeFiles.getPath(file));
+                });
+
+                runner.test("with InMemoryFileSystem folder", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final Folder folder = fileSystem.getFolder("/folder/").await();
+                    test.assertNull(GitNativeFiles.getPath(folder));
+                });
+            });
+        });
+    }
+}
@@ -0,0 +1,617 @@
+package qub;
+
+public interface GitObjectDatabaseTests
+{
+    static Folder createRepositoryFolder()
+    {
+        final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+        fileSystem.createRoot("/").await();
+        final Folder repositoryFolder = fileSystem.createFolder("/repo/").await();
+        repositoryFolder.createFolder(".git/objects").await();
+        repositoryFolder.createFile(".git/HEAD").await().setContentsAsString("ref: refs/heads/main\n").await();
+        return repositoryFolder;
+    }
+
+    static byte[] createObjectBytes(GitObjectType objectType, byte[] contents)
+    {
+        final byte[] header = (objectType.getName() + " " + contents.length + "\0").getBytes(java.nio.charset.StandardCharsets.US_ASCII);
+        final byte[] result = new byte[header.length + contents.length];
+        System.arraycopy(header, 0, result, 0, header.length);
+        System.arraycopy(contents, 0, result, header.length, contents.length);
+        return result;
+    }
+
+    static GitObjectId getObjectId(GitObjectType objectType, byte[] contents)
+    {
+        try
+        {
+            final java.security.MessageDigest digest = java.security.MessageDigest.getInstance("SHA-1");
+            return GitObjectId.create(digest.digest(GitObjectDatabaseTests.createObjectBytes(objectType, contents)));
+        }
+        catch (java.security.NoSuchAlgorithmException e)
+        {
+            throw new RuntimeException(e);
+        }
+    }
+
+    static GitObjectId writeLooseObject(Folder objectsFolder, GitObjectType objectType, byte[] contents)
+    {
+        final GitObjectId objectId = GitObjectDatabaseTests.getObjectId(objectType, contents);
+        final String hexObjectId = objectId.toString();
+        objectsFolder.createFile(hexObjectId.substring(0, 2) + "/" + hexObjectId.substring(2)).await()
+            .setContents(GitInflaterPoolTests.deflate(GitObjectDatabaseTests.createObjectBytes(objectType, contents))).await();
+        return objectId;
+    }
+
+    static GitObjectId writeLooseObject(Folder objectsFolder, GitObjectType objectType, String contents)
+    {
+        return GitObjectDatabaseTests.writeLooseObject(objectsFolder, objectType, contents.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+    }
+
+    static byte[] createTreeContents(Iterable<GitTreeEntry> entries)
+    {
+        final java.io.ByteArrayOutputStream result = new java.io.ByteArrayOutputStream();
+        for (final GitTreeEntry entry : entries)
+        {
+            final byte[] modeAndName = (Integer.toOctalString(entry.getMode()) + " " + entry.getName().getText() + "\0").getBytes(java.nio.charset.StandardCharsets.UTF_8);
+            result.write(modeAndName, 0, modeAndName.length);
+            final byte[] objectIdBytes = entry.getObjectId().getBytes();
+            result.write(objectIdBytes, 0, objectIdBytes.length);
+        }
+        return result.toByteArray();
+    }
+
+    static GitByteSlice toSlice(String text)
+    {
+        final byte[] bytes = text.getBytes(java.nio.charset.StandardCharsets.UTF_8);
+        return GitByteSlice.create(bytes, 0, bytes.length);
+    }
+
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(GitObjectDatabase.class, () ->
+        {
+            runner.test("create(Folder) with null", (Test test) ->
+            {
+                test.assertThrows(() -> GitObjectDatabase.create(null),
+                    new PreConditionFailure("objectsFolder cannot be null."));
+            });
+
+            runner.test("create(Folder,int,GitDeltaBaseCache) with null delta base cache", (Test test) ->
+            {
+                final Folder objectsFolder = GitObjectDatabaseTests.createRepositoryFolder().getFolder(".git/objects").await();
+                test.assertThrows(() -> GitObjectDatabase.create(objectsFolder, GitObjectId.sha1Length, null),
+                    new PreConditionFailure("deltaBaseCache cannot be null."));
+            });
+
+            runner.testGroup("getPackIndexName(String)", () ->
+            {
+                final Action2<String,String> getPackIndexNameTest = (String packName, String expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(packName), (Test test) ->
+                    {
+                        test.assertEqual(expected, GitObjectDatabase.getPackIndexName(packName));
+                    });
+                };
+
+                getPackIndexNameTest.run("pack-1.idx", "pack-1.idx");
+                getPackIndexNameTest.run("pack-1.pack", "pack-1.idx");
+            });
+
+            runner.testGroup("open(Folder)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> GitObjectDatabase.open(null),
+                        new PreConditionFailure("repositoryFolder cannot be null."));
+                });
+
+                runner.test("with folder that isn't a repository", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final Folder folder = fileSystem.createFolder("/folder/").await();
+                    test.assertThrows(() -> GitObjectDatabase.open(folder).await(),
+                        new NotFoundException("Could not find a Git repository at \"/folder/\"."));
+                });
+
+                runner.test("with .git folder", (Test test) ->
+                {
+                    final Folder repositoryFolder = GitObjectDatabaseTests.createRepositoryFolder();
+                    final GitObjectDatabase objectDatabase = GitObjectDatabase.open(repositoryFolder).await();
+                    test.assertEqual(Path.parse("/repo/.git/objects"), objectDatabase.getObjectsFolder().getPath());
+                });
+
+                runner.test("with .git file", (Test test) ->
+                {
+                    final Folder repositoryFolder = GitObjectDatabaseTests.createRepositoryFolder();
+                    final Folder worktreeFolder = repositoryFolder.getFileSystem().createFolder("/worktree/").await();
+                    worktreeFolder.createFile(".git").await().setContentsAsString("gitdir: /repo/.git\n").await();
+                    final GitObjectDatabase objectDatabase = GitObjectDatabase.open(worktreeFolder).await();
+                    test.assertEqual(Path.parse("/repo/.git/objects"), objectDatabase.getObjectsFolder().getPath());
+                });
+
+                runner.test("with bare repository", (Test test) ->
+                {
+                    final Folder repositoryFolder = GitObjectDatabaseTests.createRepositoryFolder();
+                    final Folder bareFolder = repositoryFolder.getFolder(".git").await();
+                    final GitObjectDatabase objectDatabase = GitObjectDatabase.open(bareFolder).await();
+                    test.assertEqual(Path.parse("/repo/.git/objects"), objectDatabase.getObjectsFolder().getPath());
+                });
+            });
+
+            runner.testGroup("getObject(GitObjectId)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final GitObjectDatabase objectDatabase = GitObjectDatabase.open(GitObjectDatabaseTests.createRepositoryFolder()).await();
+                    test.assertThrows(() -> objectDatabase.getObject((GitObjectId)null),
+                        new PreConditionFailure("objectId cannot be null."));
+                });
+
+                runner.test("with missing object", (Test test) ->
+                {
+                    final GitObjectDatabase objectDatabase = GitObjectDatabase.open(GitObjectDatabaseTests.createRepositoryFolder()).await();
+                    final GitObjectId objectId = GitObjectId.parse("e69de29bb2d1d6434b8b29ae775ad8c2e48c5391").await();
+                    test.assertThrows(() -> objectDatabase.getObject(objectId).await(),
+                        new NotFoundException("Could not find the Git object e69de29bb2d1d6434b8b29ae775ad8c2e48c5391."));
+                    test.assertFalse(objectDatabase.containsObject(objectId).await());
+                });
+
+                runner.test("with missing object in partial clone", (Test test) ->
+                {
+                    final Folder repositoryFolder = GitObjectDatabaseTests.createRepositoryFolder();
+                    repositoryFolder.createFile(".git/objects/pack/pack-1234.promisor").await();
+                    final GitObjectDatabase objectDatabase = GitObjectDatabase.open(repositoryFolder).await();
+                    final GitObjectId objectId = GitObjectId.parse("e69de29bb2d1d6434b8b29ae775ad8c2e48c5391").await();
+                    test.assertThrows(() -> objectDatabase.getObject(objectId).await(),
+                        new NotFoundException("Could not find the Git object e69de29bb2d1d6434b8b29ae775ad8c2e48c5391. It may be an object that this partial clone hasn't fetched from its promisor remote yet."));
+                });
+
+                runner.test("with missing object in partial clone with promisor object fetcher", (Test test) ->
+                {
+                    final Folder repositoryFolder = GitObjectDatabaseTests.createRepositoryFolder();
+                    repositoryFolder.createFile(".git/objects/pack/pack-1234.promisor").await();
+                    final GitObjectDatabase objectDatabase = GitObjectDatabase.open(repositoryFolder).await();
+                    final GitObjectId objectId = GitObjectId.parse("e69de29bb2d1d6434b8b29ae775ad8c2e48c5391").await();
+                    final IntegerValue fetchCount = IntegerValue.create(0);
+                    objectDatabase.setPromisorObjectFetcher((GitObjectId fetchedObjectId) ->
+                    {
+                        fetchCount.increment();
+                        return GitObject.create(fetchedObjectId, GitObjectType.Blob, GitByteSlice.create(new byte[0], 0, 0));
+                    });
+
+                    test.assertFalse(objectDatabase.containsObject(objectId).await());
+                    test.assertEqual(0, fetchCount.get());
+
+                    final GitObject object = objectDatabase.getObject(objectId).await();
+                    test.assertEqual(objectId, object.getObjectId());
+                    test.assertEqual(GitObjectType.Blob, object.getObjectType());
+                    test.assertEqual(1, fetchCount.get());
+                });
+
+                runner.test("with missing object in partial clone with promisor object fetcher that returns null", (Test test) ->
+                {
+                    final Folder repositoryFolder = GitObjectDatabaseTests.createRepositoryFolder();
+                    repositoryFolder.createFile(".git/objects/pack/pack-1234.promisor").await();
+                    final GitObjectDatabase objectDatabase = GitObjectDatabase.open(repositoryFolder).await();
+                    objectDatabase.setPromisorObjectFetcher((GitObjectId fetchedObjectId) -> null);
+                    final GitObjectId objectId = GitObjectId.parse("e69de29bb2d1d6434b8b29ae775ad8c2e48c5391").await();
+                    test.assertThrows(() -> objectDatabase.getObject(objectId).await(),
+                        new NotFoundException("Could not find the Git object e69de29bb2d1d6434b8b29ae775ad8c2e48c5391. It may be an object that this partial clone hasn't fetched from its promisor remote yet."));
+                });
+
+                runner.test("with missing object and promisor object fetcher in full clone", (Test test) ->
+                {
+                    final GitObjectDatabase objectDatabase = GitObjectDatabase.open(GitObjectDatabaseTests.createRepositoryFolder()).await();
+                    final IntegerValue fetchCount = IntegerValue.create(0);
+                    objectDatabase.setPromisorObjectFetcher((GitObjectId fetchedObjectId) ->
+                    {
+                        fetchCount.increment();
+                        return null;
+                    });
+                    final GitObjectId objectId = GitObjectId.parse("e69de29bb2d1d6434b8b29ae775ad8c2e48c5391").await();
+                    test.assertThrows(() -> objectDatabase.getObject(objectId).await(),
+                        new NotFoundException("Could not find the Git object e69de29bb2d1d6434b8b29ae775ad8c2e48c5391."));
+                    test.assertEqual(0, fetchCount.get());
+                });
+
+                runner.test("with empty blob", (Test test) ->
+                {
+                    final GitObjectDatabase objectDatabase = GitObjectDatabase.open(GitObjectDatabaseTests.createRepositoryFolder()).await();
+                    final GitObjectId objectId = GitObjectDatabaseTests.writeLooseObject(objectDatabase.getObjectsFolder(), GitObjectType.Blob, "");
+                    test.assertEqual("e69de29bb2d1d6434b8b29ae775ad8c2e48c5391", objectId.toString());
+
+                    final GitObject object = objectDatabase.getObject(objectId).await();
+                    test.assertTrue(object instanceof GitBlob);
+                    test.assertEqual(objectId, object.getObjectId());
+                    test.assertEqual(GitObjectType.Blob, object.getObjectType());
+                    test.assertEqual(0L, object.getSize());
+                    test.assertTrue(objectDatabase.containsObject(objectId).await());
+                });
+
+                runner.test("with large blob", (Test test) ->
+                {
+                    final GitObjectDatabase objectDatabase = GitObjectDatabase.open(GitObjectDatabaseTests.createRepositoryFolder()).await();
+                    final byte[] contents = new byte[100000];
+                    for (int i = 0; i < contents.length; ++i)
+                    {
+                        contents[i] = (byte)(i % 251);
+                    }
+                    final GitObjectId objectId = GitObjectDatabaseTests.writeLooseObject(objectDatabase.getObjectsFolder(), GitObjectType.Blob, contents);
+
+                    final GitObject object = objectDatabase.getObject(objectId.toString()).await();
+                    test.assertEqual((long)contents.length, object.getSize());
+                    test.assertEqual(contents, object.getContents().getBytes());
+                });
+
+                runner.test("with commit", (Test test) ->
+                {
+                    final GitObjectDatabase objectDatabase = GitObjectDatabase.open(GitObjectDatabaseTests.createRepositoryFolder()).await();
+                    final String contents =
+                        "tree 4b825dc642cb6eb9a060e54bf8d69288fbee4904\n" +
+                        "parent e69de29bb2d1d6434b8b29ae775ad8c2e48c5391\n" +
+                        "author A U Thor <author@example.com> 1700000000 +0000\n" +
+                        "committer C O Mitter <committer@example.com> 1700000001 +0000\n" +
+                        "\n" +
+                        "Initial commit\n";
+                    final GitObjectId objectId = GitObjectDatabaseTests.writeLooseObject(objectDatabase.getObjectsFolder(), GitObjectType.Commit, contents);
+
+                    final GitCommit commit = (GitCommit)objectDatabase.getObject(objectId).await();
+                    test.assertEqual("4b825dc642cb6eb9a060e54bf8d69288fbee4904", commit.getTreeId().toString());
+                    test.assertEqual(Iterable.create("e69de29bb2d1d6434b8b29ae775ad8c2e48c5391"), commit.getParentIds().map(GitObjectId::toString));
+                    test.assertEqual("Initial commit\n", commit.getMessage().getText());
+                });
+
+                runner.test("with corrupt object", (Test test) ->
+                {
+                    final GitObjectDatabase objectDatabase = GitObjectDatabase.open(GitObjectDatabaseTests.createRepositoryFolder()).await();
+                    final GitObjectId objectId = GitObjectId.parse("e69de29bb2d1d6434b8b29ae775ad8c2e48c5391").await();
+                    objectDatabase.getObjectsFolder().createFile("e6/9de29bb2d1d6434b8b29ae775ad8c2e48c5391").await()
+                        .setContents(GitInflaterPoolTests.deflate("blob 5\0abc".getBytes(java.nio.charset.StandardCharsets.US_ASCII))).await();
+                    test.assertThrows(() -> objectDatabase.getObject(objectId).await(),
+                        new ParseException("Expected the loose object e69de29bb2d1d6434b8b29ae775ad8c2e48c5391 to contain 5 bytes, but found 3."));
+                });
+
+                runner.test("with object in alternate", (Test test) ->
+                {
+                    final Folder repositoryFolder = GitObjectDatabaseTests.createRepositoryFolder();
+                    final Folder alternateObjectsFolder = repositoryFolder.getFileSystem().createFolder("/reference/objects/").await();
+                    final GitObjectId objectId = GitObjectDatabaseTests.writeLooseObject(alternateObjectsFolder, GitObjectType.Blob, "shared");
+                    repositoryFolder.createFile(".git/objects/info/alternates").await()
+                        .setContentsAsString("# comment\n/reference/objects\n").await();
+
+                    final GitObjectDatabase objectDatabase = GitObjectDatabase.open(repositoryFolder).await();
+                    test.assertEqual(1, objectDatabase.getAlternates().await().getCount());
+                    test.assertEqual("shared", objectDatabase.getObject(objectId).await().getContents().getText());
+                });
+
+                runner.test("with packed objects", (Test test) ->
+                {
+                    final GitObjectDatabase objectDatabase = GitObjectDatabase.open(GitObjectDatabaseTests.createRepositoryFolder()).await();
+                    final byte[] base = GitPackFileTests.toBytes("packed base\n");
+                    final byte[] contents = GitPackFileTests.toBytes("packed base\npacked delta\n");
+                    final GitPackFileTests.PackBuilder builder = new GitPackFileTests.PackBuilder();
+                    final GitObjectId baseId = builder.addObject(GitObjectType.Blob, base);
+                    final GitObjectId objectId = builder.addOffsetDelta(baseId, GitObjectType.Blob, base, contents);
+                    builder.writeTo(objectDatabase.getObjectsFolder(), "pack-1");
+
+                    test.assertEqual(1, objectDatabase.getPacks().await().getCount());
+                    test.assertSame(objectDatabase.getDeltaBaseCache(), objectDatabase.getPacks().await().first().await().getDeltaBaseCache());
+                    test.assertEqual(base, objectDatabase.getObject(baseId).await().getContents().getBytes());
+                    test.assertEqual(contents, objectDatabase.getObject(objectId).await().getContents().getBytes());
+                    test.assertEqual(1, objectDatabase.getDeltaBaseCache().getCount());
+                    test.assertTrue(objectDatabase.containsObject(objectId).await());
+                });
+
+                runner.test("with multi-pack-index", (Test test) ->
+                {
+                    final GitObjectDatabase objectDatabase = GitObjectDatabase.open(GitObjectDatabaseTests.createRepositoryFolder()).await();
+                    final GitPackFileTests.PackBuilder pack1 = new GitPackFileTests.PackBuilder();
+                    final GitObjectId objectId1 = pack1.addObject(GitObjectType.Blob, "in pack 1");
+                    pack1.writeTo(objectDatabase.getObjectsFolder(), "pack-1");
+                    final GitPackFileTests.PackBuilder pack2 = new GitPackFileTests.PackBuilder();
+                    final GitObjectId objectId2 = pack2.addObject(GitObjectType.Blob, "in pack 2");
+                    pack2.writeTo(objectDatabase.getObjectsFolder(), "pack-2");
+                    final GitPackFileTests.PackBuilder pack3 = new GitPackFileTests.PackBuilder();
+                    final GitObjectId objectId3 = pack3.addObject(GitObjectType.Blob, "in pack 3");
+                    pack3.writeTo(objectDatabase.getObjectsFolder(), "pack-3");
+                    objectDatabase.getObjectsFolder().createFile("pack/multi-pack-index").await()
+                        .setContents(GitMultiPackIndexTests.createMultiPackIndex(
+                            new String[] { "pack-1.idx", "pack-2.pack" },
+                            new GitPackFileTests.PackBuilder[] { pack1, pack2 },
+                            false)).await();
+
+                    final GitMultiPackIndex multiPackIndex = objectDatabase.getMultiPackIndex().await();
+                    test.assertNotNull(multiPackIndex);
+                    test.assertEqual(2, multiPackIndex.getObjectCount());
+                    test.assertEqual("in pack 1", objectDatabase.getObject(objectId1).await().getContents().getText());
+                    test.assertEqual("in pack 2", objectDatabase.getObject(objectId2).await().getContents().getText());
+                    test.assertEqual("in pack 3", objectDatabase.getObject(objectId3).await().getContents().getText());
+                });
+
+                runner.test("with stale multi-pack-index", (Test test) ->
+                {
+                    final GitObjectDatabase objectDatabase = GitObjectDatabase.open(GitObjectDatabaseTests.createRepositoryFolder()).await();
+                    final GitPackFileTests.PackBuilder pack1 = new GitPackFileTests.PackBuilder();
+                    final GitObjectId objectId1 = pack1.addObject(GitObjectType.Blob, "in pack 1");
+                    pack1.writeTo(objectDatabase.getObjectsFolder(), "pack-1");
+                    final GitPackFileTests.PackBuilder removedPack = new GitPackFileTests.PackBuilder();
+                    removedPack.addObject(GitObjectType.Blob, "in removed pack");
+                    objectDatabase.getObjectsFolder().createFile("pack/multi-pack-index").await()
+                        .setContents(GitMultiPackIndexTests.createMultiPackIndex(
+                            new String[] { "pack-1.idx", "pack-removed.idx" },
+                            new GitPackFileTests.PackBuilder[] { pack1, removedPack },
+                            false)).await();
+
+                    test.assertNull(objectDatabase.getMultiPackIndex().await());
+                    test.assertEqual("in pack 1", objectDatabase.getObject(objectId1).await().getContents().getText());
+                });
+
+                runner.test("with corrupt multi-pack-index", (Test test) ->
+                {
+                    final GitObjectDatabase objectDatabase = GitObjectDatabase.open(GitObjectDatabaseTests.createRepositoryFolder()).await();
+                    final GitPackFileTests.PackBuilder pack1 = new GitPackFileTests.PackBuilder();
+                    final GitObjectId objectId1 = pack1.addObject(GitObjectType.Blob, "in pack 1");
+                    pack1.writeTo(objectDatabase.getObjectsFolder(), "pack-1");
+                    objectDatabase.getObjectsFolder().createFile("pack/multi-pack-index").await()
+                        .setContents(new byte[] { 'M', 'I', 'D', 'X' }).await();
+
+                    test.assertNull(objectDatabase.getMultiPackIndex().await());
+                    test.assertEqual("in pack 1", objectDatabase.getObject(objectId1).await().getContents().getText());
+                });
+
+                runner.test("with pack added after the first read", (Test test) ->
+                {
+                    final GitObjectDatabase objectDatabase = GitObjectDatabase.open(GitObjectDatabaseTests.createRepositoryFolder()).await();
+                    test.assertEqual(0, objectDatabase.getPacks().await().getCount());
+
+                    final GitPackFileTests.PackBuilder builder = new GitPackFileTests.PackBuilder();
+                    final GitObjectId objectId = builder.addObject(GitObjectType.Blob, "packed later");
+                    builder.writeTo(objectDatabase.getObjectsFolder(), "pack-2");
+
+                    test.assertEqual("packed later", objectDatabase.getObject(objectId).await().getContents().getText());
+                    test.assertEqual(1, objectDatabase.getPacks().await().getCount());
+                });
+
+                runner.test("with unchanged pack folder on the local disk",
+                    (TestResources resources) -> Tuple.create(resources.getTemporaryFolder()),
+                    (Test test, Folder tempFolder) ->
+                {
+                    final Folder objectsFolder = tempFolder.createFolder("objects").await();
+                    final GitPackFileTests.PackBuilder builder1 = new GitPackFileTests.PackBuilder();
+                    final GitObjectId objectId1 = builder1.addObject(GitObjectType.Blob, "in pack 1");
+                    builder1.writeTo(objectsFolder, "pack-1");
+                    final java.nio.file.Path packFolderPath = GitNativeFiles.getPath(objectsFolder.getFolder("pack").await());
+                    final java.nio.file.attribute.FileTime oldLastModified = java.nio.file.attribute.FileTime.fromMillis(System.currentTimeMillis() - 60000);
+                    try
+                    {
+                        java.nio.file.Files.setLastModifiedTime(packFolderPath, oldLastModified);
+                    }
+                    catch (java.io.IOException e)
+                    {
+                        throw new RuntimeException(e);
+                    }
+
+                    final GitObjectDatabase objectDatabase = GitObjectDatabase.create(objectsFolder);
+                    test.assertEqual("in pack 1", objectDatabase.getObject(objectId1).await().getContents().getText());
+
+                    // A pack file that is added without changing the pack folder's last
+                    // modified time isn't found by a miss.
+                    final GitPackFileTests.PackBuilder builder2 = new GitPackFileTests.PackBuilder();
+                    final GitObjectId objectId2 = builder2.addObject(GitObjectType.Blob, "in pack 2");
+                    builder2.writeTo(objectsFolder, "pack-2");
+                    try
+                    {
+                        java.nio.file.Files.setLastModifiedTime(packFolderPath, oldLastModified);
+                    }
+                    catch (java.io.IOException e)
+                    {
+                        throw new RuntimeException(e);
+                    }
+                    test.assertFalse(objectDatabase.containsObject(objectId2).await());
+                    test.assertEqual(1, objectDatabase.getPacks().await().getCount());
+
+                    test.assertTrue(objectDatabase.refresh().await());
+                    test.assertEqual("in pack 2", objectDatabase.getObject(objectId2).await().getContents().getText());
+                });
+            });
+
+            runner.testGroup("getObject(String)", () ->
+            {
+                runner.test("with abbreviated object id", (Test test) ->
+                {
+                    final GitObjectDatabase objectDatabase = GitObjectDatabase.open(GitObjectDatabaseTests.createRepositoryFolder()).await();
+                    test.assertThrows(() -> objectDatabase.getObject("e69de29").await(),
+                        new ParseException("Expected a 40 or 64 character hexadecimal Git object id, but found \"e69de29\"."));
+                });
+            });
+
+            runner.testGroup("refresh()", () ->
+            {
+                runner.test("with no changes", (Test test) ->
+                {
+                    final GitObjectDatabase objectDatabase = GitObjectDatabase.open(GitObjectDatabaseTests.createRepositoryFolder()).await();
+                    test.assertEqual(0, objectDatabase.getPacks().await().getCount());
+                    test.assertFalse(objectDatabase.refresh().await());
+                });
+
+                runner.test("with added and removed packs", (Test test) ->
+                {
+                    final GitObjectDatabase objectDatabase = GitObjectDatabase.open(GitObjectDatabaseTests.createRepositoryFolder()).await();
+                    final Folder objectsFolder = objectDatabase.getObjectsFolder();
+                    final GitPackFileTests.PackBuilder builder1 = new GitPackFileTests.PackBuilder();
+                    builder1.addObject(GitObjectType.Blob, GitPackFileTests.toBytes("first\n"));
+                    builder1.writeTo(objectsFolder, "pack-1");
+                    test.assertEqual(1, objectDatabase.getPacks().await().getCount());
+
+                    final GitPackFileTests.PackBuilder builder2 = new GitPackFileTests.PackBuilder();
+                    final GitObjectId objectId = builder2.addObject(GitObjectType.Blob, GitPackFileTests.toBytes("second\n"));
+                    builder2.writeTo(objectsFolder, "pack-2");
+                    objectsFolder.getFile("pack/pack-1.idx").await().delete().await();
+                    objectsFolder.getFile("pack/pack-1.pack").await().delete().await();
+
+                    test.assertTrue(objectDatabase.refresh().await());
+                    final Iterable<GitPackFile> packs = objectDatabase.getPacks().await();
+                    test.assertEqual(1, packs.getCount());
+                    test.assertEqual("pack-2.pack", packs.first().await().getPackFile().getName());
+                    test.assertTrue(objectDatabase.containsObject(objectId).await());
+                    test.assertFalse(objectDatabase.refresh().await());
+                });
+
+                runner.test("with removed pack that has cached delta bases", (Test test) ->
+                {
+                    final GitObjectDatabase objectDatabase = GitObjectDatabase.open(GitObjectDatabaseTests.createRepositoryFolder()).await();
+                    final Folder objectsFolder = objectDatabase.getObjectsFolder();
+                    final byte[] base1 = GitPackFileTests.toBytes("first base\n");
+                    final GitPackFileTests.PackBuilder builder1 = new GitPackFileTests.PackBuilder();
+                    final GitObjectId baseId1 = builder1.addObject(GitObjectType.Blob, base1);
+                    final GitObjectId objectId1 = builder1.addOffsetDelta(baseId1, GitObjectType.Blob, base1, GitPackFileTests.toBytes("first base\nfirst delta\n"));
+                    builder1.writeTo(objectsFolder, "pack-1");
+                    final byte[] base2 = GitPackFileTests.toBytes("second base\n");
+                    final GitPackFileTests.PackBuilder builder2 = new GitPackFileTests.PackBuilder();
+                    final GitObjectId baseId2 = builder2.addObject(GitObjectType.Blob, base2);
+                    final GitObjectId objectId2 = builder2.addOffsetDelta(baseId2, GitObjectType.Blob, base2, GitPackFileTests.toBytes("second base\nsecond delta\n"));
+                    builder2.writeTo(objectsFolder, "pack-2");
+
+                    objectDatabase.getObject(objectId1).await();
+                    objectDatabase.getObject(objectId2).await();
+                    final GitDeltaBaseCache deltaBaseCache = objectDatabase.getDeltaBaseCache();
+                    test.assertEqual(2, deltaBaseCache.getCount());
+                    test.assertEqual((long)(base1.length + base2.length), deltaBaseCache.getByteCount());
+
+                    objectsFolder.getFile("pack/pack-1.idx").await().delete().await();
+                    objectsFolder.getFile("pack/pack-1.pack").await().delete().await();
+
+                    test.assertTrue(objectDatabase.refresh().await());
+                    test.assertEqual(1, deltaBaseCache.getCount());
+                    test.assertEqual((long)base2.length, deltaBaseCache.getByteCount());
+                });
+            });
+
+            runner.testGroup("setPromisorObjectFetcher(Function1<GitObjectId,GitObject>)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final GitObjectDatabase objectDatabase = GitObjectDatabase.open(GitObjectDatabaseTests.createRepositoryFolder()).await();
+                    test.assertThrows(() -> objectDatabase.setPromisorObjectFetcher(null),
+                        new PreConditionFailure("promisorObjectFetcher cannot be null."));
+                    test.assertNull(objectDatabase.getPromisorObjectFetcher());
+                });
+
+                runner.test("with non-null", (Test test) ->
+                {
+                    final GitObjectDatabase objectDatabase = GitObjectDatabase.open(GitObjectDatabaseTests.createRepositoryFolder()).await();
+                    final Function1<GitObjectId,GitObject> promisorObjectFetcher = (GitObjectId objectId) -> null;
+                    test.assertSame(objectDatabase, objectDatabase.setPromisorObjectFetcher(promisorObjectFetcher));
+                    test.assertSame(promisorObjectFetcher, objectDatabase.getPromisorObjectFetcher());
+                });
+            });
+
+            runner.testGroup("isPartialClone()", () ->
+            {
+                runner.test("with no pack folder", (Test test) ->
+                {
+                    final GitObjectDatabase objectDatabase = GitObjectDatabase.open(GitObjectDatabaseTests.createRepositoryFolder()).await();
+                    test.assertFalse(objectDatabase.isPartialClone().await());
+                });
+
+                runner.test("with promisor pack", (Test test) ->
+                {
+                    final Folder repositoryFolder = GitObjectDatabaseTests.createRepositoryFolder();
+                    repositoryFolder.createFile(".git/objects/pack/pack-1234.promisor").await();
+                    final GitObjectDatabase objectDatabase = GitObjectDatabase.open(repositoryFolder).await();
+                    test.assertTrue(objectDatabase.isPartialClone().await());
+                });
+            });
+
+            runner.testGroup("getCommitGraph()", () ->
+            {
+                runner.test("with no commit-graph", (Test test) ->
+                {
+                    final GitObjectDatabase objectDatabase = GitObjectDatabase.open(GitObjectDatabaseTests.createRepositoryFolder()).await();
+                    test.assertNull(objectDatabase.getCommitGraph().await());
+                });
+
+                runner.test("with corrupt commit-graph", (Test test) ->
+                {
+                    final GitObjectDatabase objectDatabase = GitObjectDatabase.open(GitObjectDatabaseTests.createRepositoryFolder()).await();
+                    objectDatabase.getObjectsFolder().createFile("info/commit-graph").await()
+                        .setContents(new byte[] { 'C', 'G', 'P', 'H' }).await();
+                    test.assertNull(objectDatabase.getCommitGraph().await());
+                });
+
+                runner.test("with commit-graph", (Test test) ->
+                {
+                    final GitObjectDatabase objectDatabase = GitObjectDatabase.open(GitObjectDatabaseTests.createRepositoryFolder()).await();
+                    final GitCommitGraphTests.CommitGraphBuilder builder = new GitCommitGraphTests.CommitGraphBuilder();
+                    final GitObjectId root = builder.addCommit("root", 1000);
+                    builder.writeTo(objectDatabase.getObjectsFolder());
+
+                    final GitCommitGraph commitGraph = objectDatabase.getCommitGraph().await();
+                    test.assertNotNull(commitGraph);
+                    test.assertTrue(commitGraph.containsCommit(root));
+                    test.assertSame(commitGraph, objectDatabase.getCommitGraph().await());
+                });
+            });
+
+            runner.testGroup("getBitmapIndex()", () ->
+            {
+                runner.test("with no packs", (Test test) ->
+                {
+                    final GitObjectDatabase objectDatabase = GitObjectDatabase.open(GitObjectDatabaseTests.createRepositoryFolder()).await();
+                    test.assertNull(objectDatabase.getBitmapIndex().await());
+                });
+
+                runner.test("with pack without bitmap index", (Test test) ->
+                {
+                    final GitObjectDatabase objectDatabase = GitObjectDatabase.open(GitObjectDatabaseTests.createRepositoryFolder()).await();
+                    final GitPackFileTests.PackBuilder builder = new GitPackFileTests.PackBuilder();
+                    builder.addObject(GitObjectType.Blob, "hello");
+                    builder.writeTo(objectDatabase.getObjectsFolder(), "pack-1234");
+                    test.assertNull(objectDatabase.getBitmapIndex().await());
+                });
+
+                runner.test("with corrupt bitmap index", (Test test) ->
+                {
+                    final GitObjectDatabase objectDatabase = GitObjectDatabase.open(GitObjectDatabaseTests.createRepositoryFolder()).await();
+                    final GitPackFileTests.PackBuilder builder = new GitPackFileTests.PackBuilder();
+                    builder.addObject(GitObjectType.Blob, "hello");
+                    builder.writeTo(objectDatabase.getObjectsFolder(), "pack-1234");
+                    objectDatabase.getObjectsFolder().createFile("pack/pack-1234.bitmap").await()
+                        .setContents(new byte[] { 'B', 'I', 'T', 'M' }).await();
+                    test.assertNull(objectDatabase.getBitmapIndex().await());
+                });
+
+                runner.test("with bitmap index", (Test test) ->
+                {
+                    final GitReachableObjectsTests.TestRepository repository = new GitReachableObjectsTests.TestRepository(true);
+                    final GitObjectDatabase objectDatabase = repository.getObjectDatabase();
+                    final GitBitmapIndex bitmapIndex = objectDatabase.getBitmapIndex().await();
+                    test.assertNotNull(bitmapIndex);
+                    test.assertEqual(2, bitmapIndex.getBitmapCount());
+                    test.assertTrue(bitmapIndex.containsBitmap(repository.c2));
+                    test.assertSame(bitmapIndex, objectDatabase.getBitmapIndex().await());
+                });
+            });
+
+            runner.testGroup("getReachableObjects(Iterable<GitObjectId>)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final GitObjectDatabase objectDatabase = GitObjectDatabase.open(GitObjectDatabaseTests.createRepositoryFolder()).await();
+                    test.assertThrows(() -> objectDatabase.getReachableObjects(null),
+                        new PreConditionFailure("objectIds cannot be null."));
+                });
+
+                runner.test("with bitmap index", (Test test) ->
+                {
+                    final GitReachableObjectsTests.TestRepository repository = new GitReachableObjectsTests.TestRepository(true);
+                    final GitReachableObjects objects = repository.getObjectDatabase().getReachableObjects(Iterable.create(repository.c3)).await();
+                    test.assertEqual(11, objects.getCount());
+                    test.assertEqual(1, objects.getBitmapHitCount());
+                });
+            });
+        });
+    }
+}
@@ -0,0 +1,116 @@
+package qub;
+
+public interface GitObjectIdTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(GitObjectId.class, () ->
+        {
+            runner.testGroup("create(byte[])", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> GitObjectId.create(null),
+                        new PreConditionFailure("bytes cannot be null."));
+                });
+
+                runner.test("with wrong length", (Test test) ->
+                {
+                    test.assertThrows(() -> GitObjectId.create(new byte[19]),
+                        new PreConditionFailure("GitObjectId.isValidLength(length) cannot be false."));
+                });
+
+                runner.test("with SHA-1 length", (Test test) ->
+                {
+                    final byte[] bytes = new byte[20];
+                    bytes[0] = (byte)0xAB;
+                    final GitObjectId objectId = GitObjectId.create(bytes);
+                    test.assertEqual(20, objectId.getLength());
+                    test.assertEqual(0xAB, objectId.getFanoutIndex());
+                    test.assertEqual("ab00000000000000000000000000000000000000", objectId.toString());
+
+                    bytes[1] = 1;
+                    test.assertEqual((byte)0, objectId.getByte(1));
+                });
+
+                runner.test("with SHA-256 length", (Test test) ->
+                {
+                    final GitObjectId objectId = GitObjectId.create(new byte[32]);
+                    test.assertEqual(32, objectId.getLength());
+                    test.assertEqual(64, objectId.toString().length());
+                });
+            });
+
+            runner.testGroup("isObjectId(String)", () ->
+            {
+                final Action2<String,Boolean> isObjectIdTest = (String text, Boolean expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(text), (Test test) ->
+                    {
+                        test.assertEqual(expected, GitObjectId.isObjectId(text));
+                    });
+                };
+
+                isObjectIdTest.run(null, false);
+                isObjectIdTest.run("", false);
+                isObjectIdTest.run("HEAD", false);
+                isObjectIdTest.run("e69de29bb2d1d6434b8b29ae775ad8c2e48c5391", true);
+                isObjectIdTest.run("E69DE29BB2D1D6434B8B29AE775AD8C2E48C5391", true);
+                isObjectIdTest.run("e69de29bb2d1d6434b8b29ae775ad8c2e48c539", false);
+                isObjectIdTest.run("e69de29bb2d1d6434b8b29ae775ad8c2e48c539g", false);
+                isObjectIdTest.run("473a0f4c3be8a93681a267e3b1e9a7dcda1185436fe141f7749120a303721813", true);
+            });
+
+            runner.testGroup("parse(String)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> GitObjectId.parse(null),
+                        new PreConditionFailure("text cannot be null."));
+                });
+
+                runner.test("with abbreviated object id", (Test test) ->
+                {
+                    test.assertThrows(() -> GitObjectId.parse("e69de29").await(),
+                        new ParseException("Expected a 40 or 64 character hexadecimal Git object id, but found \"e69de29\"."));
+                });
+
+                runner.test("with upper-case object id", (Test test) ->
+                {
+                    final GitObjectId objectId = GitObjectId.parse("E69DE29BB2D1D6434B8B29AE775AD8C2E48C5391").await();
+                    test.assertEqual("e69de29bb2d1d6434b8b29ae775ad8c2e48c5391", objectId.toString());
+                    test.assertEqual(0xE6, objectId.getFanoutIndex());
+                });
+            });
+
+            runner.testGroup("compareTo(GitObjectId)", () ->
+            {
+                final Action3<String,String,Integer> compareToTest = (String lhs, String rhs, Integer expectedSign) ->
+                {
+                    runner.test("with " + English.andList(lhs, rhs), (Test test) ->
+                    {
+                        final GitObjectId lhsObjectId = GitObjectId.parse(lhs).await();
+                        final GitObjectId rhsObjectId = GitObjectId.parse(rhs).await();
+                        test.assertEqual(expectedSign.intValue(), Integer.signum(lhsObjectId.compareTo(rhsObjectId)));
+                        test.assertEqual(expectedSign.intValue(), Integer.signum(lhsObjectId.compareTo(rhsObjectId.getBytes(), 0)));
+                        test.assertEqual(expectedSign == 0, lhsObjectId.equals(rhsObjectId));
+                    });
+                };
+
+                compareToTest.run("0000000000000000000000000000000000000000", "0000000000000000000000000000000000000000", 0);
+                compareToTest.run("0000000000000000000000000000000000000000", "0000000000000000000000000000000000000001", -1);
+                compareToTest.run("ff00000000000000000000000000000000000000", "0100000000000000000000000000000000000000", 1);
+                compareToTest.run("7f00000000000000000000000000000000000000", "8000000000000000000000000000000000000000", -1);
+            });
+
+            runner.test("equals(Object)", (Test test) ->
+            {
+                final GitObjectId objectId = GitObjectId.parse("e69de29bb2d1d6434b8b29ae775ad8c2e48c5391").await();
+                test.assertTrue(objectId.equals((Object)GitObjectId.parse("e69de29bb2d1d6434b8b29ae775ad8c2e48c5391").await()));
+                test.assertEqual(objectId.hashCode(), GitObjectId.parse("e69de29bb2d1d6434b8b29ae775ad8c2e48c5391").await().hashCode());
+                test.assertFalse(objectId.equals((Object)"e69de29bb2d1d6434b8b29ae775ad8c2e48c5391"));
+                test.assertFalse(objectId.equals((Object)null));
+            });
+        });
+    }
+}
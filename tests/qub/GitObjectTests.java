@@ -0,0 +1,65 @@
+package qub;
+
+public interface GitObjectTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(GitObject.class, () ->
+        {
+            final GitObjectId objectId = GitObjectId.parse("e69de29bb2d1d6434b8b29ae775ad8c2e48c5391").await();
+
+            runner.testGroup("create(GitObjectId,GitObjectType,GitByteSlice)", () ->
+            {
+                runner.test("with null objectId", (Test test) ->
+                {
+                    test.assertThrows(() -> GitObject.create(null, GitObjectType.Blob, GitObjectDatabaseTests.toSlice("")),
+                        new PreConditionFailure("objectId cannot be null."));
+                });
+
+                runner.test("with null objectType", (Test test) ->
+                {
+                    test.assertThrows(() -> GitObject.create(objectId, null, GitObjectDatabaseTests.toSlice("")),
+                        new PreConditionFailure("objectType cannot be null."));
+                });
+
+                runner.test("with null contents", (Test test) ->
+                {
+                    test.assertThrows(() -> GitObject.create(objectId, GitObjectType.Blob, null),
+                        new PreConditionFailure("contents cannot be null."));
+                });
+
+                final Action2<GitObjectType,Class<? extends GitObject>> createTest = (GitObjectType objectType, Class<? extends GitObject> expectedType) ->
+                {
+                    runner.test("with " + objectType, (Test test) ->
+                    {
+                        final GitObject object = GitObject.create(objectId, objectType, GitObjectDatabaseTests.toSlice("abc"));
+                        test.assertEqual(expectedType, object.getClass());
+                        test.assertEqual(objectId, object.getObjectId());
+                        test.assertEqual(objectType, object.getObjectType());
+                        test.assertEqual(3L, object.getSize());
+                        test.assertEqual("abc", object.getContents().getText());
+                        test.assertEqual("e69de29bb2d1d6434b8b29ae775ad8c2e48c5391 " + objectType + " 3", object.toString());
+                    });
+                };
+
+                createTest.run(GitObjectType.Commit, GitCommit.class);
+                createTest.run(GitObjectType.Tree, GitTree.class);
+                createTest.run(GitObjectType.Blob, GitBlob.class);
+                createTest.run(GitObjectType.Tag, GitTag.class);
+            });
+
+            runner.test("toCatFileBatchEntry()", (Test test) ->
+            {
+                final byte[] bytes = "[hello]".getBytes(java.nio.charset.StandardCharsets.UTF_8);
+                final GitObject object = GitObject.create(objectId, GitObjectType.Blob, GitByteSlice.create(bytes, 1, 5));
+                final GitCatFileBatchEntry entry = object.toCatFileBatchEntry();
+                test.assertEqual("e69de29bb2d1d6434b8b29ae775ad8c2e48c5391", entry.getObjectName());
+                test.assertEqual(GitObjectType.Blob, entry.getObjectType());
+                test.assertEqual(5L, entry.getSize());
+                test.assertSame(bytes, entry.getOutput());
+                test.assertEqual(1, entry.getContentsStartIndex());
+                test.assertEqual("hello".getBytes(java.nio.charset.StandardCharsets.UTF_8), entry.getContents());
+            });
+        });
+    }
+}
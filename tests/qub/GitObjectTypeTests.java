@@ -0,0 +1,68 @@
+package qub;
+
+public interface GitObjectTypeTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(GitObjectType.class, () ->
+        {
+            runner.testGroup("parse(String)", () ->
+            {
+                final Action2<String,Throwable> parseErrorTest = (String name, Throwable expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(name), (Test test) ->
+                    {
+                        test.assertThrows(() -> GitObjectType.parse(name).await(),
+                            expected);
+                    });
+                };
+
+                parseErrorTest.run(null, new PreConditionFailure("name cannot be null."));
+                parseErrorTest.run("", new PreConditionFailure("name cannot be empty."));
+                parseErrorTest.run("Commit", new ParseException("Unrecognized Git object type: \"Commit\""));
+                parseErrorTest.run("spam", new ParseException("Unrecognized Git object type: \"spam\""));
+
+                final Action2<String,GitObjectType> parseTest = (String name, GitObjectType expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(name), (Test test) ->
+                    {
+                        final GitObjectType objectType = GitObjectType.parse(name).await();
+                        test.assertSame(expected, objectType);
+                        test.assertEqual(name, objectType.getName());
+                        test.assertEqual(name, objectType.toString());
+                    });
+                };
+
+                parseTest.run("commit", GitObjectType.Commit);
+                parseTest.run("tree", GitObjectType.Tree);
+                parseTest.run("blob", GitObjectType.Blob);
+                parseTest.run("tag", GitObjectType.Tag);
+            });
+
+            runner.testGroup("fromPackTypeNumber(int)", () ->
+            {
+                final Action2<Integer,GitObjectType> fromPackTypeNumberTest = (Integer packTypeNumber, GitObjectType expected) ->
+                {
+                    runner.test("with " + packTypeNumber, (Test test) ->
+                    {
+                        final GitObjectType objectType = GitObjectType.fromPackTypeNumber(packTypeNumber);
+                        test.assertSame(expected, objectType);
+                        if (objectType != null)
+                        {
+                            test.assertEqual(packTypeNumber.intValue(), objectType.getPackTypeNumber());
+                        }
+                    });
+                };
+
+                fromPackTypeNumberTest.run(0, null);
+                fromPackTypeNumberTest.run(1, GitObjectType.Commit);
+                fromPackTypeNumberTest.run(2, GitObjectType.Tree);
+                fromPackTypeNumberTest.run(3, GitObjectType.Blob);
+                fromPackTypeNumberTest.run(4, GitObjectType.Tag);
+                fromPackTypeNumberTest.run(5, null);
+                fromPackTypeNumberTest.run(6, null);
+                fromPackTypeNumberTest.run(7, null);
+            });
+        });
+    }
+}
@@ -0,0 +1,156 @@
+package qub;
+
+public interface GitOutputBufferTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(GitOutputBuffer.class, () ->
+        {
+            runner.test("create()", (Test test) ->
+            {
+                final GitOutputBuffer buffer = GitOutputBuffer.create();
+                test.assertNotNull(buffer);
+                test.assertEqual(0, buffer.getCount());
+                test.assertEqual(new byte[0], buffer.getBytes());
+                test.assertEqual("", buffer.getText());
+                test.assertEqual(Iterable.create(), buffer.getLines());
+            });
+
+            runner.testGroup("wrap(byte[])", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> GitOutputBuffer.wrap(null),
+                        new PreConditionFailure("bytes cannot be null."));
+                });
+
+                runner.test("with non-empty", (Test test) ->
+                {
+                    final byte[] bytes = new byte[] { 1, 2, 3 };
+                    final GitOutputBuffer buffer = GitOutputBuffer.wrap(bytes);
+                    test.assertEqual(3, buffer.getCount());
+                    test.assertSame(bytes, buffer.getByteArray());
+                    test.assertEqual(bytes, buffer.getBytes());
+                });
+            });
+
+            runner.test("acquire() and release()", (Test test) ->
+            {
+                final GitOutputBuffer buffer = GitOutputBuffer.acquire();
+                test.assertNotNull(buffer);
+                test.assertEqual(0, buffer.getCount());
+                buffer.write(new byte[] { 1, 2, 3 });
+                final int pooledCount = GitOutputBuffer.getPooledCount();
+
+                buffer.release();
+                test.assertEqual(0, buffer.getCount());
+                test.assertTrue(GitOutputBuffer.getPooledCount() <= pooledCount + 1);
+
+                buffer.release();
+                test.assertTrue(GitOutputBuffer.getPooledCount() <= pooledCount + 1);
+
+                final GitOutputBuffer buffer2 = GitOutputBuffer.acquire();
+                test.assertEqual(0, buffer2.getCount());
+                buffer2.release();
+            });
+
+            runner.test("release() on a buffer that wasn't acquired", (Test test) ->
+            {
+                final GitOutputBuffer buffer = GitOutputBuffer.create().write(new byte[] { 1 });
+                final int pooledCount = GitOutputBuffer.getPooledCount();
+                buffer.release();
+                test.assertEqual(0, buffer.getCount());
+                test.assertEqual(pooledCount, GitOutputBuffer.getPooledCount());
+            });
+
+            runner.testGroup("write(byte[],int,int)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final GitOutputBuffer buffer = GitOutputBuffer.create();
+                    test.assertThrows(() -> buffer.write(null, 0, 0),
+                        new PreConditionFailure("bytes cannot be null."));
+                });
+
+                runner.test("with more bytes than the initial capacity", (Test test) ->
+                {
+                    final GitOutputBuffer buffer = GitOutputBuffer.create();
+                    final byte[] bytes = new byte[10000];
+                    for (int i = 0; i < bytes.length; ++i)
+                    {
+                        bytes[i] = (byte)i;
+                    }
+                    final GitOutputBuffer writeResult = buffer.write(bytes, 0, 6000).write(bytes, 6000, 4000);
+                    test.assertSame(buffer, writeResult);
+                    test.assertEqual(10000, buffer.getCount());
+                    test.assertEqual(bytes, buffer.getBytes());
+                });
+            });
+
+            runner.testGroup("readFrom(ByteReadStream)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final GitOutputBuffer buffer = GitOutputBuffer.create();
+                    test.assertThrows(() -> buffer.readFrom(null),
+                        new PreConditionFailure("stream cannot be null."));
+                });
+
+                runner.test("with empty stream", (Test test) ->
+                {
+                    final GitOutputBuffer buffer = GitOutputBuffer.create();
+                    buffer.readFrom(InMemoryByteStream.create().endOfStream()).await();
+                    test.assertEqual(0, buffer.getCount());
+                });
+
+                runner.test("with more bytes than the initial capacity", (Test test) ->
+                {
+                    final GitOutputBuffer buffer = GitOutputBuffer.create();
+                    final byte[] bytes = new byte[20000];
+                    for (int i = 0; i < bytes.length; ++i)
+                    {
+                        bytes[i] = (byte)(i * 7);
+                    }
+                    buffer.readFrom(InMemoryByteStream.create(bytes).endOfStream()).await();
+                    test.assertEqual(bytes, buffer.getBytes());
+                });
+            });
+
+            runner.testGroup("getRecords(byte)", () ->
+            {
+                final Action2<String,Iterable<String>> getRecordsTest = (String text, Iterable<String> expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(text), (Test test) ->
+                    {
+                        final GitOutputBuffer buffer = GitOutputBuffer.wrap(text.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+                        test.assertEqual(expected, buffer.getRecords((byte)0).map(GitByteSlice::getText));
+                    });
+                };
+
+                getRecordsTest.run("", Iterable.create());
+                getRecordsTest.run("a", Iterable.create("a"));
+                getRecordsTest.run("a\0", Iterable.create("a"));
+                getRecordsTest.run("a\0\0b", Iterable.create("a", "", "b"));
+                getRecordsTest.run("a b\0c\nd\0", Iterable.create("a b", "c\nd"));
+            });
+
+            runner.testGroup("getLines()", () ->
+            {
+                final Action2<String,Iterable<String>> getLinesTest = (String text, Iterable<String> expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(text), (Test test) ->
+                    {
+                        final GitOutputBuffer buffer = GitOutputBuffer.create()
+                            .write(text.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+                        test.assertEqual(expected, buffer.getLines().map(GitByteSlice::getText));
+                    });
+                };
+
+                getLinesTest.run("", Iterable.create());
+                getLinesTest.run("git version 2.37.1\n", Iterable.create("git version 2.37.1"));
+                getLinesTest.run("a\r\nb\n\nc", Iterable.create("a", "b", "", "c"));
+                getLinesTest.run("\r\n", Iterable.create(""));
+            });
+        });
+    }
+}
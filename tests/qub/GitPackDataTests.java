@@ -0,0 +1,195 @@
+package qub;
+
+public interface GitPackDataTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(GitPackData.class, () ->
+        {
+            final byte[] bytes = new byte[] { 0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 20, 21, 22, 23 };
+
+            runner.testGroup("wrap(byte[],int)", () ->
+            {
+                runner.test("with null bytes", (Test test) ->
+                {
+                    test.assertThrows(() -> GitPackData.wrap(null, 10),
+                        new PreConditionFailure("bytes cannot be null."));
+                });
+
+                runner.test("with empty bytes", (Test test) ->
+                {
+                    final GitPackData data = GitPackData.wrap(new byte[0], 10);
+                    test.assertEqual(0L, data.getLength());
+                    test.assertThrows(() -> data.getByte(0),
+                        new GitException("Expected to read 1 bytes at position 0, but the data is only 0 bytes long."));
+                });
+            });
+
+            runner.testGroup("getByte(long)", () ->
+            {
+                runner.test("with every position", (Test test) ->
+                {
+                    final GitPackData data = GitPackData.wrap(bytes, 7);
+                    test.assertEqual(24L, data.getLength());
+                    for (int i = 0; i < bytes.length; ++i)
+                    {
+                        test.assertEqual(bytes[i], data.getByte(i));
+                    }
+                });
+
+                runner.test("with negative position", (Test test) ->
+                {
+                    final GitPackData data = GitPackData.wrap(bytes, 7);
+                    test.assertThrows(() -> data.getByte(-1),
+                        new GitException("Expected to read 1 bytes at position -1, but the data is only 24 bytes long."));
+                });
+            });
+
+            runner.testGroup("getInt(long)", () ->
+            {
+                runner.test("within a segment", (Test test) ->
+                {
+                    final GitPackData data = GitPackData.wrap(bytes, 7);
+                    test.assertEqual(0x00010203, data.getInt(0));
+                });
+
+                runner.test("across segments", (Test test) ->
+                {
+                    final GitPackData data = GitPackData.wrap(bytes, 7);
+                    test.assertEqual(0x05060708, data.getInt(5));
+                });
+
+                runner.test("past the end", (Test test) ->
+                {
+                    final GitPackData data = GitPackData.wrap(bytes, 7);
+                    test.assertThrows(() -> data.getInt(21),
+                        new GitException("Expected to read 4 bytes at position 21, but the data is only 24 bytes long."));
+                });
+            });
+
+            runner.test("getUnsignedInt(long)", (Test test) ->
+            {
+                final GitPackData data = GitPackData.wrap(new byte[] { (byte)0xFF, (byte)0xFE, (byte)0xFD, (byte)0xFC }, 3);
+                test.assertEqual(0xFFFEFDFCL, data.getUnsignedInt(0));
+                test.assertEqual(0xFFFEFDFC, data.getInt(0));
+            });
+
+            runner.test("getLong(long)", (Test test) ->
+            {
+                final GitPackData data = GitPackData.wrap(bytes, 7);
+                test.assertEqual(0x030405060708090AL, data.getLong(3));
+            });
+
+            runner.test("getBytes(long,byte[],int,int)", (Test test) ->
+            {
+                final GitPackData data = GitPackData.wrap(bytes, 7);
+                final byte[] output = new byte[17];
+                data.getBytes(4, output, 1, 16);
+                test.assertEqual(new byte[] { 0, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19 }, output);
+            });
+
+            runner.testGroup("compareObjectId(GitObjectId,long)", () ->
+            {
+                runner.test("within a segment", (Test test) ->
+                {
+                    final GitPackData data = GitPackData.wrap(bytes, 1024);
+                    final GitObjectId objectId = GitObjectId.create(bytes, 2, 20);
+                    test.assertEqual(0, data.compareObjectId(objectId, 2));
+                    test.assertGreaterThan(data.compareObjectId(objectId, 1), 0);
+                    test.assertLessThan(data.compareObjectId(objectId, 3), 0);
+                });
+
+                runner.test("across segments", (Test test) ->
+                {
+                    final GitPackData data = GitPackData.wrap(bytes, 7);
+                    final GitObjectId objectId = GitObjectId.create(bytes, 2, 20);
+                    test.assertEqual(objectId, data.getObjectId(2, 20));
+                    test.assertEqual(0, data.compareObjectId(objectId, 2));
+                    test.assertGreaterThan(data.compareObjectId(objectId, 1), 0);
+                    test.assertLessThan(data.compareObjectId(objectId, 3), 0);
+                });
+            });
+
+            runner.testGroup("inflate(long,byte[],int,int)", () ->
+            {
+                final byte[] contents = new byte[1000];
+                for (int i = 0; i < contents.length; ++i)
+                {
+                    contents[i] = (byte)(i % 7);
+                }
+                final byte[] compressed = GitInflaterPoolTests.deflate(contents);
+                final byte[] packBytes = new byte[compressed.length + 5];
+                System.arraycopy(compressed, 0, packBytes, 5, compressed.length);
+
+                runner.test("within a segment", (Test test) ->
+                {
+                    final GitPackData data = GitPackData.wrap(packBytes, GitPackData.defaultSegmentSize);
+                    final byte[] output = new byte[contents.length];
+                    test.assertEqual(contents.length, data.inflate(5, output, 0, output.length));
+                    test.assertEqual(contents, output);
+                });
+
+                runner.test("across segments", (Test test) ->
+                {
+                    final GitPackData data = GitPackData.wrap(packBytes, 3);
+                    final byte[] output = new byte[contents.length];
+                    test.assertEqual(contents.length, data.inflate(5, output, 0, output.length));
+                    test.assertEqual(contents, output);
+                });
+
+                runner.test("with fewer bytes than requested", (Test test) ->
+                {
+                    final GitPackData data = GitPackData.wrap(packBytes, 3);
+                    final byte[] output = new byte[contents.length + 10];
+                    test.assertEqual(contents.length, data.inflate(5, output, 0, output.length));
+                });
+
+                runner.test("with truncated input", (Test test) ->
+                {
+                    final GitPackData data = GitPackData.wrap(java.util.Arrays.copyOf(packBytes, packBytes.length / 2), 3);
+                    final byte[] output = new byte[contents.length];
+                    test.assertThrows(() -> data.inflate(5, output, 0, output.length),
+                        new GitException("Invalid compressed Git object data: Unexpected end of zlib input."));
+                });
+            });
+
+            runner.testGroup("open(File)", () ->
+            {
+                runner.test("with in-memory file", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final File file = fileSystem.createFile("/data").await();
+                    file.setContents(bytes).await();
+
+                    final GitPackData data = GitPackData.open(file).await();
+                    test.assertEqual(24L, data.getLength());
+                    test.assertEqual(0x14151617, data.getInt(20));
+                });
+
+                runner.test("with mapped file", (Test test) ->
+                {
+                    try
+                    {
+                        final java.nio.file.Path path = java.nio.file.Files.createTempFile("GitPackDataTests", ".pack");
+                        try
+                        {
+                            java.nio.file.Files.write(path, bytes);
+                            final GitPackData data = GitPackData.map(path, 7);
+                            test.assertEqual(24L, data.getLength());
+                            test.assertEqual(0x05060708, data.getInt(5));
+                        }
+                        finally
+                        {
+                            java.nio.file.Files.deleteIfExists(path);
+                        }
+                    }
+                    catch (java.io.IOException e)
+                    {
+                        test.fail(e.getMessage());
+                    }
+                });
+            });
+        });
+    }
+}
@@ -0,0 +1,472 @@
+package qub;
+
+public interface GitPackFileTests
+{
+    /**
+     * Builds the bytes of a pack file and its version 2 index for tests.
+     */
+    class PackBuilder
+    {
+        private final java.io.ByteArrayOutputStream pack;
+        private final java.util.TreeMap<GitObjectId,Long> offsets;
+        private boolean largeOffsets;
+
+        public PackBuilder()
+        {
+            this.pack = new java.io.ByteArrayOutputStream();
+            this.offsets = new java.util.TreeMap<>();
+            this.writeBytes(new byte[] { 'P', 'A', 'C', 'K', 0, 0, 0, 2, 0, 0, 0, 0 });
+        }
+
+        /**
+         * Store every offset in the index's large offset table.
+         * @return This object for method chaining.
+         */
+        public PackBuilder setLargeOffsets()
+        {
+            this.largeOffsets = true;
+            return this;
+        }
+
+        private void writeBytes(byte[] bytes)
+        {
+            this.pack.write(bytes, 0, bytes.length);
+        }
+
+        private long writeEntryHeader(int typeNumber, long size)
+        {
+            final long offset = this.pack.size();
+            int currentByte = (typeNumber << 4) | (int)(size & 0xF);
+            long remainingSize = size >>> 4;
+            while (remainingSize != 0)
+            {
+                this.pack.write(currentByte | 0x80);
+                currentByte = (int)(remainingSize & 0x7F);
+                remainingSize >>>= 7;
+            }
+            this.pack.write(currentByte);
+            return offset;
+        }
+
+        public GitObjectId addObject(GitObjectType objectType, byte[] contents)
+        {
+            final GitObjectId objectId = GitObjectDatabaseTests.getObjectId(objectType, contents);
+            final long offset = this.writeEntryHeader(objectType.getPackTypeNumber(), contents.length);
+            this.writeBytes(GitInflaterPoolTests.deflate(contents));
+            this.offsets.put(objectId, offset);
+            return objectId;
+        }
+
+        public GitObjectId addObject(GitObjectType objectType, String contents)
+        {
+            return this.addObject(objectType, contents.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+        }
+
+        public GitObjectId addOffsetDelta(GitObjectId baseObjectId, GitObjectType objectType, byte[] base, byte[] contents)
+        {
+            final GitObjectId objectId = GitObjectDatabaseTests.getObjectId(objectType, contents);
+            final byte[] delta = GitPackFileTests.createDelta(base, contents);
+            final long offset = this.writeEntryHeader(GitPackFile.offsetDeltaTypeNumber, delta.length);
+
+            long distance = offset - this.offsets.get(baseObjectId);
+            final java.util.ArrayList<Integer> distanceBytes = new java.util.ArrayList<>();
+            distanceBytes.add((int)(distance & 0x7F));
+            distance >>>= 7;
+            while (distance != 0)
+            {
+                --distance;
+                distanceBytes.add(0, (int)(0x80 | (distance & 0x7F)));
+                distance >>>= 7;
+            }
+            for (final int distanceByte : distanceBytes)
+            {
+                this.pack.write(distanceByte);
+            }
+
+            this.writeBytes(GitInflaterPoolTests.deflate(delta));
+            this.offsets.put(objectId, offset);
+            return objectId;
+        }
+
+        public GitObjectId addReferenceDelta(GitObjectId baseObjectId, GitObjectType objectType, byte[] base, byte[] contents)
+        {
+            final GitObjectId objectId = GitObjectDatabaseTests.getObjectId(objectType, contents);
+            final byte[] delta = GitPackFileTests.createDelta(base, contents);
+            final long offset = this.writeEntryHeader(GitPackFile.referenceDeltaTypeNumber, delta.length);
+            this.writeBytes(baseObjectId.getBytes());
+            this.writeBytes(GitInflaterPoolTests.deflate(delta));
+            this.offsets.put(objectId, offset);
+            return objectId;
+        }
+
+        public int getObjectCount()
+        {
+            return this.offsets.size();
+        }
+
+        public java.util.SortedMap<GitObjectId,Long> getOffsets()
+        {
+            return this.offsets;
+        }
+
+        public byte[] getPackBytes()
+        {
+            final byte[] result = this.pack.toByteArray();
+            final int objectCount = this.offsets.size();
+            result[8] = (byte)(objectCount >>> 24);
+            result[9] = (byte)(objectCount >>> 16);
+            result[10] = (byte)(objectCount >>> 8);
+            result[11] = (byte)objectCount;
+
+            final byte[] checksum = GitPackFileTests.sha1(result);
+            final byte[] resultWithChecksum = java.util.Arrays.copyOf(result, result.length + checksum.length);
+            System.arraycopy(checksum, 0, resultWithChecksum, result.length, checksum.length);
+            return resultWithChecksum;
+        }
+
+        public byte[] getIndexBytes()
+        {
+            final java.nio.ByteBuffer index = java.nio.ByteBuffer.allocate(8 + 1024 + (this.offsets.size() * (20 + 4 + 4 + 8)) + 40);
+            index.putInt(0xFF744F63);
+            index.putInt(2);
+
+            final int[] fanout = new int[256];
+            for (final GitObjectId objectId : this.offsets.keySet())
+            {
+                for (int i = objectId.getFanoutIndex(); i < 256; ++i)
+                {
+                    ++fanout[i];
+                }
+            }
+            for (final int count : fanout)
+            {
+                index.putInt(count);
+            }
+
+            for (final GitObjectId objectId : this.offsets.keySet())
+            {
+                index.put(objectId.getBytes());
+            }
+            for (int i = 0; i < this.offsets.size(); ++i)
+            {
+                index.putInt(0);
+            }
+            int largeOffsetIndex = 0;
+            for (final long offset : this.offsets.values())
+            {
+                index.putInt(this.largeOffsets ? 0x80000000 | largeOffsetIndex++ : (int)offset);
+            }
+            if (this.largeOffsets)
+            {
+                for (final long offset : this.offsets.values())
+                {
+                    index.putLong(offset);
+                }
+            }
+
+            final byte[] packBytes = this.getPackBytes();
+            index.put(packBytes, packBytes.length - 20, 20);
+            index.put(new byte[20]);
+            return java.util.Arrays.copyOf(index.array(), index.position());
+        }
+
+        public GitPackFile build(int segmentSize)
+        {
+            final GitPackIndex index = GitPackIndex.parse(GitPackData.wrap(this.getIndexBytes(), segmentSize), GitObjectId.sha1Length).await();
+            return GitPackFile.create(null, index, GitPackData.wrap(this.getPackBytes(), segmentSize)).await();
+        }
+
+        public GitPackFile build()
+        {
+            return this.build(GitPackData.defaultSegmentSize);
+        }
+
+        public void writeTo(Folder objectsFolder, String packName)
+        {
+            objectsFolder.createFile("pack/" + packName + ".pack").await().setContents(this.getPackBytes()).await();
+            objectsFolder.createFile("pack/" + packName + ".idx").await().setContents(this.getIndexBytes()).await();
+        }
+    }
+
+    static byte[] sha1(byte[] bytes)
+    {
+        try
+        {
+            return java.security.MessageDigest.getInstance("SHA-1").digest(bytes);
+        }
+        catch (java.security.NoSuchAlgorithmException e)
+        {
+            throw new RuntimeException(e);
+        }
+    }
+
+    static void writeDeltaSize(java.io.ByteArrayOutputStream output, long size)
+    {
+        long remainingSize = size;
+        do
+        {
+            int currentByte = (int)(remainingSize & 0x7F);
+            remainingSize >>>= 7;
+            if (remainingSize != 0)
+            {
+                currentByte |= 0x80;
+            }
+            output.write(currentByte);
+        }
+        while (remainingSize != 0);
+    }
+
+    /**
+     * Create a delta that copies the prefix that the base and the result share and inserts the
+     * rest of the result.
+     * @param base The base contents.
+     * @param result The result contents.
+     * @return The delta.
+     */
+    static byte[] createDelta(byte[] base, byte[] result)
+    {
+        final java.io.ByteArrayOutputStream delta = new java.io.ByteArrayOutputStream();
+        GitPackFileTests.writeDeltaSize(delta, base.length);
+        GitPackFileTests.writeDeltaSize(delta, result.length);
+
+        int commonLength = 0;
+        while (commonLength < base.length && commonLength < result.length && commonLength < 0xFFFFFF && base[commonLength] == result[commonLength])
+        {
+            ++commonLength;
+        }
+        if (commonLength > 0)
+        {
+            // Copy from offset 0 (no offset bytes) with a three-byte size.
+            delta.write(0x80 | 0x10 | 0x20 | 0x40);
+            delta.write(commonLength & 0xFF);
+            delta.write((commonLength >>> 8) & 0xFF);
+            delta.write((commonLength >>> 16) & 0xFF);
+        }
+        int index = commonLength;
+        while (index < result.length)
+        {
+            final int insertLength = Math.min(127, result.length - index);
+            delta.write(insertLength);
+            delta.write(result, index, insertLength);
+            index += insertLength;
+        }
+        return delta.toByteArray();
+    }
+
+    static byte[] toBytes(String text)
+    {
+        return text.getBytes(java.nio.charset.StandardCharsets.UTF_8);
+    }
+
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(GitPackFile.class, () ->
+        {
+            runner.testGroup("create(File,GitPackIndex,GitPackData)", () ->
+            {
+                runner.test("with bad signature", (Test test) ->
+                {
+                    final PackBuilder builder = new PackBuilder();
+                    final GitPackIndex index = GitPackIndex.parse(GitPackData.wrap(builder.getIndexBytes(), 1024), 20).await();
+                    final byte[] packBytes = builder.getPackBytes();
+                    packBytes[0] = 'X';
+                    test.assertThrows(() -> GitPackFile.create(null, index, GitPackData.wrap(packBytes, 1024)).await(),
+                        new ParseException("Expected the pack file to start with \"PACK\"."));
+                });
+
+                runner.test("with object count that doesn't match the index", (Test test) ->
+                {
+                    final PackBuilder builder = new PackBuilder();
+                    builder.addObject(GitObjectType.Blob, "a");
+                    final GitPackIndex index = GitPackIndex.parse(GitPackData.wrap(builder.getIndexBytes(), 1024), 20).await();
+                    final byte[] packBytes = new PackBuilder().getPackBytes();
+                    test.assertThrows(() -> GitPackFile.create(null, index, GitPackData.wrap(packBytes, 1024)).await(),
+                        new ParseException("Expected the pack file to contain 1 objects like its index, but found 0."));
+                });
+            });
+
+            runner.testGroup("getObject(GitObjectId)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final GitPackFile pack = new PackBuilder().build();
+                    test.assertThrows(() -> pack.getObject(null),
+                        new PreConditionFailure("objectId cannot be null."));
+                });
+
+                runner.test("with missing object", (Test test) ->
+                {
+                    final PackBuilder builder = new PackBuilder();
+                    builder.addObject(GitObjectType.Blob, "a");
+                    final GitPackFile pack = builder.build();
+                    final GitObjectId objectId = GitObjectId.parse("e69de29bb2d1d6434b8b29ae775ad8c2e48c5391").await();
+                    test.assertFalse(pack.containsObject(objectId));
+                    test.assertNull(pack.getObject(objectId).await());
+                });
+
+                runner.test("with undeltified objects", (Test test) ->
+                {
+                    final PackBuilder builder = new PackBuilder();
+                    final GitObjectId blobId = builder.addObject(GitObjectType.Blob, "hello\n");
+                    final GitObjectId commitId = builder.addObject(GitObjectType.Commit, "tree 4b825dc642cb6eb9a060e54bf8d69288fbee4904\n\nmessage\n");
+                    final GitPackFile pack = builder.build();
+
+                    final GitObject blob = pack.getObject(blobId).await();
+                    test.assertEqual(GitObjectType.Blob, blob.getObjectType());
+                    test.assertEqual("hello\n", blob.getContents().getText());
+
+                    final GitCommit commit = (GitCommit)pack.getObject(commitId).await();
+                    test.assertEqual("4b825dc642cb6eb9a060e54bf8d69288fbee4904", commit.getTreeId().toString());
+                });
+
+                runner.test("with large object", (Test test) ->
+                {
+                    final byte[] contents = new byte[200000];
+                    for (int i = 0; i < contents.length; ++i)
+                    {
+                        contents[i] = (byte)(i * 31);
+                    }
+                    final PackBuilder builder = new PackBuilder();
+                    final GitObjectId objectId = builder.addObject(GitObjectType.Blob, contents);
+                    final GitPackFile pack = builder.build();
+                    test.assertEqual(contents, pack.getObject(objectId).await().getContents().getBytes());
+                });
+
+                runner.test("with OFS_DELTA chain", (Test test) ->
+                {
+                    final byte[] version1 = GitPackFileTests.toBytes("line 1\nline 2\n");
+                    final byte[] version2 = GitPackFileTests.toBytes("line 1\nline 2\nline 3\n");
+                    final byte[] version3 = GitPackFileTests.toBytes("line 1\nline 2\nline 3\nline 4\n");
+                    final PackBuilder builder = new PackBuilder();
+                    final GitObjectId version1Id = builder.addObject(GitObjectType.Blob, version1);
+                    final GitObjectId version2Id = builder.addOffsetDelta(version1Id, GitObjectType.Blob, version1, version2);
+                    final GitObjectId version3Id = builder.addOffsetDelta(version2Id, GitObjectType.Blob, version2, version3);
+                    final GitPackFile pack = builder.build();
+
+                    test.assertEqual(version1, pack.getObject(version1Id).await().getContents().getBytes());
+                    test.assertEqual(version2, pack.getObject(version2Id).await().getContents().getBytes());
+                    final GitObject object3 = pack.getObject(version3Id).await();
+                    test.assertEqual(GitObjectType.Blob, object3.getObjectType());
+                    test.assertEqual(version3Id, object3.getObjectId());
+                    test.assertEqual(version3, object3.getContents().getBytes());
+                });
+
+                runner.test("with OFS_DELTA chain and delta base cache", (Test test) ->
+                {
+                    final byte[] version1 = GitPackFileTests.toBytes("line 1\n");
+                    final byte[] version2 = GitPackFileTests.toBytes("line 1\nline 2\n");
+                    final byte[] version3 = GitPackFileTests.toBytes("line 1\nline 2\nline 3\n");
+                    final PackBuilder builder = new PackBuilder();
+                    final GitObjectId version1Id = builder.addObject(GitObjectType.Blob, version1);
+                    final GitObjectId version2Id = builder.addOffsetDelta(version1Id, GitObjectType.Blob, version1, version2);
+                    final GitObjectId version3Id = builder.addOffsetDelta(version2Id, GitObjectType.Blob, version2, version3);
+                    final GitDeltaBaseCache cache = GitDeltaBaseCache.create(1000, 2);
+                    final GitPackFile pack = builder.build().setDeltaBaseCache(cache);
+                    test.assertSame(cache, pack.getDeltaBaseCache());
+
+                    test.assertEqual(version3, pack.getObject(version3Id).await().getContents().getBytes());
+                    test.assertEqual(0L, cache.getHitCount());
+                    test.assertEqual(3L, cache.getMissCount());
+                    test.assertEqual(2, cache.getCount());
+                    test.assertEqual((long)(version1.length + version2.length), cache.getByteCount());
+
+                    test.assertEqual(version3, pack.getObject(version3Id).await().getContents().getBytes());
+                    test.assertEqual(1L, cache.getHitCount());
+
+                    test.assertEqual(version2, pack.getObject(version2Id).await().getContents().getBytes());
+                    test.assertEqual(2L, cache.getHitCount());
+                });
+
+                runner.test("with REF_DELTA in the same pack", (Test test) ->
+                {
+                    final byte[] base = GitPackFileTests.toBytes("base contents\n");
+                    final byte[] contents = GitPackFileTests.toBytes("base contents\nand more\n");
+                    final PackBuilder builder = new PackBuilder();
+                    final GitObjectId baseId = builder.addObject(GitObjectType.Blob, base);
+                    final GitObjectId objectId = builder.addReferenceDelta(baseId, GitObjectType.Blob, base, contents);
+                    final GitPackFile pack = builder.build();
+                    test.assertEqual(contents, pack.getObject(objectId).await().getContents().getBytes());
+                });
+
+                runner.test("with REF_DELTA base in another pack", (Test test) ->
+                {
+                    final byte[] base = GitPackFileTests.toBytes("base contents\n");
+                    final byte[] contents = GitPackFileTests.toBytes("base contents\nand more\n");
+                    final PackBuilder basePackBuilder = new PackBuilder();
+                    final GitObjectId baseId = basePackBuilder.addObject(GitObjectType.Blob, base);
+                    final GitPackFile basePack = basePackBuilder.build();
+
+                    final PackBuilder builder = new PackBuilder();
+                    final GitObjectId objectId = builder.addReferenceDelta(baseId, GitObjectType.Blob, base, contents);
+                    final GitPackFile pack = builder.build();
+                    test.assertThrows(() -> pack.getObject(objectId).await(),
+                        new NotFoundException("Could not find the Git object " + baseId + " that is the base of the REF_DELTA entry at offset 12."));
+
+                    pack.setExternalBaseResolver((GitObjectId baseObjectId) -> basePack.getObject(baseObjectId).await());
+                    test.assertEqual(contents, pack.getObject(objectId).await().getContents().getBytes());
+                });
+
+                runner.test("with small segments", (Test test) ->
+                {
+                    final byte[] version1 = new byte[5000];
+                    for (int i = 0; i < version1.length; ++i)
+                    {
+                        version1[i] = (byte)(i % 13);
+                    }
+                    final byte[] version2 = java.util.Arrays.copyOf(version1, 6000);
+                    final PackBuilder builder = new PackBuilder();
+                    final GitObjectId version1Id = builder.addObject(GitObjectType.Blob, version1);
+                    final GitObjectId version2Id = builder.addOffsetDelta(version1Id, GitObjectType.Blob, version1, version2);
+                    for (int i = 0; i < 50; ++i)
+                    {
+                        builder.addObject(GitObjectType.Blob, "blob " + i);
+                    }
+                    final GitPackFile pack = builder.build(7);
+
+                    test.assertEqual(version1, pack.getObject(version1Id).await().getContents().getBytes());
+                    test.assertEqual(version2, pack.getObject(version2Id).await().getContents().getBytes());
+                    test.assertEqual("blob 42", pack.getObject(GitObjectDatabaseTests.getObjectId(GitObjectType.Blob, GitPackFileTests.toBytes("blob 42"))).await().getContents().getText());
+                });
+            });
+
+            runner.testGroup("applyDelta(byte[],byte[],long)", () ->
+            {
+                final Action3<byte[],byte[],Throwable> applyDeltaErrorTest = (byte[] base, byte[] delta, Throwable expected) ->
+                {
+                    runner.test("with " + java.util.Arrays.toString(delta), (Test test) ->
+                    {
+                        test.assertThrows(() -> GitPackFile.applyDelta(base, delta, 100), expected);
+                    });
+                };
+
+                applyDeltaErrorTest.run(new byte[3], new byte[] { 2, 0 },
+                    new ParseException("Expected the base of the delta at offset 100 to contain 2 bytes, but found 3."));
+                applyDeltaErrorTest.run(new byte[3], new byte[] { 3 },
+                    new ParseException("Unexpected end of the delta at offset 100."));
+                applyDeltaErrorTest.run(new byte[3], new byte[] { 3, 1, 0 },
+                    new ParseException("The delta at offset 100 contains the reserved instruction 0."));
+                applyDeltaErrorTest.run(new byte[3], new byte[] { 3, 4, (byte)0x91, 1, 3 },
+                    new ParseException("The delta at offset 100 copies outside of its base or result."));
+                applyDeltaErrorTest.run(new byte[3], new byte[] { 3, 2, 5, 1, 2 },
+                    new ParseException("The delta at offset 100 inserts more bytes than it contains."));
+                applyDeltaErrorTest.run(new byte[3], new byte[] { 3, 2, 1, 1 },
+                    new ParseException("Expected the delta at offset 100 to produce 2 bytes, but it produced 1."));
+
+                runner.test("with copy and insert instructions", (Test test) ->
+                {
+                    final byte[] base = GitPackFileTests.toBytes("0123456789");
+                    final byte[] delta = new byte[] { 10, 7, (byte)0x91, 5, 3, 2, 'a', 'b', (byte)0x90, 2 };
+                    test.assertEqual(GitPackFileTests.toBytes("567ab01"), GitPackFile.applyDelta(base, delta, 0));
+                });
+
+                runner.test("with copy size of zero", (Test test) ->
+                {
+                    final byte[] base = new byte[0x10000];
+                    base[0xFFFF] = 1;
+                    final byte[] delta = new byte[] { (byte)0x80, (byte)0x80, 4, (byte)0x80, (byte)0x80, 4, (byte)0x80 };
+                    test.assertEqual(base, GitPackFile.applyDelta(base, delta, 0));
+                });
+            });
+        });
+    }
+}
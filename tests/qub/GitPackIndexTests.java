@@ -0,0 +1,146 @@
+package qub;
+
+public interface GitPackIndexTests
+{
+    static GitPackIndex parse(byte[] bytes)
+    {
+        return GitPackIndex.parse(GitPackData.wrap(bytes, GitPackData.defaultSegmentSize), GitObjectId.sha1Length).await();
+    }
+
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(GitPackIndex.class, () ->
+        {
+            runner.testGroup("parse(GitPackData,int)", () ->
+            {
+                runner.test("with null data", (Test test) ->
+                {
+                    test.assertThrows(() -> GitPackIndex.parse(null, 20),
+                        new PreConditionFailure("data cannot be null."));
+                });
+
+                runner.test("with too few bytes", (Test test) ->
+                {
+                    test.assertThrows(() -> GitPackIndexTests.parse(new byte[10]),
+                        new ParseException("Expected a pack index to contain at least 1072 bytes, but found 10."));
+                });
+
+                runner.test("with version 1 index", (Test test) ->
+                {
+                    test.assertThrows(() -> GitPackIndexTests.parse(new byte[1072]),
+                        new ParseException("Unsupported pack index format. Only version 2 pack indexes are supported."));
+                });
+
+                runner.test("with unsupported version", (Test test) ->
+                {
+                    final byte[] bytes = new GitPackFileTests.PackBuilder().getIndexBytes();
+                    bytes[7] = 3;
+                    test.assertThrows(() -> GitPackIndexTests.parse(bytes),
+                        new ParseException("Unsupported pack index version: 3"));
+                });
+
+                runner.test("with unsorted fanout table", (Test test) ->
+                {
+                    final byte[] bytes = new GitPackFileTests.PackBuilder().getIndexBytes();
+                    bytes[8 + 3] = 1;
+                    test.assertThrows(() -> GitPackIndexTests.parse(bytes),
+                        new ParseException("The fanout table of the pack index is not sorted."));
+                });
+
+                runner.test("with object count larger than the index", (Test test) ->
+                {
+                    final byte[] bytes = new GitPackFileTests.PackBuilder().getIndexBytes();
+                    bytes[8 + 1023] = 1;
+                    test.assertThrows(() -> GitPackIndexTests.parse(bytes),
+                        new ParseException("Expected the pack index to contain 1 objects, but it is only 1072 bytes long."));
+                });
+
+                runner.test("with no objects", (Test test) ->
+                {
+                    final GitPackIndex index = GitPackIndexTests.parse(new GitPackFileTests.PackBuilder().getIndexBytes());
+                    test.assertEqual(20, index.getObjectIdLength());
+                    test.assertEqual(0, index.getObjectCount());
+                });
+            });
+
+            runner.testGroup("indexOf(GitObjectId)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final GitPackIndex index = GitPackIndexTests.parse(new GitPackFileTests.PackBuilder().getIndexBytes());
+                    test.assertThrows(() -> index.indexOf(null),
+                        new PreConditionFailure("objectId cannot be null."));
+                });
+
+                runner.test("with SHA-256 object id in a SHA-1 index", (Test test) ->
+                {
+                    final GitPackFileTests.PackBuilder builder = new GitPackFileTests.PackBuilder();
+                    builder.addObject(GitObjectType.Blob, "a");
+                    final GitPackIndex index = GitPackIndexTests.parse(builder.getIndexBytes());
+                    test.assertEqual(-1, index.indexOf(GitObjectId.create(new byte[32])));
+                });
+
+                runner.test("with many objects", (Test test) ->
+                {
+                    final GitPackFileTests.PackBuilder builder = new GitPackFileTests.PackBuilder();
+                    final List<GitObjectId> objectIds = List.create();
+                    for (int i = 0; i < 1000; ++i)
+                    {
+                        objectIds.add(builder.addObject(GitObjectType.Blob, "blob " + i));
+                    }
+                    final GitPackIndex index = GitPackIndexTests.parse(builder.getIndexBytes());
+                    test.assertEqual(1000, index.getObjectCount());
+
+                    for (final GitObjectId objectId : objectIds)
+                    {
+                        final int objectIndex = index.indexOf(objectId);
+                        test.assertTrue(objectIndex >= 0);
+                        test.assertEqual(objectId, index.getObjectId(objectIndex));
+                        test.assertTrue(index.containsObject(objectId));
+                    }
+                    for (int i = 1; i < index.getObjectCount(); ++i)
+                    {
+                        test.assertTrue(index.getObjectId(i - 1).compareTo(index.getObjectId(i)) < 0);
+                    }
+
+                    final GitObjectId missingObjectId = GitObjectDatabaseTests.getObjectId(GitObjectType.Blob, GitPackFileTests.toBytes("blob 1000"));
+                    test.assertEqual(-1, index.indexOf(missingObjectId));
+                    test.assertFalse(index.containsObject(missingObjectId));
+                    test.assertEqual(-1L, index.getOffset(missingObjectId));
+                });
+            });
+
+            runner.testGroup("getOffset(GitObjectId)", () ->
+            {
+                runner.test("with small offsets", (Test test) ->
+                {
+                    final GitPackFileTests.PackBuilder builder = new GitPackFileTests.PackBuilder();
+                    final GitObjectId first = builder.addObject(GitObjectType.Blob, "first");
+                    final GitObjectId second = builder.addObject(GitObjectType.Blob, "second");
+                    final GitPackIndex index = GitPackIndexTests.parse(builder.getIndexBytes());
+                    test.assertEqual(12L, index.getOffset(first));
+                    test.assertGreaterThan(index.getOffset(second), 12L);
+                });
+
+                runner.test("with large offsets", (Test test) ->
+                {
+                    final GitPackFileTests.PackBuilder builder = new GitPackFileTests.PackBuilder().setLargeOffsets();
+                    final GitObjectId first = builder.addObject(GitObjectType.Blob, "first");
+                    final GitObjectId second = builder.addObject(GitObjectType.Blob, "second");
+                    final GitPackFile pack = builder.build();
+                    test.assertEqual(12L, pack.getIndex().getOffset(first));
+                    test.assertEqual("second", pack.getObject(second).await().getContents().getText());
+                });
+            });
+
+            runner.test("getPackChecksum()", (Test test) ->
+            {
+                final GitPackFileTests.PackBuilder builder = new GitPackFileTests.PackBuilder();
+                builder.addObject(GitObjectType.Blob, "first");
+                final byte[] packBytes = builder.getPackBytes();
+                final GitPackIndex index = GitPackIndexTests.parse(builder.getIndexBytes());
+                test.assertEqual(GitObjectId.create(packBytes, packBytes.length - 20, 20), index.getPackChecksum());
+            });
+        });
+    }
+}
@@ -0,0 +1,123 @@
+package qub;
+
+public interface GitPackedRefsTests
+{
+    static GitPackedRefs parse(String contents)
+    {
+        return GitPackedRefs.parse(GitPackData.wrap(contents.getBytes(java.nio.charset.StandardCharsets.UTF_8), 16), GitObjectId.sha1Length).await();
+    }
+
+    static GitObjectId getObjectId(String name)
+    {
+        return GitObjectDatabaseTests.getObjectId(GitObjectType.Commit, name.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+    }
+
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(GitPackedRefs.class, () ->
+        {
+            runner.testGroup("parse(GitPackData,int)", () ->
+            {
+                runner.test("with null data", (Test test) ->
+                {
+                    test.assertThrows(() -> GitPackedRefs.parse(null, GitObjectId.sha1Length),
+                        new PreConditionFailure("data cannot be null."));
+                });
+
+                runner.test("with empty file", (Test test) ->
+                {
+                    final GitPackedRefs packedRefs = GitPackedRefsTests.parse("");
+                    test.assertNull(packedRefs.get("refs/heads/main"));
+                    test.assertEqual(Iterable.create(), packedRefs.getRefs(""));
+                });
+
+                runner.test("with only a header", (Test test) ->
+                {
+                    final GitPackedRefs packedRefs = GitPackedRefsTests.parse("# pack-refs with: peeled fully-peeled sorted \n");
+                    test.assertNull(packedRefs.get("refs/heads/main"));
+                    test.assertEqual(Iterable.create(), packedRefs.getRefs("refs/"));
+                });
+            });
+
+            final GitObjectId main = GitPackedRefsTests.getObjectId("main");
+            final GitObjectId topic = GitPackedRefsTests.getObjectId("topic");
+            final GitObjectId remoteMain = GitPackedRefsTests.getObjectId("origin/main");
+            final GitObjectId tag = GitPackedRefsTests.getObjectId("tag");
+            final GitObjectId tagTarget = GitPackedRefsTests.getObjectId("tag target");
+            final GitObjectId lightweightTag = GitPackedRefsTests.getObjectId("lightweight");
+
+            final Action2<String,String> packedRefsTests = (String testGroupName, String contents) ->
+            {
+                runner.testGroup(testGroupName, () ->
+                {
+                    runner.test("get(String)", (Test test) ->
+                    {
+                        final GitPackedRefs packedRefs = GitPackedRefsTests.parse(contents);
+                        test.assertEqual(GitRef.create("refs/heads/main", main), packedRefs.get("refs/heads/main"));
+                        test.assertEqual(GitRef.create("refs/heads/topic", topic), packedRefs.get("refs/heads/topic"));
+                        test.assertEqual(GitRef.create("refs/remotes/origin/main", remoteMain), packedRefs.get("refs/remotes/origin/main"));
+                        test.assertEqual(GitRef.create("refs/tags/v1", tag, tagTarget), packedRefs.get("refs/tags/v1"));
+                        test.assertEqual(GitRef.create("refs/tags/v2", lightweightTag), packedRefs.get("refs/tags/v2"));
+                        test.assertNull(packedRefs.get("refs/heads/mai"));
+                        test.assertNull(packedRefs.get("refs/heads/main2"));
+                        test.assertNull(packedRefs.get("refs/heads"));
+                        test.assertNull(packedRefs.get("HEAD"));
+                        test.assertNull(packedRefs.get("refs/tags/v3"));
+                    });
+
+                    runner.test("getRefs(String)", (Test test) ->
+                    {
+                        final GitPackedRefs packedRefs = GitPackedRefsTests.parse(contents);
+                        test.assertEqual(
+                            Iterable.create(
+                                GitRef.create("refs/heads/main", main),
+                                GitRef.create("refs/heads/topic", topic)),
+                            packedRefs.getRefs("refs/heads/"));
+                        test.assertEqual(
+                            Iterable.create(
+                                GitRef.create("refs/tags/v1", tag, tagTarget),
+                                GitRef.create("refs/tags/v2", lightweightTag)),
+                            packedRefs.getRefs("refs/tags/"));
+                        test.assertEqual(5, packedRefs.getRefs("").toList().getCount());
+                        test.assertEqual(Iterable.create(), packedRefs.getRefs("refs/notes/"));
+                        test.assertEqual(Iterable.create(), packedRefs.getRefs("refs/zzz"));
+                    });
+                });
+            };
+
+            packedRefsTests.run("with sorted file",
+                "# pack-refs with: peeled fully-peeled sorted \n" +
+                main + " refs/heads/main\n" +
+                topic + " refs/heads/topic\n" +
+                remoteMain + " refs/remotes/origin/main\n" +
+                tag + " refs/tags/v1\n" +
+                "^" + tagTarget + "\n" +
+                lightweightTag + " refs/tags/v2\n");
+
+            packedRefsTests.run("with unsorted file",
+                "# pack-refs with: peeled \n" +
+                tag + " refs/tags/v1\n" +
+                "^" + tagTarget + "\n" +
+                topic + " refs/heads/topic\n" +
+                lightweightTag + " refs/tags/v2\n" +
+                remoteMain + " refs/remotes/origin/main\n" +
+                main + " refs/heads/main\n");
+
+            packedRefsTests.run("with file without header or final newline",
+                lightweightTag + " refs/tags/v2\n" +
+                main + " refs/heads/main\n" +
+                remoteMain + " refs/remotes/origin/main\n" +
+                tag + " refs/tags/v1\n" +
+                "^" + tagTarget + "\n" +
+                topic + " refs/heads/topic");
+
+            runner.test("get(String) with invalid record", (Test test) ->
+            {
+                final String invalidObjectId = "g".repeat(40);
+                final GitPackedRefs packedRefs = GitPackedRefsTests.parse("# pack-refs with: sorted \n" + invalidObjectId + " refs/heads/main\n");
+                test.assertThrows(() -> packedRefs.get("refs/heads/main"),
+                    new ParseException("Expected a 40 or 64 character hexadecimal Git object id, but found \"" + invalidObjectId + "\"."));
+            });
+        });
+    }
+}
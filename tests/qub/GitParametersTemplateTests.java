@@ -0,0 +1,212 @@
+package qub;
+
+public interface GitParametersTemplateTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(GitParametersTemplate.class, () ->
+        {
+            runner.testGroup("create(GitParameters)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> GitParametersTemplate.create(null),
+                        new PreConditionFailure("parameters cannot be null."));
+                });
+
+                runner.test("with new parameters", (Test test) ->
+                {
+                    final GitParametersTemplate template = GitParametersTemplate.create(GitParameters.create());
+                    test.assertNotNull(template);
+                    test.assertEqual(Path.parse("git"), template.getExecutablePath());
+                    test.assertEqual(Iterable.create(), template.getGitArguments());
+                    test.assertEqual(Iterable.create(), template.getCommandArguments());
+                    test.assertEqual(Iterable.create(), template.getOtherArguments());
+                    test.assertNull(template.getWorkingFolderPath());
+                    test.assertNull(template.getTimeout());
+                });
+
+                runner.test("with configured parameters", (Test test) ->
+                {
+                    final GitCloneParameters parameters = GitCloneParameters.create("/git")
+                        .addConfiguration("core.autocrlf", "false")
+                        .addQuiet()
+                        .setWorkingFolderPath("/repos/")
+                        .setTimeout(Duration.minutes(5));
+                    final GitParametersTemplate template = GitParametersTemplate.create(parameters);
+                    test.assertEqual(Path.parse("/git"), template.getExecutablePath());
+                    test.assertEqual(Iterable.create("-c", "core.autocrlf=false"), template.getGitArguments());
+                    test.assertEqual(Iterable.create("clone", "--quiet"), template.getCommandArguments());
+                    test.assertEqual(Path.parse("/repos/"), template.getWorkingFolderPath());
+                    test.assertEqual(Duration.minutes(5), template.getTimeout());
+
+                    parameters.addVerbose();
+                    test.assertEqual(Iterable.create("clone", "--quiet"), template.getCommandArguments());
+                });
+
+                runner.test("with other arguments after the command arguments", (Test test) ->
+                {
+                    final GitCloneParameters parameters = GitCloneParameters.create();
+                    parameters.addGitArgument("--no-pager");
+                    parameters.addArgument("--");
+                    parameters.addArgument("extra");
+                    final GitParametersTemplate template = GitParametersTemplate.create(parameters);
+                    test.assertEqual(Iterable.create("--no-pager"), template.getGitArguments());
+                    test.assertEqual(Iterable.create("clone"), template.getCommandArguments());
+                    test.assertEqual(Iterable.create("--", "extra"), template.getOtherArguments());
+                });
+
+                runner.test("with other arguments before the command arguments", (Test test) ->
+                {
+                    final GitPullParameters parameters = GitPullParameters.create();
+                    parameters.insertArgument(0, "--bare");
+                    test.assertThrows(() -> GitParametersTemplate.create(parameters),
+                        new PreConditionFailure("GitParametersTemplate.startsWithSegments(arguments, gitArguments, commandArguments) cannot be false."));
+                });
+            });
+
+            runner.testGroup("instantiate()", () ->
+            {
+                runner.test("with new parameters", (Test test) ->
+                {
+                    final GitParametersTemplate template = GitParametersTemplate.create(GitParameters.create());
+                    final GitParameters parameters = template.instantiate();
+                    test.assertNotNull(parameters);
+                    test.assertEqual(Path.parse("git"), parameters.getExecutablePath());
+                    test.assertEqual(Iterable.create(), parameters.getArguments());
+                    test.assertNull(parameters.getWorkingFolderPath());
+                    test.assertNull(parameters.getTimeout());
+                    test.assertNull(parameters.getCancellationToken());
+                });
+
+                runner.test("with configured parameters", (Test test) ->
+                {
+                    final GitParametersTemplate template = GitParametersTemplate.create(
+                        GitPullParameters.create()
+                            .addGitArgument("--no-pager")
+                            .addProgress()
+                            .setWorkingFolderPath("/repo/")
+                            .setTimeout(Duration.seconds(30)));
+                    final GitParameters parameters = template.instantiate();
+                    test.assertEqual(Iterable.create("--no-pager", "pull", "--progress"), parameters.getArguments());
+                    test.assertEqual(Iterable.create("--no-pager"), parameters.getGitArguments());
+                    test.assertEqual(Iterable.create("pull", "--progress"), parameters.getCommandArguments());
+                    test.assertEqual(Path.parse("/repo/"), parameters.getWorkingFolderPath());
+                    test.assertEqual(Duration.seconds(30), parameters.getTimeout());
+                });
+
+                runner.test("with other arguments", (Test test) ->
+                {
+                    final GitPullParameters pullParameters = GitPullParameters.create();
+                    pullParameters.addGitArgument("--no-pager");
+                    pullParameters.addArgument("origin");
+                    final GitParametersTemplate template = GitParametersTemplate.create(pullParameters);
+                    final GitParameters parameters = template.instantiate();
+                    test.assertEqual(Iterable.create("--no-pager", "pull", "origin"), parameters.getArguments());
+                    test.assertEqual(Iterable.create("--no-pager"), parameters.getGitArguments());
+                    test.assertEqual(Iterable.create("pull"), parameters.getCommandArguments());
+                });
+
+                runner.test("returns independent parameters", (Test test) ->
+                {
+                    final GitParametersTemplate template = GitParametersTemplate.create(GitPullParameters.create());
+                    final GitParameters parameters1 = template.instantiate();
+                    final GitParameters parameters2 = template.instantiate();
+                    test.assertFalse(parameters1 == parameters2);
+
+                    parameters1.addCommandArgument("--quiet");
+                    test.assertEqual(Iterable.create("pull", "--quiet"), parameters1.getArguments());
+                    test.assertEqual(Iterable.create("pull"), parameters2.getArguments());
+                    test.assertEqual(Iterable.create("pull"), template.getCommandArguments());
+                });
+            });
+
+            runner.testGroup("instantiate(String...)", () ->
+            {
+                final GitParametersTemplate template = GitParametersTemplate.create(
+                    GitCloneParameters.create()
+                        .addGitArgument("--no-pager")
+                        .addQuiet());
+
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> template.instantiate((String[])null),
+                        new PreConditionFailure("commandArguments cannot be null."));
+                });
+
+                runner.test("with null argument", (Test test) ->
+                {
+                    test.assertThrows(() -> template.instantiate("https://github.com/a/b.git", null),
+                        new PreConditionFailure("commandArgument cannot be null."));
+                });
+
+                runner.test("with empty argument", (Test test) ->
+                {
+                    test.assertThrows(() -> template.instantiate(""),
+                        new PreConditionFailure("commandArgument cannot be empty."));
+                });
+
+                runner.test("with repository and directory", (Test test) ->
+                {
+                    final GitParameters parameters = template.instantiate("https://github.com/a/b.git", "b");
+                    test.assertEqual(Iterable.create("--no-pager", "clone", "--quiet", "https://github.com/a/b.git", "b"), parameters.getArguments());
+                    test.assertEqual(Iterable.create("--no-pager"), parameters.getGitArguments());
+                    test.assertEqual(Iterable.create("clone", "--quiet", "https://github.com/a/b.git", "b"), parameters.getCommandArguments());
+                    test.assertEqual(Iterable.create("clone", "--quiet"), template.getCommandArguments());
+                });
+
+                runner.test("with other arguments", (Test test) ->
+                {
+                    final GitCloneParameters cloneParameters = GitCloneParameters.create();
+                    cloneParameters.addArgument("--");
+                    final GitParametersTemplate otherTemplate = GitParametersTemplate.create(cloneParameters);
+                    final GitParameters parameters = otherTemplate.instantiate("https://github.com/a/b.git");
+                    test.assertEqual(Iterable.create("clone", "https://github.com/a/b.git", "--"), parameters.getArguments());
+                    test.assertEqual(Iterable.create("clone", "https://github.com/a/b.git"), parameters.getCommandArguments());
+                });
+            });
+
+            runner.testGroup("instantiate(Path,String...)", () ->
+            {
+                final GitParametersTemplate template = GitParametersTemplate.create(
+                    GitPullParameters.create()
+                        .setWorkingFolderPath("/default/"));
+
+                runner.test("with null working folder path", (Test test) ->
+                {
+                    final GitParameters parameters = template.instantiate((Path)null);
+                    test.assertEqual(Path.parse("/default/"), parameters.getWorkingFolderPath());
+                    test.assertEqual(Iterable.create("pull"), parameters.getArguments());
+                });
+
+                runner.test("with working folder path", (Test test) ->
+                {
+                    final GitParameters parameters = template.instantiate(Path.parse("/repo/"), "origin");
+                    test.assertEqual(Path.parse("/repo/"), parameters.getWorkingFolderPath());
+                    test.assertEqual(Iterable.create("pull", "origin"), parameters.getArguments());
+                    test.assertEqual(Path.parse("/default/"), template.getWorkingFolderPath());
+                });
+            });
+
+            runner.testGroup("instantiate(Folder,String...)", () ->
+            {
+                final GitParametersTemplate template = GitParametersTemplate.create(GitPullParameters.create());
+
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> template.instantiate((Folder)null),
+                        new PreConditionFailure("workingFolder cannot be null."));
+                });
+
+                runner.test("with folder", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    final Folder folder = fileSystem.getFolder("/repo/").await();
+                    final GitParameters parameters = template.instantiate(folder);
+                    test.assertEqual(Path.parse("/repo/"), parameters.getWorkingFolderPath());
+                    test.assertEqual(Iterable.create("pull"), parameters.getArguments());
+                });
+            });
+        });
+    }
+}
@@ -975,6 +975,125 @@ public interface GitParametersTests
                     test.assertSame(parameters, redirectErrorToResult);
                 });
             });
+
+            runner.testGroup("addConfiguration(String,String)", () ->
+            {
+                final Action3<String,String,Throwable> addConfigurationErrorTest = (String name, String value, Throwable expected) ->
+                {
+                    runner.test("with " + English.andList(Strings.escapeAndQuote(name), Strings.escapeAndQuote(value)), (Test test) ->
+                    {
+                        final GitParameters parameters = creator.run();
+                        final List<String> arguments = parameters.getArguments().toList();
+                        test.assertThrows(() -> parameters.addConfiguration(name, value),
+                            expected);
+                        test.assertEqual(arguments, parameters.getArguments());
+                    });
+                };
+
+                addConfigurationErrorTest.run(null, "1", new PreConditionFailure("name cannot be null."));
+                addConfigurationErrorTest.run("", "1", new PreConditionFailure("name cannot be empty."));
+                addConfigurationErrorTest.run("a=b", "1", new PreConditionFailure("name.contains(\"=\") cannot be true."));
+                addConfigurationErrorTest.run("core.autocrlf", null, new PreConditionFailure("value cannot be null."));
+
+                final Action2<String,String> addConfigurationTest = (String name, String value) ->
+                {
+                    runner.test("with " + English.andList(Strings.escapeAndQuote(name), Strings.escapeAndQuote(value)), (Test test) ->
+                    {
+                        final GitParameters parameters = creator.run();
+                        final List<String> arguments = parameters.getArguments().toList();
+                        final List<String> gitArguments = parameters.getGitArguments().toList();
+                        final List<String> commandArguments = parameters.getCommandArguments().toList();
+
+                        final GitParameters addConfigurationResult = parameters.addConfiguration(name, value);
+                        test.assertSame(parameters, addConfigurationResult);
+                        test.assertEqual(arguments.insertAll(gitArguments.getCount(), Iterable.create("-c", name + "=" + value)), parameters.getArguments());
+                        test.assertEqual(gitArguments.addAll("-c", name + "=" + value), parameters.getGitArguments());
+                        test.assertEqual(commandArguments, parameters.getCommandArguments());
+                    });
+                };
+
+                addConfigurationTest.run("core.autocrlf", "false");
+                addConfigurationTest.run("user.name", "");
+                addConfigurationTest.run("http.extraHeader", "Authorization: a=b");
+            });
+
+            runner.testGroup("addLowSpeedLimit(int,int)", () ->
+            {
+                final Action3<Integer,Integer,Throwable> addLowSpeedLimitErrorTest = (Integer bytesPerSecond, Integer seconds, Throwable expected) ->
+                {
+                    runner.test("with " + English.andList(bytesPerSecond, seconds), (Test test) ->
+                    {
+                        final GitParameters parameters = creator.run();
+                        final List<String> arguments = parameters.getArguments().toList();
+                        test.assertThrows(() -> parameters.addLowSpeedLimit(bytesPerSecond, seconds),
+                            expected);
+                        test.assertEqual(arguments, parameters.getArguments());
+                    });
+                };
+
+                addLowSpeedLimitErrorTest.run(0, 30, new PreConditionFailure("bytesPerSecond (0) must be greater than or equal to 1."));
+                addLowSpeedLimitErrorTest.run(1000, 0, new PreConditionFailure("seconds (0) must be greater than or equal to 1."));
+
+                runner.test("with 1000 and 30", (Test test) ->
+                {
+                    final GitParameters parameters = creator.run();
+                    final List<String> gitArguments = parameters.getGitArguments().toList();
+                    final List<String> commandArguments = parameters.getCommandArguments().toList();
+
+                    final GitParameters addLowSpeedLimitResult = parameters.addLowSpeedLimit(1000, 30);
+                    test.assertSame(parameters, addLowSpeedLimitResult);
+                    test.assertEqual(gitArguments.addAll("-c", "http.lowSpeedLimit=1000", "-c", "http.lowSpeedTime=30"), parameters.getGitArguments());
+                    test.assertEqual(commandArguments, parameters.getCommandArguments());
+                });
+            });
+
+            runner.testGroup("setTimeout(Duration)", () ->
+            {
+                final Action2<Duration,Throwable> setTimeoutErrorTest = (Duration timeout, Throwable expected) ->
+                {
+                    runner.test("with " + timeout, (Test test) ->
+                    {
+                        final GitParameters parameters = creator.run();
+                        test.assertThrows(() -> parameters.setTimeout(timeout),
+                            expected);
+                        test.assertNull(parameters.getTimeout());
+                    });
+                };
+
+                setTimeoutErrorTest.run(null, new PreConditionFailure("timeout cannot be null."));
+                setTimeoutErrorTest.run(Duration.zero, new PreConditionFailure("timeout.greaterThan(Duration.zero) cannot be false."));
+                setTimeoutErrorTest.run(Duration.seconds(-1), new PreConditionFailure("timeout.greaterThan(Duration.zero) cannot be false."));
+
+                runner.test("with 5 seconds", (Test test) ->
+                {
+                    final GitParameters parameters = creator.run();
+                    final List<String> arguments = parameters.getArguments().toList();
+                    final GitParameters setTimeoutResult = parameters.setTimeout(Duration.seconds(5));
+                    test.assertSame(parameters, setTimeoutResult);
+                    test.assertEqual(Duration.seconds(5), parameters.getTimeout());
+                    test.assertEqual(arguments, parameters.getArguments());
+                });
+            });
+
+            runner.testGroup("setCancellationToken(GitCancellationToken)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final GitParameters parameters = creator.run();
+                    test.assertThrows(() -> parameters.setCancellationToken(null),
+                        new PreConditionFailure("cancellationToken cannot be null."));
+                    test.assertNull(parameters.getCancellationToken());
+                });
+
+                runner.test("with non-null", (Test test) ->
+                {
+                    final GitParameters parameters = creator.run();
+                    final GitCancellationToken cancellationToken = GitCancellationToken.create();
+                    final GitParameters setCancellationTokenResult = parameters.setCancellationToken(cancellationToken);
+                    test.assertSame(parameters, setCancellationTokenResult);
+                    test.assertSame(cancellationToken, parameters.getCancellationToken());
+                });
+            });
         });
     }
 }
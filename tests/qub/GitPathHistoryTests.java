@@ -0,0 +1,276 @@
+package qub;
+
+public interface GitPathHistoryTests
+{
+    /**
+     * A small repository whose history is:
+     * <pre>
+     * c1 (README, src/a.txt) - c2 (README) - c3 (src/a.txt) - c4 (README) - m
+     *   \                                                                  /
+     *    b1 (src/b.txt) ---------------------------------------------------
+     * </pre>
+     */
+    class TestRepository
+    {
+        public final Folder repositoryFolder;
+        public final Folder objectsFolder;
+        public final GitObjectId c1;
+        public final GitObjectId c2;
+        public final GitObjectId c3;
+        public final GitObjectId c4;
+        public final GitObjectId b1;
+        public final GitObjectId m;
+        private final java.util.HashMap<GitObjectId,GitObjectId> treeIds;
+        private final java.util.HashMap<GitObjectId,Long> commitTimes;
+
+        public TestRepository()
+        {
+            this.repositoryFolder = GitObjectDatabaseTests.createRepositoryFolder();
+            this.objectsFolder = this.repositoryFolder.getFolder(".git/objects").await();
+            this.treeIds = new java.util.HashMap<>();
+            this.commitTimes = new java.util.HashMap<>();
+
+            final java.util.TreeMap<String,String> files = new java.util.TreeMap<>();
+            files.put("README", "1");
+            files.put("src/a.txt", "a1");
+            this.c1 = this.writeCommit(files, 1000);
+            files.put("README", "2");
+            this.c2 = this.writeCommit(files, 2000, this.c1);
+            files.put("src/a.txt", "a2");
+            this.c3 = this.writeCommit(files, 3000, this.c2);
+            files.put("README", "3");
+            this.c4 = this.writeCommit(files, 4000, this.c3);
+
+            final java.util.TreeMap<String,String> branchFiles = new java.util.TreeMap<>();
+            branchFiles.put("README", "1");
+            branchFiles.put("src/a.txt", "a1");
+            branchFiles.put("src/b.txt", "b1");
+            this.b1 = this.writeCommit(branchFiles, 2500, this.c1);
+
+            files.put("src/b.txt", "b1");
+            this.m = this.writeCommit(files, 5000, this.c4, this.b1);
+        }
+
+        private GitObjectId writeTree(java.util.SortedMap<String,String> files)
+        {
+            final java.util.TreeMap<String,java.util.TreeMap<String,String>> folders = new java.util.TreeMap<>();
+            final List<GitTreeEntry> entries = List.create();
+            for (final java.util.Map.Entry<String,String> file : files.entrySet())
+            {
+                final String path = file.getKey();
+                final int slashIndex = path.indexOf('/');
+                if (slashIndex == -1)
+                {
+                    final GitObjectId blobId = GitObjectDatabaseTests.writeLooseObject(this.objectsFolder, GitObjectType.Blob, file.getValue());
+                    entries.add(GitTreeEntry.create(0100644, GitObjectDatabaseTests.toSlice(path), blobId));
+                }
+                else
+                {
+                    folders.computeIfAbsent(path.substring(0, slashIndex), (String folderName) -> new java.util.TreeMap<>())
+                        .put(path.substring(slashIndex + 1), file.getValue());
+                }
+            }
+            for (final java.util.Map.Entry<String,java.util.TreeMap<String,String>> folder : folders.entrySet())
+            {
+                entries.add(GitTreeEntry.create(GitTreeEntry.treeMode, GitObjectDatabaseTests.toSlice(folder.getKey()), this.writeTree(folder.getValue())));
+            }
+            return GitObjectDatabaseTests.writeLooseObject(this.objectsFolder, GitObjectType.Tree, GitObjectDatabaseTests.createTreeContents(entries));
+        }
+
+        private GitObjectId writeCommit(java.util.SortedMap<String,String> files, long commitTime, GitObjectId... parentIds)
+        {
+            final GitObjectId treeId = this.writeTree(files);
+            final StringBuilder contents = new StringBuilder();
+            contents.append("tree ").append(treeId).append('\n');
+            for (final GitObjectId parentId : parentIds)
+            {
+                contents.append("parent ").append(parentId).append('\n');
+            }
+            contents.append("author A U Thor <author@example.com> ").append(commitTime).append(" +0000\n");
+            contents.append("committer C O Mitter <committer@example.com> ").append(commitTime).append(" +0000\n");
+            contents.append('\n');
+            contents.append("Commit at ").append(commitTime).append('\n');
+            final GitObjectId result = GitObjectDatabaseTests.writeLooseObject(this.objectsFolder, GitObjectType.Commit, contents.toString());
+            this.treeIds.put(result, treeId);
+            this.commitTimes.put(result, commitTime);
+            return result;
+        }
+
+        /**
+         * Write a commit-graph that contains every commit in this repository.
+         * @param bloomFilters Whether the commit-graph contains changed-path Bloom filters.
+         * @return This object for method chaining.
+         */
+        public TestRepository writeCommitGraph(boolean bloomFilters)
+        {
+            final GitCommitGraphTests.CommitGraphBuilder builder = new GitCommitGraphTests.CommitGraphBuilder();
+            this.addCommit(builder, this.c1);
+            this.addCommit(builder, this.c2, this.c1);
+            this.addCommit(builder, this.b1, this.c1);
+            builder.addLayer();
+            this.addCommit(builder, this.c3, this.c2);
+            this.addCommit(builder, this.c4, this.c3);
+            this.addCommit(builder, this.m, this.c4, this.b1);
+            if (bloomFilters)
+            {
+                builder.setChangedPaths(this.c1, "README", "src/a.txt");
+                builder.setChangedPaths(this.c2, "README");
+                builder.setChangedPaths(this.c3, "src/a.txt");
+                builder.setChangedPaths(this.c4, "README");
+                builder.setChangedPaths(this.b1, "src/b.txt");
+                builder.setChangedPaths(this.m, "src/b.txt");
+            }
+            builder.writeTo(this.objectsFolder);
+            return this;
+        }
+
+        private void addCommit(GitCommitGraphTests.CommitGraphBuilder builder, GitObjectId commitId, GitObjectId... parentIds)
+        {
+            builder.addCommit(commitId, this.treeIds.get(commitId), this.commitTimes.get(commitId), parentIds);
+        }
+
+        public GitPathHistory getPathHistory(String path)
+        {
+            final GitObjectDatabase objectDatabase = GitObjectDatabase.open(this.repositoryFolder).await();
+            return GitPathHistory.create(objectDatabase, this.m, path).await();
+        }
+    }
+
+    static Iterable<GitObjectId> toIterable(GitPathHistory history)
+    {
+        final List<GitObjectId> result = List.create();
+        while (history.next())
+        {
+            result.add(history.getCurrent());
+        }
+        return result;
+    }
+
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(GitPathHistory.class, () ->
+        {
+            runner.testGroup("create(GitObjectDatabase,GitObjectId,String)", () ->
+            {
+                final GitObjectId missingCommitId = GitCommitGraphTests.CommitGraphBuilder.getCommitId("missing");
+
+                runner.test("with null objectDatabase", (Test test) ->
+                {
+                    test.assertThrows(() -> GitPathHistory.create(null, missingCommitId, "src"),
+                        new PreConditionFailure("objectDatabase cannot be null."));
+                });
+
+                runner.test("with null startCommitId", (Test test) ->
+                {
+                    final GitObjectDatabase objectDatabase = GitObjectDatabase.open(GitObjectDatabaseTests.createRepositoryFolder()).await();
+                    test.assertThrows(() -> GitPathHistory.create(objectDatabase, null, "src"),
+                        new PreConditionFailure("startCommitId cannot be null."));
+                });
+
+                runner.test("with null path", (Test test) ->
+                {
+                    final GitObjectDatabase objectDatabase = GitObjectDatabase.open(GitObjectDatabaseTests.createRepositoryFolder()).await();
+                    test.assertThrows(() -> GitPathHistory.create(objectDatabase, missingCommitId, null),
+                        new PreConditionFailure("path cannot be null."));
+                });
+
+                runner.test("with missing start commit", (Test test) ->
+                {
+                    final GitObjectDatabase objectDatabase = GitObjectDatabase.open(GitObjectDatabaseTests.createRepositoryFolder()).await();
+                    test.assertThrows(() -> GitPathHistory.create(objectDatabase, missingCommitId, "src").await(),
+                        new NotFoundException("Could not find the Git object " + missingCommitId + "."));
+                });
+            });
+
+            final Action1<String> historyTests = (String commitGraph) ->
+            {
+                runner.testGroup("with " + commitGraph, () ->
+                {
+                    final Function0<TestRepository> createRepository = () ->
+                    {
+                        final TestRepository result = new TestRepository();
+                        if (commitGraph.equals("Bloom filters"))
+                        {
+                            result.writeCommitGraph(true);
+                        }
+                        else if (commitGraph.equals("commit-graph"))
+                        {
+                            result.writeCommitGraph(false);
+                        }
+                        return result;
+                    };
+
+                    runner.test("with file changed on one branch", (Test test) ->
+                    {
+                        final TestRepository repository = createRepository.run();
+                        final GitPathHistory history = repository.getPathHistory("src/a.txt");
+                        test.assertFalse(history.hasStarted());
+                        test.assertFalse(history.hasCurrent());
+                        test.assertEqual(Iterable.create(repository.c3, repository.c1), GitPathHistoryTests.toIterable(history));
+                        test.assertTrue(history.hasStarted());
+                        test.assertFalse(history.hasCurrent());
+                    });
+
+                    runner.test("with file changed on both sides of the merge", (Test test) ->
+                    {
+                        final TestRepository repository = createRepository.run();
+                        test.assertEqual(
+                            Iterable.create(repository.m, repository.c3, repository.b1, repository.c1),
+                            GitPathHistoryTests.toIterable(repository.getPathHistory("src")));
+                        test.assertEqual(
+                            Iterable.create(repository.m, repository.c3, repository.b1, repository.c1),
+                            GitPathHistoryTests.toIterable(repository.getPathHistory("/src/")));
+                    });
+
+                    runner.test("with file added on the merged branch", (Test test) ->
+                    {
+                        final TestRepository repository = createRepository.run();
+                        test.assertEqual(Iterable.create(repository.b1), GitPathHistoryTests.toIterable(repository.getPathHistory("src/b.txt")));
+                    });
+
+                    runner.test("with file changed on the main branch", (Test test) ->
+                    {
+                        final TestRepository repository = createRepository.run();
+                        final GitPathHistory history = repository.getPathHistory("README");
+                        test.assertEqual(Iterable.create(repository.c4, repository.c2, repository.c1), GitPathHistoryTests.toIterable(history));
+                        test.assertEqual(commitGraph.equals("Bloom filters"), history.usesBloomFilters());
+                        if (history.usesBloomFilters())
+                        {
+                            test.assertGreaterThan(history.getBloomFilterSkipCount(), 0L);
+                        }
+                        else
+                        {
+                            test.assertEqual(0L, history.getBloomFilterSkipCount());
+                        }
+                    });
+
+                    runner.test("with missing path", (Test test) ->
+                    {
+                        final TestRepository repository = createRepository.run();
+                        test.assertEqual(Iterable.create(), GitPathHistoryTests.toIterable(repository.getPathHistory("docs")));
+                        test.assertEqual(Iterable.create(), GitPathHistoryTests.toIterable(repository.getPathHistory("README/a.txt")));
+                    });
+                });
+            };
+
+            historyTests.run("no commit-graph");
+            historyTests.run("commit-graph");
+            historyTests.run("Bloom filters");
+
+            runner.test("with Bloom filters skips tree comparisons", (Test test) ->
+            {
+                final TestRepository withoutFilters = new TestRepository().writeCommitGraph(false);
+                final GitPathHistory historyWithoutFilters = withoutFilters.getPathHistory("README");
+                GitPathHistoryTests.toIterable(historyWithoutFilters);
+
+                final TestRepository withFilters = new TestRepository().writeCommitGraph(true);
+                final GitPathHistory historyWithFilters = withFilters.getPathHistory("README");
+                GitPathHistoryTests.toIterable(historyWithFilters);
+
+                test.assertEqual(4L, historyWithoutFilters.getTreeComparisonCount());
+                test.assertEqual(2L, historyWithFilters.getTreeComparisonCount());
+                test.assertEqual(2L, historyWithFilters.getBloomFilterSkipCount());
+            });
+        });
+    }
+}
@@ -0,0 +1,168 @@
+package qub;
+
+public interface GitPipeTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(GitPipe.class, () ->
+        {
+            runner.test("create()", (Test test) ->
+            {
+                final GitPipe pipe = GitPipe.create();
+                test.assertNotNull(pipe);
+                test.assertEqual(0L, pipe.getByteCount());
+                test.assertFalse(pipe.isEnded());
+                test.assertFalse(pipe.isDisposed());
+            });
+
+            runner.testGroup("write(byte[],int,int)", () ->
+            {
+                runner.test("with null bytes", (Test test) ->
+                {
+                    final GitPipe pipe = GitPipe.create();
+                    test.assertThrows(() -> pipe.write(null, 0, 0),
+                        new PreConditionFailure("bytes cannot be null."));
+                });
+
+                runner.test("with empty range", (Test test) ->
+                {
+                    final GitPipe pipe = GitPipe.create();
+                    test.assertSame(pipe, pipe.write(new byte[] { 1, 2 }, 1, 0));
+                    test.assertEqual(0L, pipe.getByteCount());
+                });
+
+                runner.test("with non-empty range", (Test test) ->
+                {
+                    final GitPipe pipe = GitPipe.create();
+                    final byte[] bytes = new byte[] { 1, 2, 3 };
+                    test.assertSame(pipe, pipe.write(bytes, 1, 2));
+                    test.assertEqual(2L, pipe.getByteCount());
+
+                    bytes[1] = 10;
+                    final byte[] output = new byte[5];
+                    test.assertEqual(2, pipe.readBytes(output, 0, 5).await());
+                    test.assertEqual(new byte[] { 2, 3, 0, 0, 0 }, output);
+                    test.assertEqual(0L, pipe.getByteCount());
+                });
+
+                runner.test("after endOfStream()", (Test test) ->
+                {
+                    final GitPipe pipe = GitPipe.create();
+                    pipe.endOfStream();
+                    test.assertThrows(() -> pipe.write(new byte[] { 1 }),
+                        new PreConditionFailure("this.ended && !this.disposed cannot be true."));
+                });
+
+                runner.test("after dispose()", (Test test) ->
+                {
+                    final GitPipe pipe = GitPipe.create();
+                    pipe.dispose().await();
+                    test.assertSame(pipe, pipe.write(new byte[] { 1 }));
+                    test.assertEqual(0L, pipe.getByteCount());
+                });
+            });
+
+            runner.testGroup("readBytes(byte[],int,int)", () ->
+            {
+                runner.test("with zero length", (Test test) ->
+                {
+                    final GitPipe pipe = GitPipe.create();
+                    test.assertThrows(() -> pipe.readBytes(new byte[1], 0, 0),
+                        new PreConditionFailure("length (0) must be between 1 and 1."));
+                });
+
+                runner.test("across chunks", (Test test) ->
+                {
+                    final GitPipe pipe = GitPipe.create();
+                    pipe.write(new byte[] { 1, 2 });
+                    pipe.write(new byte[] { 3 });
+                    pipe.write(new byte[] { 4, 5 });
+
+                    final byte[] output = new byte[4];
+                    test.assertEqual(4, pipe.readBytes(output, 0, 4).await());
+                    test.assertEqual(new byte[] { 1, 2, 3, 4 }, output);
+                    test.assertEqual(1, pipe.readBytes(output, 0, 4).await());
+                    test.assertEqual((byte)5, output[0]);
+                });
+
+                runner.test("after endOfStream() with unread bytes", (Test test) ->
+                {
+                    final GitPipe pipe = GitPipe.create();
+                    pipe.write(new byte[] { 1, 2 });
+                    pipe.endOfStream();
+
+                    final byte[] output = new byte[2];
+                    test.assertEqual(2, pipe.readBytes(output, 0, 2).await());
+                    test.assertEqual(new byte[] { 1, 2 }, output);
+                    test.assertThrows(() -> pipe.readBytes(output, 0, 2).await(),
+                        new EndOfStreamException());
+                });
+
+                runner.test("waits for a write from another thread", (Test test) ->
+                {
+                    final GitPipe pipe = GitPipe.create();
+                    final Thread writer = new Thread(() ->
+                    {
+                        try
+                        {
+                            Thread.sleep(50);
+                        }
+                        catch (InterruptedException e)
+                        {
+                            throw new RuntimeException(e);
+                        }
+                        pipe.write(new byte[] { 7 });
+                    });
+                    writer.start();
+
+                    test.assertEqual((byte)7, pipe.readByte().await());
+                });
+
+                runner.test("waits for endOfStream() from another thread", (Test test) ->
+                {
+                    final GitPipe pipe = GitPipe.create();
+                    final Thread writer = new Thread(() ->
+                    {
+                        try
+                        {
+                            Thread.sleep(50);
+                        }
+                        catch (InterruptedException e)
+                        {
+                            throw new RuntimeException(e);
+                        }
+                        pipe.endOfStream();
+                    });
+                    writer.start();
+
+                    test.assertThrows(() -> pipe.readByte().await(),
+                        new EndOfStreamException());
+                });
+            });
+
+            runner.test("readAllBytes()", (Test test) ->
+            {
+                final GitPipe pipe = GitPipe.create();
+                pipe.write(new byte[] { 1, 2 });
+                pipe.write(new byte[] { 3 });
+                pipe.endOfStream();
+                test.assertEqual(new byte[] { 1, 2, 3 }, pipe.readAllBytes().await());
+            });
+
+            runner.test("dispose()", (Test test) ->
+            {
+                final GitPipe pipe = GitPipe.create();
+                pipe.write(new byte[] { 1, 2 });
+
+                test.assertTrue(pipe.dispose().await());
+                test.assertTrue(pipe.isDisposed());
+                test.assertTrue(pipe.isEnded());
+                test.assertEqual(0L, pipe.getByteCount());
+                test.assertThrows(() -> pipe.readByte().await(),
+                    new EndOfStreamException());
+
+                test.assertFalse(pipe.dispose().await());
+            });
+        });
+    }
+}
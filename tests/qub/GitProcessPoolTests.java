@@ -0,0 +1,282 @@
+package qub;
+
+public interface GitProcessPoolTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(GitProcessPool.class, () ->
+        {
+            runner.testGroup("create(Git,Clock)", () ->
+            {
+                runner.test("with null git", (Test test) ->
+                {
+                    test.assertThrows(() -> GitProcessPool.create(null, ManualClock.create(DateTime.create(2026, 1, 1))),
+                        new PreConditionFailure("git cannot be null."));
+                });
+
+                runner.test("with null clock",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    test.assertThrows(() -> GitProcessPool.create(Git.create(process), null),
+                        new PreConditionFailure("clock cannot be null."));
+                });
+
+                runner.test("with valid arguments",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    try (final GitProcessPool pool = GitProcessPool.create(Git.create(process), ManualClock.create(DateTime.create(2026, 1, 1))))
+                    {
+                        test.assertEqual(GitProcessPool.defaultMaximumProcessCount, pool.getMaximumProcessCount());
+                        test.assertEqual(GitProcessPool.defaultIdleTimeout, pool.getIdleTimeout());
+                        test.assertEqual(0, pool.getProcessCount());
+                        test.assertFalse(pool.isDisposed());
+                    }
+                });
+            });
+
+            runner.testGroup("setMaximumProcessCount(int)", () ->
+            {
+                final Action2<Integer,Throwable> setMaximumProcessCountTest = (Integer maximumProcessCount, Throwable expected) ->
+                {
+                    runner.test("with " + maximumProcessCount,
+                        (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                        (Test test, FakeDesktopProcess process) ->
+                    {
+                        try (final GitProcessPool pool = GitProcessPool.create(Git.create(process), ManualClock.create(DateTime.create(2026, 1, 1))))
+                        {
+                            if (expected != null)
+                            {
+                                test.assertThrows(() -> pool.setMaximumProcessCount(maximumProcessCount), expected);
+                                test.assertEqual(GitProcessPool.defaultMaximumProcessCount, pool.getMaximumProcessCount());
+                            }
+                            else
+                            {
+                                test.assertSame(pool, pool.setMaximumProcessCount(maximumProcessCount));
+                                test.assertEqual(maximumProcessCount, pool.getMaximumProcessCount());
+                            }
+                        }
+                    });
+                };
+
+                setMaximumProcessCountTest.run(-1, new PreConditionFailure("maximumProcessCount (-1) must be greater than or equal to 1."));
+                setMaximumProcessCountTest.run(0, new PreConditionFailure("maximumProcessCount (0) must be greater than or equal to 1."));
+                setMaximumProcessCountTest.run(1, null);
+                setMaximumProcessCountTest.run(20, null);
+            });
+
+            runner.testGroup("setIdleTimeout(Duration)", () ->
+            {
+                final Action2<Duration,Throwable> setIdleTimeoutTest = (Duration idleTimeout, Throwable expected) ->
+                {
+                    runner.test("with " + idleTimeout,
+                        (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                        (Test test, FakeDesktopProcess process) ->
+                    {
+                        try (final GitProcessPool pool = GitProcessPool.create(Git.create(process), ManualClock.create(DateTime.create(2026, 1, 1))))
+                        {
+                            if (expected != null)
+                            {
+                                test.assertThrows(() -> pool.setIdleTimeout(idleTimeout), expected);
+                                test.assertEqual(GitProcessPool.defaultIdleTimeout, pool.getIdleTimeout());
+                            }
+                            else
+                            {
+                                test.assertSame(pool, pool.setIdleTimeout(idleTimeout));
+                                test.assertEqual(idleTimeout, pool.getIdleTimeout());
+                            }
+                        }
+                    });
+                };
+
+                setIdleTimeoutTest.run(null, new PreConditionFailure("idleTimeout cannot be null."));
+                setIdleTimeoutTest.run(Duration.zero, new PreConditionFailure("idleTimeout.greaterThan(Duration.zero) cannot be false."));
+                setIdleTimeoutTest.run(Duration.seconds(-1), new PreConditionFailure("idleTimeout.greaterThan(Duration.zero) cannot be false."));
+                setIdleTimeoutTest.run(Duration.seconds(5), null);
+            });
+
+            runner.testGroup("checkAttr(Folder,Iterable<String>,Iterable<String>)", () ->
+            {
+                runner.test("with empty attributes",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    try (final GitProcessPool pool = GitProcessPool.create(Git.create(process), ManualClock.create(DateTime.create(2026, 1, 1))))
+                    {
+                        test.assertThrows(() -> pool.checkAttr(GitObjectDatabaseTests.createRepositoryFolder(), Iterable.create(), Iterable.create("a.txt")),
+                            new PreConditionFailure("attributes cannot be empty."));
+                    }
+                });
+
+                runner.test("with no paths",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    try (final GitProcessPool pool = GitProcessPool.create(Git.create(process), ManualClock.create(DateTime.create(2026, 1, 1))))
+                    {
+                        test.assertEqual(Iterable.create(), pool.checkAttr(GitObjectDatabaseTests.createRepositoryFolder(), Iterable.create("text"), Iterable.create()).await());
+                        test.assertEqual(0, pool.getProcessCount());
+                    }
+                });
+            });
+
+            runner.testGroup("checkIgnore(Folder,Iterable<String>)", () ->
+            {
+                runner.test("with null repositoryFolder",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    try (final GitProcessPool pool = GitProcessPool.create(Git.create(process), ManualClock.create(DateTime.create(2026, 1, 1))))
+                    {
+                        test.assertThrows(() -> pool.checkIgnore(null, Iterable.create("a.txt")),
+                            new PreConditionFailure("repositoryFolder cannot be null."));
+                    }
+                });
+
+                runner.test("with path that contains the record terminator",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    try (final GitProcessPool pool = GitProcessPool.create(Git.create(process), ManualClock.create(DateTime.create(2026, 1, 1))))
+                    {
+                        test.assertThrows(() -> pool.checkIgnore(GitObjectDatabaseTests.createRepositoryFolder(), Iterable.create("a\0b")).await(),
+                            new PreConditionFailure("path (\"a\\0b\") must be non-empty and cannot contain the record terminator."));
+                    }
+                });
+            });
+
+            runner.test("dispose()",
+                (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                (Test test, FakeDesktopProcess process) ->
+            {
+                final GitProcessPool pool = GitProcessPool.create(Git.create(process), ManualClock.create(DateTime.create(2026, 1, 1)));
+                test.assertTrue(pool.dispose().await());
+                test.assertTrue(pool.isDisposed());
+                test.assertFalse(pool.dispose().await());
+                test.assertThrows(() -> pool.revParse(GitObjectDatabaseTests.createRepositoryFolder(), Iterable.create("HEAD")).await(),
+                    new GitException("The process pool has been disposed."));
+            });
+
+            if (GitTests.testRealDesktopProcess)
+            {
+                runner.testGroup("with real process", () ->
+                {
+                    runner.test("checkIgnore(Folder,Iterable<String>) reuses its helper",
+                        (TestResources resources) -> Tuple.create(resources.getProcess(), resources.getTemporaryFolder()),
+                        (Test test, DesktopProcess process, Folder tempFolder) ->
+                    {
+                        final Git git = Git.create(process);
+                        GitTests.createRepositoryWithCommit(git, tempFolder, ".gitignore", "*.log\n!keep.log\n");
+
+                        try (final GitProcessPool pool = GitProcessPool.create(git, ManualClock.create(DateTime.create(2026, 1, 1))))
+                        {
+                            for (int i = 0; i < 3; ++i)
+                            {
+                                test.assertEqual(Iterable.create("a.log", "c/d.log"),
+                                    pool.checkIgnore(tempFolder, Iterable.create("a.log", "b.txt", "keep.log", "c/d.log")).await());
+                                test.assertEqual(1, pool.getProcessCount());
+                            }
+                        }
+                    });
+
+                    runner.test("checkAttr(Folder,Iterable<String>,Iterable<String>)",
+                        (TestResources resources) -> Tuple.create(resources.getProcess(), resources.getTemporaryFolder()),
+                        (Test test, DesktopProcess process, Folder tempFolder) ->
+                    {
+                        final Git git = Git.create(process);
+                        GitTests.createRepositoryWithCommit(git, tempFolder, ".gitattributes", "*.txt text eol=lf\n");
+
+                        try (final GitProcessPool pool = GitProcessPool.create(git, ManualClock.create(DateTime.create(2026, 1, 1))))
+                        {
+                            test.assertEqual(
+                                Iterable.create("a.txt: text: set", "a.txt: eol: lf", "b.bin: text: unspecified", "b.bin: eol: unspecified"),
+                                pool.checkAttr(tempFolder, Iterable.create("text", "eol"), Iterable.create("a.txt", "b.bin")).await().map(GitCheckAttrEntry::toString));
+                        }
+                    });
+
+                    runner.test("revParse(Folder,Iterable<String>)",
+                        (TestResources resources) -> Tuple.create(resources.getProcess(), resources.getTemporaryFolder()),
+                        (Test test, DesktopProcess process, Folder tempFolder) ->
+                    {
+                        final Git git = Git.create(process);
+                        GitTests.createRepositoryWithCommit(git, tempFolder, "a.txt", "hello");
+
+                        try (final GitProcessPool pool = GitProcessPool.create(git, ManualClock.create(DateTime.create(2026, 1, 1))))
+                        {
+                            final List<String> objectIds = pool.revParse(tempFolder, Iterable.create("HEAD", "HEAD:a.txt")).await().toList();
+                            test.assertEqual(2, objectIds.getCount());
+                            test.assertEqual(40, objectIds.get(0).length());
+                            test.assertEqual("b6fc4c620b67d95f953a5c1c1230aaab5db5a1b0", objectIds.get(1));
+
+                            test.assertThrows(() -> pool.revParse(tempFolder, Iterable.create("HEAD", "missing")).await(),
+                                new NotFoundException("The revision \"missing\" could not be resolved."));
+                            test.assertEqual(1, pool.getProcessCount());
+                        }
+                    });
+
+                    runner.test("updateRef(Folder,Iterable<String>)",
+                        (TestResources resources) -> Tuple.create(resources.getProcess(), resources.getTemporaryFolder()),
+                        (Test test, DesktopProcess process, Folder tempFolder) ->
+                    {
+                        final Git git = Git.create(process);
+                        GitTests.createRepositoryWithCommit(git, tempFolder, "a.txt", "hello");
+
+                        try (final GitProcessPool pool = GitProcessPool.create(git, ManualClock.create(DateTime.create(2026, 1, 1))))
+                        {
+                            final String head = pool.revParse(tempFolder, Iterable.create("HEAD")).await().first().await();
+                            pool.updateRef(tempFolder, Iterable.create("create refs/heads/b " + head, "create refs/tags/v1 " + head)).await();
+                            test.assertEqual(Iterable.create(head, head), pool.revParse(tempFolder, Iterable.create("refs/heads/b", "refs/tags/v1")).await());
+
+                            // A failed transaction closes its helper, and the next request starts a new one.
+                            test.assertThrows(() -> pool.updateRef(tempFolder, Iterable.create("create refs/heads/b " + head)).await(),
+                                new GitException("git update-ref --stdin exited with code 128: fatal: commit: cannot lock ref 'refs/heads/b': reference already exists."));
+                            pool.updateRef(tempFolder, Iterable.create("delete refs/heads/b " + head)).await();
+                            test.assertThrows(() -> pool.revParse(tempFolder, Iterable.create("refs/heads/b")).await(),
+                                new NotFoundException("The revision \"refs/heads/b\" could not be resolved."));
+                        }
+                    });
+
+                    runner.test("with maximum process count",
+                        (TestResources resources) -> Tuple.create(resources.getProcess(), resources.getTemporaryFolder()),
+                        (Test test, DesktopProcess process, Folder tempFolder) ->
+                    {
+                        final Git git = Git.create(process);
+                        GitTests.createRepositoryWithCommit(git, tempFolder, ".gitignore", "*.log\n");
+
+                        try (final GitProcessPool pool = GitProcessPool.create(git, ManualClock.create(DateTime.create(2026, 1, 1))))
+                        {
+                            pool.setMaximumProcessCount(1);
+                            pool.revParse(tempFolder, Iterable.create("HEAD")).await();
+                            test.assertEqual(Iterable.create("a.log"), pool.checkIgnore(tempFolder, Iterable.create("a.log")).await());
+                            test.assertEqual(1, pool.getProcessCount());
+                        }
+                    });
+
+                    runner.test("evictIdleProcesses()",
+                        (TestResources resources) -> Tuple.create(resources.getProcess(), resources.getTemporaryFolder()),
+                        (Test test, DesktopProcess process, Folder tempFolder) ->
+                    {
+                        final Git git = Git.create(process);
+                        GitTests.createRepositoryWithCommit(git, tempFolder, "a.txt", "hello");
+
+                        final ManualClock clock = ManualClock.create(DateTime.create(2026, 1, 1));
+                        try (final GitProcessPool pool = GitProcessPool.create(git, clock))
+                        {
+                            pool.revParse(tempFolder, Iterable.create("HEAD")).await();
+                            test.assertEqual(0, pool.evictIdleProcesses().await());
+                            test.assertEqual(1, pool.getProcessCount());
+
+                            clock.advance(GitProcessPool.defaultIdleTimeout);
+                            test.assertEqual(1, pool.evictIdleProcesses().await());
+                            test.assertEqual(0, pool.getProcessCount());
+
+                            pool.revParse(tempFolder, Iterable.create("HEAD")).await();
+                            test.assertEqual(1, pool.getProcessCount());
+                        }
+                    });
+                });
+            }
+        });
+    }
+}
@@ -0,0 +1,84 @@
+package qub;
+
+public interface GitProgressEventTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(GitProgressEvent.class, () ->
+        {
+            runner.testGroup("create(GitProgressPhase,boolean,int,long,long,long,long,boolean)", () ->
+            {
+                runner.test("with null phase", (Test test) ->
+                {
+                    test.assertThrows(() -> GitProgressEvent.create(null, false, -1, 0, -1, -1, -1, false),
+                        new PreConditionFailure("phase cannot be null."));
+                });
+
+                runner.test("with percentage greater than 100", (Test test) ->
+                {
+                    test.assertThrows(() -> GitProgressEvent.create(GitProgressPhase.ReceivingObjects, false, 101, 0, -1, -1, -1, false),
+                        new PreConditionFailure("percentage (101) must be between -1 and 100."));
+                });
+
+                runner.test("with negative current", (Test test) ->
+                {
+                    test.assertThrows(() -> GitProgressEvent.create(GitProgressPhase.ReceivingObjects, false, -1, -1, -1, -1, -1, false),
+                        new PreConditionFailure("current (-1) must be greater than or equal to 0."));
+                });
+
+                runner.test("with valid values", (Test test) ->
+                {
+                    final GitProgressEvent event = GitProgressEvent.create(GitProgressPhase.ReceivingObjects, true, 23, 284, 1234, 1000, 500, true);
+                    test.assertSame(GitProgressPhase.ReceivingObjects, event.getPhase());
+                    test.assertTrue(event.isRemote());
+                    test.assertEqual(23, event.getPercentage());
+                    test.assertEqual(284L, event.getCurrent());
+                    test.assertEqual(1234L, event.getTotal());
+                    test.assertEqual(1000L, event.getByteCount());
+                    test.assertEqual(500L, event.getBytesPerSecond());
+                    test.assertTrue(event.isDone());
+                });
+            });
+
+            runner.testGroup("toString()", () ->
+            {
+                final Action2<GitProgressEvent,String> toStringTest = (GitProgressEvent event, String expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(expected), (Test test) ->
+                    {
+                        test.assertEqual(expected, event.toString());
+                    });
+                };
+
+                toStringTest.run(
+                    GitProgressEvent.create(GitProgressPhase.EnumeratingObjects, true, -1, 12, -1, -1, -1, true),
+                    "remote: Enumerating objects: 12, done.");
+                toStringTest.run(
+                    GitProgressEvent.create(GitProgressPhase.ReceivingObjects, false, 23, 284, 1234, 1000, 500, false),
+                    "Receiving objects: 23% (284/1234), 1000 bytes | 500 bytes/s");
+            });
+
+            runner.testGroup("equals(Object)", () ->
+            {
+                final GitProgressEvent event = GitProgressEvent.create(GitProgressPhase.ResolvingDeltas, false, 50, 1, 2, -1, -1, false);
+
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertFalse(event.equals((Object)null));
+                });
+
+                runner.test("with same values", (Test test) ->
+                {
+                    final GitProgressEvent other = GitProgressEvent.create(GitProgressPhase.ResolvingDeltas, false, 50, 1, 2, -1, -1, false);
+                    test.assertTrue(event.equals((Object)other));
+                    test.assertEqual(event.hashCode(), other.hashCode());
+                });
+
+                runner.test("with different done", (Test test) ->
+                {
+                    test.assertFalse(event.equals((Object)GitProgressEvent.create(GitProgressPhase.ResolvingDeltas, false, 50, 1, 2, -1, -1, true)));
+                });
+            });
+        });
+    }
+}
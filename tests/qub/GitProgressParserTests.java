@@ -0,0 +1,200 @@
+package qub;
+
+public interface GitProgressParserTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(GitProgressParser.class, () ->
+        {
+            runner.testGroup("create(Action1<GitProgressEvent>)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> GitProgressParser.create(null),
+                        new PreConditionFailure("progressListener cannot be null."));
+                });
+
+                runner.test("with non-null", (Test test) ->
+                {
+                    final GitProgressParser parser = GitProgressParser.create((GitProgressEvent event) -> {});
+                    test.assertNotNull(parser);
+                    test.assertNull(parser.getMessageListener());
+                });
+            });
+
+            runner.testGroup("setMessageListener(Action1<String>)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final GitProgressParser parser = GitProgressParser.create((GitProgressEvent event) -> {});
+                    test.assertThrows(() -> parser.setMessageListener(null),
+                        new PreConditionFailure("messageListener cannot be null."));
+                    test.assertNull(parser.getMessageListener());
+                });
+
+                runner.test("with non-null", (Test test) ->
+                {
+                    final GitProgressParser parser = GitProgressParser.create((GitProgressEvent event) -> {});
+                    final Action1<String> messageListener = (String message) -> {};
+                    final GitProgressParser setMessageListenerResult = parser.setMessageListener(messageListener);
+                    test.assertSame(parser, setMessageListenerResult);
+                    test.assertSame(messageListener, parser.getMessageListener());
+                });
+            });
+
+            runner.testGroup("parse(String)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> GitProgressParser.parse(null),
+                        new PreConditionFailure("line cannot be null."));
+                });
+
+                final Action2<String,GitProgressEvent> parseTest = (String line, GitProgressEvent expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(line), (Test test) ->
+                    {
+                        test.assertEqual(expected, GitProgressParser.parse(line));
+                    });
+                };
+
+                parseTest.run("", null);
+                parseTest.run("Cloning into 'choosealicense.com'...", null);
+                parseTest.run("remote: Total 1234 (delta 200), reused 0 (delta 0), pack-reused 1034", null);
+                parseTest.run("Receiving objects", null);
+                parseTest.run("Receiving objects: ", null);
+                parseTest.run("Receiving objects: 101% (1/1)", null);
+                parseTest.run("Receiving objects: 50% 1/2", null);
+                parseTest.run("Receiving objects: 50% (1/2", null);
+                parseTest.run("Receiving objects: 50% (1)", null);
+                parseTest.run("Unknown phase: 50% (1/2)", null);
+                parseTest.run(
+                    "remote: Enumerating objects: 1234, done.",
+                    GitProgressEvent.create(GitProgressPhase.EnumeratingObjects, true, -1, 1234, -1, -1, -1, true));
+                parseTest.run(
+                    "remote: Enumerating objects: 17",
+                    GitProgressEvent.create(GitProgressPhase.EnumeratingObjects, true, -1, 17, -1, -1, -1, false));
+                parseTest.run(
+                    "remote: Counting objects:  45% (556/1234)",
+                    GitProgressEvent.create(GitProgressPhase.CountingObjects, true, 45, 556, 1234, -1, -1, false));
+                parseTest.run(
+                    "remote: Counting objects: 100% (1234/1234), done.\u001B[K",
+                    GitProgressEvent.create(GitProgressPhase.CountingObjects, true, 100, 1234, 1234, -1, -1, true));
+                parseTest.run(
+                    "remote: Compressing objects:   3% (12/400)   ",
+                    GitProgressEvent.create(GitProgressPhase.CompressingObjects, true, 3, 12, 400, -1, -1, false));
+                parseTest.run(
+                    "Receiving objects:  23% (284/1234)",
+                    GitProgressEvent.create(GitProgressPhase.ReceivingObjects, false, 23, 284, 1234, -1, -1, false));
+                parseTest.run(
+                    "Receiving objects:  23% (284/1234), 1.20 MiB | 2.34 MiB/s",
+                    GitProgressEvent.create(GitProgressPhase.ReceivingObjects, false, 23, 284, 1234, 1258291, 2453667, false));
+                parseTest.run(
+                    "Receiving objects:  1% (2/200), 12 bytes | 7 bytes/s",
+                    GitProgressEvent.create(GitProgressPhase.ReceivingObjects, false, 1, 2, 200, 12, 7, false));
+                parseTest.run(
+                    "Receiving objects: 100% (1234/1234), 5.50 KiB | 1.00 GiB/s, done.",
+                    GitProgressEvent.create(GitProgressPhase.ReceivingObjects, false, 100, 1234, 1234, 5632, 1073741824, true));
+                parseTest.run(
+                    "Receiving objects:  50% (1/2), 3 furlongs",
+                    GitProgressEvent.create(GitProgressPhase.ReceivingObjects, false, 50, 1, 2, -1, -1, false));
+                parseTest.run(
+                    "Resolving deltas:  50% (100/200)",
+                    GitProgressEvent.create(GitProgressPhase.ResolvingDeltas, false, 50, 100, 200, -1, -1, false));
+                parseTest.run(
+                    "Resolving deltas: 100% (200/200), done.",
+                    GitProgressEvent.create(GitProgressPhase.ResolvingDeltas, false, 100, 200, 200, -1, -1, true));
+                parseTest.run(
+                    "Updating files:  45% (100/222)",
+                    GitProgressEvent.create(GitProgressPhase.CheckingOutFiles, false, 45, 100, 222, -1, -1, false));
+                parseTest.run(
+                    "Checking out files: 100% (222/222), done.",
+                    GitProgressEvent.create(GitProgressPhase.CheckingOutFiles, false, 100, 222, 222, -1, -1, true));
+            });
+
+            runner.testGroup("write(byte[],int,int)", () ->
+            {
+                runner.test("with null bytes", (Test test) ->
+                {
+                    final GitProgressParser parser = GitProgressParser.create((GitProgressEvent event) -> {});
+                    test.assertThrows(() -> parser.write(null, 0, 0),
+                        new PreConditionFailure("bytes cannot be null."));
+                });
+
+                runner.test("with lines split across writes", (Test test) ->
+                {
+                    final List<GitProgressEvent> events = List.create();
+                    final List<String> messages = List.create();
+                    final GitProgressParser parser = GitProgressParser.create(events::add)
+                        .setMessageListener(messages::add);
+
+                    final byte[] bytes = (
+                        "Cloning into 'repo'...\n" +
+                        "Receiving objects:  50% (1/2)\r" +
+                        "Receiving objects: 100% (2/2), done.\n" +
+                        "Resolving deltas: 100% (1/1)"
+                    ).getBytes(java.nio.charset.StandardCharsets.UTF_8);
+                    for (int i = 0; i < bytes.length; i += 5)
+                    {
+                        final GitProgressParser writeResult = parser.write(bytes, i, Math.min(5, bytes.length - i));
+                        test.assertSame(parser, writeResult);
+                    }
+                    test.assertEqual(
+                        Iterable.create(
+                            GitProgressEvent.create(GitProgressPhase.ReceivingObjects, false, 50, 1, 2, -1, -1, false),
+                            GitProgressEvent.create(GitProgressPhase.ReceivingObjects, false, 100, 2, 2, -1, -1, true)),
+                        events);
+                    test.assertEqual(Iterable.create("Cloning into 'repo'..."), messages);
+
+                    final GitProgressParser endOfStreamResult = parser.endOfStream();
+                    test.assertSame(parser, endOfStreamResult);
+                    test.assertEqual(3, events.getCount());
+                    test.assertEqual(GitProgressEvent.create(GitProgressPhase.ResolvingDeltas, false, 100, 1, 1, -1, -1, false), events.last().await());
+
+                    parser.endOfStream();
+                    test.assertEqual(3, events.getCount());
+                });
+
+                runner.test("with line longer than the initial buffer", (Test test) ->
+                {
+                    final List<String> messages = List.create();
+                    final GitProgressParser parser = GitProgressParser.create((GitProgressEvent event) -> {})
+                        .setMessageListener(messages::add);
+                    final StringBuilder longLine = new StringBuilder();
+                    for (int i = 0; i < 1000; ++i)
+                    {
+                        longLine.append((char)('a' + (i % 26)));
+                    }
+                    parser.write((longLine + "\n").getBytes(java.nio.charset.StandardCharsets.UTF_8));
+                    test.assertEqual(Iterable.create(longLine.toString()), messages);
+                });
+            });
+
+            runner.testGroup("readFrom(ByteReadStream)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final GitProgressParser parser = GitProgressParser.create((GitProgressEvent event) -> {});
+                    test.assertThrows(() -> parser.readFrom(null),
+                        new PreConditionFailure("stream cannot be null."));
+                });
+
+                runner.test("with progress lines", (Test test) ->
+                {
+                    final List<GitProgressEvent> events = List.create();
+                    final GitProgressParser parser = GitProgressParser.create(events::add);
+                    final InMemoryByteStream stream = InMemoryByteStream.create(
+                        "remote: Counting objects: 100% (3/3), done.\nReceiving objects: 100% (3/3), 1 byte | 1 byte/s, done."
+                            .getBytes(java.nio.charset.StandardCharsets.UTF_8))
+                        .endOfStream();
+                    parser.readFrom(stream).await();
+                    test.assertEqual(
+                        Iterable.create(
+                            GitProgressEvent.create(GitProgressPhase.CountingObjects, true, 100, 3, 3, -1, -1, true),
+                            GitProgressEvent.create(GitProgressPhase.ReceivingObjects, false, 100, 3, 3, 1, 1, true)),
+                        events);
+                });
+            });
+        });
+    }
+}
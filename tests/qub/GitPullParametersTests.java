@@ -119,6 +119,132 @@ public interface GitPullParametersTests
                     test.assertNull(parameters.getErrorStreamHandler());
                 });
             });
+
+            runner.test("addProgress()", (Test test) ->
+            {
+                final GitPullParameters parameters = GitPullParameters.create();
+                final GitPullParameters addProgressResult = parameters.addProgress();
+                test.assertSame(parameters, addProgressResult);
+                test.assertEqual(Iterable.create("pull", "--progress"), parameters.getArguments());
+                test.assertEqual(Iterable.create(), parameters.getGitArguments());
+                test.assertEqual(Iterable.create("pull", "--progress"), parameters.getCommandArguments());
+            });
+
+            runner.testGroup("setProgressListener(Action1<GitProgressEvent>)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final GitPullParameters parameters = GitPullParameters.create();
+                    test.assertThrows(() -> parameters.setProgressListener(null),
+                        new PreConditionFailure("progressListener cannot be null."));
+                    test.assertEqual(Iterable.create("pull"), parameters.getArguments());
+                    test.assertNull(parameters.getErrorStreamHandler());
+                });
+
+                runner.test("with non-null", (Test test) ->
+                {
+                    final GitPullParameters parameters = GitPullParameters.create();
+                    final List<GitProgressEvent> events = List.create();
+                    final GitPullParameters setProgressListenerResult = parameters.setProgressListener(events::add);
+                    test.assertSame(parameters, setProgressListenerResult);
+                    test.assertEqual(Iterable.create("pull", "--progress"), parameters.getArguments());
+                    test.assertEqual(Iterable.create("pull", "--progress"), parameters.getCommandArguments());
+
+                    final Action1<ByteReadStream> errorStreamHandler = parameters.getErrorStreamHandler();
+                    test.assertNotNull(errorStreamHandler);
+                    errorStreamHandler.run(InMemoryByteStream.create("Resolving deltas: 100% (2/2), done.\n".getBytes(java.nio.charset.StandardCharsets.UTF_8)).endOfStream());
+                    test.assertEqual(
+                        Iterable.create(GitProgressEvent.create(GitProgressPhase.ResolvingDeltas, false, 100, 2, 2, -1, -1, true)),
+                        events);
+                });
+            });
+
+            runner.testGroup("setProgressParser(GitProgressParser)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final GitPullParameters parameters = GitPullParameters.create();
+                    test.assertThrows(() -> parameters.setProgressParser(null),
+                        new PreConditionFailure("progressParser cannot be null."));
+                    test.assertEqual(Iterable.create("pull"), parameters.getArguments());
+                    test.assertNull(parameters.getErrorStreamHandler());
+                });
+
+                runner.test("with non-null", (Test test) ->
+                {
+                    final GitPullParameters parameters = GitPullParameters.create();
+                    final List<String> messages = List.create();
+                    final GitProgressParser progressParser = GitProgressParser.create((GitProgressEvent event) -> {})
+                        .setMessageListener(messages::add);
+                    final GitPullParameters setProgressParserResult = parameters.setProgressParser(progressParser);
+                    test.assertSame(parameters, setProgressParserResult);
+                    test.assertEqual(Iterable.create("pull", "--progress"), parameters.getArguments());
+
+                    parameters.getErrorStreamHandler().run(InMemoryByteStream.create("fatal: repository not found".getBytes(java.nio.charset.StandardCharsets.UTF_8)).endOfStream());
+                    test.assertEqual(Iterable.create("fatal: repository not found"), messages);
+                });
+
+                runner.test("when called more than once", (Test test) ->
+                {
+                    final GitPullParameters parameters = GitPullParameters.create();
+                    final List<String> messages = List.create();
+                    parameters.setProgressListener((GitProgressEvent event) -> {});
+                    parameters.setProgressParser(GitProgressParser.create((GitProgressEvent event) -> {})
+                        .setMessageListener(messages::add));
+                    test.assertEqual(Iterable.create("pull", "--progress"), parameters.getArguments());
+
+                    parameters.getErrorStreamHandler().run(InMemoryByteStream.create("fatal: repository not found".getBytes(java.nio.charset.StandardCharsets.UTF_8)).endOfStream());
+                    test.assertEqual(Iterable.create("fatal: repository not found"), messages);
+                });
+
+                runner.test("after addProgress()", (Test test) ->
+                {
+                    final GitPullParameters parameters = GitPullParameters.create().addProgress();
+                    parameters.setProgressParser(GitProgressParser.create((GitProgressEvent event) -> {}));
+                    test.assertEqual(Iterable.create("pull", "--progress"), parameters.getArguments());
+                });
+            });
+
+            runner.testGroup("addDeepen(int)", () ->
+            {
+                final Action2<Integer,Throwable> addDeepenErrorTest = (Integer depth, Throwable expected) ->
+                {
+                    runner.test("with " + depth, (Test test) ->
+                    {
+                        final GitPullParameters parameters = GitPullParameters.create();
+                        test.assertThrows(() -> parameters.addDeepen(depth),
+                            expected);
+                        test.assertEqual(Iterable.create("pull"), parameters.getArguments());
+                    });
+                };
+
+                addDeepenErrorTest.run(-1, new PreConditionFailure("depth (-1) must be greater than or equal to 1."));
+                addDeepenErrorTest.run(0, new PreConditionFailure("depth (0) must be greater than or equal to 1."));
+
+                final Action1<Integer> addDeepenTest = (Integer depth) ->
+                {
+                    runner.test("with " + depth, (Test test) ->
+                    {
+                        final GitPullParameters parameters = GitPullParameters.create();
+                        final GitPullParameters addDeepenResult = parameters.addDeepen(depth);
+                        test.assertSame(parameters, addDeepenResult);
+                        test.assertEqual(Iterable.create("pull", "--deepen=" + depth), parameters.getArguments());
+                        test.assertEqual(Iterable.create(), parameters.getGitArguments());
+                        test.assertEqual(Iterable.create("pull", "--deepen=" + depth), parameters.getCommandArguments());
+                    });
+                };
+
+                addDeepenTest.run(1);
+                addDeepenTest.run(100);
+            });
+
+            runner.test("addUnshallow()", (Test test) ->
+            {
+                final GitPullParameters parameters = GitPullParameters.create();
+                final GitPullParameters addUnshallowResult = parameters.addUnshallow();
+                test.assertSame(parameters, addUnshallowResult);
+                test.assertEqual(Iterable.create("pull", "--unshallow"), parameters.getArguments());
+            });
         });
     }
 }
@@ -0,0 +1,274 @@
+package qub;
+
+public interface GitReachableObjectsTests
+{
+    /**
+     * A small repository whose history is c1 - c2 - c3. The objects of c1 and c2 are in a pack
+     * file that has a bitmap for each of them, and the objects that c3 added are loose.
+     * <pre>
+     * c1: README (readme1)
+     * c2: README (readme2)
+     * c3: README (readme3), OLD_README (readme1), docs/a.txt (docA)
+     * </pre>
+     */
+    class TestRepository
+    {
+        public final Folder repositoryFolder;
+        public final GitObjectId readme1;
+        public final GitObjectId tree1;
+        public final GitObjectId c1;
+        public final GitObjectId readme2;
+        public final GitObjectId tree2;
+        public final GitObjectId c2;
+        public final GitObjectId readme3;
+        public final GitObjectId docA;
+        public final GitObjectId docsTree;
+        public final GitObjectId tree3;
+        public final GitObjectId c3;
+
+        public TestRepository(boolean bitmaps)
+        {
+            this.repositoryFolder = GitObjectDatabaseTests.createRepositoryFolder();
+            final Folder objectsFolder = this.repositoryFolder.getFolder(".git/objects").await();
+
+            final GitBitmapIndexTests.BitmapBuilder pack = new GitBitmapIndexTests.BitmapBuilder();
+            this.readme1 = pack.addObject(GitObjectType.Blob, "1");
+            this.tree1 = pack.addObject(GitObjectType.Tree, TestRepository.createTree(
+                GitTreeEntry.create(0100644, GitObjectDatabaseTests.toSlice("README"), this.readme1)));
+            this.c1 = pack.addObject(GitObjectType.Commit, TestRepository.createCommit(this.tree1));
+            this.readme2 = pack.addObject(GitObjectType.Blob, "2");
+            this.tree2 = pack.addObject(GitObjectType.Tree, TestRepository.createTree(
+                GitTreeEntry.create(0100644, GitObjectDatabaseTests.toSlice("README"), this.readme2)));
+            this.c2 = pack.addObject(GitObjectType.Commit, TestRepository.createCommit(this.tree2, this.c1));
+            if (bitmaps)
+            {
+                pack.addBitmap(this.c1, 0, this.readme1, this.tree1, this.c1);
+                pack.addBitmap(this.c2, 1, this.readme1, this.tree1, this.c1, this.readme2, this.tree2, this.c2);
+                pack.writeTo(objectsFolder, "pack-1234");
+            }
+            else
+            {
+                pack.writeTo(objectsFolder, "pack-1234");
+                objectsFolder.getFile("pack/pack-1234.bitmap").await().delete().await();
+            }
+
+            this.readme3 = GitObjectDatabaseTests.writeLooseObject(objectsFolder, GitObjectType.Blob, "3");
+            this.docA = GitObjectDatabaseTests.writeLooseObject(objectsFolder, GitObjectType.Blob, "a");
+            this.docsTree = GitObjectDatabaseTests.writeLooseObject(objectsFolder, GitObjectType.Tree, TestRepository.createTree(
+                GitTreeEntry.create(0100644, GitObjectDatabaseTests.toSlice("a.txt"), this.docA)));
+            this.tree3 = GitObjectDatabaseTests.writeLooseObject(objectsFolder, GitObjectType.Tree, TestRepository.createTree(
+                GitTreeEntry.create(0100644, GitObjectDatabaseTests.toSlice("OLD_README"), this.readme1),
+                GitTreeEntry.create(0100644, GitObjectDatabaseTests.toSlice("README"), this.readme3),
+                GitTreeEntry.create(GitTreeEntry.treeMode, GitObjectDatabaseTests.toSlice("docs"), this.docsTree)));
+            this.c3 = GitObjectDatabaseTests.writeLooseObject(objectsFolder, GitObjectType.Commit, TestRepository.createCommit(this.tree3, this.c2));
+        }
+
+        private static byte[] createTree(GitTreeEntry... entries)
+        {
+            return GitObjectDatabaseTests.createTreeContents(Iterable.create(entries));
+        }
+
+        private static byte[] createCommit(GitObjectId treeId, GitObjectId... parentIds)
+        {
+            final StringBuilder contents = new StringBuilder();
+            contents.append("tree ").append(treeId).append('\n');
+            for (final GitObjectId parentId : parentIds)
+            {
+                contents.append("parent ").append(parentId).append('\n');
+            }
+            contents.append("author A U Thor <author@example.com> 1000 +0000\n");
+            contents.append("committer C O Mitter <committer@example.com> 1000 +0000\n");
+            contents.append('\n');
+            contents.append("Commit\n");
+            return contents.toString().getBytes(java.nio.charset.StandardCharsets.UTF_8);
+        }
+
+        public GitObjectDatabase getObjectDatabase()
+        {
+            return GitObjectDatabase.open(this.repositoryFolder).await();
+        }
+
+        public GitReachableObjects getReachableObjects(GitObjectId... objectIds)
+        {
+            return this.getObjectDatabase().getReachableObjects(Iterable.create(objectIds)).await();
+        }
+    }
+
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(GitReachableObjects.class, () ->
+        {
+            runner.testGroup("create(GitBitmapIndex)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final GitReachableObjects objects = GitReachableObjects.create(null);
+                    test.assertEqual(0, objects.getCount());
+                    test.assertEqual(0, objects.getBitmapHitCount());
+                    test.assertEqual(0, objects.getWalkedObjectCount());
+                    test.assertEqual(Iterable.create(), objects.getObjectIds());
+                });
+            });
+
+            runner.testGroup("create(GitObjectDatabase,GitBitmapIndex,Iterable<GitObjectId>)", () ->
+            {
+                runner.test("with null objectDatabase", (Test test) ->
+                {
+                    test.assertThrows(() -> GitReachableObjects.create(null, null, Iterable.create()),
+                        new PreConditionFailure("objectDatabase cannot be null."));
+                });
+
+                runner.test("with null objectIds", (Test test) ->
+                {
+                    final GitObjectDatabase objectDatabase = GitObjectDatabase.open(GitObjectDatabaseTests.createRepositoryFolder()).await();
+                    test.assertThrows(() -> GitReachableObjects.create(objectDatabase, null, null),
+                        new PreConditionFailure("objectIds cannot be null."));
+                });
+
+                runner.test("with missing object", (Test test) ->
+                {
+                    final GitObjectDatabase objectDatabase = GitObjectDatabase.open(GitObjectDatabaseTests.createRepositoryFolder()).await();
+                    final GitObjectId missingId = GitObjectDatabaseTests.getObjectId(GitObjectType.Commit, new byte[] { 'x' });
+                    test.assertThrows(() -> GitReachableObjects.create(objectDatabase, null, Iterable.create(missingId)).await(),
+                        new NotFoundException("Could not find the Git object " + missingId + "."));
+                });
+
+                runner.test("with no objects", (Test test) ->
+                {
+                    final TestRepository repository = new TestRepository(true);
+                    test.assertEqual(0, repository.getReachableObjects().getCount());
+                });
+
+                runner.test("without bitmap index", (Test test) ->
+                {
+                    final TestRepository repository = new TestRepository(false);
+                    final GitReachableObjects objects = repository.getReachableObjects(repository.c3);
+                    test.assertEqual(11, objects.getCount());
+                    test.assertEqual(3, objects.getCount(GitObjectType.Commit));
+                    test.assertEqual(4, objects.getCount(GitObjectType.Tree));
+                    test.assertEqual(4, objects.getCount(GitObjectType.Blob));
+                    test.assertEqual(0, objects.getCount(GitObjectType.Tag));
+                    test.assertEqual(0, objects.getBitmapHitCount());
+                    test.assertEqual(11, objects.getWalkedObjectCount());
+                });
+
+                runner.test("with bitmapped commit", (Test test) ->
+                {
+                    final TestRepository repository = new TestRepository(true);
+                    final GitReachableObjects objects = repository.getReachableObjects(repository.c2);
+                    test.assertEqual(6, objects.getCount());
+                    test.assertEqual(1, objects.getBitmapHitCount());
+                    test.assertEqual(0, objects.getWalkedObjectCount());
+                    test.assertEqual(
+                        Iterable.create(repository.readme1, repository.tree1, repository.c1, repository.readme2, repository.tree2, repository.c2),
+                        objects.getObjectIds());
+                });
+
+                runner.test("with commit after bitmapped commit", (Test test) ->
+                {
+                    final TestRepository repository = new TestRepository(true);
+                    final GitReachableObjects objects = repository.getReachableObjects(repository.c3);
+                    test.assertEqual(11, objects.getCount());
+                    test.assertEqual(3, objects.getCount(GitObjectType.Commit));
+                    test.assertEqual(4, objects.getCount(GitObjectType.Tree));
+                    test.assertEqual(4, objects.getCount(GitObjectType.Blob));
+                    test.assertEqual(1, objects.getBitmapHitCount());
+                    test.assertEqual(5, objects.getWalkedObjectCount());
+                });
+
+                runner.test("with tree", (Test test) ->
+                {
+                    final TestRepository repository = new TestRepository(true);
+                    final GitReachableObjects objects = repository.getReachableObjects(repository.tree3);
+                    test.assertEqual(5, objects.getCount());
+                    test.assertEqual(0, objects.getBitmapHitCount());
+                    test.assertTrue(objects.contains(repository.readme1));
+                    test.assertFalse(objects.contains(repository.c1));
+                });
+            });
+
+            runner.testGroup("contains(GitObjectId)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final GitReachableObjects objects = GitReachableObjects.create(null);
+                    test.assertThrows(() -> objects.contains(null),
+                        new PreConditionFailure("objectId cannot be null."));
+                });
+
+                runner.test("with pack and loose objects", (Test test) ->
+                {
+                    final TestRepository repository = new TestRepository(true);
+                    final GitReachableObjects objects = repository.getReachableObjects(repository.c3);
+                    test.assertTrue(objects.contains(repository.c1));
+                    test.assertTrue(objects.contains(repository.docA));
+                    test.assertTrue(objects.contains(repository.c3));
+                    test.assertFalse(objects.contains(GitObjectDatabaseTests.getObjectId(GitObjectType.Blob, new byte[] { 'x' })));
+                });
+            });
+
+            runner.testGroup("or(GitReachableObjects)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final GitReachableObjects objects = GitReachableObjects.create(null);
+                    test.assertThrows(() -> objects.or(null),
+                        new PreConditionFailure("objects cannot be null."));
+                });
+
+                runner.test("with different bitmap index", (Test test) ->
+                {
+                    final TestRepository repository = new TestRepository(true);
+                    final GitReachableObjects objects = GitReachableObjects.create(null);
+                    test.assertThrows(() -> objects.or(repository.getReachableObjects(repository.c1)),
+                        new PreConditionFailure("this.bitmapIndex == objects.bitmapIndex cannot be false."));
+                });
+
+                runner.test("with objects", (Test test) ->
+                {
+                    final TestRepository repository = new TestRepository(true);
+                    final GitObjectDatabase objectDatabase = repository.getObjectDatabase();
+                    final GitBitmapIndex bitmapIndex = objectDatabase.getBitmapIndex().await();
+                    final GitReachableObjects objects = GitReachableObjects.create(bitmapIndex);
+                    test.assertSame(objects, objects.or(objectDatabase.getReachableObjects(Iterable.create(repository.c1)).await()));
+                    test.assertEqual(3, objects.getCount());
+                    objects.or(objectDatabase.getReachableObjects(Iterable.create(repository.docsTree)).await());
+                    test.assertEqual(5, objects.getCount());
+                    test.assertTrue(objects.contains(repository.docA));
+                });
+            });
+
+            runner.testGroup("andNot(GitReachableObjects)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final GitReachableObjects objects = GitReachableObjects.create(null);
+                    test.assertThrows(() -> objects.andNot(null),
+                        new PreConditionFailure("objects cannot be null."));
+                });
+
+                final Action1<Boolean> andNotTest = (Boolean bitmaps) ->
+                {
+                    runner.test("with " + (bitmaps ? "" : "no ") + "bitmaps", (Test test) ->
+                    {
+                        final TestRepository repository = new TestRepository(bitmaps);
+                        final GitObjectDatabase objectDatabase = repository.getObjectDatabase();
+                        final GitReachableObjects objects = objectDatabase.getReachableObjects(Iterable.create(repository.c3)).await();
+                        test.assertSame(objects, objects.andNot(objectDatabase.getReachableObjects(Iterable.create(repository.c1)).await()));
+                        test.assertEqual(8, objects.getCount());
+                        test.assertFalse(objects.contains(repository.readme1));
+                        test.assertTrue(objects.contains(repository.readme2));
+
+                        objects.andNot(objectDatabase.getReachableObjects(Iterable.create(repository.docsTree)).await());
+                        test.assertEqual(6, objects.getCount());
+                        test.assertEqual(2, objects.getCount(GitObjectType.Commit));
+                        test.assertEqual(2, objects.getCount(GitObjectType.Tree));
+                        test.assertEqual(2, objects.getCount(GitObjectType.Blob));
+                    });
+                };
+                andNotTest.run(false);
+                andNotTest.run(true);
+            });
+        });
+    }
+}
@@ -0,0 +1,357 @@
+package qub;
+
+public interface GitRefDatabaseTests
+{
+    static GitObjectId getObjectId(String name)
+    {
+        return GitPackedRefsTests.getObjectId(name);
+    }
+
+    static void writeFile(Folder repositoryFolder, String path, String contents)
+    {
+        repositoryFolder.createFile(path).await().setContentsAsString(contents).await();
+    }
+
+    static GitRefDatabase open(Folder repositoryFolder)
+    {
+        return GitRefDatabase.open(repositoryFolder).await();
+    }
+
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(GitRefDatabase.class, () ->
+        {
+            final GitObjectId main = GitRefDatabaseTests.getObjectId("main");
+            final GitObjectId packedMain = GitRefDatabaseTests.getObjectId("packed main");
+            final GitObjectId topic = GitRefDatabaseTests.getObjectId("topic");
+            final GitObjectId tag = GitRefDatabaseTests.getObjectId("tag");
+            final GitObjectId tagTarget = GitRefDatabaseTests.getObjectId("tag target");
+            final GitObjectId remoteMain = GitRefDatabaseTests.getObjectId("origin/main");
+
+            // A repository whose HEAD is on main, where main is both loose and packed, topic and
+            // the tag v1 are only packed, and origin's HEAD is a symbolic ref.
+            final Function0<Folder> createRepositoryFolder = () ->
+            {
+                final Folder result = GitObjectDatabaseTests.createRepositoryFolder();
+                GitRefDatabaseTests.writeFile(result, ".git/refs/heads/main", main + "\n");
+                GitRefDatabaseTests.writeFile(result, ".git/refs/remotes/origin/HEAD", "ref: refs/remotes/origin/main\n");
+                GitRefDatabaseTests.writeFile(result, ".git/packed-refs",
+                    "# pack-refs with: peeled fully-peeled sorted \n" +
+                    packedMain + " refs/heads/main\n" +
+                    topic + " refs/heads/topic\n" +
+                    remoteMain + " refs/remotes/origin/main\n" +
+                    tag + " refs/tags/v1\n" +
+                    "^" + tagTarget + "\n");
+                return result;
+            };
+
+            runner.testGroup("create(Folder,Folder,int)", () ->
+            {
+                runner.test("with null gitFolder", (Test test) ->
+                {
+                    final Folder gitFolder = GitObjectDatabaseTests.createRepositoryFolder().getFolder(".git").await();
+                    test.assertThrows(() -> GitRefDatabase.create(null, gitFolder, GitObjectId.sha1Length),
+                        new PreConditionFailure("gitFolder cannot be null."));
+                });
+
+                runner.test("with null commonFolder", (Test test) ->
+                {
+                    final Folder gitFolder = GitObjectDatabaseTests.createRepositoryFolder().getFolder(".git").await();
+                    test.assertThrows(() -> GitRefDatabase.create(gitFolder, null, GitObjectId.sha1Length),
+                        new PreConditionFailure("commonFolder cannot be null."));
+                });
+
+                runner.test("with invalid objectIdLength", (Test test) ->
+                {
+                    final Folder gitFolder = GitObjectDatabaseTests.createRepositoryFolder().getFolder(".git").await();
+                    test.assertThrows(() -> GitRefDatabase.create(gitFolder, gitFolder, 10),
+                        new PreConditionFailure("GitObjectId.isValidLength(objectIdLength) cannot be false."));
+                });
+            });
+
+            runner.testGroup("open(Folder)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> GitRefDatabase.open(null),
+                        new PreConditionFailure("repositoryFolder cannot be null."));
+                });
+
+                runner.test("with folder that isn't a repository", (Test test) ->
+                {
+                    final Folder folder = GitObjectDatabaseTests.createRepositoryFolder().getFileSystem().createFolder("/other/").await();
+                    test.assertThrows(() -> GitRefDatabase.open(folder).await(),
+                        new NotFoundException("Could not find a Git repository at \"/other/\"."));
+                });
+
+                runner.test("with linked worktree", (Test test) ->
+                {
+                    final Folder repositoryFolder = createRepositoryFolder.run();
+                    final GitObjectId worktreeHead = GitRefDatabaseTests.getObjectId("worktree HEAD");
+                    GitRefDatabaseTests.writeFile(repositoryFolder, ".git/worktrees/feature/HEAD", worktreeHead + "\n");
+                    GitRefDatabaseTests.writeFile(repositoryFolder, ".git/worktrees/feature/commondir", "../..\n");
+                    final Folder worktreeFolder = repositoryFolder.getFileSystem().createFolder("/feature/").await();
+                    GitRefDatabaseTests.writeFile(worktreeFolder, ".git", "gitdir: /repo/.git/worktrees/feature\n");
+
+                    final GitRefDatabase refDatabase = GitRefDatabaseTests.open(worktreeFolder);
+                    test.assertEqual(GitRef.create("HEAD", worktreeHead), refDatabase.resolve("HEAD").await());
+                    test.assertEqual(GitRef.create("refs/heads/main", main), refDatabase.resolve("main").await());
+                    test.assertEqual(GitRef.create("refs/heads/topic", topic), refDatabase.resolve("topic").await());
+                });
+            });
+
+            runner.testGroup("getRef(String)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final GitRefDatabase refDatabase = GitRefDatabaseTests.open(createRepositoryFolder.run());
+                    test.assertThrows(() -> refDatabase.getRef(null),
+                        new PreConditionFailure("refName cannot be null."));
+                });
+
+                runner.test("with symbolic ref", (Test test) ->
+                {
+                    final GitRefDatabase refDatabase = GitRefDatabaseTests.open(createRepositoryFolder.run());
+                    test.assertEqual(GitRef.createSymbolic("HEAD", "refs/heads/main"), refDatabase.getRef("HEAD").await());
+                });
+
+                runner.test("with loose ref that hides a packed ref", (Test test) ->
+                {
+                    final GitRefDatabase refDatabase = GitRefDatabaseTests.open(createRepositoryFolder.run());
+                    test.assertEqual(GitRef.create("refs/heads/main", main), refDatabase.getRef("refs/heads/main").await());
+                });
+
+                runner.test("with packed ref", (Test test) ->
+                {
+                    final GitRefDatabase refDatabase = GitRefDatabaseTests.open(createRepositoryFolder.run());
+                    test.assertEqual(GitRef.create("refs/tags/v1", tag, tagTarget), refDatabase.getRef("refs/tags/v1").await());
+                });
+
+                runner.test("with short name", (Test test) ->
+                {
+                    final GitRefDatabase refDatabase = GitRefDatabaseTests.open(createRepositoryFolder.run());
+                    test.assertThrows(() -> refDatabase.getRef("main").await(),
+                        new NotFoundException("Could not find the Git ref \"main\"."));
+                });
+
+                runner.test("with ref name outside of the Git folder", (Test test) ->
+                {
+                    final Folder repositoryFolder = createRepositoryFolder.run();
+                    GitRefDatabaseTests.writeFile(repositoryFolder, "outside", main + "\n");
+                    final GitRefDatabase refDatabase = GitRefDatabaseTests.open(repositoryFolder);
+                    test.assertThrows(() -> refDatabase.getRef("../outside").await(),
+                        new NotFoundException("Could not find the Git ref \"../outside\"."));
+                });
+
+                runner.test("with invalid loose ref", (Test test) ->
+                {
+                    final Folder repositoryFolder = createRepositoryFolder.run();
+                    GitRefDatabaseTests.writeFile(repositoryFolder, ".git/refs/heads/broken", "not an object id\n");
+                    final GitRefDatabase refDatabase = GitRefDatabaseTests.open(repositoryFolder);
+                    test.assertThrows(() -> refDatabase.getRef("refs/heads/broken").await(),
+                        new ParseException("Expected the Git ref \"refs/heads/broken\" to contain an object id or a symbolic ref, but found \"not an object id\"."));
+                });
+
+                runner.test("with no packed-refs file", (Test test) ->
+                {
+                    final GitRefDatabase refDatabase = GitRefDatabaseTests.open(GitObjectDatabaseTests.createRepositoryFolder());
+                    test.assertThrows(() -> refDatabase.getRef("refs/heads/main").await(),
+                        new NotFoundException("Could not find the Git ref \"refs/heads/main\"."));
+                });
+
+                runner.test("with loose ref that changes", (Test test) ->
+                {
+                    final Folder repositoryFolder = createRepositoryFolder.run();
+                    final GitRefDatabase refDatabase = GitRefDatabaseTests.open(repositoryFolder);
+                    test.assertEqual(GitRef.createSymbolic("HEAD", "refs/heads/main"), refDatabase.getRef("HEAD").await());
+
+                    GitRefDatabaseTests.writeFile(repositoryFolder, ".git/HEAD", topic + "\n");
+                    test.assertEqual(GitRef.create("HEAD", topic), refDatabase.getRef("HEAD").await());
+                });
+
+                runner.test("with loose ref that changes within its last modified time", (Test test) ->
+                {
+                    final ManualClock clock = ManualClock.create(DateTime.createFromDurationSinceEpoch(Duration.milliseconds(System.currentTimeMillis())));
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(clock);
+                    fileSystem.createRoot("/").await();
+                    final Folder repositoryFolder = fileSystem.createFolder("/repo/").await();
+                    repositoryFolder.createFolder(".git/objects").await();
+                    GitRefDatabaseTests.writeFile(repositoryFolder, ".git/HEAD", "ref: refs/heads/main\n");
+                    GitRefDatabaseTests.writeFile(repositoryFolder, ".git/refs/heads/main", main + "\n");
+                    final GitRefDatabase refDatabase = GitRefDatabaseTests.open(repositoryFolder);
+                    test.assertEqual(GitRef.create("refs/heads/main", main), refDatabase.getRef("refs/heads/main").await());
+
+                    // The clock doesn't move, so the ref file keeps its size and last modified time.
+                    GitRefDatabaseTests.writeFile(repositoryFolder, ".git/refs/heads/main", topic + "\n");
+                    test.assertEqual(GitRef.create("refs/heads/main", topic), refDatabase.getRef("refs/heads/main").await());
+                });
+
+                runner.test("with loose ref that is deleted", (Test test) ->
+                {
+                    final Folder repositoryFolder = createRepositoryFolder.run();
+                    final GitRefDatabase refDatabase = GitRefDatabaseTests.open(repositoryFolder);
+                    test.assertEqual(GitRef.create("refs/heads/main", main), refDatabase.getRef("refs/heads/main").await());
+
+                    repositoryFolder.getFile(".git/refs/heads/main").await().delete().await();
+                    test.assertEqual(GitRef.create("refs/heads/main", packedMain), refDatabase.getRef("refs/heads/main").await());
+                });
+
+                runner.test("with packed-refs file that changes", (Test test) ->
+                {
+                    final Folder repositoryFolder = createRepositoryFolder.run();
+                    final GitRefDatabase refDatabase = GitRefDatabaseTests.open(repositoryFolder);
+                    test.assertThrows(() -> refDatabase.getRef("refs/heads/new").await(),
+                        new NotFoundException("Could not find the Git ref \"refs/heads/new\"."));
+
+                    final GitObjectId newBranch = GitRefDatabaseTests.getObjectId("new");
+                    GitRefDatabaseTests.writeFile(repositoryFolder, ".git/packed-refs",
+                        "# pack-refs with: peeled fully-peeled sorted \n" +
+                        newBranch + " refs/heads/new\n");
+                    test.assertEqual(GitRef.create("refs/heads/new", newBranch), refDatabase.getRef("refs/heads/new").await());
+                    test.assertThrows(() -> refDatabase.getRef("refs/heads/topic").await(),
+                        new NotFoundException("Could not find the Git ref \"refs/heads/topic\"."));
+                });
+            });
+
+            runner.testGroup("resolve(String)", () ->
+            {
+                runner.test("with empty", (Test test) ->
+                {
+                    final GitRefDatabase refDatabase = GitRefDatabaseTests.open(createRepositoryFolder.run());
+                    test.assertThrows(() -> refDatabase.resolve(""),
+                        new PreConditionFailure("refName cannot be empty."));
+                });
+
+                final Action2<String,GitRef> resolveTest = (String refName, GitRef expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(refName), (Test test) ->
+                    {
+                        final GitRefDatabase refDatabase = GitRefDatabaseTests.open(createRepositoryFolder.run());
+                        test.assertEqual(expected, refDatabase.resolve(refName).await());
+                    });
+                };
+
+                resolveTest.run("HEAD", GitRef.create("refs/heads/main", main));
+                resolveTest.run("main", GitRef.create("refs/heads/main", main));
+                resolveTest.run("heads/topic", GitRef.create("refs/heads/topic", topic));
+                resolveTest.run("refs/heads/topic", GitRef.create("refs/heads/topic", topic));
+                resolveTest.run("v1", GitRef.create("refs/tags/v1", tag, tagTarget));
+                resolveTest.run("origin/main", GitRef.create("refs/remotes/origin/main", remoteMain));
+                resolveTest.run("origin", GitRef.create("refs/remotes/origin/main", remoteMain));
+
+                runner.test("with tag and branch with the same name", (Test test) ->
+                {
+                    final Folder repositoryFolder = createRepositoryFolder.run();
+                    GitRefDatabaseTests.writeFile(repositoryFolder, ".git/refs/tags/main", tag + "\n");
+                    final GitRefDatabase refDatabase = GitRefDatabaseTests.open(repositoryFolder);
+                    test.assertEqual(GitRef.create("refs/tags/main", tag), refDatabase.resolve("main").await());
+                });
+
+                runner.test("with branch with the same name as a file in the Git folder", (Test test) ->
+                {
+                    final Folder repositoryFolder = createRepositoryFolder.run();
+                    GitRefDatabaseTests.writeFile(repositoryFolder, ".git/config", "[core]\n\tbare = false\n");
+                    GitRefDatabaseTests.writeFile(repositoryFolder, ".git/refs/heads/config", topic + "\n");
+                    final GitRefDatabase refDatabase = GitRefDatabaseTests.open(repositoryFolder);
+                    test.assertEqual(GitRef.create("refs/heads/config", topic), refDatabase.resolve("config").await());
+                });
+
+                runner.test("with missing ref", (Test test) ->
+                {
+                    final GitRefDatabase refDatabase = GitRefDatabaseTests.open(createRepositoryFolder.run());
+                    test.assertThrows(() -> refDatabase.resolve("missing").await(),
+                        new NotFoundException("Could not find the Git ref \"missing\"."));
+                    test.assertEqual(0, refDatabase.getCachedLooseRefCount());
+                });
+
+                runner.test("doesn't cache missing loose refs", (Test test) ->
+                {
+                    final GitRefDatabase refDatabase = GitRefDatabaseTests.open(createRepositoryFolder.run());
+                    test.assertEqual(GitRef.create("refs/heads/topic", topic), refDatabase.resolve("topic").await());
+                    test.assertEqual(0, refDatabase.getCachedLooseRefCount());
+
+                    test.assertEqual(GitRef.create("refs/heads/main", main), refDatabase.resolve("main").await());
+                    test.assertEqual(1, refDatabase.getCachedLooseRefCount());
+                });
+
+                runner.test("with unborn branch", (Test test) ->
+                {
+                    final GitRefDatabase refDatabase = GitRefDatabaseTests.open(GitObjectDatabaseTests.createRepositoryFolder());
+                    test.assertThrows(() -> refDatabase.resolve("HEAD").await(),
+                        new NotFoundException("Could not find the Git ref \"refs/heads/main\"."));
+                });
+
+                runner.test("with symbolic ref cycle", (Test test) ->
+                {
+                    final Folder repositoryFolder = createRepositoryFolder.run();
+                    GitRefDatabaseTests.writeFile(repositoryFolder, ".git/refs/heads/a", "ref: refs/heads/b\n");
+                    GitRefDatabaseTests.writeFile(repositoryFolder, ".git/refs/heads/b", "ref: refs/heads/a\n");
+                    final GitRefDatabase refDatabase = GitRefDatabaseTests.open(repositoryFolder);
+                    test.assertThrows(() -> refDatabase.resolve("refs/heads/a").await(),
+                        new NotFoundException("Could not resolve the Git ref \"refs/heads/a\" because it refers to more than 5 symbolic refs."));
+                });
+            });
+
+            runner.testGroup("resolveObjectId(String)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final GitRefDatabase refDatabase = GitRefDatabaseTests.open(createRepositoryFolder.run());
+                    test.assertThrows(() -> refDatabase.resolveObjectId(null),
+                        new PreConditionFailure("refName cannot be null."));
+                });
+
+                runner.test("with HEAD", (Test test) ->
+                {
+                    final GitRefDatabase refDatabase = GitRefDatabaseTests.open(createRepositoryFolder.run());
+                    test.assertEqual(main, refDatabase.resolveObjectId("HEAD").await());
+                    test.assertEqual(tag, refDatabase.resolveObjectId("v1").await());
+                });
+            });
+
+            runner.testGroup("getRefs(String)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final GitRefDatabase refDatabase = GitRefDatabaseTests.open(createRepositoryFolder.run());
+                    test.assertThrows(() -> refDatabase.getRefs(null),
+                        new PreConditionFailure("prefix cannot be null."));
+                });
+
+                runner.test("with branches", (Test test) ->
+                {
+                    final Folder repositoryFolder = createRepositoryFolder.run();
+                    final GitObjectId feature = GitRefDatabaseTests.getObjectId("feature");
+                    GitRefDatabaseTests.writeFile(repositoryFolder, ".git/refs/heads/users/feature", feature + "\n");
+                    GitRefDatabaseTests.writeFile(repositoryFolder, ".git/refs/heads/users/feature.lock", topic + "\n");
+                    final GitRefDatabase refDatabase = GitRefDatabaseTests.open(repositoryFolder);
+                    test.assertEqual(
+                        Iterable.create(
+                            GitRef.create("refs/heads/main", main),
+                            GitRef.create("refs/heads/topic", topic),
+                            GitRef.create("refs/heads/users/feature", feature)),
+                        refDatabase.getRefs("refs/heads/").await());
+                });
+
+                runner.test("with all refs", (Test test) ->
+                {
+                    final GitRefDatabase refDatabase = GitRefDatabaseTests.open(createRepositoryFolder.run());
+                    test.assertEqual(
+                        Iterable.create(
+                            GitRef.create("refs/heads/main", main),
+                            GitRef.create("refs/heads/topic", topic),
+                            GitRef.createSymbolic("refs/remotes/origin/HEAD", "refs/remotes/origin/main"),
+                            GitRef.create("refs/remotes/origin/main", remoteMain),
+                            GitRef.create("refs/tags/v1", tag, tagTarget)),
+                        refDatabase.getRefs("refs/").await());
+                });
+
+                runner.test("with no refs", (Test test) ->
+                {
+                    final GitRefDatabase refDatabase = GitRefDatabaseTests.open(GitObjectDatabaseTests.createRepositoryFolder());
+                    test.assertEqual(Iterable.create(), refDatabase.getRefs("refs/").await());
+                });
+            });
+        });
+    }
+}
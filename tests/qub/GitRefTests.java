@@ -0,0 +1,84 @@
+package qub;
+
+public interface GitRefTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(GitRef.class, () ->
+        {
+            final GitObjectId objectId = GitObjectDatabaseTests.getObjectId(GitObjectType.Commit, new byte[] { 'a' });
+            final GitObjectId peeledObjectId = GitObjectDatabaseTests.getObjectId(GitObjectType.Commit, new byte[] { 'b' });
+
+            runner.testGroup("create(String,GitObjectId)", () ->
+            {
+                runner.test("with null name", (Test test) ->
+                {
+                    test.assertThrows(() -> GitRef.create(null, objectId),
+                        new PreConditionFailure("name cannot be null."));
+                });
+
+                runner.test("with empty name", (Test test) ->
+                {
+                    test.assertThrows(() -> GitRef.create("", objectId),
+                        new PreConditionFailure("name cannot be empty."));
+                });
+
+                runner.test("with null objectId", (Test test) ->
+                {
+                    test.assertThrows(() -> GitRef.create("refs/heads/main", null),
+                        new PreConditionFailure("objectId cannot be null."));
+                });
+
+                runner.test("with valid arguments", (Test test) ->
+                {
+                    final GitRef ref = GitRef.create("refs/heads/main", objectId);
+                    test.assertEqual("refs/heads/main", ref.getName());
+                    test.assertFalse(ref.isSymbolic());
+                    test.assertNull(ref.getTargetName());
+                    test.assertEqual(objectId, ref.getObjectId());
+                    test.assertNull(ref.getPeeledObjectId());
+                    test.assertEqual("refs/heads/main " + objectId, ref.toString());
+                });
+            });
+
+            runner.test("create(String,GitObjectId,GitObjectId)", (Test test) ->
+            {
+                final GitRef ref = GitRef.create("refs/tags/v1", objectId, peeledObjectId);
+                test.assertEqual(objectId, ref.getObjectId());
+                test.assertEqual(peeledObjectId, ref.getPeeledObjectId());
+            });
+
+            runner.testGroup("createSymbolic(String,String)", () ->
+            {
+                runner.test("with null targetName", (Test test) ->
+                {
+                    test.assertThrows(() -> GitRef.createSymbolic("HEAD", null),
+                        new PreConditionFailure("targetName cannot be null."));
+                });
+
+                runner.test("with valid arguments", (Test test) ->
+                {
+                    final GitRef ref = GitRef.createSymbolic("HEAD", "refs/heads/main");
+                    test.assertEqual("HEAD", ref.getName());
+                    test.assertTrue(ref.isSymbolic());
+                    test.assertEqual("refs/heads/main", ref.getTargetName());
+                    test.assertNull(ref.getObjectId());
+                    test.assertEqual("HEAD -> refs/heads/main", ref.toString());
+                });
+            });
+
+            runner.test("equals(Object)", (Test test) ->
+            {
+                final GitRef ref = GitRef.create("refs/heads/main", objectId);
+                test.assertTrue(ref.equals((Object)GitRef.create("refs/heads/main", objectId)));
+                test.assertFalse(ref.equals((Object)GitRef.create("refs/heads/other", objectId)));
+                test.assertFalse(ref.equals((Object)GitRef.create("refs/heads/main", peeledObjectId)));
+                test.assertFalse(ref.equals((Object)GitRef.create("refs/heads/main", objectId, peeledObjectId)));
+                test.assertFalse(ref.equals((Object)GitRef.createSymbolic("refs/heads/main", "refs/heads/other")));
+                test.assertFalse(ref.equals((Object)null));
+                test.assertFalse(ref.equals((Object)"refs/heads/main"));
+                test.assertEqual(ref.hashCode(), GitRef.create("refs/heads/main", objectId).hashCode());
+            });
+        });
+    }
+}
@@ -0,0 +1,142 @@
+package qub;
+
+public interface GitStatusEntryTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(GitStatusEntry.class, () ->
+        {
+            runner.testGroup("createChanged(char,char,String)", () ->
+            {
+                runner.test("with no changes", (Test test) ->
+                {
+                    test.assertThrows(() -> GitStatusEntry.createChanged('.', '.', "a.txt"),
+                        new PreConditionFailure("indexStatus != GitStatusEntry.unchanged || worktreeStatus != GitStatusEntry.unchanged cannot be false."));
+                });
+
+                runner.test("with empty path", (Test test) ->
+                {
+                    test.assertThrows(() -> GitStatusEntry.createChanged('M', '.', ""),
+                        new PreConditionFailure("path cannot be empty."));
+                });
+
+                runner.test("with staged and unstaged changes", (Test test) ->
+                {
+                    final GitStatusEntry entry = GitStatusEntry.createChanged('A', 'M', "a.txt");
+                    test.assertEqual(GitStatusEntry.changedType, entry.getType());
+                    test.assertEqual('A', entry.getIndexStatus());
+                    test.assertEqual('M', entry.getWorktreeStatus());
+                    test.assertEqual("a.txt", entry.getPath());
+                    test.assertTrue(entry.isStaged());
+                    test.assertTrue(entry.isUnstaged());
+                    test.assertFalse(entry.isUnmerged());
+                    test.assertFalse(entry.isUntracked());
+                    test.assertFalse(entry.isIgnored());
+                    test.assertEqual("1 AM a.txt", entry.toString());
+                });
+
+                runner.test("with only unstaged changes", (Test test) ->
+                {
+                    final GitStatusEntry entry = GitStatusEntry.createChanged('.', 'D', "a.txt");
+                    test.assertFalse(entry.isStaged());
+                    test.assertTrue(entry.isUnstaged());
+                    test.assertEqual("1 .D a.txt", entry.toString());
+                });
+            });
+
+            runner.test("createUnmerged(char,char,String)", (Test test) ->
+            {
+                final GitStatusEntry entry = GitStatusEntry.createUnmerged('U', 'D', "a.txt");
+                test.assertEqual(GitStatusEntry.unmergedType, entry.getType());
+                test.assertTrue(entry.isUnmerged());
+                test.assertFalse(entry.isStaged());
+                test.assertFalse(entry.isUnstaged());
+                test.assertEqual("u UD a.txt", entry.toString());
+            });
+
+            runner.test("createUntracked(String)", (Test test) ->
+            {
+                final GitStatusEntry entry = GitStatusEntry.createUntracked("build/");
+                test.assertTrue(entry.isUntracked());
+                test.assertEqual('.', entry.getIndexStatus());
+                test.assertEqual('.', entry.getWorktreeStatus());
+                test.assertEqual("? build/", entry.toString());
+            });
+
+            runner.test("createIgnored(String)", (Test test) ->
+            {
+                final GitStatusEntry entry = GitStatusEntry.createIgnored("debug.log");
+                test.assertTrue(entry.isIgnored());
+                test.assertEqual("! debug.log", entry.toString());
+            });
+
+            runner.testGroup("getUnmergedCode(boolean,boolean,boolean)", () ->
+            {
+                runner.test("with each combination of stages", (Test test) ->
+                {
+                    test.assertEqual("DD", GitStatusEntry.getUnmergedCode(true, false, false));
+                    test.assertEqual("AU", GitStatusEntry.getUnmergedCode(false, true, false));
+                    test.assertEqual("UD", GitStatusEntry.getUnmergedCode(true, true, false));
+                    test.assertEqual("UA", GitStatusEntry.getUnmergedCode(false, false, true));
+                    test.assertEqual("DU", GitStatusEntry.getUnmergedCode(true, false, true));
+                    test.assertEqual("AA", GitStatusEntry.getUnmergedCode(false, true, true));
+                    test.assertEqual("UU", GitStatusEntry.getUnmergedCode(true, true, true));
+                });
+
+                runner.test("with no stages", (Test test) ->
+                {
+                    test.assertThrows(() -> GitStatusEntry.getUnmergedCode(false, false, false),
+                        new PreConditionFailure("hasBase || hasOurs || hasTheirs cannot be false."));
+                });
+            });
+
+            runner.testGroup("parse(String)", () ->
+            {
+                final Action2<String,GitStatusEntry> parseTest = (String record, GitStatusEntry expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(record), (Test test) ->
+                    {
+                        test.assertEqual(expected, GitStatusEntry.parse(record).await());
+                    });
+                };
+
+                final String objectIds = GitIndexTests.getObjectId("a") + " " + GitIndexTests.getObjectId("b");
+                parseTest.run("1 .M N... 100644 100644 100644 " + objectIds + " src/a b.txt", GitStatusEntry.createChanged('.', 'M', "src/a b.txt"));
+                parseTest.run("1 D. N... 100644 000000 000000 " + objectIds + " a.txt", GitStatusEntry.createChanged('D', '.', "a.txt"));
+                parseTest.run("2 R. N... 100644 100644 100644 " + objectIds + " R100 new.txt\told.txt", GitStatusEntry.createChanged('R', '.', "new.txt"));
+                parseTest.run("u UU N... 100644 100644 100644 100644 " + objectIds + " " + GitIndexTests.getObjectId("c") + " a.txt", GitStatusEntry.createUnmerged('U', 'U', "a.txt"));
+                parseTest.run("? build/", GitStatusEntry.createUntracked("build/"));
+                parseTest.run("! debug.log", GitStatusEntry.createIgnored("debug.log"));
+
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> GitStatusEntry.parse(null),
+                        new PreConditionFailure("record cannot be null."));
+                });
+
+                runner.test("with header line", (Test test) ->
+                {
+                    test.assertThrows(() -> GitStatusEntry.parse("# branch.oid (initial)").await(),
+                        new ParseException("Unknown git status record type: \"#\""));
+                });
+
+                runner.test("with missing fields", (Test test) ->
+                {
+                    test.assertThrows(() -> GitStatusEntry.parse("1 .M N... a.txt").await(),
+                        new ParseException("Expected a git status record of type \"1\" to have 9 fields: \"1 .M N... a.txt\""));
+                });
+            });
+
+            runner.test("equals(Object)", (Test test) ->
+            {
+                final GitStatusEntry entry = GitStatusEntry.createChanged('M', '.', "a.txt");
+                test.assertEqual(GitStatusEntry.createChanged('M', '.', "a.txt"), entry);
+                test.assertEqual(entry.hashCode(), GitStatusEntry.createChanged('M', '.', "a.txt").hashCode());
+                test.assertNotEqual(GitStatusEntry.createChanged('.', 'M', "a.txt"), entry);
+                test.assertNotEqual(GitStatusEntry.createUnmerged('M', '.', "a.txt"), entry);
+                test.assertNotEqual(GitStatusEntry.createChanged('M', '.', "b.txt"), entry);
+                test.assertFalse(entry.equals((Object)"1 M. a.txt"));
+            });
+        });
+    }
+}
@@ -0,0 +1,711 @@
+package qub;
+
+public interface GitStatusScannerTests
+{
+    /**
+     * A working tree on an in-memory file system whose clock only moves when it is advanced, so
+     * the tests control which files look changed to the index.
+     */
+    class TestWorkingTree
+    {
+        public final ManualClock clock;
+        public final Folder folder;
+        public final Folder objectsFolder;
+        public GitObjectId headTreeId;
+
+        public TestWorkingTree()
+        {
+            this.clock = ManualClock.create(DateTime.create(2026, 1, 1));
+            final InMemoryFileSystem fileSystem = InMemoryFileSystem.create(this.clock);
+            fileSystem.createRoot("/").await();
+            this.folder = fileSystem.createFolder("/repo/").await();
+            this.objectsFolder = this.folder.createFolder(".git/objects").await();
+            this.writeFile(".git/HEAD", "ref: refs/heads/main\n");
+        }
+
+        public TestWorkingTree advance()
+        {
+            this.clock.advance(Duration.seconds(10));
+            return this;
+        }
+
+        public TestWorkingTree writeFile(String path, String contents)
+        {
+            this.folder.createFile(path).await().setContentsAsString(contents).await();
+            return this;
+        }
+
+        public TestWorkingTree deleteFile(String path)
+        {
+            this.folder.getFile(path).await().delete().await();
+            return this;
+        }
+
+        /**
+         * Write a commit with the provided files and point the main branch at it.
+         * @param pathsAndContents The path of each file followed by its contents.
+         * @return This object for method chaining.
+         */
+        public TestWorkingTree commit(String... pathsAndContents)
+        {
+            final java.util.TreeMap<String,String> files = new java.util.TreeMap<>();
+            for (int i = 0; i < pathsAndContents.length; i += 2)
+            {
+                files.put(pathsAndContents[i], pathsAndContents[i + 1]);
+            }
+            this.headTreeId = this.writeTree(files);
+            final GitObjectId commitId = GitObjectDatabaseTests.writeLooseObject(this.objectsFolder, GitObjectType.Commit,
+                "tree " + this.headTreeId + "\n" +
+                "author A U Thor <author@example.com> 1000 +0000\n" +
+                "committer C O Mitter <committer@example.com> 1000 +0000\n" +
+                "\n" +
+                "Commit\n");
+            return this.writeFile(".git/refs/heads/main", commitId + "\n");
+        }
+
+        /**
+         * Write a tree with the provided files. Like Git, the tree's entries are sorted as if the
+         * names of its subtrees ended with '/'.
+         */
+        private GitObjectId writeTree(java.util.SortedMap<String,String> files)
+        {
+            final java.util.TreeMap<String,java.util.TreeMap<String,String>> folders = new java.util.TreeMap<>();
+            final java.util.TreeMap<String,GitTreeEntry> sortedEntries = new java.util.TreeMap<>();
+            for (final java.util.Map.Entry<String,String> file : files.entrySet())
+            {
+                final String path = file.getKey();
+                final int slashIndex = path.indexOf('/');
+                if (slashIndex == -1)
+                {
+                    final GitObjectId blobId = GitObjectDatabaseTests.writeLooseObject(this.objectsFolder, GitObjectType.Blob, file.getValue());
+                    sortedEntries.put(path, GitTreeEntry.create(0100644, GitObjectDatabaseTests.toSlice(path), blobId));
+                }
+                else
+                {
+                    folders.computeIfAbsent(path.substring(0, slashIndex), (String folderName) -> new java.util.TreeMap<>())
+                        .put(path.substring(slashIndex + 1), file.getValue());
+                }
+            }
+            for (final java.util.Map.Entry<String,java.util.TreeMap<String,String>> folder : folders.entrySet())
+            {
+                sortedEntries.put(folder.getKey() + "/", GitTreeEntry.create(GitTreeEntry.treeMode, GitObjectDatabaseTests.toSlice(folder.getKey()), this.writeTree(folder.getValue())));
+            }
+            final List<GitTreeEntry> entries = List.create();
+            entries.addAll(sortedEntries.values());
+            return GitObjectDatabaseTests.writeLooseObject(this.objectsFolder, GitObjectType.Tree, GitObjectDatabaseTests.createTreeContents(entries));
+        }
+
+        /**
+         * Add an index entry whose stat data and blob id match the provided working tree file.
+         * @param builder The index builder to add the entry to.
+         * @param path The path of the working tree file.
+         * @return The index builder.
+         */
+        public GitIndexTests.IndexBuilder addEntry(GitIndexTests.IndexBuilder builder, String path)
+        {
+            final File file = this.folder.getFile(path).await();
+            final GitFileStat stat = GitFileStat.get(file);
+            final GitObjectId objectId = GitIndexTests.getObjectId(file.getContentsAsString().await());
+            return builder.addEntry(path, objectId, 0100644, stat.getSize(), stat.getMtimeSeconds());
+        }
+
+        /**
+         * Write an index whose entries match the provided working tree files.
+         * @param paths The paths of the working tree files, in index order.
+         * @return This object for method chaining.
+         */
+        public TestWorkingTree writeIndex(String... paths)
+        {
+            final GitIndexTests.IndexBuilder builder = new GitIndexTests.IndexBuilder(2);
+            for (final String path : paths)
+            {
+                this.addEntry(builder, path);
+            }
+            return this.writeIndex(builder);
+        }
+
+        public TestWorkingTree writeIndex(GitIndexTests.IndexBuilder builder)
+        {
+            this.folder.createFile(".git/index").await().setContents(builder.getBytes()).await();
+            return this;
+        }
+
+        public GitStatus scan()
+        {
+            return GitStatusScanner.create(this.folder).scan().await();
+        }
+    }
+
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(GitStatusScanner.class, () ->
+        {
+            runner.testGroup("create(Folder)", () ->
+            {
+                runner.test("with null workingTreeFolder", (Test test) ->
+                {
+                    test.assertThrows(() -> GitStatusScanner.create(null),
+                        new PreConditionFailure("workingTreeFolder cannot be null."));
+                });
+
+                runner.test("with folder", (Test test) ->
+                {
+                    final Folder folder = GitObjectDatabaseTests.createRepositoryFolder();
+                    final GitStatusScanner scanner = GitStatusScanner.create(folder);
+                    test.assertSame(folder, scanner.getWorkingTreeFolder());
+                    test.assertSame(java.util.concurrent.ForkJoinPool.commonPool(), scanner.getForkJoinPool());
+                    test.assertTrue(scanner.getIncludeUntracked());
+                });
+            });
+
+            runner.testGroup("setForkJoinPool(ForkJoinPool)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final GitStatusScanner scanner = GitStatusScanner.create(GitObjectDatabaseTests.createRepositoryFolder());
+                    test.assertThrows(() -> scanner.setForkJoinPool(null),
+                        new PreConditionFailure("forkJoinPool cannot be null."));
+                });
+
+                runner.test("with pool", (Test test) ->
+                {
+                    final java.util.concurrent.ForkJoinPool pool = new java.util.concurrent.ForkJoinPool(2);
+                    try
+                    {
+                        final GitStatusScanner scanner = GitStatusScanner.create(GitObjectDatabaseTests.createRepositoryFolder());
+                        test.assertSame(scanner, scanner.setForkJoinPool(pool));
+                        test.assertSame(pool, scanner.getForkJoinPool());
+                    }
+                    finally
+                    {
+                        pool.shutdown();
+                    }
+                });
+            });
+
+            runner.test("setIncludeUntracked(boolean)", (Test test) ->
+            {
+                final GitStatusScanner scanner = GitStatusScanner.create(GitObjectDatabaseTests.createRepositoryFolder());
+                test.assertSame(scanner, scanner.setIncludeUntracked(false));
+                test.assertFalse(scanner.getIncludeUntracked());
+            });
+
+            runner.testGroup("setHomeFolder(Folder)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final GitStatusScanner scanner = GitStatusScanner.create(GitObjectDatabaseTests.createRepositoryFolder());
+                    test.assertThrows(() -> scanner.setHomeFolder(null),
+                        new PreConditionFailure("homeFolder cannot be null."));
+                    test.assertNull(scanner.getHomeFolder());
+                });
+
+                runner.test("with folder", (Test test) ->
+                {
+                    final Folder repositoryFolder = GitObjectDatabaseTests.createRepositoryFolder();
+                    final Folder homeFolder = repositoryFolder.getFileSystem().createFolder("/home/user/").await();
+                    final GitStatusScanner scanner = GitStatusScanner.create(repositoryFolder);
+                    test.assertSame(scanner, scanner.setHomeFolder(homeFolder));
+                    test.assertSame(homeFolder, scanner.getHomeFolder());
+                });
+            });
+
+            runner.testGroup("setGit(Git)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final GitStatusScanner scanner = GitStatusScanner.create(GitObjectDatabaseTests.createRepositoryFolder());
+                    test.assertThrows(() -> scanner.setGit(null),
+                        new PreConditionFailure("git cannot be null."));
+                    test.assertNull(scanner.getGit());
+                });
+
+                runner.test("with Git",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final GitStatusScanner scanner = GitStatusScanner.create(GitObjectDatabaseTests.createRepositoryFolder());
+                    final Git git = Git.create(process);
+                    test.assertSame(scanner, scanner.setGit(git));
+                    test.assertSame(git, scanner.getGit());
+                });
+            });
+
+            runner.testGroup("configMayConvertContents(String)", () ->
+            {
+                final Action2<String,Boolean> configMayConvertContentsTest = (String text, Boolean expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(text), (Test test) ->
+                    {
+                        test.assertEqual(expected, GitStatusScanner.configMayConvertContents(text));
+                    });
+                };
+
+                configMayConvertContentsTest.run(null, false);
+                configMayConvertContentsTest.run("", false);
+                configMayConvertContentsTest.run("[core]\n\tbare = false\n", false);
+                configMayConvertContentsTest.run("[core]\n\tautocrlf = false\n", false);
+                configMayConvertContentsTest.run("[core]\n\tautocrlf = true\n", true);
+                configMayConvertContentsTest.run("[core]\n\tautocrlf = input ; comment\n", true);
+                configMayConvertContentsTest.run("[core]\n\tautocrlf\n", true);
+                configMayConvertContentsTest.run("[CORE]\n\tAutoCRLF = \"true\"\n", true);
+                configMayConvertContentsTest.run("[core] autocrlf = true\n", true);
+                configMayConvertContentsTest.run("[user]\n\tautocrlf = true\n", false);
+                configMayConvertContentsTest.run("[core]\n\tattributesFile = ~/.gitattributes\n", true);
+                configMayConvertContentsTest.run("[filter \"lfs\"]\n\tclean = git-lfs clean -- %f\n", true);
+                configMayConvertContentsTest.run("[include]\n\tpath = other.gitconfig\n", true);
+                configMayConvertContentsTest.run("[includeIf \"gitdir:~/work/\"]\n\tpath = work.gitconfig\n", true);
+            });
+
+            runner.testGroup("attributesMayConvertContents(String)", () ->
+            {
+                final Action2<String,Boolean> attributesMayConvertContentsTest = (String text, Boolean expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(text), (Test test) ->
+                    {
+                        test.assertEqual(expected, GitStatusScanner.attributesMayConvertContents(text));
+                    });
+                };
+
+                attributesMayConvertContentsTest.run(null, false);
+                attributesMayConvertContentsTest.run("", false);
+                attributesMayConvertContentsTest.run("# * text\n", false);
+                attributesMayConvertContentsTest.run("*.png binary\n", false);
+                attributesMayConvertContentsTest.run("*.md linguist-documentation\n", false);
+                attributesMayConvertContentsTest.run("* -text\n", false);
+                attributesMayConvertContentsTest.run("* !eol\n", false);
+                attributesMayConvertContentsTest.run("text -diff\n", false);
+                attributesMayConvertContentsTest.run("* text=auto\n", true);
+                attributesMayConvertContentsTest.run("*.sh eol=lf\n", true);
+                attributesMayConvertContentsTest.run("*.bin filter=lfs diff=lfs merge=lfs -text\n", true);
+                attributesMayConvertContentsTest.run("*.c\tident\n", true);
+                attributesMayConvertContentsTest.run("*.txt working-tree-encoding=UTF-16LE\n", true);
+            });
+
+            runner.testGroup("getCoreConfigValue(String,String)", () ->
+            {
+                final Action2<String,String> getCoreConfigValueTest = (String text, String expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(text), (Test test) ->
+                    {
+                        test.assertEqual(expected, GitStatusScanner.getCoreConfigValue(text, "excludesfile"));
+                    });
+                };
+
+                getCoreConfigValueTest.run(null, null);
+                getCoreConfigValueTest.run("", null);
+                getCoreConfigValueTest.run("[user]\n\texcludesFile = a\n", null);
+                getCoreConfigValueTest.run("[core]\n\texcludesFile = ~/.gitignore\n", "~/.gitignore");
+                getCoreConfigValueTest.run("[CORE]\n\tExcludesFile = /etc/ignore ; comment\n", "/etc/ignore");
+                getCoreConfigValueTest.run("[core]\n\texcludesFile = \"my ignore;file\"\n", "my ignore;file");
+                getCoreConfigValueTest.run("[core] excludesFile = a\n[core]\n\texcludesFile = b\n", "b");
+            });
+
+            runner.testGroup("scan()", () ->
+            {
+                final Function0<TestWorkingTree> createCommittedTree = () ->
+                {
+                    final TestWorkingTree workingTree = new TestWorkingTree()
+                        .writeFile("a.txt", "a")
+                        .writeFile("src/b.txt", "b")
+                        .writeFile("src/lib/c.txt", "c")
+                        .commit("a.txt", "a", "src/b.txt", "b", "src/lib/c.txt", "c");
+                    return workingTree.advance().writeIndex("a.txt", "src/b.txt", "src/lib/c.txt").advance();
+                };
+
+                runner.test("with no index and no HEAD commit", (Test test) ->
+                {
+                    final TestWorkingTree workingTree = new TestWorkingTree()
+                        .writeFile("a.txt", "a")
+                        .writeFile("src/b.txt", "b");
+                    final GitStatus status = workingTree.scan();
+                    test.assertEqual(
+                        Iterable.create(
+                            GitStatusEntry.createUntracked("a.txt"),
+                            GitStatusEntry.createUntracked("src/")),
+                        status.getEntries());
+                    test.assertEqual(0, status.getStatCount());
+                });
+
+                runner.test("with index and no HEAD commit", (Test test) ->
+                {
+                    final TestWorkingTree workingTree = new TestWorkingTree()
+                        .writeFile("a.txt", "a")
+                        .writeFile("src/b.txt", "b")
+                        .advance()
+                        .writeIndex("a.txt", "src/b.txt");
+                    test.assertEqual(
+                        Iterable.create(
+                            GitStatusEntry.createChanged('A', '.', "a.txt"),
+                            GitStatusEntry.createChanged('A', '.', "src/b.txt")),
+                        workingTree.scan().getEntries());
+                });
+
+                runner.test("with clean working tree", (Test test) ->
+                {
+                    final GitStatus status = createCommittedTree.run().scan();
+                    test.assertTrue(status.isClean());
+                    test.assertEqual(3, status.getStatCount());
+                    test.assertEqual(0, status.getHashCount());
+                });
+
+                runner.test("with racily clean files", (Test test) ->
+                {
+                    final TestWorkingTree workingTree = new TestWorkingTree()
+                        .writeFile("a.txt", "a")
+                        .writeFile("b.txt", "b")
+                        .commit("a.txt", "a", "b.txt", "b")
+                        .writeIndex("a.txt", "b.txt");
+                    final GitStatus status = workingTree.scan();
+                    test.assertTrue(status.isClean());
+                    test.assertEqual(2, status.getHashCount());
+                });
+
+                runner.test("with touched file", (Test test) ->
+                {
+                    final GitStatus status = createCommittedTree.run()
+                        .writeFile("src/b.txt", "b")
+                        .scan();
+                    test.assertTrue(status.isClean());
+                    test.assertEqual(1, status.getHashCount());
+                });
+
+                runner.test("with modified file of the same size", (Test test) ->
+                {
+                    final GitStatus status = createCommittedTree.run()
+                        .writeFile("src/b.txt", "B")
+                        .scan();
+                    test.assertEqual(Iterable.create(GitStatusEntry.createChanged('.', 'M', "src/b.txt")), status.getEntries());
+                    test.assertEqual(1, status.getHashCount());
+                });
+
+                runner.test("with modified file of a different size", (Test test) ->
+                {
+                    final GitStatus status = createCommittedTree.run()
+                        .writeFile("src/lib/c.txt", "changed")
+                        .scan();
+                    test.assertEqual(Iterable.create(GitStatusEntry.createChanged('.', 'M', "src/lib/c.txt")), status.getEntries());
+                    test.assertEqual(0, status.getHashCount());
+                });
+
+                runner.test("with deleted files", (Test test) ->
+                {
+                    final GitStatus status = createCommittedTree.run()
+                        .deleteFile("a.txt")
+                        .deleteFile("src/lib/c.txt")
+                        .scan();
+                    test.assertEqual(
+                        Iterable.create(
+                            GitStatusEntry.createChanged('.', 'D', "a.txt"),
+                            GitStatusEntry.createChanged('.', 'D', "src/lib/c.txt")),
+                        status.getEntries());
+                });
+
+                runner.test("with staged changes", (Test test) ->
+                {
+                    final TestWorkingTree workingTree = createCommittedTree.run()
+                        .writeFile("a.txt", "staged")
+                        .writeFile("new.txt", "new")
+                        .advance();
+                    workingTree.writeIndex("a.txt", "new.txt", "src/lib/c.txt").advance();
+                    workingTree.writeFile("a.txt", "unstaged");
+                    final GitStatus status = workingTree.scan();
+                    test.assertEqual(
+                        Iterable.create(
+                            GitStatusEntry.createChanged('M', 'M', "a.txt"),
+                            GitStatusEntry.createChanged('A', '.', "new.txt"),
+                            GitStatusEntry.createChanged('D', '.', "src/b.txt"),
+                            GitStatusEntry.createUntracked("src/b.txt")),
+                        status.getEntries());
+                    test.assertEqual(
+                        Iterable.create(
+                            GitStatusEntry.createChanged('M', 'M', "a.txt"),
+                            GitStatusEntry.createChanged('A', '.', "new.txt"),
+                            GitStatusEntry.createChanged('D', '.', "src/b.txt")),
+                        status.getStaged());
+                    test.assertEqual(Iterable.create(GitStatusEntry.createChanged('M', 'M', "a.txt")), status.getUnstaged());
+                });
+
+                runner.test("with staged paths that sort next to a folder", (Test test) ->
+                {
+                    final TestWorkingTree workingTree = new TestWorkingTree()
+                        .writeFile("a.txt", "a")
+                        .writeFile("src/b.txt", "b")
+                        .writeFile("src-new.txt", "new")
+                        .writeFile("src0.txt", "staged")
+                        .commit("a.txt", "a", "src.txt", "old", "src/b.txt", "b", "src0.txt", "src0");
+                    workingTree.advance().writeIndex("a.txt", "src-new.txt", "src/b.txt", "src0.txt").advance();
+                    test.assertEqual(
+                        Iterable.create(
+                            GitStatusEntry.createChanged('A', '.', "src-new.txt"),
+                            GitStatusEntry.createChanged('D', '.', "src.txt"),
+                            GitStatusEntry.createChanged('M', '.', "src0.txt")),
+                        workingTree.scan().getEntries());
+                });
+
+                runner.test("with cache tree that matches HEAD", (Test test) ->
+                {
+                    // The cache tree claims that the index still matches HEAD, so the index
+                    // entries aren't compared with HEAD's files.
+                    final TestWorkingTree workingTree = createCommittedTree.run().writeFile("new.txt", "new");
+                    final GitIndexTests.IndexBuilder builder = new GitIndexTests.IndexBuilder(2);
+                    workingTree.addEntry(builder, "a.txt");
+                    workingTree.addEntry(builder, "new.txt");
+                    builder.addExtension("TREE", GitIndexCacheTreeTests.createNode("", 2, 0, workingTree.headTreeId));
+                    workingTree.advance().writeIndex(builder).advance();
+                    test.assertEqual(
+                        Iterable.create(GitStatusEntry.createUntracked("src/")),
+                        workingTree.scan().getEntries());
+                });
+
+                runner.test("with unmerged paths", (Test test) ->
+                {
+                    final TestWorkingTree workingTree = createCommittedTree.run();
+                    final GitIndexTests.IndexBuilder builder = new GitIndexTests.IndexBuilder(2)
+                        .addEntry("a.txt", GitIndexTests.getObjectId("base"), 0x1000, 0)
+                        .addEntry("a.txt", GitIndexTests.getObjectId("ours"), 0x2000, 0)
+                        .addEntry("a.txt", GitIndexTests.getObjectId("theirs"), 0x3000, 0)
+                        .addEntry("d.txt", GitIndexTests.getObjectId("base"), 0x1000, 0)
+                        .addEntry("d.txt", GitIndexTests.getObjectId("theirs"), 0x3000, 0);
+                    workingTree.addEntry(builder, "src/b.txt");
+                    workingTree.addEntry(builder, "src/lib/c.txt");
+                    workingTree.writeFile("d.txt", "theirs").writeIndex(builder).advance();
+                    final GitStatus status = workingTree.scan();
+                    test.assertEqual(
+                        Iterable.create(
+                            GitStatusEntry.createUnmerged('U', 'U', "a.txt"),
+                            GitStatusEntry.createUnmerged('D', 'U', "d.txt")),
+                        status.getEntries());
+                    test.assertEqual(status.getEntries(), status.getUnmerged());
+                });
+
+                runner.test("with intent-to-add and skip-worktree entries", (Test test) ->
+                {
+                    final TestWorkingTree workingTree = createCommittedTree.run();
+                    final GitIndexTests.IndexBuilder builder = new GitIndexTests.IndexBuilder(3);
+                    workingTree.addEntry(builder, "a.txt");
+                    builder.addEntry("later.txt", GitIndexTests.getObjectId(""), 0, 0x2000);
+                    builder.addEntry("src/b.txt", GitIndexTests.getObjectId("b"), 0, 0x4000);
+                    workingTree.addEntry(builder, "src/lib/c.txt");
+                    workingTree.writeFile("later.txt", "later").deleteFile("src/b.txt").writeIndex(builder).advance();
+                    test.assertEqual(
+                        Iterable.create(GitStatusEntry.createChanged('.', 'A', "later.txt")),
+                        workingTree.scan().getEntries());
+                });
+
+                runner.test("with untracked files", (Test test) ->
+                {
+                    final TestWorkingTree workingTree = createCommittedTree.run()
+                        .writeFile("notes.txt", "notes")
+                        .writeFile("src/new.txt", "new")
+                        .writeFile("build/classes/A.class", "A")
+                        .writeFile("docs/guide/intro.md", "intro")
+                        .writeFile("tools/run.sh", "")
+                        .writeFile("nested/.git/HEAD", "ref: refs/heads/main\n");
+                    final GitStatus status = workingTree.scan();
+                    test.assertEqual(
+                        Iterable.create(
+                            GitStatusEntry.createUntracked("build/"),
+                            GitStatusEntry.createUntracked("docs/"),
+                            GitStatusEntry.createUntracked("nested/"),
+                            GitStatusEntry.createUntracked("notes.txt"),
+                            GitStatusEntry.createUntracked("src/new.txt"),
+                            GitStatusEntry.createUntracked("tools/")),
+                        status.getEntries());
+                    test.assertEqual(status.getEntries(), status.getUntracked());
+                });
+
+                runner.test("with untracked symbolic links to folders",
+                    (TestResources resources) -> Tuple.create(resources.getTemporaryFolder()),
+                    (Test test, Folder tempFolder) ->
+                {
+                    final Folder workingTreeFolder = tempFolder.createFolder("repo").await();
+                    workingTreeFolder.createFile(".git/HEAD").await().setContentsAsString("ref: refs/heads/main\n").await();
+                    workingTreeFolder.createFolder(".git/objects").await();
+                    workingTreeFolder.createFolder("src").await();
+                    final java.nio.file.Path workingTreePath = GitNativeFiles.getPath(workingTreeFolder);
+                    try
+                    {
+                        java.nio.file.Files.createSymbolicLink(workingTreePath.resolve("up"), java.nio.file.Paths.get(".."));
+                        java.nio.file.Files.createSymbolicLink(workingTreePath.resolve("src/parent"), java.nio.file.Paths.get(".."));
+                    }
+                    catch (java.io.IOException e)
+                    {
+                        throw new RuntimeException(e);
+                    }
+                    test.assertEqual(
+                        Iterable.create(
+                            GitStatusEntry.createUntracked("src/"),
+                            GitStatusEntry.createUntracked("up")),
+                        GitStatusScanner.create(workingTreeFolder).setHomeFolder(tempFolder).scan().await().getEntries());
+                });
+
+                runner.test("with ignored files", (Test test) ->
+                {
+                    final TestWorkingTree workingTree = createCommittedTree.run()
+                        .writeFile(".git/info/exclude", "*.log\n")
+                        .writeFile(".gitignore", "build/\n/notes.*\n!important.log\n")
+                        .writeFile("src/.gitignore", "*.tmp\n")
+                        .writeFile("notes.txt", "notes")
+                        .writeFile("src/notes.txt", "notes")
+                        .writeFile("src/a.tmp", "tmp")
+                        .writeFile("debug.log", "debug")
+                        .writeFile("important.log", "important")
+                        .writeFile("build/classes/A.class", "A")
+                        .writeFile("empty/debug.log", "debug");
+                    test.assertEqual(
+                        Iterable.create(
+                            GitStatusEntry.createUntracked(".gitignore"),
+                            GitStatusEntry.createUntracked("important.log"),
+                            GitStatusEntry.createUntracked("src/.gitignore"),
+                            GitStatusEntry.createUntracked("src/notes.txt")),
+                        workingTree.scan().getEntries());
+                });
+
+                runner.test("with global ignore file", (Test test) ->
+                {
+                    final TestWorkingTree workingTree = createCommittedTree.run()
+                        .writeFile(".git/info/exclude", "!keep.bak\n")
+                        .writeFile("notes.txt", "notes")
+                        .writeFile("notes.bak", "notes")
+                        .writeFile("keep.bak", "keep");
+                    final Folder homeFolder = workingTree.folder.getFileSystem().createFolder("/home/user/").await();
+                    homeFolder.createFile(".config/git/ignore").await().setContentsAsString("*.bak\n").await();
+                    test.assertEqual(
+                        Iterable.create(
+                            GitStatusEntry.createUntracked("keep.bak"),
+                            GitStatusEntry.createUntracked("notes.txt")),
+                        GitStatusScanner.create(workingTree.folder).setHomeFolder(homeFolder).scan().await().getEntries());
+                });
+
+                runner.test("with core.excludesFile", (Test test) ->
+                {
+                    final TestWorkingTree workingTree = createCommittedTree.run()
+                        .writeFile("notes.txt", "notes")
+                        .writeFile("notes.bak", "notes")
+                        .writeFile("debug.log", "debug");
+                    final Folder homeFolder = workingTree.folder.getFileSystem().createFolder("/home/user/").await();
+                    homeFolder.createFile(".config/git/ignore").await().setContentsAsString("*.bak\n").await();
+                    homeFolder.createFile(".gitconfig").await().setContentsAsString("[core]\n\texcludesFile = ~/.gitignore_global\n").await();
+                    homeFolder.createFile(".gitignore_global").await().setContentsAsString("*.log\n").await();
+                    test.assertEqual(
+                        Iterable.create(
+                            GitStatusEntry.createUntracked("notes.bak"),
+                            GitStatusEntry.createUntracked("notes.txt")),
+                        GitStatusScanner.create(workingTree.folder).setHomeFolder(homeFolder).scan().await().getEntries());
+                });
+
+                runner.test("with includeUntracked false", (Test test) ->
+                {
+                    final TestWorkingTree workingTree = createCommittedTree.run()
+                        .writeFile("notes.txt", "notes")
+                        .writeFile("a.txt", "changed");
+                    test.assertEqual(
+                        Iterable.create(GitStatusEntry.createChanged('.', 'M', "a.txt")),
+                        GitStatusScanner.create(workingTree.folder).setIncludeUntracked(false).scan().await().getEntries());
+                });
+
+                runner.test("with many folders", (Test test) ->
+                {
+                    final TestWorkingTree workingTree = new TestWorkingTree();
+                    final java.util.List<String> paths = new java.util.ArrayList<>();
+                    for (int i = 0; i < 20; ++i)
+                    {
+                        for (int j = 0; j < 5; ++j)
+                        {
+                            final String path = "folder" + (char)('a' + i) + "/sub" + j + "/file.txt";
+                            workingTree.writeFile(path, path);
+                            paths.add(path);
+                        }
+                    }
+                    workingTree.advance().writeIndex(paths.toArray(new String[0])).advance();
+                    workingTree.writeFile("folderc/sub2/file.txt", "changed");
+                    workingTree.deleteFile("folderq/sub4/file.txt");
+
+                    final java.util.concurrent.ForkJoinPool pool = new java.util.concurrent.ForkJoinPool(4);
+                    try
+                    {
+                        final GitStatus status = GitStatusScanner.create(workingTree.folder)
+                            .setForkJoinPool(pool)
+                            .setIncludeUntracked(false)
+                            .scan()
+                            .await();
+                        test.assertEqual(100, status.getStaged().getCount());
+                        test.assertEqual(
+                            Iterable.create(
+                                GitStatusEntry.createChanged('A', 'M', "folderc/sub2/file.txt"),
+                                GitStatusEntry.createChanged('A', 'D', "folderq/sub4/file.txt")),
+                            status.getUnstaged());
+                        test.assertEqual(100, status.getStatCount());
+                    }
+                    finally
+                    {
+                        pool.shutdown();
+                    }
+                });
+
+                runner.test("with autocrlf and clean stat data", (Test test) ->
+                {
+                    final GitStatus status = createCommittedTree.run()
+                        .writeFile(".git/config", "[core]\n\tautocrlf = true\n")
+                        .scan();
+                    test.assertTrue(status.isClean());
+                    test.assertEqual(0, status.getHashCount());
+                });
+
+                runner.test("with autocrlf and touched file", (Test test) ->
+                {
+                    final TestWorkingTree workingTree = createCommittedTree.run()
+                        .writeFile(".git/config", "[core]\n\tautocrlf = true\n")
+                        .writeFile("src/b.txt", "b");
+                    test.assertThrows(() -> workingTree.scan(),
+                        new GitException("The working tree \"/repo/\" has changed files whose contents Git may convert when they are added (with core.autocrlf, attributes, or filters), so they can't be checked without a Git object."));
+                });
+
+                runner.test("with autocrlf and modified file of a different size", (Test test) ->
+                {
+                    final GitStatus status = createCommittedTree.run()
+                        .writeFile(".git/config", "[core]\n\tautocrlf = true\n")
+                        .writeFile("src/lib/c.txt", "changed")
+                        .scan();
+                    test.assertEqual(Iterable.create(GitStatusEntry.createChanged('.', 'M', "src/lib/c.txt")), status.getEntries());
+                });
+
+                runner.test("with text attribute and touched file", (Test test) ->
+                {
+                    final TestWorkingTree workingTree = new TestWorkingTree()
+                        .writeFile("src/.gitattributes", "*.txt text\n")
+                        .writeFile("src/b.txt", "b")
+                        .commit("src/.gitattributes", "*.txt text\n", "src/b.txt", "b");
+                    workingTree.advance().writeIndex("src/.gitattributes", "src/b.txt").advance()
+                        .writeFile("src/b.txt", "b");
+                    test.assertThrows(() -> workingTree.scan(),
+                        new GitException("The working tree \"/repo/\" has changed files whose contents Git may convert when they are added (with core.autocrlf, attributes, or filters), so they can't be checked without a Git object."));
+                });
+
+                runner.test("with attributes that don't convert and touched file", (Test test) ->
+                {
+                    final TestWorkingTree workingTree = new TestWorkingTree()
+                        .writeFile(".gitattributes", "*.png binary\n*.md linguist-documentation\n")
+                        .writeFile("b.txt", "b")
+                        .commit(".gitattributes", "*.png binary\n*.md linguist-documentation\n", "b.txt", "b");
+                    final GitStatus status = workingTree.advance().writeIndex(".gitattributes", "b.txt").advance()
+                        .writeFile("b.txt", "b")
+                        .scan();
+                    test.assertTrue(status.isClean());
+                    test.assertEqual(1, status.getHashCount());
+                });
+
+                runner.test("with split index", (Test test) ->
+                {
+                    final TestWorkingTree workingTree = createCommittedTree.run();
+                    final GitIndexTests.IndexBuilder builder = new GitIndexTests.IndexBuilder(2)
+                        .addExtension("link", GitIndexTests.getObjectId("shared").getBytes());
+                    workingTree.writeIndex(builder);
+                    test.assertThrows(() -> workingTree.scan(),
+                        new GitException("The index file \"/repo/.git/index\" is a split index, which isn't supported."));
+                });
+            });
+        });
+    }
+}
@@ -0,0 +1,57 @@
+package qub;
+
+public interface GitStatusTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(GitStatus.class, () ->
+        {
+            runner.testGroup("create(Iterable<GitStatusEntry>,int,int)", () ->
+            {
+                runner.test("with null entries", (Test test) ->
+                {
+                    test.assertThrows(() -> GitStatus.create(null, 0, 0),
+                        new PreConditionFailure("entries cannot be null."));
+                });
+
+                runner.test("with negative statCount", (Test test) ->
+                {
+                    test.assertThrows(() -> GitStatus.create(Iterable.create(), -1, 0),
+                        new PreConditionFailure("statCount (-1) must be greater than or equal to 0."));
+                });
+
+                runner.test("with hashCount greater than statCount", (Test test) ->
+                {
+                    test.assertThrows(() -> GitStatus.create(Iterable.create(), 1, 2),
+                        new PreConditionFailure("hashCount (2) must be between 0 and 1."));
+                });
+
+                runner.test("with no entries", (Test test) ->
+                {
+                    final GitStatus status = GitStatus.create(Iterable.create(), 5, 1);
+                    test.assertTrue(status.isClean());
+                    test.assertEqual(Iterable.create(), status.getEntries());
+                    test.assertEqual(5, status.getStatCount());
+                    test.assertEqual(1, status.getHashCount());
+                    test.assertEqual("", status.toString());
+                });
+
+                runner.test("with entries", (Test test) ->
+                {
+                    final GitStatusEntry staged = GitStatusEntry.createChanged('A', '.', "a.txt");
+                    final GitStatusEntry both = GitStatusEntry.createChanged('M', 'M', "b.txt");
+                    final GitStatusEntry unstaged = GitStatusEntry.createChanged('.', 'D', "c.txt");
+                    final GitStatusEntry unmerged = GitStatusEntry.createUnmerged('U', 'U', "d.txt");
+                    final GitStatusEntry untracked = GitStatusEntry.createUntracked("e/");
+                    final GitStatus status = GitStatus.create(Iterable.create(staged, both, unstaged, unmerged, untracked), 4, 0);
+                    test.assertFalse(status.isClean());
+                    test.assertEqual(Iterable.create(staged, both), status.getStaged());
+                    test.assertEqual(Iterable.create(both, unstaged), status.getUnstaged());
+                    test.assertEqual(Iterable.create(unmerged), status.getUnmerged());
+                    test.assertEqual(Iterable.create(untracked), status.getUntracked());
+                    test.assertEqual("1 A. a.txt\n1 MM b.txt\n1 .D c.txt\nu UU d.txt\n? e/\n", status.toString());
+                });
+            });
+        });
+    }
+}
@@ -0,0 +1,28 @@
+package qub;
+
+public interface GitTagTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(GitTag.class, () ->
+        {
+            runner.test("with annotated tag", (Test test) ->
+            {
+                final String contents =
+                    "object e69de29bb2d1d6434b8b29ae775ad8c2e48c5391\n" +
+                    "type commit\n" +
+                    "tag v1.0.0\n" +
+                    "tagger T A Gger <tagger@example.com> 1700000000 +0000\n" +
+                    "\n" +
+                    "Version 1.0.0\n";
+                final GitObjectId objectId = GitObjectDatabaseTests.getObjectId(GitObjectType.Tag, contents.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+                final GitTag tag = (GitTag)GitObject.create(objectId, GitObjectType.Tag, GitObjectDatabaseTests.toSlice(contents));
+                test.assertEqual("e69de29bb2d1d6434b8b29ae775ad8c2e48c5391", tag.getTargetId().toString());
+                test.assertEqual(GitObjectType.Commit, tag.getTargetType());
+                test.assertEqual("v1.0.0", tag.getTagName());
+                test.assertEqual("T A Gger <tagger@example.com> 1700000000 +0000", tag.getTagger());
+                test.assertEqual("Version 1.0.0\n", tag.getMessage().getText());
+            });
+        });
+    }
+}
@@ -300,6 +300,148 @@ public interface GitTests
                 });
             });
 
+            runner.test("getVersionCache()",
+                (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                (Test test, FakeDesktopProcess process) ->
+            {
+                final Git git = Git.create(process);
+                test.assertSame(GitVersionCache.getProcessCache(), git.getVersionCache());
+            });
+
+            runner.testGroup("setVersionCache(GitVersionCache)", () ->
+            {
+                runner.test("with null",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final Git git = Git.create(process);
+                    test.assertThrows(() -> git.setVersionCache(null),
+                        new PreConditionFailure("versionCache cannot be null."));
+                    test.assertSame(GitVersionCache.getProcessCache(), git.getVersionCache());
+                });
+
+                runner.test("with non-null",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final Git git = Git.create(process);
+                    final GitVersionCache versionCache = GitVersionCache.create();
+                    final Git setVersionCacheResult = git.setVersionCache(versionCache);
+                    test.assertSame(git, setVersionCacheResult);
+                    test.assertSame(versionCache, git.getVersionCache());
+                });
+            });
+
+            runner.testGroup("setThreadFactory(ThreadFactory)", () ->
+            {
+                runner.test("with null",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final Git git = Git.create(process);
+                    final java.util.concurrent.ThreadFactory threadFactory = git.getThreadFactory();
+                    test.assertNotNull(threadFactory);
+                    test.assertThrows(() -> git.setThreadFactory(null),
+                        new PreConditionFailure("threadFactory cannot be null."));
+                    test.assertSame(threadFactory, git.getThreadFactory());
+                });
+
+                runner.test("with non-null",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final java.util.concurrent.ThreadFactory threadFactory = (Runnable action) -> new Thread(action);
+                    final Git git = Git.create(process);
+                    final Git setThreadFactoryResult = git.setThreadFactory(threadFactory);
+                    test.assertSame(git, setThreadFactoryResult);
+                    test.assertSame(threadFactory, git.getThreadFactory());
+                    test.assertSame(threadFactory, GitMultiRepositoryRunner.create(git).getThreadFactory());
+                });
+            });
+
+            runner.testGroup("run(GitParameters) with fake child process", () ->
+            {
+                final Function1<FakeDesktopProcess,Git> createGit = (FakeDesktopProcess process) ->
+                {
+                    process.getChildProcessRunner().add(FakeChildProcessRun.create("git", "pull")
+                        .setAction((FakeDesktopProcess childProcess) ->
+                        {
+                            try
+                            {
+                                Thread.sleep(1000);
+                            }
+                            catch (InterruptedException e)
+                            {
+                                throw new RuntimeException(e);
+                            }
+                        }));
+                    return Git.create(process).setMarkWatchedChildProcesses(false);
+                };
+
+                runner.test("with timeout that elapses",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final Git git = createGit.run(process);
+                    test.assertThrows(() -> git.pull((GitPullParameters parameters) ->
+                        {
+                            parameters.setTimeout(Duration.milliseconds(50));
+                        }).await(),
+                        new GitTimeoutException("git command did not finish within 50 milliseconds: git pull"));
+                });
+
+                runner.test("with cancellation token that is cancelled while running",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final Git git = createGit.run(process);
+                    final GitCancellationToken cancellationToken = GitCancellationToken.create();
+                    final Thread cancelThread = new Thread(() ->
+                    {
+                        try
+                        {
+                            Thread.sleep(50);
+                        }
+                        catch (InterruptedException e)
+                        {
+                            throw new RuntimeException(e);
+                        }
+                        cancellationToken.cancel();
+                    });
+                    cancelThread.start();
+                    test.assertThrows(() -> git.pull((GitPullParameters parameters) ->
+                        {
+                            parameters.setCancellationToken(cancellationToken);
+                        }).await(),
+                        new GitCancelledException("git command was cancelled: git pull"));
+                    test.assertTrue(cancellationToken.isCancelled());
+                });
+            });
+
+            runner.testGroup("joinRecords(Iterable<String>,String,char)", () ->
+            {
+                runner.test("with no records", (Test test) ->
+                {
+                    test.assertEqual(new byte[0], Git.joinRecords(Iterable.create(), "record", '\n'));
+                });
+
+                runner.test("with one record", (Test test) ->
+                {
+                    test.assertEqual(new byte[] { 'a', 'b', '\n' }, Git.joinRecords(Iterable.create("ab"), "record", '\n'));
+                });
+
+                runner.test("with two records", (Test test) ->
+                {
+                    test.assertEqual(new byte[] { 'a', 0, 'b', 0 }, Git.joinRecords(Iterable.create("a", "b"), "record", '\0'));
+                });
+
+                runner.test("with empty record", (Test test) ->
+                {
+                    test.assertThrows(() -> Git.joinRecords(Iterable.create(""), "record", '\n'),
+                        new PreConditionFailure("record (\"\") must be non-empty and cannot contain the record terminator."));
+                });
+            });
+
             for (final MapEntry<String,DesktopProcess> processEntry : processes)
             {
                 final String processType = processEntry.getKey();
@@ -391,6 +533,39 @@ public interface GitTests
                             test.assertEqual(0, exitCode);
                         });
 
+                        runner.test("with --version and timeout", (Test test) ->
+                        {
+                            final Git git = Git.create(process).setMarkWatchedChildProcesses(!(process instanceof FakeDesktopProcess));
+                            final Integer exitCode = git.run(GitParameters.create()
+                                .addArgument("--version")
+                                .setTimeout(Duration.minutes(1)))
+                                .await();
+                            test.assertEqual(0, exitCode);
+                        });
+
+                        runner.test("with --version and cancellation token that is not cancelled", (Test test) ->
+                        {
+                            final Git git = Git.create(process).setMarkWatchedChildProcesses(!(process instanceof FakeDesktopProcess));
+                            final Integer exitCode = git.run(GitParameters.create()
+                                .addArgument("--version")
+                                .setCancellationToken(GitCancellationToken.create()))
+                                .await();
+                            test.assertEqual(0, exitCode);
+                        });
+
+                        runner.test("with --version and cancellation token that is already cancelled", (Test test) ->
+                        {
+                            final Git git = Git.create(process).setMarkWatchedChildProcesses(!(process instanceof FakeDesktopProcess));
+                            final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                            test.assertThrows(() -> git.run(GitParameters.create()
+                                    .addArgument("--version")
+                                    .redirectOutputTo(output)
+                                    .setCancellationToken(GitCancellationToken.create().cancel()))
+                                    .await(),
+                                new GitCancelledException("git command was cancelled: git --version"));
+                            test.assertEqual("", output.getText().await());
+                        });
+
                         runner.test("with no arguments and registered output and error handlers", (Test test) ->
                         {
                             final Git git = Git.create(process);
@@ -604,6 +779,472 @@ public interface GitTests
                             version);
                     });
 
+                    runner.test("version() with version cache", (Test test) ->
+                    {
+                        final GitVersionCache versionCache = GitVersionCache.create();
+                        final Git git = Git.create(process).setVersionCache(versionCache);
+                        final VersionNumber version1 = git.version().await();
+                        test.assertEqual(1, versionCache.getCount());
+
+                        final VersionNumber version2 = git.version().await();
+                        test.assertSame(version1, version2);
+                        test.assertEqual(1, versionCache.getCount());
+                    });
+
+                    runner.testGroup("isVersionAtLeast(int,int)", () ->
+                    {
+                        runner.test("with negative major", (Test test) ->
+                        {
+                            final Git git = Git.create(process);
+                            test.assertThrows(() -> git.isVersionAtLeast(-1, 0),
+                                new PreConditionFailure("major (-1) must be greater than or equal to 0."));
+                        });
+
+                        runner.test("with negative minor", (Test test) ->
+                        {
+                            final Git git = Git.create(process);
+                            test.assertThrows(() -> git.isVersionAtLeast(0, -1),
+                                new PreConditionFailure("minor (-1) must be greater than or equal to 0."));
+                        });
+
+                        final Action3<Integer,Integer,Boolean> isVersionAtLeastTest = (Integer major, Integer minor, Boolean expected) ->
+                        {
+                            runner.test("with " + English.andList(major, minor), (Test test) ->
+                            {
+                                final Git git = Git.create(process);
+                                test.assertEqual(expected, git.isVersionAtLeast(major, minor).await());
+                            });
+                        };
+
+                        isVersionAtLeastTest.run(1, 0, true);
+                        isVersionAtLeastTest.run(2, 28, true);
+                        isVersionAtLeastTest.run(2, 37, true);
+                        isVersionAtLeastTest.run(2, 38, false);
+                        isVersionAtLeastTest.run(3, 0, false);
+                    });
+
+                    runner.test("supportsInitialBranch()", (Test test) ->
+                    {
+                        final Git git = Git.create(process);
+                        test.assertTrue(git.supportsInitialBranch().await());
+                    });
+
+                    runner.testGroup("catFileBatch(Folder,Iterable<String>)", () ->
+                    {
+                        runner.test("with null repositoryFolder", (Test test) ->
+                        {
+                            final Git git = Git.create(process);
+                            test.assertThrows(() -> git.catFileBatch(null, Iterable.create("HEAD")),
+                                new PreConditionFailure("repositoryFolder cannot be null."));
+                        });
+
+                        runner.test("with null objectNames",
+                            (TestResources resources) -> Tuple.create(resources.getTemporaryFolder()),
+                            (Test test, Folder tempFolder) ->
+                        {
+                            final Git git = Git.create(process);
+                            test.assertThrows(() -> git.catFileBatch(tempFolder, null),
+                                new PreConditionFailure("objectNames cannot be null."));
+                        });
+
+                        runner.test("with no objectNames",
+                            (TestResources resources) -> Tuple.create(resources.getTemporaryFolder()),
+                            (Test test, Folder tempFolder) ->
+                        {
+                            final Git git = Git.create(process);
+                            test.assertEqual(Iterable.create(), git.catFileBatch(tempFolder, Iterable.create()).await());
+                        });
+
+                        runner.test("with multi-line objectName",
+                            (TestResources resources) -> Tuple.create(resources.getTemporaryFolder()),
+                            (Test test, Folder tempFolder) ->
+                        {
+                            final Git git = Git.create(process);
+                            test.assertThrows(() -> git.catFileBatch(tempFolder, Iterable.create("HEAD\nHEAD~1")).await(),
+                                new PreConditionFailure("objectName (\"HEAD\\nHEAD~1\") must be non-empty and cannot contain the record terminator."));
+                        });
+                    });
+
+                    runner.testGroup("catFileBatchCheck(Folder,Iterable<String>)", () ->
+                    {
+                        runner.test("with null repositoryFolder", (Test test) ->
+                        {
+                            final Git git = Git.create(process);
+                            test.assertThrows(() -> git.catFileBatchCheck(null, Iterable.create("HEAD")),
+                                new PreConditionFailure("repositoryFolder cannot be null."));
+                        });
+
+                        runner.test("with no objectNames",
+                            (TestResources resources) -> Tuple.create(resources.getTemporaryFolder()),
+                            (Test test, Folder tempFolder) ->
+                        {
+                            final Git git = Git.create(process);
+                            test.assertEqual(Iterable.create(), git.catFileBatchCheck(tempFolder, Iterable.create()).await());
+                        });
+                    });
+
+                    runner.testGroup("readObjects(Folder,Iterable<String>)", () ->
+                    {
+                        runner.test("with null repositoryFolder", (Test test) ->
+                        {
+                            final Git git = Git.create(process);
+                            test.assertThrows(() -> git.readObjects(null, Iterable.create("HEAD")),
+                                new PreConditionFailure("repositoryFolder cannot be null."));
+                        });
+
+                        runner.test("with null objectNames", (Test test) ->
+                        {
+                            final Git git = Git.create(process);
+                            test.assertThrows(() -> git.readObjects(GitObjectDatabaseTests.createRepositoryFolder(), null),
+                                new PreConditionFailure("objectNames cannot be null."));
+                        });
+
+                        runner.test("with no objectNames", (Test test) ->
+                        {
+                            final Git git = Git.create(process);
+                            test.assertEqual(Iterable.create(), git.readObjects(GitObjectDatabaseTests.createRepositoryFolder(), Iterable.create()).await());
+                        });
+
+                        runner.test("with loose objects", (Test test) ->
+                        {
+                            final Git git = Git.create(process);
+                            final Folder repositoryFolder = GitObjectDatabaseTests.createRepositoryFolder();
+                            final Folder objectsFolder = repositoryFolder.getFolder(".git/objects").await();
+                            final GitObjectId blobId = GitObjectDatabaseTests.writeLooseObject(objectsFolder, GitObjectType.Blob, "hello\n");
+                            final GitObjectId emptyBlobId = GitObjectDatabaseTests.writeLooseObject(objectsFolder, GitObjectType.Blob, "");
+
+                            final Iterable<GitCatFileBatchEntry> entries = git.readObjects(repositoryFolder, Iterable.create(blobId.toString(), emptyBlobId.toString())).await();
+                            test.assertEqual(
+                                Iterable.create(
+                                    "ce013625030ba8dba906f756967f9e9ca394464a blob 6",
+                                    "e69de29bb2d1d6434b8b29ae775ad8c2e48c5391 blob 0"),
+                                entries.map(GitCatFileBatchEntry::toString));
+                            test.assertEqual("hello\n".getBytes(java.nio.charset.StandardCharsets.UTF_8), entries.first().await().getContents());
+                        });
+                    });
+
+                    runner.testGroup("getPathHistory(Folder,GitObjectId,String)", () ->
+                    {
+                        runner.test("with null repositoryFolder", (Test test) ->
+                        {
+                            final Git git = Git.create(process);
+                            test.assertThrows(() -> git.getPathHistory(null, GitCommitGraphTests.CommitGraphBuilder.getCommitId("start"), "sources"),
+                                new PreConditionFailure("repositoryFolder cannot be null."));
+                        });
+
+                        runner.test("with null startCommitId", (Test test) ->
+                        {
+                            final Git git = Git.create(process);
+                            test.assertThrows(() -> git.getPathHistory(GitObjectDatabaseTests.createRepositoryFolder(), null, "sources"),
+                                new PreConditionFailure("startCommitId cannot be null."));
+                        });
+
+                        runner.test("with empty path", (Test test) ->
+                        {
+                            final Git git = Git.create(process);
+                            test.assertThrows(() -> git.getPathHistory(GitObjectDatabaseTests.createRepositoryFolder(), GitCommitGraphTests.CommitGraphBuilder.getCommitId("start"), ""),
+                                new PreConditionFailure("path cannot be empty."));
+                        });
+
+                        runner.test("with repository", (Test test) ->
+                        {
+                            final Git git = Git.create(process);
+                            final GitPathHistoryTests.TestRepository repository = new GitPathHistoryTests.TestRepository();
+                            final GitPathHistory history = git.getPathHistory(repository.repositoryFolder, repository.m, "src/a.txt").await();
+                            test.assertEqual(Iterable.create(repository.c3, repository.c1), GitPathHistoryTests.toIterable(history));
+                        });
+                    });
+
+                    runner.testGroup("countReachableObjects(Folder,Iterable<GitObjectId>,Iterable<GitObjectId>)", () ->
+                    {
+                        runner.test("with null repositoryFolder", (Test test) ->
+                        {
+                            final Git git = Git.create(process);
+                            test.assertThrows(() -> git.countReachableObjects(null, Iterable.create(), Iterable.create()),
+                                new PreConditionFailure("repositoryFolder cannot be null."));
+                        });
+
+                        runner.test("with null includedObjectIds", (Test test) ->
+                        {
+                            final Git git = Git.create(process);
+                            test.assertThrows(() -> git.countReachableObjects(GitObjectDatabaseTests.createRepositoryFolder(), null, Iterable.create()),
+                                new PreConditionFailure("includedObjectIds cannot be null."));
+                        });
+
+                        runner.test("with null excludedObjectIds", (Test test) ->
+                        {
+                            final Git git = Git.create(process);
+                            test.assertThrows(() -> git.countReachableObjects(GitObjectDatabaseTests.createRepositoryFolder(), Iterable.create(), null),
+                                new PreConditionFailure("excludedObjectIds cannot be null."));
+                        });
+
+                        runner.test("with repository", (Test test) ->
+                        {
+                            final Git git = Git.create(process);
+                            final GitReachableObjectsTests.TestRepository repository = new GitReachableObjectsTests.TestRepository(true);
+                            test.assertEqual(11, git.countReachableObjects(repository.repositoryFolder, Iterable.create(repository.c3), Iterable.create()).await());
+                            test.assertEqual(5, git.countReachableObjects(repository.repositoryFolder, Iterable.create(repository.c3), Iterable.create(repository.c2)).await());
+                        });
+                    });
+
+                    runner.testGroup("getObjectDatabase(Folder)", () ->
+                    {
+                        runner.test("with null repositoryFolder", (Test test) ->
+                        {
+                            final Git git = Git.create(process);
+                            test.assertThrows(() -> git.getObjectDatabase(null),
+                                new PreConditionFailure("repositoryFolder cannot be null."));
+                        });
+
+                        runner.test("with folder that isn't a repository", (Test test) ->
+                        {
+                            final Git git = Git.create(process);
+                            final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                            final Folder folder = fileSystem.createFolder("/folder/").await();
+                            test.assertThrows(() -> git.getObjectDatabase(folder).await(),
+                                new NotFoundException("Could not find a Git repository at \"/folder/\"."));
+                        });
+
+                        runner.test("with repository", (Test test) ->
+                        {
+                            final Git git = Git.create(process);
+                            final Folder repositoryFolder = GitObjectDatabaseTests.createRepositoryFolder();
+                            final GitObjectDatabase objectDatabase = git.getObjectDatabase(repositoryFolder).await();
+                            test.assertNotNull(objectDatabase);
+                            test.assertSame(objectDatabase, git.getObjectDatabase(repositoryFolder).await());
+                        });
+
+                        runner.test("with pack added after the database was opened", (Test test) ->
+                        {
+                            final Git git = Git.create(process);
+                            final Folder repositoryFolder = GitObjectDatabaseTests.createRepositoryFolder();
+                            final GitObjectDatabase objectDatabase = git.getObjectDatabase(repositoryFolder).await();
+                            test.assertEqual(0, objectDatabase.getPacks().await().getCount());
+
+                            final GitPackFileTests.PackBuilder builder = new GitPackFileTests.PackBuilder();
+                            builder.addObject(GitObjectType.Blob, GitPackFileTests.toBytes("packed\n"));
+                            builder.writeTo(objectDatabase.getObjectsFolder(), "pack-1");
+
+                            test.assertSame(objectDatabase, git.getObjectDatabase(repositoryFolder).await());
+                            test.assertEqual(1, objectDatabase.getPacks().await().getCount());
+                        });
+                    });
+
+                    runner.testGroup("getRefDatabase(Folder)", () ->
+                    {
+                        runner.test("with null repositoryFolder", (Test test) ->
+                        {
+                            final Git git = Git.create(process);
+                            test.assertThrows(() -> git.getRefDatabase(null),
+                                new PreConditionFailure("repositoryFolder cannot be null."));
+                        });
+
+                        runner.test("with repository", (Test test) ->
+                        {
+                            final Git git = Git.create(process);
+                            final Folder repositoryFolder = GitObjectDatabaseTests.createRepositoryFolder();
+                            final GitRefDatabase refDatabase = git.getRefDatabase(repositoryFolder).await();
+                            test.assertNotNull(refDatabase);
+                            test.assertSame(refDatabase, git.getRefDatabase(repositoryFolder).await());
+                        });
+
+                        runner.test("with concurrent first calls", (Test test) ->
+                        {
+                            final Git git = Git.create(process);
+                            final Folder repositoryFolder = GitObjectDatabaseTests.createRepositoryFolder();
+                            final java.util.List<GitRefDatabase> refDatabases = java.util.Collections.synchronizedList(new java.util.ArrayList<>());
+                            final java.util.concurrent.CountDownLatch start = new java.util.concurrent.CountDownLatch(1);
+                            final java.util.List<Thread> threads = new java.util.ArrayList<>();
+                            for (int i = 0; i < 8; ++i)
+                            {
+                                final Thread thread = new Thread(() ->
+                                {
+                                    try
+                                    {
+                                        start.await();
+                                    }
+                                    catch (InterruptedException e)
+                                    {
+                                        throw new RuntimeException(e);
+                                    }
+                                    refDatabases.add(git.getRefDatabase(repositoryFolder).await());
+                                });
+                                threads.add(thread);
+                                thread.start();
+                            }
+                            start.countDown();
+                            for (final Thread thread : threads)
+                            {
+                                try
+                                {
+                                    thread.join();
+                                }
+                                catch (InterruptedException e)
+                                {
+                                    throw new RuntimeException(e);
+                                }
+                            }
+
+                            test.assertEqual(8, refDatabases.size());
+                            final GitRefDatabase refDatabase = git.getRefDatabase(repositoryFolder).await();
+                            for (final GitRefDatabase threadRefDatabase : refDatabases)
+                            {
+                                test.assertSame(refDatabase, threadRefDatabase);
+                            }
+                        });
+                    });
+
+                    runner.testGroup("closeRepository(Folder)", () ->
+                    {
+                        runner.test("with null repositoryFolder", (Test test) ->
+                        {
+                            final Git git = Git.create(process);
+                            test.assertThrows(() -> git.closeRepository(null),
+                                new PreConditionFailure("repositoryFolder cannot be null."));
+                        });
+
+                        runner.test("with repository that wasn't opened", (Test test) ->
+                        {
+                            final Git git = Git.create(process);
+                            final Folder repositoryFolder = GitObjectDatabaseTests.createRepositoryFolder();
+                            test.assertFalse(git.closeRepository(repositoryFolder).await());
+                        });
+
+                        runner.test("with opened repository", (Test test) ->
+                        {
+                            final Git git = Git.create(process);
+                            final Folder repositoryFolder = GitObjectDatabaseTests.createRepositoryFolder();
+                            final GitObjectDatabase objectDatabase = git.getObjectDatabase(repositoryFolder).await();
+                            final GitRefDatabase refDatabase = git.getRefDatabase(repositoryFolder).await();
+                            final GitCatFileSession promisorCatFileSession = git.getPromisorCatFileSession(repositoryFolder);
+
+                            test.assertTrue(git.closeRepository(repositoryFolder).await());
+                            test.assertTrue(promisorCatFileSession.isDisposed());
+                            test.assertFalse(git.closeRepository(repositoryFolder).await());
+
+                            test.assertFalse(objectDatabase == git.getObjectDatabase(repositoryFolder).await());
+                            test.assertFalse(refDatabase == git.getRefDatabase(repositoryFolder).await());
+                            test.assertFalse(promisorCatFileSession == git.getPromisorCatFileSession(repositoryFolder));
+                        });
+                    });
+
+                    runner.testGroup("resolveRefs(Folder,Iterable<String>)", () ->
+                    {
+                        runner.test("with null repositoryFolder", (Test test) ->
+                        {
+                            final Git git = Git.create(process);
+                            test.assertThrows(() -> git.resolveRefs(null, Iterable.create("HEAD")),
+                                new PreConditionFailure("repositoryFolder cannot be null."));
+                        });
+
+                        runner.test("with null refNames", (Test test) ->
+                        {
+                            final Git git = Git.create(process);
+                            test.assertThrows(() -> git.resolveRefs(GitObjectDatabaseTests.createRepositoryFolder(), null),
+                                new PreConditionFailure("refNames cannot be null."));
+                        });
+
+                        runner.test("with repository", (Test test) ->
+                        {
+                            final Git git = Git.create(process);
+                            final Folder repositoryFolder = GitObjectDatabaseTests.createRepositoryFolder();
+                            final GitObjectId main = GitRefDatabaseTests.getObjectId("main");
+                            final GitObjectId tag = GitRefDatabaseTests.getObjectId("tag");
+                            GitRefDatabaseTests.writeFile(repositoryFolder, ".git/refs/heads/main", main + "\n");
+                            GitRefDatabaseTests.writeFile(repositoryFolder, ".git/packed-refs", tag + " refs/tags/v1\n");
+                            test.assertEqual(
+                                Iterable.create(
+                                    GitRef.create("refs/heads/main", main),
+                                    GitRef.create("refs/tags/v1", tag)),
+                                git.resolveRefs(repositoryFolder, Iterable.create("HEAD", "v1")).await());
+                            test.assertThrows(() -> git.resolveRefs(repositoryFolder, Iterable.create("missing")).await(),
+                                new NotFoundException("Could not find the Git ref \"missing\"."));
+                        });
+                    });
+
+                    runner.testGroup("status(Folder)", () ->
+                    {
+                        runner.test("with null workingTreeFolder", (Test test) ->
+                        {
+                            final Git git = Git.create(process);
+                            test.assertThrows(() -> git.status(null),
+                                new PreConditionFailure("workingTreeFolder cannot be null."));
+                        });
+
+                        runner.test("with repository", (Test test) ->
+                        {
+                            final Git git = Git.create(process);
+                            final Folder repositoryFolder = GitObjectDatabaseTests.createRepositoryFolder();
+                            GitRefDatabaseTests.writeFile(repositoryFolder, "a.txt", "hello");
+                            final GitStatus status = git.status(repositoryFolder).await();
+                            test.assertEqual(Iterable.create(GitStatusEntry.createUntracked("a.txt")), status.getEntries());
+                            test.assertEqual(0, status.getStatCount());
+                        });
+                    });
+
+                    runner.testGroup("checkAttrBatch(Folder,Iterable<String>,Iterable<String>)", () ->
+                    {
+                        runner.test("with null repositoryFolder", (Test test) ->
+                        {
+                            final Git git = Git.create(process);
+                            test.assertThrows(() -> git.checkAttrBatch(null, Iterable.create(), Iterable.create("a.txt")),
+                                new PreConditionFailure("repositoryFolder cannot be null."));
+                        });
+
+                        runner.test("with null attributes",
+                            (TestResources resources) -> Tuple.create(resources.getTemporaryFolder()),
+                            (Test test, Folder tempFolder) ->
+                        {
+                            final Git git = Git.create(process);
+                            test.assertThrows(() -> git.checkAttrBatch(tempFolder, null, Iterable.create("a.txt")),
+                                new PreConditionFailure("attributes cannot be null."));
+                        });
+
+                        runner.test("with null paths",
+                            (TestResources resources) -> Tuple.create(resources.getTemporaryFolder()),
+                            (Test test, Folder tempFolder) ->
+                        {
+                            final Git git = Git.create(process);
+                            test.assertThrows(() -> git.checkAttrBatch(tempFolder, Iterable.create(), null),
+                                new PreConditionFailure("paths cannot be null."));
+                        });
+
+                        runner.test("with no paths",
+                            (TestResources resources) -> Tuple.create(resources.getTemporaryFolder()),
+                            (Test test, Folder tempFolder) ->
+                        {
+                            final Git git = Git.create(process);
+                            test.assertEqual(Iterable.create(), git.checkAttrBatch(tempFolder, Iterable.create("text"), Iterable.create()).await());
+                        });
+                    });
+
+                    runner.testGroup("checkIgnoreBatch(Folder,Iterable<String>)", () ->
+                    {
+                        runner.test("with null repositoryFolder", (Test test) ->
+                        {
+                            final Git git = Git.create(process);
+                            test.assertThrows(() -> git.checkIgnoreBatch(null, Iterable.create("a.txt")),
+                                new PreConditionFailure("repositoryFolder cannot be null."));
+                        });
+
+                        runner.test("with null paths",
+                            (TestResources resources) -> Tuple.create(resources.getTemporaryFolder()),
+                            (Test test, Folder tempFolder) ->
+                        {
+                            final Git git = Git.create(process);
+                            test.assertThrows(() -> git.checkIgnoreBatch(tempFolder, null),
+                                new PreConditionFailure("paths cannot be null."));
+                        });
+
+                        runner.test("with no paths",
+                            (TestResources resources) -> Tuple.create(resources.getTemporaryFolder()),
+                            (Test test, Folder tempFolder) ->
+                        {
+                            final Git git = Git.create(process);
+                            test.assertEqual(Iterable.create(), git.checkIgnoreBatch(tempFolder, Iterable.create()).await());
+                        });
+                    });
+
                     runner.testGroup("clone(GitCloneParameters)", () ->
                     {
                         runner.test("with null", (Test test) ->
@@ -813,8 +1454,329 @@ public interface GitTests
                             test.assertEqual(0, exitCode);
                         });
                     });
+
+                    runner.testGroup("cloneLocal(Folder,Folder,boolean,Action1<GitCloneParameters>)", () ->
+                    {
+                        runner.test("with null repository",
+                            (TestResources resources) -> Tuple.create(resources.getTemporaryFolder()),
+                            (Test test, Folder tempFolder) ->
+                        {
+                            final Git git = Git.create(process);
+                            test.assertThrows(() -> git.cloneLocal(null, tempFolder.getFolder("clone").await(), false, (GitCloneParameters parameters) -> {}),
+                                new PreConditionFailure("repository cannot be null."));
+                        });
+
+                        runner.test("with null directory",
+                            (TestResources resources) -> Tuple.create(resources.getTemporaryFolder()),
+                            (Test test, Folder tempFolder) ->
+                        {
+                            final Git git = Git.create(process);
+                            test.assertThrows(() -> git.cloneLocal(tempFolder.getFolder("source").await(), null, false, (GitCloneParameters parameters) -> {}),
+                                new PreConditionFailure("directory cannot be null."));
+                        });
+
+                        runner.test("with null parametersSetup",
+                            (TestResources resources) -> Tuple.create(resources.getTemporaryFolder()),
+                            (Test test, Folder tempFolder) ->
+                        {
+                            final Git git = Git.create(process);
+                            test.assertThrows(() -> git.cloneLocal(tempFolder.getFolder("source").await(), tempFolder.getFolder("clone").await(), false, null),
+                                new PreConditionFailure("parametersSetup cannot be null."));
+                        });
+
+                        runner.test("with same file store",
+                            (TestResources resources) -> Tuple.create(resources.getTemporaryFolder()),
+                            (Test test, Folder tempFolder) ->
+                        {
+                            final Git git = Git.create(process);
+                            final Folder sourceFolder = tempFolder.getFolder("source").await();
+                            final Folder cloneFolder = tempFolder.getFolder("clone").await();
+                            test.assertEqual(0, git.init((GitInitParameters parameters) -> parameters.addQuiet().addDirectory(sourceFolder)).await());
+
+                            final GitLocalCloneResult result = git.cloneLocal(sourceFolder, cloneFolder, false, (GitCloneParameters parameters) -> parameters.addQuiet()).await();
+                            test.assertEqual(GitLocalCloneStrategy.Hardlinks, result.getStrategy());
+                            test.assertEqual(0, result.getExitCode());
+                            test.assertTrue(cloneFolder.getFolder(".git").await().exists().await());
+                            test.assertFalse(cloneFolder.getFile(".git/objects/info/alternates").await().exists().await());
+                        });
+
+                        runner.test("with shared",
+                            (TestResources resources) -> Tuple.create(resources.getTemporaryFolder()),
+                            (Test test, Folder tempFolder) ->
+                        {
+                            final Git git = Git.create(process);
+                            final Folder sourceFolder = tempFolder.getFolder("source").await();
+                            final Folder cloneFolder = tempFolder.getFolder("clone").await();
+                            test.assertEqual(0, git.init((GitInitParameters parameters) -> parameters.addQuiet().addDirectory(sourceFolder)).await());
+
+                            final GitLocalCloneResult result = git.cloneLocal(sourceFolder, cloneFolder, true, (GitCloneParameters parameters) -> parameters.addQuiet()).await();
+                            test.assertEqual(GitLocalCloneStrategy.Shared, result.getStrategy());
+                            test.assertEqual(0, result.getExitCode());
+                            test.assertTrue(cloneFolder.getFile(".git/objects/info/alternates").await().exists().await());
+                        });
+                    });
+
+                    runner.testGroup("updateRefBatch(Folder,Iterable<String>)", () ->
+                    {
+                        runner.test("with null repositoryFolder", (Test test) ->
+                        {
+                            final Git git = Git.create(process);
+                            test.assertThrows(() -> git.updateRefBatch(null, Iterable.create("delete refs/heads/a")),
+                                new PreConditionFailure("repositoryFolder cannot be null."));
+                        });
+
+                        runner.test("with null instructions",
+                            (TestResources resources) -> Tuple.create(resources.getTemporaryFolder()),
+                            (Test test, Folder tempFolder) ->
+                        {
+                            final Git git = Git.create(process);
+                            test.assertThrows(() -> git.updateRefBatch(tempFolder, null),
+                                new PreConditionFailure("instructions cannot be null."));
+                        });
+
+                        runner.test("with no instructions",
+                            (TestResources resources) -> Tuple.create(resources.getTemporaryFolder()),
+                            (Test test, Folder tempFolder) ->
+                        {
+                            final Git git = Git.create(process);
+                            git.updateRefBatch(tempFolder, Iterable.create()).await();
+                        });
+                    });
+                });
+            }
+
+            // These tests start a real "sleep" through a Git alias and look for it among this
+            // process's descendants, which only works on Unix-like operating systems.
+            if (GitTests.testRealDesktopProcess && !GitTests.isWindows())
+            {
+                runner.testGroup("run(GitParameters) with hung real child process", () ->
+                {
+                    runner.test("with identical hung commands and timeout",
+                        (TestResources resources) -> Tuple.create(resources.getProcess()),
+                        (Test test, DesktopProcess process) ->
+                    {
+                        final Git git = Git.create(process);
+                        final java.util.List<Throwable> errors = java.util.Collections.synchronizedList(new java.util.ArrayList<>());
+                        final java.util.List<Thread> threads = new java.util.ArrayList<>();
+                        for (int i = 0; i < 2; ++i)
+                        {
+                            final Thread thread = new Thread(() ->
+                            {
+                                try
+                                {
+                                    git.run(GitParameters.create()
+                                        .addConfiguration("alias.hang", "!sleep 3600")
+                                        .addCommandArgument("hang")
+                                        .setTimeout(Duration.milliseconds(200)))
+                                        .await();
+                                }
+                                catch (Throwable error)
+                                {
+                                    errors.add(error);
+                                }
+                            });
+                            threads.add(thread);
+                            thread.start();
+                        }
+                        for (final Thread thread : threads)
+                        {
+                            try
+                            {
+                                thread.join();
+                            }
+                            catch (InterruptedException e)
+                            {
+                                throw new RuntimeException(e);
+                            }
+                        }
+
+                        test.assertEqual(2, errors.size());
+                        for (final Throwable error : errors)
+                        {
+                            test.assertTrue(error instanceof GitTimeoutException);
+                            test.assertEqual("git command did not finish within 200 milliseconds: git -c alias.hang=!sleep 3600 hang", error.getMessage());
+                        }
+                        test.assertEqual(0L, ProcessHandle.current().descendants()
+                            .filter((ProcessHandle descendant) -> descendant.info().commandLine().map((String commandLine) -> commandLine.contains("sleep 3600")).orElse(false))
+                            .count());
+                    });
+
+                    runner.test("with hung command and cancellation token",
+                        (TestResources resources) -> Tuple.create(resources.getProcess()),
+                        (Test test, DesktopProcess process) ->
+                    {
+                        final Git git = Git.create(process);
+                        final GitCancellationToken cancellationToken = GitCancellationToken.create();
+                        final Thread cancelThread = new Thread(() ->
+                        {
+                            try
+                            {
+                                Thread.sleep(200);
+                            }
+                            catch (InterruptedException e)
+                            {
+                                throw new RuntimeException(e);
+                            }
+                            cancellationToken.cancel();
+                        });
+                        cancelThread.start();
+                        test.assertThrows(() -> git.run(GitParameters.create()
+                                .addConfiguration("alias.hang", "!sleep 3600")
+                                .addCommandArgument("hang")
+                                .setCancellationToken(cancellationToken))
+                                .await(),
+                            new GitCancelledException("git command was cancelled: git -c alias.hang=!sleep 3600 hang"));
+                        test.assertEqual(0L, ProcessHandle.current().descendants()
+                            .filter((ProcessHandle descendant) -> descendant.info().commandLine().map((String commandLine) -> commandLine.contains("sleep 3600")).orElse(false))
+                            .count());
+                    });
+                });
+            }
+
+            if (GitTests.testRealDesktopProcess)
+            {
+                runner.testGroup("status(Folder) with real child process", () ->
+                {
+                    runner.test("with clean filter",
+                        (TestResources resources) -> Tuple.create(resources.getProcess(), resources.getTemporaryFolder()),
+                        (Test test, DesktopProcess process, Folder tempFolder) ->
+                    {
+                        final Git git = Git.create(process);
+                        git.init((GitInitParameters parameters) -> parameters.addQuiet().addDirectory(tempFolder)).await();
+                        git.run(GitParameters.create()
+                            .setWorkingFolder(tempFolder)
+                            .addCommandArguments("config", "filter.upper.clean", "tr a-z A-Z"))
+                            .await();
+                        tempFolder.createFile(".gitattributes").await().setContentsAsString("a.txt filter=upper\n").await();
+                        GitTests.createRepositoryWithCommit(git, tempFolder, "a.txt", "ab\n");
+
+                        // The file's bytes don't match its blob ("AB\n"), but Git's clean filter
+                        // converts them to it.
+                        tempFolder.getFile("a.txt").await().setContentsAsString("ab\n").await();
+                        final GitStatus status = git.status(tempFolder).await();
+                        test.assertEqual(Iterable.create(GitStatusEntry.createUntracked(".gitattributes")), status.getEntries());
+                    });
+                });
+
+                runner.testGroup("createCatFileSession(Folder)", () ->
+                {
+                    runner.test("with null repositoryFolder",
+                        (TestResources resources) -> Tuple.create(resources.getProcess()),
+                        (Test test, DesktopProcess process) ->
+                    {
+                        final Git git = Git.create(process);
+                        test.assertThrows(() -> git.createCatFileSession(null),
+                            new PreConditionFailure("repositoryFolder cannot be null."));
+                    });
+
+                    runner.test("with requests across calls",
+                        (TestResources resources) -> Tuple.create(resources.getProcess(), resources.getTemporaryFolder()),
+                        (Test test, DesktopProcess process, Folder tempFolder) ->
+                    {
+                        final Git git = Git.create(process);
+                        GitTests.createRepositoryWithCommit(git, tempFolder, "a.txt", "hello");
+
+                        try (final GitCatFileSession session = git.createCatFileSession(tempFolder))
+                        {
+                            test.assertSame(tempFolder, session.getRepositoryFolder());
+
+                            final GitCatFileBatchEntry blob = session.readObject("HEAD:a.txt").await();
+                            test.assertEqual(GitObjectType.Blob, blob.getObjectType());
+                            test.assertEqual(5L, blob.getSize());
+                            test.assertEqual("hello", new String(blob.getContents(), java.nio.charset.StandardCharsets.UTF_8));
+
+                            final List<GitCatFileBatchEntry> entries = session.readObjects(Iterable.create("HEAD:a.txt", "HEAD:missing.txt", "HEAD^{tree}")).await().toList();
+                            test.assertEqual(3, entries.getCount());
+                            test.assertEqual(blob.getObjectName(), entries.get(0).getObjectName());
+                            test.assertTrue(entries.get(1).isMissing());
+                            test.assertEqual(GitObjectType.Tree, entries.get(2).getObjectType());
+
+                            final GitCatFileBatchEntry commitInfo = session.readObjectInfo("HEAD").await();
+                            test.assertEqual(GitObjectType.Commit, commitInfo.getObjectType());
+                            test.assertNull(commitInfo.getContents());
+                        }
+                    });
+
+                    runner.test("after dispose()",
+                        (TestResources resources) -> Tuple.create(resources.getProcess(), resources.getTemporaryFolder()),
+                        (Test test, DesktopProcess process, Folder tempFolder) ->
+                    {
+                        final Git git = Git.create(process);
+                        GitTests.createRepositoryWithCommit(git, tempFolder, "a.txt", "hello");
+
+                        final GitCatFileSession session = git.createCatFileSession(tempFolder);
+                        session.readObjectInfo("HEAD").await();
+                        test.assertTrue(session.dispose().await());
+                        test.assertTrue(session.isDisposed());
+                        test.assertFalse(session.dispose().await());
+                        test.assertThrows(() -> session.readObjectInfo("HEAD").await(),
+                            new GitException("The cat-file session for " + Strings.escapeAndQuote(tempFolder.getPath().toString()) + " has been disposed."));
+                    });
+                });
+
+                runner.testGroup("getObjectDatabase(Folder) with real child process", () ->
+                {
+                    runner.test("with promisor object fetcher",
+                        (TestResources resources) -> Tuple.create(resources.getProcess(), resources.getTemporaryFolder()),
+                        (Test test, DesktopProcess process, Folder tempFolder) ->
+                    {
+                        final Git git = Git.create(process);
+                        GitTests.createRepositoryWithCommit(git, tempFolder, "a.txt", "hello");
+                        final GitCatFileSession session = git.getPromisorCatFileSession(tempFolder);
+                        final GitObjectId blobId = GitObjectId.parse(session.readObjectInfo("HEAD:a.txt").await().getObjectName()).await();
+                        final GitObjectId commitId = GitObjectId.parse(session.readObjectInfo("HEAD").await().getObjectName()).await();
+
+                        final Function1<GitObjectId,GitObject> promisorObjectFetcher = git.getObjectDatabase(tempFolder).await().getPromisorObjectFetcher();
+                        test.assertEqual("hello", promisorObjectFetcher.run(blobId).getContents().getText());
+                        test.assertEqual(GitObjectType.Commit, promisorObjectFetcher.run(commitId).getObjectType());
+
+                        // Every fetch goes through the repository's one long-lived session.
+                        test.assertSame(session, git.getPromisorCatFileSession(tempFolder));
+                        test.assertFalse(session.isDisposed());
+
+                        test.assertTrue(git.closeRepository(tempFolder).await());
+                        test.assertTrue(session.isDisposed());
+                    });
                 });
             }
         });
     }
+
+    /**
+     * Get whether the tests are running on Windows.
+     * @return Whether the tests are running on Windows.
+     */
+    static boolean isWindows()
+    {
+        return System.getProperty("os.name", "").toLowerCase().startsWith("windows");
+    }
+
+    /**
+     * Initialize a repository in the provided folder with a real Git process and commit one
+     * file to it.
+     * @param git The Git object to run the commands with.
+     * @param folder The folder to initialize the repository in.
+     * @param fileName The name of the file to commit.
+     * @param fileContents The contents of the file to commit.
+     */
+    static void createRepositoryWithCommit(Git git, Folder folder, String fileName, String fileContents)
+    {
+        PreCondition.assertNotNull(git, "git");
+        PreCondition.assertNotNull(folder, "folder");
+        PreCondition.assertNotNullAndNotEmpty(fileName, "fileName");
+        PreCondition.assertNotNull(fileContents, "fileContents");
+
+        git.init((GitInitParameters parameters) -> parameters.addQuiet().addDirectory(folder)).await();
+        folder.createFile(fileName).await().setContentsAsString(fileContents).await();
+        git.run(GitParameters.create()
+            .setWorkingFolder(folder)
+            .addCommandArguments("add", fileName))
+            .await();
+        git.run(GitParameters.create()
+            .setWorkingFolder(folder)
+            .addConfiguration("user.name", "test")
+            .addConfiguration("user.email", "test@example.com")
+            .addCommandArguments("commit", "--quiet", "--message", "initial"))
+            .await();
+    }
 }
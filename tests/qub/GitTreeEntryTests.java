@@ -0,0 +1,63 @@
+package qub;
+
+public interface GitTreeEntryTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(GitTreeEntry.class, () ->
+        {
+            final GitObjectId objectId = GitObjectId.parse("ce013625030ba8dba906f756967f9e9ca394464a").await();
+
+            runner.testGroup("create(int,GitByteSlice,GitObjectId)", () ->
+            {
+                runner.test("with negative mode", (Test test) ->
+                {
+                    test.assertThrows(() -> GitTreeEntry.create(-1, GitObjectDatabaseTests.toSlice("a"), objectId),
+                        new PreConditionFailure("mode (-1) must be greater than or equal to 0."));
+                });
+
+                runner.test("with empty name", (Test test) ->
+                {
+                    test.assertThrows(() -> GitTreeEntry.create(0100644, GitObjectDatabaseTests.toSlice(""), objectId),
+                        new PreConditionFailure("name.isEmpty() cannot be true."));
+                });
+
+                runner.test("with null objectId", (Test test) ->
+                {
+                    test.assertThrows(() -> GitTreeEntry.create(0100644, GitObjectDatabaseTests.toSlice("a"), null),
+                        new PreConditionFailure("objectId cannot be null."));
+                });
+            });
+
+            final Action3<Integer,GitObjectType,String> modeTest = (Integer mode, GitObjectType expectedObjectType, String expectedString) ->
+            {
+                runner.test("with mode " + Integer.toOctalString(mode), (Test test) ->
+                {
+                    final GitTreeEntry entry = GitTreeEntry.create(mode, GitObjectDatabaseTests.toSlice("name"), objectId);
+                    test.assertEqual(mode.intValue(), entry.getMode());
+                    test.assertEqual("name", entry.getName().getText());
+                    test.assertEqual(objectId, entry.getObjectId());
+                    test.assertEqual(expectedObjectType, entry.getObjectType());
+                    test.assertEqual(expectedObjectType == GitObjectType.Tree, entry.isTree());
+                    test.assertEqual(mode == GitTreeEntry.submoduleMode, entry.isSubmodule());
+                    test.assertEqual(expectedString, entry.toString());
+                });
+            };
+
+            modeTest.run(0100644, GitObjectType.Blob, "100644 blob ce013625030ba8dba906f756967f9e9ca394464a\tname");
+            modeTest.run(0100755, GitObjectType.Blob, "100755 blob ce013625030ba8dba906f756967f9e9ca394464a\tname");
+            modeTest.run(GitTreeEntry.symbolicLinkMode, GitObjectType.Blob, "120000 blob ce013625030ba8dba906f756967f9e9ca394464a\tname");
+            modeTest.run(GitTreeEntry.treeMode, GitObjectType.Tree, "040000 tree ce013625030ba8dba906f756967f9e9ca394464a\tname");
+            modeTest.run(GitTreeEntry.submoduleMode, GitObjectType.Commit, "160000 commit ce013625030ba8dba906f756967f9e9ca394464a\tname");
+
+            runner.test("equals(Object)", (Test test) ->
+            {
+                final GitTreeEntry entry = GitTreeEntry.create(0100644, GitObjectDatabaseTests.toSlice("a"), objectId);
+                test.assertTrue(entry.equals((Object)GitTreeEntry.create(0100644, GitObjectDatabaseTests.toSlice("a"), objectId)));
+                test.assertFalse(entry.equals((Object)GitTreeEntry.create(0100755, GitObjectDatabaseTests.toSlice("a"), objectId)));
+                test.assertFalse(entry.equals((Object)GitTreeEntry.create(0100644, GitObjectDatabaseTests.toSlice("b"), objectId)));
+                test.assertFalse(entry.equals((Object)null));
+            });
+        });
+    }
+}
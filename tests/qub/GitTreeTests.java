@@ -0,0 +1,52 @@
+package qub;
+
+public interface GitTreeTests
+{
+    static GitTree createTree(byte[] contents)
+    {
+        final GitObjectId objectId = GitObjectDatabaseTests.getObjectId(GitObjectType.Tree, contents);
+        return (GitTree)GitObject.create(objectId, GitObjectType.Tree, GitByteSlice.create(contents, 0, contents.length));
+    }
+
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(GitTree.class, () ->
+        {
+            runner.testGroup("getEntries()", () ->
+            {
+                runner.test("with empty tree", (Test test) ->
+                {
+                    final GitTree tree = GitTreeTests.createTree(new byte[0]);
+                    test.assertEqual("4b825dc642cb6eb9a060e54bf8d69288fbee4904", tree.getObjectId().toString());
+                    test.assertEqual(Iterable.create(), tree.getEntries().await());
+                });
+
+                runner.test("with entries", (Test test) ->
+                {
+                    final GitObjectId blobId = GitObjectId.parse("ce013625030ba8dba906f756967f9e9ca394464a").await();
+                    final GitObjectId treeId = GitObjectId.parse("4b825dc642cb6eb9a060e54bf8d69288fbee4904").await();
+                    final Iterable<GitTreeEntry> expected = Iterable.create(
+                        GitTreeEntry.create(0100644, GitObjectDatabaseTests.toSlice("a.txt"), blobId),
+                        GitTreeEntry.create(0100755, GitObjectDatabaseTests.toSlice("run.sh"), blobId),
+                        GitTreeEntry.create(GitTreeEntry.treeMode, GitObjectDatabaseTests.toSlice("sources"), treeId));
+                    final GitTree tree = GitTreeTests.createTree(GitObjectDatabaseTests.createTreeContents(expected));
+                    test.assertEqual(expected, tree.getEntries().await());
+                });
+
+                runner.test("with truncated entry", (Test test) ->
+                {
+                    final GitTree tree = GitTreeTests.createTree("100644 a.txt\0abc".getBytes(java.nio.charset.StandardCharsets.UTF_8));
+                    test.assertThrows(() -> tree.getEntries().await(),
+                        new ParseException("Unexpected end of tree " + tree.getObjectId() + "."));
+                });
+
+                runner.test("with invalid mode", (Test test) ->
+                {
+                    final GitTree tree = GitTreeTests.createTree("10x644 a.txt\0".getBytes(java.nio.charset.StandardCharsets.UTF_8));
+                    test.assertThrows(() -> tree.getEntries().await(),
+                        new ParseException("Expected an octal tree entry mode in tree " + tree.getObjectId() + ", but found 'x'."));
+                });
+            });
+        });
+    }
+}
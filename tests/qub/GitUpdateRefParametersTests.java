@@ -0,0 +1,234 @@
+package qub;
+
+public interface GitUpdateRefParametersTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(GitUpdateRefParameters.class, () ->
+        {
+            GitParametersDecoratorTests.test(runner, GitUpdateRefParameters::create);
+
+            runner.test("create()", (Test test) ->
+            {
+                final GitUpdateRefParameters parameters = GitUpdateRefParameters.create();
+                test.assertNotNull(parameters);
+                test.assertEqual(Path.parse("git"), parameters.getExecutablePath());
+                test.assertEqual(Iterable.create("update-ref"), parameters.getArguments());
+                test.assertEqual(Iterable.create(), parameters.getGitArguments());
+                test.assertEqual(Iterable.create("update-ref"), parameters.getCommandArguments());
+                test.assertNull(parameters.getWorkingFolderPath());
+                test.assertNull(parameters.getInputStream());
+                test.assertNull(parameters.getOutputStreamHandler());
+                test.assertNull(parameters.getErrorStreamHandler());
+            });
+
+            runner.testGroup("create(String)", () ->
+            {
+                final Action2<String,Throwable> createErrorTest = (String executablePath, Throwable expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(executablePath), (Test test) ->
+                    {
+                        test.assertThrows(() -> GitUpdateRefParameters.create(executablePath),
+                            expected);
+                    });
+                };
+
+                createErrorTest.run(null, new PreConditionFailure("executablePath cannot be null."));
+                createErrorTest.run("", new PreConditionFailure("executablePath cannot be empty."));
+
+                final Action1<String> createTest = (String executablePath) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(executablePath), (Test test) ->
+                    {
+                        final GitUpdateRefParameters parameters = GitUpdateRefParameters.create(executablePath);
+                        test.assertNotNull(parameters);
+                        test.assertEqual(Path.parse(executablePath), parameters.getExecutablePath());
+                        test.assertEqual(Iterable.create("update-ref"), parameters.getArguments());
+                        test.assertEqual(Iterable.create(), parameters.getGitArguments());
+                        test.assertEqual(Iterable.create("update-ref"), parameters.getCommandArguments());
+                    });
+                };
+
+                createTest.run("git");
+                createTest.run("/rooted/git.exe");
+            });
+
+            runner.testGroup("create(Path)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> GitUpdateRefParameters.create((Path)null),
+                        new PreConditionFailure("executablePath cannot be null."));
+                });
+
+                runner.test("with non-null", (Test test) ->
+                {
+                    final GitUpdateRefParameters parameters = GitUpdateRefParameters.create(Path.parse("/rooted/git"));
+                    test.assertEqual(Path.parse("/rooted/git"), parameters.getExecutablePath());
+                    test.assertEqual(Iterable.create("update-ref"), parameters.getArguments());
+                });
+            });
+
+            runner.testGroup("create(File)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> GitUpdateRefParameters.create((File)null),
+                        new PreConditionFailure("executableFile cannot be null."));
+                });
+
+                runner.test("with non-null", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    final File file = fileSystem.getFile("/executable").await();
+                    final GitUpdateRefParameters parameters = GitUpdateRefParameters.create(file);
+                    test.assertEqual(file.getPath(), parameters.getExecutablePath());
+                    test.assertEqual(Iterable.create("update-ref"), parameters.getArguments());
+                });
+            });
+
+            final Action2<String,Function1<GitUpdateRefParameters,GitUpdateRefParameters>> addFlagTest = (String expectedArgument, Function1<GitUpdateRefParameters,GitUpdateRefParameters> addFlag) ->
+            {
+                runner.test("with " + Strings.escapeAndQuote(expectedArgument), (Test test) ->
+                {
+                    final GitUpdateRefParameters parameters = GitUpdateRefParameters.create();
+                    final GitUpdateRefParameters addFlagResult = addFlag.run(parameters);
+                    test.assertSame(parameters, addFlagResult);
+                    test.assertEqual(Iterable.create("update-ref", expectedArgument), parameters.getArguments());
+                    test.assertEqual(Iterable.create(), parameters.getGitArguments());
+                    test.assertEqual(Iterable.create("update-ref", expectedArgument), parameters.getCommandArguments());
+                });
+            };
+
+            addFlagTest.run("-d", GitUpdateRefParameters::addDelete);
+            addFlagTest.run("--no-deref", GitUpdateRefParameters::addNoDeref);
+            addFlagTest.run("--stdin", GitUpdateRefParameters::addStdin);
+            addFlagTest.run("-z", GitUpdateRefParameters::addZ);
+
+            runner.testGroup("addMessage(String)", () ->
+            {
+                final Action2<String,Throwable> addMessageErrorTest = (String message, Throwable expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(message), (Test test) ->
+                    {
+                        final GitUpdateRefParameters parameters = GitUpdateRefParameters.create();
+                        test.assertThrows(() -> parameters.addMessage(message),
+                            expected);
+                        test.assertEqual(Iterable.create("update-ref"), parameters.getArguments());
+                    });
+                };
+
+                addMessageErrorTest.run(null, new PreConditionFailure("message cannot be null."));
+                addMessageErrorTest.run("", new PreConditionFailure("message cannot be empty."));
+
+                final Action1<String> addMessageTest = (String message) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(message), (Test test) ->
+                    {
+                        final GitUpdateRefParameters parameters = GitUpdateRefParameters.create();
+                        final GitUpdateRefParameters addMessageResult = parameters.addMessage(message);
+                        test.assertSame(parameters, addMessageResult);
+                        test.assertEqual(Iterable.create("update-ref", "-m", message), parameters.getArguments());
+                        test.assertEqual(Iterable.create("update-ref", "-m", message), parameters.getCommandArguments());
+                    });
+                };
+
+                addMessageTest.run("fast-forward");
+            });
+
+            runner.testGroup("addReference(String)", () ->
+            {
+                final Action2<String,Throwable> addReferenceErrorTest = (String reference, Throwable expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(reference), (Test test) ->
+                    {
+                        final GitUpdateRefParameters parameters = GitUpdateRefParameters.create();
+                        test.assertThrows(() -> parameters.addReference(reference),
+                            expected);
+                        test.assertEqual(Iterable.create("update-ref"), parameters.getArguments());
+                    });
+                };
+
+                addReferenceErrorTest.run(null, new PreConditionFailure("reference cannot be null."));
+                addReferenceErrorTest.run("", new PreConditionFailure("reference cannot be empty."));
+
+                final Action1<String> addReferenceTest = (String reference) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(reference), (Test test) ->
+                    {
+                        final GitUpdateRefParameters parameters = GitUpdateRefParameters.create();
+                        final GitUpdateRefParameters addReferenceResult = parameters.addReference(reference);
+                        test.assertSame(parameters, addReferenceResult);
+                        test.assertEqual(Iterable.create("update-ref", reference), parameters.getArguments());
+                        test.assertEqual(Iterable.create("update-ref", reference), parameters.getCommandArguments());
+                    });
+                };
+
+                addReferenceTest.run("refs/heads/main");
+                addReferenceTest.run("HEAD");
+            });
+
+            runner.testGroup("addNewValue(String)", () ->
+            {
+                final Action2<String,Throwable> addNewValueErrorTest = (String newValue, Throwable expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(newValue), (Test test) ->
+                    {
+                        final GitUpdateRefParameters parameters = GitUpdateRefParameters.create();
+                        test.assertThrows(() -> parameters.addNewValue(newValue),
+                            expected);
+                        test.assertEqual(Iterable.create("update-ref"), parameters.getArguments());
+                    });
+                };
+
+                addNewValueErrorTest.run(null, new PreConditionFailure("newValue cannot be null."));
+                addNewValueErrorTest.run("", new PreConditionFailure("newValue cannot be empty."));
+
+                final Action1<String> addNewValueTest = (String newValue) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(newValue), (Test test) ->
+                    {
+                        final GitUpdateRefParameters parameters = GitUpdateRefParameters.create();
+                        final GitUpdateRefParameters addNewValueResult = parameters.addNewValue(newValue);
+                        test.assertSame(parameters, addNewValueResult);
+                        test.assertEqual(Iterable.create("update-ref", newValue), parameters.getArguments());
+                        test.assertEqual(Iterable.create("update-ref", newValue), parameters.getCommandArguments());
+                    });
+                };
+
+                addNewValueTest.run("8ab686eafeb1f44702738c8b0f24f2567c36da6d");
+            });
+
+            runner.testGroup("addOldValue(String)", () ->
+            {
+                final Action2<String,Throwable> addOldValueErrorTest = (String oldValue, Throwable expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(oldValue), (Test test) ->
+                    {
+                        final GitUpdateRefParameters parameters = GitUpdateRefParameters.create();
+                        test.assertThrows(() -> parameters.addOldValue(oldValue),
+                            expected);
+                        test.assertEqual(Iterable.create("update-ref"), parameters.getArguments());
+                    });
+                };
+
+                addOldValueErrorTest.run(null, new PreConditionFailure("oldValue cannot be null."));
+                addOldValueErrorTest.run("", new PreConditionFailure("oldValue cannot be empty."));
+
+                final Action1<String> addOldValueTest = (String oldValue) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(oldValue), (Test test) ->
+                    {
+                        final GitUpdateRefParameters parameters = GitUpdateRefParameters.create();
+                        final GitUpdateRefParameters addOldValueResult = parameters.addOldValue(oldValue);
+                        test.assertSame(parameters, addOldValueResult);
+                        test.assertEqual(Iterable.create("update-ref", oldValue), parameters.getArguments());
+                        test.assertEqual(Iterable.create("update-ref", oldValue), parameters.getCommandArguments());
+                    });
+                };
+
+                addOldValueTest.run("0000000000000000000000000000000000000000");
+            });
+        });
+    }
+}
@@ -0,0 +1,311 @@
+package qub;
+
+public interface GitVersionCacheTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(GitVersionCache.class, () ->
+        {
+            runner.test("create()", (Test test) ->
+            {
+                final GitVersionCache cache = GitVersionCache.create();
+                test.assertNotNull(cache);
+                test.assertEqual(0, cache.getCount());
+            });
+
+            runner.test("getProcessCache()", (Test test) ->
+            {
+                final GitVersionCache cache = GitVersionCache.getProcessCache();
+                test.assertNotNull(cache);
+                test.assertSame(cache, GitVersionCache.getProcessCache());
+            });
+
+            runner.testGroup("get(Path,File,Function0<VersionNumber>)", () ->
+            {
+                runner.test("with null executablePath", (Test test) ->
+                {
+                    final GitVersionCache cache = GitVersionCache.create();
+                    test.assertThrows(() -> cache.get(null, null, VersionNumber::create),
+                        new PreConditionFailure("executablePath cannot be null."));
+                    test.assertEqual(0, cache.getCount());
+                });
+
+                runner.test("with null versionCreator", (Test test) ->
+                {
+                    final GitVersionCache cache = GitVersionCache.create();
+                    test.assertThrows(() -> cache.get(Path.parse("git"), null, null),
+                        new PreConditionFailure("versionCreator cannot be null."));
+                    test.assertEqual(0, cache.getCount());
+                });
+
+                runner.test("with null executableFile called twice",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final GitVersionCache cache = GitVersionCache.create();
+                    final IntegerValue createCount = IntegerValue.create(0);
+                    final Function0<VersionNumber> versionCreator = () ->
+                    {
+                        createCount.increment();
+                        return VersionNumber.create().setMajor(2).setMinor(37);
+                    };
+
+                    final VersionNumber version1 = cache.get(Path.parse("git"), null, versionCreator).await();
+                    test.assertEqual(VersionNumber.create().setMajor(2).setMinor(37), version1);
+                    test.assertEqual(1, createCount.get());
+                    test.assertEqual(1, cache.getCount());
+
+                    final VersionNumber version2 = cache.get(Path.parse("git"), null, versionCreator).await();
+                    test.assertSame(version1, version2);
+                    test.assertEqual(1, createCount.get());
+                    test.assertEqual(1, cache.getCount());
+                });
+
+                runner.test("with different executable paths",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final GitVersionCache cache = GitVersionCache.create();
+                    final IntegerValue createCount = IntegerValue.create(0);
+                    final Function0<VersionNumber> versionCreator = () ->
+                    {
+                        createCount.increment();
+                        return VersionNumber.create().setMajor(createCount.get());
+                    };
+
+                    final VersionNumber version1 = cache.get(Path.parse("git"), null, versionCreator).await();
+                    test.assertEqual(VersionNumber.create().setMajor(1), version1);
+
+                    final VersionNumber version2 = cache.get(Path.parse("/other/git"), null, versionCreator).await();
+                    test.assertEqual(VersionNumber.create().setMajor(2), version2);
+                    test.assertEqual(2, cache.getCount());
+                });
+
+                runner.test("with the same executableFile through different paths",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final InMemoryFileSystem fileSystem = process.getFileSystem();
+                    fileSystem.createRoot("/").await();
+                    final File executableFile = fileSystem.createFile("/usr/bin/git").await();
+                    executableFile.setContentsAsString("version 1").await();
+
+                    final GitVersionCache cache = GitVersionCache.create();
+                    final IntegerValue createCount = IntegerValue.create(0);
+                    final Function0<VersionNumber> versionCreator = () ->
+                    {
+                        createCount.increment();
+                        return VersionNumber.create().setMajor(createCount.get());
+                    };
+
+                    final VersionNumber version1 = cache.get(Path.parse("git"), executableFile, versionCreator).await();
+                    test.assertEqual(VersionNumber.create().setMajor(1), version1);
+
+                    final VersionNumber version2 = cache.get(executableFile.getPath(), executableFile, versionCreator).await();
+                    test.assertSame(version1, version2);
+                    test.assertEqual(1, createCount.get());
+                    test.assertEqual(1, cache.getCount());
+                });
+
+                runner.test("with concurrent calls", (Test test) ->
+                {
+                    final GitVersionCache cache = GitVersionCache.create();
+                    final java.util.concurrent.atomic.AtomicInteger createCount = new java.util.concurrent.atomic.AtomicInteger();
+                    final Function0<VersionNumber> versionCreator = () ->
+                    {
+                        createCount.incrementAndGet();
+                        return VersionNumber.create().setMajor(2);
+                    };
+
+                    final java.util.List<Thread> threads = new java.util.ArrayList<>();
+                    for (int i = 0; i < 8; ++i)
+                    {
+                        final Thread thread = new Thread(() -> cache.get(Path.parse("git"), null, versionCreator).await());
+                        threads.add(thread);
+                        thread.start();
+                    }
+                    for (final Thread thread : threads)
+                    {
+                        try
+                        {
+                            thread.join();
+                        }
+                        catch (InterruptedException e)
+                        {
+                            throw new RuntimeException(e);
+                        }
+                    }
+
+                    test.assertEqual(1, createCount.get());
+                    test.assertEqual(1, cache.getCount());
+                });
+
+                runner.test("with executableFile that changes",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final InMemoryFileSystem fileSystem = process.getFileSystem();
+                    fileSystem.createRoot("/").await();
+                    final File executableFile = fileSystem.createFile("/git").await();
+                    executableFile.setContentsAsString("version 1").await();
+
+                    final GitVersionCache cache = GitVersionCache.create();
+                    final IntegerValue createCount = IntegerValue.create(0);
+                    final Function0<VersionNumber> versionCreator = () ->
+                    {
+                        createCount.increment();
+                        return VersionNumber.create().setMajor(createCount.get());
+                    };
+
+                    final VersionNumber version1 = cache.get(executableFile.getPath(), executableFile, versionCreator).await();
+                    test.assertEqual(VersionNumber.create().setMajor(1), version1);
+
+                    final VersionNumber version2 = cache.get(executableFile.getPath(), executableFile, versionCreator).await();
+                    test.assertEqual(VersionNumber.create().setMajor(1), version2);
+                    test.assertEqual(1, createCount.get());
+
+                    executableFile.setContentsAsString("version 2 is larger").await();
+
+                    final VersionNumber version3 = cache.get(executableFile.getPath(), executableFile, versionCreator).await();
+                    test.assertEqual(VersionNumber.create().setMajor(2), version3);
+                    test.assertEqual(2, createCount.get());
+                    test.assertEqual(1, cache.getCount());
+                });
+            });
+
+            runner.testGroup("get(ChildProcessRunner,Path,File,Function0<VersionNumber>)", () ->
+            {
+                runner.test("with null childProcessRunner", (Test test) ->
+                {
+                    final GitVersionCache cache = GitVersionCache.create();
+                    test.assertThrows(() -> cache.get(null, Path.parse("git"), null, VersionNumber::create),
+                        new PreConditionFailure("childProcessRunner cannot be null."));
+                    test.assertEqual(0, cache.getCount());
+                });
+
+                runner.test("with null executableFile and different runners",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess(), resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process1, FakeDesktopProcess process2) ->
+                {
+                    final GitVersionCache cache = GitVersionCache.create();
+                    final IntegerValue createCount = IntegerValue.create(0);
+                    final Function0<VersionNumber> versionCreator = () ->
+                    {
+                        createCount.increment();
+                        return VersionNumber.create().setMajor(createCount.get());
+                    };
+
+                    final VersionNumber version1 = cache.get(process1.getChildProcessRunner(), Path.parse("git"), null, versionCreator).await();
+                    test.assertEqual(VersionNumber.create().setMajor(1), version1);
+                    test.assertSame(version1, cache.get(process1.getChildProcessRunner(), Path.parse("git"), null, versionCreator).await());
+                    test.assertEqual(1, createCount.get());
+
+                    final VersionNumber version2 = cache.get(process2.getChildProcessRunner(), Path.parse("git"), null, versionCreator).await();
+                    test.assertEqual(VersionNumber.create().setMajor(2), version2);
+                    test.assertEqual(2, createCount.get());
+                    test.assertEqual(2, cache.getCount());
+
+                    final VersionNumber version3 = cache.get(Path.parse("git"), null, versionCreator).await();
+                    test.assertEqual(VersionNumber.create().setMajor(3), version3);
+                    test.assertEqual(3, cache.getCount());
+
+                    cache.clear();
+                    test.assertEqual(0, cache.getCount());
+                });
+
+                runner.test("with executableFile and different runners",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess(), resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process1, FakeDesktopProcess process2) ->
+                {
+                    final InMemoryFileSystem fileSystem = process1.getFileSystem();
+                    fileSystem.createRoot("/").await();
+                    final File executableFile = fileSystem.createFile("/usr/bin/git").await();
+
+                    final GitVersionCache cache = GitVersionCache.create();
+                    final IntegerValue createCount = IntegerValue.create(0);
+                    final Function0<VersionNumber> versionCreator = () ->
+                    {
+                        createCount.increment();
+                        return VersionNumber.create().setMajor(createCount.get());
+                    };
+
+                    final VersionNumber version1 = cache.get(process1.getChildProcessRunner(), executableFile.getPath(), executableFile, versionCreator).await();
+                    final VersionNumber version2 = cache.get(process2.getChildProcessRunner(), executableFile.getPath(), executableFile, versionCreator).await();
+                    test.assertSame(version1, version2);
+                    test.assertEqual(1, createCount.get());
+                    test.assertEqual(1, cache.getCount());
+                });
+            });
+
+            runner.testGroup("findExecutableFile(FileSystem,Path,String,String)", () ->
+            {
+                runner.test("with null fileSystem", (Test test) ->
+                {
+                    test.assertThrows(() -> GitVersionCache.findExecutableFile(null, Path.parse("git"), null, null),
+                        new PreConditionFailure("fileSystem cannot be null."));
+                });
+
+                runner.test("with null executablePath", (Test test) ->
+                {
+                    test.assertThrows(() -> GitVersionCache.findExecutableFile(InMemoryFileSystem.create(), null, null, null),
+                        new PreConditionFailure("executablePath cannot be null."));
+                });
+
+                runner.test("with rooted path that exists", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final File executableFile = fileSystem.createFile("/usr/bin/git").await();
+                    test.assertEqual(executableFile, GitVersionCache.findExecutableFile(fileSystem, executableFile.getPath(), null, null));
+                });
+
+                runner.test("with rooted path that doesn't exist", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    test.assertNull(GitVersionCache.findExecutableFile(fileSystem, Path.parse("/usr/bin/git"), null, null));
+                });
+
+                runner.test("with null PATH", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    fileSystem.createFile("/usr/bin/git").await();
+                    test.assertNull(GitVersionCache.findExecutableFile(fileSystem, Path.parse("git"), null, null));
+                });
+
+                runner.test("with PATH", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final File executableFile = fileSystem.createFile("/usr/bin/git").await();
+                    fileSystem.createFile("/opt/git/git").await();
+                    final String path = String.join(java.io.File.pathSeparator, "relative", "/usr/local/bin", "/usr/bin", "/opt/git");
+                    test.assertEqual(executableFile, GitVersionCache.findExecutableFile(fileSystem, Path.parse("git"), path, null));
+                });
+
+                runner.test("with PATH and PATHEXT", (Test test) ->
+                {
+                    final InMemoryFileSystem fileSystem = InMemoryFileSystem.create();
+                    fileSystem.createRoot("/").await();
+                    final File executableFile = fileSystem.createFile("/tools/git.exe").await();
+                    final String pathExt = String.join(java.io.File.pathSeparator, ".COM", ".EXE");
+                    test.assertEqual(executableFile, GitVersionCache.findExecutableFile(fileSystem, Path.parse("git"), "/tools", pathExt));
+                });
+            });
+
+            runner.test("clear()",
+                (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                (Test test, FakeDesktopProcess process) ->
+            {
+                final GitVersionCache cache = GitVersionCache.create();
+                cache.get(Path.parse("git"), null, VersionNumber::create).await();
+                test.assertEqual(1, cache.getCount());
+
+                final GitVersionCache clearResult = cache.clear();
+                test.assertSame(cache, clearResult);
+                test.assertEqual(0, cache.getCount());
+            });
+        });
+    }
+}
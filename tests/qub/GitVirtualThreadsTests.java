@@ -0,0 +1,36 @@
+package qub;
+
+public interface GitVirtualThreadsTests
+{
+    static void test(TestRunner runner)
+    {
+        runner.testGroup(GitVirtualThreads.class, () ->
+        {
+            final boolean expectedSupported = Runtime.version().feature() >= 21;
+
+            runner.test("isSupported()", (Test test) ->
+            {
+                test.assertEqual(expectedSupported, GitVirtualThreads.isSupported());
+            });
+
+            runner.test("getThreadFactory()", (Test test) ->
+            {
+                if (expectedSupported)
+                {
+                    final java.util.concurrent.ThreadFactory threadFactory = GitVirtualThreads.getThreadFactory().await();
+                    test.assertNotNull(threadFactory);
+                    test.assertSame(threadFactory, GitVirtualThreads.getThreadFactory().await());
+
+                    final Thread thread = threadFactory.newThread(() -> {});
+                    test.assertNotNull(thread);
+                    test.assertTrue(thread.isDaemon());
+                }
+                else
+                {
+                    test.assertThrows(() -> GitVirtualThreads.getThreadFactory().await(),
+                        new UnsupportedOperationException("Virtual threads are not supported by this Java runtime (" + System.getProperty("java.version") + ")."));
+                }
+            });
+        });
+    }
+}